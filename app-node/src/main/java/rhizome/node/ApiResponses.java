@@ -22,6 +22,7 @@ final class ApiResponses {
     private static final Logger log = LoggerFactory.getLogger(NodeApi.class);
 
     static final HttpHeader H_XCTO = HttpHeaders.of("X-Content-Type-Options");
+    static final String JSON_UTF8 = "application/json; charset=utf-8";
 
     private ApiResponses() {}
 
@@ -74,6 +75,24 @@ final class ApiResponses {
             .build();
     }
 
+    /**
+     * A compact-block push outcome: the submit status when the block was rebuilt, else 200 with
+     * {@code {"status":"MISSING_TRANSACTIONS","hash":…,"missing":[…]}} naming the body slots the
+     * sender must post to {@code /compact_block/txs}.
+     */
+    static HttpResponse compactResponse(NodeService.CompactOutcome outcome) {
+        if (outcome.status() != null) {
+            return statusResponse(outcome.status());
+        }
+        return HttpResponse.ok200()
+            .withJson(new JSONObject()
+                .put("status", "MISSING_TRANSACTIONS")
+                .put("hash", outcome.blockHash().toHexString())
+                .put("missing", new org.json.JSONArray(outcome.missing()))
+                .toString())
+            .build();
+    }
+
     /** Deepest bracket nesting accepted in a JSON request body. org.json parses recursively, so a
      *  deeply nested body (tens of thousands of '[') overflows the event-loop thread's stack with a
      *  {@link StackOverflowError} — an {@code Error} {@link #guardedResponse} does not catch, taking
@@ -132,6 +151,15 @@ final class ApiResponses {
         return HttpResponse.ok200().withHeader(H_XCTO, "nosniff").withJson(body.toString()).build();
     }
 
+    /** A body written by a {@link JsonWriter}: its bytes as they are, no string round trip. */
+    static HttpResponse json(JsonWriter body) {
+        return HttpResponse.ok200()
+            .withHeader(H_XCTO, "nosniff")
+            .withHeader(HttpHeaders.CONTENT_TYPE, JSON_UTF8)
+            .withBody(body.toByteArray())
+            .build();
+    }
+
     static HttpResponse badRequest(String message) {
         return HttpResponse.ofCode(400)
             .withJson(new JSONObject().put("error", message).toString())
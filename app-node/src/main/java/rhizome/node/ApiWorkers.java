@@ -0,0 +1,252 @@
+package rhizome.node;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Where {@link NodeApi}'s offloaded handlers run, and how many of each kind may run at once.
+ *
+ * <p><b>{@link Mode#VIRTUAL} (default).</b> Admission per {@link Cost} class: a handler first
+ * takes a permit from its class's semaphore (waiting behind at most {@link #BACKLOG} others of the
+ * class) and a request past that backlog is shed with 429. Most offloaded handlers spend their
+ * time WAITING — on a RocksDB read, or on the engine lock inside {@code withConsistentView} — and
+ * the fixed pool this replaces bounded them by {@code availableProcessors()/2} platform threads,
+ * so a node shed 429s on a burst of explorer reads with its CPUs idle. Here the bound is per cost
+ * class and sized to what the class actually consumes: the CPU-bound classes (VM dry-runs,
+ * block/tx ingest) stay near the core count and the wait-bound ones are allowed more in flight.
+ *
+ * <p>Permits alone do not isolate the classes: they share whatever threads run them. A RocksDB
+ * read is a JNI call, and on JDK 21 a virtual thread blocked with a native frame on its stack
+ * stays pinned to its carrier, so store-bound handlers on virtual threads would hold carriers for
+ * the whole read, and a flood of them (more permits than cores) could leave none for dry-runs.
+ * Ingest is no different: its commit is a RocksDB write batch and an fsync, both native. The
+ * {@linkplain Cost#storeBound store-bound} classes therefore run on their own bounded platform
+ * pools, one thread per permit, where blocking in native code costs an OS thread and nothing else;
+ * the virtual threads, one per request, carry only dry-runs, whose permits stay at the core count.
+ *
+ * <p><b>{@link Mode#POOL}</b> ({@code RHIZOME_API_WORKERS=pool}) keeps the previous model — one
+ * bounded platform pool with a 256-slot queue for every class — as a fallback and as the
+ * baseline {@code ApiWorkersBenchmark} compares against.
+ *
+ * <p>Shutdown is the pool's: {@link #shutdownNow} interrupts whatever runs (a handler still
+ * waiting for a permit exits without running) and {@link #awaitTermination} drains.
+ */
+final class ApiWorkers implements Executor {
+
+    /** Requests of one class that may wait for a permit before the class sheds (the old queue). */
+    static final int BACKLOG = 256;
+
+    enum Mode {
+        POOL, VIRTUAL;
+
+        /** {@code pool} selects the platform pool; anything else (or unset) the virtual model. */
+        static Mode parse(String value) {
+            return "pool".equalsIgnoreCase(value == null ? null : value.trim()) ? POOL : VIRTUAL;
+        }
+    }
+
+    /** What an offloaded handler mostly spends, which decides how many may run at once. */
+    enum Cost {
+        /** Block / transaction decode from the store, usually under the engine lock. */
+        DECODE,
+        /** VM execution of read-only calls (already metered in gas by the read-only gate). */
+        GAS,
+        /** Range reads over an index or table: boxes, tokens, logs, address history. */
+        SCAN,
+        /** Block and transaction submission: PoW, signature checks, the commit fsync. */
+        INGEST,
+        /** Point reads: one box, one balance, one snapshot chunk. */
+        READ;
+
+        /** Permits for this class on a machine with {@code cpus} cores (for a store-bound class,
+         *  also its platform threads). */
+        int permits(int cpus) {
+            return switch (this) {
+                case DECODE -> Math.max(8, 4 * cpus);
+                case GAS, INGEST -> Math.max(2, cpus);
+                case SCAN -> Math.max(16, 2 * cpus);
+                case READ -> Math.max(32, 8 * cpus);
+            };
+        }
+
+        /** True for the classes that block in RocksDB (JNI) reads or writes, which pin a virtual thread. */
+        boolean storeBound() {
+            return this != GAS;
+        }
+    }
+
+    /** One cost class's admission: permits in flight, a bounded number waiting, the rest shed. */
+    static final class Lane implements Executor {
+        private final Cost cost;
+        private final ExecutorService threads;
+        private final Semaphore permits;
+        private final int capacity;
+        private final AtomicInteger admitted = new AtomicInteger();
+        private final LongAdder shed = new LongAdder();
+
+        Lane(Cost cost, ExecutorService threads, int permits, int backlog) {
+            this.cost = cost;
+            this.threads = threads;
+            this.permits = new Semaphore(permits);
+            this.capacity = permits + backlog;
+        }
+
+        @Override
+        public void execute(Runnable job) {
+            if (admitted.incrementAndGet() > capacity) {
+                admitted.decrementAndGet();
+                shed.increment();
+                throw new RejectedExecutionException(cost + " lane full");
+            }
+            try {
+                threads.execute(() -> {
+                    try {
+                        permits.acquire();
+                    } catch (InterruptedException e) {
+                        admitted.decrementAndGet();
+                        return; // shutting down: the job never started, as in a drained pool queue
+                    }
+                    try {
+                        job.run();
+                    } finally {
+                        permits.release();
+                        admitted.decrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                admitted.decrementAndGet(); // shut down
+                throw e;
+            }
+        }
+
+        Cost cost() {
+            return cost;
+        }
+
+        /** Handlers admitted and not yet finished (running plus waiting for a permit). */
+        int inFlight() {
+            return admitted.get();
+        }
+
+        /** Requests shed since start. */
+        long shed() {
+            return shed.sum();
+        }
+    }
+
+    private final Mode mode;
+    /** The executors behind the lanes (or the one pool), for shutdown. */
+    private final java.util.List<ExecutorService> executors;
+    private final ExecutorService threads;
+    private final Lane[] lanes;
+
+    private ApiWorkers(Mode mode, java.util.List<ExecutorService> executors, Lane[] lanes) {
+        this.mode = mode;
+        this.executors = executors;
+        this.threads = executors.get(0);
+        this.lanes = lanes;
+    }
+
+    /**
+     * Per-class admission for {@code cpus} cores: the store-bound classes on their own platform
+     * pools, dry-runs on one virtual thread per request.
+     */
+    static ApiWorkers virtual(int cpus) {
+        ExecutorService threads = java.util.concurrent.Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("rhizome-api-", 0).factory());
+        java.util.List<ExecutorService> executors = new java.util.ArrayList<>();
+        executors.add(threads);
+        Cost[] costs = Cost.values();
+        Lane[] lanes = new Lane[costs.length];
+        for (Cost c : costs) {
+            ExecutorService laneThreads = threads;
+            if (c.storeBound()) {
+                laneThreads = storePool(c, c.permits(cpus));
+                executors.add(laneThreads);
+            }
+            lanes[c.ordinal()] = new Lane(c, laneThreads, c.permits(cpus), BACKLOG);
+        }
+        return new ApiWorkers(Mode.VIRTUAL, java.util.List.copyOf(executors), lanes);
+    }
+
+    /**
+     * {@code threads} daemon platform threads for a store-bound lane. The queue needs no bound of
+     * its own: the lane admits at most its permits plus {@link #BACKLOG}.
+     */
+    private static ExecutorService storePool(Cost cost, int threads) {
+        String name = "rhizome-api-" + cost.name().toLowerCase(java.util.Locale.ROOT) + "-";
+        AtomicInteger seq = new AtomicInteger();
+        return java.util.concurrent.Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, name + seq.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * The fixed platform pool: {@code workers} daemon threads and a {@link #BACKLOG}-slot queue
+     * shared by every class, a full queue shedding with 429.
+     */
+    static ApiWorkers pool(int workers) {
+        ExecutorService threads = new java.util.concurrent.ThreadPoolExecutor(workers, workers,
+            60L, TimeUnit.SECONDS, new java.util.concurrent.ArrayBlockingQueue<>(BACKLOG),
+            r -> {
+                Thread t = new Thread(r, "rhizome-api-worker");
+                t.setDaemon(true);
+                return t;
+            },
+            new java.util.concurrent.ThreadPoolExecutor.AbortPolicy());
+        return new ApiWorkers(Mode.POOL, java.util.List.of(threads), null);
+    }
+
+    static ApiWorkers of(Mode mode, int cpus) {
+        return mode == Mode.POOL ? pool(Math.max(2, cpus / 2)) : virtual(cpus);
+    }
+
+    Mode mode() {
+        return mode;
+    }
+
+    /** The executor for {@code cost}'s handlers: its lane, or the shared pool. */
+    Executor lane(Cost cost) {
+        return lanes == null ? threads : lanes[cost.ordinal()];
+    }
+
+    /** {@code blocking}'s executor for {@code cost} when it is an {@code ApiWorkers}; else
+     *  {@code blocking} itself (a test's plain executor, or {@code null} to run inline). */
+    static Executor lane(Executor blocking, Cost cost) {
+        return blocking instanceof ApiWorkers workers ? workers.lane(cost) : blocking;
+    }
+
+    /** Runs {@code job} as a {@link Cost#READ}, for callers that do not classify. */
+    @Override
+    public void execute(Runnable job) {
+        lane(Cost.READ).execute(job);
+    }
+
+    /** The lanes, for observability; empty in {@link Mode#POOL}. */
+    java.util.List<Lane> lanes() {
+        return lanes == null ? java.util.List.of() : java.util.List.of(lanes);
+    }
+
+    void shutdownNow() {
+        for (ExecutorService e : executors) {
+            e.shutdownNow();
+        }
+    }
+
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (ExecutorService e : executors) {
+            if (!e.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,292 @@
+package rhizome.node;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.activej.http.HttpHeader;
+import io.activej.http.HttpHeaders;
+import io.activej.http.HttpRequest;
+import io.activej.http.HttpResponse;
+
+import rhizome.core.transaction.Transaction;
+import rhizome.core.transaction.dto.TransactionDto;
+
+/**
+ * The binary representation of the explorer, box and token read routes, negotiated with
+ * {@code Accept: application/x-rhizome-binary} for indexers that pull blocks and boxes in bulk:
+ * the objects go out in the codecs the node already stores and syncs them in, so a request costs
+ * one encode per object instead of a JSON tree with every hash and address hex-encoded. A client
+ * that does not ask (a browser, curl, the dashboard) gets the JSON it always got.
+ *
+ * <p>A body is a run of records, framed like a snapshot chunk's entries (big-endian):
+ * <pre>[type(1) ‖ len(4) ‖ payload]*</pre>
+ * <table>
+ *   <tr><td>{@link #BLOCK}</td><td>{@code BlockCodec.encode} — the bytes {@code /sync} sends</td></tr>
+ *   <tr><td>{@link #TRANSACTION}</td><td>{@code height(8) ‖ TransactionDto}</td></tr>
+ *   <tr><td>{@link #BOX}</td><td>{@code Box.serialize} — the stored box</td></tr>
+ *   <tr><td>{@link #TOKEN}</td><td>{@code TokenMeta.serialize}</td></tr>
+ *   <tr><td>{@link #BALANCE}</td><td>{@code amount(8)}, the holder's balance of the preceding token</td></tr>
+ *   <tr><td>{@link #CURSOR}</td><td>the next page's {@code after} key, or for {@code /blocks} the next
+ *       {@code start(8)} (last record; absent when done)</td></tr>
+ * </table>
+ * The block firehose ({@link BlockFirehose}) adds {@link #KEEPALIVE}, {@link #APPLIED} (a block with
+ * its receipts and events as nested records), {@link #POPPED}, {@link #RECEIPTS} and {@link #EVENT}.
+ * An unknown type is skipped by its length, so a record kind can be added without a version
+ * bump. The records carry exactly what the JSON carried, minus what a client derives from the
+ * bytes itself (hashes, a box's expiry from the chain's storage period).
+ *
+ * <p>A block range ({@code /blocks}) is read and encoded on the decode lane and sent whole,
+ * deflated when negotiated as {@code /sync} is ({@link WireCompression}); a single object or a
+ * bounded page is sent whole too, undeflated, so the response cache can keep it. Errors stay JSON:
+ * a client branches on the status code first.
+ */
+final class BinaryEncoding {
+
+    static final String MEDIA_TYPE = "application/x-rhizome-binary";
+    /** The {@code Vary} of a block range: the representation depends on both headers. */
+    static final String VARY_RANGE = "Accept, Accept-Encoding";
+
+    // Interned token (see NodeApi#H_ORIGIN): a request header is only found under it.
+    static final HttpHeader H_ACCEPT = HttpHeaders.ACCEPT;
+
+    static final byte BLOCK = 1;
+    static final byte TRANSACTION = 2;
+    static final byte BOX = 3;
+    static final byte TOKEN = 4;
+    static final byte BALANCE = 5;
+    static final byte CURSOR = 6;
+    /** Empty; sent on an idle stream so neither side's idle timeout cuts it. */
+    static final byte KEEPALIVE = 0;
+    /** {@code height(8) ‖ stateRoot(32) ‖ records}: one applied block — its {@code BLOCK}, then
+     *  {@code RECEIPTS} (if it carried contract transactions), then its {@code EVENT}s. */
+    static final byte APPLIED = 7;
+    /** {@code height(8)}: the block at that height left the chain; drop what it delivered. */
+    static final byte POPPED = 8;
+    /** {@code count(4) ‖ [gasUsed(8) ‖ success(1) ‖ transferCount(4) ‖ [from(25) ‖ to(25) ‖
+     *  amount(8)]*]*}, the contract processor's persisted receipt layout. */
+    static final byte RECEIPTS = 9;
+    /** {@code source(1) ‖ address(25) ‖ typeLen(2) ‖ type ‖ dataLen(4) ‖ data}: a contract log
+     *  (contract, topic, data), box event (owner, type, box id) or token event (actor, type, token id). */
+    static final byte EVENT = 10;
+
+    /** {@link #EVENT} sources. */
+    static final byte EVENT_LOG = 0;
+    static final byte EVENT_BOX = 1;
+    static final byte EVENT_TOKEN = 2;
+
+    /** type(1) ‖ len(4). */
+    static final int RECORD_HEADER = 1 + Integer.BYTES;
+
+    /** One decoded record (tests and Java clients). */
+    record Record(byte type, byte[] payload) {}
+
+    private BinaryEncoding() {}
+
+    /**
+     * True when the request's {@code Accept} names {@link #MEDIA_TYPE} with a non-zero q. A
+     * wildcard never selects it: {@code *}{@code /*} is what every browser sends, and it means
+     * "anything you would normally send".
+     */
+    static boolean accepts(HttpRequest req) {
+        return accepts(req.getHeader(H_ACCEPT));
+    }
+
+    static boolean accepts(String accept) {
+        if (accept == null) {
+            return false;
+        }
+        for (String entry : accept.split(",")) {
+            String[] parts = entry.split(";");
+            if (!MEDIA_TYPE.equalsIgnoreCase(parts[0].trim())) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=") || param.startsWith("Q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2).trim()) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /** The record header for a payload of {@code length} bytes. */
+    static byte[] header(byte type, int length) {
+        return ByteBuffer.allocate(RECORD_HEADER).put(type).putInt(length).array();
+    }
+
+    /** A whole record (one copy of {@code payload}; the streaming path avoids even that). */
+    static byte[] record(byte type, byte[] payload) {
+        return ByteBuffer.allocate(RECORD_HEADER + payload.length).put(type).putInt(payload.length).put(payload)
+            .array();
+    }
+
+    /** A {@link #TRANSACTION} record, written in one buffer from the transaction's wire form. */
+    static byte[] transaction(long height, Transaction t) {
+        TransactionDto dto = t.serialize();
+        int length = Long.BYTES + dto.getSize();
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER + length);
+        buffer.put(TRANSACTION).putInt(length).putLong(height);
+        dto.writeTo(buffer);
+        return buffer.array();
+    }
+
+    /** A {@link #BALANCE} record. */
+    static byte[] balance(long amount) {
+        return ByteBuffer.allocate(RECORD_HEADER + Long.BYTES).put(BALANCE).putInt(Long.BYTES).putLong(amount).array();
+    }
+
+    /** A {@link #POPPED} record. */
+    static byte[] popped(long height) {
+        return ByteBuffer.allocate(RECORD_HEADER + Long.BYTES).put(POPPED).putInt(Long.BYTES).putLong(height).array();
+    }
+
+    /** A {@link #RECEIPTS} record. */
+    static byte[] receipts(List<rhizome.core.blockchain.ContractProcessor.ContractReceipt> receipts) {
+        int length = Integer.BYTES;
+        for (var r : receipts) {
+            length += Long.BYTES + 1 + Integer.BYTES
+                + r.transfers().size() * (2 * rhizome.core.ledger.PublicAddress.SIZE + Long.BYTES);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER + length);
+        buffer.put(RECEIPTS).putInt(length).putInt(receipts.size());
+        for (var r : receipts) {
+            buffer.putLong(r.gasUsed()).put((byte) (r.success() ? 1 : 0)).putInt(r.transfers().size());
+            for (var t : r.transfers()) {
+                buffer.put(t.from().toBytes()).put(t.to().toBytes()).putLong(t.amount());
+            }
+        }
+        return buffer.array();
+    }
+
+    /** An {@link #EVENT} record. */
+    static byte[] event(byte source, rhizome.core.ledger.PublicAddress address, byte[] type, byte[] data) {
+        if (type.length > 0xFFFF) {
+            throw new IllegalArgumentException("event type too long: " + type.length);
+        }
+        int length = 1 + rhizome.core.ledger.PublicAddress.SIZE + Short.BYTES + type.length + Integer.BYTES + data.length;
+        return ByteBuffer.allocate(RECORD_HEADER + length)
+            .put(EVENT).putInt(length)
+            .put(source).put(address.toBytes())
+            .putShort((short) type.length).put(type)
+            .putInt(data.length).put(data)
+            .array();
+    }
+
+    /** An {@link #APPLIED} record around {@code records}, already encoded. */
+    static byte[] applied(long height, byte[] stateRoot, List<byte[]> records) {
+        int length = Long.BYTES + stateRoot.length;
+        for (byte[] r : records) {
+            length += r.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER + length);
+        buffer.put(APPLIED).putInt(length).putLong(height).put(stateRoot);
+        records.forEach(buffer::put);
+        return buffer.array();
+    }
+
+    /**
+     * A body built whole from ready records: single objects and page-bounded listings, which the
+     * response cache can hold as they are. Never deflated — a page is small, and the cache then
+     * keeps one variant per representation rather than one per encoding as well.
+     */
+    static HttpResponse body(List<byte[]> records) {
+        int size = 0;
+        for (byte[] r : records) {
+            size += r.length;
+        }
+        ByteBuffer body = ByteBuffer.allocate(size);
+        records.forEach(body::put);
+        return HttpResponse.ok200()
+            .withHeader(HttpHeaders.CONTENT_TYPE, MEDIA_TYPE)
+            .withHeader(WireCompression.H_VARY, "Accept")
+            .withHeader(ApiResponses.H_XCTO, "nosniff")
+            .withBody(body.array())
+            .build();
+    }
+
+    /**
+     * The JSON branch of a negotiated route: {@link ApiResponses#json(JsonWriter)} plus
+     * {@code Vary: Accept}, so a shared cache never serves it to a client that asked for the
+     * binary body (or the other way round).
+     */
+    static HttpResponse json(JsonWriter body) {
+        return HttpResponse.ok200()
+            .withHeader(ApiResponses.H_XCTO, "nosniff")
+            .withHeader(WireCompression.H_VARY, "Accept")
+            .withHeader(HttpHeaders.CONTENT_TYPE, ApiResponses.JSON_UTF8)
+            .withBody(body.toByteArray())
+            .build();
+    }
+
+    /** As {@link #json(JsonWriter)}, for a {@link org.json.JSONObject} body. */
+    static HttpResponse json(org.json.JSONObject body) {
+        return HttpResponse.ok200()
+            .withHeader(ApiResponses.H_XCTO, "nosniff")
+            .withHeader(WireCompression.H_VARY, "Accept")
+            .withJson(body.toString())
+            .build();
+    }
+
+    /**
+     * A block range read and encoded on the caller's worker lane, sent as one buffer and
+     * deflated when negotiated ({@link WireCompression}), as {@code /sync} is. Not cached: the
+     * representation depends on both headers ({@link #VARY_RANGE}).
+     */
+    static HttpResponse range(HttpRequest req, List<byte[]> records) {
+        int size = 0;
+        for (byte[] r : records) {
+            size += r.length;
+        }
+        ByteBuffer body = ByteBuffer.allocate(size);
+        records.forEach(body::put);
+        boolean deflate = WireCompression.acceptsDeflate(req);
+        var response = HttpResponse.ok200()
+            .withHeader(HttpHeaders.CONTENT_TYPE, MEDIA_TYPE)
+            .withHeader(WireCompression.H_VARY, VARY_RANGE)
+            .withHeader(ApiResponses.H_XCTO, "nosniff");
+        if (deflate) {
+            response.withHeader(WireCompression.H_CONTENT_ENCODING, WireCompression.DEFLATE);
+        }
+        return response.withBody(deflate ? WireCompression.deflate(body.array()) : body.array()).build();
+    }
+
+    /**
+     * Splits a body into its records. Strict: a truncated record or a negative length fails
+     * rather than yielding a short payload.
+     */
+    static List<Record> decodeAll(byte[] body) {
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        List<Record> records = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            if (buffer.remaining() < RECORD_HEADER) {
+                throw new IllegalArgumentException("truncated record header");
+            }
+            byte type = buffer.get();
+            int length = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                throw new IllegalArgumentException("record length out of range: " + length);
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            records.add(new Record(type, payload));
+        }
+        return records;
+    }
+
+    /** The height of the first {@link #TRANSACTION} record in {@code body}, or -1. */
+    static long transactionHeight(byte[] body) {
+        for (Record r : decodeAll(body)) {
+            if (r.type() == TRANSACTION) {
+                return ByteBuffer.wrap(r.payload()).getLong();
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,388 @@
+package rhizome.node;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.activej.bytebuf.ByteBuf;
+import io.activej.csp.supplier.AbstractChannelSupplier;
+import io.activej.csp.supplier.ChannelSupplier;
+import io.activej.eventloop.Eventloop;
+import io.activej.promise.Promise;
+import io.activej.promise.SettablePromise;
+
+import rhizome.core.block.Block;
+import rhizome.core.block.BlockCodec;
+import rhizome.core.block.BlockHeader;
+import rhizome.core.blockchain.ContractProcessor.ContractLog;
+
+/**
+ * The block firehose behind {@code GET /firehose}: one binary stream ({@link BinaryEncoding}) per
+ * indexer carrying, for every applied block in chain order, an {@link BinaryEncoding#APPLIED}
+ * group — the stored block codec, its contract receipts, its contract logs, box and token events,
+ * and the state root it committed — and an explicit {@link BinaryEncoding#POPPED} record when a
+ * reorg takes a block back. An indexer that follows the stream needs no polling of
+ * {@code /blocks}, {@code /logs} or the receipt routes, and never has to infer a reorg from a
+ * changed hash.
+ *
+ * <p><b>Resume.</b> A subscriber names the first height it wants ({@code from}); everything below
+ * the tip is backfilled from storage before it joins the live feed, so a dropped indexer
+ * reconnects with its last height + 1 and misses nothing. The stream is pull-driven: a subscriber
+ * only gets its next group when its connection has written the previous one. Live groups are
+ * encoded once per block (only when someone is subscribed) and kept in a small shared ring of the
+ * last {@link #RECENT} groups, so subscribers at the tip share the bytes; a subscriber behind the
+ * ring reads its own batches from storage on the scan lane ({@link ApiWorkers}), charged to the
+ * firehose's own aggregate budget ({@link NodeService#FIREHOSE_BACKFILL_MAX_PER_SEC}) rather than
+ * the read budget the peers' {@code /sync} draws on, so catching-up indexers cannot starve peer
+ * sync. A slow subscriber therefore costs its own backfill reads, never an unbounded queue:
+ * backpressure is the TCP window, and falling behind just turns a subscriber from a ring reader
+ * into a backfill reader.
+ *
+ * <p><b>Reorgs.</b> A pop of height {@code h} is sent to every subscriber already past
+ * {@code h} as {@code POPPED(h)}, and its cursor moves back to {@code h}; the replacement block
+ * follows as a fresh {@code APPLIED(h)}. A deep reorg emits one {@code POPPED} per height,
+ * highest first. A backfill batch read across a pop is discarded and re-read.
+ *
+ * <p>Subscriber state is confined to the HTTP event loop. {@link #onApplied} and
+ * {@link #onPopped} are called by the engine's listeners (lock held) and only enqueue onto the
+ * loop. A subscriber idle for {@link #HEARTBEAT_MS} receives a {@link BinaryEncoding#KEEPALIVE},
+ * for the same reason {@link SseLogHub} sends its tick.
+ */
+final class BlockFirehose {
+
+    /** Applied groups kept for subscribers at or near the tip. */
+    static final int RECENT = 64;
+
+    /** Blocks per backfill read, and the byte size after which a batch stops early. */
+    static final int BACKFILL_BLOCKS = 16;
+    static final int BACKFILL_BYTES = 1 << 20;
+
+    /** Control records queued on one subscriber beyond which it is dropped (a reorg deeper than
+     *  any the engine accepts, or a client not reading at all). */
+    private static final int MAX_PENDING = 256;
+
+    /** Delay before retrying a backfill the firehose budget or the scan lane refused. */
+    private static final long RETRY_MS = 250L;
+
+    /** Idle keepalive cadence, inside the HTTP server's 30 s read/write idle timeout. */
+    private static final long HEARTBEAT_MS = 15_000L;
+
+    /** Concurrent firehoses per client key and per site (IPv6 /48, IPv4 /24): one stream is
+     *  what an indexer needs, and each one may hold a backfill reader busy. */
+    private static final int MAX_SUBSCRIBERS_PER_CLIENT = 2;
+    private static final int MAX_SUBSCRIBERS_PER_SUBNET = 8;
+
+    private final Eventloop eventloop;
+    private final NodeService node;
+    private final Executor reader;
+    private final int maxSubscribers;
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private final TreeMap<Long, byte[]> recent = new TreeMap<>();
+    /** Pops seen by the engine listener; a group or batch read across one is stale. */
+    private final AtomicLong pops = new AtomicLong();
+    /** The chain tip as the event loop has been told it (loop confined). */
+    private long tip;
+    /** Mirror of {@code subscribers.size()} for the metrics thread. */
+    private volatile int subscriberCount;
+
+    BlockFirehose(Eventloop eventloop, NodeService node, Executor reader, int maxSubscribers) {
+        this.eventloop = eventloop;
+        this.node = node;
+        this.reader = reader;
+        this.maxSubscribers = maxSubscribers;
+        this.tip = node.blockCount();
+        startHeartbeat();
+    }
+
+    /**
+     * Why a subscription was refused: the handler maps these to 410, 400 and 503.
+     */
+    enum Refusal { PRUNED, AHEAD, FULL }
+
+    /** A subscription, or the reason there is none. */
+    record Subscription(ChannelSupplier<ByteBuf> stream, Refusal refusal) {}
+
+    /**
+     * Opens a stream starting at height {@code from} ({@code <= 0}: the next block to be
+     * applied). Must be called on the event loop (servlet handlers are).
+     */
+    Subscription subscribe(long from, String clientKey, String subnetKey) {
+        long start = from <= 0 ? tip + 1 : from;
+        long prunedBelow = node.prunedBelow();
+        if (prunedBelow > 0 && start < prunedBelow) {
+            return new Subscription(null, Refusal.PRUNED);
+        }
+        if (start > tip + 1) {
+            return new Subscription(null, Refusal.AHEAD);
+        }
+        if (subscribers.size() >= maxSubscribers) {
+            return new Subscription(null, Refusal.FULL);
+        }
+        int mine = 0;
+        int subnet = 0;
+        for (Subscriber s : subscribers) {
+            if (s.clientKey.equals(clientKey)) {
+                mine++;
+            }
+            if (s.subnetKey.equals(subnetKey)) {
+                subnet++;
+            }
+        }
+        if (mine >= MAX_SUBSCRIBERS_PER_CLIENT || subnet >= MAX_SUBSCRIBERS_PER_SUBNET) {
+            return new Subscription(null, Refusal.FULL);
+        }
+        Subscriber s = new Subscriber(clientKey, subnetKey, start);
+        subscribers.add(s);
+        subscriberCount = subscribers.size();
+        // First bytes at once, so the client sees the headers before the first block.
+        s.pending.add(BinaryEncoding.header(BinaryEncoding.KEEPALIVE, 0));
+        return new Subscription(s, null);
+    }
+
+    /** Live streams (any thread; for metrics). */
+    int subscriberCount() {
+        return subscriberCount;
+    }
+
+    /** Block applied (engine listener, lock held): enqueue only. */
+    void onApplied(Block block) {
+        long epoch = pops.get();
+        eventloop.execute(() -> applied(block, epoch));
+    }
+
+    /** Block {@code height} popped (engine listener, lock held): enqueue only. */
+    void onPopped(long height) {
+        pops.incrementAndGet();
+        eventloop.execute(() -> popped(height));
+    }
+
+    /**
+     * One block's {@link BinaryEncoding#APPLIED} record: the block codec, then its receipts (when
+     * it carried contract transactions), then its contract logs, box events and token events.
+     * Reads the event stores, so it must run while {@code block} is still the block at its
+     * height — the callers check {@link #pops} around it.
+     */
+    static byte[] group(NodeService node, Block block) {
+        long height = block.id();
+        List<byte[]> records = new ArrayList<>();
+        records.add(BinaryEncoding.record(BinaryEncoding.BLOCK, BlockCodec.encode(block)));
+        var receipts = node.contractReceipts(height);
+        if (!receipts.isEmpty()) {
+            records.add(BinaryEncoding.receipts(receipts));
+        }
+        for (ContractLog log : node.contractLogs(height)) {
+            records.add(BinaryEncoding.event(BinaryEncoding.EVENT_LOG, log.contract(), log.topic(), log.data()));
+        }
+        for (var e : node.boxEvents(height)) {
+            records.add(BinaryEncoding.event(BinaryEncoding.EVENT_BOX, e.owner(), ascii(e.type()), e.boxId()));
+        }
+        for (var e : node.tokenEvents(height)) {
+            records.add(BinaryEncoding.event(BinaryEncoding.EVENT_TOKEN, e.actor(), ascii(e.type()), e.tokenId()));
+        }
+        return BinaryEncoding.applied(height, BlockHeader.of(block).stateRoot().toBytes(), records);
+    }
+
+    private void applied(Block block, long epoch) {
+        long height = block.id();
+        tip = height;
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        byte[] group = group(node, block);
+        if (pops.get() != epoch) {
+            return; // popped since: its POPPED is queued behind us, and the group may mix blocks
+        }
+        recent.put(height, group);
+        while (recent.size() > RECENT) {
+            recent.pollFirstEntry();
+        }
+        for (Subscriber s : List.copyOf(subscribers)) {
+            s.wake();
+        }
+    }
+
+    private void popped(long height) {
+        tip = height - 1;
+        recent.tailMap(height, true).clear();
+        for (Subscriber s : List.copyOf(subscribers)) {
+            if (s.next > height) {
+                s.next = height;
+                s.enqueue(BinaryEncoding.popped(height));
+            }
+        }
+    }
+
+    /** Self-rescheduling keepalive for parked subscribers; dies with the event loop at shutdown. */
+    private void startHeartbeat() {
+        eventloop.delay(HEARTBEAT_MS, () -> {
+            for (Subscriber s : List.copyOf(subscribers)) {
+                if (s.parked != null) {
+                    s.enqueue(BinaryEncoding.header(BinaryEncoding.KEEPALIVE, 0));
+                }
+            }
+            startHeartbeat();
+        });
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+    }
+
+    /** One stream: a cursor ({@code next}), queued control records and at most one parked get. */
+    private final class Subscriber extends AbstractChannelSupplier<ByteBuf> {
+        final String clientKey;
+        final String subnetKey;
+        long next;
+        final ArrayDeque<byte[]> pending = new ArrayDeque<>();
+        SettablePromise<ByteBuf> parked;
+        /** A backfill read (or its retry timer) is outstanding. */
+        boolean reading;
+
+        Subscriber(String clientKey, String subnetKey, long next) {
+            this.clientKey = clientKey;
+            this.subnetKey = subnetKey;
+            this.next = next;
+        }
+
+        @Override
+        protected Promise<ByteBuf> doGet() {
+            byte[] ready = poll();
+            if (ready != null) {
+                return Promise.of(ByteBuf.wrapForReading(ready));
+            }
+            SettablePromise<ByteBuf> promise = new SettablePromise<>();
+            parked = promise;
+            if (next <= tip) {
+                backfill();
+            }
+            return promise;
+        }
+
+        @Override
+        protected void onClosed(Exception e) {
+            subscribers.remove(this);
+            subscriberCount = subscribers.size();
+            pending.clear();
+            SettablePromise<ByteBuf> promise = parked;
+            parked = null;
+            if (promise != null) {
+                promise.setException(e);
+            }
+        }
+
+        /** The next record to write: control records first, then the group at the cursor. */
+        private byte[] poll() {
+            byte[] control = pending.poll();
+            if (control != null) {
+                return control;
+            }
+            byte[] group = next <= tip ? recent.get(next) : null;
+            if (group != null) {
+                next++;
+            }
+            return group;
+        }
+
+        void enqueue(byte[] record) {
+            if (pending.size() >= MAX_PENDING) {
+                closeEx(new java.io.IOException("firehose subscriber too slow"));
+                return;
+            }
+            pending.add(record);
+            wake();
+        }
+
+        /** Hands the parked get its record, if one is ready; otherwise starts a read if needed. */
+        void wake() {
+            if (parked == null) {
+                return;
+            }
+            byte[] ready = poll();
+            if (ready != null) {
+                SettablePromise<ByteBuf> promise = parked;
+                parked = null;
+                promise.set(ByteBuf.wrapForReading(ready));
+            } else if (next <= tip) {
+                backfill();
+            }
+        }
+
+        /**
+         * Reads the groups from the cursor on up on the scan lane: at most
+         * {@link #BACKFILL_BLOCKS} blocks or {@link #BACKFILL_BYTES} bytes, charged to the
+         * firehose budget. Refused (budget or lane), it retries after {@link #RETRY_MS}.
+         */
+        private void backfill() {
+            if (reading || isClosed()) {
+                return;
+            }
+            long from = next;
+            long to = Math.min(tip, from + BACKFILL_BLOCKS - 1);
+            reading = true;
+            if (!node.tryFirehoseBudget((int) (to - from + 1))) {
+                retry();
+                return;
+            }
+            long epoch = pops.get();
+            eventloop.startExternalTask();
+            try {
+                reader.execute(() -> {
+                    List<byte[]> groups = new ArrayList<>();
+                    Exception failure = null;
+                    try {
+                        long bytes = 0;
+                        for (long h = from; h <= to && bytes < BACKFILL_BYTES; h++) {
+                            long prunedBelow = node.prunedBelow();
+                            if (prunedBelow > 0 && h < prunedBelow) {
+                                throw new java.io.IOException("firehose cursor " + h + " pruned (below " + prunedBelow + ")");
+                            }
+                            byte[] group = group(node, node.block(h));
+                            groups.add(group);
+                            bytes += group.length;
+                        }
+                    } catch (Exception e) {
+                        failure = e;
+                    }
+                    Exception failed = failure;
+                    eventloop.execute(() -> backfilled(from, epoch, groups, failed));
+                    eventloop.completeExternalTask();
+                });
+            } catch (RejectedExecutionException e) {
+                eventloop.completeExternalTask();
+                retry();
+            }
+        }
+
+        private void retry() {
+            eventloop.delay(RETRY_MS, () -> {
+                reading = false;
+                wake();
+            });
+        }
+
+        private void backfilled(long from, long epoch, List<byte[]> groups, Exception failure) {
+            reading = false;
+            if (isClosed()) {
+                return;
+            }
+            if (pops.get() != epoch || next != from) {
+                wake(); // read across a pop: the cursor has moved back, read again
+                return;
+            }
+            if (failure != null) {
+                closeEx(failure);
+                return;
+            }
+            // Queue the batch as if it were control records, so it goes out before the ring.
+            for (byte[] group : groups) {
+                pending.add(group);
+                next++;
+            }
+            wake();
+        }
+    }
+}
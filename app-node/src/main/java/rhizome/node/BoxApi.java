@@ -1,6 +1,8 @@
 package rhizome.node;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 import io.activej.http.HttpRequest;
 import io.activej.http.HttpResponse;
@@ -9,7 +11,6 @@ import org.json.JSONObject;
 import rhizome.core.ledger.PublicAddress;
 
 import static rhizome.node.ApiResponses.badRequest;
-import static rhizome.node.ApiResponses.hex;
 import static rhizome.node.ApiResponses.json;
 import static rhizome.node.ApiResponses.parseLong;
 
@@ -33,7 +34,10 @@ final class BoxApi {
                 .withJson(new JSONObject().put("error", "box not found").toString())
                 .build();
         }
-        return json(boxJson(b, node.params().storagePeriodBlocks()));
+        if (BinaryEncoding.accepts(req)) {
+            return BinaryEncoding.body(List.of(BinaryEncoding.record(BinaryEncoding.BOX, b.serialize())));
+        }
+        return BinaryEncoding.json(writeBox(new JsonWriter(), b, node.params().storagePeriodBlocks()));
     }
 
     /** Boxes owned by an address: {@code GET /boxes?owner=<hex50>&limit=&after=<boxIdHex>}. */
@@ -48,23 +52,31 @@ final class BoxApi {
         byte[] after = afterParam == null || afterParam.isEmpty()
             ? null : rhizome.core.common.Utils.hexStringToByteArray(afterParam);
 
-        long period = node.params().storagePeriodBlocks();
-        org.json.JSONArray arr = new org.json.JSONArray();
+        List<rhizome.core.box.Box> found = new ArrayList<>();
         byte[] last = null;
         for (byte[] id : node.boxIdsByOwner(owner, after, limit)) {
             rhizome.core.box.Box b = node.box(id);
             if (b != null) {
-                arr.put(boxJson(b, period));
+                found.add(b);
             }
             last = id;
         }
-        JSONObject result = new JSONObject()
-            .put("owner", rhizome.core.common.Utils.bytesToHex(owner))
-            .put("boxes", arr);
+        if (BinaryEncoding.accepts(req)) {
+            return binaryPage(found, last);
+        }
+        long period = node.params().storagePeriodBlocks();
+        JsonWriter out = new JsonWriter(256 + 320 * found.size())
+            .beginObject()
+            .hexUpperField("owner", owner)
+            .name("boxes").beginArray();
+        for (rhizome.core.box.Box b : found) {
+            writeBox(out, b, period);
+        }
+        out.endArray();
         if (last != null) {
-            result.put("next", rhizome.core.common.Utils.bytesToHex(last));
+            out.hexUpperField("next", last);
         }
-        return json(result);
+        return BinaryEncoding.json(out.endObject());
     }
 
     /** Registered box scans owned by {@code clientKey}: {@code GET /scan/list}. Restricted to
@@ -103,38 +115,55 @@ final class BoxApi {
         byte[] after = afterParam == null || afterParam.isEmpty()
             ? null : rhizome.core.common.Utils.hexStringToByteArray(afterParam);
 
+        var page = node.scanRegistered((int) rawScanId, predicate, after, limit);
+        if (BinaryEncoding.accepts(req)) {
+            return binaryPage(page.matches(), page.nextCursor());
+        }
         long period = node.params().storagePeriodBlocks();
-        var page = node.scan(predicate, after, limit);
-        org.json.JSONArray arr = new org.json.JSONArray();
+        JsonWriter out = new JsonWriter(256 + 320 * page.matches().size())
+            .beginObject()
+            .name("boxes").beginArray();
         for (rhizome.core.box.Box b : page.matches()) {
-            arr.put(boxJson(b, period));
+            writeBox(out, b, period);
         }
-        JSONObject result = new JSONObject().put("boxes", arr);
+        out.endArray();
         if (page.nextCursor() != null) {
-            result.put("next", hex(page.nextCursor()));
+            out.hexField("next", page.nextCursor());
+        }
+        return BinaryEncoding.json(out.endObject());
+    }
+
+    /** A page of {@code BOX} records, closed by the {@code CURSOR} of the next page if any. */
+    private static HttpResponse binaryPage(List<rhizome.core.box.Box> boxes, byte[] next) {
+        List<byte[]> records = new ArrayList<>(boxes.size() + 1);
+        for (rhizome.core.box.Box b : boxes) {
+            records.add(BinaryEncoding.record(BinaryEncoding.BOX, b.serialize()));
+        }
+        if (next != null) {
+            records.add(BinaryEncoding.record(BinaryEncoding.CURSOR, next));
         }
-        return json(result);
+        return BinaryEncoding.body(records);
     }
 
-    private static JSONObject boxJson(rhizome.core.box.Box b, long storagePeriodBlocks) {
-        org.json.JSONArray registers = new org.json.JSONArray();
+    private static JsonWriter writeBox(JsonWriter out, rhizome.core.box.Box b, long storagePeriodBlocks) {
+        out.beginObject()
+            .hexField("id", b.id())
+            .hexUpperField("owner", b.owner().toBytes())
+            .field("value", b.value())
+            .field("createdHeight", b.createdHeight())
+            .field("rentPaidHeight", b.rentPaidHeight())
+            .field("expiresAtHeight", b.expiryHeight(storagePeriodBlocks))
+            .field("sizeBytes", b.serializedSize())
+            .name("registers").beginArray();
         for (rhizome.core.box.BoxRegister r : b.registers()) {
-            JSONObject reg = new JSONObject()
-                .put("type", r.type().name())
-                .put("hex", hex(r.payload()));
+            out.beginObject()
+                .field("type", r.type().name())
+                .hexField("hex", r.payload());
             if (r.type() == rhizome.core.box.BoxRegisterType.STRING) {
-                reg.put("string", new String(r.payload(), StandardCharsets.UTF_8));
+                out.field("string", new String(r.payload(), StandardCharsets.UTF_8));
             }
-            registers.put(reg);
-        }
-        return new JSONObject()
-            .put("id", hex(b.id()))
-            .put("owner", b.owner().toHexString())
-            .put("value", b.value())
-            .put("createdHeight", b.createdHeight())
-            .put("rentPaidHeight", b.rentPaidHeight())
-            .put("expiresAtHeight", b.expiryHeight(storagePeriodBlocks))
-            .put("sizeBytes", b.serializedSize())
-            .put("registers", registers);
+            out.endObject();
+        }
+        return out.endArray().endObject();
     }
 }
@@ -0,0 +1,391 @@
+package rhizome.node;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+
+import rhizome.core.block.Block;
+import rhizome.core.transaction.Transaction;
+import rhizome.core.transaction.TransactionImpl;
+
+/**
+ * Rolling chain statistics for {@code GET /stats}, maintained block by block instead of re-decoding
+ * a window of blocks whenever the tip moves.
+ *
+ * <p><b>Layout.</b> One fixed-size summary per block — timestamp, transactions, bytes, gas, fees,
+ * uncles, box and token operations — in a ring indexed by height modulo a power-of-two capacity.
+ * The ring always holds a contiguous height range {@code [lo, hi]}. Each {@link Span} is a suffix
+ * {@code [start, hi]} of that range, bounded by age from the tip's timestamp (1 h, 24 h, 7 d) or
+ * by block count (the dashboard's last {@link DashboardApi#STATS_WINDOW} blocks), with running
+ * sums per field. An applied block is added to every span and the span's oldest blocks fall out;
+ * a popped block is subtracted and the blocks it had pushed out fall back in. Each block enters
+ * and leaves a span once per apply, so maintenance is amortised O(spans); a read copies the sums,
+ * O(spans × fields), and touches no store.
+ *
+ * <p><b>Feeding.</b> {@link #onApplied} and {@link #onPopped} run from the engine listeners with
+ * the consensus lock held, on a summary built from the block already in hand ({@link #summarize}).
+ * At startup the ring is filled backwards from the tip by {@link #backfill}, off the consensus
+ * path: each block is decoded once, and a block that raced an apply or a pop is simply dropped
+ * (prepending requires the height just below {@code lo}). Stats are advisory; a gap the listener
+ * could not bridge (a snapshot restore jumping the tip) resets the ring to the new block.
+ *
+ * <p>Windows are bounded by block timestamps, which are ordered only up to the median-time rule;
+ * a block a few seconds out of order can sit one side of a boundary or the other. Capacity covers
+ * twice the 7-day window at the target block time; on a faster chain the 7-day window simply
+ * covers what the ring holds, and its {@code firstTs} says so.
+ */
+final class ChainStats {
+
+    /** Per-block fields, in ring order. */
+    static final int TS = 0;
+    static final int TXS = 1;
+    static final int BYTES = 2;
+    static final int GAS = 3;
+    static final int FEES = 4;
+    static final int UNCLES = 5;
+    static final int BOX_OPS = 6;
+    static final int TOKEN_OPS = 7;
+    private static final int FIELDS = 8;
+
+    static final long HOUR_MS = 3_600_000L;
+    static final long DAY_MS = 24 * HOUR_MS;
+    static final long WEEK_MS = 7 * DAY_MS;
+
+    private static final int MIN_CAPACITY = 1 << 10;
+    private static final int MAX_CAPACITY = 1 << 20;
+
+    /** Summary of one block: the {@code FIELDS} values the spans aggregate. */
+    record Summary(long height, long timestamp, long txs, long bytes, long gas, long fees,
+                   long uncles, long boxOps, long tokenOps) { }
+
+    /** One span's aggregate at a read: {@code blocks} blocks from {@code firstTs} to {@code lastTs}. */
+    record Window(String name, long blocks, long txs, long bytes, long gas, long fees, long uncles,
+                  long boxOps, long tokenOps, long firstTs, long lastTs) {
+
+        /** Mean interval between the span's blocks; 0 below two blocks. */
+        long avgIntervalMs() {
+            return blocks > 1 ? (lastTs - firstTs) / (blocks - 1) : 0;
+        }
+    }
+
+    /** One bucket of {@link #series}: aggregates over {@code [fromTs, fromTs + widthMs)}. */
+    record Bucket(long fromTs, long blocks, long txs, long bytes, long gas, long fees) { }
+
+    /** A suffix of the ring bounded by age ({@code spanMs}) or by count ({@code spanBlocks}). */
+    private static final class Span {
+        final String name;
+        final long spanMs;
+        final long spanBlocks;
+        long start;
+        final long[] sums = new long[FIELDS];
+
+        Span(String name, long spanMs, long spanBlocks) {
+            this.name = name;
+            this.spanMs = spanMs;
+            this.spanBlocks = spanBlocks;
+        }
+    }
+
+    private final int mask;
+    private final long[] ring;
+    private final Span[] spans;
+    /** Held heights {@code [lo, hi]}; empty when {@code lo > hi}. */
+    private long lo = 1;
+    private long hi = 0;
+    /** Bumped on every change, for {@link #series} caching. */
+    private long version;
+    private volatile Object[] seriesCache; // {version, name, buckets, List<Bucket>}
+
+    ChainStats(long desiredBlockTimeSec, int recentBlocks) {
+        long perWeek = WEEK_MS / 1000 / Math.max(1, desiredBlockTimeSec);
+        long wanted = Math.max(MIN_CAPACITY, Math.min(MAX_CAPACITY, 2 * perWeek));
+        int capacity = Integer.highestOneBit((int) wanted - 1) << 1;
+        this.mask = capacity - 1;
+        this.ring = new long[capacity * FIELDS];
+        this.spans = new Span[] {
+            new Span("recent", 0, recentBlocks),
+            new Span("1h", HOUR_MS, 0),
+            new Span("24h", DAY_MS, 0),
+            new Span("7d", WEEK_MS, 0),
+        };
+        reset();
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /** Summarises {@code block}; {@code gas} is its contracts' total gas used. */
+    static Summary summarize(Block block, long gas) {
+        long bytes = rhizome.core.block.dto.BlockDto.BUFFER_SIZE + Integer.BYTES;
+        long fees = 0;
+        long boxOps = 0;
+        long tokenOps = 0;
+        for (Transaction t : block.transactions()) {
+            var tx = (TransactionImpl) t;
+            bytes += tx.sizeBytes();
+            if (!tx.isTransactionFee()) {
+                fees += tx.fee().amount();
+            }
+            if (tx.kind().isBox()) {
+                boxOps++;
+            } else if (tx.kind().isToken()) {
+                tokenOps++;
+            }
+        }
+        var b = (rhizome.core.block.BlockImpl) block;
+        return new Summary(block.id(), b.timestamp(), block.transactions().size(), bytes, gas, fees,
+            block.uncles().size(), boxOps, tokenOps);
+    }
+
+    /** Block {@code s.height()} was applied on top of the tip. */
+    synchronized void onApplied(Summary s) {
+        if (lo > hi || s.height() != hi + 1) {
+            reset(); // first block, or a gap the listener never saw (restore): start over here
+            lo = s.height();
+            hi = s.height() - 1;
+            for (Span span : spans) {
+                span.start = lo;
+            }
+        }
+        if (hi - lo + 1 == capacity()) {
+            for (Span span : spans) {
+                if (span.start == lo) {
+                    fold(span, lo, -1);
+                    span.start++;
+                }
+            }
+            lo++;
+        }
+        hi = s.height();
+        write(s);
+        for (Span span : spans) {
+            fold(span, hi, 1);
+            rebalance(span);
+        }
+        version++;
+    }
+
+    /** The tip block {@code height} was popped. */
+    synchronized void onPopped(long height) {
+        if (lo > hi || height < lo) {
+            return; // never held
+        }
+        if (height != hi) {
+            reset(); // out of order: nothing trustworthy left
+            version++;
+            return;
+        }
+        for (Span span : spans) {
+            if (span.start <= hi) {
+                fold(span, hi, -1);
+            }
+        }
+        hi--;
+        if (lo > hi) {
+            reset();
+        } else {
+            for (Span span : spans) {
+                span.start = Math.min(span.start, hi + 1);
+                rebalance(span);
+            }
+        }
+        version++;
+    }
+
+    /**
+     * Fills the ring backwards from the tip ({@code tip} when empty), one block per
+     * {@code source} call, until every span is covered, the ring is full, or {@code source}
+     * returns null (a pruned or missing body). Runs without the consensus lock; see the class
+     * comment for how it interleaves with the listeners.
+     *
+     * @return blocks prepended
+     */
+    long backfill(long tip, LongFunction<Summary> source) {
+        long added = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            long next;
+            synchronized (this) {
+                if (lo <= hi && (hi - lo + 1 == capacity() || covered())) {
+                    return added;
+                }
+                next = lo <= hi ? lo - 1 : tip;
+            }
+            if (next < 1) {
+                return added;
+            }
+            Summary s;
+            try {
+                s = source.apply(next);
+            } catch (RuntimeException e) {
+                s = null; // pruned below, or the store is going away: keep what we have
+            }
+            if (s == null) {
+                return added;
+            }
+            if (prepend(s)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /** Whether every span already stops short of {@code lo}: older blocks would not be counted. */
+    private boolean covered() {
+        for (Span span : spans) {
+            if (span.start == lo) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private synchronized boolean prepend(Summary s) {
+        if (lo > hi) {
+            onApplied(s);
+            return true;
+        }
+        if (s.height() != lo - 1 || hi - lo + 1 == capacity()) {
+            return false; // raced a pop or an apply that moved the range
+        }
+        lo--;
+        write(s);
+        for (Span span : spans) {
+            if (span.start == lo + 1 && fits(span, lo)) {
+                span.start = lo;
+                fold(span, lo, 1);
+            }
+        }
+        version++;
+        return true;
+    }
+
+    /** The spans' aggregates, oldest-bounded first ({@code recent}, 1h, 24h, 7d). */
+    synchronized List<Window> windows() {
+        List<Window> out = new ArrayList<>(spans.length);
+        for (Span span : spans) {
+            long blocks = Math.max(0, hi - span.start + 1);
+            long[] x = span.sums;
+            out.add(new Window(span.name, blocks, x[TXS], x[BYTES], x[GAS], x[FEES], x[UNCLES],
+                x[BOX_OPS], x[TOKEN_OPS], blocks > 0 ? get(span.start, TS) : 0, blocks > 0 ? get(hi, TS) : 0));
+        }
+        return out;
+    }
+
+    /** The named span's aggregate, or null if there is no such span. */
+    Window window(String name) {
+        for (Window w : windows()) {
+            if (w.name().equals(name)) {
+                return w;
+            }
+        }
+        return null;
+    }
+
+    /** Height of the newest block held (0 when empty). */
+    synchronized long height() {
+        return lo <= hi ? hi : 0;
+    }
+
+    /** Moves on every change to the held blocks, including backfill that leaves the tip alone. */
+    synchronized long version() {
+        return version;
+    }
+
+    /**
+     * The time-bounded span {@code name} split into {@code buckets} equal intervals ending at the
+     * tip's timestamp, oldest first — chart data. A walk over the span's summaries, cached until
+     * the next change; null for an unknown or count-bounded span.
+     */
+    List<Bucket> series(String name, int buckets) {
+        Object[] cached = seriesCache;
+        synchronized (this) {
+            if (cached != null && (long) cached[0] == version && cached[1].equals(name)
+                    && (int) cached[2] == buckets) {
+                @SuppressWarnings("unchecked")
+                List<Bucket> hit = (List<Bucket>) cached[3];
+                return hit;
+            }
+            Span span = null;
+            for (Span s : spans) {
+                if (s.name.equals(name) && s.spanMs > 0) {
+                    span = s;
+                }
+            }
+            if (span == null) {
+                return null;
+            }
+            long end = lo <= hi ? get(hi, TS) + 1 : 0;
+            long from = end - span.spanMs;
+            long width = Math.max(1, span.spanMs / buckets);
+            long[][] acc = new long[buckets][5];
+            for (long h = span.start; h <= hi; h++) {
+                int i = (int) Math.min(buckets - 1, Math.max(0, (get(h, TS) - from) / width));
+                acc[i][0]++;
+                acc[i][1] += get(h, TXS);
+                acc[i][2] += get(h, BYTES);
+                acc[i][3] += get(h, GAS);
+                acc[i][4] += get(h, FEES);
+            }
+            List<Bucket> out = new ArrayList<>(buckets);
+            for (int i = 0; i < buckets; i++) {
+                out.add(new Bucket(from + i * width, acc[i][0], acc[i][1], acc[i][2], acc[i][3], acc[i][4]));
+            }
+            List<Bucket> result = List.copyOf(out);
+            seriesCache = new Object[] {version, name, buckets, result};
+            return result;
+        }
+    }
+
+    private void reset() {
+        lo = 1;
+        hi = 0;
+        for (Span span : spans) {
+            span.start = 1;
+            java.util.Arrays.fill(span.sums, 0);
+        }
+    }
+
+    /** Evicts blocks the span no longer covers from its old end, then re-admits ones it does. */
+    private void rebalance(Span span) {
+        while (span.start <= hi && !fits(span, span.start)) {
+            fold(span, span.start, -1);
+            span.start++;
+        }
+        while (span.start > lo && fits(span, span.start - 1)) {
+            span.start--;
+            fold(span, span.start, 1);
+        }
+    }
+
+    private boolean fits(Span span, long h) {
+        return span.spanBlocks > 0 ? hi - h < span.spanBlocks : get(h, TS) > get(hi, TS) - span.spanMs;
+    }
+
+    private void fold(Span span, long h, int sign) {
+        int base = slot(h);
+        for (int f = TXS; f < FIELDS; f++) {
+            span.sums[f] += sign * ring[base + f];
+        }
+    }
+
+    private void write(Summary s) {
+        int base = slot(s.height());
+        ring[base + TS] = s.timestamp();
+        ring[base + TXS] = s.txs();
+        ring[base + BYTES] = s.bytes();
+        ring[base + GAS] = s.gas();
+        ring[base + FEES] = s.fees();
+        ring[base + UNCLES] = s.uncles();
+        ring[base + BOX_OPS] = s.boxOps();
+        ring[base + TOKEN_OPS] = s.tokenOps();
+    }
+
+    private long get(long h, int field) {
+        return ring[slot(h) + field];
+    }
+
+    private int slot(long h) {
+        return (int) (h & mask) * FIELDS;
+    }
+}
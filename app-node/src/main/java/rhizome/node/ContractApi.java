@@ -32,6 +32,9 @@ final class ContractApi {
      */
     private static final long MAX_READONLY_VALUE = 1L << 62;
 
+    /** Longest topic a filtered {@code /logs} query accepts (bytes). */
+    static final int MAX_TOPIC_FILTER_BYTES = 256;
+
     private ContractApi() {}
 
     /**
@@ -41,9 +44,17 @@ final class ContractApi {
      *   <li>{@code ?fromHeight=N} — a bounded height-cursor scan from N to the tip; the
      *       response's {@code toHeight} is the next cursor, so an agent streams by
      *       repeatedly polling from {@code toHeight + 1}.</li>
+     *   <li>{@code ?contract=<hex50>&topic=<hex>&from=N[&to=M]} — the contract logs of one
+     *       contract and/or one exact topic over {@code [N, M]} (M defaults to the tip), read
+     *       through the store's log blooms ({@link NodeService#logsMatching}); same cursor rule.</li>
      * </ul>
+     * A filtered query that runs reports to {@code rowsRead} the rows it touched ({@link
+     * NodeService.LogPage#rowsRead}), so the caller can settle a rate charge taken at its ceiling.
      */
-    static HttpResponse logs(NodeService node, HttpRequest req) {
+    static HttpResponse logs(NodeService node, HttpRequest req, java.util.function.IntConsumer rowsRead) {
+        if (req.getQueryParameter("contract") != null || req.getQueryParameter("topic") != null) {
+            return logsMatching(node, req, rowsRead);
+        }
         String heightParam = req.getQueryParameter("height");
         if (heightParam != null) {
             long height = parseLong(heightParam);
@@ -71,6 +82,52 @@ final class ContractApi {
             .put("logs", arr));
     }
 
+    private static HttpResponse logsMatching(NodeService node, HttpRequest req,
+                                             java.util.function.IntConsumer rowsRead) {
+        String contractParam = req.getQueryParameter("contract");
+        String topicParam = req.getQueryParameter("topic");
+        PublicAddress contract = null;
+        if (contractParam != null && !contractParam.isEmpty()) {
+            if (!isHexAddress(contractParam)) {
+                return badRequest("invalid filter: contract must be a 50-char hex address");
+            }
+            contract = PublicAddress.of(contractParam);
+        }
+        byte[] topic = null;
+        if (topicParam != null && !topicParam.isEmpty()) {
+            try {
+                topic = java.util.HexFormat.of().parseHex(topicParam);
+            } catch (IllegalArgumentException e) {
+                return badRequest("invalid filter: topic must be hex");
+            }
+            if (topic.length > MAX_TOPIC_FILTER_BYTES) {
+                return badRequest("invalid filter: topic longer than " + MAX_TOPIC_FILTER_BYTES + " bytes");
+            }
+        }
+        if (contract == null && topic == null) {
+            return badRequest("invalid filter: contract or topic required");
+        }
+        long from = parseLong(req.getQueryParameter("from"));
+        if (from < 1) {
+            return badRequest("from must be >= 1");
+        }
+        String toParam = req.getQueryParameter("to");
+        long to = toParam == null ? Long.MAX_VALUE : parseLong(toParam);
+        if (to < from) {
+            return badRequest("to must be >= from");
+        }
+        NodeService.LogPage page = node.logsMatching(from, to, contract, topic);
+        rowsRead.accept(page.rowsRead());
+        org.json.JSONArray arr = new org.json.JSONArray();
+        for (var entry : page.logs()) {
+            arr.put(logJson(entry.log()).put("height", entry.height()));
+        }
+        return json(new JSONObject()
+            .put("fromHeight", page.fromHeight())
+            .put("toHeight", page.toHeight())
+            .put("logs", arr));
+    }
+
     /**
      * Live contract-log push over Server-Sent Events: a heartbeat comment per applied
      * block and one {@code data:} event per log (see {@link SseLogHub} for the format
@@ -83,7 +140,27 @@ final class ContractApi {
     /** As {@link #logStream(SseLogHub, String)}, with the site-aggregate tier key (IPv6 /48 or
      *  IPv4 /24 — audit F5 and the SSE v4 gap). */
     static HttpResponse logStream(SseLogHub sse, String clientKey, String subnetKey) {
-        var stream = sse == null ? null : sse.subscribe(clientKey, subnetKey);
+        return openLogStream(sse, SseLogHub.LogFilter.ALL, clientKey, subnetKey);
+    }
+
+    /**
+     * {@code GET /logs/stream?contract=<hex50,...>&topic=<hexPrefix,...>}: as above, sending only
+     * the logs of the listed contracts whose topic starts with one of the listed prefixes (either
+     * list may be omitted); every block's heartbeat still arrives. 400 on a malformed or
+     * oversized filter.
+     */
+    static HttpResponse logStream(SseLogHub sse, HttpRequest req, String clientKey, String subnetKey) {
+        SseLogHub.LogFilter filter;
+        try {
+            filter = SseLogHub.LogFilter.parse(req.getQueryParameter("contract"), req.getQueryParameter("topic"));
+        } catch (IllegalArgumentException e) {
+            return badRequest("invalid filter: " + e.getMessage());
+        }
+        return openLogStream(sse, filter, clientKey, subnetKey);
+    }
+
+    private static HttpResponse openLogStream(SseLogHub sse, SseLogHub.LogFilter filter, String clientKey, String subnetKey) {
+        var stream = sse == null ? null : sse.subscribe(clientKey, subnetKey, filter);
         if (stream == null) {
             return HttpResponse.ofCode(503)
                 .withJson(new JSONObject().put("error", "streaming unavailable").toString())
@@ -105,37 +182,26 @@ final class ContractApi {
     static HttpResponse callReadonly(NodeService node, JSONObject body) {
         // Validate inputs BEFORE touching availability, budgets or the VM (audit: readonly
         // input validation): a malformed call must be a cheap 400, never VM work.
-        long value = body.optLong("value", 0);
-        if (value < 0 || value > MAX_READONLY_VALUE) {
-            return badRequest("value out of range");
-        }
-        if (body.has("from") && !body.getString("from").isEmpty()
-            && !isHexAddress(body.getString("from"))) {
-            return badRequest("from must be a 25-byte address (50 hex chars)");
+        String invalid = invalidCall(body);
+        if (invalid != null) {
+            return badRequest(invalid);
         }
         if (!node.dryRunAvailable()) {
             return HttpResponse.ofCode(503)
                 .withJson(new JSONObject().put("error", "contracts unavailable").toString()).build();
         }
-        PublicAddress to = PublicAddress.of(body.getString("to"));
-        PublicAddress from = body.has("from") && !body.getString("from").isEmpty()
-            ? PublicAddress.of(body.getString("from")) : PublicAddress.empty();
-        byte[] input = body.has("input") && !body.getString("input").isEmpty()
-            ? rhizome.core.common.Utils.hexStringToByteArray(body.getString("input")) : new byte[0];
-        // Clamp the caller-supplied gas: a dry-run is free and unauthenticated, so an
-        // unbounded gasLimit would let anyone burn arbitrary node CPU. Bound it server-side.
-        long gasLimit = Math.min(Math.max(1L, body.optLong("gasLimit", 10_000_000L)), MAX_READONLY_GAS);
+        var call = toCall(body, 10_000_000L);
 
         // Aggregate (all-IP) dry-run gas budget: the per-IP RateLimiter cannot stop a handful of IPs
         // from pinning the event loop with back-to-back max-gas sink runs, so shed the call before it
         // reaches the VM once the global budget is spent (audit 5th-pass, net Finding 1).
-        if (!node.tryReadonlyGasBudget(gasLimit)) {
+        if (!node.tryReadonlyGasBudget(call.gasLimit())) {
             return HttpResponse.ofCode(429)
                 .withJson(new JSONObject().put("error", "readonly compute budget exceeded").toString()).build();
         }
 
         final rhizome.core.blockchain.ContractProcessor.ContractResult result;
-        var dryRun = node.dryRun(from, to, input, value, gasLimit);
+        var dryRun = node.dryRun(call.from(), call.to(), call.input(), call.value(), call.gasLimit());
         if (dryRun.isEmpty()) {
             // Too many dry-runs already running or parked on the consensus lock: shed with 503
             // (retryable) instead of queueing another blocking-pool thread behind it (audit:
@@ -144,16 +210,188 @@ final class ContractApi {
                 .withJson(new JSONObject().put("error", "dry-run busy, retry later").toString()).build();
         }
         result = dryRun.get();
+        return json(resultJson(result));
+    }
+
+    /** Default and maximum rows of {@code /contracts/profile}. */
+    static final int PROFILE_LIMIT_DEFAULT = 20;
+    static final int PROFILE_LIMIT_MAX = 200;
+
+    /** Sampled functions listed per contract row. */
+    private static final int PROFILE_TOP_FUNCTIONS = 10;
+
+    /**
+     * Contract execution profile: {@code GET /contracts/profile?limit=&sort=wall|gas|calls} — the
+     * heaviest contracts in block execution since startup, by self wall time (default), self gas or
+     * call count. Per contract: calls and failures, total and p50/p99 wall time (µs) and gas, storage
+     * reads/writes, module-cache hits/misses, and — when function sampling is enabled
+     * ({@code RHIZOME_PROFILE_SAMPLE}) — the hottest WASM functions of the sampled frames. Percentiles
+     * are power-of-two bucket upper bounds. 503 if no profiler is wired.
+     */
+    static HttpResponse profile(NodeService node, HttpRequest req) {
+        rhizome.vm.ContractProfiler profiler = node.contractProfiler();
+        if (profiler == null) {
+            return HttpResponse.ofCode(503)
+                .withJson(new JSONObject().put("error", "profiling unavailable").toString()).build();
+        }
+        int limit = PROFILE_LIMIT_DEFAULT;
+        String limitParam = req.getQueryParameter("limit");
+        if (limitParam != null) {
+            long parsed = parseLong(limitParam);
+            if (parsed < 1) {
+                return badRequest("limit must be >= 1");
+            }
+            limit = (int) Math.min(parsed, PROFILE_LIMIT_MAX);
+        }
+        rhizome.vm.ContractProfiler.Order order;
+        String sort = req.getQueryParameter("sort");
+        try {
+            order = sort == null ? rhizome.vm.ContractProfiler.Order.WALL
+                : rhizome.vm.ContractProfiler.Order.valueOf(sort.trim().toUpperCase(java.util.Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return badRequest("sort must be wall, gas or calls");
+        }
+        org.json.JSONArray rows = new org.json.JSONArray();
+        for (rhizome.vm.ContractProfiler.Profile p : profiler.snapshot(order, limit, PROFILE_TOP_FUNCTIONS)) {
+            org.json.JSONArray fns = new org.json.JSONArray();
+            for (rhizome.vm.ContractProfiler.FunctionProfile f : p.functions()) {
+                fns.put(new JSONObject()
+                    .put("index", f.index())
+                    .put("calls", f.calls())
+                    .put("selfMicros", f.selfNanos() / 1_000)
+                    .put("totalMicros", f.totalNanos() / 1_000));
+            }
+            rows.put(new JSONObject()
+                .put("contract", p.contract().equals(rhizome.vm.ContractProfiler.OTHER) ? "other" : p.contract().toHexString())
+                .put("calls", p.calls())
+                .put("failures", p.failures())
+                .put("wallMicros", p.wallNanos() / 1_000)
+                .put("wallP50Micros", p.wallP50Nanos() / 1_000)
+                .put("wallP99Micros", p.wallP99Nanos() / 1_000)
+                .put("gas", p.gas())
+                .put("gasP50", p.gasP50())
+                .put("gasP99", p.gasP99())
+                .put("storageReads", p.storageReads())
+                .put("storageWrites", p.storageWrites())
+                .put("moduleCacheHits", p.cacheHits())
+                .put("moduleCacheMisses", p.cacheMisses())
+                .put("functions", fns));
+        }
+        return json(new JSONObject()
+            .put("sort", order.name().toLowerCase(java.util.Locale.ROOT))
+            .put("sampleEvery", profiler.sampleEvery())
+            .put("contracts", rows));
+    }
+
+    /** Most calls one {@code /call_readonly_batch} may carry. */
+    static final int MAX_BATCH_CALLS = 32;
+
+    /**
+     * Batched read-only calls: {@code POST /call_readonly_batch} with {@code {calls: [call, ...]}},
+     * each {@code call} shaped like a {@link #callReadonly} body. Every call runs, in order, against
+     * ONE consistent view of committed state — a frontend rendering a page from dozens of queries
+     * sees one tip, and pays request parsing, rate-limit charging, view acquisition and the worker
+     * hand-off once instead of per query. Calls are independent: a call's writes are never visible
+     * to the next, and one reverting does not stop the rest.
+     *
+     * <p>Gas: the batch's summed {@code gasLimit} must fit the single-call ceiling
+     * ({@link #MAX_READONLY_GAS}) and is charged to the aggregate readonly budget once, up front —
+     * a batch buys no more compute than one max-gas call. A call without {@code gasLimit} gets an
+     * equal share of the ceiling. Responds {@code {results: [...], gasUsed}}, one result per call
+     * in request order, each shaped like a {@code /call_readonly} response.
+     */
+    static HttpResponse callReadonlyBatch(NodeService node, JSONObject body) {
+        org.json.JSONArray calls = body.optJSONArray("calls");
+        if (calls == null || calls.isEmpty()) {
+            return badRequest("calls must be a non-empty array");
+        }
+        if (calls.length() > MAX_BATCH_CALLS) {
+            return badRequest("at most " + MAX_BATCH_CALLS + " calls per batch");
+        }
+        // The whole batch is validated before any availability check, budget or VM work, exactly
+        // as a single call is: one malformed entry rejects the batch as a cheap 400.
+        for (int i = 0; i < calls.length(); i++) {
+            JSONObject c = calls.optJSONObject(i);
+            if (c == null) {
+                return badRequest("calls[" + i + "] must be an object");
+            }
+            String invalid = invalidCall(c);
+            if (invalid != null) {
+                return badRequest("calls[" + i + "]: " + invalid);
+            }
+        }
+        if (!node.dryRunAvailable()) {
+            return HttpResponse.ofCode(503)
+                .withJson(new JSONObject().put("error", "contracts unavailable").toString()).build();
+        }
+        long defaultGas = Math.max(1L, MAX_READONLY_GAS / calls.length());
+        java.util.List<rhizome.core.blockchain.ContractProcessor.DryRunCall> batch =
+            new java.util.ArrayList<>(calls.length());
+        long totalGas = 0;
+        for (int i = 0; i < calls.length(); i++) {
+            var call = toCall(calls.getJSONObject(i), defaultGas);
+            totalGas += call.gasLimit();
+            batch.add(call);
+        }
+        if (totalGas > MAX_READONLY_GAS) {
+            return badRequest("batch gasLimit total " + totalGas + " exceeds " + MAX_READONLY_GAS);
+        }
+        if (!node.tryReadonlyGasBudget(totalGas)) {
+            return HttpResponse.ofCode(429)
+                .withJson(new JSONObject().put("error", "readonly compute budget exceeded").toString()).build();
+        }
+        var dryRun = node.dryRunBatch(batch);
+        if (dryRun.isEmpty()) {
+            return HttpResponse.ofCode(503)
+                .withJson(new JSONObject().put("error", "dry-run busy, retry later").toString()).build();
+        }
+        org.json.JSONArray results = new org.json.JSONArray();
+        long gasUsed = 0;
+        for (var result : dryRun.get()) {
+            results.put(resultJson(result));
+            gasUsed += result.gasUsed();
+        }
+        return json(new JSONObject().put("results", results).put("gasUsed", gasUsed));
+    }
+
+    /** The 400 message for a malformed read-only call body, or null if its value and sender are valid. */
+    private static String invalidCall(JSONObject body) {
+        long value = body.optLong("value", 0);
+        if (value < 0 || value > MAX_READONLY_VALUE) {
+            return "value out of range";
+        }
+        if (body.has("from") && !body.getString("from").isEmpty()
+            && !isHexAddress(body.getString("from"))) {
+            return "from must be a 25-byte address (50 hex chars)";
+        }
+        return null;
+    }
+
+    /** Decodes a validated call body; {@code defaultGas} applies when it declares no gasLimit. */
+    private static rhizome.core.blockchain.ContractProcessor.DryRunCall toCall(JSONObject body, long defaultGas) {
+        PublicAddress to = PublicAddress.of(body.getString("to"));
+        PublicAddress from = body.has("from") && !body.getString("from").isEmpty()
+            ? PublicAddress.of(body.getString("from")) : PublicAddress.empty();
+        byte[] input = body.has("input") && !body.getString("input").isEmpty()
+            ? rhizome.core.common.Utils.hexStringToByteArray(body.getString("input")) : new byte[0];
+        // Clamp the caller-supplied gas: a dry-run is free and unauthenticated, so an
+        // unbounded gasLimit would let anyone burn arbitrary node CPU. Bound it server-side.
+        long gasLimit = Math.min(Math.max(1L, body.optLong("gasLimit", defaultGas)), MAX_READONLY_GAS);
+        return new rhizome.core.blockchain.ContractProcessor.DryRunCall(
+            from, to, input, body.optLong("value", 0), gasLimit);
+    }
+
+    private static JSONObject resultJson(rhizome.core.blockchain.ContractProcessor.ContractResult result) {
         org.json.JSONArray logs = new org.json.JSONArray();
         for (var log : result.logs()) {
             logs.put(logJson(log));
         }
-        return json(new JSONObject()
+        return new JSONObject()
             .put("success", result.success())
             .put("output", hex(result.output()))
             .put("gasUsed", result.gasUsed())
             .put("error", result.error() == null ? JSONObject.NULL : result.error())
-            .put("logs", logs));
+            .put("logs", logs);
     }
 
     static JSONObject logJson(rhizome.core.blockchain.ContractProcessor.ContractLog log) {
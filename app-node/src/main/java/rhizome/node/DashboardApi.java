@@ -2,9 +2,13 @@ package rhizome.node;
 
 import io.activej.http.HttpHeader;
 import io.activej.http.HttpHeaders;
+import io.activej.http.HttpRequest;
 import io.activej.http.HttpResponse;
+import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.util.List;
+
 import static rhizome.node.ApiResponses.hex;
 import static rhizome.node.ApiResponses.json;
 
@@ -27,7 +31,7 @@ final class DashboardApi {
         "default-src 'self'; img-src 'self' data:; style-src 'self' 'unsafe-inline'; "
         + "script-src 'self'; connect-src 'self'; base-uri 'none'; form-action 'none'; frame-ancestors 'none'";
 
-    /** How many recent blocks the /stats aggregates cover (block time, tx rate). */
+    /** How many recent blocks the legacy /stats aggregates cover (block time, tx rate). */
     static final int STATS_WINDOW = 32;
 
     private DashboardApi() {}
@@ -44,23 +48,21 @@ final class DashboardApi {
     }
 
     /**
-     * One-call network overview for the dashboard: chain identity, tip state and
-     * aggregates over the last {@link #STATS_WINDOW} blocks (average block interval,
-     * transaction count). Everything here is already public via other endpoints —
-     * this only saves the UI a request storm.
+     * One-call network overview for the dashboard: chain identity, tip state, the legacy
+     * aggregates over the last {@link #STATS_WINDOW} blocks (average block interval, transaction
+     * count) and a {@code windows} object with the 1h / 24h / 7d aggregates of {@link ChainStats}.
+     * Everything here is already public via other endpoints — this only saves the UI a request
+     * storm. Reads the maintained sums only: no block is decoded.
      */
     static HttpResponse stats(NodeService node) {
         long height = node.blockCount();
         var params = node.params();
-        // The window aggregate (decodes STATS_WINDOW blocks) is cached by tip height in NodeService, so
-        // repeated dashboard polls at the same tip don't re-decode the blocks.
-        var window = node.statsWindow(STATS_WINDOW);
-        long windowStart = window.windowStart();
-        long txCount = window.txCount();
-        long firstTs = window.firstTs();
-        long lastTs = window.lastTs();
-        long spanBlocks = height - windowStart;
-        long avgIntervalMs = spanBlocks > 0 ? (lastTs - firstTs) / spanBlocks : 0;
+        List<ChainStats.Window> windows = node.chainStats().windows();
+        ChainStats.Window recent = windows.get(0);
+        JSONObject byName = new JSONObject();
+        for (ChainStats.Window w : windows.subList(1, windows.size())) {
+            byName.put(w.name(), windowJson(w));
+        }
         return json(new JSONObject()
             .put("chainId", node.chainId())
             .put("network", node.networkName())
@@ -73,10 +75,11 @@ final class DashboardApi {
             .put("decimalScaleFactor", params.decimalScaleFactor())
             .put("miningReward", params.miningReward(height))
             .put("maxReorgDepth", params.maxReorgDepth())
-            .put("lastBlockTimestamp", lastTs)
-            .put("avgBlockIntervalMs", avgIntervalMs)
-            .put("windowBlocks", height - windowStart + 1)
-            .put("windowTxCount", txCount)
+            .put("lastBlockTimestamp", recent.lastTs())
+            .put("avgBlockIntervalMs", recent.avgIntervalMs())
+            .put("windowBlocks", recent.blocks())
+            .put("windowTxCount", recent.txs())
+            .put("windows", byName)
             // Box economics the UI needs to build BOX_* transactions client-side.
             .put("storagePeriodBlocks", params.storagePeriodBlocks())
             .put("storageFeeFactor", node.voteableParams()[0])
@@ -89,6 +92,62 @@ final class DashboardApi {
             .put("reorgInProgress", node.isReorgInProgress()));
     }
 
+    private static JSONObject windowJson(ChainStats.Window w) {
+        return new JSONObject()
+            .put("blocks", w.blocks())
+            .put("transactions", w.txs())
+            .put("bytes", w.bytes())
+            .put("gas", w.gas())
+            .put("fees", w.fees())
+            .put("uncles", w.uncles())
+            .put("boxOps", w.boxOps())
+            .put("tokenOps", w.tokenOps())
+            .put("avgBlockIntervalMs", w.avgIntervalMs())
+            .put("firstTimestamp", w.firstTs())
+            .put("lastTimestamp", w.lastTs());
+    }
+
+    /** Default and maximum buckets of {@code /stats/series}. */
+    static final int SERIES_BUCKETS_DEFAULT = 24;
+    static final int SERIES_BUCKETS_MAX = 168;
+
+    /**
+     * Chart data: {@code GET /stats/series?window=1h|24h|7d&buckets=} — the window split into equal
+     * time buckets ending at the tip, oldest first, each with its blocks, transactions, bytes, gas
+     * and fees. Built from the in-memory block summaries and cached until the next block.
+     */
+    static HttpResponse statsSeries(NodeService node, HttpRequest req) {
+        String window = req.getQueryParameter("window");
+        if (window == null) {
+            window = "24h";
+        }
+        int buckets = SERIES_BUCKETS_DEFAULT;
+        String bucketsParam = req.getQueryParameter("buckets");
+        if (bucketsParam != null) {
+            long parsed = ApiResponses.parseLong(bucketsParam);
+            if (parsed < 1) {
+                return ApiResponses.badRequest("buckets must be >= 1");
+            }
+            buckets = (int) Math.min(parsed, SERIES_BUCKETS_MAX);
+        }
+        List<ChainStats.Bucket> series = node.chainStats().series(window, buckets);
+        if (series == null) {
+            return ApiResponses.badRequest("window must be 1h, 24h or 7d");
+        }
+        JSONArray out = new JSONArray();
+        for (ChainStats.Bucket b : series) {
+            out.put(new JSONObject()
+                .put("from", b.fromTs())
+                .put("blocks", b.blocks())
+                .put("transactions", b.txs())
+                .put("bytes", b.bytes())
+                .put("gas", b.gas())
+                .put("fees", b.fees()));
+        }
+        return json(new JSONObject().put("window", window).put("height", node.chainStats().height())
+            .put("buckets", out));
+    }
+
     /**
      * Capability discovery for the dashboard, so the UI enables pages by what this
      * node actually supports (the boxes/tokens pages activate themselves from these
@@ -101,6 +160,7 @@ final class DashboardApi {
             .put("contracts", contracts)
             .put("contractQuery", contracts)
             .put("logStream", sse != null)
+            .put("firehose", node.firehose() != null)
             .put("agents", contracts)
             .put("boxes", node.boxesAvailable())
             .put("tokens", node.tokensAvailable())
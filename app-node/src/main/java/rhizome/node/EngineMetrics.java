@@ -0,0 +1,83 @@
+package rhizome.node;
+
+import rhizome.core.blockchain.EngineProbe;
+import rhizome.core.mempool.ExecutionStatus;
+
+/**
+ * The {@link EngineProbe} feeding {@link Metrics}: one histogram per {@code addBlock} phase plus
+ * the whole call, block outcomes and transactions applied, and engine-lock wait and hold times.
+ * Each callback is a few adder increments, as the probe contract requires — it runs on the
+ * consensus thread with the engine lock held.
+ *
+ * <p>Phase histograms only take samples a block actually reached: a block rejected at the
+ * pre-checks adds to {@code pre_checks} and nothing else, so the {@code execute} and
+ * {@code append} distributions describe blocks that got that far.
+ */
+final class EngineMetrics implements EngineProbe {
+
+    private static final String PHASE_HELP = "ChainEngine.addBlock time per phase.";
+
+    private final Metrics.Histogram preChecks;
+    private final Metrics.Histogram pow;
+    private final Metrics.Histogram execute;
+    private final Metrics.Histogram stateRoot;
+    private final Metrics.Histogram append;
+    private final Metrics.Histogram total;
+    private final Metrics.Counter accepted;
+    private final Metrics.Counter rejected;
+    private final Metrics.Counter transactions;
+    private final Metrics.Histogram lockWait;
+    private final Metrics.Histogram lockHold;
+
+    EngineMetrics(Metrics metrics) {
+        preChecks = metrics.histogram("rhizome_block_phase_seconds", PHASE_HELP, "phase", "pre_checks");
+        pow = metrics.histogram("rhizome_block_phase_seconds", PHASE_HELP, "phase", "pow");
+        execute = metrics.histogram("rhizome_block_phase_seconds", PHASE_HELP, "phase", "execute");
+        stateRoot = metrics.histogram("rhizome_block_phase_seconds", PHASE_HELP, "phase", "state_root");
+        append = metrics.histogram("rhizome_block_phase_seconds", PHASE_HELP, "phase", "append");
+        total = metrics.histogram("rhizome_block_add_seconds",
+            "ChainEngine.addBlock time, all phases, accepted or not.");
+        accepted = metrics.counter("rhizome_blocks_processed_total",
+            "Blocks offered to ChainEngine.addBlock, by outcome.", "result", "accepted");
+        rejected = metrics.counter("rhizome_blocks_processed_total",
+            "Blocks offered to ChainEngine.addBlock, by outcome.", "result", "rejected");
+        transactions = metrics.counter("rhizome_block_transactions_total",
+            "Transactions in accepted blocks (coinbase included).");
+        lockWait = metrics.histogram("rhizome_engine_lock_wait_seconds",
+            "Time spent waiting to take the consensus lock (outermost acquisitions).");
+        lockHold = metrics.histogram("rhizome_engine_lock_hold_seconds",
+            "Time the consensus lock was held per outermost acquisition.");
+    }
+
+    @Override
+    public void blockProcessed(ExecutionStatus status, long height, int txCount, BlockTimings t) {
+        sample(preChecks, t.preChecksNanos());
+        sample(pow, t.powNanos());
+        sample(execute, t.executeNanos());
+        sample(stateRoot, t.stateRootNanos());
+        sample(append, t.appendNanos());
+        total.record(t.totalNanos());
+        if (status == ExecutionStatus.SUCCESS) {
+            accepted.increment();
+            transactions.add(txCount);
+        } else {
+            rejected.increment();
+        }
+    }
+
+    private static void sample(Metrics.Histogram phase, long nanos) {
+        if (nanos > 0) {
+            phase.record(nanos);
+        }
+    }
+
+    @Override
+    public void lockWaited(long nanos) {
+        lockWait.record(nanos);
+    }
+
+    @Override
+    public void lockHeld(long nanos) {
+        lockHold.record(nanos);
+    }
+}
@@ -1,9 +1,12 @@
 package rhizome.node;
 
+import java.util.List;
+
 import io.activej.http.HttpRequest;
 import io.activej.http.HttpResponse;
 import org.json.JSONObject;
 
+import rhizome.core.block.BlockCodec;
 import rhizome.core.ledger.PublicAddress;
 import rhizome.core.transaction.Transaction;
 import rhizome.crypto.SHA256Hash;
@@ -33,6 +36,8 @@ final class ExplorerApi {
     static final int ADDRESS_TXS_MAX = 100;
     /** Block-range size cap for /blocks. */
     static final int BLOCKS_RANGE_MAX = 50;
+    /** Body size after which a binary /blocks range stops at a whole block and hands back a cursor. */
+    static final int BLOCKS_BINARY_BYTES_MAX = 2 * rhizome.core.common.Constants.MAX_BLOCK_SIZE_BYTES;
 
     private ExplorerApi() {}
 
@@ -52,19 +57,71 @@ final class ExplorerApi {
         if (prunedBelow > 0 && start < prunedBelow) {
             return gone(prunedBelow);
         }
-        long cappedEnd = Math.min(end, node.blockCount());
-        org.json.JSONArray arr = new org.json.JSONArray();
+        long height = node.blockCount();
+        long cappedEnd = Math.min(end, height);
+        if (BinaryEncoding.accepts(req)) {
+            // Whole blocks, not summaries: an indexer wants the bodies, and the decode behind a
+            // summary already paid for them.
+            return binaryBlocks(node, req, start, cappedEnd, BLOCKS_BINARY_BYTES_MAX);
+        }
+        JsonWriter out = new JsonWriter(64 + 192 * (int) Math.max(0, cappedEnd - start + 1))
+            .beginObject()
+            .name("blocks").beginArray();
         for (long h = start; h <= cappedEnd; h++) {
-            var block = (rhizome.core.block.BlockImpl) node.block(h);
-            arr.put(new JSONObject()
-                .put("height", h)
-                .put("hash", block.hash().toHexString())
-                .put("timestamp", block.timestamp())
-                .put("difficulty", block.difficulty())
-                .put("txCount", block.transactions().size())
-                .put("uncles", block.uncles().size()));
-        }
-        return json(new JSONObject().put("blocks", arr).put("height", node.blockCount()));
+            var block = (rhizome.core.block.BlockImpl) retainedBlock(node, h);
+            if (block == null) {
+                return gone(node.prunedBelow());
+            }
+            out.beginObject()
+                .field("height", h)
+                .hexUpperField("hash", block.hash().toBytes())
+                .field("timestamp", block.timestamp())
+                .field("difficulty", block.difficulty())
+                .field("txCount", block.transactions().size())
+                .field("uncles", block.uncles().size())
+                .endObject();
+        }
+        return BinaryEncoding.json(out.endArray().field("height", height).endObject());
+    }
+
+    /**
+     * The binary {@code /blocks} body. Every read and encode happens here on the decode lane, not
+     * on the event loop as the body is written, and the range goes out as one buffer. It stops
+     * after the block that takes it past {@code maxBytes} ({@link #BLOCKS_BINARY_BYTES_MAX}) and then ends with a
+     * {@code CURSOR} record holding the next start height, so a run of full blocks cannot hold 50
+     * of them in memory at once. A block pruned while the range is read answers 410 with the
+     * watermark, as a range starting below it does ({@link #retainedBlock}), never a short 200.
+     */
+    static HttpResponse binaryBlocks(NodeService node, HttpRequest req, long start, long end, int maxBytes) {
+        List<byte[]> records = new java.util.ArrayList<>();
+        long size = 0;
+        for (long h = start; h <= end; h++) {
+            if (size >= maxBytes) {
+                records.add(BinaryEncoding.record(BinaryEncoding.CURSOR,
+                    java.nio.ByteBuffer.allocate(Long.BYTES).putLong(h).array()));
+                break;
+            }
+            var block = retainedBlock(node, h);
+            if (block == null) {
+                return gone(node.prunedBelow());
+            }
+            byte[] record = BinaryEncoding.record(BinaryEncoding.BLOCK, BlockCodec.encode(block));
+            records.add(record);
+            size += record.length;
+        }
+        return BinaryEncoding.range(req, records);
+    }
+
+    /** The block at {@code height}, or null when pruning discarded it after the range was checked. */
+    private static rhizome.core.block.Block retainedBlock(NodeService node, long height) {
+        try {
+            return node.block(height);
+        } catch (RuntimeException e) {
+            if (node.prunedBelow() > height) {
+                return null;
+            }
+            throw e;
+        }
     }
 
     /** A single full block by height: {@code GET /block?blockId=N}. */
@@ -77,7 +134,41 @@ final class ExplorerApi {
         if (prunedBelow > 0 && id < prunedBelow) {
             return gone(prunedBelow); // body discarded by pruning — source it from an archive
         }
-        return json(node.block(id).toJson());
+        if (BinaryEncoding.accepts(req)) {
+            return BinaryEncoding.body(List.of(BinaryEncoding.record(BinaryEncoding.BLOCK, BlockCodec.encode(node.block(id)))));
+        }
+        return BinaryEncoding.json(node.block(id).toJson());
+    }
+
+    /**
+     * The block firehose: {@code GET /firehose?from=N} streams every applied block from height
+     * {@code N} on (default: the next one) with its receipts, events and state root, and a
+     * {@code POPPED} record per reorged block ({@link BlockFirehose}, records in
+     * {@link BinaryEncoding}). 410 when {@code N} is pruned, 400 when it is past the tip + 1, 503
+     * when the firehose is off or full.
+     */
+    static HttpResponse firehose(NodeService node, HttpRequest req, String clientKey, String subnetKey) {
+        String from = req.getQueryParameter("from");
+        long start = from == null || from.isEmpty() ? 0 : parseLong(from);
+        BlockFirehose hose = node.firehose();
+        BlockFirehose.Subscription sub = hose == null ? null : hose.subscribe(start, clientKey, subnetKey);
+        if (sub == null || sub.refusal() == BlockFirehose.Refusal.FULL) {
+            return HttpResponse.ofCode(503)
+                .withJson(new JSONObject().put("error", "streaming unavailable").toString())
+                .build();
+        }
+        if (sub.refusal() == BlockFirehose.Refusal.PRUNED) {
+            return gone(node.prunedBelow());
+        }
+        if (sub.refusal() == BlockFirehose.Refusal.AHEAD) {
+            return badRequest("from is past the tip");
+        }
+        return HttpResponse.ok200()
+            .withHeader(io.activej.http.HttpHeaders.CONTENT_TYPE, BinaryEncoding.MEDIA_TYPE)
+            .withHeader(io.activej.http.HttpHeaders.CACHE_CONTROL, "no-cache")
+            .withHeader(ApiResponses.H_XCTO, "nosniff")
+            .withBodyStream(sub.stream())
+            .build();
     }
 
     /** Balance and next nonce of an address: {@code GET /wallet?address=<hex50>}. */
@@ -106,9 +197,7 @@ final class ExplorerApi {
         if (indexed != null && indexed >= Math.max(1, node.prunedBelow())) {
             for (Transaction t : node.block(indexed).transactions()) {
                 if (t.hashContents().equals(contentHash)) {
-                    return json(new JSONObject()
-                        .put("height", (long) indexed)
-                        .put("transaction", t.toJson()));
+                    return found(req, indexed, t);
                 }
             }
         }
@@ -119,15 +208,20 @@ final class ExplorerApi {
         for (long h = tip; h >= floor; h--) {
             for (Transaction t : node.block(h).transactions()) {
                 if (t.hashContents().equals(contentHash)) {
-                    return json(new JSONObject()
-                        .put("height", h)
-                        .put("transaction", t.toJson()));
+                    return found(req, h, t);
                 }
             }
         }
         return notFound("transaction not found in scanned range (deepen with ?depth=)");
     }
 
+    private static HttpResponse found(HttpRequest req, long height, Transaction t) {
+        if (BinaryEncoding.accepts(req)) {
+            return BinaryEncoding.body(List.of(BinaryEncoding.transaction(height, t)));
+        }
+        return BinaryEncoding.json(new JSONObject().put("height", height).put("transaction", t.toJson()));
+    }
+
     /** Transactions touching an address (as sender or recipient), bounded scan as above. */
     static HttpResponse addressTransactions(NodeService node, HttpRequest req) {
         PublicAddress address = PublicAddress.of(req.getQueryParameter("address"));
@@ -0,0 +1,177 @@
+package rhizome.node;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * Operator-controlled JFR recordings behind {@code POST /jfr/start} and {@code /jfr/stop}, using
+ * the {@code rhizome.jfc} settings shipped in the jar: the node's own events (block add phases,
+ * block execution, state root, state GC sweeps, Wasm executions, contract call frames, header
+ * sync windows) plus GC, CPU, sampling, lock and file I/O events from the JDK.
+ *
+ * <p>At most one recording runs at a time. It is bounded on both axes — {@code maxAge} and
+ * {@code maxBytes} cap the on-disk repository, and a recording left running is stopped by itself
+ * after {@code maxAge} — so a forgotten start cannot fill the disk. Stopping dumps it to
+ * {@code <dataDir>/jfr/rhizome-<millis>.jfr}; only the newest {@link #KEEP_FILES} dumps are kept.
+ * Nothing here is reachable over the wire except through the token-gated routes, and the file
+ * is never served back: the operator fetches it from the data directory.
+ *
+ * <p>With no recording running every rhizome event is disabled, and each emitting site skips it
+ * on one flag check.
+ */
+final class FlightRecordings implements AutoCloseable {
+
+    /** Classpath resource holding the settings profile. */
+    static final String SETTINGS = "/rhizome.jfc";
+
+    /** Dumps kept in the recordings directory; older ones are deleted on each stop. */
+    static final int KEEP_FILES = 8;
+
+    static final Duration MAX_AGE_LIMIT = Duration.ofHours(24);
+    static final long MAX_BYTES_LIMIT = 2L << 30;
+
+    /** A recording's state for the API: {@code file} is where it was (or will be) dumped. */
+    record Status(boolean running, long startedMillis, Path file, long sizeBytes) { }
+
+    private final Path dir;
+    private Recording current;
+    private Path currentFile;
+
+    FlightRecordings(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Starts a recording with the shipped settings, bounded by {@code maxAge} and
+     * {@code maxBytes} (clamped to {@link #MAX_AGE_LIMIT} and {@link #MAX_BYTES_LIMIT}).
+     *
+     * @throws IllegalStateException if a recording is already running
+     */
+    synchronized Status start(Duration maxAge, long maxBytes) throws IOException {
+        if (current != null && current.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("a recording is already running");
+        }
+        release();
+        Files.createDirectories(dir);
+        Duration age = maxAge.isNegative() || maxAge.isZero() || maxAge.compareTo(MAX_AGE_LIMIT) > 0
+            ? MAX_AGE_LIMIT : maxAge;
+        long size = maxBytes <= 0 ? MAX_BYTES_LIMIT : Math.min(maxBytes, MAX_BYTES_LIMIT);
+        Recording recording = new Recording(settings());
+        recording.setName("rhizome");
+        recording.setToDisk(true);
+        recording.setMaxAge(age);
+        recording.setMaxSize(size);
+        recording.setDuration(age);
+        Path file = dir.resolve("rhizome-" + System.currentTimeMillis() + ".jfr");
+        recording.setDestination(file); // also where a duration-expired recording dumps itself
+        recording.start();
+        current = recording;
+        currentFile = file;
+        return status();
+    }
+
+    /**
+     * Stops the running recording and dumps it to its file. A recording that already stopped
+     * itself at its {@code maxAge} has dumped there too; it is released and its dump reported,
+     * as if this call had stopped it.
+     *
+     * @throws IllegalStateException if no recording was started since the last stop
+     */
+    synchronized Status stop() throws IOException {
+        if (current == null || current.getState() == RecordingState.NEW
+                || current.getState() == RecordingState.DELAYED) {
+            throw new IllegalStateException("no recording is running");
+        }
+        long started = current.getStartTime().toEpochMilli();
+        if (current.getState() == RecordingState.RUNNING) {
+            current.stop(); // writes to the destination set at start
+        }
+        Path file = currentFile;
+        release();
+        prune();
+        return new Status(false, started, file, Files.exists(file) ? Files.size(file) : 0);
+    }
+
+    synchronized Status status() {
+        if (current == null) {
+            return new Status(false, 0, null, 0);
+        }
+        boolean running = current.getState() == RecordingState.RUNNING;
+        java.time.Instant startedAt = current.getStartTime();
+        long size = running ? current.getSize() : Files.exists(currentFile) ? sizeOf(currentFile) : 0;
+        return new Status(running, startedAt == null ? 0 : startedAt.toEpochMilli(), currentFile, size);
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /** Stops and dumps a running recording, so a shutdown keeps what was captured. */
+    @Override
+    public synchronized void close() {
+        if (current == null) {
+            return;
+        }
+        try {
+            if (current.getState() == RecordingState.RUNNING) {
+                current.stop();
+            }
+        } catch (RuntimeException e) {
+            // best-effort on shutdown: the JVM's own JFR shutdown hook tears the repository down
+        }
+        release();
+    }
+
+    private void release() {
+        if (current != null) {
+            current.close();
+            current = null;
+            currentFile = null;
+        }
+    }
+
+    /** Deletes all but the newest {@link #KEEP_FILES} dumps. */
+    private void prune() throws IOException {
+        List<Path> dumps = new ArrayList<>();
+        try (var files = Files.list(dir)) {
+            files.filter(p -> {
+                String name = p.getFileName().toString();
+                return name.startsWith("rhizome-") && name.endsWith(".jfr");
+            }).forEach(dumps::add);
+        }
+        dumps.sort(java.util.Comparator.comparing((Path p) -> p.getFileName().toString()).reversed());
+        for (int i = KEEP_FILES; i < dumps.size(); i++) {
+            Files.deleteIfExists(dumps.get(i));
+        }
+    }
+
+    static Configuration settings() throws IOException {
+        try (InputStream in = FlightRecordings.class.getResourceAsStream(SETTINGS)) {
+            if (in == null) {
+                throw new IOException("missing " + SETTINGS + " on the classpath");
+            }
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                return Configuration.create(reader);
+            }
+        } catch (ParseException e) {
+            throw new IOException("malformed " + SETTINGS, e);
+        }
+    }
+}
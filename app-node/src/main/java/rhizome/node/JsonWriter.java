@@ -0,0 +1,288 @@
+package rhizome.node;
+
+import java.util.Arrays;
+
+/**
+ * A forward-only JSON writer that emits UTF-8 straight into one growable byte array: no
+ * {@code JSONObject}/{@code JSONArray} tree, no per-value {@code String} (hashes and addresses are
+ * hex-encoded in place) and no final {@code toString().getBytes()} copy of the whole document. The
+ * listing routes ({@code /blocks}, {@code /boxes}, {@code /scan/boxes}, {@code /tokens}) build
+ * their bodies through it; routes whose JSON is defined in {@code lib-core} ({@code Block.toJson},
+ * {@code Transaction.toJson}) keep that single definition and lean on the response cache instead.
+ *
+ * <p>Commas and the name/value alternation are tracked per nesting level in a bit stack, so the
+ * caller only says what comes next; a misuse (a value where a name is due, unbalanced close, more
+ * than {@link #MAX_DEPTH} levels) throws {@link IllegalStateException} — a bug in the handler,
+ * which the route's guard turns into a 400 like any other. Strings are escaped as org.json does
+ * ({@code "}, {@code \}, control characters, {@code </}), plus U+2028/U+2029 so a body is also
+ * valid JavaScript; a lone surrogate is written as U+FFFD.
+ */
+final class JsonWriter {
+
+    /** Deepest nesting the bit stacks track. */
+    static final int MAX_DEPTH = 63;
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+    private static final byte[] HEX_UPPER = "0123456789ABCDEF".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+
+    private byte[] buf;
+    private int len;
+    private int depth;
+    /** Bit {@code d}: level {@code d} already holds an element (a comma is due before the next). */
+    private long nonEmpty;
+    /** Bit {@code d}: level {@code d} is an object (names and values alternate). */
+    private long objects;
+    /** An object member's name was written and its value is due. */
+    private boolean afterName;
+
+    JsonWriter() {
+        this(512);
+    }
+
+    JsonWriter(int initialCapacity) {
+        this.buf = new byte[Math.max(16, initialCapacity)];
+    }
+
+    JsonWriter beginObject() {
+        open('{');
+        objects |= 1L << depth;
+        return this;
+    }
+
+    JsonWriter endObject() {
+        return close('}', true);
+    }
+
+    JsonWriter beginArray() {
+        open('[');
+        objects &= ~(1L << depth);
+        return this;
+    }
+
+    JsonWriter endArray() {
+        return close(']', false);
+    }
+
+    /** The next object member's name. */
+    JsonWriter name(String name) {
+        if (depth == 0 || (objects & 1L << depth) == 0 || afterName) {
+            throw new IllegalStateException("a name is not expected here");
+        }
+        separate();
+        string(name);
+        put((byte) ':');
+        afterName = true;
+        return this;
+    }
+
+    JsonWriter value(long v) {
+        beforeValue();
+        if (v == Long.MIN_VALUE) {
+            ascii("-9223372036854775808");
+            return this;
+        }
+        ensure(20);
+        if (v < 0) {
+            buf[len++] = '-';
+            v = -v;
+        }
+        int end = len + digits(v);
+        for (int i = end - 1; i >= len; i--) {
+            buf[i] = (byte) ('0' + v % 10);
+            v /= 10;
+        }
+        len = end;
+        return this;
+    }
+
+    JsonWriter value(boolean v) {
+        beforeValue();
+        ascii(v ? "true" : "false");
+        return this;
+    }
+
+    /** A string value; null writes {@code null}. */
+    JsonWriter value(String v) {
+        beforeValue();
+        if (v == null) {
+            ascii("null");
+        } else {
+            string(v);
+        }
+        return this;
+    }
+
+    /** {@code bytes} as a lower-case hex string value ({@link ApiResponses#hex}), encoded in place. */
+    JsonWriter hex(byte[] bytes) {
+        return hex(bytes, HEX);
+    }
+
+    /** {@code bytes} as an upper-case hex string value — the form of {@code PublicAddress.toHexString}
+     *  and {@code Utils.bytesToHex}, so a field keeps the exact text it had. */
+    JsonWriter hexUpper(byte[] bytes) {
+        return hex(bytes, HEX_UPPER);
+    }
+
+    /** Shorthands for the common {@code name(n).value(v)} pairs. */
+    JsonWriter field(String name, long v) {
+        return name(name).value(v);
+    }
+
+    JsonWriter field(String name, String v) {
+        return name(name).value(v);
+    }
+
+    JsonWriter hexField(String name, byte[] bytes) {
+        return name(name).hex(bytes);
+    }
+
+    JsonWriter hexUpperField(String name, byte[] bytes) {
+        return name(name).hexUpper(bytes);
+    }
+
+    /** The finished document: exactly its bytes, once every container is closed. */
+    byte[] toByteArray() {
+        if (depth != 0) {
+            throw new IllegalStateException("unclosed container at depth " + depth);
+        }
+        return Arrays.copyOf(buf, len);
+    }
+
+    /** Bytes written so far. */
+    int size() {
+        return len;
+    }
+
+    private JsonWriter hex(byte[] bytes, byte[] digits) {
+        beforeValue();
+        ensure(2 * bytes.length + 2);
+        buf[len++] = '"';
+        for (byte b : bytes) {
+            buf[len++] = digits[(b >> 4) & 0xF];
+            buf[len++] = digits[b & 0xF];
+        }
+        buf[len++] = '"';
+        return this;
+    }
+
+    private void open(char c) {
+        if (depth == MAX_DEPTH) {
+            throw new IllegalStateException("JSON nesting too deep (max " + MAX_DEPTH + ")");
+        }
+        beforeValue();
+        put((byte) c);
+        depth++;
+        nonEmpty &= ~(1L << depth);
+    }
+
+    private JsonWriter close(char c, boolean object) {
+        if (depth == 0 || ((objects & 1L << depth) != 0) != object || afterName) {
+            throw new IllegalStateException("unbalanced " + c);
+        }
+        depth--;
+        put((byte) c);
+        return this;
+    }
+
+    private void beforeValue() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0 && (objects & 1L << depth) != 0) {
+            throw new IllegalStateException("an object member needs a name");
+        }
+        if (depth == 0 && len > 0) {
+            throw new IllegalStateException("one top-level value per document");
+        }
+        separate();
+    }
+
+    private void separate() {
+        if (depth > 0) {
+            if ((nonEmpty & 1L << depth) != 0) {
+                put((byte) ',');
+            }
+            nonEmpty |= 1L << depth;
+        }
+    }
+
+    private void string(String s) {
+        ensure(s.length() + 2);
+        buf[len++] = '"';
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\' && !(c == '/' && i > 0 && s.charAt(i - 1) == '<')) {
+                put((byte) c); // the common case: printable ASCII
+            } else if (c == '"' || c == '\\' || c == '/') {
+                put((byte) '\\');
+                put((byte) c);
+            } else if (c < 0x20 || c == 0x2028 || c == 0x2029) {
+                escape(c);
+            } else if (c < 0x800) {
+                put((byte) (0xC0 | c >> 6));
+                put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                put((byte) (0xF0 | cp >> 18));
+                put((byte) (0x80 | cp >> 12 & 0x3F));
+                put((byte) (0x80 | cp >> 6 & 0x3F));
+                put((byte) (0x80 | cp & 0x3F));
+            } else {
+                char u = Character.isSurrogate(c) ? '\uFFFD' : c;
+                put((byte) (0xE0 | u >> 12));
+                put((byte) (0x80 | u >> 6 & 0x3F));
+                put((byte) (0x80 | u & 0x3F));
+            }
+        }
+        put((byte) '"');
+    }
+
+    private void escape(char c) {
+        switch (c) {
+            case '\b' -> ascii("\\b");
+            case '\t' -> ascii("\\t");
+            case '\n' -> ascii("\\n");
+            case '\f' -> ascii("\\f");
+            case '\r' -> ascii("\\r");
+            default -> {
+                ensure(6);
+                buf[len++] = '\\';
+                buf[len++] = 'u';
+                buf[len++] = HEX[c >> 12 & 0xF];
+                buf[len++] = HEX[c >> 8 & 0xF];
+                buf[len++] = HEX[c >> 4 & 0xF];
+                buf[len++] = HEX[c & 0xF];
+            }
+        }
+    }
+
+    private void ascii(String s) {
+        ensure(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            buf[len++] = (byte) s.charAt(i);
+        }
+    }
+
+    private void put(byte b) {
+        if (len == buf.length) {
+            ensure(1);
+        }
+        buf[len++] = b;
+    }
+
+    private void ensure(int more) {
+        if (len + more > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + more));
+        }
+    }
+
+    private static int digits(long v) {
+        int n = 1;
+        while (v >= 10) {
+            v /= 10;
+            n++;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,372 @@
+package rhizome.node;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+import rhizome.core.box.Box;
+import rhizome.core.box.BoxProcessor;
+import rhizome.core.box.BoxStore;
+import rhizome.core.box.ScanPredicate;
+import rhizome.core.common.Utils;
+
+/**
+ * The match sets of the registered box scans, kept current block by block so a
+ * {@code /scan/boxes} query is a cursor over a precomputed id set instead of a fresh
+ * evaluation of the predicate.
+ *
+ * <p><b>Dispatch.</b> Each scan is filed under its dispatch keys ({@link #dispatchKeys}): a set of
+ * {@code owner} / {@code registerEquals} values at least one of which every matching box carries —
+ * the predicate's own leaf, the smallest key set among an {@code and}'s parts, or the union of an
+ * {@code or}'s. A box mutation looks up only the keys the new box carries, plus the scans that
+ * currently hold its id (a reverse map), plus the few residual scans with no key
+ * ({@code registerContains}); only those predicates are evaluated. Block cost is proportional to
+ * the scans a change can affect, not to the number registered.
+ *
+ * <p><b>Reorgs.</b> Every membership flip is journaled under its block height and undone, newest
+ * first, when that block is popped ({@link #onPopped}). Journals are kept to the reorg depth.
+ *
+ * <p><b>Backfill.</b> A new scan's set starts empty; the boxes that already exist are found by the
+ * live scan, one {@link NodeService#BOX_SCAN_WINDOW} per query, driven by the queries themselves,
+ * so no request does more store work than a live scan page did. Until the backfill completes a
+ * query serves only ids at or below the backfill cursor, so a page never skips an id the backfill
+ * has yet to reach. A backfill page read before a concurrent block may re-add a box that block
+ * removed, and popping a block may resurrect a box the backfill passed over while it was gone, so
+ * changes ahead of the backfill cursor are journaled to undo into the set, not out of it. The set
+ * is therefore a superset: queries re-read and re-test every id they return, and drop the stale
+ * ones.
+ *
+ * <p>A scan whose set passes {@link #MAX_MATCHES_PER_SCAN} is demoted to live evaluation
+ * ({@link #page} returns {@code null}), so a predicate matching most of the box table cannot pin
+ * the heap. Node-local and in memory, like the {@link ScanRegistry} it shadows.
+ */
+final class MaterializedScans {
+
+    /** Ids one scan may hold before it falls back to live evaluation. */
+    static final int MAX_MATCHES_PER_SCAN = 100_000;
+
+    /** One backfill step: the live scan's next page after {@code afterId}. */
+    @FunctionalInterface
+    interface LiveScan {
+        BoxProcessor.ScanPage scan(ScanPredicate predicate, byte[] afterId, int limit);
+    }
+
+    private record Delta(int scanId, String id, boolean added) {}
+
+    private static final class Scan {
+        final ScanPredicate predicate;
+        /** Dispatch keys, or {@code null} for a residual scan tested against every change. */
+        final Set<String> keys;
+        final NavigableSet<String> ids = new ConcurrentSkipListSet<>();
+        /** Hex id the backfill has examined through ({@code ""} = not started). */
+        volatile String backfilled = "";
+        volatile boolean complete;
+        volatile boolean demoted;
+
+        Scan(ScanPredicate predicate) {
+            this.predicate = predicate;
+            this.keys = dispatchKeys(predicate);
+        }
+    }
+
+    private final LiveScan live;
+    private final Function<byte[], Box> boxes;
+    private final int retainDepth;
+    private final Map<Integer, Scan> scans = new ConcurrentHashMap<>();
+    // Guarded by this: the dispatch index, the reverse map and the journals.
+    private final Map<String, Set<Integer>> byKey = new HashMap<>();
+    private final Set<Integer> residual = new HashSet<>();
+    private final Set<Integer> backfilling = new HashSet<>();
+    private final Map<String, Set<Integer>> holders = new HashMap<>();
+    private final TreeMap<Long, List<Delta>> journals = new TreeMap<>();
+
+    MaterializedScans(LiveScan live, Function<byte[], Box> boxes, int retainDepth) {
+        this.live = live;
+        this.boxes = boxes;
+        this.retainDepth = retainDepth;
+    }
+
+    /** Starts maintaining {@code scanId}; its existing matches arrive through the backfill. */
+    synchronized void add(int scanId, ScanPredicate predicate) {
+        Scan scan = new Scan(predicate);
+        scans.put(scanId, scan);
+        backfilling.add(scanId);
+        if (scan.keys == null) {
+            residual.add(scanId);
+        } else {
+            for (String key : scan.keys) {
+                byKey.computeIfAbsent(key, k -> new HashSet<>()).add(scanId);
+            }
+        }
+    }
+
+    /** Stops maintaining {@code scanId} (deregistered or evicted). */
+    synchronized void drop(int scanId) {
+        Scan scan = scans.remove(scanId);
+        if (scan != null) {
+            unfile(scanId, scan);
+        }
+    }
+
+    /** Folds one applied block's box changes into every affected scan. Called under the engine lock. */
+    synchronized void onApplied(long height, List<BoxStore.BoxMutation> mutations) {
+        if (scans.isEmpty() || mutations.isEmpty()) {
+            return;
+        }
+        List<Delta> journal = new ArrayList<>();
+        Set<Integer> candidates = new HashSet<>();
+        for (BoxStore.BoxMutation m : mutations) {
+            String id = Utils.bytesToHex(m.id());
+            Box box = m.box();
+            // Ahead of a running backfill, a flip can be undone into a box the backfill has already
+            // passed by (deleted, or not matching, when it looked): the undo must then leave the id
+            // in the set. Journaled before this mutation's own flips, so it is undone after them.
+            for (int scanId : backfilling) {
+                if (id.compareTo(scans.get(scanId).backfilled) > 0) {
+                    journal.add(new Delta(scanId, id, false));
+                }
+            }
+            candidates.clear();
+            Set<Integer> holding = holders.get(id);
+            if (holding != null) {
+                candidates.addAll(holding);
+            }
+            if (box != null) {
+                for (String key : boxKeys(box)) {
+                    Set<Integer> filed = byKey.get(key);
+                    if (filed != null) {
+                        candidates.addAll(filed);
+                    }
+                }
+                candidates.addAll(residual);
+            }
+            for (int scanId : candidates) {
+                Scan scan = scans.get(scanId);
+                if (scan == null || scan.demoted) {
+                    continue;
+                }
+                boolean matches = box != null && scan.predicate.test(box);
+                if (matches != scan.ids.contains(id)) {
+                    set(scanId, scan, id, matches);
+                    journal.add(new Delta(scanId, id, matches));
+                }
+            }
+        }
+        if (!journal.isEmpty()) {
+            journals.put(height, journal);
+        }
+        journals.headMap(height - retainDepth).clear();
+    }
+
+    /** Undoes the membership changes block {@code height} made (the block was popped). */
+    synchronized void onPopped(long height) {
+        List<Delta> journal = journals.remove(height);
+        if (journal == null) {
+            return;
+        }
+        for (int i = journal.size() - 1; i >= 0; i--) {
+            Delta d = journal.get(i);
+            Scan scan = scans.get(d.scanId());
+            if (scan != null && !scan.demoted) {
+                set(d.scanId(), scan, d.id(), !d.added());
+            }
+        }
+    }
+
+    /**
+     * One page of {@code scanId}'s matches after {@code afterId}, in id order; {@code null} when
+     * the scan is not materialised (unknown here, or demoted) or {@code afterId} lies beyond its
+     * backfill, so the caller scans live.
+     */
+    BoxProcessor.ScanPage page(int scanId, byte[] afterId, int limit) {
+        Scan scan = scans.get(scanId);
+        if (scan == null || scan.demoted) {
+            return null;
+        }
+        String after = afterId == null ? "" : Utils.bytesToHex(afterId);
+        if (!scan.complete) {
+            int c = scan.backfilled.compareTo(after);
+            if (c < 0) {
+                return null; // a cursor past the backfill (another session's): serve it live
+            }
+            if (c == 0) {
+                backfill(scanId, scan, after);
+            }
+            if (scan.demoted) {
+                return null;
+            }
+        }
+        boolean complete = scan.complete;
+        String bound = scan.backfilled;
+        NavigableSet<String> window = scan.ids.tailSet(after, false);
+        if (!complete) {
+            window = window.headSet(bound, true);
+        }
+        List<Box> matches = new ArrayList<>(Math.min(limit, 64));
+        String last = null;
+        for (String id : window) {
+            Box box = boxes.apply(Utils.hexStringToByteArray(id));
+            if (box == null || !scan.predicate.test(box)) {
+                dropStale(scanId, scan, id);
+                continue;
+            }
+            matches.add(box);
+            last = id;
+            if (matches.size() == limit) {
+                return new BoxProcessor.ScanPage(matches, Utils.hexStringToByteArray(last));
+            }
+        }
+        // Exhausted what is covered: resume at the backfill cursor, or done.
+        return new BoxProcessor.ScanPage(matches,
+            complete || bound.isEmpty() ? null : Utils.hexStringToByteArray(bound));
+    }
+
+    /** Ids held across all scans (observability). */
+    int size() {
+        int n = 0;
+        for (Scan scan : scans.values()) {
+            n += scan.ids.size();
+        }
+        return n;
+    }
+
+    // ---- internals ----
+
+    private void backfill(int scanId, Scan scan, String after) {
+        synchronized (scan) {
+            if (scan.complete || scan.demoted || scan.backfilled.compareTo(after) > 0) {
+                return; // a concurrent query already advanced past this cursor
+            }
+            byte[] from = scan.backfilled.isEmpty() ? null : Utils.hexStringToByteArray(scan.backfilled);
+            // Outside this object's monitor: the live scan reads the store, and a block applying
+            // meanwhile must not wait on it.
+            BoxProcessor.ScanPage found = live.scan(scan.predicate, from, NodeService.BOX_SCAN_WINDOW);
+            synchronized (this) {
+                if (scans.get(scanId) != scan) {
+                    return; // dropped while we read
+                }
+                for (Box box : found.matches()) {
+                    String id = Utils.bytesToHex(box.id());
+                    if (!scan.ids.contains(id)) {
+                        set(scanId, scan, id, true);
+                        if (scan.demoted) {
+                            return;
+                        }
+                    }
+                }
+                if (found.nextCursor() == null) {
+                    scan.complete = true;
+                    backfilling.remove(scanId);
+                } else {
+                    scan.backfilled = Utils.bytesToHex(found.nextCursor());
+                }
+            }
+        }
+    }
+
+    private synchronized void dropStale(int scanId, Scan scan, String id) {
+        if (scans.get(scanId) == scan && scan.ids.contains(id)) {
+            set(scanId, scan, id, false);
+        }
+    }
+
+    /** Flips one membership and its reverse entry; demotes the scan past the cap. Holds this. */
+    private void set(int scanId, Scan scan, String id, boolean member) {
+        if (member) {
+            scan.ids.add(id);
+            holders.computeIfAbsent(id, k -> new HashSet<>()).add(scanId);
+            if (scan.ids.size() > MAX_MATCHES_PER_SCAN) {
+                scan.demoted = true;
+                unfile(scanId, scan);
+            }
+        } else {
+            scan.ids.remove(id);
+            Set<Integer> holding = holders.get(id);
+            if (holding != null && holding.remove(scanId) && holding.isEmpty()) {
+                holders.remove(id);
+            }
+        }
+    }
+
+    /** Removes a scan from the dispatch index and the reverse map, and empties its set. Holds this. */
+    private void unfile(int scanId, Scan scan) {
+        backfilling.remove(scanId);
+        if (scan.keys == null) {
+            residual.remove(scanId);
+        } else {
+            for (String key : scan.keys) {
+                Set<Integer> filed = byKey.get(key);
+                if (filed != null && filed.remove(scanId) && filed.isEmpty()) {
+                    byKey.remove(key);
+                }
+            }
+        }
+        for (String id : scan.ids) {
+            Set<Integer> holding = holders.get(id);
+            if (holding != null && holding.remove(scanId) && holding.isEmpty()) {
+                holders.remove(id);
+            }
+        }
+        scan.ids.clear();
+    }
+
+    /**
+     * Keys at least one of which every box matching {@code predicate} carries, or {@code null}
+     * when no such set exists (the predicate must be tested against every change).
+     */
+    static Set<String> dispatchKeys(ScanPredicate predicate) {
+        if (predicate instanceof ScanPredicate.OwnerEquals o) {
+            return Set.of(ownerKey(o.owner()));
+        }
+        if (predicate instanceof ScanPredicate.RegisterEquals r) {
+            return Set.of(registerKey(r.index(), r.value()));
+        }
+        if (predicate instanceof ScanPredicate.And and) {
+            Set<String> best = null;
+            for (ScanPredicate part : and.parts()) {
+                Set<String> keys = dispatchKeys(part);
+                if (keys != null && (best == null || keys.size() < best.size())) {
+                    best = keys;
+                }
+            }
+            return best;
+        }
+        if (predicate instanceof ScanPredicate.Or or) {
+            Set<String> union = new HashSet<>();
+            for (ScanPredicate part : or.parts()) {
+                Set<String> keys = dispatchKeys(part);
+                if (keys == null) {
+                    return null;
+                }
+                union.addAll(keys);
+            }
+            return union;
+        }
+        return null; // registerContains: no exact value to file under
+    }
+
+    private static List<String> boxKeys(Box box) {
+        List<String> keys = new ArrayList<>(1 + box.registers().size());
+        keys.add(ownerKey(box.owner().toBytes()));
+        for (int i = 0; i < box.registers().size(); i++) {
+            keys.add(registerKey(i, box.registers().get(i).payload()));
+        }
+        return keys;
+    }
+
+    private static String ownerKey(byte[] owner) {
+        return "o" + Utils.bytesToHex(owner);
+    }
+
+    private static String registerKey(int index, byte[] value) {
+        return "r" + index + ":" + Utils.bytesToHex(value);
+    }
+}
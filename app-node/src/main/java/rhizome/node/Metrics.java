@@ -0,0 +1,297 @@
+package rhizome.node;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * The node's performance telemetry, served as Prometheus text (exposition format 0.0.4) by
+ * {@code GET /metrics}.
+ *
+ * <p>Recording is lock-free and allocation-free: a {@link Counter} is a {@link LongAdder}, and a
+ * {@link Histogram} is a fixed log-linear bucket array (HDR-style: 8 linear sub-buckets per power
+ * of two, so any recorded value lands in a bucket within 12.5% of it) plus a sum adder — one
+ * atomic increment and one add per sample, on whatever thread did the work, including the
+ * consensus thread under the engine lock. Gauges and summaries are read from their sources only
+ * at scrape time.
+ *
+ * <p>A scrape walks a few hundred atomics and formats a few hundred lines into one buffer, so
+ * scraping every second costs nothing measurable. Histograms are exported with cumulative
+ * power-of-two {@code le} bounds in seconds (~1 µs … ~34 s), which the sub-buckets fold into
+ * without interpolation; {@link Histogram#quantile} keeps the full resolution for in-process
+ * readers.
+ *
+ * <p>Metrics are registered once, at wiring time; a name (plus label set) registered twice
+ * returns the existing instance, so a restarted subsystem keeps counting where it left off.
+ */
+final class Metrics {
+
+    /** Exposition content type of {@link #render}. */
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private enum Type {
+        COUNTER, GAUGE, HISTOGRAM, SUMMARY;
+
+        String text() {
+            return name().toLowerCase(java.util.Locale.ROOT);
+        }
+    }
+
+    /** One metric name: its help, its type, and one child per label set, in registration order. */
+    private record Family(String name, String help, Type type, Map<String, Object> children) { }
+
+    private final Map<String, Family> families = new LinkedHashMap<>();
+
+    /** A monotonic count. */
+    static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        void increment() {
+            value.increment();
+        }
+
+        void add(long n) {
+            value.add(n);
+        }
+
+        long value() {
+            return value.sum();
+        }
+    }
+
+    /**
+     * A latency distribution in nanoseconds. Bucket {@code i < 8} holds the value {@code i}; above
+     * that, octave {@code [2^e, 2^(e+1))} is split into 8 equal sub-buckets.
+     */
+    static final class Histogram {
+        private static final int SUB_BITS = 3;
+        private static final int SUB = 1 << SUB_BITS;
+        /** Enough for any non-negative long: the top octave is [2^62, 2^63). */
+        static final int BUCKETS = (Long.SIZE - SUB_BITS) * SUB;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder sumNanos = new LongAdder();
+
+        void record(long nanos) {
+            long v = Math.max(0, nanos);
+            buckets.incrementAndGet(bucket(v));
+            sumNanos.add(v);
+        }
+
+        static int bucket(long v) {
+            if (v < SUB) {
+                return (int) v;
+            }
+            int e = Long.SIZE - 1 - Long.numberOfLeadingZeros(v);
+            return (e - SUB_BITS + 1) * SUB + (int) ((v >>> (e - SUB_BITS)) & (SUB - 1));
+        }
+
+        /** Smallest value of bucket {@code b}; {@code bucket(lowerBound(b)) == b}. */
+        static long lowerBound(int b) {
+            if (b < SUB) {
+                return b;
+            }
+            int e = b / SUB + SUB_BITS - 1;
+            return (1L << e) + ((long) (b % SUB) << (e - SUB_BITS));
+        }
+
+        long count() {
+            long n = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                n += buckets.get(b);
+            }
+            return n;
+        }
+
+        long sumNanos() {
+            return sumNanos.sum();
+        }
+
+        /** Lower bound of the bucket holding quantile {@code q} (0 if empty). */
+        long quantile(double q) {
+            long[] snapshot = new long[BUCKETS];
+            long total = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                snapshot[b] = buckets.get(b);
+                total += snapshot[b];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(q * total));
+            long seen = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                seen += snapshot[b];
+                if (seen >= rank) {
+                    return lowerBound(b);
+                }
+            }
+            return lowerBound(BUCKETS - 1);
+        }
+    }
+
+    /** A point-in-time read of a summary source: count, sum and two quantiles, in seconds. */
+    record Summary(long count, double sumSeconds, double p50Seconds, double p99Seconds) { }
+
+    Counter counter(String name, String help, String... labels) {
+        return register(name, help, Type.COUNTER, labels, Counter::new);
+    }
+
+    Histogram histogram(String name, String help, String... labels) {
+        return register(name, help, Type.HISTOGRAM, labels, Histogram::new);
+    }
+
+    /** A value read from {@code source} at each scrape. */
+    void gauge(String name, String help, DoubleSupplier source, String... labels) {
+        register(name, help, Type.GAUGE, labels, () -> source);
+    }
+
+    /**
+     * A monotonic value kept elsewhere (a subsystem's own counter), read at each scrape and
+     * exported as a counter.
+     */
+    void counterOf(String name, String help, DoubleSupplier source, String... labels) {
+        register(name, help, Type.COUNTER, labels, () -> source);
+    }
+
+    /** A distribution summarised elsewhere (RocksDB's own histograms), read at each scrape. */
+    void summary(String name, String help, Supplier<Summary> source, String... labels) {
+        register(name, help, Type.SUMMARY, labels, () -> source);
+    }
+
+    private synchronized <T> T register(String name, String help, Type type, String[] labels,
+                                        Supplier<T> factory) {
+        Family family = families.computeIfAbsent(name,
+            n -> new Family(n, help, type, new LinkedHashMap<>()));
+        if (family.type() != type) {
+            throw new IllegalArgumentException(name + " is already a " + family.type().text());
+        }
+        @SuppressWarnings("unchecked")
+        T child = (T) family.children().computeIfAbsent(labelText(labels), k -> factory.get());
+        return child;
+    }
+
+    /** {@code {k1="v1",k2="v2"}} from alternating keys and values (empty for none). */
+    private static String labelText(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("labels must be key/value pairs");
+        }
+        if (labels.length == 0) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(labels[i]).append("=\"");
+            String v = labels[i + 1];
+            for (int c = 0; c < v.length(); c++) {
+                char ch = v.charAt(c);
+                if (ch == '\\' || ch == '"') {
+                    sb.append('\\').append(ch);
+                } else if (ch == '\n') {
+                    sb.append("\\n");
+                } else {
+                    sb.append(ch);
+                }
+            }
+            sb.append('"');
+        }
+        return sb.append('}').toString();
+    }
+
+    /** Every registered metric in the Prometheus text format. */
+    String render() {
+        List<Family> snapshot;
+        List<List<Map.Entry<String, Object>>> children = new ArrayList<>();
+        synchronized (this) {
+            snapshot = new ArrayList<>(families.values());
+            for (Family f : snapshot) {
+                children.add(new ArrayList<>(f.children().entrySet()));
+            }
+        }
+        StringBuilder out = new StringBuilder(8192);
+        for (int i = 0; i < snapshot.size(); i++) {
+            Family f = snapshot.get(i);
+            out.append("# HELP ").append(f.name()).append(' ').append(f.help()).append('\n');
+            out.append("# TYPE ").append(f.name()).append(' ').append(f.type().text()).append('\n');
+            for (Map.Entry<String, Object> child : children.get(i)) {
+                write(out, f.name(), child.getKey(), child.getValue());
+            }
+        }
+        return out.toString();
+    }
+
+    private static void write(StringBuilder out, String name, String labels, Object metric) {
+        if (metric instanceof Counter c) {
+            sample(out, name, labels, null, c.value());
+        } else if (metric instanceof Histogram h) {
+            writeHistogram(out, name, labels, h);
+        } else if (metric instanceof DoubleSupplier s) {
+            sample(out, name, labels, null, s.getAsDouble());
+        } else if (metric instanceof Supplier<?> s) {
+            Summary sum = (Summary) s.get();
+            sample(out, name, labels, "quantile=\"0.5\"", sum.p50Seconds());
+            sample(out, name, labels, "quantile=\"0.99\"", sum.p99Seconds());
+            sample(out, name + "_sum", labels, null, sum.sumSeconds());
+            sample(out, name + "_count", labels, null, sum.count());
+        }
+    }
+
+    /** Smallest exported {@code le} bound, 2^10 ns (~1 µs), and the largest, 2^35 ns (~34 s). */
+    private static final int LE_FIRST_OCTAVE = 10;
+    private static final int LE_LAST_OCTAVE = 35;
+
+    private static void writeHistogram(StringBuilder out, String name, String labels, Histogram h) {
+        // One pass over a copy: the cumulative counts and the total must agree within a scrape.
+        long[] counts = new long[Histogram.BUCKETS];
+        long total = 0;
+        for (int b = 0; b < counts.length; b++) {
+            counts[b] = h.buckets.get(b);
+            total += counts[b];
+        }
+        long cumulative = 0;
+        int b = 0;
+        for (int e = LE_FIRST_OCTAVE; e <= LE_LAST_OCTAVE; e++) {
+            int end = Histogram.bucket(1L << e); // first bucket at or above 2^e
+            while (b < end) {
+                cumulative += counts[b++];
+            }
+            sample(out, name + "_bucket", labels, "le=\"" + seconds(1L << e) + "\"", cumulative);
+        }
+        sample(out, name + "_bucket", labels, "le=\"+Inf\"", total);
+        sample(out, name + "_sum", labels, null, h.sumNanos() / 1e9);
+        sample(out, name + "_count", labels, null, total);
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, String extra, double value) {
+        out.append(name);
+        if (extra != null) {
+            if (labels.isEmpty()) {
+                out.append('{');
+            } else {
+                out.append(labels, 0, labels.length() - 1).append(',');
+            }
+            out.append(extra).append('}');
+        } else {
+            out.append(labels);
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+}
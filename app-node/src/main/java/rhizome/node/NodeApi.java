@@ -3,6 +3,7 @@ package rhizome.node;
 import rhizome.net.RateLimiter;
 
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 import io.activej.http.AsyncServlet;
 import io.activej.http.HttpHeader;
@@ -19,14 +20,18 @@ import org.slf4j.LoggerFactory;
 
 import rhizome.core.block.Block;
 import rhizome.core.block.BlockCodec;
+import rhizome.core.block.CompactBlock;
 import rhizome.core.common.Constants;
 import rhizome.core.serialization.BinarySerializable;
 import rhizome.core.transaction.Transaction;
 import rhizome.core.transaction.dto.TransactionDto;
+import rhizome.crypto.SHA256Hash;
+import rhizome.net.TransactionRelay;
 
 import static io.activej.http.HttpMethod.GET;
 import static io.activej.http.HttpMethod.POST;
 import static rhizome.node.ApiResponses.badRequest;
+import static rhizome.node.ApiResponses.compactResponse;
 import static rhizome.node.ApiResponses.guarded;
 import static rhizome.node.ApiResponses.guardedResponse;
 import static rhizome.node.ApiResponses.json;
@@ -62,6 +67,10 @@ public final class NodeApi {
     // transactions whose binary equivalent passes (audit: JSON/binary tx cap asymmetry).
     private static final int JSON_TX_BODY =
         TransactionDto.MAX_FIXED_SIZE + 2 * TransactionDto.MAX_DATA + 2048;
+    // Inventory gossip: one hash list, and one delivery batch (its soft cap plus one max-size tx,
+    // since a single transaction over the soft cap is sent alone).
+    private static final int TX_INV_BODY = Integer.BYTES + TransactionRelay.MAX_INV_PER_BATCH * SHA256Hash.SIZE;
+    private static final int TX_BATCH_BODY = TransactionRelay.MAX_BATCH_BYTES + TX_BODY;
 
     // Well-known ActiveJ header tokens: the HTTP parser interns incoming Origin/Host under these, and
     // a custom HttpHeaders.of("Origin"/"Host") token no longer matches them (it did in 6.0-beta2, but
@@ -181,7 +190,9 @@ public final class NodeApi {
      * event-loop thread. Without it every PoW check, Ed25519 verify, VM execution and RocksDB
      * fsync runs on the single HTTP loop: one valid-but-heavy block, or one max-gas dry-run,
      * freezes every route (including SSE and peer heartbeats) for its whole duration (audit:
-     * eventloop blocked by consensus work). Pass {@code null} to run inline (tests). The
+     * eventloop blocked by consensus work). An {@link ApiWorkers} routes each handler to the
+     * lane of its cost class; any other executor runs them all. Pass {@code null} to run inline
+     * (tests). The
      * streaming sync endpoints stay on the loop: they are bounded to one block/header in
      * flight and already aggregate-gated, so offloading them cannot pin the loop for long.
      */
@@ -219,6 +230,17 @@ public final class NodeApi {
         DashboardAssets dashboard = DashboardAssets.load();
         DocsAssets docs = DocsAssets.load();
 
+        // Offloaded handlers run in the lane of their cost class (ApiWorkers): per-class admission,
+        // so a flood of one kind of request cannot take the slots of another.
+        java.util.concurrent.Executor decode = ApiWorkers.lane(blocking, ApiWorkers.Cost.DECODE);
+        java.util.concurrent.Executor gas = ApiWorkers.lane(blocking, ApiWorkers.Cost.GAS);
+        java.util.concurrent.Executor scans = ApiWorkers.lane(blocking, ApiWorkers.Cost.SCAN);
+        java.util.concurrent.Executor ingest = ApiWorkers.lane(blocking, ApiWorkers.Cost.INGEST);
+        java.util.concurrent.Executor reads = ApiWorkers.lane(blocking, ApiWorkers.Cost.READ);
+        // Final blocks/headers/transactions and tip scalars are served from encoded bodies when a
+        // response cache is wired (ResponseCache); a hit never reaches the lane or the engine lock.
+        ResponseCache cache = node.responseCache();
+
         RoutingServlet routing = RoutingServlet.builder(reactor)
             // ---- embedded dashboard SPA ----
             .with(GET, "/", req -> ok(DashboardApi.asset(dashboard.index())))
@@ -233,20 +255,24 @@ public final class NodeApi {
                 return a == null ? notFound("no such document") : DashboardApi.asset(a);
             }))
             // ---- dashboard/explorer API ----
-            .with(GET, "/stats", req -> offload(blocking, () -> DashboardApi.stats(node)))
+            // Maintained aggregates (ChainStats): no decode, no engine lock beyond the height read.
+            .with(GET, "/stats", req -> cached(cache, node, req, null, key -> DashboardApi.stats(node)))
+            .with(GET, "/stats/series", req -> offload(reads, () -> DashboardApi.statsSeries(node, req)))
             .with(GET, "/features", req -> guarded(() -> DashboardApi.features(node, sse)))
-            .with(GET, "/blocks", req -> offload(blocking, () -> ExplorerApi.blocks(node, req)))
-            .with(GET, "/block", req -> offload(blocking, () -> ExplorerApi.block(node, req)))
-            .with(GET, "/transaction", req -> offload(blocking, () -> ExplorerApi.findTransaction(node, req)))
-            .with(GET, "/address_txs", req -> offload(blocking, () -> ExplorerApi.addressTransactions(node, req)))
-            .with(GET, "/contract", req -> offload(blocking, () -> ExplorerApi.contractInfo(node, req)))
-            .with(GET, "/wallet", req -> offload(blocking, () -> ExplorerApi.wallet(node, req)))
+            .with(GET, "/blocks", req -> offload(decode, () -> ExplorerApi.blocks(node, req)))
+            .with(GET, "/block", req -> cached(cache, node, req, decode, key -> ExplorerApi.block(node, req)))
+            .with(GET, "/transaction", req -> cached(cache, node, req, decode, key ->
+                ExplorerApi.findTransaction(node, req)))
+            .with(GET, "/address_txs", req -> offload(scans, () -> ExplorerApi.addressTransactions(node, req)))
+            .with(GET, "/contract", req -> offload(reads, () -> ExplorerApi.contractInfo(node, req)))
+            .with(GET, "/wallet", req -> offload(reads, () -> ExplorerApi.wallet(node, req)))
             // ---- chain scalars ----
             .with(GET, "/block_count", req -> ok(text(String.valueOf(node.blockCount()))))
-            .with(GET, "/total_work", req -> ok(json(new JSONObject().put("totalWork", node.totalWork().toString()))))
-            .with(GET, "/difficulty", req -> ok(text(String.valueOf(node.difficulty()))))
+            .with(GET, "/total_work", req -> cached(cache, node, req, null, key ->
+                json(new JSONObject().put("totalWork", node.totalWork().toString()))))
+            .with(GET, "/difficulty", req -> cached(cache, node, req, null, key -> text(String.valueOf(node.difficulty()))))
             .with(GET, "/mempool", req -> ok(json(new JSONObject().put("size", node.mempoolSize()))))
-            .with(GET, "/info", req -> ok(json(new JSONObject()
+            .with(GET, "/info", req -> cached(cache, node, req, null, key -> json(new JSONObject()
                 .put("chainId", node.chainId())
                 .put("network", node.networkName())
                 .put("height", node.blockCount())
@@ -256,17 +282,30 @@ public final class NodeApi {
                 .put("snapshotPivot", node.snapshotPivot())
                 .put("storageFeeFactor", node.voteableParams()[0])
                 .put("minValuePerByte", node.voteableParams()[1]))))
+            // ---- telemetry: Prometheus text, built from adders on the event loop (no engine lock) ----
+            .with(GET, "/metrics", req -> guarded(() -> HttpResponse.ok200()
+                .withHeader(HttpHeaders.CONTENT_TYPE, Metrics.CONTENT_TYPE)
+                .withHeader(ApiResponses.H_XCTO, "nosniff")
+                .withBody(node.metrics().render().getBytes(StandardCharsets.UTF_8))
+                .build()))
+            // ---- operator JFR recordings: token-gated, refused outright on a node without a token ----
+            .with(POST, "/jfr/start", req -> req.loadBody(SMALL_BODY).then(body -> offload(reads, () ->
+                jfrStart(node, apiToken != null, body.getString(StandardCharsets.UTF_8)))))
+            .with(POST, "/jfr/stop", req -> offload(reads, () -> jfrStop(node, apiToken != null)))
+            .with(POST, "/jfr/status", req -> guarded(() -> jfrStatus(node, apiToken != null)))
             // ---- peer registry ----
-            .with(GET, "/peers", req -> ok(json(new JSONObject()
-                .put("peers", new org.json.JSONArray(node.publicPeers())))))
+            .with(GET, "/gossip", req -> guarded(() -> SyncApi.gossip(node)))
+            .with(GET, "/peers", req -> cached(cache, node, req, null, key -> req.getQueryParameter("quality") == null
+                ? json(new JSONObject().put("peers", new org.json.JSONArray(node.publicPeers())))
+                : SyncApi.peersWithQuality(node)))
             .with(POST, "/add_peer", req -> req.loadBody(SMALL_BODY).map(body -> guardedResponse(() -> {
                 String url = parseJson(body.getString(StandardCharsets.UTF_8)).getString("url");
                 node.addPeer(url);
                 return json(new JSONObject().put("status", "OK"));
             })))
             // ---- boxes / scans ----
-            .with(GET, "/box", req -> offload(blocking, () -> BoxApi.box(node, req)))
-            .with(GET, "/boxes", req -> offload(blocking, () -> BoxApi.boxes(node, req)))
+            .with(GET, "/box", req -> offload(reads, () -> BoxApi.box(node, req)))
+            .with(GET, "/boxes", req -> offload(scans, () -> BoxApi.boxes(node, req)))
             .with(POST, "/scan/register", req -> req.loadBody(SMALL_BODY).map(body -> guardedResponse(() -> {
                 int id = node.registerScan(scanOwner(req, trustXff), rhizome.core.box.ScanPredicate.fromJson(
                     parseJson(body.getString(StandardCharsets.UTF_8))));
@@ -276,39 +315,83 @@ public final class NodeApi {
                 int id = parseJson(body.getString(StandardCharsets.UTF_8)).getInt("scanId");
                 return json(new JSONObject().put("removed", node.deregisterScan(scanOwner(req, trustXff), id)));
             })))
-            .with(GET, "/scan/list", req -> offload(blocking, () -> BoxApi.scanList(node, scanOwner(req, trustXff))))
-            .with(GET, "/scan/boxes", req -> offload(blocking, () -> BoxApi.scanBoxes(node, scanOwner(req, trustXff), req)))
+            .with(GET, "/scan/list", req -> offload(scans, () -> BoxApi.scanList(node, scanOwner(req, trustXff))))
+            .with(GET, "/scan/boxes", req -> offload(scans, () -> BoxApi.scanBoxes(node, scanOwner(req, trustXff), req)))
             // ---- tokens ----
-            .with(GET, "/token", req -> offload(blocking, () -> TokenApi.token(node, req)))
-            .with(GET, "/token_balance", req -> offload(blocking, () -> TokenApi.tokenBalance(node, req)))
-            .with(GET, "/tokens", req -> offload(blocking, () -> TokenApi.tokens(node, req)))
+            .with(GET, "/token", req -> offload(reads, () -> TokenApi.token(node, req)))
+            .with(GET, "/token_balance", req -> offload(reads, () -> TokenApi.tokenBalance(node, req)))
+            .with(GET, "/tokens", req -> offload(scans, () -> TokenApi.tokens(node, req)))
             // ---- authenticated state ----
-            .with(GET, "/state", req -> offload(blocking, () -> StateApi.state(node)))
-            .with(GET, "/state/proof", req -> offload(blocking, () -> StateApi.stateProof(node, req)))
+            .with(GET, "/state", req -> offload(reads, () -> StateApi.state(node)))
+            .with(GET, "/state/proof", req -> offload(reads, () -> StateApi.stateProof(node, req)))
             .with(GET, "/state/snapshot/info", req -> guarded(() -> SyncApi.snapshotInfo(node)))
             // Chunk reads are disk I/O (file-backed spool) — off the event loop like /orphan.
-            .with(GET, "/state/snapshot/chunk", req -> offload(blocking, () -> SyncApi.snapshotChunk(node, req)))
+            .with(GET, "/state/snapshot/chunk", req -> offload(reads, () -> SyncApi.snapshotChunk(node, req)))
+            .with(GET, "/state/snapshot/proof", req -> offload(reads, () -> SyncApi.snapshotProof(node, req)))
+            .with(GET, "/state/snapshot/manifest", req -> guarded(() -> SyncApi.snapshotManifest(node)))
             // ---- contract logs / dry run ----
-            .with(GET, "/logs", req -> offload(blocking, () -> ContractApi.logs(node, req)))
-            .with(GET, "/logs/stream", req -> guarded(() -> ContractApi.logStream(sse, clientKey(req, trustXff), clientSubnetKey(req, trustXff))))
-            .with(POST, "/call_readonly", req -> req.loadBody(TX_BODY).then(body -> offload(blocking, () ->
+            // A filtered query was charged LOG_QUERY_ROWS_MAX at the gate; it pays for the rows it touched.
+            .with(GET, "/logs", req -> offload(scans, () -> ContractApi.logs(node, req, rows ->
+                limiter.refund(clientKey(req, trustXff), NodeService.LOG_QUERY_ROWS_MAX - Math.max(1, rows)))))
+            .with(GET, "/logs/stream", req -> guarded(() -> ContractApi.logStream(sse, req, clientKey(req, trustXff), clientSubnetKey(req, trustXff))))
+            .with(GET, "/firehose", req -> guarded(() -> ExplorerApi.firehose(node, req, clientKey(req, trustXff), clientSubnetKey(req, trustXff))))
+            .with(GET, "/contracts/profile", req -> offload(reads, () -> ContractApi.profile(node, req)))
+            .with(POST, "/call_readonly", req -> req.loadBody(TX_BODY).then(body -> offload(gas, () ->
                 ContractApi.callReadonly(node, parseJson(body.getString(StandardCharsets.UTF_8))))))
+            .with(POST, "/call_readonly_batch", req -> req.loadBody(JSON_TX_BODY).then(body -> offload(gas, () ->
+                ContractApi.callReadonlyBatch(node, parseJson(body.getString(StandardCharsets.UTF_8))))))
             // ---- peer sync / gossip ingest ----
             .with(GET, "/sync", req -> guarded(() -> SyncApi.sync(node, req)))
-            .with(GET, "/headers", req -> guarded(() -> SyncApi.headers(node, req)))
-            .with(GET, "/orphan", req -> offload(blocking, () -> SyncApi.orphan(node, req)))
-            .with(POST, "/add_transaction_json", req -> req.loadBody(JSON_TX_BODY).then(body -> offload(blocking, () -> {
+            .with(GET, "/headers", req -> cached(cache, node, req, null, key -> SyncApi.headers(node, req, key != null)))
+            .with(GET, "/orphan", req -> cached(cache, node, req, decode, key -> SyncApi.orphan(node, req)))
+            .with(POST, "/add_transaction_json", req -> req.loadBody(JSON_TX_BODY).then(body -> offload(ingest, () -> {
                 Transaction t = Transaction.of(parseJson(body.getString(StandardCharsets.UTF_8)));
                 return statusResponse(node.submitTransaction(t, clientKey(req, trustXff)));
             })))
-            .with(POST, "/add_transaction", req -> req.loadBody(TX_BODY).then(body -> offload(blocking, () -> {
+            .with(POST, "/add_transaction", req -> req.loadBody(TX_BODY).then(body -> offload(ingest, () -> {
                 Transaction t = Transaction.of(BinarySerializable.fromBuffer(body.getArray(), TransactionDto.class));
                 return statusResponse(node.submitTransaction(t, clientKey(req, trustXff)));
             })))
-            .with(POST, "/submit", req -> req.loadBody(maxBlockBody).then(body -> offload(blocking, () -> {
+            // Inventory transaction gossip (TransactionRelay): a peer announces hashes, we answer
+            // with the ones we want, and it delivers only those in one batch.
+            .with(POST, "/tx_inv", req -> req.loadBody(TX_INV_BODY).then(body -> offload(ingest, () -> {
+                List<SHA256Hash> announced =
+                    TransactionRelay.decodeHashes(body.getArray(), TransactionRelay.MAX_INV_PER_BATCH);
+                byte[] wanted = TransactionRelay.encodeHashes(
+                    node.wantedTransactions(announced, clientAddress(req, trustXff)));
+                return HttpResponse.ok200()
+                    .withHeader(HttpHeaders.CONTENT_TYPE, "application/octet-stream")
+                    .withBody(wanted)
+                    .build();
+            })))
+            .with(POST, "/tx_batch", req -> req.loadBody(TX_BATCH_BODY).then(body -> offload(ingest, () -> {
+                List<Transaction> batch = TransactionRelay.decodeBatch(body.getArray());
+                String client = clientKey(req, trustXff);
+                // The gate charged one transaction's cost; the rest of the batch pays here, before
+                // any signature is checked, so batching buys no per-IP discount.
+                if (batch.size() > 1 && !limiter.allow(client, TX_SUBMIT_COST * (batch.size() - 1))) {
+                    return HttpResponse.ofCode(429)
+                        .withJson(new JSONObject().put("error", "rate limited").toString())
+                        .build();
+                }
+                NodeService.BatchOutcome outcome = node.submitTransactionBatch(batch, client);
+                return json(new JSONObject()
+                    .put("accepted", outcome.accepted())
+                    .put("rejected", outcome.rejected())
+                    .put("throttled", outcome.throttled()));
+            })))
+            .with(POST, "/submit", req -> req.loadBody(maxBlockBody).then(body -> offload(ingest, () -> {
                 Block block = BlockCodec.decode(body.getArray());
                 return statusResponse(node.submitBlock(block, clientKey(req, trustXff)));
             })))
+            // Compact relay (CompactBlock): rebuilt from our mempool; a partial rebuild answers with
+            // the missing body slots, which the sender posts to /compact_block/txs.
+            .with(POST, "/compact_block", req -> req.loadBody(maxBlockBody).then(body -> offload(ingest, () ->
+                compactResponse(node.submitCompactBlock(CompactBlock.decode(body.getArray()), clientKey(req, trustXff))))))
+            .with(POST, "/compact_block/txs", req -> req.loadBody(maxBlockBody).then(body -> offload(ingest, () ->
+                node.completeCompactBlock(CompactBlock.decodeFill(body.getArray()), clientKey(req, trustXff))
+                    .map(ApiResponses::statusResponse)
+                    .orElseGet(() -> notFound("no pending compact block")))))
             .build();
 
         return request -> {
@@ -344,7 +427,8 @@ public final class NodeApi {
             // lock: the per-IP limiter above cannot stop a distributed flood from summing past it, so a
             // process-wide bucket bounds the total lock-guarded decode work on the event-loop thread
             // (audit 5th-pass, net Finding 2). Shed over-budget reads before they touch the store.
-            if (isConsensusLockRead(request) && !node.tryReadBudget(cost)) {
+            // A response already cached takes neither the lock nor a decode, so it is not charged.
+            if (isConsensusLockRead(request) && !isCached(cache, node, request) && !node.tryReadBudget(cost)) {
                 return HttpResponse.ofCode(429)
                     .withJson(new JSONObject().put("error", "read budget exceeded").toString())
                     .toPromise();
@@ -409,9 +493,10 @@ public final class NodeApi {
     // ---- middleware: cost model, budgets and the browser guard ----
 
     /**
-     * Runs a consensus-heavy handler on the bounded worker pool (when wired) instead of the
-     * event-loop thread, mapping failures to the same generic 400 as {@code guarded}. A full
-     * worker queue sheds the request with 429 rather than queueing unbounded latency.
+     * Runs a consensus-heavy handler on its cost class's lane (when wired; see {@link ApiWorkers})
+     * instead of the event-loop thread, mapping failures to the same generic 400 as
+     * {@code guarded}. A full lane sheds the request with 429 rather than queueing unbounded
+     * latency.
      */
     private static Promise<HttpResponse> offload(java.util.concurrent.Executor blocking,
                                                  java.util.concurrent.Callable<HttpResponse> job) {
@@ -448,6 +533,160 @@ public final class NodeApi {
         return result;
     }
 
+    // ---- response cache (see ResponseCache) ----
+
+    /** {@code Cache-Control} of a body that can never change: a final block, header range or
+     *  transaction, or an orphan by hash. */
+    static final String CACHE_IMMUTABLE = "public, max-age=31536000, immutable";
+    /** {@code Cache-Control} of a tip-keyed body: storable, but revalidated on every use. */
+    static final String CACHE_REVALIDATE = "no-cache";
+
+    /**
+     * Serves {@code req} from the response cache when its {@link #cacheKey} hits, and otherwise
+     * runs {@code handler} on {@code lane} (or inline, like {@code guarded}, when null) and keeps a
+     * 200 body for the next request. The handler is passed the key (null: not cacheable) so it can
+     * shape a body the cache will hold, as {@code /headers} does. Cacheable responses carry a
+     * strong {@code ETag} and answer a matching {@code If-None-Match} with 304.
+     */
+    private static Promise<HttpResponse> cached(ResponseCache cache, NodeService node, HttpRequest req,
+                                                java.util.concurrent.Executor lane,
+                                                java.util.function.Function<ResponseCache.Key, HttpResponse> handler) {
+        ResponseCache.Key key = cacheKey(cache, node, req);
+        if (key == null) {
+            return offload(lane, () -> handler.apply(null));
+        }
+        ResponseCache.Entry hit = cache.get(key);
+        if (hit != null) {
+            return Promise.of(fromCache(req, hit));
+        }
+        long stamp = cache.stamp(key.scope());
+        // The copy and the digest run where the handler ran (the lane, for the block decodes).
+        return offload(lane, () -> {
+            HttpResponse response = handler.apply(key);
+            if (response.getCode() != 200) {
+                return response;
+            }
+            byte[] body = response.getBody().getArray();
+            String contentType = response.getHeader(HttpHeaders.CONTENT_TYPE);
+            ResponseCache.Key filled = key.height() >= 0 ? key
+                : key.atHeight(BinaryEncoding.MEDIA_TYPE.equals(contentType) ? BinaryEncoding.transactionHeight(body)
+                    : new JSONObject(new String(body, StandardCharsets.UTF_8)).optLong("height", -1));
+            return fromCache(req, cache.put(filled, stamp, body,
+                contentType, response.getHeader(HttpHeaders.CONTENT_ENCODING)));
+        });
+    }
+
+    private static boolean isCached(ResponseCache cache, NodeService node, HttpRequest req) {
+        ResponseCache.Key key = cacheKey(cache, node, req);
+        return key != null && cache.contains(key);
+    }
+
+    private static HttpResponse fromCache(HttpRequest req, ResponseCache.Entry entry) {
+        String cacheControl = entry.key().scope() == ResponseCache.Scope.IMMUTABLE ? CACHE_IMMUTABLE : CACHE_REVALIDATE;
+        boolean notModified = ResponseCache.matches(req.getHeader(HttpHeaders.IF_NONE_MATCH), entry.etag());
+        var response = (notModified ? HttpResponse.ofCode(304) : HttpResponse.ok200())
+            .withHeader(HttpHeaders.ETAG, entry.etag())
+            .withHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        if (entry.key().vary() != null) {
+            response.withHeader(WireCompression.H_VARY, entry.key().vary());
+        }
+        if (notModified) {
+            return response.build();
+        }
+        if (entry.contentType() != null) {
+            response.withHeader(HttpHeaders.CONTENT_TYPE, entry.contentType());
+        }
+        if (entry.contentEncoding() != null) {
+            response.withHeader(WireCompression.H_CONTENT_ENCODING, entry.contentEncoding());
+        }
+        return response.withHeader(ApiResponses.H_XCTO, "nosniff").withBody(entry.body()).build();
+    }
+
+    /**
+     * What {@code req} is cached under, or null when its body must be computed per request. Only
+     * what is decided here is cacheable: a block, header window or transaction at or below the
+     * cache's finalized height (never a pruned body), an orphan by hash, and the tip-keyed
+     * scalars with their off-chain inputs as the tag. Reads only the cache's own tip view and
+     * cheap counters — never the engine lock. A malformed parameter is not cacheable; the
+     * handler answers it.
+     */
+    static ResponseCache.Key cacheKey(ResponseCache cache, NodeService node, HttpRequest req) {
+        if (cache == null || req.getMethod() != GET) {
+            return null;
+        }
+        try {
+            long finalized = cache.finalizedHeight();
+            switch (req.getPath()) {
+                case "/block" -> {
+                    long id = Long.parseLong(req.getQueryParameter("blockId").trim());
+                    return id >= Math.max(1, cache.prunedBelow()) && id <= finalized
+                        ? ResponseCache.Key.immutable("/block?" + id + representation(req), id).varying("Accept")
+                        : null;
+                }
+                case "/headers" -> {
+                    long start = Long.parseLong(req.getQueryParameter("start").trim());
+                    long end = Long.parseLong(req.getQueryParameter("end").trim());
+                    if (start < 1 || end < start || end - start + 1 > Constants.BLOCK_HEADERS_PER_FETCH
+                            || end > finalized) {
+                        return null;
+                    }
+                    String encoding = WireCompression.acceptsDeflate(req) ? "|" + WireCompression.DEFLATE : "";
+                    return ResponseCache.Key.immutable("/headers?" + start + "-" + end + encoding, end)
+                        .varying("Accept-Encoding");
+                }
+                case "/transaction" -> {
+                    String txid = hex64(req.getQueryParameter("txid"));
+                    // Its height is known once found: the fill reads it back from the body.
+                    return txid == null ? null
+                        : ResponseCache.Key.immutable("/transaction?" + txid + representation(req), -1).varying("Accept");
+                }
+                case "/orphan" -> {
+                    String hash = hex64(req.getQueryParameter("hash"));
+                    return hash == null ? null : ResponseCache.Key.immutable("/orphan?" + hash, 0);
+                }
+                case "/difficulty", "/total_work" -> {
+                    return ResponseCache.Key.tip(req.getPath(), null);
+                }
+                case "/info" -> {
+                    return ResponseCache.Key.tip("/info", List.of(node.mempoolSize(), node.snapshotPivot()));
+                }
+                case "/stats" -> {
+                    String degraded = node.degradedState();
+                    return ResponseCache.Key.tip("/stats", List.of(node.mempoolSize(), node.peersVersion(),
+                        node.chainStats().version(), node.isReorgInProgress(), degraded == null ? "" : degraded));
+                }
+                case "/peers" -> {
+                    // The quality view moves with every exchange; only the plain listing is kept.
+                    return req.getQueryParameter("quality") == null
+                        ? ResponseCache.Key.tip("/peers", node.peersVersion()) : null;
+                }
+                default -> {
+                    return null;
+                }
+            }
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /** The key suffix of a negotiated representation ({@link BinaryEncoding}); empty for JSON. */
+    private static String representation(HttpRequest req) {
+        return BinaryEncoding.accepts(req) ? "|bin" : "";
+    }
+
+    /** {@code value} lower-cased if it is exactly 64 hex digits, else null. */
+    private static String hex64(String value) {
+        if (value == null || value.length() != 64) {
+            return null;
+        }
+        for (int i = 0; i < 64; i++) {
+            if (Character.digit(value.charAt(i), 16) < 0) {
+                return null;
+            }
+        }
+        return value.toLowerCase(java.util.Locale.ROOT);
+    }
+
     /**
      * True when a browser-originated POST must be refused. A request carrying an {@code Origin} is
      * browser-originated (browsers attach Origin to every POST); it is allowed only when it is
@@ -575,13 +814,15 @@ public final class NodeApi {
             // admit. Weight by the blocks actually read (audit: explorer full-block scans under-weighted).
             return depth;
         }
-        if ("/call_readonly".equals(path)) {
+        // A batch costs what one call does: its summed gas is capped at the single-call ceiling and
+        // charged to the same aggregate budget, so it buys no more VM time than one max-gas call.
+        if ("/call_readonly".equals(path) || "/call_readonly_batch".equals(path)) {
             return CALL_READONLY_COST;
         }
-        if ("/submit".equals(path)) {
+        if ("/submit".equals(path) || "/compact_block".equals(path) || "/compact_block/txs".equals(path)) {
             return SUBMIT_COST;
         }
-        if ("/add_transaction".equals(path) || "/add_transaction_json".equals(path)) {
+        if ("/add_transaction".equals(path) || "/add_transaction_json".equals(path) || "/tx_batch".equals(path)) {
             return TX_SUBMIT_COST;
         }
         // /sync and /headers were left at cost 1 by the M2 fix, yet they are the heaviest read
@@ -597,26 +838,28 @@ public final class NodeApi {
         }
         // The explorer read endpoints also fully decode blocks from RocksDB under the consensus lock
         // (ChainEngine.blockAt), yet were left at cost 1 by the M2 weighting pass. /blocks serves up to
-        // BLOCKS_RANGE_MAX full blocks and /stats reads STATS_WINDOW of them per call, so at cost 1 one
-        // IP could drive tens of thousands of lock-guarded block decodes/s, contending block production
-        // and sync. Weight them by the blocks they actually read (audit 5th-pass, net Finding 2).
+        // BLOCKS_RANGE_MAX full blocks, so at cost 1 one IP could drive tens of thousands of lock-guarded
+        // block decodes/s, contending block production and sync. Weight them by the blocks they actually
+        // read (audit 5th-pass, net Finding 2). /stats no longer reads blocks (ChainStats) and costs 1.
         if ("/blocks".equals(path)) {
             return rangeCost(request, 1, ExplorerApi.BLOCKS_RANGE_MAX); // full-block reads: ~1 unit per block
         }
-        if ("/stats".equals(path)) {
-            // STATS_WINDOW full-block decodes, each under the consensus lock — weight ~1 per block like
-            // /sync and /blocks (NOT divided by SCAN_COST_PER_BLOCKS, which is the lighter header-scan
-            // rate and rounds 32/20 down to 1, leaving /stats effectively unweighted).
-            return DashboardApi.STATS_WINDOW;
-        }
         // /logs was left at cost 1, yet its fromHeight cursor scan walks up to LOG_SCAN_WINDOW
         // heights × 3 event sources (contract + box + token) per call (audit F2). Weight the
         // cursor scan by its bounded span — the /logs request carries no end parameter, so the
         // served span is the window cap itself; a single-height lookup stays at cost 1. Not added
         // to the aggregate read gate below: the event sources are per-height map/store reads, not
         // full-block decodes under the consensus lock, so the readGate's rationale does not apply.
+        // A filtered query (contract/topic) spans up to LOG_QUERY_SPAN_MAX heights, and what it
+        // reads depends on how many bloom rows and candidate heights the range holds, which only
+        // the query itself learns. It is charged its ceiling, LOG_QUERY_ROWS_MAX rows, here, and
+        // the handler refunds the rows it did not touch (ContractApi.logs); a rejected query
+        // keeps the full charge.
         if ("/logs".equals(path)) {
             try {
+                if (request.getQueryParameter("contract") != null || request.getQueryParameter("topic") != null) {
+                    return NodeService.LOG_QUERY_ROWS_MAX; // a filter wins over height in the handler
+                }
                 String height = request.getQueryParameter("height");
                 if (height != null && !height.isEmpty()) {
                     return 1;
@@ -630,7 +873,14 @@ public final class NodeApi {
         // 16 MiB); a flat per-request cost is a bandwidth amplifier (audit F3). Charge
         // proportionally to the chunk's actual size when it is resolvable at the gate.
         if ("/state/snapshot/chunk".equals(path)) {
-            return snapshotChunkCost(node, request);
+            return snapshotChunkCost(node, request, false);
+        }
+        if ("/state/snapshot/proof".equals(path)) {
+            return snapshotChunkCost(node, request, true);
+        }
+        if ("/state/snapshot/manifest".equals(path)) {
+            var snap = node == null ? null : node.materializedSnapshot();
+            return snap == null ? 1 : (int) Math.max(1, 32L * snap.chunkCount() / CHUNK_COST_UNIT_BYTES);
         }
         if ("/orphan".equals(path)) {
             return ORPHAN_COST;
@@ -653,7 +903,7 @@ public final class NodeApi {
      * a distributed flood can't sum past the per-IP limiter and pin the event loop / contend the
      * consensus lock (audit 5th-pass, net Finding 2). Two families:
      * <ul>
-     *   <li>the browser-facing explorer reads ({@code /stats}, {@code /blocks}, {@code /block},
+     *   <li>the browser-facing explorer reads ({@code /blocks}, {@code /block},
      *       {@code /transaction}, {@code /address_txs}), which fully decode blocks from RocksDB
      *       under the consensus lock;</li>
      *   <li>the peer-serving heavyweights {@code /sync}, {@code /headers} and
@@ -672,32 +922,40 @@ public final class NodeApi {
         } catch (RuntimeException e) {
             return false;
         }
-        return "/stats".equals(path) || "/blocks".equals(path) || "/block".equals(path)
+        return "/blocks".equals(path) || "/block".equals(path)
             || "/transaction".equals(path) || "/address_txs".equals(path)
             || "/sync".equals(path) || "/headers".equals(path) || "/state/snapshot/chunk".equals(path)
-            || "/orphan".equals(path);
+            || "/state/snapshot/proof".equals(path) || "/orphan".equals(path);
     }
 
-    /** True for a POST /submit — the block-ingest route whose body decode must be gated (audit S6). */
+    /**
+     * True for a POST to a block-ingest route — {@code /submit} and the two compact-relay legs —
+     * whose body decode (and the PoW check behind it) must be gated (audit S6).
+     */
     private static boolean isSubmitPost(HttpRequest request) {
         if (request.getMethod() != POST) {
             return false;
         }
         try {
-            return "/submit".equals(request.getPath());
+            String path = request.getPath();
+            return "/submit".equals(path) || "/compact_block".equals(path) || "/compact_block/txs".equals(path);
         } catch (RuntimeException e) {
             return false;
         }
     }
 
-    /** True for a POST /add_transaction(JSON) — the tx-ingest routes gated like /submit (audit M1). */
+    /**
+     * True for a POST /add_transaction(JSON) or /tx_batch — the tx-ingest routes gated like /submit
+     * (audit M1).
+     */
     private static boolean isAddTransactionPost(HttpRequest request) {
         if (request.getMethod() != POST) {
             return false;
         }
         try {
             String path = request.getPath();
-            return "/add_transaction".equals(path) || "/add_transaction_json".equals(path);
+            return "/add_transaction".equals(path) || "/add_transaction_json".equals(path)
+                || "/tx_batch".equals(path);
         } catch (RuntimeException e) {
             return false;
         }
@@ -741,11 +999,87 @@ public final class NodeApi {
         }
         return switch (path) {
             case "/add_peer", "/scan/register", "/scan/deregister",
-                 "/add_transaction", "/add_transaction_json", "/submit", "/call_readonly" -> true;
+                 "/add_transaction", "/add_transaction_json", "/tx_inv", "/tx_batch", "/submit",
+                 "/compact_block", "/compact_block/txs", "/call_readonly", "/call_readonly_batch",
+                 "/jfr/start", "/jfr/stop", "/jfr/status" -> true;
             default -> false;
         };
     }
 
+    /** Default recording bound of {@code /jfr/start} when the body names none. */
+    static final long JFR_DEFAULT_SECONDS = 600;
+
+    /**
+     * {@code POST /jfr/start} with optional {@code {"maxAgeSeconds":..,"maxBytes":..}}: starts a
+     * recording with the shipped {@code rhizome.jfc} settings (see {@link FlightRecordings}).
+     * 403 on a node with no API token — the route writes to disk and raises the node's overhead,
+     * so it is never open — 409 if one is already running, 503 if recordings are not wired.
+     */
+    private static HttpResponse jfrStart(NodeService node, boolean tokenConfigured, String body) throws Exception {
+        FlightRecordings recordings = node.flightRecordings();
+        HttpResponse refused = jfrRefusal(recordings, tokenConfigured);
+        if (refused != null) {
+            return refused;
+        }
+        JSONObject args = body.isBlank() ? new JSONObject() : parseJson(body);
+        long seconds = args.optLong("maxAgeSeconds", JFR_DEFAULT_SECONDS);
+        long maxBytes = args.optLong("maxBytes", 0);
+        try {
+            return json(jfrJson(recordings.start(java.time.Duration.ofSeconds(seconds), maxBytes)));
+        } catch (IllegalStateException e) {
+            return jfrConflict(e);
+        }
+    }
+
+    /**
+     * {@code POST /jfr/stop}: stops and dumps the running recording, or reports the dump of one
+     * that stopped itself at its bound; 409 if none was started.
+     */
+    private static HttpResponse jfrStop(NodeService node, boolean tokenConfigured) throws Exception {
+        FlightRecordings recordings = node.flightRecordings();
+        HttpResponse refused = jfrRefusal(recordings, tokenConfigured);
+        if (refused != null) {
+            return refused;
+        }
+        try {
+            return json(jfrJson(recordings.stop()));
+        } catch (IllegalStateException e) {
+            return jfrConflict(e);
+        }
+    }
+
+    /** {@code POST /jfr/status}: the current or last recording. */
+    private static HttpResponse jfrStatus(NodeService node, boolean tokenConfigured) {
+        FlightRecordings recordings = node.flightRecordings();
+        HttpResponse refused = jfrRefusal(recordings, tokenConfigured);
+        return refused != null ? refused : json(jfrJson(recordings.status()));
+    }
+
+    private static HttpResponse jfrRefusal(FlightRecordings recordings, boolean tokenConfigured) {
+        if (!tokenConfigured) {
+            return HttpResponse.ofCode(403)
+                .withJson(new JSONObject().put("error", "recordings require RHIZOME_API_TOKEN").toString()).build();
+        }
+        if (recordings == null) {
+            return HttpResponse.ofCode(503)
+                .withJson(new JSONObject().put("error", "recordings unavailable").toString()).build();
+        }
+        return null;
+    }
+
+    private static HttpResponse jfrConflict(IllegalStateException e) {
+        return HttpResponse.ofCode(409)
+            .withJson(new JSONObject().put("error", e.getMessage()).toString()).build();
+    }
+
+    private static JSONObject jfrJson(FlightRecordings.Status status) {
+        return new JSONObject()
+            .put("running", status.running())
+            .put("startedMillis", status.startedMillis())
+            .put("file", status.file() == null ? JSONObject.NULL : status.file().getFileName().toString())
+            .put("sizeBytes", status.sizeBytes());
+    }
+
     /**
      * True for the static SPA/docs shell served to browsers: {@code GET /}, {@code /dashboard}
      * and the asset trees under {@code /dashboard/} and {@code /docs/}. These paths serve only
@@ -794,8 +1128,10 @@ public final class NodeApi {
         }
         return switch (path) {
             case "/sync", "/headers", "/blocks", "/block", "/peers", "/block_count", "/total_work",
-                 "/info", "/state/snapshot/info", "/state/snapshot/chunk", "/orphan",
-                 "/add_peer", "/add_transaction", "/add_transaction_json", "/submit" -> true;
+                 "/info", "/state/snapshot/info", "/state/snapshot/chunk", "/state/snapshot/proof",
+                 "/state/snapshot/manifest", "/orphan",
+                 "/add_peer", "/add_transaction", "/add_transaction_json", "/tx_inv", "/tx_batch",
+                 "/submit", "/compact_block", "/compact_block/txs" -> true;
             default -> false;
         };
     }
@@ -831,9 +1167,9 @@ public final class NodeApi {
      * materialised, or a missing/malformed/out-of-range index — because the handler then
      * answers 404/400 without serving any chunk bytes. Only the chunk's recorded length is
      * read here (the in-RAM spool index); the chunk bytes themselves are never touched at
-     * the gate.
+     * the gate. A chunk's multiproof ({@code proof}) is charged the same way by its own length.
      */
-    private static int snapshotChunkCost(NodeService node, HttpRequest request) {
+    private static int snapshotChunkCost(NodeService node, HttpRequest request, boolean proof) {
         var snap = node == null ? null : node.materializedSnapshot();
         if (snap == null) {
             return SNAPSHOT_CHUNK_COST; // 404 path: flat
@@ -851,7 +1187,8 @@ public final class NodeApi {
         if (index < 0 || index >= snap.chunkCount()) {
             return SNAPSHOT_CHUNK_COST; // 400/404 path: flat
         }
-        long units = (snap.chunkLength((int) index) + CHUNK_COST_UNIT_BYTES - 1)
+        long bytes = proof ? snap.proofLength((int) index) : snap.chunkLength((int) index);
+        long units = (bytes + CHUNK_COST_UNIT_BYTES - 1)
             / CHUNK_COST_UNIT_BYTES;
         return (int) Math.min(Integer.MAX_VALUE, Math.max(SNAPSHOT_CHUNK_MIN_COST, units));
     }
@@ -27,46 +27,85 @@ public final class NodeService {
     private final MemPool mempool;
     private volatile java.util.function.Consumer<Block> onBlockAccepted;
     private volatile java.util.function.Consumer<Transaction> onTransactionAccepted;
+    private volatile rhizome.net.PeerBroadcaster gossip;
     private volatile PeerRegistry peers;
+    private volatile rhizome.net.PeerQuality peerQuality;
     private volatile java.util.function.LongFunction<List<ContractLog>> logSource;
     private volatile java.util.function.Function<PublicAddress, byte[]> codeSource;
     private volatile java.util.function.LongFunction<List<rhizome.core.box.BoxProcessor.BoxEvent>> boxEventSource;
+    private volatile java.util.function.LongFunction<List<rhizome.core.box.BoxStore.BoxMutation>> boxChangeSource;
     private volatile java.util.function.LongFunction<List<rhizome.core.token.TokenProcessor.TokenEvent>> tokenEventSource;
     private volatile rhizome.core.blockchain.ContractProcessor contracts;
     private volatile rhizome.core.state.snapshot.StateSource snapshotSource;
     private volatile java.nio.file.Path snapshotSpoolDir;
     private volatile MaterializedSnapshot snapshot;
+    /** Performance telemetry for {@code GET /metrics}; the wiring registers the other subsystems. */
+    private final Metrics metrics = new Metrics();
+    private final Metrics.Histogram admissionTime = metrics.histogram("rhizome_mempool_admission_seconds",
+        "Mempool admission latency per transaction (signature check, nonce/balance checks, insert).");
+    private final Metrics.Counter admitted = metrics.counter("rhizome_mempool_admissions_total",
+        "Transactions offered to the mempool, by outcome.", "result", "accepted");
+    private final Metrics.Counter refused = metrics.counter("rhizome_mempool_admissions_total",
+        "Transactions offered to the mempool, by outcome.", "result", "rejected");
 
     /** Entry bound per snapshot chunk (bytes are bounded separately by the exporter). */
     static final int SNAPSHOT_CHUNK_ENTRIES = 4096;
+    /** File-name prefix of every snapshot spool file: swept at wiring time (SIGKILL leftovers). */
+    static final String SNAPSHOT_SPOOL_PREFIX = "rhizome-snapshot-";
+
+    /** One snapshot build at a time: a second trigger while one runs is a no-op, not a queue. */
+    private final java.util.concurrent.atomic.AtomicBoolean snapshotBuilding =
+        new java.util.concurrent.atomic.AtomicBoolean();
+    /** Spool dir created on demand when none is wired (tests); removed again by {@link #close()}. */
+    private java.nio.file.Path tempSpoolDir;
 
     /**
-     * A consistent full-state export frozen at one (pivotHeight, stateRoot) point, backed by a
-     * spool file instead of the heap: the exporter's chunks are stream-encoded into the file at
-     * capture time and only their {@code (offset, length)} index is retained (a few bytes per
-     * chunk), so the RAM peak of a materialisation is one chunk rather than the whole state —
-     * and an idle node serving snapshots holds none of it on the heap (audit: snapshot export
-     * RAM peak). Chunk reads are positional ({@link java.nio.channels.FileChannel#read} with an
-     * explicit offset), which is thread-safe across concurrent API requests sharing one snapshot.
-     * {@link #close()} releases the file; the owner closes a snapshot when it is replaced and at
-     * service shutdown.
+     * A consistent full-state export frozen at one (pivotHeight, stateRoot) point, backed by
+     * files instead of the heap, so the RAM peak of a materialisation is one chunk rather than
+     * the whole state — and an idle node serving snapshots holds none of it on the heap (audit:
+     * snapshot export RAM peak).
+     *
+     * <p>Chunks live in the spool dir's chunk pool, one file per chunk named by its content hash
+     * (its manifest entry). The hash commits the chunk's domain and key range as well as its
+     * bindings, so a chunk an interval left untouched is the same file in the next snapshot:
+     * the producer keeps it instead of writing it again, and only the chunks that changed cost
+     * a write. Which pool files a snapshot still needs is decided by its owner when it is
+     * replaced ({@link #release}).
+     *
+     * <p>Each chunk's multiproof against the captured root is spooled to this snapshot's own
+     * proof file — proofs are per-root, so none survives a pivot — and read positionally
+     * ({@link java.nio.channels.FileChannel#read} with an explicit offset), which is thread-safe
+     * across concurrent API requests. The chunk hashes form the
+     * {@link rhizome.core.state.snapshot.SnapshotManifest} whose hash {@code /info} advertises.
+     * Together they let a bootstrapping peer verify every chunk as it arrives.
      */
     static final class MaterializedSnapshot implements AutoCloseable {
         private final long pivotHeight;
         private final byte[] stateRoot;
+        private final java.nio.file.Path dir;
         private final java.nio.file.Path file;
-        private final long[] offsets;
         private final long[] lengths;
+        private final long[] proofOffsets;
+        private final long[] proofLengths;
+        private final rhizome.core.state.snapshot.SnapshotManifest manifest;
+        private final byte[] manifestHash;
+        private final int reusedChunks;
         private final java.nio.channels.FileChannel channel;
 
-        private MaterializedSnapshot(long pivotHeight, byte[] stateRoot, java.nio.file.Path file,
-                                     long[] offsets, long[] lengths,
-                                     java.nio.channels.FileChannel channel) {
+        private MaterializedSnapshot(long pivotHeight, byte[] stateRoot, java.nio.file.Path dir,
+                                     java.nio.file.Path file, long[] lengths, long[] proofOffsets,
+                                     long[] proofLengths, rhizome.core.state.snapshot.SnapshotManifest manifest,
+                                     int reusedChunks, java.nio.channels.FileChannel channel) {
             this.pivotHeight = pivotHeight;
             this.stateRoot = stateRoot;
+            this.dir = dir;
             this.file = file;
-            this.offsets = offsets;
             this.lengths = lengths;
+            this.proofOffsets = proofOffsets;
+            this.proofLengths = proofLengths;
+            this.manifest = manifest;
+            this.manifestHash = manifest.hash();
+            this.reusedChunks = reusedChunks;
             this.channel = channel;
         }
 
@@ -78,7 +117,7 @@ public final class NodeService {
             return stateRoot;
         }
 
-        /** The spool the chunks are read from (visible for the replacement/deletion tests). */
+        /** This snapshot's own proof spool (visible for the replacement/deletion tests). */
         java.nio.file.Path file() {
             return file;
         }
@@ -87,39 +126,110 @@ public final class NodeService {
             return lengths.length;
         }
 
+        /** Chunks carried over unchanged from the snapshot this one replaced. */
+        int reusedChunks() {
+            return reusedChunks;
+        }
+
         /** On-wire length of chunk {@code index}, without reading its bytes. */
         long chunkLength(int index) {
             return lengths[index];
         }
 
+        /** The per-chunk hash list ({@code /state/snapshot/manifest}). */
+        rhizome.core.state.snapshot.SnapshotManifest manifest() {
+            return manifest;
+        }
+
+        /** SHA-256 of the encoded manifest, advertised on {@code /state/snapshot/info}. */
+        byte[] manifestHash() {
+            return manifestHash;
+        }
+
+        /** Length of chunk {@code index}'s multiproof, without reading it. */
+        long proofLength(int index) {
+            return proofLengths[index];
+        }
+
+        /** The pool file holding chunk {@code index}. */
+        java.nio.file.Path chunkFile(int index) {
+            return chunkFile(dir, rhizome.core.common.Utils.bytesToHex(manifest.chunkHashes().get(index)));
+        }
+
+        static java.nio.file.Path chunkFile(java.nio.file.Path dir, String hashHex) {
+            return dir.resolve(SNAPSHOT_SPOOL_PREFIX + hashHex + ".chunk");
+        }
+
         byte[] chunkBytes(int index) {
             if (index < 0 || index >= lengths.length) {
                 throw new IndexOutOfBoundsException(index);
             }
-            java.nio.ByteBuffer buf = java.nio.ByteBuffer.allocate(Math.toIntExact(lengths[index]));
+            try {
+                return java.nio.file.Files.readAllBytes(chunkFile(index));
+            } catch (java.io.IOException e) {
+                // NoSuchFileException: the snapshot was replaced and its pool file released.
+                throw new java.io.UncheckedIOException("snapshot chunk read failed", e);
+            }
+        }
+
+        /** Chunk {@code index}'s multiproof against the pivot root. */
+        byte[] proofBytes(int index) {
+            if (index < 0 || index >= proofLengths.length) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            java.nio.ByteBuffer buf = java.nio.ByteBuffer.allocate(Math.toIntExact(proofLengths[index]));
             try {
                 while (buf.hasRemaining()) {
-                    if (channel.read(buf, offsets[index] + buf.position()) < 0) {
-                        throw new java.io.EOFException("snapshot spool truncated at chunk " + index);
+                    if (channel.read(buf, proofOffsets[index] + buf.position()) < 0) {
+                        throw new java.io.EOFException("snapshot proof spool truncated at chunk " + index);
                     }
                 }
             } catch (java.io.IOException e) {
-                throw new java.io.UncheckedIOException("snapshot chunk read failed", e);
+                throw new java.io.UncheckedIOException("snapshot proof read failed", e);
             }
             return buf.array();
         }
 
-        @Override
-        public void close() {
+        /** The hex content hashes of this snapshot's chunks: its share of the pool. */
+        java.util.Set<String> chunkNames() {
+            java.util.Set<String> names = new java.util.HashSet<>();
+            for (byte[] h : manifest.chunkHashes()) {
+                names.add(rhizome.core.common.Utils.bytesToHex(h));
+            }
+            return names;
+        }
+
+        /**
+         * Closes the proof spool and deletes it, plus every pool file of this snapshot that
+         * {@code successor} does not list. A reader still holding this snapshot then gets the
+         * "rotated" answer, as it does for a closed proof channel.
+         */
+        void release(MaterializedSnapshot successor) {
             try {
                 channel.close();
             } catch (java.io.IOException e) {
                 log.warn("Snapshot spool {} could not be closed", file, e);
             }
+            deleteQuietly(file);
+            boolean sameDir = successor != null && dir.equals(successor.dir);
+            java.util.Set<String> kept = sameDir ? successor.chunkNames() : java.util.Set.of();
+            for (String name : chunkNames()) {
+                if (!kept.contains(name)) {
+                    deleteQuietly(chunkFile(dir, name));
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            release(null);
+        }
+
+        private static void deleteQuietly(java.nio.file.Path path) {
             try {
-                java.nio.file.Files.deleteIfExists(file);
+                java.nio.file.Files.deleteIfExists(path);
             } catch (java.io.IOException e) {
-                log.warn("Snapshot spool {} could not be deleted", file, e);
+                log.warn("Snapshot spool {} could not be deleted", path, e);
             }
         }
     }
@@ -127,10 +237,27 @@ public final class NodeService {
     /** Maximum blocks a single /logs catch-up scan spans, so agents poll in bounded chunks. */
     public static final int LOG_SCAN_WINDOW = 128;
 
+    /** Maximum blocks a single filtered /logs query spans when the contract store indexes logs. */
+    public static final int LOG_QUERY_SPAN_MAX = 65_536;
+
+    /** Logs after which a filtered /logs query stops (at a whole height) and returns its cursor. */
+    public static final int LOG_QUERY_RESULTS_MAX = 1_000;
+
+    /**
+     * Rows a single filtered /logs query touches: range blooms, block blooms and the heights
+     * whose logs it reads, one each. Past it the query returns its cursor, and /logs charges
+     * the caller's rate budget by the rows a query actually touched, up to this.
+     */
+    public static final int LOG_QUERY_ROWS_MAX = 256;
+
     /** Maximum boxes a single /scan query examines, so a scan runs in bounded, pollable chunks. */
     public static final int BOX_SCAN_WINDOW = 512;
 
-    private final ScanRegistry scans = new ScanRegistry();
+    /** Match sets of the registered scans, maintained per block (see {@link MaterializedScans}). */
+    private final MaterializedScans materialized;
+    private final ScanRegistry scans;
+    /** Rolling chain statistics behind {@code /stats}, maintained per block (see {@link ChainStats}). */
+    private final ChainStats chainStats;
 
     /** Bound on peer admissions queued off-loop at once; excess {@code /add_peer} calls are shed. */
     private static final int MAX_PENDING_ADMISSIONS = 256;
@@ -236,6 +363,17 @@ public final class NodeService {
     static final int READ_DECODE_MAX_PER_SEC = 8_000;
     private final RateLimiter readGate;
 
+    /**
+     * Aggregate budget, in blocks per second, for the {@code /firehose} backfill reads of every
+     * subscriber together. Kept off {@link #READ_DECODE_MAX_PER_SEC}: a backfill is one request
+     * that keeps reading for as long as its subscriber is behind, so on the shared bucket a few
+     * catching-up indexers could drain it and push the peers' {@code /sync} into 429. Capped at a
+     * quarter of that budget, so the firehose never costs the store more than the peer-serving
+     * reads may.
+     */
+    static final int FIREHOSE_BACKFILL_MAX_PER_SEC = READ_DECODE_MAX_PER_SEC / 4;
+    private final RateLimiter firehoseGate;
+
     public NodeService(ChainEngine engine, MemPool mempool) {
         this(engine, mempool, new RateLimiter(SUBMIT_POW_MAX_PER_SEC, 1000, 1),
             new RateLimiter(READONLY_GAS_MAX_PER_SEC, 1000, 1),
@@ -254,11 +392,29 @@ public final class NodeService {
 
     NodeService(ChainEngine engine, MemPool mempool, RateLimiter submitPowGate, RateLimiter readonlyGasGate,
                 RateLimiter readGate) {
+        this(engine, mempool, submitPowGate, readonlyGasGate, readGate,
+            new RateLimiter(FIREHOSE_BACKFILL_MAX_PER_SEC, 1000, 1));
+    }
+
+    NodeService(ChainEngine engine, MemPool mempool, RateLimiter submitPowGate, RateLimiter readonlyGasGate,
+                RateLimiter readGate, RateLimiter firehoseGate) {
         this.submitPowGate = submitPowGate;
         this.readonlyGasGate = readonlyGasGate;
         this.readGate = readGate;
+        this.firehoseGate = firehoseGate;
         this.engine = engine;
         this.mempool = mempool;
+        metrics.gauge("rhizome_mempool_transactions", "Transactions in the mempool.", mempool::size);
+        this.materialized = new MaterializedScans(this::scan, this::box, engine.params().maxReorgDepth());
+        this.chainStats = new ChainStats(engine.params().desiredBlockTimeSec(), DashboardApi.STATS_WINDOW);
+        this.scans = new ScanRegistry(new ScanRegistry.Listener() {
+            @Override public void added(int id, rhizome.core.box.ScanPredicate predicate) {
+                materialized.add(id, predicate);
+            }
+            @Override public void removed(int id) {
+                materialized.drop(id);
+            }
+        });
     }
 
     /**
@@ -270,6 +426,15 @@ public final class NodeService {
         return readGate.allow("read", cost);
     }
 
+    /**
+     * Reserves {@code blocks} from the firehose backfill budget ({@link
+     * #FIREHOSE_BACKFILL_MAX_PER_SEC}), returning false when this second's is spent; the
+     * subscriber then retries later. Never draws on {@link #tryReadBudget}.
+     */
+    boolean tryFirehoseBudget(int blocks) {
+        return firehoseGate.allow("firehose", blocks);
+    }
+
     /** Called when a freshly submitted block/transaction is accepted (for gossip). */
     public void setOnBlockAccepted(java.util.function.Consumer<Block> listener) {
         this.onBlockAccepted = listener;
@@ -279,10 +444,34 @@ public final class NodeService {
         this.onTransactionAccepted = listener;
     }
 
+    /** The gossip sender: told which peer announced what, and read for {@code GET /gossip}. */
+    public void setGossip(rhizome.net.PeerBroadcaster broadcaster) {
+        this.gossip = broadcaster;
+    }
+
+    /** The gossip sender, or null before gossip starts. */
+    public rhizome.net.PeerBroadcaster gossip() {
+        return gossip;
+    }
+
     public void setPeers(PeerRegistry registry) {
         this.peers = registry;
     }
 
+    /** The sync layer's per-peer link-quality tracker (exported on {@code /peers?quality=1}). */
+    public void setPeerQuality(rhizome.net.PeerQuality quality) {
+        this.peerQuality = quality;
+    }
+
+    /**
+     * Link quality for the peers {@link #publicPeers} lists — never for a withheld private seed,
+     * so the export reveals no peer the plain list does not. Empty before sync starts.
+     */
+    public List<rhizome.net.PeerQuality.Snapshot> peerQuality() {
+        rhizome.net.PeerQuality quality = peerQuality;
+        return quality == null ? List.of() : quality.snapshots(publicPeers());
+    }
+
     /** Source of contract event logs by block height (the contract processor). */
     public void setLogSource(java.util.function.LongFunction<List<ContractLog>> source) {
         this.logSource = source;
@@ -304,6 +493,107 @@ public final class NodeService {
         this.boxEventSource = source;
     }
 
+    /** Source of each applied block's box writes and deletes (the box processor), folded into
+     *  the materialised scans. Unset (boxes disabled): registered scans are evaluated live. */
+    public void setBoxChangeSource(
+            java.util.function.LongFunction<List<rhizome.core.box.BoxStore.BoxMutation>> source) {
+        this.boxChangeSource = source;
+    }
+
+    /**
+     * {@code block} was applied: update the registered scans' match sets, fold it into the
+     * chain statistics and move the response cache's tip. Engine lock held.
+     */
+    public void onBlockApplied(Block block) {
+        long height = block.id();
+        var changes = boxChangeSource;
+        if (changes != null) {
+            materialized.onApplied(height, changes.apply(height));
+        }
+        chainStats.onApplied(ChainStats.summarize(block, gasUsedAt(height)));
+        var cache = responseCache;
+        if (cache != null) {
+            cache.onApplied(height, engine.prunedBelow()); // reentrant: the engine lock is ours
+        }
+        var hose = firehose;
+        if (hose != null) {
+            hose.onApplied(block);
+        }
+    }
+
+    /**
+     * Block {@code height} was popped: undo what it did to the match sets and the statistics, and
+     * drop the cached responses it may have fed. Engine lock held.
+     */
+    public void onBlockPopped(long height) {
+        materialized.onPopped(height);
+        chainStats.onPopped(height);
+        var cache = responseCache;
+        if (cache != null) {
+            cache.onPopped(height);
+        }
+        var hose = firehose;
+        if (hose != null) {
+            hose.onPopped(height);
+        }
+    }
+
+    /**
+     * Fills the chain statistics back from the tip — one block decode per height, once — so
+     * {@code /stats} covers its windows right after a restart. Blocking; run off the consensus
+     * path (the engine lock is taken per block, as any {@code /block} read does). Returns the
+     * blocks folded in.
+     */
+    public long backfillStats() {
+        return chainStats.backfill(blockCount(), h -> {
+            Block b = block(h);
+            return b == null ? null : ChainStats.summarize(b, gasUsedAt(h));
+        });
+    }
+
+    /** Contract gas used by the block at {@code height} (0 without a contract processor). */
+    private long gasUsedAt(long height) {
+        var processor = contracts;
+        if (processor == null) {
+            return 0;
+        }
+        long gas = 0;
+        for (var receipt : processor.receipts(height)) {
+            gas += receipt.gasUsed();
+        }
+        return gas;
+    }
+
+    /** Receipts of block {@code height}'s contract transactions, in block order (empty without
+     *  a contract processor). */
+    public List<rhizome.core.blockchain.ContractProcessor.ContractReceipt> contractReceipts(long height) {
+        var processor = contracts;
+        return processor == null ? List.of() : processor.receipts(height);
+    }
+
+    /** Contract logs alone (no box or token events) emitted by block {@code height}. */
+    public List<ContractLog> contractLogs(long height) {
+        var logs = logSource;
+        return logs == null ? List.of() : logs.apply(height);
+    }
+
+    /** Box lifecycle events of block {@code height} (empty without a box processor). */
+    public List<rhizome.core.box.BoxProcessor.BoxEvent> boxEvents(long height) {
+        var boxes = boxEventSource;
+        return boxes == null ? List.of() : boxes.apply(height);
+    }
+
+    /** Token lifecycle events of block {@code height} (empty without a token processor). */
+    public List<rhizome.core.token.TokenProcessor.TokenEvent> tokenEvents(long height) {
+        var tokens = tokenEventSource;
+        return tokens == null ? List.of() : tokens.apply(height);
+    }
+
+    /** The rolling chain statistics behind {@code /stats}. */
+    ChainStats chainStats() {
+        return chainStats;
+    }
+
     /**
      * Event logs emitted by a block: contract logs plus box lifecycle events (mapped
      * to the same {@code (contract, topic, data)} shape, with the box owner as contract,
@@ -376,6 +666,85 @@ public final class NodeService {
         this.contracts = contracts;
     }
 
+    /**
+     * Executes read-only CALLs, in order, against one point-in-time view, entirely off the
+     * consensus lock (the node wires {@code rhizome.vm.ReadonlyCallEngine#callBatch}). Empty = no
+     * consistent view could be opened in time; the calls are shed like a full admission queue.
+     */
+    @FunctionalInterface
+    public interface ReadonlyCalls {
+        java.util.Optional<List<rhizome.core.blockchain.ContractProcessor.ContractResult>> call(
+            List<rhizome.core.blockchain.ContractProcessor.DryRunCall> calls);
+    }
+
+    private volatile ReadonlyCalls readonlyCalls;
+
+    /**
+     * Routes {@link #dryRun} through {@code calls} instead of the consensus-locked processor path.
+     * Optional: without it (stores that cannot snapshot, tests) dry-runs keep the locked path.
+     */
+    public void setReadonlyCalls(ReadonlyCalls calls) {
+        this.readonlyCalls = calls;
+    }
+
+    private volatile rhizome.vm.ContractProfiler contractProfiler;
+
+    /** The contract execution profiler behind {@code /contracts/profile} (optional). */
+    public void setContractProfiler(rhizome.vm.ContractProfiler profiler) {
+        this.contractProfiler = profiler;
+    }
+
+    /** The wired contract execution profiler, or null (profiling unavailable). */
+    public rhizome.vm.ContractProfiler contractProfiler() {
+        return contractProfiler;
+    }
+
+    private volatile FlightRecordings flightRecordings;
+    private volatile ResponseCache responseCache;
+    private volatile BlockFirehose firehose;
+
+    /** The JFR recording controller behind {@code /jfr/*} (optional). */
+    void setFlightRecordings(FlightRecordings recordings) {
+        this.flightRecordings = recordings;
+    }
+
+    /** The wired recording controller, or null (recordings unavailable). */
+    FlightRecordings flightRecordings() {
+        return flightRecordings;
+    }
+
+    /**
+     * Wires the API response cache, seeded with the current tip and prune watermark; from then on
+     * {@link #onBlockApplied} and {@link #onBlockPopped} keep it current. Wire it before the
+     * servlet is built ({@link NodeApi} picks it up once).
+     */
+    void setResponseCache(ResponseCache cache) {
+        this.responseCache = cache;
+        if (cache != null) {
+            // After publishing it: a block applied in between is then either seen by the listener
+            // or already part of the height read here.
+            cache.reset(engine.height(), engine.prunedBelow());
+        }
+    }
+
+    /** The wired response cache, or null (every response is computed per request). */
+    ResponseCache responseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Wires the block firehose; from then on {@link #onBlockApplied} and {@link #onBlockPopped}
+     * feed it. {@code GET /firehose} answers 503 without one.
+     */
+    void setFirehose(BlockFirehose hose) {
+        this.firehose = hose;
+    }
+
+    /** The wired block firehose, or null. */
+    BlockFirehose firehose() {
+        return firehose;
+    }
+
     /** Whether read-only contract calls are available (a contract processor is wired). */
     public boolean dryRunAvailable() {
         return contracts != null;
@@ -394,7 +763,11 @@ public final class NodeService {
     private static final long MAX_READONLY_GAS_CHARGE = 25_000_000L;
 
     /** Runs a read-only CALL against committed state, discarding writes (no ledger effect).
-     *  Serialized with block application and sync through the consensus lock: the contract
+     *  With a {@link ReadonlyCalls} engine wired, the call runs against that engine's immutable
+     *  snapshot on its own workers and never touches the consensus lock — a dry-run no longer
+     *  stalls block application, nor queues behind other dry-runs on a single thread.
+     *
+     *  <p>Without one, it is serialized with block application and sync through the consensus lock: the contract
      *  processor's session ({@code DefaultBoxProcessor.session}) is a single mutable view, so a
      *  dry-run racing a sync-driven block apply could read a half-updated state or corrupt the
      *  session the apply is using (audit: dryRun outside the consensus lock).
@@ -412,12 +785,36 @@ public final class NodeService {
 
     public java.util.Optional<rhizome.core.blockchain.ContractProcessor.ContractResult> dryRun(
             PublicAddress from, PublicAddress to, byte[] input, long value, long gasLimit) {
+        return dryRunBatch(List.of(
+                new rhizome.core.blockchain.ContractProcessor.DryRunCall(from, to, input, value, gasLimit)))
+            .map(results -> results.get(0));
+    }
+
+    /**
+     * Runs {@code calls} in order against ONE consistent view of committed state ({@code
+     * /call_readonly_batch}): one admission slot, one view and, on the lock-free path, one worker
+     * hand-off for the whole batch. Each call still runs in its own scratch session (no write of
+     * one is visible to the next). The caller charges the gas budget for the batch total up front.
+     * Empty under the same conditions as {@link #dryRun}.
+     */
+    public java.util.Optional<List<rhizome.core.blockchain.ContractProcessor.ContractResult>> dryRunBatch(
+            List<rhizome.core.blockchain.ContractProcessor.DryRunCall> calls) {
         if (!dryRunSlots.tryAcquire()) {
             return java.util.Optional.empty();
         }
         try {
-            return java.util.Optional.of(
-                engine.withConsistentView(() -> contracts.dryRun(from, to, input, value, gasLimit)));
+            ReadonlyCalls lockFree = readonlyCalls;
+            if (lockFree != null) {
+                return lockFree.call(calls);
+            }
+            return java.util.Optional.of(engine.withConsistentView(() -> {
+                List<rhizome.core.blockchain.ContractProcessor.ContractResult> results =
+                    new ArrayList<>(calls.size());
+                for (var c : calls) {
+                    results.add(contracts.dryRun(c.from(), c.to(), c.input(), c.value(), c.gasLimit()));
+                }
+                return results;
+            }));
         } finally {
             dryRunSlots.release();
         }
@@ -483,6 +880,17 @@ public final class NodeService {
         return scans.scansOf(owner);
     }
 
+    /**
+     * One page of registered scan {@code scanId} (whose predicate the caller has already resolved
+     * for its owner): a cursor over the materialised match set when one is kept, else the live
+     * {@link #scan}. Both page in box-id order with the same cursor, so a client cannot tell.
+     */
+    public rhizome.core.box.BoxProcessor.ScanPage scanRegistered(
+            int scanId, rhizome.core.box.ScanPredicate predicate, byte[] afterId, int limit) {
+        var page = boxChangeSource == null ? null : materialized.page(scanId, afterId, limit);
+        return page != null ? page : scan(predicate, afterId, limit);
+    }
+
     /** Evaluates a predicate over committed boxes, one bounded, pollable window at a time. */
     public rhizome.core.box.BoxProcessor.ScanPage scan(
             rhizome.core.box.ScanPredicate predicate, byte[] afterId, int limit) {
@@ -504,14 +912,72 @@ public final class NodeService {
                 out.add(new HeightLog(h, log));
             }
         }
-        return new LogPage(from, Math.max(from - 1, to), out);
+        return new LogPage(from, Math.max(from - 1, to), out, (int) Math.max(0, to - from + 1));
+    }
+
+    /**
+     * A filtered log query: the contract logs in {@code [fromHeight, toHeight]} emitted by
+     * {@code contract} (null: any) with topic exactly {@code topic} (null: any). With a log
+     * index ({@link rhizome.core.blockchain.ContractProcessor#logCandidates}) it spans up to
+     * {@link #LOG_QUERY_SPAN_MAX} blocks, touching at most about {@link #LOG_QUERY_ROWS_MAX} bloom
+     * rows and candidate heights; without one it scans {@link #LOG_SCAN_WINDOW} heights as
+     * {@link #logsFrom} does. It also stops after the height that reaches {@link
+     * #LOG_QUERY_RESULTS_MAX} logs, so the returned {@code toHeight} is always a whole-height
+     * cursor: poll again from {@code toHeight + 1}. Box and token events are not indexed and
+     * never match.
+     */
+    public LogPage logsMatching(long fromHeight, long toHeight, PublicAddress contract, byte[] topic) {
+        return logsMatching(engine.height(), fromHeight, toHeight, contract, topic, logSource, contracts);
+    }
+
+    /** {@link #logsMatching(long, long, PublicAddress, byte[])} against a given tip and sources. */
+    static LogPage logsMatching(long tip, long fromHeight, long toHeight, PublicAddress contract, byte[] topic,
+                                java.util.function.LongFunction<List<ContractLog>> source,
+                                rhizome.core.blockchain.ContractProcessor processor) {
+        long from = Math.max(1, fromHeight);
+        long to = Math.min(tip, toHeight);
+        List<HeightLog> out = new ArrayList<>();
+        if (source == null || to < from) {
+            return new LogPage(from, from - 1, out, 0);
+        }
+        var found = processor == null ? null
+            : processor.logCandidates(from, Math.min(to, from + LOG_QUERY_SPAN_MAX - 1), contract, topic,
+                LOG_QUERY_ROWS_MAX);
+        long[] heights;
+        int rows;
+        if (found == null) {
+            to = Math.min(to, from + LOG_SCAN_WINDOW - 1);
+            heights = java.util.stream.LongStream.rangeClosed(from, to).toArray();
+            rows = 0;
+        } else {
+            to = found.scannedTo(); // short of the span when the row budget ran out
+            heights = found.heights();
+            rows = found.indexRows();
+        }
+        for (long h : heights) {
+            rows++;
+            for (ContractLog log : source.apply(h)) {
+                if ((contract == null || contract.equals(log.contract()))
+                    && (topic == null || java.util.Arrays.equals(topic, log.topic()))) {
+                    out.add(new HeightLog(h, log));
+                }
+            }
+            if (out.size() >= LOG_QUERY_RESULTS_MAX) {
+                to = h;
+                break;
+            }
+        }
+        return new LogPage(from, to, out, rows);
     }
 
     /** A contract log tagged with the height of the block that emitted it. */
     public record HeightLog(long height, ContractLog log) {}
 
-    /** One page of a height-cursor log scan: the range covered and the logs in it. */
-    public record LogPage(long fromHeight, long toHeight, List<HeightLog> logs) {}
+    /**
+     * One page of a height-cursor log scan: the range covered, the logs in it, and the rows
+     * (bloom rows and heights read) it took to find them.
+     */
+    public record LogPage(long fromHeight, long toHeight, List<HeightLog> logs, int rowsRead) {}
 
     /** Peer base URLs this node knows (empty if discovery is not enabled). */
     public java.util.List<String> knownPeers() {
@@ -527,6 +993,12 @@ public final class NodeService {
         return peers == null ? java.util.List.of() : peers.publicSnapshot();
     }
 
+    /** Moves whenever the peer table changes (0 without discovery); see {@link PeerRegistry#version}. */
+    public long peersVersion() {
+        PeerRegistry registry = peers;
+        return registry == null ? 0 : registry.version();
+    }
+
     /**
      * Queues a self-announced peer ({@code /add_peer}) for admission on the off-loop worker and
      * returns immediately. Admission resolves DNS, which must not block the event-loop (see
@@ -605,54 +1077,6 @@ public final class NodeService {
         return engine.height();
     }
 
-    /** Aggregate over the last stats window: total tx count and the first/last block timestamps. */
-    public record StatsWindow(long windowStart, long height, long txCount, long firstTs, long lastTs) {}
-
-    private volatile StatsWindow statsWindowCache;
-    /** Serializes stats-window recomputes: without it, N concurrent callers on a stale cache
-     *  all re-decode the same window under the read path (duplicate lock-guarded work). */
-    private final Object statsWindowLock = new Object();
-
-    /**
-     * Cached aggregate over the last {@code window} blocks for {@code GET /stats}. The dashboard polls
-     * stats on a timer, but this window only changes when the tip advances, so it is recomputed (and
-     * the {@code window} blocks re-decoded under the read path) only when {@code blockCount()} moved
-     * since the last call (audit optimization). Live scalars (mempool, peers, difficulty) are cheap and
-     * stay uncached in the handler.
-     */
-    public StatsWindow statsWindow(int window) {
-        long height = blockCount();
-        StatsWindow cached = statsWindowCache;
-        if (cached != null && cached.height() == height) {
-            return cached;
-        }
-        synchronized (statsWindowLock) {
-            // Re-check inside the lock: a concurrent caller may already have recomputed this
-            // height — only one thread re-decodes the window per tip movement.
-            cached = statsWindowCache;
-            if (cached != null && cached.height() == height) {
-                return cached;
-            }
-            long windowStart = Math.max(1, height - window + 1);
-            long txCount = 0;
-            long firstTs = 0;
-            long lastTs = 0;
-            for (long h = windowStart; h <= height; h++) {
-                var b = (rhizome.core.block.BlockImpl) block(h);
-                txCount += b.transactions().size();
-                if (h == windowStart) {
-                    firstTs = b.timestamp();
-                }
-                if (h == height) {
-                    lastTs = b.timestamp();
-                }
-            }
-            StatsWindow w = new StatsWindow(windowStart, height, txCount, firstTs, lastTs);
-            statsWindowCache = w;
-            return w;
-        }
-    }
-
     /** Exclusive upper bound of pruned block bodies (0 = archive node). */
     public long prunedBelow() {
         return engine.prunedBelow();
@@ -675,7 +1099,7 @@ public final class NodeService {
         int swept = 0;
         try (var entries = java.nio.file.Files.list(dir)) {
             for (var stale : (Iterable<java.nio.file.Path>) entries
-                    .filter(p -> p.getFileName().toString().startsWith("rhizome-snapshot-"))
+                    .filter(p -> p.getFileName().toString().startsWith(SNAPSHOT_SPOOL_PREFIX))
                     ::iterator) {
                 try {
                     java.nio.file.Files.deleteIfExists(stale);
@@ -692,86 +1116,176 @@ public final class NodeService {
     }
 
     /**
-     * Captures a fresh materialised snapshot of the full committed state under the engine
-     * lock, so every chunk corresponds to the single {@code (height, stateRoot)} pair it
-     * advertises. Chunks are spooled to a temp file as the exporter emits them (see {@link
-     * MaterializedSnapshot}); only the offset index is kept on the heap. Replaces — and deletes
-     * the spool of — any previous snapshot. False when the node cannot export (no source
-     * wired, or no state accumulator producing roots) or when the spool I/O fails; a failure
-     * cleans up the partial file and keeps the previous snapshot.
+     * Builds the next materialised snapshot of the full committed state and swaps it in. The
+     * consensus lock is held only to pin the state — one RocksDB snapshot per store plus the
+     * state tree's node view ({@link rhizome.core.state.snapshot.StateSource#pin},
+     * {@link ChainEngine#pinStateTree}), O(1) each — so every chunk corresponds to the single
+     * {@code (height, stateRoot)} pair it advertises while blocks keep landing during the export.
+     * Stores that cannot pin (in-memory, tests) fall back to exporting under the lock.
+     *
+     * <p>Until the swap the previous snapshot keeps being served, untouched; chunks the interval
+     * did not change are carried over from its pool instead of being written again (see {@link
+     * MaterializedSnapshot}). Serving never builds: a chunk request only ever reads the current
+     * snapshot. False when the node cannot export (no source wired, or no state accumulator
+     * producing roots), when a build is already running, or when the build fails or is
+     * interrupted — which deletes what it wrote and keeps the previous snapshot.
      */
     public boolean materializeSnapshot() {
         var source = snapshotSource;
         if (source == null || engine.stateRoot() == null) {
             return false;
         }
-        final MaterializedSnapshot fresh;
+        if (!snapshotBuilding.compareAndSet(false, true)) {
+            return false;
+        }
         try {
-            fresh = engine.withConsistentView(() -> {
-                try {
-                    return captureSnapshot(source);
-                } catch (java.io.IOException e) {
-                    throw new java.io.UncheckedIOException(e);
+            MaterializedSnapshot previous = this.snapshot;
+            final MaterializedSnapshot fresh;
+            try {
+                fresh = buildSnapshot(source, previous);
+            } catch (java.io.UncheckedIOException e) {
+                log.error("Snapshot materialisation failed; the previous snapshot is kept",
+                    e.getCause());
+                return false;
+            } catch (java.util.concurrent.CancellationException e) {
+                log.info("Snapshot materialisation interrupted; the previous snapshot is kept");
+                return false;
+            }
+            this.snapshot = fresh;
+            if (previous != null) {
+                previous.release(fresh);
+            }
+            return true;
+        } finally {
+            snapshotBuilding.set(false);
+        }
+    }
+
+    /** Pins the state under the engine lock, then spools it off the lock (or under it, unpinnable). */
+    private MaterializedSnapshot buildSnapshot(rhizome.core.state.snapshot.StateSource source,
+                                               MaterializedSnapshot previous) {
+        record Pins(long height, rhizome.core.state.snapshot.StateSource.Pinned state,
+                    rhizome.core.state.StateAccumulator.Pinned tree) { }
+        Pins pins = engine.withConsistentView(() -> {
+            var state = source.pin();
+            return new Pins(engine.height(), state, state == null ? null : engine.pinStateTree());
+        });
+        if (pins.state() == null) {
+            return engine.withConsistentView(() -> {
+                try (var tree = engine.pinStateTree()) {
+                    return spoolSnapshot(engine.height(), source, tree, previous);
                 }
             });
-        } catch (java.io.UncheckedIOException e) {
-            log.error("Snapshot materialisation failed; the previous snapshot is kept",
-                e.getCause());
-            return false;
         }
-        MaterializedSnapshot previous = this.snapshot;
-        this.snapshot = fresh;
-        if (previous != null) {
-            previous.close();
+        try (var state = pins.state(); var tree = pins.tree()) {
+            return spoolSnapshot(pins.height(), state, tree, previous);
         }
-        return true;
     }
 
     /**
-     * Stream-encodes every exported chunk into a fresh temp spool and returns the file-backed
-     * snapshot over it. At most one chunk is heap-resident at a time. A failure anywhere
-     * (write, channel open) deletes the partial spool before propagating.
+     * Exports {@code source} with key-aligned chunk boundaries
+     * ({@link rhizome.core.state.snapshot.StateSnapshotExporter#exportAligned}), proving each
+     * chunk against {@code tree}'s root. A chunk whose content hash the previous snapshot already
+     * pools is kept as is; any other is written to the pool ({@code .part}, then an atomic
+     * rename). At most one chunk is heap-resident at a time. A failure or an interrupt (checked
+     * between chunks — node shutdown) deletes the proof spool and every pool file this build
+     * wrote before propagating.
      */
-    private MaterializedSnapshot captureSnapshot(rhizome.core.state.snapshot.StateSource source)
-            throws java.io.IOException {
-        var dir = snapshotSpoolDir;
-        java.nio.file.Path file = dir != null
-            ? java.nio.file.Files.createTempFile(dir, "rhizome-snapshot-", ".chunks")
-            : java.nio.file.Files.createTempFile("rhizome-snapshot-", ".chunks");
+    private MaterializedSnapshot spoolSnapshot(long height, rhizome.core.state.snapshot.StateSource source,
+                                               rhizome.core.state.StateAccumulator.Pinned tree,
+                                               MaterializedSnapshot previous) {
+        java.nio.file.Path dir;
+        java.nio.file.Path file;
+        try {
+            dir = spoolDir();
+            file = java.nio.file.Files.createTempFile(dir, SNAPSHOT_SPOOL_PREFIX, ".proofs");
+        } catch (java.io.IOException e) {
+            throw new java.io.UncheckedIOException(e);
+        }
+        java.util.Set<String> pooled = previous != null && previous.dir.equals(dir)
+            ? previous.chunkNames() : java.util.Set.of();
+        var written = new ArrayList<java.nio.file.Path>();
         try {
-            var offsets = new LongIndex();
             var lengths = new LongIndex();
+            var proofOffsets = new LongIndex();
+            var proofLengths = new LongIndex();
+            var chunkHashes = new ArrayList<byte[]>();
             long[] position = {0};
+            int[] reused = {0};
             try (var out = java.nio.file.Files.newOutputStream(file)) {
-                rhizome.core.state.snapshot.StateSnapshotExporter.export(
+                rhizome.core.state.snapshot.StateSnapshotExporter.exportAligned(
                         source, SNAPSHOT_CHUNK_ENTRIES,
                         rhizome.core.state.snapshot.StateSnapshotExporter.DEFAULT_CHUNK_BYTES,
                         chunk -> {
+                            if (Thread.currentThread().isInterrupted()) {
+                                throw new java.util.concurrent.CancellationException("snapshot build interrupted");
+                            }
                             byte[] encoded = chunk.encode();
-                            offsets.add(position[0]);
-                            lengths.add(encoded.length);
+                            byte[] hash = rhizome.core.state.snapshot.SnapshotManifest.chunkHash(encoded);
+                            String name = rhizome.core.common.Utils.bytesToHex(hash);
+                            // Proofs are per-root: every chunk is re-proved, reused or not.
+                            byte[] proof = tree.proveAll(chunk.stateKeys());
                             try {
-                                out.write(encoded);
+                                if (pooled.contains(name)) {
+                                    reused[0]++;
+                                } else {
+                                    written.add(writeChunk(dir, name, encoded));
+                                }
+                                out.write(proof);
                             } catch (java.io.IOException e) {
                                 throw new java.io.UncheckedIOException(e);
                             }
-                            position[0] += encoded.length;
+                            chunkHashes.add(hash);
+                            lengths.add(encoded.length);
+                            proofOffsets.add(position[0]);
+                            proofLengths.add(proof.length);
+                            position[0] += proof.length;
                         });
             }
-            return new MaterializedSnapshot(engine.height(), engine.stateRoot(), file,
-                offsets.toArray(), lengths.toArray(),
-                java.nio.channels.FileChannel.open(file,
-                    java.nio.file.StandardOpenOption.READ));
-        } catch (java.io.IOException | RuntimeException e) {
-            try {
-                java.nio.file.Files.deleteIfExists(file);
-            } catch (java.io.IOException cleanup) {
-                log.warn("Partial snapshot spool {} could not be deleted", file, cleanup);
-            }
+            byte[] root = tree.root();
+            return new MaterializedSnapshot(height, root, dir, file, lengths.toArray(),
+                proofOffsets.toArray(), proofLengths.toArray(),
+                new rhizome.core.state.snapshot.SnapshotManifest(height, root, chunkHashes), reused[0],
+                java.nio.channels.FileChannel.open(file, java.nio.file.StandardOpenOption.READ));
+        } catch (java.io.IOException e) {
+            discardSpool(file, written);
+            throw new java.io.UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            discardSpool(file, written);
             throw e;
         }
     }
 
+    /** Writes one chunk to the pool under its content hash, atomically. */
+    private static java.nio.file.Path writeChunk(java.nio.file.Path dir, String name, byte[] encoded)
+            throws java.io.IOException {
+        java.nio.file.Path target = MaterializedSnapshot.chunkFile(dir, name);
+        java.nio.file.Path part = target.resolveSibling(target.getFileName() + ".part");
+        java.nio.file.Files.write(part, encoded);
+        java.nio.file.Files.move(part, target, java.nio.file.StandardCopyOption.ATOMIC_MOVE,
+            java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+        return target;
+    }
+
+    private static void discardSpool(java.nio.file.Path file, List<java.nio.file.Path> written) {
+        MaterializedSnapshot.deleteQuietly(file);
+        for (java.nio.file.Path chunk : written) {
+            MaterializedSnapshot.deleteQuietly(chunk);
+        }
+    }
+
+    /** The wired spool dir, or a private temp dir created on first use when none is wired. */
+    private synchronized java.nio.file.Path spoolDir() throws java.io.IOException {
+        var dir = snapshotSpoolDir;
+        if (dir != null) {
+            return dir;
+        }
+        if (tempSpoolDir == null) {
+            tempSpoolDir = java.nio.file.Files.createTempDirectory(SNAPSHOT_SPOOL_PREFIX + "pool-");
+        }
+        return tempSpoolDir;
+    }
+
     /** A minimal growable {@code long[]} for the snapshot chunk index (avoids boxed lists). */
     private static final class LongIndex {
         private long[] values = new long[64];
@@ -810,6 +1324,12 @@ public final class NodeService {
         if (snap != null) {
             snap.close();
         }
+        synchronized (this) {
+            if (tempSpoolDir != null) {
+                MaterializedSnapshot.deleteQuietly(tempSpoolDir);
+                tempSpoolDir = null;
+            }
+        }
     }
 
     /** Degraded-mode reason (e.g. a failed reorg restore), or {@code null} when healthy. */
@@ -866,9 +1386,14 @@ public final class NodeService {
 
     /** Admits a transaction to the mempool (signature verified once here). */
     public ExecutionStatus submitTransaction(Transaction transaction) {
+        long t0 = System.nanoTime();
         ExecutionStatus status = mempool.addTransaction(transaction);
+        admissionTime.record(System.nanoTime() - t0);
         if (status == ExecutionStatus.SUCCESS) {
+            admitted.increment();
             notify(onTransactionAccepted, transaction);
+        } else {
+            refused.increment();
         }
         return status;
     }
@@ -936,6 +1461,245 @@ public final class NodeService {
         return status;
     }
 
+    // ---- inventory transaction gossip ----
+
+    /**
+     * How long a requested transaction is not requested again from the announcer it was first
+     * requested from. Inventory from N peers for the same transaction then costs one delivery, not N.
+     */
+    static final long TX_REQUEST_TTL_MS = 2_000L;
+    /**
+     * How long the first announcer has to deliver before another announcer's copy is requested
+     * instead. Delivery is the announcer's very next POST, so one round trip plus a full
+     * {@code /tx_batch} fits well inside; it is shorter than
+     * {@link rhizome.net.TransactionRelay#REANNOUNCE_AFTER_MS}, so an announcer we turned away is
+     * honoured on its re-announcement.
+     */
+    static final long TX_REQUEST_TIMEOUT_MS = 1_000L;
+    /** Bound on in-flight transaction requests tracked (the key is peer-supplied). */
+    static final int MAX_TX_REQUESTS = 16_384;
+
+    /** One in-flight transaction request: when, and from which announcer (null if unknown). */
+    private record TxRequest(long at, java.net.InetAddress from) { }
+
+    private final java.util.concurrent.ConcurrentHashMap<rhizome.crypto.SHA256Hash, TxRequest> txRequested =
+        new java.util.concurrent.ConcurrentHashMap<>();
+
+    /**
+     * The subset of an inventory announcement we want delivered: hashes not in the mempool and not
+     * already requested from another announcer. A request the announcer has not served within
+     * {@link #TX_REQUEST_TIMEOUT_MS} no longer blocks the others: the next announcer of that hash
+     * is asked instead, so a peer that announces and never delivers cannot hold a transaction back
+     * for the whole {@link #TX_REQUEST_TTL_MS}. The announcer ({@code from}, its socket address) is
+     * recorded as holding every announced hash, so our own gossip never announces them back to it.
+     */
+    public List<rhizome.crypto.SHA256Hash> wantedTransactions(List<rhizome.crypto.SHA256Hash> announced,
+                                                             java.net.InetAddress from) {
+        return wantedTransactions(announced, from, System.currentTimeMillis());
+    }
+
+    /** As above, at an explicit time (package-private for tests). */
+    List<rhizome.crypto.SHA256Hash> wantedTransactions(List<rhizome.crypto.SHA256Hash> announced,
+                                                      java.net.InetAddress from, long now) {
+        if (txRequested.size() >= MAX_TX_REQUESTS) {
+            txRequested.values().removeIf(r -> now - r.at() >= TX_REQUEST_TTL_MS);
+        }
+        TxRequest mine = new TxRequest(now, from);
+        List<rhizome.crypto.SHA256Hash> wanted = new ArrayList<>();
+        for (rhizome.crypto.SHA256Hash h : announced) {
+            if (mempool.contains(h)) {
+                continue;
+            }
+            TxRequest r = txRequested.get(h);
+            if (r != null && now - r.at() < TX_REQUEST_TTL_MS) {
+                if (now - r.at() < TX_REQUEST_TIMEOUT_MS || java.util.Objects.equals(from, r.from())) {
+                    continue; // someone is delivering it (or this announcer already failed to)
+                }
+                if (!txRequested.replace(h, r, mine)) {
+                    continue; // another announcer took over first
+                }
+            } else if (txRequested.size() < MAX_TX_REQUESTS) {
+                // Full table (a flood of junk hashes): still want it, just don't track it.
+                if (r == null ? txRequested.putIfAbsent(h, mine) != null : !txRequested.replace(h, r, mine)) {
+                    continue;
+                }
+            }
+            wanted.add(h);
+        }
+        rhizome.net.PeerBroadcaster g = gossip;
+        if (g != null) {
+            g.noteAnnouncedBy(from, announced);
+        }
+        return wanted;
+    }
+
+    /** Per-batch admission tally for {@code /tx_batch}. */
+    public record BatchOutcome(int accepted, int rejected, int throttled) { }
+
+    /**
+     * Admits a delivered inventory batch, each transaction exactly as {@link
+     * #submitTransaction(Transaction, String)} (same signature check, same push strikes). The HTTP
+     * boundary charged the aggregate signature budget for ONE admission before decoding; every
+     * further transaction draws its own token here, and once the budget is spent the rest of the
+     * batch is throttled, not verified — a batch buys no more Ed25519 work than single posts would.
+     */
+    public BatchOutcome submitTransactionBatch(List<Transaction> batch, String clientKey) {
+        int accepted = 0;
+        int rejected = 0;
+        int throttled = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Transaction t = batch.get(i);
+            txRequested.remove(t.hashContents());
+            if (i > 0 && !tryMempoolSigBudget()) {
+                throttled = batch.size() - i;
+                break;
+            }
+            if (submitTransaction(t, clientKey) == ExecutionStatus.SUCCESS) {
+                accepted++;
+            } else {
+                rejected++;
+            }
+        }
+        return new BatchOutcome(accepted, rejected, throttled);
+    }
+
+    // ---- compact block relay ----
+
+    /** Partial compact-block rebuilds held for the sender's missing-transactions reply. */
+    static final int MAX_PENDING_COMPACT = 64;
+    /** How long a partial rebuild waits for its missing transactions (one round trip, generously). */
+    static final long PENDING_COMPACT_TTL_MS = 30_000L;
+
+    private record PendingCompact(rhizome.core.block.CompactBlock.Reconstruction rebuild, long createdAt) { }
+
+    /** Insertion-ordered so the oldest partial is the first evicted; guarded by its own monitor. */
+    private final java.util.LinkedHashMap<rhizome.crypto.SHA256Hash, PendingCompact> pendingCompact =
+        new java.util.LinkedHashMap<>();
+    private final java.util.concurrent.atomic.AtomicInteger compactRebuilds =
+        new java.util.concurrent.atomic.AtomicInteger();
+
+    /**
+     * Outcome of a compact-block push: either the block was rebuilt and submitted ({@code status}
+     * set), or it is waiting on the {@code missing} body slots from the sender ({@code status} null).
+     */
+    public record CompactOutcome(ExecutionStatus status, rhizome.crypto.SHA256Hash blockHash, int[] missing) { }
+
+    /**
+     * Rebuilds a pushed compact block from the mempool. Complete: submitted exactly like
+     * {@link #submitBlock(Block, String)} (same validation, same push strikes). Partial: parked
+     * under its hash for {@link #completeCompactBlock}, bounded at {@link #MAX_PENDING_COMPACT}
+     * entries (oldest evicted) and {@link #PENDING_COMPACT_TTL_MS}, so unanswered pushes cannot
+     * accumulate. A block already on our chain short-circuits before the mempool is copied: its
+     * transactions have left the pool, so a rebuild would only ask the sender for all of them.
+     *
+     * <p>The header is checked before the mempool is touched (see {@link #checkCompactHeader}): a
+     * push that could neither extend our tip nor become an uncle is refused for a few comparisons,
+     * and one with a bad proof of work for one hash — never a pool copy or a parked rebuild. The
+     * refusals {@code submitBlock} would strike are struck here too.
+     */
+    public CompactOutcome submitCompactBlock(rhizome.core.block.CompactBlock compact, String clientKey) {
+        rhizome.crypto.SHA256Hash hash = compact.blockHash();
+        if (compact.id() <= engine.height() && isOnChain(compact.id(), hash)) {
+            return new CompactOutcome(ExecutionStatus.INVALID_BLOCK_ID, hash, new int[0]);
+        }
+        ExecutionStatus refused = checkCompactHeader(compact.header());
+        if (refused != null) {
+            if (isPushFault(refused)) {
+                notePushFault(clientKey);
+            }
+            return new CompactOutcome(refused, hash, new int[0]);
+        }
+        compactRebuilds.incrementAndGet();
+        rhizome.core.block.CompactBlock.Reconstruction rebuild = compact.reconstruct(mempool.transactions());
+        if (rebuild.isComplete()) {
+            return new CompactOutcome(submitBlock(rebuild.block(), clientKey), hash, new int[0]);
+        }
+        long now = System.currentTimeMillis();
+        synchronized (pendingCompact) {
+            pendingCompact.values().removeIf(p -> now - p.createdAt() >= PENDING_COMPACT_TTL_MS);
+            pendingCompact.remove(hash); // re-insert at the tail
+            if (pendingCompact.size() >= MAX_PENDING_COMPACT) {
+                var eldest = pendingCompact.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+            pendingCompact.put(hash, new PendingCompact(rebuild, now));
+        }
+        return new CompactOutcome(null, hash, rebuild.missing());
+    }
+
+    /**
+     * Completes a parked compact block with the sender's missing transactions and submits it.
+     * Empty if no rebuild is pending for that hash (never pushed, expired or evicted) — the sender
+     * then falls back to a full {@code /submit}. The entry is consumed either way, so one push
+     * buys at most one completion attempt.
+     */
+    public java.util.Optional<ExecutionStatus> completeCompactBlock(rhizome.core.block.CompactBlock.Fill fill,
+                                                                    String clientKey) {
+        PendingCompact pending;
+        synchronized (pendingCompact) {
+            pending = pendingCompact.remove(fill.blockHash());
+        }
+        if (pending == null || System.currentTimeMillis() - pending.createdAt() >= PENDING_COMPACT_TTL_MS) {
+            return java.util.Optional.empty();
+        }
+        return java.util.Optional.of(submitBlock(pending.rebuild().complete(fill.transactions()), clientKey));
+    }
+
+    /**
+     * The header checks {@link ChainEngine#addBlock} and {@link ChainEngine#registerOrphan} would
+     * make, in their order (cheapest first, PoW last), for a block whose body does not exist yet;
+     * {@code null} when it may be the next block or a recent sibling. Same statuses as a full
+     * {@code /submit} of the block: a wrong difficulty or nonce on a would-be next block is a push
+     * fault, an unusable height or parent is not. A proven PoW is remembered by the engine, so
+     * the rebuilt block is not hashed twice.
+     */
+    private ExecutionStatus checkCompactHeader(rhizome.core.block.BlockHeader header) {
+        long tip = engine.height();
+        long id = header.id();
+        boolean next = id == tip + 1;
+        if (id <= rhizome.core.blockchain.GenesisBlock.GENESIS_ID || id > tip + 1
+                || (!next && id < tip - engine.params().uncleMaxDepth() + 1)) {
+            return ExecutionStatus.INVALID_BLOCK_ID; // neither the next block nor a recent sibling
+        }
+        try {
+            if (!engine.headerAt(id - 1).hash().equals(header.lastBlockHash())) {
+                return ExecutionStatus.INVALID_LASTBLOCK_HASH;
+            }
+        } catch (RuntimeException e) {
+            return ExecutionStatus.INVALID_LASTBLOCK_HASH; // parent pruned / racing a pop
+        }
+        if (next ? header.difficulty() != engine.difficulty()
+                 : header.difficulty() < engine.params().minDifficulty()) {
+            return next ? ExecutionStatus.INVALID_DIFFICULTY : ExecutionStatus.INVALID_BLOCK_ID;
+        }
+        if (!engine.verifyHeaderPow(header)) {
+            return next ? ExecutionStatus.INVALID_NONCE : ExecutionStatus.INVALID_BLOCK_ID;
+        }
+        return null;
+    }
+
+    private boolean isOnChain(long height, rhizome.crypto.SHA256Hash hash) {
+        try {
+            rhizome.core.block.BlockHeader header = engine.headerAt(height);
+            return header != null && header.hash().equals(hash);
+        } catch (RuntimeException e) {
+            return false; // pruned / racing a pop: rebuild normally, addBlock decides
+        }
+    }
+
+    /** Visible for testing: compact blocks rebuilt from the mempool (past the header checks). */
+    int compactRebuildCount() {
+        return compactRebuilds.get();
+    }
+
+    /** Visible for testing: partial compact rebuilds currently parked. */
+    int pendingCompactCount() {
+        synchronized (pendingCompact) {
+            return pendingCompact.size();
+        }
+    }
+
     // ---- push-abuse strikes (gossip ban-score for the push paths) ----
 
     /**
@@ -1088,4 +1852,9 @@ public final class NodeService {
     public int mempoolSize() {
         return mempool.size();
     }
+
+    /** The node's metrics registry, served by {@code GET /metrics}. */
+    Metrics metrics() {
+        return metrics;
+    }
 }
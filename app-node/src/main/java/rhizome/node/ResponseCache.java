@@ -0,0 +1,266 @@
+package rhizome.node;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Encoded API response bodies kept for reuse under a byte budget, so a popular block, header
+ * window or tip scalar is serialised once instead of once per request (see {@link NodeApi}).
+ *
+ * <p>Two lifetimes ({@link Scope}). An {@code IMMUTABLE} body depends only on chain content that
+ * can no longer change: a block or header range buried at least {@code maxReorgDepth} below the
+ * tip (a deeper reorg is refused outright), a transaction found there, an orphan addressed by
+ * its hash. A {@code TIP} body ({@code /info}, {@code /stats}, {@code /difficulty}, …) is valid
+ * until the tip moves, and every one is dropped on each applied or popped block. Inputs of a
+ * {@code TIP} body that move without a block — mempool size, the peer table — are folded into the
+ * key's {@code tag}, which must match on a hit. A pop also drops every immutable entry at or
+ * above the popped height, so the cache never relies on the finality window alone, and a
+ * rising prune watermark drops every entry keyed beneath it (those block bodies answer 410 from
+ * then on; a header range there simply stops being cached).
+ *
+ * <p>The cache keeps its own view of the tip and the prune watermark, fed by the engine's
+ * listeners through {@link NodeService}, so a lookup never takes the engine lock. A body computed
+ * while the chain moved is not stored: the caller takes a {@link #stamp} before running the
+ * handler and {@link #put} refuses it if a relevant block event happened in between.
+ *
+ * <p>Storage is an access-ordered {@link LinkedHashMap} under one monitor (lookups are a hash
+ * probe; the handlers they replace decode blocks or take the engine lock), evicting least
+ * recently used entries past the byte budget. A single body larger than {@link #MAX_ENTRY_SHARE}
+ * of the budget is never stored, so one header window cannot flush the rest. Every entry carries
+ * a strong ETag — a digest of its exact bytes — for {@code If-None-Match} revalidation.
+ */
+final class ResponseCache {
+
+    /** An entry may take at most 1/n of the budget. */
+    static final int MAX_ENTRY_SHARE = 16;
+
+    /** Approximate per-entry overhead (map node, records, ETag string) charged to the budget. */
+    private static final int ENTRY_OVERHEAD = 160;
+
+    /** How an entry is invalidated. */
+    enum Scope {
+        /** Fixed once written; dropped only by a pop reaching its height or by pruning. */
+        IMMUTABLE,
+        /** Valid until the tip moves: dropped on every applied or popped block. */
+        TIP
+    }
+
+    /**
+     * What a request is cached under. {@code height} is the highest chain height the body depends
+     * on ({@code 0}: none, e.g. an orphan by hash; {@code -1}: read from the body's own
+     * {@code height} field once computed). {@code tag} carries a {@code TIP} body's non-chain
+     * inputs. {@code vary} is echoed as the {@code Vary} header of a negotiated body.
+     */
+    record Key(String id, Scope scope, long height, Object tag, String vary) {
+
+        static Key immutable(String id, long height) {
+            return new Key(id, Scope.IMMUTABLE, height, null, null);
+        }
+
+        static Key tip(String id, Object tag) {
+            return new Key(id, Scope.TIP, 0, tag, null);
+        }
+
+        Key atHeight(long h) {
+            return new Key(id, scope, h, tag, vary);
+        }
+
+        Key varying(String header) {
+            return new Key(id, scope, height, tag, header);
+        }
+    }
+
+    /** A cached 200 body with the headers needed to serve it again. */
+    record Entry(Key key, byte[] body, String contentType, String contentEncoding, String etag) {
+
+        long weight() {
+            return body.length + 2L * key.id().length() + ENTRY_OVERHEAD;
+        }
+    }
+
+    private final long budgetBytes;
+    private final int maxReorgDepth;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes;
+    private int tipEntries;
+    private volatile long tip;
+    private volatile long prunedBelow;
+    private volatile long tipGeneration;
+    private volatile long popGeneration;
+    private long hits;
+    private long misses;
+
+    ResponseCache(long budgetBytes, int maxReorgDepth) {
+        if (budgetBytes <= 0) {
+            throw new IllegalArgumentException("cache budget must be positive");
+        }
+        this.budgetBytes = budgetBytes;
+        this.maxReorgDepth = maxReorgDepth;
+    }
+
+    /** Adopts the chain's current tip and prune watermark, dropping everything cached. */
+    synchronized void reset(long tipHeight, long prunedWatermark) {
+        entries.clear();
+        bytes = 0;
+        tipEntries = 0;
+        tip = tipHeight;
+        prunedBelow = prunedWatermark;
+        tipGeneration++;
+        popGeneration++;
+    }
+
+    /** Block {@code height} was applied (engine lock held): the tip moved. */
+    synchronized void onApplied(long height, long prunedWatermark) {
+        tip = height;
+        tipGeneration++;
+        dropTipEntries();
+        if (prunedWatermark > prunedBelow) {
+            prunedBelow = prunedWatermark;
+            removeIf(e -> e.key().height() > 0 && e.key().height() < prunedWatermark);
+        }
+    }
+
+    /** Block {@code height} was popped (engine lock held): drop whatever it may have fed. */
+    synchronized void onPopped(long height) {
+        tip = height - 1;
+        tipGeneration++;
+        popGeneration++;
+        dropTipEntries();
+        removeIf(e -> e.key().height() >= height);
+    }
+
+    /** The highest height no reorg can reach: block content at or below it is immutable. */
+    long finalizedHeight() {
+        return tip - maxReorgDepth;
+    }
+
+    /** The prune watermark as of the last applied block (bodies below it answer 410). */
+    long prunedBelow() {
+        return prunedBelow;
+    }
+
+    /** The invalidation epoch a body computed now belongs to; pass it back to {@link #put}. */
+    long stamp(Scope scope) {
+        return scope == Scope.TIP ? tipGeneration : popGeneration;
+    }
+
+    /** The entry for {@code key}, or null (counted as a miss). */
+    synchronized Entry get(Key key) {
+        Entry e = entries.get(key.id());
+        if (e == null || !Objects.equals(e.key().tag(), key.tag())) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return e;
+    }
+
+    /** True if {@code key} would hit, without counting a hit or a miss. */
+    synchronized boolean contains(Key key) {
+        Entry e = entries.get(key.id());
+        return e != null && Objects.equals(e.key().tag(), key.tag());
+    }
+
+    /**
+     * Wraps a freshly computed body in an entry — with its ETag, so the caller can serve it either
+     * way — and stores it unless it no longer qualifies: a block event since {@code stamp}, a
+     * height not yet final (or already pruned), or a body over the per-entry share.
+     */
+    Entry put(Key key, long stamp, byte[] body, String contentType, String contentEncoding) {
+        Entry entry = new Entry(key, body, contentType, contentEncoding, etag(body)); // digest outside the monitor
+        if (entry.weight() > budgetBytes / MAX_ENTRY_SHARE) {
+            return entry;
+        }
+        synchronized (this) {
+            if (stamp != stamp(key.scope())) {
+                return entry;
+            }
+            if (key.scope() == Scope.IMMUTABLE && key.height() != 0
+                    && (key.height() < Math.max(1, prunedBelow) || key.height() > finalizedHeight())) {
+                return entry;
+            }
+            Entry previous = entries.put(key.id(), entry);
+            if (previous != null) {
+                forget(previous);
+            }
+            bytes += entry.weight();
+            if (key.scope() == Scope.TIP) {
+                tipEntries++;
+            }
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (bytes > budgetBytes && eldest.hasNext()) {
+                forget(eldest.next());
+                eldest.remove();
+            }
+        }
+        return entry;
+    }
+
+    synchronized long hits() {
+        return hits;
+    }
+
+    synchronized long misses() {
+        return misses;
+    }
+
+    synchronized long bytes() {
+        return bytes;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private void dropTipEntries() {
+        if (tipEntries > 0) {
+            removeIf(e -> e.key().scope() == Scope.TIP);
+        }
+    }
+
+    private void removeIf(java.util.function.Predicate<Entry> stale) {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Entry e = it.next().getValue();
+            if (stale.test(e)) {
+                forget(e);
+                it.remove();
+            }
+        }
+    }
+
+    private void forget(Entry e) {
+        bytes -= e.weight();
+        if (e.key().scope() == Scope.TIP) {
+            tipEntries--;
+        }
+    }
+
+    /** A strong validator: the first 128 bits of the body's SHA-256, quoted. */
+    static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return '"' + ApiResponses.hex(java.util.Arrays.copyOf(digest, 16)) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e); // mandated by the JDK spec
+        }
+    }
+
+    /** True if an {@code If-None-Match} value lists {@code etag} (or is {@code *}). */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*") || c.equals(etag) || c.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
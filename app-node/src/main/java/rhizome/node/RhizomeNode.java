@@ -3,6 +3,7 @@ package rhizome.node;
 import rhizome.net.HttpPeerSource;
 import rhizome.net.PeerBroadcaster;
 import rhizome.net.PeerDiscovery;
+import rhizome.net.PeerChannels;
 import rhizome.net.PeerRegistry;
 import rhizome.net.PeerBanList;
 import rhizome.net.PeerTokenPolicy;
@@ -37,6 +38,7 @@ import rhizome.persistence.rocksdb.RocksDbContractStore;
 import rhizome.persistence.rocksdb.RocksDbNodeStore;
 import rhizome.persistence.rocksdb.RocksDbStateStore;
 import rhizome.persistence.rocksdb.RocksDbTokenStore;
+import rhizome.persistence.rocksdb.StoreStats;
 import rhizome.vm.WasmContractProcessor;
 import rhizome.vm.WasmVm;
 
@@ -68,17 +70,23 @@ public final class RhizomeNode implements AutoCloseable {
     private SseLogHub sseHub;
     private Thread eventloopThread;
     private HttpServer httpServer;
-    private java.util.concurrent.ExecutorService apiWorkers;
+    private ApiWorkers apiWorkers;
+    private rhizome.vm.ReadonlyCallEngine readonlyCalls;
+    private FlightRecordings flightRecordings;
+    private Thread statsBackfill;
 
     private BlockProducer producer;
     private ScheduledExecutorService syncScheduler;
+    /** The background snapshot producer: one thread, so a long export never delays a sync round. */
+    private ScheduledExecutorService snapshotProducer;
     private PeerBroadcaster broadcaster;
     private PeerRegistry registry;
     private PeerDiscovery discovery;
     private PeerBanList banList;
-    /** One shared HTTP client for all sync rounds, so a fresh client (and its selector thread +
-     *  connection pool) is not built per peer per round, and keep-alive is reused (audit net #1). */
-    private final java.net.http.HttpClient syncHttpClient = HttpPeerSource.newClient();
+    /** The node's long-lived outbound links, shared by sync, gossip and PEX: one HTTP client (so no
+     *  subsystem builds its own selector thread + connection pool, and keep-alive is reused across
+     *  all three, audit net #1) and one SSRF pin per peer channel. */
+    private PeerChannels peerChannels;
     /** Whether to refuse/ pin private peer hosts (SSRF): on for internet-exposed mainnet. */
     private boolean blockPrivatePeers;
     /**
@@ -173,6 +181,7 @@ public final class RhizomeNode implements AutoCloseable {
         boolean allowPrivate = config.allowPrivatePeers()
             || "true".equalsIgnoreCase(System.getenv("RHIZOME_ALLOW_PRIVATE_PEERS"));
         this.blockPrivatePeers = !allowPrivate;
+        this.peerChannels = new PeerChannels(blockPrivatePeers);
         String envPeerToken = System.getenv("RHIZOME_PEER_TOKEN");
         this.peerToken = envPeerToken == null || envPeerToken.isBlank() ? null : envPeerToken.trim();
         this.peerTokenPolicy = new PeerTokenPolicy(peerToken, config.peers());
@@ -193,7 +202,10 @@ public final class RhizomeNode implements AutoCloseable {
 
         store = new RocksDbNodeStore(config.dataDir(), keepBlocks(config.params()));
         contractStore = new RocksDbContractStore(config.dataDir() + "/contracts");
-        boxStore = new RocksDbBoxStore(config.dataDir() + "/boxes");
+        // RHIZOME_BOX_REGISTER_INDEX=false skips the box register index (less write amplification
+        // for a node that serves no register scans); the store drops or rebuilds it on the switch.
+        boxStore = new RocksDbBoxStore(config.dataDir() + "/boxes",
+            !"false".equalsIgnoreCase(System.getenv("RHIZOME_BOX_REGISTER_INDEX")));
         tokenStore = new RocksDbTokenStore(config.dataDir() + "/tokens");
         stateStore = new RocksDbStateStore(config.dataDir() + "/state");
         verifier = new SignatureVerifier();
@@ -208,20 +220,20 @@ public final class RhizomeNode implements AutoCloseable {
 
         // RHIZOME_SYNC=snap on an empty data dir: adopt a peer's verified state snapshot at
         // a buried pivot instead of replaying history; falls back to full sync when no peer
-        // offers a usable snapshot. The engine boot below then starts at the pivot.
+        // offers a usable snapshot. Every configured peer advertising the same snapshot serves
+        // chunks in parallel, and an interrupted download resumes from the data directory's
+        // spool on the next boot. The engine boot below then starts at the pivot.
         if ("snap".equalsIgnoreCase(System.getenv("RHIZOME_SYNC")) && store.chainStore().height() == 0) {
+            java.util.List<rhizome.core.blockchain.PeerSource> snapPeers = new java.util.ArrayList<>();
             for (String peerUrl : config.peers()) {
                 try {
-                    if (SnapshotBootstrap.bootstrap(config.params(), snapshot, store, boxStore, tokenStore,
-                            contractStore, stateStore, new HttpPeerSource(peerUrl, blockPrivatePeers,
-                                syncHttpClient, peerTokenPolicy),
-                            System.currentTimeMillis(), Path.of(config.dataDir()))) {
-                        break;
-                    }
+                    snapPeers.add(new HttpPeerSource(peerUrl, peerChannels, peerTokenPolicy));
                 } catch (RuntimeException e) {
-                    log.warn("Snap bootstrap from {} failed: {}", peerUrl, e.toString());
+                    log.warn("Snap bootstrap peer {} skipped: {}", peerUrl, e.toString());
                 }
             }
+            SnapshotBootstrap.bootstrap(config.params(), snapshot, store, boxStore, tokenStore,
+                contractStore, stateStore, snapPeers, System.currentTimeMillis(), Path.of(config.dataDir()));
         }
 
         var contractProcessor = new WasmContractProcessor(new WasmVm(), contractStore,
@@ -254,9 +266,48 @@ public final class RhizomeNode implements AutoCloseable {
         // Dashboard introspection: deployed code lookup for GET /contract.
         service.setCodeSource(contractProcessor::codeAt);
         service.setBoxEventSource(boxProcessor::events);
+        // ...and the raw box writes per block, which keep the registered scans' match sets current.
+        service.setBoxChangeSource(boxProcessor::changes);
         service.setTokenEventSource(tokenProcessor::events);
         // Read-only dry-run calls (query contract state without a transaction).
         service.setContracts(contractProcessor);
+        // ...executed off the consensus lock: each call reads one RocksDB snapshot of the contract
+        // store, committed-only boxes and balances, and re-runs if a producer's state-root stamp
+        // (commit-then-revert of a candidate) overlapped it — see ReadonlyCallEngine. An odd stamp
+        // epoch means a stamp is in flight right now: no view until it completes.
+        RocksDbNodeStore nodeStore = store;
+        ChainEngine chain = engine;
+        readonlyCalls = new rhizome.vm.ReadonlyCallEngine(contractProcessor, () -> {
+            long epoch = chain.stampEpoch();
+            if ((epoch & 1L) != 0L) {
+                return null;
+            }
+            return new rhizome.vm.ReadonlyCallEngine.View(contractStore.openSnapshot(),
+                boxProcessor::getCommitted, nodeStore::committedBalance,
+                () -> chain.stampEpoch() == epoch);
+        }, Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+        service.setReadonlyCalls(readonlyCalls::callBatch);
+        // Per-contract execution profile of block execution, served by GET /contracts/profile.
+        rhizome.vm.ContractProfiler profiler = new rhizome.vm.ContractProfiler(profileSampleEvery());
+        contractProcessor.setProfiler(profiler);
+        service.setContractProfiler(profiler);
+        registerMetrics(profiler);
+        // Operator JFR recordings (POST /jfr/start|stop), dumped next to the stores.
+        flightRecordings = new FlightRecordings(Path.of(config.dataDir(), "jfr"));
+        service.setFlightRecordings(flightRecordings);
+        // Encoded bodies of final blocks/headers/transactions and of the tip scalars, reused until
+        // the chain moves (RHIZOME_API_CACHE_MB, 0 = off); the block listeners keep it current.
+        long cacheBytes = apiCacheBytes();
+        if (cacheBytes > 0) {
+            ResponseCache cache = new ResponseCache(cacheBytes, config.params().maxReorgDepth());
+            service.setResponseCache(cache);
+            Metrics metrics = service.metrics();
+            metrics.counterOf("rhizome_api_cache_hits_total", "API responses served from the response cache.",
+                cache::hits);
+            metrics.counterOf("rhizome_api_cache_misses_total", "Cacheable API requests computed afresh.",
+                cache::misses);
+            metrics.gauge("rhizome_api_cache_bytes", "Bytes held by the API response cache.", cache::bytes);
+        }
         // Snap-sync source: this node can materialise and serve full-state snapshots,
         // verifiable by peers against the state root committed in the pivot header.
         service.setSnapshotSource(new rhizome.core.state.snapshot.DomainStateAdapter(
@@ -273,6 +324,7 @@ public final class RhizomeNode implements AutoCloseable {
         // Config peers are trusted seeds: protected from eclipse eviction and SSRF filtering.
         registry.addSeeds(config.peers());
         service.setPeers(registry);
+        service.setPeerQuality(peerChannels.quality());
 
         startHttp();
         startGossip();
@@ -291,6 +343,52 @@ public final class RhizomeNode implements AutoCloseable {
         }
     }
 
+    /**
+     * Registers the node's telemetry with the service's {@link Metrics}, served by
+     * {@code GET /metrics}: the engine probe (addBlock phases, lock wait/hold), each RocksDB
+     * store's get/write/seek latencies, gossip backlog, sync throughput and VM gas. Everything
+     * but the probe and the sync counters is read from its owner at scrape time.
+     */
+    private void registerMetrics(rhizome.vm.ContractProfiler profiler) {
+        Metrics metrics = service.metrics();
+        engine.setProbe(new EngineMetrics(metrics));
+        storeMetrics(metrics, "node", store.stats());
+        storeMetrics(metrics, "contracts", contractStore.stats());
+        storeMetrics(metrics, "boxes", boxStore.stats());
+        storeMetrics(metrics, "tokens", tokenStore.stats());
+        storeMetrics(metrics, "state", stateStore.stats());
+        metrics.gauge("rhizome_gossip_block_queued_sends", "Block pushes waiting in the broadcast pool.",
+            () -> broadcaster == null ? 0 : broadcaster.blockStats().queuedSends());
+        metrics.gauge("rhizome_gossip_block_queued_bytes", "Block push bytes queued or in flight.",
+            () -> broadcaster == null ? 0 : broadcaster.blockStats().queuedBytes());
+        metrics.counterOf("rhizome_gossip_block_dropped_sends_total",
+            "Block pushes dropped by the byte budget or a full queue.",
+            () -> broadcaster == null ? 0 : broadcaster.blockStats().droppedSends());
+        metrics.gauge("rhizome_gossip_tx_retained", "Transactions retained for announce/request relay.",
+            () -> broadcaster == null ? 0 : broadcaster.transactionStats().retainedTransactions());
+        syncBlocks = metrics.counter("rhizome_sync_blocks_total",
+            "Net chain height gained by sync rounds (a reorg counts only its growth).");
+        syncTime = metrics.histogram("rhizome_sync_peer_seconds", "Time per peer sync (syncFrom call).");
+        metrics.counterOf("rhizome_vm_gas_total", "Gas consumed by consensus contract calls.",
+            () -> profiler.totals().gas());
+        metrics.counterOf("rhizome_vm_calls_total", "Consensus contract call frames executed.",
+            () -> profiler.totals().calls());
+        metrics.counterOf("rhizome_vm_seconds_total", "Wall time in consensus contract call frames.",
+            () -> profiler.totals().wallNanos() / 1e9);
+        metrics.gauge("rhizome_signature_cache_entries", "Verified signatures cached.", verifier::cacheSize);
+    }
+
+    private static void storeMetrics(Metrics metrics, String name, StoreStats stats) {
+        for (StoreStats.Op op : StoreStats.Op.values()) {
+            metrics.summary("rhizome_store_op_seconds", "RocksDB operation latency per store (since open).",
+                () -> {
+                    StoreStats.Latency l = stats.latency(op);
+                    return new Metrics.Summary(l.count(), l.sumMicros() / 1e6, l.p50Micros() / 1e6,
+                        l.p99Micros() / 1e6);
+                }, "store", name, "op", op.name().toLowerCase(java.util.Locale.ROOT));
+        }
+    }
+
     /**
      * Fail-fast wiring guard: the state accumulator must retain roots at least as deep as the
      * deepest reorg the engine may perform ({@code maxReorgDepth}), or a reorg past the retained
@@ -317,26 +415,51 @@ public final class RhizomeNode implements AutoCloseable {
     private void startHttp() throws IOException {
         eventloop = Eventloop.create();
         // Consensus-heavy request handlers (block/tx ingest, VM dry-run, lock-guarded explorer
-        // reads) run on this bounded pool, NOT on the event-loop thread: a single valid-but-heavy
-        // block or one max-gas dry-run would otherwise freeze every route the loop serves —
-        // /peers, SSE, heartbeats — for its whole duration (audit: eventloop blocked by consensus
-        // work). Bounded queue + AbortPolicy: a saturated pool sheds with 429 at the servlet
-        // boundary instead of queueing unbounded latency. Daemon threads; drained in close()
-        // before the stores close.
-        int workerCount = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
-        apiWorkers = new java.util.concurrent.ThreadPoolExecutor(workerCount, workerCount,
-            60L, TimeUnit.SECONDS, new java.util.concurrent.ArrayBlockingQueue<>(256),
-            r -> {
-                Thread t = new Thread(r, "rhizome-api-worker");
-                t.setDaemon(true);
-                return t;
-            },
-            new java.util.concurrent.ThreadPoolExecutor.AbortPolicy());
+        // reads) run off the event-loop thread: a single valid-but-heavy block or one max-gas
+        // dry-run would otherwise freeze every route the loop serves — /peers, SSE, heartbeats —
+        // for its whole duration (audit: eventloop blocked by consensus work). By default each
+        // request gets a virtual thread and admission is per cost class (ApiWorkers): handlers
+        // that wait on RocksDB or the engine lock no longer hold one of a few platform threads
+        // while the CPUs idle. RHIZOME_API_WORKERS=pool restores the fixed pool. Either way a
+        // saturated class sheds with 429 at the servlet boundary instead of queueing unbounded
+        // latency, and close() drains the workers before the stores close.
+        ApiWorkers.Mode workerMode = ApiWorkers.Mode.parse(System.getenv("RHIZOME_API_WORKERS"));
+        apiWorkers = ApiWorkers.of(workerMode, Runtime.getRuntime().availableProcessors());
+        log.info("API workers: {}", workerMode == ApiWorkers.Mode.POOL
+            ? "fixed platform pool" : "virtual thread per request, per-cost-class admission");
+        for (ApiWorkers.Lane lane : apiWorkers.lanes()) {
+            String cost = lane.cost().name().toLowerCase(java.util.Locale.ROOT);
+            service.metrics().gauge("rhizome_api_in_flight", "API handlers admitted per cost class.",
+                lane::inFlight, "lane", cost);
+            service.metrics().counterOf("rhizome_api_shed_total", "API requests shed (429) per cost class.",
+                lane::shed, "lane", cost);
+        }
         // Stream every applied block's logs (plus a heartbeat) to SSE subscribers,
         // whatever path the block arrived by: API submit, gossip, sync or the local
         // producer. The engine listener only enqueues onto the event loop.
-        sseHub = new SseLogHub(eventloop, 256);
-        engine.setOnBlockApplied(height -> sseHub.publish(height, () -> service.logsAt(height)));
+        // Subscribers sharing a filter share one encoded payload per block, so the cap is sized
+        // by buffers held rather than by per-subscriber formatting.
+        sseHub = new SseLogHub(eventloop, 2048);
+        // The block firehose (GET /firehose): applied blocks with their receipts, events and state
+        // root, plus explicit pops, for indexers; a resuming subscriber backfills on the scan lane.
+        BlockFirehose firehose = new BlockFirehose(eventloop, service, apiWorkers.lane(ApiWorkers.Cost.SCAN), 64);
+        service.setFirehose(firehose);
+        service.metrics().gauge("rhizome_firehose_subscribers", "Open block firehose streams.",
+            firehose::subscriberCount);
+        // The same listener folds the block's box changes into the materialised scans (in-memory
+        // set updates, bounded by the block's mutations) and the block itself into the /stats
+        // aggregates; a pop undoes both.
+        engine.setOnBlockApplied(block -> {
+            long height = block.id();
+            sseHub.publish(height, () -> service.logsAt(height));
+            service.onBlockApplied(block);
+        });
+        engine.setOnBlockPopped(service::onBlockPopped);
+        // Cover the /stats windows from before this start: one decode per block, off the
+        // consensus path; blocks applied meanwhile are already fed by the listener above.
+        statsBackfill = new Thread(service::backfillStats, "stats-backfill");
+        statsBackfill.setDaemon(true);
+        statsBackfill.start();
         // Per-client rate limit (fixed 1s window) with a bounded client table
         // (the table cap is the memory-leak fix; the per-window count is generous
         // so honest peers on a shared host are never throttled).
@@ -386,11 +509,13 @@ public final class RhizomeNode implements AutoCloseable {
     }
 
     private void startGossip() {
-        broadcaster = new PeerBroadcaster(registry::snapshot, blockPrivatePeers, peerTokenPolicy);
+        broadcaster = new PeerBroadcaster(registry::snapshot, peerChannels, peerTokenPolicy);
         // Re-broadcast blocks/transactions accepted from RPC (flood; loops terminate
         // because a peer that already has an item rejects it and won't gossip on).
         service.setOnBlockAccepted(broadcaster::broadcastBlock);
         service.setOnTransactionAccepted(broadcaster::broadcastTransaction);
+        // Inventory dedup: hashes a peer announces to us are never announced back to it.
+        service.setGossip(broadcaster);
     }
 
     private void startProducerIfConfigured() {
@@ -429,7 +554,7 @@ public final class RhizomeNode implements AutoCloseable {
     }
 
     private void startNetworkLoops() {
-        discovery = new PeerDiscovery(registry, config.selfUrl(), blockPrivatePeers, peerTokenPolicy);
+        discovery = new PeerDiscovery(registry, config.selfUrl(), peerChannels, peerTokenPolicy);
         syncScheduler = Executors.newScheduledThreadPool(2, r -> {
             Thread t = new Thread(r, "rhizome-net");
             t.setDaemon(true);
@@ -442,15 +567,23 @@ public final class RhizomeNode implements AutoCloseable {
             config.syncPeriodMs(), config.syncPeriodMs(), TimeUnit.MILLISECONDS);
         syncScheduler.scheduleWithFixedDelay(guarded(discovery::round, "peer discovery"),
             config.syncPeriodMs(), config.syncPeriodMs(), TimeUnit.MILLISECONDS);
-        // Periodic snapshot materialisation (RHIZOME_SNAPSHOT_EVERY blocks, 0 = never):
-        // recapture once the chain has advanced a full interval past the last pivot, so a
-        // deep-enough snapshot is always on offer for snap-syncing peers.
+        // Rolling snapshot production (RHIZOME_SNAPSHOT_EVERY blocks, 0 = never): rebuild once
+        // the chain has advanced a full interval past the last pivot, so a deep-enough snapshot
+        // is always on offer for snap-syncing peers. The build pins the state under the engine
+        // lock and exports off it on its own thread; the previous snapshot is served until the
+        // new one swaps in, and chunks the interval did not touch are carried over.
         long snapshotEvery = snapshotEveryBlocks();
         if (snapshotEvery > 0) {
-            syncScheduler.scheduleWithFixedDelay(guarded(() -> {
+            snapshotProducer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "rhizome-snapshot");
+                t.setDaemon(true);
+                return t;
+            });
+            snapshotProducer.scheduleWithFixedDelay(guarded(() -> {
                 if (engine.height() >= service.snapshotPivot() + snapshotEvery && service.materializeSnapshot()) {
-                    log.info("Materialized state snapshot at height {} ({} chunks)",
-                        service.snapshotPivot(), service.materializedSnapshot().chunkCount());
+                    var snap = service.materializedSnapshot();
+                    log.info("Materialized state snapshot at height {} ({} chunks, {} carried over)",
+                        snap.pivotHeight(), snap.chunkCount(), snap.reusedChunks());
                 }
             }, "snapshot materialisation"), config.syncPeriodMs(), config.syncPeriodMs(), TimeUnit.MILLISECONDS);
         }
@@ -470,6 +603,36 @@ public final class RhizomeNode implements AutoCloseable {
         };
     }
 
+    /**
+     * One contract call frame in this many is profiled per WASM function, from
+     * {@code RHIZOME_PROFILE_SAMPLE} (default 0 = per-contract totals only; function sampling times
+     * every function entry of the sampled frame, so keep N large in production, e.g. 1000).
+     */
+    private static int profileSampleEvery() {
+        String env = System.getenv("RHIZOME_PROFILE_SAMPLE");
+        if (env == null || env.isBlank()) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(env.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("RHIZOME_PROFILE_SAMPLE must be an integer, was: " + env, e);
+        }
+    }
+
+    /** Byte budget of the API response cache, from {@code RHIZOME_API_CACHE_MB} (default 64; 0 disables it). */
+    private static long apiCacheBytes() {
+        String env = System.getenv("RHIZOME_API_CACHE_MB");
+        if (env == null || env.isBlank()) {
+            return 64L << 20;
+        }
+        try {
+            return Math.min(Math.max(0, Long.parseLong(env.trim())), 1L << 20) << 20;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("RHIZOME_API_CACHE_MB must be an integer, was: " + env, e);
+        }
+    }
+
     /** Blocks between snapshot materialisations, from {@code RHIZOME_SNAPSHOT_EVERY} (default ~1 day). */
     private static long snapshotEveryBlocks() {
         String env = System.getenv("RHIZOME_SNAPSHOT_EVERY");
@@ -491,6 +654,9 @@ public final class RhizomeNode implements AutoCloseable {
 
     /** Rotates the per-round starting peer (single sync thread, so no synchronization needed). */
     private long syncRoundCursor;
+    /** Sync throughput for {@code /metrics}: net height gained and time per peer sync. */
+    private Metrics.Counter syncBlocks;
+    private Metrics.Histogram syncTime;
 
     /** One sync round across all known peers; peer failures are isolated. */
     public void syncRound() {
@@ -502,20 +668,35 @@ public final class RhizomeNode implements AutoCloseable {
         }
         // Rotate the starting index each round so that if the peers visited first are slow and eat the
         // round budget, the ones skipped this round are visited first next round — every peer gets a turn.
+        // The measured-best peer (PeerQuality) goes ahead of the rotation: a catch-up round should
+        // download from the fastest link, and the rotation still reaches everyone else.
         int start = (int) Math.floorMod(syncRoundCursor++, n);
+        java.util.List<String> order = new java.util.ArrayList<>(n);
+        String best = peerChannels.quality().best(peers);
+        order.add(best);
+        for (int i = 0; i < n; i++) {
+            String peerUrl = peers.get((start + i) % n);
+            if (!peerUrl.equals(best)) {
+                order.add(peerUrl);
+            }
+        }
         long deadline = System.currentTimeMillis() + SYNC_ROUND_BUDGET_MS;
         for (int i = 0; i < n; i++) {
             if (System.currentTimeMillis() >= deadline) {
                 log.debug("Sync round budget reached; deferring {} of {} peers to the next round", n - i, n);
                 break;
             }
-            String peerUrl = peers.get((start + i) % n);
+            String peerUrl = order.get(i);
             if (registry.isBanned(peerUrl)) {
                 continue;
             }
+            long heightBefore = engine.height();
+            long t0 = System.nanoTime();
             try {
                 ChainSynchronizer.Result result = synchronizer.syncFrom(
-                    new HttpPeerSource(peerUrl, blockPrivatePeers, syncHttpClient, peerTokenPolicy));
+                    new HttpPeerSource(peerUrl, peerChannels, peerTokenPolicy), hedgeFor(peerUrl, peers));
+                syncTime.record(System.nanoTime() - t0);
+                syncBlocks.add(Math.max(0, engine.height() - heightBefore));
                 // Any Result at all means the peer answered well-formed protocol data, so it is
                 // a real Rhizome node and from here on it can earn ban score — including for the
                 // PEER_INVALID case just below (a node that speaks the protocol and lies IS
@@ -534,7 +715,9 @@ public final class RhizomeNode implements AutoCloseable {
                 }
             } catch (HttpPeerSource.PeerUnavailableException e) {
                 // Transport failures are not misbehaviour; PeerDiscovery prunes the
-                // persistently unreachable. Only protocol violations earn ban score.
+                // persistently unreachable. Only protocol violations earn ban score. The peer's
+                // channel is closed, so the next exchange with it re-pins.
+                peerChannels.invalidate(peerUrl);
                 log.debug("Peer {} unavailable: {}", peerUrl, e.getMessage());
             } catch (HttpPeerSource.PeerProtocolException e) {
                 // Malformed protocol data (junk scalars, absurd snapshot chunk counts) is a
@@ -556,6 +739,29 @@ public final class RhizomeNode implements AutoCloseable {
         }
     }
 
+    /**
+     * The second peer slow body windows from {@code primary} are also requested from: the best
+     * measured other peer, or {@code null} when there is none usable. Its copy is only ever applied
+     * if it matches the headers {@code primary} proved, so any peer will do; the best one wins more.
+     */
+    private HttpPeerSource hedgeFor(String primary, java.util.List<String> peers) {
+        java.util.List<String> others = new java.util.ArrayList<>(peers.size());
+        for (String p : peers) {
+            if (!p.equals(primary) && !registry.isBanned(p)) {
+                others.add(p);
+            }
+        }
+        String hedge = peerChannels.quality().best(others);
+        if (hedge == null) {
+            return null;
+        }
+        try {
+            return new HttpPeerSource(hedge, peerChannels, peerTokenPolicy);
+        } catch (RuntimeException e) {
+            return null; // refused pin (non-routable / unresolvable): sync unhedged
+        }
+    }
+
     /**
      * Applies ban score for misbehaviour — but only to a peer that has proven it speaks the
      * protocol. {@code /add_peer} is unauthenticated on an open node, so an attacker could point
@@ -719,6 +925,38 @@ public final class RhizomeNode implements AutoCloseable {
                 Thread.currentThread().interrupt();
             }
         }
+        // The stats backfill decodes blocks from the store: stopped (it checks between blocks)
+        // before the stores close, like the workers above.
+        if (statsBackfill != null) {
+            statsBackfill.interrupt();
+            try {
+                statsBackfill.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (statsBackfill.isAlive()) {
+                workersStuck = true;
+                log.error("Stats backfill still reading after 10 s; the store close will be skipped");
+            }
+        }
+        // A running recording is dumped rather than lost; it touches no store.
+        if (flightRecordings != null) {
+            flightRecordings.close();
+        }
+        // Read-only calls read the contract store natively through their snapshots: drained
+        // like the API workers, and a straggler likewise keeps the stores open.
+        if (readonlyCalls != null) {
+            readonlyCalls.close();
+            try {
+                if (!readonlyCalls.awaitTermination(30, TimeUnit.SECONDS)) {
+                    workersStuck = true;
+                    log.error("Read-only call workers still busy after 30 s; the store close will "
+                        + "be skipped (native use-after-free risk)");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
         // Stop and DRAIN the network loops before touching the store: a syncRound()
         // in flight is mid-append into RocksDB, and closing column-family handles
         // under a live native call crashes the JVM. shutdownNow() only signals —
@@ -748,6 +986,21 @@ public final class RhizomeNode implements AutoCloseable {
                 Thread.currentThread().interrupt();
             }
         }
+        // The snapshot producer enumerates the stores natively through pinned snapshots: the
+        // interrupt stops it between chunks (releasing its pins), and one that does not drain
+        // keeps the stores open exactly like a stuck sync thread.
+        if (snapshotProducer != null) {
+            snapshotProducer.shutdownNow();
+            try {
+                if (!snapshotProducer.awaitTermination(30, TimeUnit.SECONDS)) {
+                    syncStuck = true;
+                    log.error("Snapshot producer still busy after 30 s; skipping the store close "
+                        + "(native use-after-free risk)");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
         try {
             if (discovery != null) {
                 discovery.close(); // stop the PEX fan-out pool (daemon threads, best-effort)
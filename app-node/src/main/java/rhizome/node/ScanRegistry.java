@@ -88,6 +88,27 @@ final class ScanRegistry {
     // random id in a 2^31 space makes that enumeration infeasible while keeping the int-id API (audit S-10).
     private final SecureRandom rng = new SecureRandom();
 
+    /** Told of every scan entering or leaving the table (the materialised match sets). Called
+     *  under the table's monitor, so a removal can never be overtaken by its own addition. */
+    interface Listener {
+        void added(int id, ScanPredicate predicate);
+
+        void removed(int id);
+    }
+
+    private final Listener listener;
+
+    ScanRegistry() {
+        this(new Listener() {
+            @Override public void added(int id, ScanPredicate predicate) {}
+            @Override public void removed(int id) {}
+        });
+    }
+
+    ScanRegistry(Listener listener) {
+        this.listener = listener;
+    }
+
     int register(Owner owner, ScanPredicate predicate) {
         synchronized (scans) {
             // The per-client cap counts by CLIENT KEY, not by owner: it bounds memory against an
@@ -111,6 +132,7 @@ final class ScanRegistry {
                 id = rng.nextInt() & 0x7FFF_FFFF; // positive, non-sequential
             } while (id == 0 || scans.containsKey(id));
             scans.put(id, new Entry(owner, predicate, System.currentTimeMillis()));
+            listener.added(id, predicate);
             return id;
         }
     }
@@ -132,6 +154,7 @@ final class ScanRegistry {
         }
         if (idlestId >= 0) {
             scans.remove(idlestId);
+            listener.removed(idlestId);
         }
     }
 
@@ -167,7 +190,13 @@ final class ScanRegistry {
         if (e == null || !owner.matches(e.owner())) {
             return false;
         }
-        return scans.remove(id, e);
+        synchronized (scans) {
+            if (!scans.remove(id, e)) {
+                return false;
+            }
+            listener.removed(id);
+            return true;
+        }
     }
 
     /** Scans registered by {@code owner} only — /scan/list must not disclose every other
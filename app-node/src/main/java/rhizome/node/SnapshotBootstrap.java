@@ -16,7 +16,7 @@ import rhizome.core.common.Constants;
 import rhizome.crypto.SHA256Hash;
 import rhizome.core.ledger.LedgerSnapshot;
 import rhizome.core.state.snapshot.DomainStateAdapter;
-import rhizome.core.state.snapshot.SnapshotChunk;
+import rhizome.core.state.snapshot.SnapshotManifest;
 import rhizome.core.state.snapshot.StateSnapshotImporter;
 import rhizome.persistence.rocksdb.RocksDbBoxStore;
 import rhizome.persistence.rocksdb.RocksDbContractStore;
@@ -66,14 +66,17 @@ final class SnapshotBootstrap {
      * a hostile bootstrap peer may serve each chunk at the full 16 MiB its own endpoint permits
      * — {@code MAX_SNAPSHOT_CHUNKS} such chunks would exhaust any heap (audit F7) and, without
      * the cap, any disk. 4 GiB is far above any plausible mainnet snapshot while keeping the
-     * spool bounded. The heap peak is now ONE chunk (~16 MiB): chunks are decoded lazily from
-     * the spool during verification and replay.
+     * spool bounded. The heap peak is the few chunks in flight (see {@link SnapshotDownload}):
+     * the replay decodes lazily from the spool, one chunk at a time.
      */
     private static final long MAX_SNAPSHOT_BUFFERED_BYTES = 4L * 1024 * 1024 * 1024;
 
     /** Worst-case bytes of one served chunk (the peer-side /state/snapshot/chunk fetch cap). */
     private static final long MAX_CHUNK_BYTES = 16L * 1024 * 1024;
 
+    /** Name prefix of a per-snapshot spool directory: {@code rhizome-snapshot-<pivot>-<root prefix>}. */
+    static final String SPOOL_PREFIX = "rhizome-snapshot-";
+
     private SnapshotBootstrap() {}
 
     /**
@@ -91,21 +94,88 @@ final class SnapshotBootstrap {
     }
 
     /**
-     * As above, spooling fetched chunks to a temporary file inside {@code spoolDir} (the data
-     * directory in production, so a multi-GiB snapshot never lands on a small tmpfs). The spool
-     * is deleted after the import — success or failure (audit: snapshot bootstrap heap).
+     * As above, spooling fetched chunks inside {@code spoolDir} (the data directory in production,
+     * so a multi-GiB snapshot never lands on a small tmpfs).
      */
     static boolean bootstrap(NetworkParameters params, LedgerSnapshot genesisSnapshot,
                              RocksDbNodeStore store, RocksDbBoxStore boxStore, RocksDbTokenStore tokenStore,
                              RocksDbContractStore contractStore, RocksDbStateStore stateStore,
                              PeerSource peer, long nowMillis, java.nio.file.Path spoolDir) {
+        return bootstrap(params, genesisSnapshot, store, boxStore, tokenStore, contractStore, stateStore,
+            List.of(peer), nowMillis, spoolDir);
+    }
+
+    /**
+     * Attempts to bootstrap from {@code peers}, in order: each peer with a snapshot on offer is
+     * tried as the <em>primary</em>, whose headers are validated and whose advertisement must
+     * match the pivot header's root. Chunks are then pulled in parallel from the primary and
+     * every other peer advertising the identical {@code (pivot, root, chunkCount)} — they agree
+     * on the bytes the root commits to, so any of them may serve any chunk
+     * ({@link SnapshotDownload}).
+     *
+     * <p>Chunks spool to a directory in {@code spoolDir} named by pivot and root. A download
+     * that runs out of peers leaves it in place, and the next attempt at the same snapshot —
+     * after a restart, say — fetches only what is missing. The spool is deleted once the import
+     * completes, when the root fails to verify, and when a different snapshot is bootstrapped.
+     */
+    static boolean bootstrap(NetworkParameters params, LedgerSnapshot genesisSnapshot,
+                             RocksDbNodeStore store, RocksDbBoxStore boxStore, RocksDbTokenStore tokenStore,
+                             RocksDbContractStore contractStore, RocksDbStateStore stateStore,
+                             List<PeerSource> peers, long nowMillis, java.nio.file.Path spoolDir) {
         if (store.chainStore().height() != 0) {
             throw new IllegalStateException("snapshot bootstrap requires an empty chain store");
         }
-        PeerSource.SnapshotInfo info = peer.snapshotInfo();
-        if (info == null) {
-            return false; // peer has no materialised snapshot
+        List<PeerSource.SnapshotInfo> infos = new ArrayList<>(peers.size());
+        for (PeerSource peer : peers) {
+            PeerSource.SnapshotInfo info = null;
+            try {
+                info = peer.snapshotInfo();
+            } catch (RuntimeException e) {
+                log.warn("Snapshot info from {} failed: {}", peer, e.toString());
+            }
+            infos.add(info);
+        }
+        for (int i = 0; i < peers.size(); i++) {
+            PeerSource.SnapshotInfo info = infos.get(i);
+            if (info == null) {
+                continue; // peer has no materialised snapshot
+            }
+            List<PeerSource> servers = new ArrayList<>();
+            servers.add(peers.get(i));
+            for (int j = 0; j < peers.size(); j++) {
+                if (j != i && sameSnapshot(info, infos.get(j))) {
+                    servers.add(peers.get(j));
+                }
+            }
+            try {
+                if (bootstrapFrom(params, genesisSnapshot, store, boxStore, tokenStore, contractStore,
+                        stateStore, peers.get(i), info, servers, nowMillis, spoolDir)) {
+                    return true;
+                }
+            } catch (RuntimeException e) {
+                if (store.bootstrapInProgress()) {
+                    throw e; // seeding had begun: the stores are not empty any more, nothing to retry on
+                }
+                log.warn("Snap bootstrap from {} failed: {}", peers.get(i), e.toString());
+            }
         }
+        return false;
+    }
+
+    /** Same pivot, root and chunking — and the same manifest, so every chunk's bytes are agreed. */
+    private static boolean sameSnapshot(PeerSource.SnapshotInfo a, PeerSource.SnapshotInfo b) {
+        return b != null && a.pivotHeight() == b.pivotHeight() && a.chunkCount() == b.chunkCount()
+            && java.util.Arrays.equals(a.stateRoot(), b.stateRoot())
+            && java.util.Arrays.equals(a.manifestHash(), b.manifestHash());
+    }
+
+    /** One attempt with {@code peer} as the header authority and {@code servers} sharing the chunk pull. */
+    private static boolean bootstrapFrom(NetworkParameters params, LedgerSnapshot genesisSnapshot,
+                                         RocksDbNodeStore store, RocksDbBoxStore boxStore,
+                                         RocksDbTokenStore tokenStore, RocksDbContractStore contractStore,
+                                         RocksDbStateStore stateStore, PeerSource peer,
+                                         PeerSource.SnapshotInfo info, List<PeerSource> servers,
+                                         long nowMillis, java.nio.file.Path spoolDir) {
         long peerHeight = peer.height();
         long pivot = info.pivotHeight();
         if (pivot < 2 || pivot + params.maxReorgDepth() > peerHeight) {
@@ -178,74 +248,76 @@ final class SnapshotBootstrap {
                 info.chunkCount(), MAX_SNAPSHOT_BUFFERED_BYTES);
             return false;
         }
-        // Spool each chunk to disk AS IT IS FETCHED instead of buffering every chunk on the heap
-        // until the root verifies (audit F7 follow-up: 4 GiB of peer-controlled bytes used to sit
-        // in memory before a single check ran). Only the offset index is retained; chunks are
-        // decoded lazily from the spool during verification and replay, so the heap peak is one
-        // chunk. The spool is deleted in the finally below, on success and on every failure.
-        java.nio.file.Path spool;
-        try {
-            spool = java.nio.file.Files.createTempFile(spoolDir, "rhizome-snapshot-", ".chunks");
-        } catch (java.io.IOException e) {
-            log.warn("Snapshot spool file could not be created: {}", e.toString());
-            return false;
+        // Spool each chunk to disk AS IT IS FETCHED instead of buffering the set on the heap
+        // until the root verifies (audit F7 follow-up), and fold it into the root check as it
+        // lands rather than in a second pass after the last one (SnapshotDownload). The heap
+        // peak is a handful of chunks in flight; the tree nodes go straight to the state store.
+        // With a manifest each chunk is checked on arrival against its hash and its multiproof;
+        // the manifest itself must be the one /info committed to, for this pivot and root.
+        SnapshotManifest manifest = null;
+        if (info.manifestHash() != null) {
+            manifest = peer.snapshotManifest();
+            if (manifest == null || !java.util.Arrays.equals(manifest.hash(), info.manifestHash())
+                || manifest.pivotHeight() != pivot || manifest.chunkCount() != info.chunkCount()
+                || !java.util.Arrays.equals(manifest.stateRoot(), info.stateRoot())) {
+                log.warn("Snapshot manifest does not match the advertised manifest hash; refusing");
+                return false;
+            }
         }
-        long[] offsets = new long[info.chunkCount()];
-        long[] lengths = new long[info.chunkCount()];
-        long spooledBytes = 0;
-        // Hoisted: the seed phase after the try needs both (the spool is already deleted by then;
-        // chunks re-read nothing — it is only the decoded view the importer verified).
-        DomainStateAdapter adapter = null;
-        List<SnapshotChunk> chunks = null;
-        // One try/finally covers BOTH the fetch/spool loop and the verify/replay below: every
-        // failure path (bound exceeded, fetch error, verification failure) deletes the spool —
-        // a hostile bootstrap peer must never leave gigabytes behind per attempt (audit F7).
+        byte[] spoolId = info.manifestHash() != null ? info.manifestHash() : committedRoot.toBytes();
+        java.nio.file.Path dir = spoolDir.resolve(SPOOL_PREFIX + pivot + "-"
+            + rhizome.core.common.Utils.bytesToHex(spoolId).substring(0, 16));
+        discardSpools(spoolDir, dir);
+        SnapshotDownload download = new SnapshotDownload(dir, info.chunkCount(),
+            MAX_SNAPSHOT_BUFFERED_BYTES, MAX_CHUNK_BYTES, manifest, committedRoot.toBytes());
+        // Hoisted: the seed phase after the try needs the adapter (the spool is deleted by then).
+        DomainStateAdapter adapter;
+        // Every failure path EXCEPT running out of peers deletes the spool — a hostile bootstrap
+        // peer must never leave gigabytes behind per attempt (audit F7). An incomplete download
+        // is kept: it holds only whole chunks of a snapshot whose root still has to verify, it is
+        // bounded by the same cap, and it is what the next attempt resumes from.
+        boolean keepSpool = false;
         try {
-            try (var out = java.nio.file.Files.newOutputStream(spool)) {
-                for (int i = 0; i < info.chunkCount(); i++) {
-                    byte[] raw = peer.snapshotChunk(i);
-                    spooledBytes += raw.length;
-                    if (spooledBytes > MAX_SNAPSHOT_BUFFERED_BYTES) {
-                        log.warn("Snapshot chunks exceeded the {} byte bootstrap spool bound; aborting",
-                            MAX_SNAPSHOT_BUFFERED_BYTES);
-                        return false;
-                    }
-                    offsets[i] = spooledBytes - raw.length;
-                    lengths[i] = raw.length;
-                    out.write(raw);
+            try {
+                if (download.resume() > 0) {
+                    log.info("Resuming snapshot download: {} of {} chunks already spooled",
+                        download.resumed(), info.chunkCount());
                 }
-            } catch (RuntimeException | java.io.IOException e) {
-                log.warn("Snapshot chunk fetch/spool failed: {}", e.toString());
+            } catch (java.io.IOException e) {
+                log.warn("Snapshot spool {} could not be prepared: {}", dir, e.toString());
+                return false;
+            }
+            var importer = new StateSnapshotImporter.Incremental(stateStore);
+            SnapshotDownload.Outcome outcome;
+            try {
+                outcome = download.fetch(servers, importer);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                keepSpool = true;
+                return false;
+            }
+            if (outcome != SnapshotDownload.Outcome.COMPLETE) {
+                keepSpool = outcome == SnapshotDownload.Outcome.INCOMPLETE;
+                return false;
+            }
+            // Root equality BEFORE seeding any store. The sink writes ledger/nonce bindings
+            // through immediately, so the full set must be verified against the PoW-validated
+            // pivot root before any of it is seeded, and the seeded bytes must be the exact ones
+            // verified (no re-fetch): the replay re-reads the same spooled files one chunk at a
+            // time (audit V6a note: a fully transactional sink would avoid the second decode).
+            try {
+                importer.verify(committedRoot.toBytes());
+            } catch (StateSnapshotImporter.SnapshotVerificationException e) {
+                log.warn("Snapshot verification failed: {}", e.getMessage());
                 return false;
             }
-
-            // Rebuild the state tree and require root equality BEFORE seeding any store. The sink
-            // writes ledger/nonce bindings through immediately, so the full set must be verified
-            // against the PoW-validated pivot root before any of it is seeded, and the seeded bytes
-            // must be the exact ones verified (no re-fetch): the spooled, file-backed chunk list
-            // below re-reads the same bytes on each pass (verify, then replay — audit V6a note: a
-            // fully transactional sink would avoid the two-pass decode; the bootstrap peer is an
-            // operator-configured trusted seed and the chunk count is already bounded).
             var contracts = new ContractStateAdapter(contractStore);
             adapter = new DomainStateAdapter(store.ledger(), store.nonceStore(), boxStore, tokenStore,
                 contracts, contracts);
-            try (var channel = java.nio.channels.FileChannel.open(spool, java.nio.file.StandardOpenOption.READ)) {
-                chunks = new SpooledChunks(channel, offsets, lengths, info.chunkCount());
-                try {
-                    StateSnapshotImporter.importVerified(chunks, stateStore, committedRoot.toBytes(), adapter);
-                } catch (StateSnapshotImporter.SnapshotVerificationException e) {
-                    log.warn("Snapshot verification failed: {}", e.getMessage());
-                    return false;
-                }
-            } catch (java.io.IOException e) {
-                log.warn("Snapshot spool could not be read: {}", e.toString());
-                return false;
-            }
+            StateSnapshotImporter.replay(download.chunks(), adapter);
         } finally {
-            try {
-                java.nio.file.Files.deleteIfExists(spool);
-            } catch (java.io.IOException e) {
-                log.warn("Snapshot spool {} could not be deleted", spool);
+            if (!keepSpool) {
+                deleteSpool(dir);
             }
         }
         // From here on we mutate several independent stores that commit separately. Mark the
@@ -267,8 +339,8 @@ final class SnapshotBootstrap {
         store.nonceStore().markSyncedThrough(pivot);
         store.endBootstrap();
 
-        log.info("Snap-sync bootstrap complete: pivot={} stateRoot={} ({} chunks); body sync resumes above pivot",
-            pivot, committedRoot.toHexString(), chunks.size());
+        log.info("Snap-sync bootstrap complete: pivot={} stateRoot={} ({} chunks from {} peers); "
+            + "body sync resumes above pivot", pivot, committedRoot.toHexString(), info.chunkCount(), servers.size());
         return true;
     }
 
@@ -287,46 +359,30 @@ final class SnapshotBootstrap {
     }
 
     /**
-     * A read-only {@link List} view over the spooled chunk file: {@code get(i)} re-reads and
-     * decodes chunk {@code i} from disk, so the importer's two passes (root verification, then
-     * replay) never hold more than one decoded chunk on the heap (audit: snapshot bootstrap
-     * heap). Backed by positional reads on the already-open channel, which the caller closes
-     * after the import completes.
+     * Deletes every snapshot spool in {@code spoolDir} other than {@code keep}: a resumable
+     * download is only worth keeping for the snapshot it belongs to, and the pivot moves on.
      */
-    private static final class SpooledChunks extends java.util.AbstractList<SnapshotChunk> {
-        private final java.nio.channels.FileChannel channel;
-        private final long[] offsets;
-        private final long[] lengths;
-        private final int size;
-
-        SpooledChunks(java.nio.channels.FileChannel channel, long[] offsets, long[] lengths, int size) {
-            this.channel = channel;
-            this.offsets = offsets;
-            this.lengths = lengths;
-            this.size = size;
-        }
-
-        @Override
-        public SnapshotChunk get(int index) {
-            if (index < 0 || index >= size) {
-                throw new IndexOutOfBoundsException(index);
-            }
-            java.nio.ByteBuffer buf = java.nio.ByteBuffer.allocate(Math.toIntExact(lengths[index]));
-            try {
-                while (buf.hasRemaining()) {
-                    if (channel.read(buf, offsets[index] + buf.position()) < 0) {
-                        throw new java.io.EOFException("spool truncated at chunk " + index);
-                    }
+    private static void discardSpools(java.nio.file.Path spoolDir, java.nio.file.Path keep) {
+        try (var entries = java.nio.file.Files.list(spoolDir)) {
+            for (java.nio.file.Path entry : (Iterable<java.nio.file.Path>) entries::iterator) {
+                if (entry.getFileName().toString().startsWith(SPOOL_PREFIX) && !entry.equals(keep)) {
+                    deleteSpool(entry);
                 }
-            } catch (java.io.IOException e) {
-                throw new IllegalStateException("snapshot spool read failed at chunk " + index, e);
             }
-            return SnapshotChunk.decode(buf.array());
+        } catch (java.io.IOException e) {
+            log.warn("Snapshot spool directory {} could not be listed: {}", spoolDir, e.toString());
         }
+    }
 
-        @Override
-        public int size() {
-            return size;
+    private static void deleteSpool(java.nio.file.Path dir) {
+        try (var files = java.nio.file.Files.walk(dir)) {
+            for (java.nio.file.Path file : files.sorted(java.util.Comparator.reverseOrder()).toList()) {
+                java.nio.file.Files.deleteIfExists(file);
+            }
+        } catch (java.nio.file.NoSuchFileException e) {
+            // never created
+        } catch (java.io.IOException e) {
+            log.warn("Snapshot spool {} could not be deleted", dir);
         }
     }
 }
@@ -0,0 +1,372 @@
+package rhizome.node;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import rhizome.core.blockchain.PeerSource;
+import rhizome.core.state.snapshot.SnapshotChunk;
+import rhizome.core.state.snapshot.SnapshotManifest;
+import rhizome.core.state.snapshot.StateSnapshotImporter;
+
+/**
+ * The chunk-transfer half of {@link SnapshotBootstrap}: pulls one advertised snapshot's chunks
+ * from every peer advertising it, in parallel, into a per-snapshot spool directory, and folds each
+ * chunk into the root verification the moment it lands.
+ *
+ * <p><b>Parallel.</b> Chunk indexes sit in one shared work queue; each peer runs
+ * {@link #FETCHERS_PER_PEER} fetchers that take the next missing index, so a fast peer simply
+ * serves more of the set and a slow one never holds up the rest. A peer whose fetches fail
+ * {@link #MAX_PEER_FAILURES} times retires; its failed indexes go back on the queue for the others.
+ *
+ * <p><b>Resumable.</b> A chunk is written to {@code <index>.part} and atomically renamed to
+ * {@code <index>.chunk} once complete, so the directory only ever holds whole chunks. The directory
+ * is named by pivot and root ({@link SnapshotBootstrap} owns the naming and its removal), so a
+ * bootstrap interrupted by a crash, a restart or the loss of every peer picks up the chunks already
+ * on disk and fetches only the rest. Nothing in the node's stores changes before the root
+ * verifies, so the resume needs no marker of its own.
+ *
+ * <p><b>Bounded memory.</b> Fetched chunks reach the single folding thread through a queue of
+ * {@code FETCHERS_PER_PEER × peers} slots; a fetcher that finds it full waits. The heap therefore
+ * holds at most one decoded chunk per fetcher plus one per slot, independent of snapshot size, and
+ * the replay after verification re-reads the spool one chunk at a time ({@link #chunks()}).
+ *
+ * <p><b>Verified on arrival.</b> Every chunk is checked before it is written: the worst-case
+ * size, that it decodes, and the running spool total against the bootstrap bound. When the
+ * snapshot has a {@link SnapshotManifest}, two more checks run on the fetcher thread. The chunk's
+ * bytes must hash to its manifest entry. Its multiproof, fetched from the same peer, must show
+ * every binding to be in the PoW-validated pivot root. A peer failing either check is dropped at
+ * once. Its index goes back to the others, and a single bad chunk no longer costs the download.
+ * Verification runs in parallel across fetchers; only the fold into the rebuilt tree is serial.
+ * The final root comparison then only has to establish completeness. Without a manifest (a peer
+ * predating it) the final comparison is the only content check, and a mismatch discards the whole
+ * spool.
+ */
+final class SnapshotDownload {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotDownload.class);
+
+    /** Concurrent chunk requests per serving peer. */
+    static final int FETCHERS_PER_PEER = 2;
+    /** Failed chunk fetches after which a peer stops being asked for this snapshot. */
+    static final int MAX_PEER_FAILURES = 3;
+
+    private static final String CHUNK_SUFFIX = ".chunk";
+    private static final String PART_SUFFIX = ".part";
+
+    /** How a download ended. */
+    enum Outcome {
+        /** Every chunk is spooled and folded; the caller compares the root. */
+        COMPLETE,
+        /** Peers ran out (or the spool could not be written) with chunks missing; the spool is kept. */
+        INCOMPLETE,
+        /** The spool bound was exceeded: hostile or mis-sized advertisement; discard the spool. */
+        REFUSED
+    }
+
+    private final Path dir;
+    private final int chunkCount;
+    private final long maxBytes;
+    private final long maxChunkBytes;
+    /** Per-chunk hashes to check arrivals against; {@code null} when the snapshot has none. */
+    private final SnapshotManifest manifest;
+    /** The PoW-validated pivot root each chunk's multiproof must reach. */
+    private final byte[] root;
+    /** Spooled length per chunk index; {@code -1} while missing. Written before the chunk's queue handoff. */
+    private final long[] lengths;
+    private final AtomicLong spooledBytes = new AtomicLong();
+    private int resumed;
+
+    SnapshotDownload(Path dir, int chunkCount, long maxBytes, long maxChunkBytes, SnapshotManifest manifest,
+                     byte[] root) {
+        this.dir = dir;
+        this.chunkCount = chunkCount;
+        this.maxBytes = maxBytes;
+        this.maxChunkBytes = maxChunkBytes;
+        this.manifest = manifest;
+        this.root = root;
+        this.lengths = new long[chunkCount];
+        java.util.Arrays.fill(lengths, -1);
+    }
+
+    /**
+     * Creates the spool directory or adopts the chunks a previous attempt left in it. Partial
+     * writes and anything that cannot be one of this snapshot's chunks are deleted.
+     *
+     * @return the number of whole chunks found
+     */
+    int resume() throws IOException {
+        Files.createDirectories(dir);
+        long bytes = 0;
+        try (var files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                int index = chunkIndex(file.getFileName().toString());
+                long size = Files.size(file);
+                if (index < 0 || size > maxChunkBytes) {
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                lengths[index] = size;
+                bytes += size;
+                resumed++;
+            }
+        }
+        spooledBytes.set(bytes);
+        return resumed;
+    }
+
+    /**
+     * Fetches every missing chunk from {@code peers} and folds all of them, resumed ones included,
+     * into {@code importer}. Returns when the set is complete, the peers are exhausted, or the spool
+     * bound is hit.
+     */
+    Outcome fetch(List<PeerSource> peers, StateSnapshotImporter.Incremental importer) throws InterruptedException {
+        if (spooledBytes.get() > maxBytes) {
+            return Outcome.REFUSED;
+        }
+        ConcurrentLinkedQueue<Integer> missing = new ConcurrentLinkedQueue<>();
+        boolean[] onDisk = new boolean[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            onDisk[i] = lengths[i] >= 0;
+            if (!onDisk[i]) {
+                missing.add(i);
+            }
+        }
+        AtomicInteger remaining = new AtomicInteger(missing.size());
+        int fetchers = Math.max(1, peers.size() * FETCHERS_PER_PEER);
+        BlockingQueue<SnapshotChunk> arrived = new ArrayBlockingQueue<>(fetchers);
+        AtomicBoolean overBound = new AtomicBoolean();
+        AtomicBoolean spoolFailed = new AtomicBoolean();
+        AtomicInteger threadIds = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(fetchers, r -> {
+            Thread t = new Thread(r, "rhizome-snapshot-fetch-" + threadIds.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            if (!missing.isEmpty() && !peers.isEmpty()) {
+                for (PeerSource peer : peers) {
+                    AtomicInteger failures = new AtomicInteger();
+                    for (int f = 0; f < FETCHERS_PER_PEER; f++) {
+                        pool.execute(() -> fetchLoop(peer, failures, missing, remaining, arrived, overBound, spoolFailed));
+                    }
+                }
+            }
+            pool.shutdown();
+
+            // Resumed chunks are folded from disk while the network fills in the rest.
+            // A resumed file that no longer decodes is dropped and re-queued for the fetchers.
+            for (int i = 0; i < chunkCount; i++) {
+                if (onDisk[i]) {
+                    SnapshotChunk chunk;
+                    try {
+                        byte[] raw = Files.readAllBytes(dir.resolve(i + CHUNK_SUFFIX));
+                        if (manifest != null && !manifest.matches(i, raw)) {
+                            throw new IllegalStateException("spooled chunk " + i + " is not the manifest's");
+                        }
+                        chunk = SnapshotChunk.decode(raw);
+                    } catch (IOException | RuntimeException e) {
+                        discard(i);
+                        remaining.incrementAndGet();
+                        missing.add(i);
+                        continue;
+                    }
+                    importer.add(chunk);
+                }
+            }
+            while (importer.chunks() < chunkCount && !overBound.get()) {
+                SnapshotChunk chunk = arrived.poll(100, TimeUnit.MILLISECONDS);
+                if (chunk != null) {
+                    importer.add(chunk);
+                } else if (pool.isTerminated() && arrived.isEmpty()) {
+                    break;
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+            pool.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        if (overBound.get()) {
+            log.warn("Snapshot chunks exceeded the {} byte bootstrap spool bound; aborting", maxBytes);
+            return Outcome.REFUSED;
+        }
+        if (importer.chunks() == chunkCount) {
+            return Outcome.COMPLETE;
+        }
+        log.warn("Snapshot download incomplete: {} of {} chunks{}; the spool is kept for the next attempt",
+            importer.chunks(), chunkCount, spoolFailed.get() ? " (spool write failed)" : " (no peer left)");
+        return Outcome.INCOMPLETE;
+    }
+
+    /** Whole chunks found on disk by {@link #resume()}. */
+    int resumed() {
+        return resumed;
+    }
+
+    /** Bytes spooled for this snapshot, resumed chunks included. */
+    long bytes() {
+        return spooledBytes.get();
+    }
+
+    /**
+     * A read-only view over the spooled chunks: {@code get(i)} re-reads and decodes chunk
+     * {@code i}, so the replay after verification holds one decoded chunk at a time.
+     */
+    List<SnapshotChunk> chunks() {
+        return new java.util.AbstractList<>() {
+            @Override
+            public SnapshotChunk get(int index) {
+                return read(index);
+            }
+
+            @Override
+            public int size() {
+                return chunkCount;
+            }
+        };
+    }
+
+    /**
+     * One fetcher: takes missing indexes until none remain anywhere. An empty queue while chunks
+     * are still in flight elsewhere is not the end — a failing peer may hand its index back — so
+     * the fetcher waits briefly instead of exiting.
+     */
+    private void fetchLoop(PeerSource peer, AtomicInteger failures, ConcurrentLinkedQueue<Integer> missing,
+                           AtomicInteger remaining, BlockingQueue<SnapshotChunk> arrived, AtomicBoolean overBound, AtomicBoolean spoolFailed) {
+        while (failures.get() < MAX_PEER_FAILURES && !overBound.get() && !spoolFailed.get()
+            && !Thread.currentThread().isInterrupted()) {
+            Integer index = missing.poll();
+            if (index == null) {
+                if (remaining.get() == 0) {
+                    return;
+                }
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                continue;
+            }
+            SnapshotChunk chunk;
+            byte[] raw;
+            try {
+                raw = peer.snapshotChunk(index);
+                if (raw.length > maxChunkBytes) {
+                    throw new IllegalArgumentException("chunk " + index + " is " + raw.length + " bytes");
+                }
+                chunk = SnapshotChunk.decode(raw);
+            } catch (RuntimeException e) {
+                missing.add(index);
+                failures.incrementAndGet();
+                log.debug("Snapshot chunk {} fetch failed: {}", index, e.toString());
+                continue;
+            }
+            String refusal;
+            try {
+                refusal = check(peer, index, raw, chunk);
+            } catch (RuntimeException e) {
+                missing.add(index);
+                failures.incrementAndGet();
+                log.debug("Snapshot chunk {} proof fetch failed: {}", index, e.toString());
+                continue;
+            }
+            if (refusal != null) {
+                // Proven misbehaviour, not a flaky link: the peer serves no further chunk.
+                log.warn("Dropping snapshot peer {}: chunk {} {}", peer, index, refusal);
+                missing.add(index);
+                failures.set(MAX_PEER_FAILURES);
+                return;
+            }
+            if (spooledBytes.addAndGet(raw.length) > maxBytes) {
+                overBound.set(true);
+                return;
+            }
+            try {
+                Path part = dir.resolve(index + PART_SUFFIX);
+                Files.write(part, raw);
+                Files.move(part, dir.resolve(index + CHUNK_SUFFIX), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                log.warn("Snapshot spool write failed: {}", e.toString());
+                spoolFailed.set(true);
+                return;
+            }
+            lengths[index] = raw.length;
+            remaining.decrementAndGet();
+            try {
+                arrived.put(chunk);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * The per-chunk checks a manifest enables: {@code null} when the chunk is the manifest's and
+     * proven against the root, otherwise why not. Without a manifest there is nothing to check
+     * against until the set is complete.
+     */
+    private String check(PeerSource peer, int index, byte[] raw, SnapshotChunk chunk) {
+        if (manifest == null) {
+            return null;
+        }
+        if (!manifest.matches(index, raw)) {
+            return "does not match its manifest hash";
+        }
+        byte[] proof = peer.snapshotProof(index);
+        if (proof == null) {
+            return "came without a proof";
+        }
+        if (!StateSnapshotImporter.verifyChunk(chunk, proof, root)) {
+            return "is not proven by the pivot root";
+        }
+        return null;
+    }
+
+    private void discard(int index) {
+        spooledBytes.addAndGet(-lengths[index]);
+        lengths[index] = -1;
+        try {
+            Files.deleteIfExists(dir.resolve(index + CHUNK_SUFFIX));
+        } catch (IOException e) {
+            log.warn("Snapshot spool chunk {} could not be deleted", index);
+        }
+    }
+
+    private SnapshotChunk read(int index) {
+        try {
+            return SnapshotChunk.decode(Files.readAllBytes(dir.resolve(index + CHUNK_SUFFIX)));
+        } catch (IOException e) {
+            throw new IllegalStateException("snapshot spool read failed at chunk " + index, e);
+        }
+    }
+
+    /** The chunk index a spool file name denotes, or {@code -1} when it is not a whole chunk of this snapshot. */
+    private int chunkIndex(String name) {
+        if (!name.endsWith(CHUNK_SUFFIX)) {
+            return -1;
+        }
+        try {
+            int index = Integer.parseInt(name.substring(0, name.length() - CHUNK_SUFFIX.length()));
+            return index >= 0 && index < chunkCount ? index : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
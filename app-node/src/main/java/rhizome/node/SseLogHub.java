@@ -1,9 +1,14 @@
 package rhizome.node;
 
+import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 
 import io.activej.bytebuf.ByteBuf;
 import io.activej.csp.queue.ChannelBuffer;
@@ -11,6 +16,7 @@ import io.activej.csp.supplier.ChannelSupplier;
 import io.activej.eventloop.Eventloop;
 
 import rhizome.core.blockchain.ContractProcessor.ContractLog;
+import rhizome.core.ledger.PublicAddress;
 
 /**
  * Push streaming of contract event logs over Server-Sent Events: the live
@@ -26,6 +32,14 @@ import rhizome.core.blockchain.ContractProcessor.ContractLog;
  * rather than allowed to grow unbounded memory — the standard SSE contract:
  * reconnect and catch up from the cursor.
  *
+ * <p>A subscription may carry a {@link LogFilter} (contract addresses and topic prefixes); it then
+ * only receives matching logs, plus the per-block heartbeat that carries its cursor. Subscribers
+ * with the same filter share one group, and the groups are indexed by contract address and by
+ * the first byte of each topic prefix, so a block's dispatch visits only the groups a log can
+ * match rather than every subscriber. Each log's event text is formatted at most once per block
+ * and each group's payload is encoded once, then handed to all its members as the same bytes;
+ * a subscriber that matched nothing gets the shared heartbeat.
+ *
  * <p>All subscriber state is confined to the HTTP event loop; {@link #publish}
  * may be called from any thread and marshals itself onto it.
  */
@@ -48,11 +62,128 @@ final class SseLogHub {
      *  feed to everyone else (audit F5; the v4 /24 tier closes the remaining gap). */
     private static final int MAX_SUBSCRIBERS_PER_SUBNET = 16;
 
+    /** Filter bounds: contracts and topic prefixes per subscription, bytes per prefix. */
+    static final int MAX_FILTER_CONTRACTS = 16;
+    static final int MAX_FILTER_TOPICS = 16;
+    static final int MAX_TOPIC_PREFIX = 64;
+
+    private static final byte[] TICK = ": tick\n\n".getBytes(StandardCharsets.UTF_8);
+
     private final Eventloop eventloop;
     private final int maxSubscribers;
     private final List<Subscriber> subscribers = new ArrayList<>();
+    /** One group per distinct filter, by {@link LogFilter#key()}. */
+    private final Map<String, Group> groups = new HashMap<>();
+    /** Groups naming contracts, under each contract they name. */
+    private final Map<PublicAddress, List<Group>> byContract = new HashMap<>();
+    /** Groups with topic prefixes but no contracts, under each prefix's first byte. */
+    @SuppressWarnings("unchecked")
+    private final List<Group>[] byTopicByte = new List[256];
+    /** Groups with neither: every log matches. */
+    private final List<Group> unfiltered = new ArrayList<>();
+    /** Publish counter, marking the groups a delivery has already started a payload for. */
+    private long round;
+
+    private record Subscriber(String clientKey, String subnetKey, Group group, ChannelBuffer<ByteBuf> buffer) {}
+
+    /**
+     * Which logs a subscription wants: logs of any of {@code contracts} (all when empty) whose
+     * topic starts with any of {@code topicPrefixes} (all when empty). Built by {@link #parse}.
+     */
+    static final class LogFilter {
+
+        static final LogFilter ALL = new LogFilter(List.of(), List.of());
+
+        private final List<PublicAddress> contracts;
+        private final List<byte[]> topicPrefixes;
+        private final String key;
+
+        private LogFilter(List<PublicAddress> contracts, List<byte[]> topicPrefixes) {
+            this.contracts = contracts;
+            this.topicPrefixes = topicPrefixes;
+            // Canonical: the same sets in any order, any hex case, share a group.
+            TreeSet<String> c = new TreeSet<>();
+            contracts.forEach(a -> c.add(HexFormat.of().formatHex(a.toBytes())));
+            TreeSet<String> t = new TreeSet<>();
+            topicPrefixes.forEach(p -> t.add(HexFormat.of().formatHex(p)));
+            this.key = String.join(",", c) + "|" + String.join(",", t);
+        }
+
+        /**
+         * Parses the {@code contract} and {@code topic} query parameters: comma-separated contract
+         * addresses (50 hex) and topic prefixes (hex, 1 to {@link #MAX_TOPIC_PREFIX} bytes).
+         * Either may be absent. Throws {@link IllegalArgumentException} on a malformed or
+         * oversized list.
+         */
+        static LogFilter parse(String contracts, String topics) {
+            List<PublicAddress> addresses = new ArrayList<>();
+            for (String hex : split(contracts, MAX_FILTER_CONTRACTS, "contract")) {
+                PublicAddress a = PublicAddress.of(hex);
+                if (!addresses.contains(a)) {
+                    addresses.add(a);
+                }
+            }
+            List<byte[]> prefixes = new ArrayList<>();
+            for (String hex : split(topics, MAX_FILTER_TOPICS, "topic")) {
+                byte[] prefix = HexFormat.of().parseHex(hex);
+                if (prefix.length == 0 || prefix.length > MAX_TOPIC_PREFIX) {
+                    throw new IllegalArgumentException("topic prefix must be 1-" + MAX_TOPIC_PREFIX + " bytes");
+                }
+                prefixes.add(prefix);
+            }
+            return addresses.isEmpty() && prefixes.isEmpty() ? ALL
+                : new LogFilter(List.copyOf(addresses), List.copyOf(prefixes));
+        }
 
-    private record Subscriber(String clientKey, String subnetKey, ChannelBuffer<ByteBuf> buffer) {}
+        private static List<String> split(String list, int max, String what) {
+            if (list == null || list.isBlank()) {
+                return List.of();
+            }
+            List<String> out = new ArrayList<>();
+            for (String s : list.split(",")) {
+                if (!s.isBlank()) {
+                    out.add(s.trim());
+                }
+            }
+            if (out.size() > max) {
+                throw new IllegalArgumentException("too many " + what + " filters (max " + max + ")");
+            }
+            return out;
+        }
+
+        String key() {
+            return key;
+        }
+
+        boolean matches(ContractLog log) {
+            return (contracts.isEmpty() || contracts.contains(log.contract())) && matchesTopic(log.topic());
+        }
+
+        boolean matchesTopic(byte[] topic) {
+            if (topicPrefixes.isEmpty()) {
+                return true;
+            }
+            for (byte[] prefix : topicPrefixes) {
+                if (topic.length >= prefix.length
+                    && Arrays.equals(topic, 0, prefix.length, prefix, 0, prefix.length)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /** The subscribers sharing one filter, and the payload being built for them this round. */
+    private static final class Group {
+        final LogFilter filter;
+        final List<Subscriber> members = new ArrayList<>();
+        final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        long round = -1;
+
+        Group(LogFilter filter) {
+            this.filter = filter;
+        }
+    }
 
     SseLogHub(Eventloop eventloop, int maxSubscribers) {
         this.eventloop = eventloop;
@@ -63,7 +194,9 @@ final class SseLogHub {
     /** Self-rescheduling timer heartbeat; dies with the event loop at shutdown. */
     private void startHeartbeat() {
         eventloop.delay(HEARTBEAT_MS, () -> {
-            fanOut(": tick\n\n");
+            for (Subscriber s : List.copyOf(subscribers)) {
+                send(s, TICK);
+            }
             startHeartbeat();
         });
     }
@@ -84,6 +217,11 @@ final class SseLogHub {
      * {@code subnetKey} (the IPv6-/48 / IPv4-/24 site tier — see {@link #MAX_SUBSCRIBERS_PER_SUBNET}).
      */
     ChannelSupplier<ByteBuf> subscribe(String clientKey, String subnetKey) {
+        return subscribe(clientKey, subnetKey, LogFilter.ALL);
+    }
+
+    /** As {@link #subscribe(String, String)}, delivering only the logs {@code filter} matches. */
+    ChannelSupplier<ByteBuf> subscribe(String clientKey, String subnetKey, LogFilter filter) {
         if (subscribers.size() >= maxSubscribers) {
             return null;
         }
@@ -100,10 +238,13 @@ final class SseLogHub {
         if (mine >= MAX_SUBSCRIBERS_PER_CLIENT || subnet >= MAX_SUBSCRIBERS_PER_SUBNET) {
             return null;
         }
+        Group group = groups.computeIfAbsent(filter.key(), k -> index(new Group(filter)));
         ChannelBuffer<ByteBuf> buffer = new ChannelBuffer<>(SUBSCRIBER_BUFFER);
-        subscribers.add(new Subscriber(clientKey, subnetKey, buffer));
+        Subscriber s = new Subscriber(clientKey, subnetKey, group, buffer);
+        subscribers.add(s);
+        group.members.add(s);
         // An immediate comment so the client sees headers and first bytes at once.
-        buffer.put(chunk(": connected\nretry: 2000\n\n"));
+        buffer.put(chunk(": connected\nretry: 2000\n\n".getBytes(StandardCharsets.UTF_8)));
         return buffer.getSupplier();
     }
 
@@ -112,6 +253,11 @@ final class SseLogHub {
         return subscribers.size();
     }
 
+    /** Number of distinct filters among the live subscribers (event-loop confined; for tests). */
+    int groupCount() {
+        return groups.size();
+    }
+
     /**
      * Publishes a block's logs to every subscriber. Callable from any thread;
      * the work runs on the event loop. Blocks without logs still produce a
@@ -131,53 +277,137 @@ final class SseLogHub {
         publish(height, () -> logs);
     }
 
+    /**
+     * One block: each log goes to the groups the index offers for it and whose filter it passes,
+     * appended to that group's payload (its event text formatted on first use); then every group
+     * sends its payload, or the shared heartbeat if nothing matched, to all its members.
+     */
     private void deliver(long height, java.util.function.Supplier<List<ContractLog>> logsSupplier) {
         if (subscribers.isEmpty()) {
             return;
         }
-        fanOut(format(height, logsSupplier.get()));
+        List<ContractLog> logs = logsSupplier.get();
+        byte[] heartbeat = (": h " + height + "\n\n").getBytes(StandardCharsets.UTF_8);
+        long r = ++round;
+        byte[][] events = new byte[logs.size()][];
+        List<Group> candidates = new ArrayList<>();
+        for (int i = 0; i < logs.size(); i++) {
+            ContractLog log = logs.get(i);
+            candidates.clear();
+            candidates.addAll(unfiltered);
+            candidates.addAll(byContract.getOrDefault(log.contract(), List.of()));
+            if (log.topic().length > 0) {
+                List<Group> topical = byTopicByte[log.topic()[0] & 0xFF];
+                if (topical != null) {
+                    candidates.addAll(topical);
+                }
+            }
+            for (Group g : candidates) {
+                if (!g.filter.matches(log)) {
+                    continue;
+                }
+                if (g.round != r) {
+                    g.round = r;
+                    g.payload.reset();
+                    g.payload.writeBytes(heartbeat);
+                }
+                if (events[i] == null) {
+                    events[i] = event(height, log);
+                }
+                g.payload.writeBytes(events[i]);
+            }
+        }
+        for (Group g : List.copyOf(groups.values())) {
+            byte[] payload = g.round == r ? g.payload.toByteArray() : heartbeat;
+            for (Subscriber s : List.copyOf(g.members)) {
+                send(s, payload);
+            }
+        }
     }
 
-    /** Sends {@code payload} to every live subscriber, dropping closed or saturated ones. */
-    private void fanOut(String payload) {
-        if (subscribers.isEmpty()) {
+    /** Sends {@code payload} to one subscriber, dropping it if closed or saturated. */
+    private void send(Subscriber s, byte[] payload) {
+        ChannelBuffer<ByteBuf> buffer = s.buffer();
+        if (buffer.getException() != null) {
+            remove(s); // connection already closed by the client
             return;
         }
-        Iterator<Subscriber> it = subscribers.iterator();
-        while (it.hasNext()) {
-            ChannelBuffer<ByteBuf> buffer = it.next().buffer();
-            if (buffer.getException() != null) {
-                it.remove(); // connection already closed by the client
-                continue;
-            }
-            if (buffer.isSaturated()) {
-                // Too slow to drain: disconnect rather than queue unboundedly. The
-                // client reconnects and catches up via the /logs cursor.
-                buffer.closeEx(new java.io.IOException("SSE subscriber too slow"));
-                it.remove();
-                continue;
+        if (buffer.isSaturated()) {
+            // Too slow to drain: disconnect rather than queue unboundedly. The
+            // client reconnects and catches up via the /logs cursor.
+            buffer.closeEx(new java.io.IOException("SSE subscriber too slow"));
+            remove(s);
+            return;
+        }
+        buffer.put(chunk(payload));
+    }
+
+    private Group index(Group g) {
+        LogFilter f = g.filter;
+        if (!f.contracts.isEmpty()) {
+            f.contracts.forEach(c -> byContract.computeIfAbsent(c, k -> new ArrayList<>()).add(g));
+        } else if (!f.topicPrefixes.isEmpty()) {
+            for (int b : firstBytes(f)) {
+                if (byTopicByte[b] == null) {
+                    byTopicByte[b] = new ArrayList<>();
+                }
+                byTopicByte[b].add(g);
             }
-            buffer.put(chunk(payload));
+        } else {
+            unfiltered.add(g);
         }
+        return g;
     }
 
-    /** One heartbeat comment plus one SSE event per log, ids carrying the height. */
-    private static String format(long height, List<ContractLog> logs) {
-        StringBuilder sb = new StringBuilder(64 + logs.size() * 160);
-        sb.append(": h ").append(height).append("\n\n");
-        for (ContractLog log : logs) {
-            sb.append("id: ").append(height).append('\n')
-              .append("data: {\"height\":").append(height)
-              .append(",\"contract\":\"").append(log.contract().toHexString())
-              .append("\",\"topic\":\"").append(hex(log.topic()))
-              .append("\",\"data\":\"").append(hex(log.data()))
-              .append("\"}\n\n");
+    private void remove(Subscriber s) {
+        subscribers.remove(s);
+        Group g = s.group();
+        g.members.remove(s);
+        if (!g.members.isEmpty()) {
+            return;
         }
-        return sb.toString();
+        groups.remove(g.filter.key());
+        LogFilter f = g.filter;
+        if (!f.contracts.isEmpty()) {
+            for (PublicAddress c : f.contracts) {
+                List<Group> list = byContract.get(c);
+                list.remove(g);
+                if (list.isEmpty()) {
+                    byContract.remove(c);
+                }
+            }
+        } else if (!f.topicPrefixes.isEmpty()) {
+            for (int b : firstBytes(f)) {
+                byTopicByte[b].remove(g);
+                if (byTopicByte[b].isEmpty()) {
+                    byTopicByte[b] = null;
+                }
+            }
+        } else {
+            unfiltered.remove(g);
+        }
+    }
+
+    /** The distinct first bytes of a filter's topic prefixes (its topic-index slots). */
+    private static int[] firstBytes(LogFilter f) {
+        return f.topicPrefixes.stream().mapToInt(p -> p[0] & 0xFF).distinct().toArray();
+    }
+
+    /** One SSE event for a log, the height as its id. */
+    private static byte[] event(long height, ContractLog log) {
+        StringBuilder sb = new StringBuilder(160);
+        sb.append("id: ").append(height).append('\n')
+          .append("data: {\"height\":").append(height)
+          .append(",\"contract\":\"").append(log.contract().toHexString())
+          .append("\",\"topic\":\"").append(hex(log.topic()))
+          .append("\",\"data\":\"").append(hex(log.data()))
+          .append("\"}\n\n");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
     }
 
-    private static ByteBuf chunk(String s) {
-        return ByteBuf.wrapForReading(s.getBytes(StandardCharsets.UTF_8));
+    /** A read-only view of shared bytes: every member of a group wraps the same array. */
+    private static ByteBuf chunk(byte[] bytes) {
+        return ByteBuf.wrapForReading(bytes);
     }
 
     private static String hex(byte[] bytes) {
@@ -1,6 +1,5 @@
 package rhizome.node;
 
-import io.activej.bytebuf.ByteBuf;
 import io.activej.csp.supplier.ChannelSuppliers;
 import io.activej.http.HttpHeaders;
 import io.activej.http.HttpRequest;
@@ -46,19 +45,16 @@ final class SyncApi {
         // full-window /sync requests could OOM the node. Each block is encoded lazily as the response
         // is flushed; the on-the-wire bytes are the identical self-framing concatenation the client
         // (BlockCodec.decodeStreamed) already parses. Bounded to one block in memory at a time.
-        java.util.Iterator<ByteBuf> blocks = new java.util.Iterator<>() {
+        java.util.Iterator<byte[]> blocks = new java.util.Iterator<>() {
             private long h = start;
             @Override public boolean hasNext() {
                 return h <= cappedEnd;
             }
-            @Override public ByteBuf next() {
-                return ByteBuf.wrapForReading(BlockCodec.encode(node.block(h++)));
+            @Override public byte[] next() {
+                return BlockCodec.encode(node.block(h++));
             }
         };
-        return HttpResponse.ok200()
-            .withHeader(HttpHeaders.CONTENT_TYPE, "application/octet-stream")
-            .withBodyStream(ChannelSuppliers.ofIterator(blocks))
-            .build();
+        return stream(req, blocks);
     }
 
     /**
@@ -67,6 +63,16 @@ final class SyncApi {
      * {@code BLOCK_HEADERS_PER_FETCH}.
      */
     static HttpResponse headers(NodeService node, HttpRequest req) {
+        return headers(node, req, false);
+    }
+
+    /**
+     * As above; {@code buffered} builds the whole (deflated, if negotiated) body at once instead
+     * of streaming it, for a final range the response cache keeps ({@link ResponseCache}). One
+     * window of headers is a few hundred KiB at most, and it is built once per range, not once
+     * per request.
+     */
+    static HttpResponse headers(NodeService node, HttpRequest req, boolean buffered) {
         long start = parseLong(req.getQueryParameter("start"));
         long end = parseLong(req.getQueryParameter("end"));
         if (start < 1 || end < start) {
@@ -81,21 +87,125 @@ final class SyncApi {
         // /sync). Headers are small, so the impact was modest, but the streaming form is bounded to
         // one header in memory at a time and matches /sync (audit net F3). The wire bytes are the
         // identical self-framing concatenation the client (HeaderCodec.decodeAll) already parses.
-        java.util.Iterator<ByteBuf> headers = new java.util.Iterator<>() {
+        java.util.Iterator<byte[]> headers = new java.util.Iterator<>() {
             private long h = start;
             @Override public boolean hasNext() {
                 return h <= cappedEnd;
             }
-            @Override public ByteBuf next() {
-                return ByteBuf.wrapForReading(rhizome.core.block.HeaderCodec.encode(node.header(h++)));
+            @Override public byte[] next() {
+                return rhizome.core.block.HeaderCodec.encode(node.header(h++));
             }
         };
-        return HttpResponse.ok200()
+        if (!buffered) {
+            return stream(req, headers);
+        }
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        headers.forEachRemaining(out::writeBytes);
+        boolean deflate = WireCompression.acceptsDeflate(req);
+        var response = HttpResponse.ok200()
+            .withHeader(HttpHeaders.CONTENT_TYPE, "application/octet-stream")
+            .withHeader(WireCompression.H_VARY, "Accept-Encoding");
+        if (deflate) {
+            response.withHeader(WireCompression.H_CONTENT_ENCODING, WireCompression.DEFLATE);
+        }
+        return response.withBody(deflate ? WireCompression.deflate(out.toByteArray()) : out.toByteArray())
+            .build();
+    }
+
+    /**
+     * A binary item stream, deflated when the peer offered {@code Accept-Encoding: deflate}
+     * ({@link WireCompression}). The items are still pulled one at a time as the body is written.
+     */
+    private static HttpResponse stream(HttpRequest req, java.util.Iterator<byte[]> items) {
+        boolean deflate = WireCompression.acceptsDeflate(req);
+        var response = HttpResponse.ok200()
             .withHeader(HttpHeaders.CONTENT_TYPE, "application/octet-stream")
-            .withBodyStream(ChannelSuppliers.ofIterator(headers))
+            .withHeader(WireCompression.H_VARY, "Accept-Encoding");
+        if (deflate) {
+            response.withHeader(WireCompression.H_CONTENT_ENCODING, WireCompression.DEFLATE);
+        }
+        return response.withBodyStream(ChannelSuppliers.ofIterator(WireCompression.frames(items, deflate)))
             .build();
     }
 
+    /**
+     * {@code /peers?quality=1}: the plain peer list plus each listed peer's measured link
+     * (EWMA RTT, throughput, error rate, and the window size and hedge delay sync derives from
+     * them). Opt-in so the PEX body other nodes fetch stays the bare list.
+     */
+    static HttpResponse peersWithQuality(NodeService node) {
+        var rows = new org.json.JSONArray();
+        for (var q : node.peerQuality()) {
+            rows.put(new JSONObject()
+                .put("peer", q.peer())
+                .put("rttMs", Math.round(q.rttMs() * 10) / 10.0)
+                .put("throughputBytesPerSec", Math.round(q.throughputBytesPerSec()))
+                .put("errorRate", Math.round(q.errorRate() * 1000) / 1000.0)
+                .put("exchanges", q.exchanges())
+                .put("failures", q.failures())
+                .put("blocksPerFetch", q.blocksPerFetch())
+                .put("hedgeAfterMs", q.hedgeAfterMs()));
+        }
+        return json(new JSONObject()
+            .put("peers", new org.json.JSONArray(node.publicPeers()))
+            .put("quality", rows));
+    }
+
+    /**
+     * Gossip relay counters: transaction inventory totals and per-peer queues, the block pool's
+     * queued bytes and drops, and the shared peer channels ({@code 503} before gossip has started).
+     */
+    static HttpResponse gossip(NodeService node) {
+        var broadcaster = node.gossip();
+        if (broadcaster == null) {
+            return HttpResponse.ofCode(503)
+                .withJson(new JSONObject().put("error", "gossip not started").toString())
+                .build();
+        }
+        var tx = broadcaster.transactionStats();
+        var peers = new org.json.JSONArray();
+        for (var p : tx.peers()) {
+            peers.put(new JSONObject()
+                .put("peer", p.peer())
+                .put("queued", p.queued())
+                .put("announced", p.announced())
+                .put("requested", p.requested())
+                .put("sent", p.sent())
+                .put("dropped", p.dropped())
+                .put("failures", p.failures())
+                .put("legacy", p.legacy()));
+        }
+        var links = broadcaster.channelStats();
+        var channels = new org.json.JSONArray();
+        for (var c : links.channels()) {
+            channels.put(new JSONObject()
+                .put("peer", c.peer())
+                .put("inFlight", c.inFlight())
+                .put("exchanges", c.exchanges())
+                .put("refused", c.refused()));
+        }
+        var blocks = broadcaster.blockStats();
+        return json(new JSONObject()
+            .put("transactions", new JSONObject()
+                .put("announced", tx.announced())
+                .put("requested", tx.requested())
+                .put("sent", tx.sent())
+                .put("dropped", tx.dropped())
+                .put("failures", tx.failures())
+                .put("retainedTransactions", tx.retainedTransactions())
+                .put("retainedBytes", tx.retainedBytes())
+                .put("peers", peers))
+            .put("blocks", new JSONObject()
+                .put("queuedBytes", blocks.queuedBytes())
+                .put("queuedSends", blocks.queuedSends())
+                .put("droppedSends", blocks.droppedSends()))
+            .put("channels", new JSONObject()
+                .put("open", links.open())
+                .put("pins", links.pins())
+                .put("invalidations", links.invalidations())
+                .put("peers", channels)));
+    }
+
     /** Advertises the materialised state snapshot ({@code 404} when none has been captured). */
     static HttpResponse snapshotInfo(NodeService node) {
         var snap = node.materializedSnapshot();
@@ -107,11 +217,41 @@ final class SyncApi {
         return json(new JSONObject()
             .put("pivotHeight", snap.pivotHeight())
             .put("stateRoot", rhizome.core.common.Utils.bytesToHex(snap.stateRoot()))
-            .put("chunks", snap.chunkCount()));
+            .put("chunks", snap.chunkCount())
+            .put("manifest", rhizome.core.common.Utils.bytesToHex(snap.manifestHash())));
+    }
+
+    /**
+     * The snapshot's per-chunk hash list, binary ({@link rhizome.core.state.snapshot.SnapshotManifest});
+     * its SHA-256 is the {@code manifest} on {@code /info}.
+     */
+    static HttpResponse snapshotManifest(NodeService node) {
+        var snap = node.materializedSnapshot();
+        if (snap == null) {
+            return HttpResponse.ofCode(404)
+                .withJson(new JSONObject().put("error", "no snapshot materialized").toString())
+                .build();
+        }
+        return HttpResponse.ok200()
+            .withHeader(HttpHeaders.CONTENT_TYPE, "application/octet-stream")
+            .withBody(snap.manifest().encode())
+            .build();
     }
 
     /** One binary snapshot chunk by index (bounds-checked against the current materialisation). */
     static HttpResponse snapshotChunk(NodeService node, HttpRequest req) {
+        return snapshotPart(node, req, false);
+    }
+
+    /**
+     * Chunk {@code index}'s multiproof against the pivot root, binary
+     * ({@link rhizome.core.state.SparseMerkleTree#proveAll}).
+     */
+    static HttpResponse snapshotProof(NodeService node, HttpRequest req) {
+        return snapshotPart(node, req, true);
+    }
+
+    private static HttpResponse snapshotPart(NodeService node, HttpRequest req, boolean proof) {
         var snap = node.materializedSnapshot();
         // Bounds-check BEFORE the long→int cast: an out-of-int-range index would silently wrap
         // to a valid-looking negative/positive int (audit: unchecked index cast).
@@ -126,15 +266,35 @@ final class SyncApi {
                 .build();
         }
         try {
-            return HttpResponse.ok200()
+            if (proof) {
+                // Sibling hashes: incompressible, so never worth a deflate pass.
+                return HttpResponse.ok200()
+                    .withHeader(HttpHeaders.CONTENT_TYPE, "application/octet-stream")
+                    .withBody(snap.proofBytes(index))
+                    .build();
+            }
+            byte[] chunk = snap.chunkBytes(index);
+            var response = HttpResponse.ok200()
                 .withHeader(HttpHeaders.CONTENT_TYPE, "application/octet-stream")
-                .withBody(snap.chunkBytes(index))
-                .build();
+                .withHeader(WireCompression.H_VARY, "Accept-Encoding");
+            if (WireCompression.acceptsDeflate(req)) {
+                // Sent deflated only when that is actually smaller: a chunk of mostly hashes may
+                // not be. The manifest hash is over the inflated bytes either way.
+                byte[] deflated = WireCompression.deflate(chunk);
+                if (deflated.length < chunk.length) {
+                    return response.withHeader(WireCompression.H_CONTENT_ENCODING, WireCompression.DEFLATE)
+                        .withBody(deflated)
+                        .build();
+                }
+            }
+            return response.withBody(chunk).build();
         } catch (java.io.UncheckedIOException e) {
-            // Rotation race: materializeSnapshot() closed this snapshot's channel between our
-            // materializedSnapshot() read and the chunk read. It is not a client fault (→ not
+            // Rotation race: materializeSnapshot() released this snapshot (closed its proof
+            // channel, deleted the pool files the next one does not share) between our
+            // materializedSnapshot() read and the read here. It is not a client fault (→ not
             // the global mapper's 400): tell the peer to re-read /state/snapshot/info.
-            if (e.getCause() instanceof java.nio.channels.ClosedChannelException) {
+            if (e.getCause() instanceof java.nio.channels.ClosedChannelException
+                    || e.getCause() instanceof java.nio.file.NoSuchFileException) {
                 return HttpResponse.ofCode(404)
                     .withJson(new JSONObject().put("error", "snapshot rotated").toString())
                     .build();
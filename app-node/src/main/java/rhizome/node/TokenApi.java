@@ -26,7 +26,10 @@ final class TokenApi {
             return HttpResponse.ofCode(404)
                 .withJson(new JSONObject().put("error", "token not found").toString()).build();
         }
-        return json(tokenJson(meta));
+        if (BinaryEncoding.accepts(req)) {
+            return BinaryEncoding.body(java.util.List.of(BinaryEncoding.record(BinaryEncoding.TOKEN, meta.serialize())));
+        }
+        return BinaryEncoding.json(writeToken(new JsonWriter(), meta).endObject());
     }
 
     /** Token balance: {@code GET /token_balance?id=<hex64>&address=<hex50>}. */
@@ -65,28 +68,43 @@ final class TokenApi {
         } else {
             return badRequest("provide minter= or holder=");
         }
-        org.json.JSONArray arr = new org.json.JSONArray();
+        if (BinaryEncoding.accepts(req)) {
+            // TOKEN records, each followed by the holder's BALANCE on a holder listing.
+            java.util.List<byte[]> records = new java.util.ArrayList<>(2 * ids.size());
+            for (byte[] id : ids) {
+                rhizome.core.token.TokenMeta meta = node.tokenMeta(id);
+                if (meta != null) {
+                    records.add(BinaryEncoding.record(BinaryEncoding.TOKEN, meta.serialize()));
+                    if (holder != null) {
+                        records.add(BinaryEncoding.balance(node.tokenBalance(id, key)));
+                    }
+                }
+            }
+            return BinaryEncoding.body(records);
+        }
+        JsonWriter out = new JsonWriter(64 + 256 * ids.size()).beginObject().name("tokens").beginArray();
         for (byte[] id : ids) {
             rhizome.core.token.TokenMeta meta = node.tokenMeta(id);
             if (meta != null) {
-                JSONObject entry = tokenJson(meta);
+                writeToken(out, meta);
                 if (holder != null) {
-                    entry.put("balance", node.tokenBalance(id, key));
+                    out.field("balance", node.tokenBalance(id, key));
                 }
-                arr.put(entry);
+                out.endObject();
             }
         }
-        return json(new JSONObject().put("tokens", arr));
+        return BinaryEncoding.json(out.endArray().endObject());
     }
 
-    private static JSONObject tokenJson(rhizome.core.token.TokenMeta meta) {
-        return new JSONObject()
-            .put("id", hex(meta.id()))
-            .put("minter", meta.minter().toHexString())
-            .put("symbol", meta.symbol())
-            .put("name", meta.name())
-            .put("decimals", meta.decimals())
-            .put("totalSupply", meta.totalSupply())
-            .put("createdHeight", meta.createdHeight());
+    /** Opens a token object and writes its metadata; the caller may add fields, then closes it. */
+    private static JsonWriter writeToken(JsonWriter out, rhizome.core.token.TokenMeta meta) {
+        return out.beginObject()
+            .hexField("id", meta.id())
+            .hexUpperField("minter", meta.minter().toBytes())
+            .field("symbol", meta.symbol())
+            .field("name", meta.name())
+            .field("decimals", meta.decimals())
+            .field("totalSupply", meta.totalSupply())
+            .field("createdHeight", meta.createdHeight());
     }
 }
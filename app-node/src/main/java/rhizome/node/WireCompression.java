@@ -0,0 +1,153 @@
+package rhizome.node;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import io.activej.bytebuf.ByteBuf;
+import io.activej.http.HttpHeader;
+import io.activej.http.HttpHeaders;
+import io.activej.http.HttpRequest;
+
+/**
+ * Negotiated compression of the bulk peer streams ({@code /sync}, {@code /headers}, snapshot
+ * chunks). A peer that sends {@code Accept-Encoding: deflate} gets the identical self-framing
+ * byte stream run through DEFLATE (zlib framing, RFC 1950) and labelled
+ * {@code Content-Encoding: deflate}; any other peer gets the bytes as before, so an old client
+ * and a new server (or the reverse) still interoperate.
+ *
+ * <p><b>Streaming, both ends.</b> The server never deflates a whole window: {@link #frames}
+ * feeds the lazily encoded items through one {@link Deflater} and emits a sync-flushed frame each
+ * time about {@link #FLUSH_BYTES} of compressed output are pending, so memory stays one item plus
+ * one frame. The client inflates with an {@code InflaterInputStream} under the codec
+ * ({@code BlockCodec.decodeStreamed}), which is still bounded by its per-block size and count caps
+ * — those now apply to the INFLATED bytes, so a decompression bomb is cut off exactly where an
+ * oversized plain body was.
+ *
+ * <p>Level {@link Deflater#BEST_SPEED}: {@code /sync} and {@code /headers} compress on the HTTP
+ * loop, and the aim is fewer bytes on a capped link, not the last few percent of ratio. A stream
+ * the peer abandons mid-body leaves its {@code Deflater} to the JDK's cleaner.
+ */
+final class WireCompression {
+
+    static final String DEFLATE = "deflate";
+    /** Compressed bytes pending before a frame is flushed to the socket. */
+    static final int FLUSH_BYTES = 64 * 1024;
+    static final int LEVEL = Deflater.BEST_SPEED;
+
+    // Interned tokens (see NodeApi#H_ORIGIN): a request header is only found under them.
+    static final HttpHeader H_ACCEPT_ENCODING = HttpHeaders.ACCEPT_ENCODING;
+    static final HttpHeader H_CONTENT_ENCODING = HttpHeaders.CONTENT_ENCODING;
+    static final HttpHeader H_VARY = HttpHeaders.of("Vary");
+
+    private WireCompression() {}
+
+    /** True when the request's {@code Accept-Encoding} lists {@code deflate} with a non-zero q. */
+    static boolean acceptsDeflate(HttpRequest req) {
+        return acceptsDeflate(req.getHeader(H_ACCEPT_ENCODING));
+    }
+
+    static boolean acceptsDeflate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            if (!DEFLATE.equalsIgnoreCase(parts[0].trim())) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=") || param.startsWith("Q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2).trim()) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * The response body for a run of encoded items: each item as its own buffer, or (when
+     * {@code deflate}) the items' concatenation as one DEFLATE stream cut into sync-flushed
+     * frames. Lazy either way — an item is pulled from {@code items} only as the body is written.
+     */
+    static Iterator<ByteBuf> frames(Iterator<byte[]> items, boolean deflate) {
+        if (!deflate) {
+            return new Iterator<>() {
+                @Override public boolean hasNext() {
+                    return items.hasNext();
+                }
+                @Override public ByteBuf next() {
+                    return ByteBuf.wrapForReading(items.next());
+                }
+            };
+        }
+        return new Deflating(items);
+    }
+
+    /** One whole body deflated (snapshot chunks, served off the loop). */
+    static byte[] deflate(byte[] body) {
+        Deflater deflater = new Deflater(LEVEL);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 2));
+            try (DeflaterOutputStream z = new DeflaterOutputStream(out, deflater)) {
+                z.write(body);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // in-memory sink: unreachable
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static final class Deflating implements Iterator<ByteBuf> {
+        private final Iterator<byte[]> items;
+        private final Deflater deflater = new Deflater(LEVEL);
+        private final ByteArrayOutputStream pending = new ByteArrayOutputStream(FLUSH_BYTES);
+        private final DeflaterOutputStream z = new DeflaterOutputStream(pending, deflater, 8192, true);
+        private boolean finished;
+
+        Deflating(Iterator<byte[]> items) {
+            this.items = items;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !finished;
+        }
+
+        @Override
+        public ByteBuf next() {
+            if (finished) {
+                throw new NoSuchElementException();
+            }
+            try {
+                while (pending.size() < FLUSH_BYTES && items.hasNext()) {
+                    z.write(items.next());
+                }
+                if (items.hasNext()) {
+                    z.flush(); // SYNC_FLUSH: the peer can decode everything sent so far
+                } else {
+                    z.close();
+                    deflater.end();
+                    finished = true;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // in-memory sink: unreachable
+            }
+            byte[] frame = pending.toByteArray();
+            pending.reset();
+            return ByteBuf.wrapForReading(frame);
+        }
+    }
+}
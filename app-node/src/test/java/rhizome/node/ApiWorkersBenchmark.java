@@ -0,0 +1,173 @@
+package rhizome.node;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.activej.eventloop.Eventloop;
+import io.activej.http.AsyncServlet;
+import io.activej.http.HttpRequest;
+import io.activej.http.HttpResponse;
+import org.junit.jupiter.api.Test;
+
+import rhizome.core.blockchain.ChainEngine;
+import rhizome.core.blockchain.InMemoryChainStore;
+import rhizome.core.blockchain.NetworkParameters;
+import rhizome.core.blockchain.SignatureVerifier;
+import rhizome.core.ledger.InMemoryLedger;
+import rhizome.core.ledger.LedgerSnapshot;
+import rhizome.core.ledger.PublicAddress;
+import rhizome.core.mempool.MemPool;
+import rhizome.crypto.PowAlgorithm;
+import rhizome.net.RateLimiter;
+
+/**
+ * Not a correctness test — a load harness for the API worker models. Drives the real servlet
+ * in-process with {@link #CONCURRENCY} requests kept in flight, once per {@link ApiWorkers.Mode},
+ * and reports p50/p99 latency, throughput and the 429 shed rate.
+ * Enable manually: {@code ./gradlew :app-node:test --tests ApiWorkersBenchmark -Dbench=on}.
+ *
+ * <p>The mix is {@code /contract} (a READ whose code lookup blocks {@link #STORE_READ_MS}, off the
+ * engine lock — a RocksDB read that misses the block cache) and one in five {@code /block} (a
+ * DECODE under the engine lock). The lookup blocks the way the real one does: RocksDB reads are
+ * JNI calls, which on JDK 21 pin a virtual thread to its carrier, so it sleeps inside a monitor
+ * (pinned) rather than in a bare {@link Thread#sleep}, which would unmount the virtual thread and
+ * flatter the virtual model. {@code -Dbench.requests=} and {@code -Dbench.concurrency=} resize
+ * the run; the report also goes to {@code bench.out} (default {@code bench.txt}).
+ */
+class ApiWorkersBenchmark {
+
+    private static final int REQUESTS = Integer.getInteger("bench.requests", 20_000);
+    private static final int CONCURRENCY = Integer.getInteger("bench.concurrency", 512);
+    private static final long STORE_READ_MS = 2;
+
+    @Test
+    void probe() throws Exception {
+        if (!"on".equals(System.getProperty("bench"))) {
+            return;
+        }
+        NetworkParameters params = NetworkParameters.testnet().toBuilder()
+            .powAlgorithm(PowAlgorithm.SHA256).genesisDifficulty(4).build();
+        var verifier = new SignatureVerifier();
+        ChainEngine engine = ChainEngine.init(params, new InMemoryLedger(), new InMemoryChainStore(),
+            new LedgerSnapshot("bench", 0, params.chainId()), null, System::currentTimeMillis, verifier);
+        MemPool mempool = new MemPool(params, verifier, engine, 1000);
+        // Generous gates: the harness measures the worker model, not the aggregate budgets.
+        NodeService node = new NodeService(engine, mempool,
+            new RateLimiter(1_000_000, 1000, 1), new RateLimiter(1_000_000, 1000, 1),
+            new RateLimiter(1_000_000, 1000, 1));
+        node.setCodeSource(contract -> {
+            pinnedStoreRead();
+            return null;
+        });
+        String contract = PublicAddress.random().toHexString();
+
+        StringBuilder report = new StringBuilder(String.format(
+            "=== API worker probe (%d requests, %d in flight, %d cores, %d ms store read) ===%n",
+            REQUESTS, CONCURRENCY, Runtime.getRuntime().availableProcessors(), STORE_READ_MS));
+        for (ApiWorkers.Mode mode : ApiWorkers.Mode.values()) {
+            ApiWorkers workers = ApiWorkers.of(mode, Runtime.getRuntime().availableProcessors());
+            Eventloop eventloop = Eventloop.create();
+            eventloop.keepAlive(true);
+            Thread loop = new Thread(eventloop, "bench-eventloop");
+            loop.setDaemon(true);
+            loop.start();
+            try {
+                AsyncServlet servlet = NodeApi.servlet(eventloop, node,
+                    new RateLimiter(1_000_000_000, 1000, 65_536), null, null, null, workers);
+                run(eventloop, servlet, contract, 2_000); // warm-up
+                Result r = run(eventloop, servlet, contract, REQUESTS);
+                report.append(String.format(
+                    "%-7s  p50 %7.2f ms  p99 %7.2f ms  %8.0f req/s  shed %5.1f%%%n",
+                    mode, r.percentile(50), r.percentile(99), r.throughput(), 100.0 * r.shed / REQUESTS));
+            } finally {
+                eventloop.keepAlive(false);
+                eventloop.execute(eventloop::breakEventloop);
+                loop.join(2000);
+                workers.shutdownNow();
+                workers.awaitTermination(10, TimeUnit.SECONDS);
+            }
+        }
+        System.out.print(report);
+        try {
+            java.nio.file.Files.writeString(java.nio.file.Path.of(System.getProperty("bench.out", "bench.txt")),
+                report.toString());
+        } catch (Exception ignored) {
+            // best effort
+        }
+    }
+
+    /** A store read as the JNI call blocks: holding a monitor, so a virtual thread stays pinned. */
+    private static void pinnedStoreRead() {
+        Object frame = new Object();
+        synchronized (frame) {
+            try {
+                Thread.sleep(STORE_READ_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private record Result(long[] latenciesNs, long shed, long elapsedNs) {
+        double percentile(int p) {
+            long[] sorted = latenciesNs.clone();
+            Arrays.sort(sorted);
+            return sorted[Math.min(sorted.length - 1, sorted.length * p / 100)] / 1e6;
+        }
+
+        double throughput() {
+            return latenciesNs.length / (elapsedNs / 1e9);
+        }
+    }
+
+    /** Issues {@code total} requests from the event loop, {@link #CONCURRENCY} outstanding at a time. */
+    private static Result run(Eventloop eventloop, AsyncServlet servlet, String contract, int total)
+            throws Exception {
+        long[] latencies = new long[total];
+        AtomicLong shed = new AtomicLong();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        long start = System.nanoTime();
+        eventloop.execute(new Runnable() {
+            int issued;
+            int finished;
+
+            @Override
+            public void run() {
+                for (int i = 0; i < CONCURRENCY && issued < total; i++) {
+                    issue();
+                }
+            }
+
+            private void issue() {
+                int n = issued++;
+                String url = n % 5 == 0
+                    ? "http://x/block?blockId=1"
+                    : "http://x/contract?address=" + contract;
+                long t0 = System.nanoTime();
+                io.activej.promise.Promise<HttpResponse> response;
+                try {
+                    response = servlet.serve(HttpRequest.get(url).build());
+                } catch (Exception e) {
+                    response = io.activej.promise.Promise.ofException(e);
+                }
+                response
+                    .then(resp -> resp.loadBody().map($ -> resp))
+                    .whenComplete((resp, e) -> {
+                        latencies[n] = System.nanoTime() - t0;
+                        if (e != null || resp.getCode() == 429) {
+                            shed.incrementAndGet();
+                        }
+                        if (++finished == total) {
+                            done.complete(null);
+                        } else if (issued < total) {
+                            issue();
+                        }
+                    });
+            }
+        });
+        done.get(5, TimeUnit.MINUTES);
+        return new Result(latencies, shed.get(), System.nanoTime() - start);
+    }
+}
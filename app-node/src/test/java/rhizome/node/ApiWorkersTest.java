@@ -0,0 +1,113 @@
+package rhizome.node;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Per-cost-class admission: a lane runs at most its permits at once, queues up to its backlog,
+ * sheds the rest, and leaves the other lanes untouched — including their threads, when a
+ * store-bound lane's handlers block pinned.
+ */
+class ApiWorkersTest {
+
+    @Test
+    void laneBoundsConcurrencyQueuesTheBacklogAndShedsTheRest() throws Exception {
+        ExecutorService threads = Executors.newCachedThreadPool();
+        try {
+            ApiWorkers.Lane lane = new ApiWorkers.Lane(ApiWorkers.Cost.SCAN, threads, 2, 3);
+            CountDownLatch release = new CountDownLatch(1);
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger peak = new AtomicInteger();
+            CountDownLatch finished = new CountDownLatch(5);
+            for (int i = 0; i < 5; i++) {
+                lane.execute(() -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    finished.countDown();
+                });
+            }
+            assertEquals(5, lane.inFlight());
+            assertThrows(RejectedExecutionException.class, () -> lane.execute(() -> { }));
+            assertEquals(1, lane.shed());
+
+            release.countDown();
+            assertTrue(finished.await(5, TimeUnit.SECONDS));
+            assertEquals(2, peak.get(), "never more than the permits at once");
+            for (int i = 0; i < 50 && lane.inFlight() > 0; i++) {
+                Thread.sleep(10); // the last permits are released just after the job returns
+            }
+            assertEquals(0, lane.inFlight());
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    void pinnedStoreReadsCannotStarveTheOtherLanes() throws Exception {
+        // Every READ permit blocks inside a monitor — pinned, as a RocksDB JNI read is on a
+        // virtual thread. There are more of them than carriers; dry-runs must still run.
+        int cpus = Runtime.getRuntime().availableProcessors();
+        ApiWorkers workers = ApiWorkers.virtual(cpus);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < ApiWorkers.Cost.READ.permits(cpus); i++) {
+                workers.lane(ApiWorkers.Cost.READ).execute(() -> {
+                    Object frame = new Object();
+                    synchronized (frame) {
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                });
+            }
+            CompletableFuture<Boolean> gas = new CompletableFuture<>();
+            workers.lane(ApiWorkers.Cost.GAS).execute(() -> gas.complete(Thread.currentThread().isVirtual()));
+            assertTrue(gas.get(5, TimeUnit.SECONDS), "dry-runs run on a free carrier");
+            for (ApiWorkers.Cost c : new ApiWorkers.Cost[] {ApiWorkers.Cost.SCAN, ApiWorkers.Cost.INGEST}) {
+                CompletableFuture<Boolean> store = new CompletableFuture<>();
+                workers.lane(c).execute(() -> store.complete(Thread.currentThread().isVirtual()));
+                assertEquals(false, store.get(5, TimeUnit.SECONDS), c + " runs on platform threads");
+            }
+        } finally {
+            release.countDown();
+            workers.shutdownNow();
+            assertTrue(workers.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void poolModeSharesOneExecutorAndOtherExecutorsPassThrough() throws Exception {
+        ApiWorkers pool = ApiWorkers.pool(2);
+        try {
+            assertSame(pool.lane(ApiWorkers.Cost.DECODE), pool.lane(ApiWorkers.Cost.GAS));
+            assertTrue(pool.lanes().isEmpty());
+        } finally {
+            pool.shutdownNow();
+        }
+        java.util.concurrent.Executor direct = Runnable::run;
+        assertSame(direct, ApiWorkers.lane(direct, ApiWorkers.Cost.SCAN));
+        assertEquals(null, ApiWorkers.lane(null, ApiWorkers.Cost.SCAN));
+        assertEquals(ApiWorkers.Mode.POOL, ApiWorkers.Mode.parse(" Pool "));
+        assertEquals(ApiWorkers.Mode.VIRTUAL, ApiWorkers.Mode.parse(null));
+        assertEquals(ApiWorkers.Mode.VIRTUAL, ApiWorkers.Mode.parse("virtual"));
+    }
+}
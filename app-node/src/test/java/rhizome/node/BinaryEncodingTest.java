@@ -0,0 +1,55 @@
+package rhizome.node;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Binary negotiation needs the media type named explicitly (a wildcard never selects it, q=0
+ * refuses it), and a record body splits back into exactly its records — strictly, so a truncated
+ * body is an error rather than a short payload.
+ */
+class BinaryEncodingTest {
+
+    @Test
+    void onlyAnExplicitNonZeroAcceptSelectsBinary() {
+        assertTrue(BinaryEncoding.accepts(BinaryEncoding.MEDIA_TYPE));
+        assertTrue(BinaryEncoding.accepts("application/json;q=0.9, Application/X-Rhizome-Binary ; q=1"));
+        assertFalse(BinaryEncoding.accepts("application/x-rhizome-binary;q=0"));
+        assertFalse(BinaryEncoding.accepts("*/*"));
+        assertFalse(BinaryEncoding.accepts("application/*"));
+        assertFalse(BinaryEncoding.accepts((String) null));
+    }
+
+    @Test
+    void recordsRoundTripAndTruncationFails() {
+        byte[] cursor = {1, 2, 3};
+        byte[] body = concat(BinaryEncoding.record(BinaryEncoding.BOX, new byte[0]),
+            BinaryEncoding.record(BinaryEncoding.CURSOR, cursor), BinaryEncoding.balance(-5));
+        List<BinaryEncoding.Record> records = BinaryEncoding.decodeAll(body);
+        assertEquals(3, records.size());
+        assertEquals(BinaryEncoding.BOX, records.get(0).type());
+        assertEquals(0, records.get(0).payload().length);
+        assertArrayEquals(cursor, records.get(1).payload());
+        assertEquals(-5, java.nio.ByteBuffer.wrap(records.get(2).payload()).getLong());
+        assertEquals(-1, BinaryEncoding.transactionHeight(body));
+
+        assertThrows(IllegalArgumentException.class,
+            () -> BinaryEncoding.decodeAll(java.util.Arrays.copyOf(body, body.length - 1)));
+        assertThrows(IllegalArgumentException.class, () -> BinaryEncoding.decodeAll(new byte[] {BinaryEncoding.BOX, 0}));
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        for (byte[] p : parts) {
+            out.writeBytes(p);
+        }
+        return out.toByteArray();
+    }
+}
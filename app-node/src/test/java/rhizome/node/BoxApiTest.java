@@ -175,6 +175,48 @@ class BoxApiTest {
         assertEquals(404, missing.getCode());
     }
 
+    @Test
+    void binaryAcceptGetsTheStoredCodecsInRecords() throws Exception {
+        mine(List.of(boxCreate(2000, 0, BoxRegister.string("a")), boxCreate(3000, 1),
+            tokenMint(1_000_000, 8, "PNDA", "Panda Coin", 2)));
+        HttpResponse r = call(HttpRequest.get("http://x/boxes?limit=1&owner=" + sender.toHexString())
+            .withHeader(BinaryEncoding.H_ACCEPT, BinaryEncoding.MEDIA_TYPE).build());
+        assertEquals(200, r.getCode());
+        assertEquals(BinaryEncoding.MEDIA_TYPE, r.getHeader(io.activej.http.HttpHeaders.CONTENT_TYPE));
+        var records = BinaryEncoding.decodeAll(r.getBody().getArray());
+        assertEquals(2, records.size());
+        assertEquals(BinaryEncoding.BOX, records.get(0).type());
+        Box first = Box.deserialize(records.get(0).payload());
+        assertEquals(BinaryEncoding.CURSOR, records.get(1).type());
+        assertTrue(java.util.Arrays.equals(first.id(), records.get(1).payload()), "the cursor resumes after the page");
+        // The JSON page of the same request names the same box and cursor.
+        HttpResponse jsonPage = call(HttpRequest.get("http://x/boxes?limit=1&owner=" + sender.toHexString()).build());
+        JSONObject page = json(jsonPage);
+        assertTrue(Utils.bytesToHex(first.id()).equalsIgnoreCase(page.getJSONArray("boxes").getJSONObject(0).getString("id")));
+        assertEquals(Utils.bytesToHex(first.id()), page.getString("next"));
+
+        var held = BinaryEncoding.decodeAll(call(HttpRequest.get("http://x/tokens?holder=" + sender.toHexString())
+            .withHeader(BinaryEncoding.H_ACCEPT, "application/json;q=0.5, " + BinaryEncoding.MEDIA_TYPE).build())
+            .getBody().getArray());
+        assertEquals(List.of(BinaryEncoding.TOKEN, BinaryEncoding.BALANCE), held.stream().map(BinaryEncoding.Record::type).toList());
+        assertEquals("PNDA", TokenMeta.deserialize(held.get(0).payload()).symbol());
+        assertEquals(1_000_000, java.nio.ByteBuffer.wrap(held.get(1).payload()).getLong());
+        // Both representations name the header they were chosen by, so no shared cache mixes them.
+        assertEquals("Accept", r.getHeader(WireCompression.H_VARY));
+        assertEquals("Accept", jsonPage.getHeader(WireCompression.H_VARY));
+        assertEquals("Accept", call(HttpRequest.get("http://x/box?id=" + Utils.bytesToHex(first.id())).build())
+            .getHeader(WireCompression.H_VARY));
+        assertEquals("Accept", call(HttpRequest.get("http://x/tokens?holder=" + sender.toHexString()).build())
+            .getHeader(WireCompression.H_VARY));
+        String tokenId = Utils.bytesToHex(TokenMeta.deserialize(held.get(0).payload()).id());
+        assertEquals("Accept", call(HttpRequest.get("http://x/token?id=" + tokenId).build()).getHeader(WireCompression.H_VARY));
+        // Errors stay JSON whatever was asked for.
+        HttpResponse missing = call(HttpRequest.get("http://x/token?id=" + Utils.bytesToHex(new byte[32]))
+            .withHeader(BinaryEncoding.H_ACCEPT, BinaryEncoding.MEDIA_TYPE).build());
+        assertEquals(404, missing.getCode());
+        assertTrue(json(missing).has("error"));
+    }
+
     @Test
     void boxesByOwnerLists() throws Exception {
         mine(List.of(boxCreate(2000, 0), boxCreate(2000, 1)));
@@ -0,0 +1,99 @@
+package rhizome.node;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The rolling statistics agree with a recount from scratch through applies, window roll-off, pops
+ * (blocks pushed out come back), ring wrap-around and a backward backfill that races the listener.
+ */
+class ChainStatsTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @Test
+    void spansRollOffByAgeAndCountAndComeBackOnPop() {
+        ChainStats stats = new ChainStats(60, 4);
+        for (long h = 1; h <= 200; h++) {
+            stats.onApplied(summary(h, h * MINUTE));
+        }
+        assertWindow(stats, "recent", 4, 197);
+        assertWindow(stats, "1h", 60, 141);    // ts > 200 min − 60 min
+        assertWindow(stats, "24h", 200, 1);
+
+        stats.onPopped(200);
+        stats.onPopped(199);
+        assertWindow(stats, "recent", 4, 195); // the two blocks the pops pushed back in
+        assertWindow(stats, "1h", 60, 139);
+        assertEquals(198, stats.height());
+
+        stats.onApplied(summary(199, 199 * MINUTE + 30 * MINUTE)); // a late block: the hour moves up
+        assertWindow(stats, "1h", 30, 170);
+    }
+
+    @Test
+    void ringWrapEvictsTheOldestBlocks() {
+        ChainStats stats = new ChainStats(3600, 4);
+        int capacity = stats.capacity();
+        for (long h = 1; h <= capacity + 10L; h++) {
+            stats.onApplied(summary(h, h));
+        }
+        assertWindow(stats, "7d", capacity, 11);
+    }
+
+    @Test
+    void backfillStopsOnceEverySpanIsCoveredAndDropsRacedBlocks() {
+        Map<Long, ChainStats.Summary> chain = new HashMap<>();
+        for (long h = 1; h <= 101; h++) {
+            chain.put(h, summary(h, h * ChainStats.HOUR_MS * 3)); // 3 h blocks: 7 d ≈ 56 blocks
+        }
+        ChainStats stats = new ChainStats(60, 8);
+        stats.onApplied(chain.get(100L)); // the listener got the tip first
+        long[] calls = {0};
+        long added = stats.backfill(100, h -> {
+            calls[0]++;
+            if (h == 90) {
+                stats.onApplied(chain.get(101L)); // an apply mid-backfill only moves the top
+            }
+            return chain.get(h);
+        });
+        assertWindow(stats, "7d", 56, 46);
+        assertWindow(stats, "recent", 8, 94);
+        assertEquals(55, calls[0]); // 99 … 45: block 45 is outside every span, so the walk ends there
+        assertEquals(55, added);
+
+        ChainStats raced = new ChainStats(60, 8);
+        raced.onApplied(chain.get(100L));
+        added = raced.backfill(100, h -> {
+            if (h == 95) {
+                raced.onApplied(summary(300, 300 * ChainStats.HOUR_MS * 3)); // a restore jumps the tip
+            }
+            return chain.get(h);
+        });
+        assertEquals(4, added); // 99 … 96; 95 no longer borders the ring and 299 is unknown
+        assertWindow(raced, "7d", 1, 300);
+    }
+
+    private static ChainStats.Summary summary(long h, long ts) {
+        return new ChainStats.Summary(h, ts, 3, 100 * h, h, 2, 0, 1, 0);
+    }
+
+    private static void assertWindow(ChainStats stats, String name, long blocks, long firstHeight) {
+        ChainStats.Window w = stats.window(name);
+        assertEquals(blocks, w.blocks(), name + " blocks");
+        long gas = 0;
+        long bytes = 0;
+        for (long h = firstHeight; h < firstHeight + blocks; h++) {
+            gas += h;
+            bytes += 100 * h;
+        }
+        assertEquals(gas, w.gas(), name + " gas");
+        assertEquals(bytes, w.bytes(), name + " bytes");
+        assertEquals(3 * blocks, w.txs(), name + " txs");
+        assertEquals(blocks, w.boxOps(), name + " box ops");
+    }
+}
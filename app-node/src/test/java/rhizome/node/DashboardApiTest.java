@@ -94,6 +94,8 @@ class DashboardApiTest {
         node.setLogSource(processor::logs);
         node.setCodeSource(processor::codeAt);
         node.setContracts(processor);
+        engine.setOnBlockApplied(node::onBlockApplied);
+        engine.setOnBlockPopped(node::onBlockPopped);
         servlet = NodeApi.servlet(eventloop, node);
 
         eventloop.keepAlive(true);
@@ -224,6 +226,22 @@ class DashboardApiTest {
         assertEquals(3, stats.getLong("windowTxCount"));
         assertTrue(stats.getLong("avgBlockIntervalMs") > 0);
         assertNotNull(stats.getString("totalWork"));
+        // The rolling windows: the backfill adds genesis, which the listener never saw.
+        assertEquals(1, node.backfillStats());
+        stats = new JSONObject(body(call(HttpRequest.get("http://x/stats").build())));
+        JSONObject day = stats.getJSONObject("windows").getJSONObject("24h");
+        assertEquals(3, day.getLong("blocks"));
+        assertEquals(3, day.getLong("transactions"));
+        assertEquals(3, stats.getLong("windowBlocks"));
+
+        JSONObject series = new JSONObject(body(call(HttpRequest.get("http://x/stats/series?window=1h&buckets=6").build())));
+        assertEquals(6, series.getJSONArray("buckets").length());
+        long blocks = 0;
+        for (int i = 0; i < 6; i++) {
+            blocks += series.getJSONArray("buckets").getJSONObject(i).getLong("blocks");
+        }
+        assertEquals(3, blocks);
+        assertEquals(400, call(HttpRequest.get("http://x/stats/series?window=recent").build()).getCode());
     }
 
     @Test
@@ -0,0 +1,103 @@
+package rhizome.node;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import rhizome.core.block.BlockImpl;
+import rhizome.core.blockchain.ChainEngine;
+import rhizome.core.blockchain.InMemoryChainStore;
+import rhizome.core.blockchain.Miner;
+import rhizome.core.blockchain.NetworkParameters;
+import rhizome.core.blockchain.SignatureVerifier;
+import rhizome.core.ledger.InMemoryLedger;
+import rhizome.core.ledger.LedgerSnapshot;
+import rhizome.core.ledger.PublicAddress;
+import rhizome.core.mempool.ExecutionStatus;
+import rhizome.core.merkletree.MerkleTree;
+import rhizome.core.transaction.Transaction;
+import rhizome.core.transaction.TransactionAmount;
+import rhizome.crypto.PowAlgorithm;
+
+/**
+ * Operator recordings: the shipped settings parse, a start/stop cycle dumps a file holding the
+ * node's own events with their phase breakdown, a second start is refused while one runs, and a
+ * recording that stopped itself at its bound is still reported by the next stop.
+ */
+class FlightRecordingsTest {
+
+    private static final NetworkParameters PARAMS = NetworkParameters.testnet().toBuilder()
+        .powAlgorithm(PowAlgorithm.SHA256).genesisDifficulty(4).minDifficulty(4).build();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recordsBlockAddEventsToTheDump() throws Exception {
+        FlightRecordings recordings = new FlightRecordings(dir);
+        FlightRecordings.Status started = recordings.start(Duration.ofMinutes(5), 0);
+        assertTrue(started.running());
+        assertThrows(IllegalStateException.class, () -> recordings.start(Duration.ofMinutes(5), 0));
+
+        ChainEngine engine = ChainEngine.init(PARAMS, new InMemoryLedger(), new InMemoryChainStore(),
+            new LedgerSnapshot("t", 0, PARAMS.chainId()), null, () -> 90_000L, new SignatureVerifier());
+        assertEquals(ExecutionStatus.SUCCESS, engine.addBlock(block(engine)));
+
+        FlightRecordings.Status stopped = recordings.stop();
+        assertFalse(stopped.running());
+        assertTrue(Files.size(stopped.file()) > 0);
+        assertThrows(IllegalStateException.class, recordings::stop);
+
+        List<RecordedEvent> adds = RecordingFile.readAllEvents(stopped.file()).stream()
+            .filter(e -> e.getEventType().getName().equals("rhizome.BlockAdd")).toList();
+        assertEquals(1, adds.size());
+        RecordedEvent add = adds.get(0);
+        assertEquals(engine.height(), add.getLong("height"));
+        assertEquals("SUCCESS", add.getString("status"));
+        assertEquals(1, add.getInt("transactions"));
+        assertTrue(add.getDuration("execute").toNanos() > 0);
+        recordings.close();
+    }
+
+    @Test
+    void aStopAfterTheRecordingExpiredReportsItsDump() throws Exception {
+        FlightRecordings recordings = new FlightRecordings(dir);
+        recordings.start(Duration.ofSeconds(1), 0);
+        for (int i = 0; i < 200 && recordings.status().running(); i++) {
+            Thread.sleep(50);
+        }
+        assertFalse(recordings.status().running(), "the recording stops itself at maxAge");
+
+        FlightRecordings.Status stopped = recordings.stop();
+        assertFalse(stopped.running());
+        assertTrue(Files.size(stopped.file()) > 0);
+        assertThrows(IllegalStateException.class, recordings::stop);
+        // Released: a new recording may start.
+        assertTrue(recordings.start(Duration.ofMinutes(5), 0).running());
+        recordings.close();
+    }
+
+    private static BlockImpl block(ChainEngine engine) {
+        long h = engine.height() + 1;
+        var b = (BlockImpl) BlockImpl.builder().id((int) h)
+            .timestamp(90_000L).difficulty(engine.difficulty())
+            .lastBlockHash(engine.tipHash()).build();
+        b.addTransaction(Transaction.of(PublicAddress.random(), new TransactionAmount(PARAMS.miningReward(h))));
+        var tree = new MerkleTree();
+        tree.setItems(b.transactions());
+        b.merkleRoot(tree.getRootHash());
+        b.nonce(Miner.mineNonce(b.hash(), b.difficulty(), PARAMS.powAlgorithm()));
+        return b;
+    }
+}
@@ -0,0 +1,58 @@
+package rhizome.node;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The streaming writer emits exactly the document its calls describe — commas, nesting, escapes,
+ * UTF-8 and both hex cases — and refuses a call sequence that would not be JSON.
+ */
+class JsonWriterTest {
+
+    @Test
+    void writesNestedDocumentsWithCommasInPlace() {
+        JsonWriter w = new JsonWriter(16) // tiny: forces the buffer to grow
+            .beginObject()
+            .field("height", 42)
+            .field("min", Long.MIN_VALUE)
+            .hexField("id", new byte[] {0x0a, (byte) 0xff})
+            .hexUpperField("owner", new byte[] {0x0a, (byte) 0xff})
+            .name("ok").value(true)
+            .name("none").value((String) null)
+            .name("list").beginArray()
+            .value(-7)
+            .beginObject().endObject()
+            .beginArray().endArray()
+            .value("x")
+            .endArray()
+            .endObject();
+        assertEquals("{\"height\":42,\"min\":-9223372036854775808,\"id\":\"0aff\",\"owner\":\"0AFF\",\"ok\":true,"
+            + "\"none\":null,\"list\":[-7,{},[],\"x\"]}", new String(w.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void escapesStringsAsOrgJsonDoesAndEncodesUtf8() {
+        String raw = "q\"b\\s</t>\n\t\u0001\u2028é€😀\ud800";
+        byte[] out = new JsonWriter().beginArray().value(raw).endArray().toByteArray();
+        assertEquals("[\"q\\\"b\\\\s<\\/t>\\n\\t\\u0001\\u2028é€😀\uFFFD\"]", new String(out, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void refusesSequencesThatAreNotJson() {
+        assertThrows(IllegalStateException.class, () -> new JsonWriter().beginObject().value(1));
+        assertThrows(IllegalStateException.class, () -> new JsonWriter().beginArray().name("a"));
+        assertThrows(IllegalStateException.class, () -> new JsonWriter().beginObject().endArray());
+        assertThrows(IllegalStateException.class, () -> new JsonWriter().beginObject().name("a").endObject());
+        assertThrows(IllegalStateException.class, () -> new JsonWriter().beginObject().toByteArray());
+        assertThrows(IllegalStateException.class, () -> new JsonWriter().value(1).value(2));
+        JsonWriter deep = new JsonWriter();
+        for (int i = 0; i < JsonWriter.MAX_DEPTH; i++) {
+            deep.beginArray();
+        }
+        assertThrows(IllegalStateException.class, deep::beginArray);
+    }
+}
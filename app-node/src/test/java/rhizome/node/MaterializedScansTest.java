@@ -0,0 +1,198 @@
+package rhizome.node;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import rhizome.core.blockchain.NetworkParameters;
+import rhizome.core.box.Box;
+import rhizome.core.box.BoxProcessor;
+import rhizome.core.box.BoxRegister;
+import rhizome.core.box.BoxStore;
+import rhizome.core.box.DefaultBoxProcessor;
+import rhizome.core.box.InMemoryBoxStore;
+import rhizome.core.box.ScanPredicate;
+import rhizome.core.common.Utils;
+import rhizome.core.ledger.PublicAddress;
+
+/**
+ * Materialised scans: block changes flip membership only in the scans they can affect, a pop
+ * restores the previous sets exactly, and a scan registered over existing boxes pages through
+ * every match once — backfilled window by window, with blocks landing in between.
+ */
+class MaterializedScansTest {
+
+    private final NetworkParameters params = NetworkParameters.testnet();
+    private final PublicAddress alice = PublicAddress.random();
+    private final PublicAddress bob = PublicAddress.random();
+    private final InMemoryBoxStore store = new InMemoryBoxStore();
+    private final DefaultBoxProcessor proc = new DefaultBoxProcessor(store, params);
+    private final MaterializedScans scans = new MaterializedScans(
+        (p, after, limit) -> proc.scan(p, after, limit, NodeService.BOX_SCAN_WINDOW), store::get, 10);
+
+    private Box box(PublicAddress owner, long nonce, BoxRegister... regs) {
+        return new Box(Box.deriveId(owner, nonce), owner, 1000, 1, 1, List.of(regs));
+    }
+
+    private void apply(long height, BoxStore.BoxMutation... muts) {
+        store.applyBlock(height, List.of(muts));
+        scans.onApplied(height, List.of(muts));
+    }
+
+    private void pop(long height) {
+        store.revertBlock(height);
+        scans.onPopped(height);
+    }
+
+    private Set<String> all(int scanId) {
+        Set<String> ids = new TreeSet<>();
+        byte[] after = null;
+        do {
+            BoxProcessor.ScanPage page = scans.page(scanId, after, 7);
+            for (Box b : page.matches()) {
+                assertTrue(ids.add(Utils.bytesToHex(b.id())), "a match is served once");
+            }
+            after = page.nextCursor();
+        } while (after != null);
+        return ids;
+    }
+
+    private static Set<String> ids(Box... boxes) {
+        Set<String> out = new TreeSet<>();
+        for (Box b : boxes) {
+            out.add(Utils.bytesToHex(b.id()));
+        }
+        return out;
+    }
+
+    @Test
+    void blocksFlipMembershipAndPopsRestoreIt() {
+        byte[] tag = {7};
+        scans.add(1, new ScanPredicate.OwnerEquals(alice.toBytes()));
+        scans.add(2, new ScanPredicate.RegisterEquals(0, tag));
+        assertEquals(Set.of(), all(1)); // backfill over an empty store completes at once
+
+        Box a = box(alice, 0, BoxRegister.bytes(tag));
+        Box b = box(bob, 0, BoxRegister.bytes(new byte[] {1}));
+        apply(2, BoxStore.BoxMutation.write(a), BoxStore.BoxMutation.write(b));
+        assertEquals(ids(a), all(1));
+        assertEquals(ids(a), all(2));
+
+        // Re-owned and re-tagged: leaves scan 1 (via the reverse map), stays in neither.
+        Box moved = new Box(a.id(), bob, 1000, 1, 1, List.of(BoxRegister.bytes(new byte[] {2})));
+        Box tagged = new Box(b.id(), bob, 1000, 1, 1, List.of(BoxRegister.bytes(tag)));
+        apply(3, BoxStore.BoxMutation.write(moved), BoxStore.BoxMutation.write(tagged));
+        assertEquals(Set.of(), all(1));
+        assertEquals(ids(b), all(2));
+
+        apply(4, BoxStore.BoxMutation.delete(b.id()));
+        assertEquals(Set.of(), all(2));
+
+        pop(4);
+        assertEquals(ids(b), all(2));
+        pop(3);
+        assertEquals(ids(a), all(1));
+        assertEquals(ids(a), all(2));
+        pop(2);
+        assertEquals(Set.of(), all(1));
+        assertEquals(Set.of(), all(2));
+        assertEquals(0, scans.size());
+    }
+
+    @Test
+    void dispatchKeysCoverEveryMatchWithTheFewestKeys() {
+        byte[] tag = {9};
+        ScanPredicate owner = new ScanPredicate.OwnerEquals(alice.toBytes());
+        ScanPredicate register = new ScanPredicate.RegisterEquals(1, tag);
+        ScanPredicate contains = new ScanPredicate.RegisterContains(0, tag);
+        assertEquals(Set.of("o" + Utils.bytesToHex(alice.toBytes())), MaterializedScans.dispatchKeys(owner));
+        assertEquals(Set.of("r1:09"), MaterializedScans.dispatchKeys(register));
+        assertNull(MaterializedScans.dispatchKeys(contains));
+        // An and needs only one part's keys; an or needs all of them, or none if a part has none.
+        assertEquals(Set.of("r1:09"), MaterializedScans.dispatchKeys(new ScanPredicate.And(List.of(
+            contains, new ScanPredicate.Or(List.of(owner, new ScanPredicate.OwnerEquals(bob.toBytes()))),
+            register))));
+        assertEquals(2, MaterializedScans.dispatchKeys(new ScanPredicate.Or(List.of(owner, register))).size());
+        assertNull(MaterializedScans.dispatchKeys(new ScanPredicate.Or(List.of(owner, contains))));
+        assertNull(MaterializedScans.dispatchKeys(new ScanPredicate.And(List.of(contains))));
+    }
+
+    @Test
+    void unrelatedChangesLeaveOtherScansUntouched() {
+        scans.add(1, new ScanPredicate.OwnerEquals(alice.toBytes()));
+        scans.add(2, new ScanPredicate.OwnerEquals(bob.toBytes()));
+        all(1);
+        all(2);
+        Box a = box(alice, 0);
+        apply(2, BoxStore.BoxMutation.write(a));
+        assertEquals(ids(a), all(1));
+        assertEquals(Set.of(), all(2));
+        scans.drop(1);
+        assertNull(scans.page(1, null, 10), "a dropped scan is served live by the caller");
+        assertEquals(0, scans.size());
+    }
+
+    @Test
+    void backfillPagesEveryExistingMatchOnceWhileBlocksLand() {
+        // A substring predicate has no dispatch key and no index: the backfill walks the whole
+        // table, three windows of 512, while blocks add and remove matches on both sides of it.
+        byte[] needle = "oracle".getBytes();
+        List<BoxStore.BoxMutation> seed = new ArrayList<>();
+        Set<String> expected = new TreeSet<>();
+        for (int i = 0; i < 1500; i++) {
+            Box b = box(i % 2 == 0 ? alice : bob, i,
+                BoxRegister.string(i % 3 == 0 ? "price-oracle-" + i : "other-" + i));
+            seed.add(BoxStore.BoxMutation.write(b));
+            if (i % 3 == 0) {
+                expected.add(Utils.bytesToHex(b.id()));
+            }
+        }
+        store.applyBlock(1, seed);
+        scans.add(5, new ScanPredicate.RegisterContains(0, needle));
+
+        Set<String> seen = new TreeSet<>();
+        byte[] after = null;
+        int pages = 0;
+        long height = 2;
+        String freshId = null;
+        do {
+            BoxProcessor.ScanPage page = scans.page(5, after, 50);
+            for (Box b : page.matches()) {
+                assertTrue(seen.add(Utils.bytesToHex(b.id())));
+            }
+            after = page.nextCursor();
+            if (pages++ == 2) {
+                // Mid-scan: one new match, one existing match deleted. Like any cursor, the
+                // session sees the new match only if its id is still ahead of the cursor, and
+                // the deleted one only if it was already served.
+                Box fresh = box(alice, 10_000, BoxRegister.string("new-oracle"));
+                freshId = Utils.bytesToHex(fresh.id());
+                String gone = expected.iterator().next();
+                apply(height++, BoxStore.BoxMutation.write(fresh),
+                    BoxStore.BoxMutation.delete(Utils.hexStringToByteArray(gone)));
+                if (after == null || freshId.compareTo(Utils.bytesToHex(after)) > 0) {
+                    expected.add(freshId);
+                }
+                if (!seen.contains(gone)) {
+                    expected.remove(gone);
+                }
+            }
+        } while (after != null);
+
+        Set<String> served = new TreeSet<>(seen);
+        assertTrue(served.containsAll(expected) && expected.containsAll(served),
+            "served " + served.size() + " of " + expected.size());
+        // Complete now: a second pass is a pure cursor over the set, same answer (less the delete).
+        Set<String> now = new TreeSet<>(expected);
+        now.add(freshId);
+        now.removeIf(id -> store.get(Utils.hexStringToByteArray(id)) == null);
+        assertEquals(now, all(5));
+    }
+}
@@ -0,0 +1,135 @@
+package rhizome.node;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import rhizome.core.block.BlockImpl;
+import rhizome.core.blockchain.ChainEngine;
+import rhizome.core.blockchain.InMemoryChainStore;
+import rhizome.core.blockchain.Miner;
+import rhizome.core.blockchain.NetworkParameters;
+import rhizome.core.blockchain.SignatureVerifier;
+import rhizome.core.ledger.InMemoryLedger;
+import rhizome.core.ledger.LedgerSnapshot;
+import rhizome.core.ledger.PublicAddress;
+import rhizome.core.mempool.ExecutionStatus;
+import rhizome.core.merkletree.MerkleTree;
+import rhizome.core.transaction.Transaction;
+import rhizome.core.transaction.TransactionAmount;
+import rhizome.crypto.PowAlgorithm;
+
+/**
+ * The metrics registry: log-linear buckets stay within their stated error, the Prometheus text
+ * is well-formed (one HELP/TYPE per family, cumulative buckets ending at the count), and the
+ * engine probe times every phase a block reaches — and only those.
+ */
+class MetricsTest {
+
+    private static final NetworkParameters PARAMS = NetworkParameters.testnet().toBuilder()
+        .powAlgorithm(PowAlgorithm.SHA256).genesisDifficulty(4).minDifficulty(4).build();
+
+    @Test
+    void bucketsRoundTripWithinAnEighthOfTheValue() {
+        for (int b = 0; b < Metrics.Histogram.BUCKETS; b++) {
+            assertEquals(b, Metrics.Histogram.bucket(Metrics.Histogram.lowerBound(b)));
+        }
+        for (long v : new long[] {0, 7, 8, 9, 1000, 123_456, 1L << 40, Long.MAX_VALUE}) {
+            long low = Metrics.Histogram.lowerBound(Metrics.Histogram.bucket(v));
+            assertTrue(low <= v && v - low <= v / 8, v + " in bucket from " + low);
+        }
+        Metrics.Histogram h = new Metrics().histogram("x_seconds", "x");
+        for (int i = 1; i <= 100; i++) {
+            h.record(i * 1000L);
+        }
+        assertEquals(100, h.count());
+        long p99 = h.quantile(0.99);
+        assertTrue(p99 >= 87_000 && p99 <= 99_000, "p99 " + p99);
+    }
+
+    @Test
+    void rendersPrometheusText() {
+        Metrics m = new Metrics();
+        m.counter("t_total", "things", "kind", "a").add(3);
+        m.counter("t_total", "things", "kind", "b\"q").increment();
+        m.gauge("t_depth", "depth", () -> 7);
+        m.summary("t_op_seconds", "op", () -> new Metrics.Summary(4, 0.5, 0.1, 0.25), "store", "s");
+        Metrics.Histogram h = m.histogram("t_latency_seconds", "latency");
+        h.record(500);          // below the first bound (~1 µs)
+        h.record(3_000);        // ~3 µs
+        h.record(2_000_000);    // 2 ms
+        h.record(100_000_000_000L); // 100 s: only +Inf
+        String text = m.render();
+
+        assertEquals(1, text.split("# TYPE t_total counter\n", -1).length - 1);
+        assertTrue(text.contains("t_total{kind=\"a\"} 3\n"));
+        assertTrue(text.contains("t_total{kind=\"b\\\"q\"} 1\n"));
+        assertTrue(text.contains("# TYPE t_depth gauge\nt_depth 7\n"));
+        assertTrue(text.contains("t_op_seconds{store=\"s\",quantile=\"0.99\"} 0.25\n"));
+        assertTrue(text.contains("t_op_seconds_count{store=\"s\"} 4\n"));
+        assertTrue(text.contains("t_latency_seconds_bucket{le=\"1.024E-6\"} 1\n"));
+        assertTrue(text.contains("t_latency_seconds_bucket{le=\"+Inf\"} 4\n"));
+        assertTrue(text.contains("t_latency_seconds_count 4\n"));
+        long previous = 0;
+        for (String line : text.split("\n")) {
+            if (line.startsWith("t_latency_seconds_bucket")) {
+                long n = Long.parseLong(line.substring(line.lastIndexOf(' ') + 1));
+                assertTrue(n >= previous, "cumulative: " + line);
+                previous = n;
+            }
+        }
+        assertEquals(4, previous);
+    }
+
+    @Test
+    void engineProbeTimesThePhasesEachBlockReached() {
+        AtomicLong clock = new AtomicLong(0);
+        ChainEngine engine = ChainEngine.init(PARAMS, new InMemoryLedger(), new InMemoryChainStore(),
+            new LedgerSnapshot("t", 0, PARAMS.chainId()), null, clock::get, new SignatureVerifier());
+        Metrics m = new Metrics();
+        engine.setProbe(new EngineMetrics(m));
+
+        BlockImpl good = block(engine, clock.addAndGet(90_000));
+        BlockImpl badPow = block(engine, good.timestamp());
+        do { // a nonce that fails the PoW phase, after every pre-check passed
+            badPow.nonce(rhizome.crypto.SHA256Hash.random());
+        } while (badPow.verifyNonce(PARAMS.powAlgorithm()));
+        assertEquals(ExecutionStatus.INVALID_NONCE, engine.addBlock(badPow));
+        assertEquals(ExecutionStatus.SUCCESS, engine.addBlock(good));
+
+        assertEquals(2, phase(m, "pre_checks").count());
+        assertEquals(2, phase(m, "pow").count());
+        assertEquals(1, phase(m, "execute").count());
+        assertEquals(1, phase(m, "append").count());
+        assertTrue(m.histogram("rhizome_engine_lock_hold_seconds", "").count() >= 2);
+        String text = m.render();
+        assertTrue(text.contains("rhizome_blocks_processed_total{result=\"accepted\"} 1\n"));
+        assertTrue(text.contains("rhizome_blocks_processed_total{result=\"rejected\"} 1\n"));
+        assertTrue(text.contains("rhizome_block_transactions_total 1\n"));
+
+        engine.setProbe(null); // unset: nothing more is recorded
+        long held = m.histogram("rhizome_engine_lock_hold_seconds", "").count();
+        engine.height();
+        assertEquals(held, m.histogram("rhizome_engine_lock_hold_seconds", "").count());
+    }
+
+    private static Metrics.Histogram phase(Metrics m, String phase) {
+        return m.histogram("rhizome_block_phase_seconds", "", "phase", phase);
+    }
+
+    private static BlockImpl block(ChainEngine engine, long timestamp) {
+        long h = engine.height() + 1;
+        var b = (BlockImpl) BlockImpl.builder().id((int) h)
+            .timestamp(timestamp).difficulty(engine.difficulty())
+            .lastBlockHash(engine.tipHash()).build();
+        b.addTransaction(Transaction.of(PublicAddress.random(), new TransactionAmount(PARAMS.miningReward(h))));
+        var tree = new MerkleTree();
+        tree.setItems(b.transactions());
+        b.merkleRoot(tree.getRootHash());
+        b.nonce(Miner.mineNonce(b.hash(), b.difficulty(), PARAMS.powAlgorithm()));
+        return b;
+    }
+}
@@ -5,27 +5,36 @@ import rhizome.net.RateLimiter;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static rhizome.crypto.Crypto.generateKeyPair;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
 import io.activej.bytebuf.ByteBuf;
 import io.activej.eventloop.Eventloop;
 import io.activej.http.AsyncServlet;
+import io.activej.http.HttpHeaders;
 import io.activej.http.HttpRequest;
 import io.activej.http.HttpResponse;
+import io.activej.promise.Promise;
 import org.bouncycastle.crypto.params.Ed25519PrivateKeyParameters;
 import org.json.JSONObject;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import rhizome.core.block.Block;
 import rhizome.core.block.BlockCodec;
+import rhizome.core.block.BlockHeader;
 import rhizome.core.block.BlockImpl;
+import rhizome.core.block.CompactBlock;
 import rhizome.core.blockchain.ChainEngine;
+import rhizome.core.blockchain.ContractProcessor.ContractLog;
 import rhizome.core.blockchain.InMemoryChainStore;
 import rhizome.core.blockchain.Miner;
 import rhizome.core.blockchain.NetworkParameters;
@@ -33,6 +42,7 @@ import rhizome.core.blockchain.SignatureVerifier;
 import rhizome.crypto.PowAlgorithm;
 import rhizome.crypto.PrivateKey;
 import rhizome.crypto.PublicKey;
+import rhizome.crypto.SHA256Hash;
 import rhizome.core.ledger.InMemoryLedger;
 import rhizome.core.ledger.LedgerSnapshot;
 import rhizome.core.ledger.PublicAddress;
@@ -41,6 +51,11 @@ import rhizome.core.mempool.MemPool;
 import rhizome.core.merkletree.MerkleTree;
 import rhizome.core.transaction.Transaction;
 import rhizome.core.transaction.TransactionAmount;
+import rhizome.persistence.rocksdb.RocksDbContractStore;
+import rhizome.vm.InMemoryContractStore;
+import rhizome.vm.LogBloom;
+import rhizome.vm.WasmContractProcessor;
+import rhizome.vm.WasmVm;
 
 class NodeApiTest {
 
@@ -93,14 +108,19 @@ class NodeApiTest {
         eventloopThread.join(2000);
     }
 
-    /** Drives one request through the servlet on the eventloop and returns the response with its body loaded. */
+    /**
+     * Drives one request through the servlet on the eventloop and returns the response with its body
+     * loaded (a 304 carries none).
+     */
     private HttpResponse call(HttpRequest request) throws Exception {
         return callWith(servlet, request);
     }
 
     private HttpResponse callWith(io.activej.http.AsyncServlet s, HttpRequest request) throws Exception {
         return eventloop.<HttpResponse>submit(() ->
-            s.serve(request).then(resp -> resp.loadBody().map($ -> resp))
+            s.serve(request).then(resp -> resp.getCode() == 304
+                ? Promise.of(resp)
+                : resp.loadBody().map($ -> resp))
         ).get();
     }
 
@@ -192,10 +212,12 @@ class NodeApiTest {
             new RateLimiter(40, 3_600_000, 1)); // aggregate read budget: 40 units/window
         var srv = NodeApi.servlet(eventloop, node, lenientPerIp);
 
-        // /stats costs STATS_WINDOW (32): the first is admitted (gate charges before the handler),
+        // A 32-block /blocks range costs 32: the first is admitted (gate charges before the handler),
         // the second (64 > 40) is shed with 429 regardless of the per-IP budget.
-        assertNotEquals(429, callWith(srv, HttpRequest.get("http://x/stats").build()).getCode());
-        assertEquals(429, callWith(srv, HttpRequest.get("http://x/stats").build()).getCode());
+        assertNotEquals(429, callWith(srv, HttpRequest.get("http://x/blocks?start=1&end=32").build()).getCode());
+        assertEquals(429, callWith(srv, HttpRequest.get("http://x/blocks?start=1&end=32").build()).getCode());
+        // /stats reads maintained aggregates, not blocks: never charged to this budget.
+        assertEquals(200, callWith(srv, HttpRequest.get("http://x/stats").build()).getCode());
         // A read that does not decode blocks under the consensus lock is never charged to this budget.
         assertEquals(200, callWith(srv, HttpRequest.get("http://x/block_count").build()).getCode());
     }
@@ -328,6 +350,172 @@ class NodeApiTest {
         assertEquals(3, ((BlockImpl) blocks.get(1)).id());
     }
 
+    @Test
+    void finalBlocksAndTipScalarsAreServedFromTheResponseCache() throws Exception {
+        var node = new NodeService(engine, mempool);
+        ResponseCache cache = new ResponseCache(1 << 20, 1); // one block of reorg window
+        node.setResponseCache(cache);
+        engine.setOnBlockApplied(node::onBlockApplied);
+        engine.setOnBlockPopped(node::onBlockPopped);
+        var cached = NodeApi.servlet(eventloop, node);
+        callWith(cached, HttpRequest.post("http://x/submit").withBody(BlockCodec.encode(mineNext(List.of()))).build());
+        callWith(cached, HttpRequest.post("http://x/submit").withBody(BlockCodec.encode(mineNext(List.of()))).build());
+        assertEquals(3, engine.height());
+
+        HttpResponse first = callWith(cached, HttpRequest.get("http://x/block?blockId=2").build());
+        assertEquals(200, first.getCode());
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertEquals(NodeApi.CACHE_IMMUTABLE, first.getHeader(HttpHeaders.CACHE_CONTROL));
+        HttpResponse again = callWith(cached, HttpRequest.get("http://x/block?blockId=2").build());
+        assertEquals(body(first), body(again));
+        assertEquals(etag, again.getHeader(HttpHeaders.ETAG));
+        assertEquals(1, cache.hits());
+        HttpResponse revalidated = callWith(cached, HttpRequest.get("http://x/block?blockId=2")
+            .withHeader(HttpHeaders.IF_NONE_MATCH, etag).build());
+        assertEquals(304, revalidated.getCode());
+
+        // The tip is still inside the reorg window: computed per request, with no validator.
+        HttpResponse tip = callWith(cached, HttpRequest.get("http://x/block?blockId=3").build());
+        assertEquals(200, tip.getCode());
+        assertNull(tip.getHeader(HttpHeaders.ETAG));
+
+        // Tip scalars are reused until the next block, then recomputed.
+        HttpResponse info = callWith(cached, HttpRequest.get("http://x/info").build());
+        assertEquals(NodeApi.CACHE_REVALIDATE, info.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals(3, new JSONObject(body(info)).getLong("height"));
+        assertEquals(info.getHeader(HttpHeaders.ETAG),
+            callWith(cached, HttpRequest.get("http://x/info").build()).getHeader(HttpHeaders.ETAG));
+        callWith(cached, HttpRequest.post("http://x/submit").withBody(BlockCodec.encode(mineNext(List.of()))).build());
+        HttpResponse moved = callWith(cached, HttpRequest.get("http://x/info").build());
+        assertEquals(4, new JSONObject(body(moved)).getLong("height"));
+        assertNotEquals(info.getHeader(HttpHeaders.ETAG), moved.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void binaryAcceptStreamsBlockCodecRecordsAndCachesItsOwnVariant() throws Exception {
+        var node = new NodeService(engine, mempool);
+        ResponseCache cache = new ResponseCache(1 << 20, 1);
+        node.setResponseCache(cache);
+        engine.setOnBlockApplied(node::onBlockApplied);
+        engine.setOnBlockPopped(node::onBlockPopped);
+        var s = NodeApi.servlet(eventloop, node);
+        callWith(s, HttpRequest.post("http://x/submit").withBody(BlockCodec.encode(mineNext(List.of()))).build());
+        callWith(s, HttpRequest.post("http://x/submit").withBody(BlockCodec.encode(mineNext(List.of()))).build());
+
+        HttpResponse range = callWith(s, HttpRequest.get("http://x/blocks?start=1&end=3")
+            .withHeader(BinaryEncoding.H_ACCEPT, BinaryEncoding.MEDIA_TYPE).build());
+        assertEquals(200, range.getCode());
+        var records = BinaryEncoding.decodeAll(range.getBody().getArray());
+        assertEquals(3, records.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(BinaryEncoding.BLOCK, records.get(i).type());
+            assertEquals(i + 1, ((BlockImpl) BlockCodec.decode(records.get(i).payload())).id());
+        }
+        // The JSON listing is unchanged for a client that did not ask.
+        HttpResponse jsonRange = callWith(s, HttpRequest.get("http://x/blocks?start=1&end=3").build());
+        assertEquals("Accept", jsonRange.getHeader(HttpHeaders.of("Vary")));
+        JSONObject listing = new JSONObject(body(jsonRange));
+        assertEquals(3, listing.getJSONArray("blocks").length());
+        assertEquals(engine.tipHash().toHexString(), listing.getJSONArray("blocks").getJSONObject(2).getString("hash"));
+
+        // One final block, two representations: each is cached under its own key and says so.
+        HttpResponse binary = callWith(s, HttpRequest.get("http://x/block?blockId=2")
+            .withHeader(BinaryEncoding.H_ACCEPT, BinaryEncoding.MEDIA_TYPE).build());
+        HttpResponse json = callWith(s, HttpRequest.get("http://x/block?blockId=2").build());
+        assertEquals("Accept", binary.getHeader(HttpHeaders.of("Vary")));
+        assertNotEquals(binary.getHeader(HttpHeaders.ETAG), json.getHeader(HttpHeaders.ETAG));
+        assertEquals(2, new JSONObject(body(json)).getLong("id"));
+        HttpResponse again = callWith(s, HttpRequest.get("http://x/block?blockId=2")
+            .withHeader(BinaryEncoding.H_ACCEPT, BinaryEncoding.MEDIA_TYPE).build());
+        assertEquals(1, cache.hits());
+        assertEquals(BinaryEncoding.MEDIA_TYPE, again.getHeader(HttpHeaders.CONTENT_TYPE));
+        var block = BlockCodec.decode(BinaryEncoding.decodeAll(again.getBody().getArray()).get(0).payload());
+        assertEquals(2, ((BlockImpl) block).id());
+    }
+
+    @Test
+    void firehoseBackfillsFromTheCursorThenFollowsTheTipAndSignalsPops() throws Exception {
+        var node = new NodeService(engine, mempool);
+        BlockFirehose hose = eventloop.<BlockFirehose>submit(() ->
+            io.activej.promise.Promise.of(new BlockFirehose(eventloop, node, Runnable::run, 4))).get();
+        node.setFirehose(hose);
+        engine.setOnBlockApplied(node::onBlockApplied);
+        engine.setOnBlockPopped(node::onBlockPopped);
+        var s = NodeApi.servlet(eventloop, node);
+        callWith(s, HttpRequest.post("http://x/submit").withBody(BlockCodec.encode(mineNext(List.of()))).build());
+        callWith(s, HttpRequest.post("http://x/submit").withBody(BlockCodec.encode(mineNext(List.of()))).build());
+
+        assertEquals(400, callWith(s, HttpRequest.get("http://x/firehose?from=5").build()).getCode());
+        HttpResponse response = eventloop.<HttpResponse>submit(() ->
+            s.serve(HttpRequest.get("http://x/firehose?from=2").build()).map(r -> (HttpResponse) r)).get();
+        assertEquals(200, response.getCode());
+        assertEquals(BinaryEncoding.MEDIA_TYPE, response.getHeader(HttpHeaders.CONTENT_TYPE));
+        var stream = response.takeBodyStream();
+        assertEquals(BinaryEncoding.KEEPALIVE, nextRecord(stream).type());
+
+        // Backfilled from storage, then live from the tip.
+        assertEquals(2, appliedHeight(nextRecord(stream)));
+        assertEquals(3, appliedHeight(nextRecord(stream)));
+        callWith(s, HttpRequest.post("http://x/submit").withBody(BlockCodec.encode(mineNext(List.of()))).build());
+        BinaryEncoding.Record live = nextRecord(stream);
+        assertEquals(4, appliedHeight(live));
+        var nested = BinaryEncoding.decodeAll(java.util.Arrays.copyOfRange(live.payload(), 40, live.payload().length));
+        assertEquals(BinaryEncoding.BLOCK, nested.get(0).type());
+        assertEquals(engine.tipHash(), BlockCodec.decode(nested.get(0).payload()).hash());
+
+        // A pop reaches a subscriber that already had the block; the re-applied block follows.
+        hose.onPopped(4);
+        BinaryEncoding.Record popped = nextRecord(stream);
+        assertEquals(BinaryEncoding.POPPED, popped.type());
+        assertEquals(4, java.nio.ByteBuffer.wrap(popped.payload()).getLong());
+        hose.onApplied(node.block(4));
+        assertEquals(4, appliedHeight(nextRecord(stream)));
+        assertEquals(1, hose.subscriberCount());
+    }
+
+    @Test
+    void firehoseBackfillDoesNotSpendThePeerSyncReadBudget() throws Exception {
+        // Four reads a minute between everyone: a backfill of the whole chain on the shared bucket
+        // would leave /sync nothing.
+        var node = new NodeService(engine, mempool, new RateLimiter(25, 1000, 1),
+            new RateLimiter(NodeService.READONLY_GAS_MAX_PER_SEC, 1000, 1), new RateLimiter(4, 60_000, 1));
+        BlockFirehose hose = eventloop.<BlockFirehose>submit(() ->
+            io.activej.promise.Promise.of(new BlockFirehose(eventloop, node, Runnable::run, 4))).get();
+        node.setFirehose(hose);
+        engine.setOnBlockApplied(node::onBlockApplied);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(ExecutionStatus.SUCCESS, node.submitBlock(mineNext(List.of())));
+        }
+        var s = NodeApi.servlet(eventloop, node);
+        HttpResponse response = eventloop.<HttpResponse>submit(() ->
+            s.serve(HttpRequest.get("http://x/firehose?from=1").build()).map(r -> (HttpResponse) r)).get();
+        var stream = response.takeBodyStream();
+        assertEquals(BinaryEncoding.KEEPALIVE, nextRecord(stream).type());
+        for (long h = 1; h <= 4; h++) {
+            assertEquals(h, appliedHeight(nextRecord(stream)));
+        }
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(200, callWith(s, HttpRequest.get("http://x/sync?start=1&end=1").build()).getCode(),
+                "sync " + i);
+        }
+        assertEquals(429, callWith(s, HttpRequest.get("http://x/sync?start=1&end=1").build()).getCode());
+    }
+
+    /** The next record of a firehose stream (each pull yields exactly one). */
+    private BinaryEncoding.Record nextRecord(io.activej.csp.supplier.ChannelSupplier<ByteBuf> stream) throws Exception {
+        ByteBuf buf = eventloop.<ByteBuf>submit(stream::get).get(5, java.util.concurrent.TimeUnit.SECONDS);
+        var records = BinaryEncoding.decodeAll(buf.asArray());
+        assertEquals(1, records.size());
+        return records.get(0);
+    }
+
+    private static long appliedHeight(BinaryEncoding.Record r) {
+        assertEquals(BinaryEncoding.APPLIED, r.type());
+        return java.nio.ByteBuffer.wrap(r.payload()).getLong();
+    }
+
     @Test
     void badInputAlwaysGets400NeverCrashes() throws Exception {
         assertEquals(400, call(HttpRequest.get("http://x/block?blockId=99999").build()).getCode());
@@ -363,6 +551,144 @@ class NodeApiTest {
         assertEquals(400, callWith(s, HttpRequest.get("http://x/logs?height=999").build()).getCode());
     }
 
+    private static final byte[] TRANSFER = "transfer".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+
+    /** {@code count} copies of one log, as one block's. */
+    private static List<ContractLog> logs(int count, PublicAddress contract, byte[] topic) {
+        return java.util.Collections.nCopies(count, new ContractLog(contract, topic, new byte[] {7}));
+    }
+
+    private static void applyLogs(RocksDbContractStore store, long height, List<ContractLog> logs) {
+        store.applyBlock(height, List.of(), null, null, WasmContractProcessor.encodeLogs(logs), LogBloom.of(logs));
+    }
+
+    @Test
+    void filteredLogsQueryPagesThroughTheIndexByToHeight(@TempDir Path dir) throws Exception {
+        var node = new NodeService(engine, mempool);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(ExecutionStatus.SUCCESS, node.submitBlock(mineNext(List.of())));
+        }
+        PublicAddress contract = PublicAddress.random();
+        try (var store = new RocksDbContractStore(dir.toString())) {
+            var processor = new WasmContractProcessor(new WasmVm(), store);
+            node.setLogSource(processor::logs);
+            node.setContracts(processor);
+            applyLogs(store, 2, logs(700, contract, TRANSFER));
+            List<ContractLog> mixed = new java.util.ArrayList<>(logs(700, contract, TRANSFER));
+            mixed.add(new ContractLog(PublicAddress.random(), TRANSFER, new byte[0]));
+            applyLogs(store, 3, mixed);
+            applyLogs(store, 4, logs(3, contract, TRANSFER));
+            var s = NodeApi.servlet(eventloop, node);
+            String filter = "http://x/logs?contract=" + contract.toHexString()
+                + "&topic=" + java.util.HexFormat.of().formatHex(TRANSFER);
+
+            // Past 1 000 logs the page ends at a whole height; toHeight is the cursor.
+            JSONObject first = new JSONObject(body(callWith(s, HttpRequest.get(filter + "&from=1&to=4").build())));
+            assertEquals(1, first.getLong("fromHeight"));
+            assertEquals(3, first.getLong("toHeight"));
+            assertEquals(1_400, first.getJSONArray("logs").length());
+            assertEquals(3, first.getJSONArray("logs").getJSONObject(1_399).getLong("height"));
+
+            JSONObject second = new JSONObject(body(callWith(s,
+                HttpRequest.get(filter + "&from=" + (first.getLong("toHeight") + 1) + "&to=4").build())));
+            assertEquals(4, second.getLong("toHeight"));
+            assertEquals(3, second.getJSONArray("logs").length());
+            assertEquals(contract.toHexString(), second.getJSONArray("logs").getJSONObject(0).getString("contract"));
+
+            assertEquals(400, callWith(s, HttpRequest.get(filter + "&from=3&to=2").build()).getCode());
+
+            // Charged LOG_QUERY_ROWS_MAX at the gate, each query gives back the rows it did not
+            // touch: three fit a budget of two ceilings. A rejected one keeps its whole charge.
+            assertEquals(NodeService.LOG_QUERY_ROWS_MAX,
+                NodeApi.requestCost(HttpRequest.get(filter + "&from=1").build()));
+            var limited = NodeApi.servlet(eventloop, node, new RateLimiter(2 * NodeService.LOG_QUERY_ROWS_MAX, 60_000, 100));
+            for (int i = 0; i < 3; i++) {
+                assertEquals(200, callWith(limited, HttpRequest.get(filter + "&from=1&to=4").build()).getCode());
+            }
+            assertEquals(400, callWith(limited, HttpRequest.get(filter + "&from=3&to=2").build()).getCode());
+            assertEquals(429, callWith(limited, HttpRequest.get(filter + "&from=4&to=4").build()).getCode());
+        }
+    }
+
+    @Test
+    void filteredLogsCursorStopsAtTheRowBudget(@TempDir Path dir) throws Exception {
+        // Every block holds the contract and the topic, never together: 1 001 false positives.
+        PublicAddress contract = PublicAddress.random();
+        try (var store = new RocksDbContractStore(dir.toString())) {
+            var processor = new WasmContractProcessor(new WasmVm(), store);
+            List<ContractLog> decoy = List.of(new ContractLog(contract, "mint".getBytes(), new byte[0]),
+                new ContractLog(PublicAddress.random(), TRANSFER, new byte[0]));
+            for (long h = 1; h <= NodeService.LOG_QUERY_RESULTS_MAX + 1; h++) {
+                applyLogs(store, h, decoy);
+            }
+            long from = 1;
+            int pages = 0;
+            while (from <= 2_000) {
+                var page = NodeService.logsMatching(2_000, from, 2_000, contract, TRANSFER, processor::logs, processor);
+                assertTrue(page.logs().isEmpty());
+                assertTrue(page.toHeight() >= from, "every page makes progress");
+                assertTrue(page.rowsRead() <= NodeService.LOG_QUERY_ROWS_MAX, "page " + pages + ": " + page.rowsRead());
+                from = page.toHeight() + 1;
+                pages++;
+            }
+            // Each decoy height costs its block-bloom row and its log read.
+            assertTrue(pages >= 2 * (NodeService.LOG_QUERY_RESULTS_MAX + 1) / NodeService.LOG_QUERY_ROWS_MAX,
+                "pages: " + pages);
+            var empty = NodeService.logsMatching(2_000, 1_002, 2_000, contract, TRANSFER, processor::logs, processor);
+            assertEquals(2_000, empty.toHeight());
+            assertEquals(1, empty.rowsRead(), "the decoys' range row; no block rows past the last decoy");
+        }
+    }
+
+    @Test
+    void filteredLogsCursorStopsAfterTheHeightThatFillsThePage(@TempDir Path dir) throws Exception {
+        PublicAddress contract = PublicAddress.random();
+        try (var store = new RocksDbContractStore(dir.toString())) {
+            var processor = new WasmContractProcessor(new WasmVm(), store);
+            applyLogs(store, 10, logs(600, contract, TRANSFER));
+            applyLogs(store, 20, logs(600, contract, TRANSFER));
+            applyLogs(store, 30, logs(5, contract, TRANSFER));
+            var page = NodeService.logsMatching(100, 1, 100, contract, null, processor::logs, processor);
+            assertEquals(20, page.toHeight());
+            assertEquals(1_200, page.logs().size(), "a height is never split across pages");
+            var rest = NodeService.logsMatching(100, 21, 100, contract, null, processor::logs, processor);
+            assertEquals(100, rest.toHeight());
+            assertEquals(5, rest.logs().size());
+        }
+    }
+
+    @Test
+    void filteredLogsQuerySpansAtMost65536Blocks(@TempDir Path dir) throws Exception {
+        PublicAddress contract = PublicAddress.random();
+        try (var store = new RocksDbContractStore(dir.toString())) {
+            var processor = new WasmContractProcessor(new WasmVm(), store);
+            applyLogs(store, 70_000, logs(1, contract, TRANSFER));
+            var page = NodeService.logsMatching(200_000, 1, Long.MAX_VALUE, contract, TRANSFER,
+                processor::logs, processor);
+            assertEquals(NodeService.LOG_QUERY_SPAN_MAX, page.toHeight());
+            assertTrue(page.logs().isEmpty());
+            var next = NodeService.logsMatching(200_000, page.toHeight() + 1, Long.MAX_VALUE, contract, TRANSFER,
+                processor::logs, processor);
+            assertEquals(2L * NodeService.LOG_QUERY_SPAN_MAX, next.toHeight());
+            assertEquals(70_000, next.logs().get(0).height());
+        }
+    }
+
+    @Test
+    void filteredLogsWithoutAnIndexScanTheShortWindow() {
+        PublicAddress contract = PublicAddress.random();
+        java.util.function.LongFunction<List<ContractLog>> source = h -> h == 50 || h == 200
+            ? logs(1, contract, TRANSFER) : List.of();
+        var processor = new WasmContractProcessor(new WasmVm(), new InMemoryContractStore());
+        var page = NodeService.logsMatching(1_000, 1, 1_000, contract, TRANSFER, source, processor);
+        assertEquals(NodeService.LOG_SCAN_WINDOW, page.toHeight());
+        assertEquals(1, page.logs().size());
+        assertEquals(50, page.logs().get(0).height());
+        // No processor wired at all: the same window.
+        assertEquals(NodeService.LOG_SCAN_WINDOW,
+            NodeService.logsMatching(1_000, 1, 1_000, contract, TRANSFER, source, null).toHeight());
+    }
+
     @Test
     void rejectsInvalidTransactionWith400() throws Exception {
         Transaction t = Transaction.of(sender, PublicAddress.random(), new TransactionAmount(100),
@@ -374,6 +700,103 @@ class NodeApiTest {
         assertEquals("INVALID_CHAIN_ID", new JSONObject(body(add)).getString("status"));
     }
 
+    @Test
+    void anUndeliveredInventoryRequestFallsBackToTheNextAnnouncer() throws Exception {
+        var node = new NodeService(engine, mempool);
+        var a = java.net.InetAddress.getByName("10.0.0.1");
+        var b = java.net.InetAddress.getByName("10.0.0.2");
+        var c = java.net.InetAddress.getByName("10.0.0.3");
+        List<SHA256Hash> inv = List.of(SHA256Hash.of(new byte[SHA256Hash.SIZE]));
+
+        assertEquals(inv, node.wantedTransactions(inv, a, 10_000));
+        // While a may still deliver, nobody else is asked.
+        assertEquals(List.of(), node.wantedTransactions(inv, b, 10_000 + NodeService.TX_REQUEST_TIMEOUT_MS - 1));
+        // a stalled: the next announcer is asked, well before the TTL runs out...
+        assertEquals(List.of(), node.wantedTransactions(inv, a, 10_000 + NodeService.TX_REQUEST_TIMEOUT_MS));
+        assertEquals(inv, node.wantedTransactions(inv, b, 10_000 + NodeService.TX_REQUEST_TIMEOUT_MS));
+        // ...and now b has its own timeout.
+        assertEquals(List.of(), node.wantedTransactions(inv, c, 10_000 + NodeService.TX_REQUEST_TIMEOUT_MS + 1));
+    }
+
+    @Test
+    void binaryBlockRangeIsEncodedWholeOnTheLaneWithACursorPastItsBudget() throws Exception {
+        var node = new NodeService(engine, mempool);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(ExecutionStatus.SUCCESS, node.submitBlock(mineNext(List.of())));
+        }
+        var s = NodeApi.servlet(eventloop, node);
+        HttpResponse deflated = callWith(s, HttpRequest.get("http://x/blocks?start=1&end=4")
+            .withHeader(BinaryEncoding.H_ACCEPT, BinaryEncoding.MEDIA_TYPE)
+            .withHeader(WireCompression.H_ACCEPT_ENCODING, "deflate").build());
+        assertEquals(200, deflated.getCode());
+        assertEquals(WireCompression.DEFLATE, deflated.getHeader(WireCompression.H_CONTENT_ENCODING));
+        assertEquals(BinaryEncoding.VARY_RANGE, deflated.getHeader(HttpHeaders.of("Vary")));
+        byte[] plain;
+        try (var in = new java.util.zip.InflaterInputStream(
+                new java.io.ByteArrayInputStream(deflated.getBody().getArray()))) {
+            plain = in.readAllBytes();
+        }
+        assertEquals(4, BinaryEncoding.decodeAll(plain).size());
+
+        // Past the byte budget the body stops at a whole block and ends with the next start height.
+        int oneBlock = BinaryEncoding.record(BinaryEncoding.BLOCK, BlockCodec.encode(node.block(1))).length;
+        var cut = BinaryEncoding.decodeAll(ExplorerApi.binaryBlocks(node,
+            HttpRequest.get("http://x/blocks?start=1&end=4").build(), 1, 4, oneBlock).getBody().getArray());
+        assertEquals(2, cut.size());
+        assertEquals(BinaryEncoding.BLOCK, cut.get(0).type());
+        assertEquals(BinaryEncoding.CURSOR, cut.get(1).type());
+        assertEquals(2, java.nio.ByteBuffer.wrap(cut.get(1).payload()).getLong());
+    }
+
+    @Test
+    void blockRangePrunedWhileItIsReadAnswers410NotAShort200() throws Exception {
+        // A store that prunes height 3 the moment it is read: the range check upfront passed, so
+        // only the read itself finds the body gone.
+        var inner = new InMemoryChainStore();
+        AtomicLong pruned = new AtomicLong();
+        var store = new rhizome.core.blockchain.ChainStore() {
+            @Override public long height() {
+                return inner.height();
+            }
+            @Override public Block blockAt(long height) {
+                if (height == 3 && pruned.get() > 0) {
+                    pruned.set(4);
+                    throw new IllegalArgumentException("No block at height " + height);
+                }
+                return inner.blockAt(height);
+            }
+            @Override public long prunedBelow() {
+                return pruned.get() > 1 ? pruned.get() : 0;
+            }
+            @Override public void append(Block block) {
+                inner.append(block);
+            }
+            @Override public void pop() {
+                inner.pop();
+            }
+            @Override public boolean hasTransaction(rhizome.crypto.SHA256Hash contentHash) {
+                return inner.hasTransaction(contentHash);
+            }
+        };
+        engine = ChainEngine.init(params, new InMemoryLedger(), store,
+            new LedgerSnapshot("test", 0, params.chainId()), null, clock::get, new SignatureVerifier());
+        var node = new NodeService(engine, mempool);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(ExecutionStatus.SUCCESS, node.submitBlock(mineNext(List.of())));
+        }
+        var s = NodeApi.servlet(eventloop, node);
+        for (boolean binary : new boolean[] {true, false}) {
+            pruned.set(1); // armed
+            var req = HttpRequest.get("http://x/blocks?start=2&end=4");
+            if (binary) {
+                req.withHeader(BinaryEncoding.H_ACCEPT, BinaryEncoding.MEDIA_TYPE);
+            }
+            HttpResponse r = callWith(s, req.build());
+            assertEquals(410, r.getCode(), binary ? "binary" : "json");
+            assertEquals(4, new JSONObject(body(r)).getLong("prunedBelow"));
+        }
+    }
+
     @Test
     void orphanEndpointServesStoredUncleBodies() throws Exception {
         // GET /orphan?hash=<hex64> serves the binary body of a known orphan (uncle) — the piece
@@ -472,6 +895,41 @@ class NodeApiTest {
         assertFalse(node2.isPushShed("peer-a"));
     }
 
+    @Test
+    void compactBlockHeadersAreCheckedBeforeTheMempoolIsRebuiltFrom() throws Exception {
+        var node = new NodeService(engine, mempool);
+        Transaction t = signedSend(100_000, 0);
+        assertEquals(ExecutionStatus.SUCCESS, node.submitTransaction(t));
+
+        // A bad proof of work is refused for one hash, struck like a bad /submit, and never
+        // copies the pool or parks a partial rebuild.
+        BlockImpl bad = (BlockImpl) mineNext(List.of(t));
+        do {
+            bad.nonce(SHA256Hash.random());
+        } while (BlockHeader.of(bad).verifyNonce(params.powAlgorithm(), params.powCostsAt(bad.id())));
+        var refused = node.submitCompactBlock(CompactBlock.of(bad, 7L), "peer-x");
+        assertEquals(ExecutionStatus.INVALID_NONCE, refused.status());
+        assertEquals(0, node.compactRebuildCount(), "the mempool must not be touched");
+        assertEquals(0, node.pendingCompactCount());
+        assertEquals(1, node.pushStrikeCount("peer-x"));
+
+        // An unknown parent never reaches the hash either; like /submit, it is not a strike.
+        BlockImpl stray = (BlockImpl) BlockImpl.builder().id((int) engine.height() + 1)
+            .timestamp(clock.get()).difficulty(engine.difficulty())
+            .lastBlockHash(SHA256Hash.random()).build();
+        stray.addTransaction(Transaction.of(miner, new TransactionAmount(params.miningReward(engine.height() + 1))));
+        assertEquals(ExecutionStatus.INVALID_LASTBLOCK_HASH,
+            node.submitCompactBlock(CompactBlock.of(stray, 7L), "peer-y").status());
+        assertEquals(0, node.compactRebuildCount());
+        assertEquals(0, node.pushStrikeCount("peer-y"));
+
+        // A sound header is rebuilt from the pool and applied.
+        Block good = mineNext(List.of(t));
+        assertEquals(ExecutionStatus.SUCCESS, node.submitCompactBlock(CompactBlock.of(good, 7L), "peer-x").status());
+        assertEquals(1, node.compactRebuildCount());
+        assertEquals(2, engine.height());
+    }
+
     @Test
     void aFullStrikeTableStillTracksTheClientOffendingNow() {
         // The strike table is bounded, and once it was full every NEW client's faults went to a
@@ -600,4 +1058,52 @@ class NodeApiTest {
         assertTrue(node.dryRun(PublicAddress.empty(), PublicAddress.empty(), new byte[0], 0,
             1_000_000L).isPresent());
     }
+
+    @Test
+    void callReadonlyBatchRunsEveryCallOnOneViewAndChargesGasOnce() throws Exception {
+        // /call_readonly_batch: calls run in request order, each result shaped like a single
+        // /call_readonly response; a malformed entry, an oversized batch or a summed gasLimit
+        // past the single-call ceiling is a 400 before any VM work.
+        var echo = new rhizome.core.blockchain.ContractProcessor() {
+            @Override public void begin() {}
+            @Override public ContractResult run(PublicAddress from, rhizome.core.transaction.TransactionKind kind,
+                                                PublicAddress to, byte[] data, long value, long gasLimit, long nonce) {
+                throw new UnsupportedOperationException();
+            }
+            @Override public void commit(long blockHeight) {}
+            @Override public void discard() {}
+            @Override public void revertBlock(long blockHeight) {}
+            @Override public List<ContractReceipt> receipts(long blockHeight) {
+                return List.of();
+            }
+            @Override public ContractResult dryRun(PublicAddress from, PublicAddress to, byte[] input,
+                                                   long value, long gasLimit) {
+                return ContractResult.ok(input.length + 1L, input, null);
+            }
+        };
+        var node = new NodeService(engine, mempool);
+        node.setContracts(echo);
+        String to = "00".repeat(25);
+
+        var ok = ContractApi.callReadonlyBatch(node, new JSONObject().put("calls", new org.json.JSONArray()
+            .put(new JSONObject().put("to", to).put("input", "0a"))
+            .put(new JSONObject().put("to", to).put("input", "0b0c"))));
+        assertEquals(200, ok.getCode());
+        JSONObject body = new JSONObject(ok.getBody().getString(java.nio.charset.StandardCharsets.UTF_8));
+        assertEquals("0a", body.getJSONArray("results").getJSONObject(0).getString("output"));
+        assertEquals("0b0c", body.getJSONArray("results").getJSONObject(1).getString("output"));
+        assertEquals(2 + 3, body.getLong("gasUsed"));
+
+        assertEquals(400, ContractApi.callReadonlyBatch(node, new JSONObject()).getCode());
+        assertEquals(400, ContractApi.callReadonlyBatch(node, new JSONObject().put("calls",
+            new org.json.JSONArray().put(new JSONObject().put("to", to).put("value", -1)))).getCode());
+        var tooMany = new org.json.JSONArray();
+        for (int i = 0; i <= ContractApi.MAX_BATCH_CALLS; i++) {
+            tooMany.put(new JSONObject().put("to", to));
+        }
+        assertEquals(400, ContractApi.callReadonlyBatch(node, new JSONObject().put("calls", tooMany)).getCode());
+        assertEquals(400, ContractApi.callReadonlyBatch(node, new JSONObject().put("calls", new org.json.JSONArray()
+            .put(new JSONObject().put("to", to).put("gasLimit", 20_000_000L))
+            .put(new JSONObject().put("to", to).put("gasLimit", 20_000_000L)))).getCode());
+    }
 }
@@ -0,0 +1,129 @@
+package rhizome.node;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The cache's lifetimes: tip bodies die with every block event and on a tag change, immutable
+ * bodies are only admitted once final and die with a pop reaching them or pruning, a body computed
+ * across a block event is never stored, and the byte budget holds.
+ */
+class ResponseCacheTest {
+
+    private static final String JSON = "application/json";
+
+    @Test
+    void tipEntriesLiveUntilTheChainMovesAndMatchTheirTag() {
+        ResponseCache cache = new ResponseCache(1 << 20, 10);
+        cache.reset(100, 0);
+        ResponseCache.Key info = ResponseCache.Key.tip("/info", 5);
+        cache.put(info, cache.stamp(info.scope()), bytes(40), JSON, null);
+        assertNotNull(cache.get(info));
+        assertNull(cache.get(ResponseCache.Key.tip("/info", 6)), "the mempool moved: a different body");
+
+        cache.onApplied(101, 0);
+        assertNull(cache.get(info));
+
+        // Computed before a block landed, stored after: refused, but still served with its ETag.
+        long stamp = cache.stamp(info.scope());
+        cache.onApplied(102, 0);
+        ResponseCache.Entry late = cache.put(info, stamp, bytes(40), JSON, null);
+        assertNotNull(late.etag());
+        assertFalse(cache.contains(info));
+
+        cache.put(info, cache.stamp(info.scope()), bytes(40), JSON, null);
+        cache.onPopped(102);
+        assertFalse(cache.contains(info), "a pop moves the tip too");
+        assertEquals(101, cache.finalizedHeight() + 10);
+    }
+
+    @Test
+    void immutableEntriesAreFinalOnlyAndDieWithAPopOrPruning() {
+        ResponseCache cache = new ResponseCache(1 << 20, 10);
+        cache.reset(100, 0);
+        ResponseCache.Key deep = ResponseCache.Key.immutable("/block?90", 90);
+        ResponseCache.Key shallow = ResponseCache.Key.immutable("/block?91", 91);
+        ResponseCache.Key orphan = ResponseCache.Key.immutable("/orphan?ab", 0);
+        for (ResponseCache.Key k : new ResponseCache.Key[] {deep, shallow, orphan}) {
+            cache.put(k, cache.stamp(k.scope()), bytes(100), JSON, null);
+        }
+        assertTrue(cache.contains(deep));
+        assertFalse(cache.contains(shallow), "91 is still inside the reorg window");
+        assertTrue(cache.contains(orphan));
+
+        cache.onApplied(101, 0); // a new tip leaves final bodies alone
+        assertTrue(cache.contains(deep));
+
+        cache.onPopped(101);
+        cache.onPopped(100);
+        assertTrue(cache.contains(deep));
+        // The cache does not trust the window alone: a pop reaching a height drops what it fed.
+        cache.put(shallow, cache.stamp(shallow.scope()), bytes(100), JSON, null);
+        assertFalse(cache.contains(shallow), "89 is final now, 91 is not");
+        cache.onPopped(99);
+        cache.onPopped(98);
+        cache.onPopped(97);
+        cache.onPopped(96);
+        cache.onPopped(95);
+        cache.onPopped(94);
+        cache.onPopped(93);
+        cache.onPopped(92);
+        cache.onPopped(91);
+        cache.onPopped(90);
+        assertFalse(cache.contains(deep));
+        assertTrue(cache.contains(orphan), "an orphan by hash has no chain position");
+
+        ResponseCache.Key old = ResponseCache.Key.immutable("/block?50", 50);
+        cache.put(old, cache.stamp(old.scope()), bytes(100), JSON, null);
+        assertTrue(cache.contains(old));
+        cache.onApplied(90, 60);
+        assertFalse(cache.contains(old), "pruned bodies answer 410 from now on");
+        cache.put(old, cache.stamp(old.scope()), bytes(100), JSON, null);
+        assertFalse(cache.contains(old));
+    }
+
+    @Test
+    void theByteBudgetEvictsLeastRecentlyUsedAndCapsOneEntry() {
+        ResponseCache cache = new ResponseCache(64 * 1024, 0);
+        cache.reset(1_000, 0);
+        for (int h = 1; h <= 40; h++) {
+            ResponseCache.Key k = ResponseCache.Key.immutable("/block?" + h, h);
+            cache.put(k, cache.stamp(k.scope()), bytes(3_000), JSON, null);
+            cache.get(ResponseCache.Key.immutable("/block?1", 1)); // keep the first one warm
+        }
+        assertTrue(cache.bytes() <= 64 * 1024);
+        assertTrue(cache.contains(ResponseCache.Key.immutable("/block?1", 1)));
+        assertFalse(cache.contains(ResponseCache.Key.immutable("/block?2", 2)));
+        assertTrue(cache.contains(ResponseCache.Key.immutable("/block?40", 40)));
+
+        ResponseCache.Key big = ResponseCache.Key.immutable("/headers?1-2000", 2000);
+        cache.put(big, cache.stamp(big.scope()), bytes(64 * 1024 / ResponseCache.MAX_ENTRY_SHARE), JSON, null);
+        assertFalse(cache.contains(big), "one body may not take more than its share");
+    }
+
+    @Test
+    void etagsAreStrongDigestsAndIfNoneMatchListsAreParsed() {
+        String etag = ResponseCache.etag(bytes(10));
+        assertEquals(etag, ResponseCache.etag(bytes(10)));
+        assertNotEquals(etag, ResponseCache.etag(bytes(11)));
+        assertEquals(34, etag.length());
+        assertTrue(ResponseCache.matches(etag, etag));
+        assertTrue(ResponseCache.matches("\"x\", " + etag, etag));
+        assertTrue(ResponseCache.matches("W/" + etag, etag));
+        assertTrue(ResponseCache.matches("*", etag));
+        assertFalse(ResponseCache.matches("\"x\"", etag));
+        assertFalse(ResponseCache.matches(null, etag));
+    }
+
+    private static byte[] bytes(int n) {
+        byte[] b = new byte[n];
+        java.util.Arrays.fill(b, (byte) n);
+        return b;
+    }
+}
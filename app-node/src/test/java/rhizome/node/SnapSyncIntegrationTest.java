@@ -225,6 +225,122 @@ class SnapSyncIntegrationTest {
         }
     }
 
+    @Test
+    void interruptedDownloadResumesFromTheSpoolAndSharesChunksAcrossPeers() throws Exception {
+        Path spoolDir = tempDir.resolve("spool3");
+        java.nio.file.Files.createDirectories(spoolDir);
+        var upstream = new HttpPeerSource("http://localhost:" + port);
+        int chunkCount = upstream.snapshotInfo().chunkCount();
+        assertTrue(chunkCount > 1, "the fixture must span several chunks");
+
+        try (var store = new RocksDbNodeStore(tempDir.resolve("db3").toString());
+             var boxStore = new RocksDbBoxStore(tempDir.resolve("boxes3").toString());
+             var tokenStore = new RocksDbTokenStore(tempDir.resolve("tokens3").toString());
+             var contractStore = new RocksDbContractStore(tempDir.resolve("contracts3").toString());
+             var stateStore = new RocksDbStateStore(tempDir.resolve("state3").toString())) {
+
+            // --- First attempt: the only peer serves chunk 0, then drops out ---
+            var flaky = new CountingPeer(upstream, 1);
+            assertFalse(SnapshotBootstrap.bootstrap(PARAMS, genesisSnapshot, store, boxStore, tokenStore,
+                contractStore, stateStore, java.util.List.of(flaky), NOW, spoolDir));
+            assertEquals(0, store.chainStore().height(), "nothing seeded before the root verifies");
+            Path spool;
+            try (var dirs = java.nio.file.Files.list(spoolDir)) {
+                spool = dirs.filter(d -> d.getFileName().toString().startsWith(SnapshotBootstrap.SPOOL_PREFIX))
+                    .findFirst().orElseThrow();
+            }
+            try (var files = java.nio.file.Files.list(spool)) {
+                assertEquals(1, files.count(), "the whole chunk already fetched is kept for the next attempt");
+            }
+
+            // --- Second attempt, two peers on the same snapshot: only the missing chunks move ---
+            var a = new CountingPeer(upstream, Integer.MAX_VALUE);
+            var b = new CountingPeer(upstream, Integer.MAX_VALUE);
+            assertTrue(SnapshotBootstrap.bootstrap(PARAMS, genesisSnapshot, store, boxStore, tokenStore,
+                contractStore, stateStore, java.util.List.of(a, b), NOW, spoolDir));
+            assertEquals(chunkCount - 1, a.served.get() + b.served.get());
+            assertFalse(java.nio.file.Files.exists(spool), "the spool is deleted once the import completes");
+
+            var accumulator = new StateAccumulator(stateStore, stateStore, PARAMS.maxReorgDepth());
+            ChainEngine local = ChainEngine.init(PARAMS, store.ledger(), store.chainStore(),
+                store.nonceStore(), genesisSnapshot, null, () -> NOW, null, null,
+                new DefaultBoxProcessor(boxStore, PARAMS), new DefaultTokenProcessor(tokenStore, PARAMS),
+                accumulator);
+            assertEquals(pivot, local.height());
+            assertArrayEquals(minerNode.materializedSnapshot().stateRoot(), local.stateRoot());
+        }
+    }
+
+    @Test
+    void aPeerServingATamperedChunkIsDroppedOnArrival() throws Exception {
+        Path spoolDir = tempDir.resolve("spool4");
+        java.nio.file.Files.createDirectories(spoolDir);
+        var upstream = new HttpPeerSource("http://localhost:" + port);
+        assertNotNull(upstream.snapshotInfo().manifestHash(), "the server advertises a chunk manifest");
+        int chunkCount = upstream.snapshotInfo().chunkCount();
+
+        try (var store = new RocksDbNodeStore(tempDir.resolve("db4").toString());
+             var boxStore = new RocksDbBoxStore(tempDir.resolve("boxes4").toString());
+             var tokenStore = new RocksDbTokenStore(tempDir.resolve("tokens4").toString());
+             var contractStore = new RocksDbContractStore(tempDir.resolve("contracts4").toString());
+             var stateStore = new RocksDbStateStore(tempDir.resolve("state4").toString())) {
+            var honest = new CountingPeer(upstream, Integer.MAX_VALUE);
+            var liar = new CountingPeer(upstream, Integer.MAX_VALUE);
+            liar.tamper = true;
+            assertTrue(SnapshotBootstrap.bootstrap(PARAMS, genesisSnapshot, store, boxStore, tokenStore,
+                contractStore, stateStore, java.util.List.of(honest, liar), NOW, spoolDir));
+            // Each of the liar's fetchers is dropped after its first bad chunk; the honest peer
+            // serves every chunk, and the download still completes.
+            assertTrue(liar.served.get() <= SnapshotDownload.FETCHERS_PER_PEER, "liar served " + liar.served.get());
+            assertEquals(chunkCount, honest.served.get());
+        }
+    }
+
+    /**
+     * Delegates to a real peer, serving at most {@code budget} chunks and failing the rest; a
+     * {@code tamper}ing peer flips the last byte of every chunk it serves.
+     */
+    private static final class CountingPeer implements rhizome.core.blockchain.PeerSource {
+        final rhizome.core.blockchain.PeerSource upstream;
+        final int budget;
+        boolean tamper;
+        final java.util.concurrent.atomic.AtomicInteger asked = new java.util.concurrent.atomic.AtomicInteger();
+        final java.util.concurrent.atomic.AtomicInteger served = new java.util.concurrent.atomic.AtomicInteger();
+
+        CountingPeer(rhizome.core.blockchain.PeerSource upstream, int budget) {
+            this.upstream = upstream;
+            this.budget = budget;
+        }
+
+        @Override public long height() { return upstream.height(); }
+        @Override public java.math.BigInteger totalWork() { return upstream.totalWork(); }
+        @Override public rhizome.crypto.SHA256Hash blockHash(long height) { return upstream.blockHash(height); }
+        @Override public java.util.List<rhizome.core.block.Block> blocks(long start, long end) {
+            return upstream.blocks(start, end);
+        }
+        @Override public java.util.List<rhizome.core.block.BlockHeader> headers(long start, long end) {
+            return upstream.headers(start, end);
+        }
+        @Override public SnapshotInfo snapshotInfo() { return upstream.snapshotInfo(); }
+        @Override public rhizome.core.state.snapshot.SnapshotManifest snapshotManifest() {
+            return upstream.snapshotManifest();
+        }
+        @Override public byte[] snapshotProof(int index) { return upstream.snapshotProof(index); }
+
+        @Override
+        public byte[] snapshotChunk(int index) {
+            if (asked.incrementAndGet() > budget) {
+                throw new IllegalStateException("peer went away");
+            }
+            byte[] chunk = upstream.snapshotChunk(index);
+            if (tamper) {
+                chunk[chunk.length - 1] ^= 1;
+            }
+            served.incrementAndGet();
+            return chunk;
+        }
+    }
+
     /** The miner's balance for {@code a} as of the pivot snapshot (recomputed from current state). */
     private long minerLedgerBalanceAtPivotOf(PublicAddress a) {
         // The miner kept extending after the pivot; recompute what the snapshot carried:
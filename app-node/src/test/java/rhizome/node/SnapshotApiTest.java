@@ -228,15 +228,18 @@ class SnapshotApiTest {
         assertTrue(node.materializeSnapshot());
         var snap = node.materializedSnapshot();
         assertTrue(java.nio.file.Files.exists(snap.file()), "chunks are spooled to a file");
-        var expected = rhizome.core.state.snapshot.StateSnapshotExporter.export(
-            snapshotSource, NodeService.SNAPSHOT_CHUNK_ENTRIES);
+        var expected = new ArrayList<SnapshotChunk>();
+        rhizome.core.state.snapshot.StateSnapshotExporter.exportAligned(snapshotSource,
+            NodeService.SNAPSHOT_CHUNK_ENTRIES,
+            rhizome.core.state.snapshot.StateSnapshotExporter.DEFAULT_CHUNK_BYTES, expected::add);
         assertEquals(expected.size(), snap.chunkCount(), "same chunking as the in-memory export");
         for (int i = 0; i < expected.size(); i++) {
             assertArrayEquals(expected.get(i).encode(), snap.chunkBytes(i),
                 "chunk " + i + " served from the spool equals the in-memory export");
         }
 
-        // Re-materialising deletes the replaced spool; the live one stays servable.
+        // Re-materialising deletes the replaced proof spool; the live one stays servable. The
+        // state did not move, so every chunk is carried over from the pool, not rewritten.
         java.nio.file.Path replaced = snap.file();
         assertTrue(node.materializeSnapshot());
         var next = node.materializedSnapshot();
@@ -244,11 +247,17 @@ class SnapshotApiTest {
             "the replaced snapshot's spool must be deleted");
         assertTrue(java.nio.file.Files.exists(next.file()));
         assertEquals(snap.chunkCount(), next.chunkCount());
+        assertEquals(next.chunkCount(), next.reusedChunks(), "an unchanged chunk is carried over");
+        for (int i = 0; i < next.chunkCount(); i++) {
+            assertTrue(java.nio.file.Files.exists(next.chunkFile(i)), "a shared chunk outlives the swap");
+            assertArrayEquals(expected.get(i).encode(), next.chunkBytes(i));
+        }
 
-        // Closing the service releases the live spool.
+        // Closing the service releases the live spool and its chunks.
         node.close();
         assertTrue(java.nio.file.Files.notExists(next.file()),
             "close() must delete the live snapshot spool");
+        assertTrue(java.nio.file.Files.notExists(next.chunkFile(0)), "close() must release the chunk pool");
         assertNull(node.materializedSnapshot());
     }
 }
@@ -3,6 +3,7 @@ package rhizome.node;
 import rhizome.net.RateLimiter;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.nio.charset.StandardCharsets;
@@ -109,6 +110,38 @@ class SseLogStreamTest {
         assertEquals(": h 3\n\n", nextChunk(body), "empty block -> pure keepalive comment");
     }
 
+    @Test
+    void filteredSubscribersGetOnlyMatchingLogsAndShareAGroup() throws Exception {
+        var watched = PublicAddress.random();
+        var other = PublicAddress.random();
+        String url = "http://x/logs/stream?contract=" + watched.toHexString() + "&topic=6275";
+        HttpResponse first = serve(HttpRequest.get(url).build());
+        // Same filter in another hex case: one group, one payload for both.
+        HttpResponse second = serve(HttpRequest.get(url.toLowerCase()).build());
+        ChannelSupplier<ByteBuf> a = first.takeBodyStream();
+        ChannelSupplier<ByteBuf> b = second.takeBodyStream();
+        nextChunk(a);
+        nextChunk(b);
+        assertEquals(1, (int) eventloop.<Integer>submit(() -> io.activej.promise.Promise.of(hub.groupCount())).get());
+
+        hub.publish(9, List.of(
+            new ContractLog(watched, "buy".getBytes(), new byte[] {1}),
+            new ContractLog(watched, "sell".getBytes(), new byte[] {2}),
+            new ContractLog(other, "buy".getBytes(), new byte[] {3})));
+        String event = nextChunk(a);
+        assertTrue(event.startsWith(": h 9\n"), "the heartbeat still carries the cursor");
+        assertTrue(event.contains("\"data\":\"01\""));
+        assertFalse(event.contains("\"data\":\"02\""), "topic prefix 'bu' excludes 'sell'");
+        assertFalse(event.contains("\"data\":\"03\""), "another contract's log is not sent");
+        assertEquals(event, nextChunk(b));
+
+        hub.publish(10, List.of(new ContractLog(other, "buy".getBytes(), new byte[] {3})));
+        assertEquals(": h 10\n\n", nextChunk(a), "nothing matched: heartbeat only");
+
+        assertEquals(400, serve(HttpRequest.get("http://x/logs/stream?topic=zz").build()).getCode());
+        assertEquals(400, serve(HttpRequest.get("http://x/logs/stream?contract=abc").build()).getCode());
+    }
+
     @Test
     void subscriberCapReturns503AndClosedSubscribersArePruned() throws Exception {
         assertEquals(200, serve(HttpRequest.get("http://x/logs/stream").build()).getCode());
@@ -0,0 +1,91 @@
+package rhizome.node;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.InflaterInputStream;
+
+import io.activej.bytebuf.ByteBuf;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Negotiated stream compression: {@code Accept-Encoding} parsing honours {@code q=0}, and the
+ * deflated frame sequence inflates back to exactly the plain concatenation — in several
+ * sync-flushed frames for a large window, in one frame for an empty one.
+ */
+class WireCompressionTest {
+
+    @Test
+    void acceptEncodingIsParsedWithQualityValues() {
+        assertTrue(WireCompression.acceptsDeflate("gzip, deflate"));
+        assertTrue(WireCompression.acceptsDeflate("DEFLATE ; q=0.5"));
+        assertFalse(WireCompression.acceptsDeflate("deflate;q=0"));
+        assertFalse(WireCompression.acceptsDeflate("br;q=1, deflate;q=0.0"));
+        assertFalse(WireCompression.acceptsDeflate("gzip"));
+        assertFalse(WireCompression.acceptsDeflate((String) null));
+    }
+
+    @Test
+    void deflatedFramesInflateToThePlainStream() throws Exception {
+        Random rnd = new Random(7);
+        List<byte[]> items = new ArrayList<>();
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        for (int i = 0; i < 500; i++) {
+            // Half-structured, like an encoded block: runs of small integers between random bytes.
+            byte[] item = new byte[rnd.nextInt(4_000)];
+            for (int j = 0; j < item.length; j++) {
+                item[j] = (byte) (j % 7 == 0 ? rnd.nextInt() : j % 13);
+            }
+            items.add(item);
+            plain.write(item);
+        }
+
+        ByteArrayOutputStream wire = new ByteArrayOutputStream();
+        int frames = drain(WireCompression.frames(items.iterator(), true), wire);
+        assertTrue(frames > 1, "a large window is flushed in frames, not buffered whole");
+        assertTrue(wire.size() < plain.size() / 2, "wire " + wire.size() + " vs plain " + plain.size());
+        assertArrayEquals(plain.toByteArray(), inflate(wire.toByteArray()));
+
+        ByteArrayOutputStream identity = new ByteArrayOutputStream();
+        assertEquals(items.size(), drain(WireCompression.frames(items.iterator(), false), identity));
+        assertArrayEquals(plain.toByteArray(), identity.toByteArray());
+
+        ByteArrayOutputStream empty = new ByteArrayOutputStream();
+        assertEquals(1, drain(WireCompression.frames(List.<byte[]>of().iterator(), true), empty));
+        assertEquals(0, inflate(empty.toByteArray()).length);
+    }
+
+    @Test
+    void wholeBodyDeflateRoundTrips() throws Exception {
+        byte[] body = new byte[100_000];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) (i % 251);
+        }
+        byte[] deflated = WireCompression.deflate(body);
+        assertTrue(deflated.length < body.length / 10);
+        assertArrayEquals(body, inflate(deflated));
+    }
+
+    private static int drain(Iterator<ByteBuf> frames, ByteArrayOutputStream out) {
+        int n = 0;
+        while (frames.hasNext()) {
+            out.writeBytes(frames.next().asArray());
+            n++;
+        }
+        return n;
+    }
+
+    private static byte[] inflate(byte[] wire) throws Exception {
+        try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(wire))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -28,6 +28,9 @@ public final class WalletClient {
 
     public record WalletInfo(long balance, long nextNonce) {}
 
+    /** One query of a {@link #callReadonlyBatch} batch: a contract and its hex-encodable input. */
+    public record ReadonlyQuery(PublicAddress contract, byte[] input) {}
+
     public int chainId() {
         // PeerJson: the node is remote-controlled input — depth-bound before the recursive
         // org.json parser runs, same rule as for peer bodies (a hostile node is still a
@@ -55,6 +58,24 @@ public final class WalletClient {
         return wrap(() -> http.postJson("/call_readonly", body.toString()));
     }
 
+    /**
+     * Raw JSON of a batched read-only call ({@code POST /call_readonly_batch}): every query runs
+     * against the same committed state, in order, in one round-trip. The node answers
+     * {@code {results: [...], gasUsed}}, one {@link #callReadonly}-shaped result per query.
+     */
+    public String callReadonlyBatch(java.util.List<ReadonlyQuery> queries) {
+        org.json.JSONArray calls = new org.json.JSONArray();
+        for (ReadonlyQuery q : queries) {
+            JSONObject call = new JSONObject().put("to", q.contract().toHexString());
+            if (q.input().length > 0) {
+                call.put("input", rhizome.core.common.Utils.bytesToHex(q.input()));
+            }
+            calls.put(call);
+        }
+        String body = new JSONObject().put("calls", calls).toString();
+        return wrap(() -> http.postJson("/call_readonly_batch", body));
+    }
+
     /** Raw JSON of a token's metadata by id. */
     public String token(String tokenIdHex) {
         return get("/token?id=" + query(tokenIdHex));
@@ -0,0 +1,374 @@
+package rhizome.core.block;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import rhizome.core.block.dto.BlockDto;
+import rhizome.core.common.Constants;
+import rhizome.core.ledger.PublicAddress;
+import rhizome.core.merkletree.MerkleTree;
+import rhizome.core.transaction.Transaction;
+import rhizome.core.transaction.dto.TransactionDto;
+import rhizome.crypto.Crypto;
+import rhizome.crypto.SHA256Hash;
+import rhizome.crypto.SipHash;
+
+/**
+ * Compact relay form of a block: the header and uncle refs in full, a few prefilled transactions,
+ * and a {@value #SHORT_ID_BYTES}-byte short id for every other transaction. A receiving peer
+ * already holds most of a fresh block's transactions in its mempool, so it rebuilds the block
+ * from there ({@link #reconstruct}) and fetches only what it lacks — one round trip, instead of
+ * the sender pushing the full (up to 4 MiB) {@link BlockCodec} encoding to every peer.
+ *
+ * <p>Wire layout: {@code header(BlockDto.BUFFER_SIZE) || salt(8) || int uncleCount || uncles
+ * (as BlockCodec) || int prefilledCount || (int index || tx)* || shortId(6)*}. Prefilled indexes
+ * are strictly increasing; the short ids fill the remaining slots in index order, so their count
+ * is implied by the header's {@code numTransactions}.
+ *
+ * <p>Short ids: the low 48 bits of SipHash-2-4 of the transaction's {@code hashContents}, keyed by
+ * the first 16 bytes of {@code SHA-256(header || salt)}. The key changes per block and per sender
+ * salt, so nobody can grind a mempool transaction colliding with a future block's ids. Ids are
+ * only a lookup hint, never trusted: a pool collision (two candidates for one id) leaves that slot
+ * missing, and a rebuilt body whose Merkle root disagrees with the header — a collision, or a pool
+ * copy carrying a different signature than the mined one — requests every non-prefilled slot.
+ * The reconstructed block is then validated exactly like a {@code /submit}ted one.
+ */
+public final class CompactBlock {
+
+    /** Short transaction id width: 48 bits, collision odds ~n·m/2^48 per block. */
+    public static final int SHORT_ID_BYTES = 6;
+    private static final long SHORT_ID_MASK = (1L << (SHORT_ID_BYTES * 8)) - 1;
+    private static final int UNCLE_BYTES = SHA256Hash.SIZE + Integer.BYTES + PublicAddress.SIZE;
+
+    /** One transaction at its position in the block body. */
+    public record IndexedTransaction(int index, Transaction transaction) { }
+
+    /** A missing-transactions reply: the block it completes, and the slots it fills. */
+    public record Fill(SHA256Hash blockHash, List<IndexedTransaction> transactions) { }
+
+    private final BlockDto header;
+    private final List<UncleRef> uncles;
+    private final long salt;
+    private final List<IndexedTransaction> prefilled;
+    private final long[] shortIds;
+    private final long k0;
+    private final long k1;
+
+    private CompactBlock(BlockDto header, List<UncleRef> uncles, long salt,
+                         List<IndexedTransaction> prefilled, long[] shortIds) {
+        this.header = header;
+        this.uncles = List.copyOf(uncles);
+        this.salt = salt;
+        this.prefilled = List.copyOf(prefilled);
+        this.shortIds = shortIds;
+        ByteBuffer keyInput = ByteBuffer.allocate(BlockDto.BUFFER_SIZE + Long.BYTES);
+        header.writeTo(keyInput);
+        keyInput.putLong(salt);
+        byte[] key = Crypto.SHA256(keyInput.array()).raw();
+        ByteBuffer k = ByteBuffer.wrap(key, 0, 2 * Long.BYTES).order(java.nio.ByteOrder.LITTLE_ENDIAN);
+        this.k0 = k.getLong();
+        this.k1 = k.getLong();
+    }
+
+    /**
+     * The compact form of {@code block}. Index 0 — the fee transaction, which by construction is in
+     * no mempool — is always prefilled; every other transaction travels as a short id.
+     */
+    public static CompactBlock of(Block block, long salt) {
+        BlockDto header = block.serialize();
+        List<Transaction> txs = block.transactions();
+        List<IndexedTransaction> prefilled = txs.isEmpty()
+            ? List.of() : List.of(new IndexedTransaction(0, txs.get(0)));
+        CompactBlock shell = new CompactBlock(header, block.uncles(), salt, prefilled,
+            new long[Math.max(0, txs.size() - 1)]);
+        for (int i = 1; i < txs.size(); i++) {
+            shell.shortIds[i - 1] = shell.shortId(txs.get(i).hashContents());
+        }
+        return shell;
+    }
+
+    /** The short id of a transaction with content hash {@code contentHash} under this block's key. */
+    public long shortId(SHA256Hash contentHash) {
+        return SipHash.hash24(k0, k1, contentHash.raw()) & SHORT_ID_MASK;
+    }
+
+    /** Hash of the block this compact form describes (its header, including uncle refs). */
+    public SHA256Hash blockHash() {
+        return header().hash();
+    }
+
+    /**
+     * The described block's header: its whole PoW preimage, so the receiver can check the proof of
+     * work and the parent link before spending anything on a rebuild.
+     */
+    public BlockHeader header() {
+        return new BlockHeader(header.id(), header.timestamp(), header.difficulty(),
+            header.numTransactions(), header.lastBlockHash(), header.merkleRoot(), header.nonce(),
+            header.stateRoot(), header.vote(), uncles);
+    }
+
+    /** Height of the described block. */
+    public int id() {
+        return header.id();
+    }
+
+    /** Transactions in the described block body. */
+    public int transactionCount() {
+        return header.numTransactions();
+    }
+
+    public byte[] encode() {
+        TransactionDto[] dtos = new TransactionDto[prefilled.size()];
+        int size = BlockDto.BUFFER_SIZE + Long.BYTES + Integer.BYTES + uncles.size() * UNCLE_BYTES
+            + Integer.BYTES + shortIds.length * SHORT_ID_BYTES;
+        for (int i = 0; i < dtos.length; i++) {
+            dtos[i] = prefilled.get(i).transaction().serialize();
+            size += Integer.BYTES + dtos[i].getSize();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        header.writeTo(buffer);
+        buffer.putLong(salt);
+        buffer.putInt(uncles.size());
+        for (UncleRef uncle : uncles) {
+            buffer.put(uncle.hash().toBytes());
+            buffer.putInt(uncle.difficulty());
+            buffer.put(uncle.miner().toBytes());
+        }
+        buffer.putInt(dtos.length);
+        for (int i = 0; i < dtos.length; i++) {
+            buffer.putInt(prefilled.get(i).index());
+            dtos[i].writeTo(buffer);
+        }
+        for (long id : shortIds) {
+            for (int b = 0; b < SHORT_ID_BYTES; b++) {
+                buffer.put((byte) (id >>> (8 * b)));
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Decodes a compact block, bounding every wire count before it drives a loop or allocation
+     * (the BlockCodec discipline) and rejecting trailing bytes. Throws
+     * {@link IllegalArgumentException} or {@link java.nio.BufferUnderflowException} on malformed
+     * input.
+     */
+    public static CompactBlock decode(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        BlockDto header = BlockDto.readFrom(buffer); // bounds numTransactions
+        long salt = buffer.getLong();
+        int numUncles = buffer.getInt();
+        if (numUncles < 0 || numUncles > Constants.MAX_UNCLES_PER_BLOCK) {
+            throw new IllegalArgumentException("numUncles out of range: " + numUncles);
+        }
+        List<UncleRef> uncles = new ArrayList<>(numUncles);
+        for (int i = 0; i < numUncles; i++) {
+            byte[] h = new byte[SHA256Hash.SIZE];
+            buffer.get(h);
+            int difficulty = buffer.getInt();
+            if (difficulty < 0 || difficulty > Constants.MAX_DIFFICULTY) {
+                throw new IllegalArgumentException("uncleDifficulty out of range: " + difficulty);
+            }
+            byte[] m = new byte[PublicAddress.SIZE];
+            buffer.get(m);
+            uncles.add(new UncleRef(SHA256Hash.of(h), difficulty, PublicAddress.of(m)));
+        }
+        int n = header.numTransactions();
+        int numPrefilled = buffer.getInt();
+        if (numPrefilled < 0 || numPrefilled > n) {
+            throw new IllegalArgumentException("prefilled count out of range: " + numPrefilled);
+        }
+        List<IndexedTransaction> prefilled = new ArrayList<>(numPrefilled);
+        int last = -1;
+        for (int i = 0; i < numPrefilled; i++) {
+            int index = buffer.getInt();
+            if (index <= last || index >= n) {
+                throw new IllegalArgumentException("prefilled index out of order or range: " + index);
+            }
+            last = index;
+            prefilled.add(new IndexedTransaction(index, Transaction.of(TransactionDto.readFrom(buffer))));
+        }
+        int numShort = n - numPrefilled;
+        if (buffer.remaining() != (long) numShort * SHORT_ID_BYTES) {
+            throw new IllegalArgumentException("short id section is " + buffer.remaining()
+                + " bytes, expected " + ((long) numShort * SHORT_ID_BYTES));
+        }
+        long[] shortIds = new long[numShort];
+        byte[] raw = new byte[SHORT_ID_BYTES];
+        for (int i = 0; i < numShort; i++) {
+            buffer.get(raw);
+            long id = 0;
+            for (int b = SHORT_ID_BYTES - 1; b >= 0; b--) {
+                id = (id << 8) | (raw[b] & 0xFFL);
+            }
+            shortIds[i] = id;
+        }
+        return new CompactBlock(header, uncles, salt, prefilled, shortIds);
+    }
+
+    /**
+     * Rebuilds the block body from {@code pool} (typically a mempool snapshot). The result is
+     * complete when every short id matched exactly one pool transaction and the rebuilt body's
+     * Merkle root matches the header; otherwise it names the slots to fetch from the sender.
+     */
+    public Reconstruction reconstruct(Collection<Transaction> pool) {
+        // id -> the unique pool transaction carrying it; an id two pool transactions share is
+        // ambiguous and resolves to neither.
+        Map<Long, Transaction> byId = new HashMap<>(pool.size() * 2);
+        java.util.Set<Long> ambiguous = new java.util.HashSet<>();
+        for (Transaction t : pool) {
+            long id = shortId(t.hashContents());
+            if (byId.putIfAbsent(id, t) != null) {
+                ambiguous.add(id);
+            }
+        }
+        int n = header.numTransactions();
+        Transaction[] slots = new Transaction[n];
+        for (IndexedTransaction p : prefilled) {
+            slots[p.index()] = p.transaction();
+        }
+        int[] missing = new int[n];
+        int missingCount = 0;
+        int next = 0;
+        for (int i = 0; i < n; i++) {
+            if (slots[i] != null) {
+                continue;
+            }
+            long id = shortIds[next++];
+            Transaction t = ambiguous.contains(id) ? null : byId.get(id);
+            if (t == null) {
+                missing[missingCount++] = i;
+            } else {
+                slots[i] = t;
+            }
+        }
+        if (missingCount == 0 && n > 0 && !merkleRoot(slots).equals(header.merkleRoot())) {
+            // A wrong pick somewhere (id collision, or a pool copy that differs from the mined
+            // transaction outside hashContents). Which slot is unknowable: refetch them all.
+            for (int i = 0; i < n; i++) {
+                if (!isPrefilled(i)) {
+                    missing[missingCount++] = i;
+                    slots[i] = null;
+                }
+            }
+        }
+        return new Reconstruction(slots, Arrays.copyOf(missing, missingCount));
+    }
+
+    private boolean isPrefilled(int index) {
+        for (IndexedTransaction p : prefilled) {
+            if (p.index() == index) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static SHA256Hash merkleRoot(Transaction[] slots) {
+        MerkleTree tree = new MerkleTree();
+        tree.setItems(Arrays.asList(slots));
+        return tree.getRootHash();
+    }
+
+    /**
+     * A (possibly partial) rebuild. Complete: {@link #block()} is the block. Partial: the sender
+     * supplies the {@link #missing()} slots and {@link #complete} assembles the block.
+     */
+    public final class Reconstruction {
+        private final Transaction[] slots;
+        private final int[] missing;
+
+        private Reconstruction(Transaction[] slots, int[] missing) {
+            this.slots = slots;
+            this.missing = missing;
+        }
+
+        public boolean isComplete() {
+            return missing.length == 0;
+        }
+
+        /** Body indexes still to fetch, ascending. */
+        public int[] missing() {
+            return missing.clone();
+        }
+
+        /** Hash of the block being rebuilt. */
+        public SHA256Hash blockHash() {
+            return CompactBlock.this.blockHash();
+        }
+
+        /** The rebuilt block; only once {@link #isComplete()}. */
+        public Block block() {
+            if (!isComplete()) {
+                throw new IllegalStateException(missing.length + " transactions still missing");
+            }
+            return Block.of(header, new ArrayList<>(Arrays.asList(slots)), uncles);
+        }
+
+        /**
+         * The block with the missing slots filled from {@code supplied}, which must name exactly
+         * the {@link #missing()} indexes in order. Does not modify this reconstruction, so a bad
+         * reply can be retried. The block is NOT validated here — the caller submits it.
+         */
+        public Block complete(List<IndexedTransaction> supplied) {
+            if (supplied.size() != missing.length) {
+                throw new IllegalArgumentException("expected " + missing.length + " transactions, got "
+                    + supplied.size());
+            }
+            Transaction[] filled = slots.clone();
+            for (int i = 0; i < missing.length; i++) {
+                IndexedTransaction t = supplied.get(i);
+                if (t.index() != missing[i]) {
+                    throw new IllegalArgumentException("unexpected transaction index " + t.index());
+                }
+                filled[t.index()] = t.transaction();
+            }
+            return Block.of(header, new ArrayList<>(Arrays.asList(filled)), uncles);
+        }
+    }
+
+    // ---- missing-transaction round trip ----
+
+    /** {@code blockHash(32) || int count || (int index || tx)*}: the reply to a missing-slot list. */
+    public static byte[] encodeFill(SHA256Hash blockHash, List<IndexedTransaction> txs) {
+        TransactionDto[] dtos = new TransactionDto[txs.size()];
+        int size = SHA256Hash.SIZE + Integer.BYTES;
+        for (int i = 0; i < dtos.length; i++) {
+            dtos[i] = txs.get(i).transaction().serialize();
+            size += Integer.BYTES + dtos[i].getSize();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(blockHash.raw());
+        buffer.putInt(dtos.length);
+        for (int i = 0; i < dtos.length; i++) {
+            buffer.putInt(txs.get(i).index());
+            dtos[i].writeTo(buffer);
+        }
+        return buffer.array();
+    }
+
+    /** Decodes {@link #encodeFill}, bounding the count and rejecting trailing bytes. */
+    public static Fill decodeFill(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte[] hash = new byte[SHA256Hash.SIZE];
+        buffer.get(hash);
+        int count = buffer.getInt();
+        if (count < 0 || count > Constants.MAX_TRANSACTIONS_PER_BLOCK) {
+            throw new IllegalArgumentException("transaction count out of range: " + count);
+        }
+        List<IndexedTransaction> txs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = buffer.getInt();
+            txs.add(new IndexedTransaction(index, Transaction.of(TransactionDto.readFrom(buffer))));
+        }
+        if (buffer.hasRemaining()) {
+            throw new IllegalArgumentException("trailing bytes after transactions: " + buffer.remaining());
+        }
+        return new Fill(SHA256Hash.of(hash), txs);
+    }
+}
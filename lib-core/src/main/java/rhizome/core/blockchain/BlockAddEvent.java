@@ -0,0 +1,50 @@
+package rhizome.core.blockchain;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one {@code ChainEngine.addBlock}, accepted or not, with the same per-phase
+ * breakdown the {@link EngineProbe} receives (a phase the block never reached is 0). Its duration
+ * runs from taking the engine lock to the outcome, so lock wait is excluded. Disabled unless a
+ * recording enables {@code rhizome.BlockAdd}; the engine then reads no clock for it.
+ */
+@Name("rhizome.BlockAdd")
+@Label("Block Add")
+@Category({"Rhizome", "Consensus"})
+@Description("One ChainEngine.addBlock call and its phase breakdown")
+final class BlockAddEvent extends jdk.jfr.Event {
+
+    @Label("Height")
+    long height;
+
+    @Label("Status")
+    String status;
+
+    @Label("Transactions")
+    int transactions;
+
+    @Label("Pre-checks")
+    @Timespan(Timespan.NANOSECONDS)
+    long preChecks;
+
+    @Label("Proof of Work")
+    @Description("Own PoW plus the uncle checks")
+    @Timespan(Timespan.NANOSECONDS)
+    long pow;
+
+    @Label("Execute")
+    @Timespan(Timespan.NANOSECONDS)
+    long execute;
+
+    @Label("State Root")
+    @Timespan(Timespan.NANOSECONDS)
+    long stateRoot;
+
+    @Label("Append")
+    @Timespan(Timespan.NANOSECONDS)
+    long append;
+}
@@ -0,0 +1,28 @@
+package rhizome.core.blockchain;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for one {@link Executor#executeBlock} run: signature batch, structural pass and the
+ * apply pass (contracts, boxes, tokens). Also emitted for a block producer's candidate runs, so a
+ * recording shows execution outside {@code addBlock} too. Disabled unless a recording enables
+ * {@code rhizome.BlockExecute}.
+ */
+@Name("rhizome.BlockExecute")
+@Label("Block Execute")
+@Category({"Rhizome", "Consensus"})
+@Description("One block execution against the ledger and the processors")
+final class BlockExecuteEvent extends jdk.jfr.Event {
+
+    @Label("Height")
+    long height;
+
+    @Label("Status")
+    String status;
+
+    @Label("Transactions")
+    int transactions;
+}
@@ -65,7 +65,7 @@ public final class ChainEngine implements Blockchain, rhizome.core.mempool.Accou
     private final rhizome.core.state.StateAccumulator stateAccumulator;
     private LedgerSnapshot genesisSnapshot;
     private final OrphanPool orphans = new OrphanPool(256);
-    private final ReentrantLock lock = new ReentrantLock();
+    private final ProbedLock lock = new ProbedLock();
 
     /** Next expected account nonce per sender; persisted, updated incrementally on add/pop. */
     private final NonceStore nonceStore;
@@ -82,7 +82,9 @@ public final class ChainEngine implements Blockchain, rhizome.core.mempool.Accou
 
     /** Uncle work credited per block height, so a pop subtracts exactly what an add added. */
     private final Map<Long, BigInteger> uncleWorkByHeight = new HashMap<>();
-    private volatile java.util.function.LongConsumer onBlockApplied;
+    private volatile java.util.function.Consumer<Block> onBlockApplied;
+    private volatile java.util.function.LongConsumer onBlockPopped;
+    private volatile EngineProbe probe;
 
     /**
      * Votable box params established at each completed voting-epoch boundary (height →
@@ -163,6 +165,23 @@ public final class ChainEngine implements Blockchain, rhizome.core.mempool.Accou
             }
         };
 
+    /**
+     * Headers whose proof of work {@link #verifyHeaderPow} proved ahead of their body (compact
+     * relay checks the header before rebuilding the body from the mempool), mapped block-hash →
+     * proven nonce — the same (hash, nonce) pairing as {@link #recentlyPoppedBlocks}, since the hash
+     * does not commit the nonce. {@link #addBlock} (or {@link #registerOrphan}, for a sibling)
+     * consumes a matching entry instead of re-running the memory-hard hash, so a compact push costs
+     * one hash, as the submit budget assumes. Bounded to twice the relay's pending-rebuild table; a
+     * miss only means hashing again.
+     */
+    private final java.util.LinkedHashMap<SHA256Hash, SHA256Hash> provenHeaderPow =
+        new java.util.LinkedHashMap<>(64, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SHA256Hash, SHA256Hash> eldest) {
+                return size() > 128;
+            }
+        };
+
     /**
      * Observable degraded-state marker (audit: silent restore failure). Set when a post-reorg
      * restore of the local branch fails — the node is then shorter than it started and needs a
@@ -403,247 +422,318 @@ public final class ChainEngine implements Blockchain, rhizome.core.mempool.Accou
     private ExecutionStatus addBlock(Block block, boolean trustedRestore, boolean trustedPow) {
         lock.lock();
         try {
-            // Degraded barrier (audit 17th pass): after a failed post-pop peripheral revert or a
-            // failed post-reorg restore, the local state is suspect — a peripheral store may sit
-            // AHEAD of the height (its receipts would be silently overwritten by a new block at
-            // that height, destroying the journal boot recovery needs), or the chain is shorter
-            // than it was. Refuse every NEW-tip write — gossip, /submit, production and
-            // peer-branch adoption alike — instead of entrenching state boot recovery has not
-            // repaired. Only the trusted RESTORE path bypasses the barrier: it re-applies this
-            // node's own already-canonical suffix and clears the flag on success
-            // (ChainSynchronizer.restore), so the barrier cannot wedge recovery — and a degraded
-            // node refusing work is exactly the fail-loud signal that a restart is required.
-            if (!trustedRestore && isDegraded()) {
-                return NODE_DEGRADED;
-            }
-            // Reorg-window guard (audit: non-atomic reorg window). Checked UNDER the lock, and the
-            // window is opened under the same lock (HeaderSynchronizer's phase 1 runs begin inside
-            // the capture+pop withConsistentView), so no new-tip block can slip between the window
-            // opening and the first pop: while a non-atomic reorg holds the chain truncated at the
-            // fork height, refuse NEW tip blocks (gossip, /submit, local production) instead of
-            // accepting one the restore would destroy. The window CLOSES outside the lock (finally,
-            // after the restore/adopt view completes), which can only delay an acceptance by one
-            // IS_SYNCING retry — benign, never a lost block. The trusted paths bypass the guard:
-            // restoreBlock re-adds our own suffix and addValidatedBody applies the proven branch —
-            // both driven by the synchronizer that opened the window.
-            if (!trustedRestore && !trustedPow && reorgWindowOpen.get()) {
-                return IS_SYNCING;
+            EngineProbe p = probe;
+            BlockAddEvent event = new BlockAddEvent();
+            if (p == null && !event.isEnabled()) {
+                return applyBlock(block, trustedRestore, trustedPow, null);
             }
-            var b = (BlockImpl) block;
-            long height = store.height();
-
-            if (b.id() != height + 1) {
-                return INVALID_BLOCK_ID;
+            event.begin();
+            PhaseClock clock = new PhaseClock();
+            ExecutionStatus status = applyBlock(block, trustedRestore, trustedPow, clock);
+            EngineProbe.BlockTimings timings = clock.finish();
+            if (p != null) {
+                p.blockProcessed(status, block.id(), block.transactions().size(), timings);
             }
-            if (block.transactions().isEmpty()
-                || block.transactions().size() > params.maxTransactionsPerBlock()) {
-                return INVALID_TRANSACTION_COUNT; // must at least carry a coinbase
+            if (event.shouldCommit()) {
+                event.height = block.id();
+                event.status = status.name();
+                event.transactions = block.transactions().size();
+                event.preChecks = timings.preChecksNanos();
+                event.pow = timings.powNanos();
+                event.execute = timings.executeNanos();
+                event.stateRoot = timings.stateRootNanos();
+                event.append = timings.appendNanos();
+                event.commit();
             }
-            // One canonical vote rule at the consensus gate, not just in the codecs (audit F1):
-            // BlockDto/HeaderCodec already reject |vote| > 2 on the wire, but a block arriving via
-            // JSON or the local producer must meet the same bound before its vote can reach the
-            // epoch tally. Cheap and structural, so it runs with the other pre-PoW checks.
-            if (Math.abs((long) b.vote()) > 2) {
-                return INVALID_VOTE;
+            return status;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The body of {@link #addBlock(Block, boolean, boolean)}, under the engine lock. {@code clock}
+     * (null unless a probe is set or a recording enables {@link BlockAddEvent}) is marked at each
+     * phase boundary: pre-checks, PoW + uncles, execution, state root, append.
+     */
+    private ExecutionStatus applyBlock(Block block, boolean trustedRestore, boolean trustedPow,
+                                       PhaseClock clock) {
+        // Degraded barrier (audit 17th pass): after a failed post-pop peripheral revert or a
+        // failed post-reorg restore, the local state is suspect — a peripheral store may sit
+        // AHEAD of the height (its receipts would be silently overwritten by a new block at
+        // that height, destroying the journal boot recovery needs), or the chain is shorter
+        // than it was. Refuse every NEW-tip write — gossip, /submit, production and
+        // peer-branch adoption alike — instead of entrenching state boot recovery has not
+        // repaired. Only the trusted RESTORE path bypasses the barrier: it re-applies this
+        // node's own already-canonical suffix and clears the flag on success
+        // (ChainSynchronizer.restore), so the barrier cannot wedge recovery — and a degraded
+        // node refusing work is exactly the fail-loud signal that a restart is required.
+        if (!trustedRestore && isDegraded()) {
+            return NODE_DEGRADED;
+        }
+        // Reorg-window guard (audit: non-atomic reorg window). Checked UNDER the lock, and the
+        // window is opened under the same lock (HeaderSynchronizer's phase 1 runs begin inside
+        // the capture+pop withConsistentView), so no new-tip block can slip between the window
+        // opening and the first pop: while a non-atomic reorg holds the chain truncated at the
+        // fork height, refuse NEW tip blocks (gossip, /submit, local production) instead of
+        // accepting one the restore would destroy. The window CLOSES outside the lock (finally,
+        // after the restore/adopt view completes), which can only delay an acceptance by one
+        // IS_SYNCING retry — benign, never a lost block. The trusted paths bypass the guard:
+        // restoreBlock re-adds our own suffix and addValidatedBody applies the proven branch —
+        // both driven by the synchronizer that opened the window.
+        if (!trustedRestore && !trustedPow && reorgWindowOpen.get()) {
+            return IS_SYNCING;
+        }
+        var b = (BlockImpl) block;
+        long height = store.height();
+
+        if (b.id() != height + 1) {
+            return INVALID_BLOCK_ID;
+        }
+        if (block.transactions().isEmpty()
+            || block.transactions().size() > params.maxTransactionsPerBlock()) {
+            return INVALID_TRANSACTION_COUNT; // must at least carry a coinbase
+        }
+        // One canonical vote rule at the consensus gate, not just in the codecs (audit F1):
+        // BlockDto/HeaderCodec already reject |vote| > 2 on the wire, but a block arriving via
+        // JSON or the local producer must meet the same bound before its vote can reach the
+        // epoch tally. Cheap and structural, so it runs with the other pre-PoW checks.
+        if (Math.abs((long) b.vote()) > 2) {
+            return INVALID_VOTE;
+        }
+        // Bound the block's serialized size (cheap, before any expensive work) so a
+        // block laden with contract payloads cannot be a download/storage DoS.
+        if (serializedSize(block) > params.maxBlockSizeBytes()) {
+            return BLOCK_TOO_LARGE;
+        }
+        // Static checkpoint: at a pinned height, only the published hash passes.
+        SHA256Hash checkpoint = params.checkpoints().get(height + 1);
+        if (checkpoint != null && !block.hash().equals(checkpoint)) {
+            return HEADER_HASH_INVALID;
+        }
+        // Parent linkage and pacing need only the parent HEADER — a snap-synced node
+        // holds headers (not bodies) below its pivot, and this path must still work.
+        BlockHeader parent = store.headerAt(height);
+        if (!b.lastBlockHash().equals(parent.hash())) {
+            return INVALID_LASTBLOCK_HASH;
+        }
+        if (b.timestamp() <= medianTimePast()) {
+            return BLOCK_TIMESTAMP_TOO_OLD;
+        }
+        // Consensus rate limit: a block must be at least minBlockTimeSec after its
+        // parent. Enforced by every node, so it caps block production for everyone
+        // (majority miner included), unlike the producer's local pacing.
+        if (b.timestamp() < parent.timestamp() + params.minBlockTimeSec() * 1000L) {
+            return BLOCK_TIMESTAMP_TOO_CLOSE;
+        }
+        if (b.timestamp() > nowMillis.getAsLong() + params.maxFutureBlockTimeSec() * 1000L) {
+            return BLOCK_TIMESTAMP_IN_FUTURE;
+        }
+        if (b.difficulty() != currentDifficulty) {
+            return INVALID_DIFFICULTY;
+        }
+        if (!computeMerkleRoot(block).equals(b.merkleRoot())) {
+            return INVALID_MERKLE_ROOT;
+        }
+        ExecutionStatus nonceCheck = checkAccountNonces(block);
+        if (nonceCheck != SUCCESS) {
+            return nonceCheck;
+        }
+        // Proof of work, verified last so an invalid block can't burn CPU (Pandanite lesson) — unless
+        // the caller already proved it: a headers-first-synced body whose hash equals a header
+        // HeaderChain.validate PoW-verified carries the same memory-hard proof, so re-hashing it is
+        // pure waste (audit P4). trustedPow is reachable only via addValidatedBody, whose contract
+        // pins that hash-equality guarantee. On the trusted-restore path the same skip applies when
+        // the block's header is identical to a block this node just popped — hash match PLUS the
+        // proven nonce (the hash preimage does not commit the nonce). Anything else re-checks in full.
+        if (clock != null) {
+            clock.mark(); // pre-checks done
+        }
+        boolean powAlreadyProven = trustedPow
+            || (trustedRestore && b.nonce().equals(recentlyPoppedBlocks.get(block.hash())))
+            || b.nonce().equals(provenHeaderPow.remove(block.hash()));
+        if (!powAlreadyProven && !block.verifyNonce(params.powAlgorithm(), params.powCostsAt(b.id()))) {
+            return INVALID_NONCE;
+        }
+
+        // Structural uncle checks (GHOST): bounded count, distinct, none is the parent, and each
+        // referenced orphan is PoW-verified (memory-hard) for its work weight. Deliberately AFTER
+        // the block's OWN PoW: a submitted block triggers up to maxUnclesPerBlock memory-hard uncle
+        // hashes, and running them before line-277 let a PoW-free /submit force ~3x the hashing the
+        // submitPowGate budgets (one own hash) — an event-loop DoS under the consensus lock. Gating
+        // uncle verification behind the block's proven work means an attacker must do real PoW
+        // before any uncle hashing runs, so it is no longer a cheap amplifier (audit 5th-pass,
+        // consensus/crypto Finding: uncle-PoW-before-block-PoW).
+        BigInteger uncleWork;
+        if (trustedRestore) {
+            // Trust our own previously-validated block's uncle refs (the pool may have been
+            // churned since, audit V5) — but still enforce the pool-free STRUCTURAL bounds the
+            // committed refs carry on their own (audit F2): count cap, distinct hashes and
+            // minDifficulty <= ref.difficulty() <= block.difficulty(). A fabricated block passed
+            // to this trusted path can then never inflate uncle work/rewards beyond what a
+            // normal addBlock would accept.
+            uncleWork = uncleWorkFromRefs(b);
+            if (uncleWork == null) {
+                return INVALID_UNCLES;
             }
-            // Bound the block's serialized size (cheap, before any expensive work) so a
-            // block laden with contract payloads cannot be a download/storage DoS.
-            if (serializedSize(block) > params.maxBlockSizeBytes()) {
-                return BLOCK_TOO_LARGE;
-            }
-            // Static checkpoint: at a pinned height, only the published hash passes.
-            SHA256Hash checkpoint = params.checkpoints().get(height + 1);
-            if (checkpoint != null && !block.hash().equals(checkpoint)) {
-                return HEADER_HASH_INVALID;
-            }
-            // Parent linkage and pacing need only the parent HEADER — a snap-synced node
-            // holds headers (not bodies) below its pivot, and this path must still work.
-            BlockHeader parent = store.headerAt(height);
-            if (!b.lastBlockHash().equals(parent.hash())) {
-                return INVALID_LASTBLOCK_HASH;
-            }
-            if (b.timestamp() <= medianTimePast()) {
-                return BLOCK_TIMESTAMP_TOO_OLD;
-            }
-            // Consensus rate limit: a block must be at least minBlockTimeSec after its
-            // parent. Enforced by every node, so it caps block production for everyone
-            // (majority miner included), unlike the producer's local pacing.
-            if (b.timestamp() < parent.timestamp() + params.minBlockTimeSec() * 1000L) {
-                return BLOCK_TIMESTAMP_TOO_CLOSE;
-            }
-            if (b.timestamp() > nowMillis.getAsLong() + params.maxFutureBlockTimeSec() * 1000L) {
-                return BLOCK_TIMESTAMP_IN_FUTURE;
-            }
-            if (b.difficulty() != currentDifficulty) {
-                return INVALID_DIFFICULTY;
-            }
-            if (!computeMerkleRoot(block).equals(b.merkleRoot())) {
-                return INVALID_MERKLE_ROOT;
-            }
-            ExecutionStatus nonceCheck = checkAccountNonces(block);
-            if (nonceCheck != SUCCESS) {
-                return nonceCheck;
-            }
-            // Proof of work, verified last so an invalid block can't burn CPU (Pandanite lesson) — unless
-            // the caller already proved it: a headers-first-synced body whose hash equals a header
-            // HeaderChain.validate PoW-verified carries the same memory-hard proof, so re-hashing it is
-            // pure waste (audit P4). trustedPow is reachable only via addValidatedBody, whose contract
-            // pins that hash-equality guarantee. On the trusted-restore path the same skip applies when
-            // the block's header is identical to a block this node just popped — hash match PLUS the
-            // proven nonce (the hash preimage does not commit the nonce). Anything else re-checks in full.
-            boolean powAlreadyProven = trustedPow
-                || (trustedRestore && b.nonce().equals(recentlyPoppedBlocks.get(block.hash())));
-            if (!powAlreadyProven && !block.verifyNonce(params.powAlgorithm(), params.powCostsAt(b.id()))) {
-                return INVALID_NONCE;
-            }
-
-            // Structural uncle checks (GHOST): bounded count, distinct, none is the parent, and each
-            // referenced orphan is PoW-verified (memory-hard) for its work weight. Deliberately AFTER
-            // the block's OWN PoW: a submitted block triggers up to maxUnclesPerBlock memory-hard uncle
-            // hashes, and running them before line-277 let a PoW-free /submit force ~3x the hashing the
-            // submitPowGate budgets (one own hash) — an event-loop DoS under the consensus lock. Gating
-            // uncle verification behind the block's proven work means an attacker must do real PoW
-            // before any uncle hashing runs, so it is no longer a cheap amplifier (audit 5th-pass,
-            // consensus/crypto Finding: uncle-PoW-before-block-PoW).
-            BigInteger uncleWork;
-            if (trustedRestore) {
-                // Trust our own previously-validated block's uncle refs (the pool may have been
-                // churned since, audit V5) — but still enforce the pool-free STRUCTURAL bounds the
-                // committed refs carry on their own (audit F2): count cap, distinct hashes and
-                // minDifficulty <= ref.difficulty() <= block.difficulty(). A fabricated block passed
-                // to this trusted path can then never inflate uncle work/rewards beyond what a
-                // normal addBlock would accept.
-                uncleWork = uncleWorkFromRefs(b);
-                if (uncleWork == null) {
-                    return INVALID_UNCLES;
-                }
-            } else {
-                uncleWork = validateUncles(b);
-                if (uncleWork == null) {
-                    return INVALID_UNCLES;
-                }
+        } else {
+            uncleWork = validateUncles(b);
+            if (uncleWork == null) {
+                return INVALID_UNCLES;
             }
+        }
 
-            java.util.Set<PublicAddress> touched = stateAccumulator == null ? null : new java.util.HashSet<>();
-            // Open a block commit: the ledger writes below stage in the store and flush atomically with
-            // the block/height in store.append, so a crash can never leave the ledger ahead of the
-            // height (audit S3). Every exit before append must discard the staged writes, so the whole
-            // mutation runs under a finally.
-            store.beginBlockCommit();
-            boolean appended = false;
-            try {
-                ExecutionStatus status = Executor.executeBlock(
-                    block, ledger, store::hasTransaction, params, verifier,
-                    contractProcessor, boxProcessor, tokenProcessor, touched);
-                if (status != SUCCESS) {
-                    return status;
-                }
+        if (clock != null) {
+            clock.mark(); // PoW + uncles done
+        }
+        java.util.Set<PublicAddress> touched = stateAccumulator == null ? null : new java.util.HashSet<>();
+        // Open a block commit: the ledger writes below stage in the store and flush atomically with
+        // the block/height in store.append, so a crash can never leave the ledger ahead of the
+        // height (audit S3). Every exit before append must discard the staged writes, so the whole
+        // mutation runs under a finally.
+        store.beginBlockCommit();
+        boolean appended = false;
+        try {
+            ExecutionStatus status = Executor.executeBlock(
+                block, ledger, store::hasTransaction, params, verifier,
+                contractProcessor, boxProcessor, tokenProcessor, touched);
+            if (status != SUCCESS) {
+                return status;
+            }
+            if (clock != null) {
+                clock.mark(); // executed
+            }
 
-                // Authenticated state root: fold this block's state changes into the accumulator
-                // and require the resulting root to equal the header's. On mismatch the block was
-                // fully applied, so undo it (ledger + processors + accumulator) before rejecting.
-                if (stateAccumulator != null) {
-                    long height2 = b.id();
-                    byte[] newRoot = stateAccumulator.applyBlock(height2, collectStateChanges(block, touched, height2));
-                    if (!java.util.Arrays.equals(newRoot, b.stateRoot().toBytes())) {
-                        stateAccumulator.revertBlock(height2);
-                        Executor.rollbackBlock(block, ledger, contractProcessor, boxProcessor, height2, params);
-                        if (contractProcessor != null) {
-                            contractProcessor.revertBlock(height2);
-                        }
-                        if (boxProcessor != null) {
-                            boxProcessor.revertBlock(height2);
-                        }
-                        if (tokenProcessor != null) {
-                            tokenProcessor.revertBlock(height2);
-                        }
-                        return INVALID_STATE_ROOT;
-                    }
-                } else if (!java.util.Arrays.equals(b.stateRoot().toBytes(),
-                        rhizome.crypto.SHA256Hash.empty().toBytes())) {
-                    // No accumulator to recompute the root, yet the block commits a non-empty one we
-                    // cannot verify. Accepting it blindly would fork this node from every validating
-                    // node (audit M6: state-root validation must not depend on local configuration),
-                    // so refuse a block whose committed state we are unable to check.
-                    Executor.rollbackBlock(block, ledger, contractProcessor, boxProcessor, b.id(), params);
+            // Authenticated state root: fold this block's state changes into the accumulator
+            // and require the resulting root to equal the header's. On mismatch the block was
+            // fully applied, so undo it (ledger + processors + accumulator) before rejecting.
+            if (stateAccumulator != null) {
+                long height2 = b.id();
+                byte[] newRoot = stateAccumulator.applyBlock(height2, collectStateChanges(block, touched, height2));
+                if (!java.util.Arrays.equals(newRoot, b.stateRoot().toBytes())) {
+                    stateAccumulator.revertBlock(height2);
+                    Executor.rollbackBlock(block, ledger, contractProcessor, boxProcessor, height2, params);
                     if (contractProcessor != null) {
-                        contractProcessor.revertBlock(b.id());
+                        contractProcessor.revertBlock(height2);
                     }
                     if (boxProcessor != null) {
-                        boxProcessor.revertBlock(b.id());
+                        boxProcessor.revertBlock(height2);
                     }
                     if (tokenProcessor != null) {
-                        tokenProcessor.revertBlock(b.id());
+                        tokenProcessor.revertBlock(height2);
                     }
                     return INVALID_STATE_ROOT;
                 }
-
-                // Nonce updates are derived purely from the block, so stage them BEFORE the
-                // append: they flush in the SAME atomic batch as the block/height/ledger instead
-                // of one synced put per sender after it (audit perf: per-sender fsync). On a
-                // failed append the staged values are discarded, exactly as they were previously
-                // never written.
-                commitAccountNonces(block);
-                nonceStore.markSyncedThrough(b.id()); // nonces now reflect this new tip
-                store.append(block); // flushes the staged ledger + nonce writes + block + height in one batch
-                appended = true;
-                // Persist the bodies of the uncles this block references, BEFORE the bounded
-                // orphan pool's LRU can evict them (audit: uncle-sync blocker). A block carries
-                // only UncleRefs, so peers syncing past this height later fetch the bodies from
-                // us (PeerSource.orphan → orphanBlock) — without persistence the pool churn would
-                // make the uncle unserveable and the chain unsynchronisable for fresh nodes. On
-                // the trusted-restore path the uncle may already be gone from the pool; the
-                // entry written on first acceptance is simply kept.
-                if (!trustedRestore) {
-                    for (UncleRef ref : block.uncles()) {
-                        Block uncle = orphans.get(ref.hash());
-                        if (uncle != null) {
-                            store.putUncle(ref.hash(), uncle);
-                        }
-                    }
-                }
-                // Slide the median-time window forward: the new tip enters, the oldest leaves (P6).
-                mtpWindow.addLast(b.timestamp());
-                if (mtpWindow.size() > params.medianTimeWindow()) {
-                    mtpWindow.removeFirst();
+            } else if (!java.util.Arrays.equals(b.stateRoot().toBytes(),
+                    rhizome.crypto.SHA256Hash.empty().toBytes())) {
+                // No accumulator to recompute the root, yet the block commits a non-empty one we
+                // cannot verify. Accepting it blindly would fork this node from every validating
+                // node (audit M6: state-root validation must not depend on local configuration),
+                // so refuse a block whose committed state we are unable to check.
+                Executor.rollbackBlock(block, ledger, contractProcessor, boxProcessor, b.id(), params);
+                if (contractProcessor != null) {
+                    contractProcessor.revertBlock(b.id());
                 }
-                totalWork = totalWork.add(BlockWork.of(b.difficulty())).add(uncleWork);
-                baseWork = baseWork.add(BlockWork.of(b.difficulty()));
-                uncleWorkByHeight.put((long) b.id(), uncleWork);
-                // A legal reorg pops at most maxReorgDepth blocks, so uncle-work for heights older
-                // than that is never subtracted again — evict it instead of retaining one BigInteger
-                // per height for the life of the process (audit: unbounded derived-state growth).
-                long uncleWorkFloor = b.id() - params.maxReorgDepth();
-                if (uncleWorkFloor > 0) {
-                    uncleWorkByHeight.keySet().removeIf(h -> h < uncleWorkFloor);
+                if (boxProcessor != null) {
+                    boxProcessor.revertBlock(b.id());
                 }
-                currentDifficulty = computeDifficultyFromChain();
-                applyVotingAt(b.id()); // tally this epoch's votes if a boundary; effective next block
-                pruneDerivedStateCaches(b.id()); // bound vote/difficulty memo growth (audit)
-                if (onBlockApplied != null) {
-                    onBlockApplied.accept(b.id()); // fast/non-blocking by contract (see setter)
+                if (tokenProcessor != null) {
+                    tokenProcessor.revertBlock(b.id());
                 }
-                return SUCCESS;
-            } finally {
-                if (!appended) {
-                    store.discardBlockCommit(); // drop the staged (and possibly rolled-back) ledger writes
+                return INVALID_STATE_ROOT;
+            }
+
+            if (clock != null) {
+                clock.mark(); // state root checked
+            }
+
+            // Nonce updates are derived purely from the block, so stage them BEFORE the
+            // append: they flush in the SAME atomic batch as the block/height/ledger instead
+            // of one synced put per sender after it (audit perf: per-sender fsync). On a
+            // failed append the staged values are discarded, exactly as they were previously
+            // never written.
+            commitAccountNonces(block);
+            nonceStore.markSyncedThrough(b.id()); // nonces now reflect this new tip
+            store.append(block); // flushes the staged ledger + nonce writes + block + height in one batch
+            appended = true;
+            if (clock != null) {
+                clock.mark(); // appended
+            }
+            // Persist the bodies of the uncles this block references, BEFORE the bounded
+            // orphan pool's LRU can evict them (audit: uncle-sync blocker). A block carries
+            // only UncleRefs, so peers syncing past this height later fetch the bodies from
+            // us (PeerSource.orphan → orphanBlock) — without persistence the pool churn would
+            // make the uncle unserveable and the chain unsynchronisable for fresh nodes. On
+            // the trusted-restore path the uncle may already be gone from the pool; the
+            // entry written on first acceptance is simply kept.
+            if (!trustedRestore) {
+                for (UncleRef ref : block.uncles()) {
+                    Block uncle = orphans.get(ref.hash());
+                    if (uncle != null) {
+                        store.putUncle(ref.hash(), uncle);
+                    }
                 }
             }
+            // Slide the median-time window forward: the new tip enters, the oldest leaves (P6).
+            mtpWindow.addLast(b.timestamp());
+            if (mtpWindow.size() > params.medianTimeWindow()) {
+                mtpWindow.removeFirst();
+            }
+            totalWork = totalWork.add(BlockWork.of(b.difficulty())).add(uncleWork);
+            baseWork = baseWork.add(BlockWork.of(b.difficulty()));
+            uncleWorkByHeight.put((long) b.id(), uncleWork);
+            // A legal reorg pops at most maxReorgDepth blocks, so uncle-work for heights older
+            // than that is never subtracted again — evict it instead of retaining one BigInteger
+            // per height for the life of the process (audit: unbounded derived-state growth).
+            long uncleWorkFloor = b.id() - params.maxReorgDepth();
+            if (uncleWorkFloor > 0) {
+                uncleWorkByHeight.keySet().removeIf(h -> h < uncleWorkFloor);
+            }
+            currentDifficulty = computeDifficultyFromChain();
+            applyVotingAt(b.id()); // tally this epoch's votes if a boundary; effective next block
+            pruneDerivedStateCaches(b.id()); // bound vote/difficulty memo growth (audit)
+            if (onBlockApplied != null) {
+                onBlockApplied.accept(b); // fast/non-blocking by contract (see setter)
+            }
+            return SUCCESS;
         } finally {
-            lock.unlock();
+            if (!appended) {
+                store.discardBlockCommit(); // drop the staged (and possibly rolled-back) ledger writes
+            }
         }
     }
 
     /**
-     * Called with the height of every successfully applied block — whatever the entry
-     * path (API submit, gossip, sync, local producer). Runs while the engine lock is
-     * held, so the listener must be fast and non-blocking (e.g. hand off to a queue or
-     * an event loop); it must not call back into the engine.
+     * Called with every successfully applied block — whatever the entry path (API submit,
+     * gossip, sync, local producer). The block is the instance just applied, so a listener
+     * keeping per-block aggregates reads it without a store decode. Runs while the engine
+     * lock is held, so the listener must be fast and non-blocking (e.g. hand off to a queue
+     * or an event loop); it must not call back into the engine, nor mutate the block.
      */
-    public void setOnBlockApplied(java.util.function.LongConsumer listener) {
+    public void setOnBlockApplied(java.util.function.Consumer<Block> listener) {
         this.onBlockApplied = listener;
     }
 
+    /**
+     * Installs (or, with {@code null}, removes) the telemetry probe: per-phase {@code addBlock}
+     * timings and engine-lock wait/hold times. Unset, the engine reads no clock for either. The
+     * probe runs on the calling thread — for blocks with the lock held — so it must be as cheap as
+     * the {@link #setOnBlockApplied} listeners.
+     */
+    public void setProbe(EngineProbe probe) {
+        this.probe = probe;
+    }
+
+    /**
+     * Called with the height of every popped block once its peripheral stores have been reverted
+     * (not on a failed revert: the node is then degraded until restart anyway). The counterpart of
+     * {@link #setOnBlockApplied} for listeners that keep derived state per block and must undo it
+     * on a reorg; the same contract — engine lock held, fast, no call back into the engine.
+     */
+    public void setOnBlockPopped(java.util.function.LongConsumer listener) {
+        this.onBlockPopped = listener;
+    }
+
     /**
      * Removes the tip block (never genesis), reverting ledger and nonces. Package-private
      * (audit: unguarded public popBlock): truncating the canonical chain is a
@@ -745,6 +835,9 @@ public final class ChainEngine implements Blockchain, rhizome.core.mempool.Accou
                     + " recovery (a restore cannot clear this mark)", true);
                 throw e;
             }
+            if (onBlockPopped != null) {
+                onBlockPopped.accept(height);
+            }
         } finally {
             lock.unlock();
         }
@@ -1029,6 +1122,16 @@ public final class ChainEngine implements Blockchain, rhizome.core.mempool.Accou
     private final java.util.concurrent.atomic.AtomicLong stampVersion =
         new java.util.concurrent.atomic.AtomicLong();
 
+    /**
+     * The stamp seqlock's current value, for readers that keep their own view off the engine lock
+     * (read-only contract calls): odd while a stamp is mutating the live stores, and a reader whose
+     * value changed across its reads may have observed never-committed state and must redo them.
+     * Never blocks.
+     */
+    public long stampEpoch() {
+        return stampVersion.get();
+    }
+
     /** Runs {@code read}, falling back to the engine lock iff a stamp overlapped it (see above). */
     private <T> T readOutsideStamp(java.util.function.Supplier<T> read) {
         long v = stampVersion.get();
@@ -1329,6 +1432,41 @@ public final class ChainEngine implements Blockchain, rhizome.core.mempool.Accou
         }
     }
 
+    /**
+     * One multiproof for a set of tree keys at the current root (a snapshot chunk's), or
+     * {@code null} when the state root is off.
+     *
+     * @throws IllegalArgumentException when a key is absent
+     */
+    public byte[] stateMultiProof(java.util.List<byte[]> keys) {
+        if (stateAccumulator == null) {
+            return null;
+        }
+        lock.lock();
+        try {
+            return stateAccumulator.proveAll(keys);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Pins the committed state tree ({@link StateAccumulator#pin}) for a prover that runs off the
+     * engine lock, or {@code null} without an accumulator. Taken under the lock, so the root is a
+     * committed one; the caller closes it.
+     */
+    public rhizome.core.state.StateAccumulator.Pinned pinStateTree() {
+        if (stateAccumulator == null) {
+            return null;
+        }
+        lock.lock();
+        try {
+            return stateAccumulator.pin();
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * Stamps {@code candidate}'s {@code stateRoot} with the root it would produce, so the
      * producer can mine a header that commits it. Tentatively applies the block to compute
@@ -1956,13 +2094,33 @@ public final class ChainEngine implements Blockchain, rhizome.core.mempool.Accou
         if (verifiedOrphanPow.containsKey(key)) {
             return true;
         }
-        if (!block.verifyNonce(params.powAlgorithm(), params.powCostsAt(id))) {
+        if (!((BlockImpl) block).nonce().equals(provenHeaderPow.remove(key))
+                && !block.verifyNonce(params.powAlgorithm(), params.powCostsAt(id))) {
             return false;
         }
         verifiedOrphanPow.put(key, Boolean.TRUE);
         return true;
     }
 
+    /**
+     * Verifies a header's proof of work before its body exists (compact relay), remembering a
+     * success so the body's {@link #addBlock} does not hash it again. The memory-hard hash runs
+     * OUTSIDE the engine lock — it is a pure function of the header — and only the bookkeeping
+     * takes the lock.
+     */
+    public boolean verifyHeaderPow(BlockHeader header) {
+        if (!header.verifyNonce(params.powAlgorithm(), params.powCostsAt(header.id()))) {
+            return false;
+        }
+        lock.lock();
+        try {
+            provenHeaderPow.put(header.hash(), header.nonce());
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
     /** Test hook: current size of the orphan-PoW verify-once cache (bounded-LRU assertions). */
     int verifiedOrphanPowCacheSizeForTest() {
         lock.lock();
@@ -1973,6 +2131,74 @@ public final class ChainEngine implements Blockchain, rhizome.core.mempool.Accou
         }
     }
 
+    /**
+     * Phase boundaries of one probed {@code addBlock}: {@link #mark} closes the current phase, and
+     * {@link #finish} charges the time since the last mark to the phase that was running (the one
+     * that rejected the block), leaving the phases never reached at 0.
+     */
+    private static final class PhaseClock {
+        private final long[] marks = new long[6];
+        private int reached;
+
+        PhaseClock() {
+            marks[0] = System.nanoTime();
+        }
+
+        void mark() {
+            marks[++reached] = System.nanoTime();
+        }
+
+        EngineProbe.BlockTimings finish() {
+            long[] phase = new long[5];
+            for (int i = 0; i < reached; i++) {
+                phase[i] = marks[i + 1] - marks[i];
+            }
+            if (reached < phase.length) {
+                phase[reached] = System.nanoTime() - marks[reached];
+            }
+            return new EngineProbe.BlockTimings(phase[0], phase[1], phase[2], phase[3], phase[4]);
+        }
+    }
+
+    /**
+     * The engine lock, timing the outermost acquisition's wait and hold for the {@link #probe}.
+     * Reentrant acquisitions are not timed (the outer one covers them), and with no probe set it
+     * is a plain {@link ReentrantLock}. {@code heldSince} is written and read only by the owner.
+     */
+    private final class ProbedLock extends ReentrantLock {
+        private long heldSince;
+
+        @Override
+        public void lock() {
+            EngineProbe p = probe;
+            if (p == null) {
+                super.lock();
+                return;
+            }
+            long t0 = System.nanoTime();
+            super.lock();
+            if (getHoldCount() == 1) {
+                long now = System.nanoTime();
+                heldSince = now;
+                p.lockWaited(now - t0);
+            }
+        }
+
+        @Override
+        public void unlock() {
+            long since = 0;
+            if (getHoldCount() == 1) {
+                since = heldSince;
+                heldSince = 0;
+            }
+            super.unlock();
+            EngineProbe p = probe;
+            if (since != 0 && p != null) {
+                p.lockHeld(System.nanoTime() - since);
+            }
+        }
+    }
+
     private record UncleContext(java.util.Set<SHA256Hash> recentChain,
                                 java.util.Set<SHA256Hash> alreadyReferenced) {}
 }
@@ -66,6 +66,19 @@ public interface ContractProcessor {
         return List.of();
     }
 
+    /**
+     * The heights in {@code [fromHeight, toHeight]} that may hold a log of {@code contract}
+     * (null: any) with topic {@code topic} (null: any) — a superset of the heights that do, read
+     * from a persisted log index — or {@code null} when there is no index and the caller must
+     * scan {@link #logs} height by height. The index rows read plus the candidates found stay
+     * within {@code maxRows} (each candidate stands for the log row its caller will read); past
+     * that the search stops and {@link LogCandidates#scannedTo} says how far it got.
+     */
+    default LogCandidates logCandidates(long fromHeight, long toHeight, PublicAddress contract, byte[] topic,
+                                        int maxRows) {
+        return null;
+    }
+
     /**
      * Executes a read-only CALL against committed state and discards all writes — a
      * dry run for querying contract state off-chain. Never mutates the store or the
@@ -78,6 +91,9 @@ public interface ContractProcessor {
         throw new UnsupportedOperationException("dry-run not supported");
     }
 
+    /** One read-only CALL of a batch: the arguments of {@link #dryRun}, as a value. */
+    record DryRunCall(PublicAddress from, PublicAddress to, byte[] input, long value, long gasLimit) {}
+
     /** Contract code/storage writes committed by {@code blockHeight}, for the authenticated state root. */
     default List<ContractChange> changes(long blockHeight) {
         return List.of();
@@ -121,6 +137,12 @@ public interface ContractProcessor {
     /** One event a contract emitted: the emitting contract, an indexable topic, and data. */
     record ContractLog(PublicAddress contract, byte[] topic, byte[] data) {}
 
+    /**
+     * The result of {@link #logCandidates}: the candidate heights, ascending, covering
+     * {@code [fromHeight, scannedTo]}, and the index rows read to find them.
+     */
+    record LogCandidates(long[] heights, long scannedTo, int indexRows) {}
+
     /**
      * Outcome of one contract execution. {@code gasUsed} is charged regardless of
      * success; {@code contractAddress} is the new address for a DEPLOY (null for CALL);
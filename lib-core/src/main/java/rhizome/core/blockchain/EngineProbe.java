@@ -0,0 +1,36 @@
+package rhizome.core.blockchain;
+
+import rhizome.core.mempool.ExecutionStatus;
+
+/**
+ * Timing hooks inside {@link ChainEngine}, for node telemetry: how long each {@code addBlock}
+ * phase took, and how long callers waited for and then held the consensus lock. The engine calls
+ * these on the thread doing the work — the block callbacks with the lock still held — so an
+ * implementation must be a few lock-free adds, never I/O and never a call back into the engine.
+ *
+ * <p>With no probe set (and no JFR recording enabling {@code rhizome.BlockAdd}, which carries the
+ * same phase breakdown) the engine reads no clocks at all; see {@link ChainEngine#setProbe}.
+ */
+public interface EngineProbe {
+
+    /** Phase breakdown of one {@code addBlock}, in nanoseconds (0 for a phase never reached). */
+    record BlockTimings(long preChecksNanos, long powNanos, long executeNanos, long stateRootNanos,
+                        long appendNanos) {
+
+        public long totalNanos() {
+            return preChecksNanos + powNanos + executeNanos + stateRootNanos + appendNanos;
+        }
+    }
+
+    /**
+     * One {@code addBlock} finished with {@code status} (accepted or not): {@code txCount}
+     * transactions, at {@code height} (the block's claimed id).
+     */
+    void blockProcessed(ExecutionStatus status, long height, int txCount, BlockTimings timings);
+
+    /** A caller waited {@code nanos} to take the engine lock (outermost acquisitions only). */
+    void lockWaited(long nanos);
+
+    /** A caller held the engine lock for {@code nanos} (outermost hold, released). */
+    void lockHeld(long nanos);
+}
@@ -145,6 +145,31 @@ public final class Executor {
                                                BoxProcessor boxProcessor,
                                                TokenProcessor tokenProcessor,
                                                Set<PublicAddress> touchedLedger) {
+        BlockExecuteEvent event = new BlockExecuteEvent();
+        if (!event.isEnabled()) {
+            return execute(block, ledger, alreadyExecuted, params, verifier, processor, boxProcessor,
+                tokenProcessor, touchedLedger);
+        }
+        event.begin();
+        ExecutionStatus status = execute(block, ledger, alreadyExecuted, params, verifier, processor,
+            boxProcessor, tokenProcessor, touchedLedger);
+        if (event.shouldCommit()) {
+            event.height = ((BlockImpl) block).id();
+            event.status = status.name();
+            event.transactions = block.transactions().size();
+            event.commit();
+        }
+        return status;
+    }
+
+    private static ExecutionStatus execute(Block block, Ledger ledger,
+                                           Predicate<SHA256Hash> alreadyExecuted,
+                                           NetworkParameters params,
+                                           SignatureVerifier verifier,
+                                           ContractProcessor processor,
+                                           BoxProcessor boxProcessor,
+                                           TokenProcessor tokenProcessor,
+                                           Set<PublicAddress> touchedLedger) {
         var blockImpl = (BlockImpl) block;
         long height = blockImpl.id();
         long expectedReward = params.miningReward(height);
@@ -3,10 +3,15 @@ package rhizome.core.blockchain;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import rhizome.core.block.Block;
 import rhizome.core.block.BlockHeader;
@@ -27,6 +32,12 @@ import rhizome.core.mempool.ExecutionStatus;
  * <p>A peer that predates the {@code /headers} endpoint makes {@link PeerSource#headers}
  * throw {@link UnsupportedOperationException}; the synchroniser transparently
  * falls back to the full-block {@link ChainSynchronizer} for that peer (D7).
+ *
+ * <p>Body windows are sized by the peer ({@link PeerSource#blocksPerFetch}), and a window still
+ * outstanding after {@link PeerSource#hedgeAfterMillis} is also requested from a second peer
+ * (the {@code hedge} of {@link #syncFrom(PeerSource, PeerSource)}). Whichever copy arrives first
+ * AND matches the validated headers block-for-block is applied; the hedge is never trusted for
+ * anything the headers did not already prove, and its failures are never the primary's.
  */
 public final class HeaderSynchronizer {
 
@@ -51,6 +62,10 @@ public final class HeaderSynchronizer {
      */
     private final java.util.TreeMap<Long, HeaderChain.DifficultyCheckpoint> difficultyMemo =
         new java.util.TreeMap<>();
+    /** Body windows that outlived the primary's hedge delay and went to the hedge peer too. */
+    private final AtomicLong hedgedWindows = new AtomicLong();
+    /** Hedged windows the hedge peer delivered first (and usable). */
+    private final AtomicLong hedgeWins = new AtomicLong();
 
     public HeaderSynchronizer(ChainEngine engine) {
         this.engine = engine;
@@ -58,8 +73,17 @@ public final class HeaderSynchronizer {
     }
 
     public ChainSynchronizer.Result syncFrom(PeerSource peer) {
+        return syncFrom(peer, null);
+    }
+
+    /**
+     * As {@link #syncFrom(PeerSource)}, hedging slow body windows to {@code hedge} (may be
+     * {@code null}). The result — and any penalty the caller derives from it — is about
+     * {@code peer} alone: an unusable hedge copy is discarded and the primary's awaited.
+     */
+    public ChainSynchronizer.Result syncFrom(PeerSource peer, PeerSource hedge) {
         try {
-            return syncFromOrThrow(peer);
+            return syncFromOrThrow(peer, hedge);
         } catch (LocalSaturationException e) {
             // A LOCAL bound (transport backpressure) stopped the exchange before it reached the
             // peer — not misbehaviour: no ban score, no PEER_INVALID. Retried next round.
@@ -68,7 +92,17 @@ public final class HeaderSynchronizer {
         }
     }
 
-    private ChainSynchronizer.Result syncFromOrThrow(PeerSource peer) {
+    /** Body windows hedged to a second peer since this synchroniser was built. */
+    public long hedgedWindows() {
+        return hedgedWindows.get();
+    }
+
+    /** Hedged windows the second peer won. */
+    public long hedgeWins() {
+        return hedgeWins.get();
+    }
+
+    private ChainSynchronizer.Result syncFromOrThrow(PeerSource peer, PeerSource hedge) {
         // Prefilter against our BASE work, not our uncle-inclusive total. The adoption gate below
         // ranks branches by base-only work (localWorkAboveFork, the M4 rule); ranking this early-out
         // by the uncle-inflated total instead let a node with heavy local uncle work refuse to even
@@ -81,14 +115,14 @@ public final class HeaderSynchronizer {
             return ChainSynchronizer.Result.NO_CHANGE;
         }
         try {
-            return headersFirstSync(peer);
+            return headersFirstSync(peer, hedge);
         } catch (UnsupportedOperationException headersUnsupported) {
             // Older peer without /headers: fall back to the full-block path.
             return fallback.syncFrom(peer);
         }
     }
 
-    private ChainSynchronizer.Result headersFirstSync(PeerSource peer) {
+    private ChainSynchronizer.Result headersFirstSync(PeerSource peer, PeerSource hedge) {
         long forkHeight;
         try {
             forkHeight = findCommonAncestor(peer); // first call touches peer.headers → may fall back
@@ -149,10 +183,10 @@ public final class HeaderSynchronizer {
 
         // --- Bodies: fetch, verify each against its validated header, apply ---
         if (forkHeight == engine.height()) {
-            return applyBodies(peer, forkHeight, branch)
+            return applyBodies(peer, hedge, forkHeight, branch)
                 ? ChainSynchronizer.Result.EXTENDED : ChainSynchronizer.Result.PEER_INVALID;
         }
-        return reorg(peer, forkHeight, branch);
+        return reorg(peer, hedge, forkHeight, branch);
     }
 
     /**
@@ -237,32 +271,44 @@ public final class HeaderSynchronizer {
         return out;
     }
 
-    private boolean applyBodies(PeerSource peer, long forkHeight, List<BlockHeader> branch) {
+    private boolean applyBodies(PeerSource peer, PeerSource hedge, long forkHeight, List<BlockHeader> branch) {
         long to = forkHeight + branch.size();
+        // The peer sizes its own windows (a slow link gets smaller ones, so each stays well inside
+        // the transport deadline); the protocol maximum is the ceiling whatever it claims.
+        int perFetch = Math.max(1, Math.min(Constants.BLOCKS_PER_FETCH, peer.blocksPerFetch()));
         List<long[]> windows = new ArrayList<>();
-        for (long start = forkHeight + 1; start <= to; start += Constants.BLOCKS_PER_FETCH) {
-            windows.add(new long[] {start, Math.min(to, start + Constants.BLOCKS_PER_FETCH - 1)});
+        for (long start = forkHeight + 1; start <= to; start += perFetch) {
+            windows.add(new long[] {start, Math.min(to, start + perFetch - 1)});
         }
         if (windows.isEmpty()) {
             return true;
         }
+        long hedgeAfterMs = hedge == null ? -1 : peer.hedgeAfterMillis();
         // Pipeline the body download: while the current window's blocks are applied to the engine, the
         // NEXT window is fetched over the network on a helper thread. Application stays strictly serial
         // and in order (the engine is single-writer), so the applied sequence — and thus every consensus
         // outcome and the state root — is byte-for-byte identical; only the network I/O of window K+1
-        // overlaps the disk/CPU apply of window K. Exactly one fetch is ever outstanding, so the peer
-        // source is still used from one thread at a time.
+        // overlaps the disk/CPU apply of window K. Exactly one fetch is ever outstanding per source (the
+        // hedge has its own helper), so each peer source is still used from one thread at a time.
         ExecutorService fetcher = Executors.newSingleThreadExecutor(r -> {
             Thread t = new Thread(r, "rhizome-body-fetch");
             t.setDaemon(true);
             return t;
         });
+        ExecutorService hedger = hedgeAfterMs <= 0 ? null : Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "rhizome-body-hedge");
+            t.setDaemon(true);
+            return t;
+        });
         try {
-            Future<List<Block>> pending = submitFetch(fetcher, peer, windows.get(0));
+            WindowFetch pending = submitFetch(fetcher, peer, windows.get(0));
             for (int i = 0; i < windows.size(); i++) {
                 List<Block> blocks;
+                SyncWindowEvent event = new SyncWindowEvent();
+                event.begin();
+                long waitStart = event.isEnabled() ? System.nanoTime() : 0;
                 try {
-                    blocks = pending.get();
+                    blocks = awaitWindow(pending, hedge, hedger, hedgeAfterMs, windows.get(i), forkHeight, branch);
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
                     return false;
@@ -272,41 +318,136 @@ public final class HeaderSynchronizer {
                     }
                     return false; // transport/decode failure fetching this window (was a RuntimeException)
                 }
+                long fetchWait = event.isEnabled() ? System.nanoTime() - waitStart : 0;
                 // Start the next window's fetch before applying the current one, so the two overlap.
                 if (i + 1 < windows.size()) {
                     pending = submitFetch(fetcher, peer, windows.get(i + 1));
                 }
-                for (Block block : blocks) {
-                    long idx = ((BlockImpl) block).id() - forkHeight - 1;
-                    if (idx < 0 || idx >= branch.size()
-                        || !block.hash().equals(branch.get((int) idx).hash())) {
-                        return false; // body does not match its validated header
-                    }
-                    // The header at this index was PoW-verified by HeaderChain.validate and the body's
-                    // hash equals it (checked just above), so the body's work is already proven — apply
-                    // it without re-running the memory-hard PoW hash (audit P4). Every other check runs.
-                    // On INVALID_UNCLES the missing orphan bodies are fetched from the peer and the
-                    // apply retried once (audit: uncle-sync blocker); applyBodies holds no lock, so
-                    // the fetch is legal network I/O here.
-                    if (ChainSynchronizer.applyWithUncleFetch(engine, peer, block, engine::addValidatedBody)
-                            != ExecutionStatus.SUCCESS) {
-                        return false;
-                    }
+                boolean applied = applyWindow(peer, blocks, forkHeight, branch);
+                if (event.shouldCommit()) {
+                    event.from = windows.get(i)[0];
+                    event.to = windows.get(i)[1];
+                    event.blocks = blocks.size();
+                    event.fetchWait = fetchWait;
+                    event.applied = applied;
+                    event.commit();
+                }
+                if (!applied) {
+                    return false;
                 }
             }
             return true;
         } finally {
             // Cancel any still-running prefetch (e.g. after a mismatch/failure returned early) and free
-            // the helper thread. The fetch is read-only network I/O, so a discarded result changes nothing.
+            // the helper threads. The fetch is read-only network I/O, so a discarded result changes nothing.
             fetcher.shutdownNow();
+            if (hedger != null) {
+                hedger.shutdownNow();
+            }
         }
     }
 
-    private static Future<List<Block>> submitFetch(ExecutorService fetcher, PeerSource peer, long[] window) {
-        return fetcher.submit(() -> peer.blocks(window[0], window[1]));
+    /** Applies one fetched window in order; false at the first body that is refused. */
+    private boolean applyWindow(PeerSource peer, List<Block> blocks, long forkHeight, List<BlockHeader> branch) {
+        for (Block block : blocks) {
+            long idx = ((BlockImpl) block).id() - forkHeight - 1;
+            if (idx < 0 || idx >= branch.size()
+                || !block.hash().equals(branch.get((int) idx).hash())) {
+                return false; // body does not match its validated header
+            }
+            // The header at this index was PoW-verified by HeaderChain.validate and the body's
+            // hash equals it (checked just above), so the body's work is already proven — apply
+            // it without re-running the memory-hard PoW hash (audit P4). Every other check runs.
+            // On INVALID_UNCLES the missing orphan bodies are fetched from the peer and the
+            // apply retried once (audit: uncle-sync blocker); applyBodies holds no lock, so
+            // the fetch is legal network I/O here.
+            if (ChainSynchronizer.applyWithUncleFetch(engine, peer, block, engine::addValidatedBody)
+                    != ExecutionStatus.SUCCESS) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * One window's primary fetch plus the queue its completion lands on — shared with a hedge
+     * fetch, if one is started, so whichever finishes first is taken first.
+     */
+    private record WindowFetch(Future<List<Block>> primary, BlockingQueue<Future<List<Block>>> done) { }
+
+    private static WindowFetch submitFetch(ExecutorService fetcher, PeerSource peer, long[] window) {
+        BlockingQueue<Future<List<Block>>> done = new LinkedBlockingQueue<>();
+        Future<List<Block>> primary = new ExecutorCompletionService<List<Block>>(fetcher, done)
+            .submit(() -> peer.blocks(window[0], window[1]));
+        return new WindowFetch(primary, done);
+    }
+
+    /**
+     * The window's blocks: the primary's, or — once it has been outstanding for
+     * {@code hedgeAfterMs} — whichever of primary and hedge delivers first, the hedge's copy
+     * only if it is the complete window matching the validated headers. A primary failure is
+     * rescued by a usable hedge copy; otherwise it propagates exactly as without hedging.
+     */
+    private List<Block> awaitWindow(WindowFetch fetch, PeerSource hedge, ExecutorService hedger,
+                                    long hedgeAfterMs, long[] window, long forkHeight,
+                                    List<BlockHeader> branch) throws InterruptedException, ExecutionException {
+        if (hedger == null || fetch.done().poll(hedgeAfterMs, TimeUnit.MILLISECONDS) != null) {
+            return fetch.primary().get();
+        }
+        hedgedWindows.incrementAndGet();
+        Future<List<Block>> backup = new ExecutorCompletionService<List<Block>>(hedger, fetch.done())
+            .submit(() -> hedge.blocks(window[0], window[1]));
+        if (fetch.done().take() == backup) {
+            List<Block> copy = usableCopy(backup, window, forkHeight, branch);
+            if (copy != null) {
+                fetch.primary().cancel(true);
+                hedgeWins.incrementAndGet();
+                return copy;
+            }
+            return fetch.primary().get(); // hedge failed or served another branch: wait for the primary
+        }
+        try {
+            List<Block> blocks = fetch.primary().get();
+            backup.cancel(true);
+            return blocks;
+        } catch (ExecutionException primaryFailed) {
+            if (primaryFailed.getCause() instanceof LocalSaturationException) {
+                backup.cancel(true);
+                throw primaryFailed;
+            }
+            List<Block> copy = usableCopy(backup, window, forkHeight, branch);
+            if (copy == null) {
+                throw primaryFailed;
+            }
+            hedgeWins.incrementAndGet();
+            return copy;
+        }
+    }
+
+    /** The hedge's window if it is complete and every block matches its validated header; else null. */
+    private static List<Block> usableCopy(Future<List<Block>> backup, long[] window, long forkHeight,
+                                          List<BlockHeader> branch) throws InterruptedException {
+        List<Block> blocks;
+        try {
+            blocks = backup.get();
+        } catch (ExecutionException | java.util.concurrent.CancellationException e) {
+            return null;
+        }
+        if (blocks == null || blocks.size() != window[1] - window[0] + 1) {
+            return null;
+        }
+        for (int i = 0; i < blocks.size(); i++) {
+            Block block = blocks.get(i);
+            long idx = window[0] + i - forkHeight - 1;
+            if (((BlockImpl) block).id() != window[0] + i || !block.hash().equals(branch.get((int) idx).hash())) {
+                return null;
+            }
+        }
+        return blocks;
     }
 
-    private ChainSynchronizer.Result reorg(PeerSource peer, long forkHeight, List<BlockHeader> branch) {
+    private ChainSynchronizer.Result reorg(PeerSource peer, PeerSource hedge, long forkHeight,
+                                           List<BlockHeader> branch) {
         // Unlike ChainSynchronizer's small bounded reorg, the header path applies up to
         // MAX_HEADER_WINDOW bodies with interleaved network I/O (applyBodies pipelines fetch+apply), so
         // the whole sequence cannot run under the engine lock — that would stall every lock-guarded API
@@ -371,17 +512,17 @@ public final class HeaderSynchronizer {
             return early;
         }
         try {
-            return applyAndAdopt(peer, forkHeight, branch, localBranch, capturedTotal[0]);
+            return applyAndAdopt(peer, hedge, forkHeight, branch, localBranch, capturedTotal[0]);
         } finally {
             engine.endReorgWindow();
         }
     }
 
-    private ChainSynchronizer.Result applyAndAdopt(PeerSource peer, long forkHeight,
+    private ChainSynchronizer.Result applyAndAdopt(PeerSource peer, PeerSource hedge, long forkHeight,
                                                    List<BlockHeader> branch, List<Block> localBranch,
                                                    BigInteger localTotal) {
         // Phase 2 — fetch and apply the peer bodies. Network I/O, so deliberately OUTSIDE the lock.
-        boolean applied = applyBodies(peer, forkHeight, branch);
+        boolean applied = applyBodies(peer, hedge, forkHeight, branch);
 
         // Phase 3 — adopt or restore, atomically so restore cannot race a producer/submit add.
         return engine.withConsistentView(() -> {
@@ -40,4 +40,30 @@ public interface NonceStore {
 
     /** Visits every {@code (sender, nextNonce)} pair — used to export the account-nonce domain. */
     void forEach(ObjLongConsumer<PublicAddress> consumer);
+
+    /**
+     * Opens a read-only view of the nonces frozen at the moment it is opened, or {@code null}
+     * if the store cannot provide one cheaply (the default) — see {@code Ledger.openSnapshot}.
+     */
+    default Snapshot openSnapshot() {
+        return null;
+    }
+
+    /** A read-only {@link NonceStore} frozen at the moment it was opened. Every mutator throws. */
+    interface Snapshot extends NonceStore, AutoCloseable {
+
+        @Override
+        default void set(PublicAddress sender, long next) {
+            throw new UnsupportedOperationException("nonce store snapshot is read-only");
+        }
+
+        @Override
+        default void markSyncedThrough(long height) {
+            throw new UnsupportedOperationException("nonce store snapshot is read-only");
+        }
+
+        /** Releases the pinned view; idempotent. */
+        @Override
+        void close();
+    }
 }
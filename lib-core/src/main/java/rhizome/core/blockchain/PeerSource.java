@@ -34,6 +34,24 @@ public interface PeerSource {
         throw new UnsupportedOperationException("peer does not support headers-first sync");
     }
 
+    /**
+     * How many blocks to request per body window from this peer, in {@code [1, BLOCKS_PER_FETCH]}.
+     * An adapter that measures the link shrinks it for a slow peer, so one window stays well
+     * inside the transport's deadlines; the default is the protocol maximum.
+     */
+    default int blocksPerFetch() {
+        return rhizome.core.common.Constants.BLOCKS_PER_FETCH;
+    }
+
+    /**
+     * How long a body window from this peer may stay outstanding before the synchroniser also
+     * requests it from a second peer (a hedged request), or {@code -1} to never hedge — the
+     * default, and the answer of an adapter that has not measured the peer yet.
+     */
+    default long hedgeAfterMillis() {
+        return -1;
+    }
+
     /**
      * The peer's prune watermark: it can serve block bodies only for heights
      * {@code >= prunedBelow()} (plus genesis). {@code 0} means an archive peer that
@@ -71,5 +89,31 @@ public interface PeerSource {
         throw new UnsupportedOperationException("peer does not serve state snapshots");
     }
 
-    record SnapshotInfo(long pivotHeight, byte[] stateRoot, int chunkCount) {}
+    /**
+     * The snapshot's per-chunk hash list, or {@code null} when the peer publishes none (a peer
+     * predating manifests). The caller checks it against {@link SnapshotInfo#manifestHash}.
+     */
+    default rhizome.core.state.snapshot.SnapshotManifest snapshotManifest() {
+        return null;
+    }
+
+    /**
+     * Chunk {@code index}'s multiproof against the snapshot's pivot root
+     * ({@link rhizome.core.state.SparseMerkleTree#proveAll}), or {@code null} when the peer
+     * serves none.
+     */
+    default byte[] snapshotProof(int index) {
+        return null;
+    }
+
+    /**
+     * A snapshot advertisement. {@code manifestHash} commits the per-chunk hash list
+     * ({@link rhizome.core.state.snapshot.SnapshotManifest#hash}); {@code null} from a peer
+     * predating manifests.
+     */
+    record SnapshotInfo(long pivotHeight, byte[] stateRoot, int chunkCount, byte[] manifestHash) {
+        public SnapshotInfo(long pivotHeight, byte[] stateRoot, int chunkCount) {
+            this(pivotHeight, stateRoot, chunkCount, null);
+        }
+    }
 }
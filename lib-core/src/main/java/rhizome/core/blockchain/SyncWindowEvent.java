@@ -0,0 +1,37 @@
+package rhizome.core.blockchain;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one body window of a {@link HeaderSynchronizer} sync: from awaiting its fetch to
+ * the last block applied (or the first refused). {@code fetchWait} is the part spent waiting on
+ * the network — the rest is apply time, since the next window's fetch overlaps it. Disabled unless
+ * a recording enables {@code rhizome.SyncWindow}.
+ */
+@Name("rhizome.SyncWindow")
+@Label("Sync Window")
+@Category({"Rhizome", "Sync"})
+@Description("One fetched-and-applied body window of a headers-first sync")
+final class SyncWindowEvent extends jdk.jfr.Event {
+
+    @Label("From Height")
+    long from;
+
+    @Label("To Height")
+    long to;
+
+    @Label("Blocks")
+    int blocks;
+
+    @Label("Fetch Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long fetchWait;
+
+    @Label("Applied")
+    @Description("Every block of the window was accepted")
+    boolean applied;
+}
@@ -98,6 +98,18 @@ public interface BoxStore {
     /** All box ids in id order, after {@code afterId} (null = start), at most {@code limit} (full-table scan page). */
     List<byte[]> boxIdsFrom(byte[] afterId, int limit);
 
+    /**
+     * Candidate ids for "register {@code index} equals {@code value}" from the secondary register
+     * index, in id order after {@code afterId} (null = start), at most {@code limit}; or
+     * {@code null} when this store keeps no register index (the default), so the caller walks
+     * {@link #boxIdsFrom} instead. The list may include boxes that do not match — an index keyed
+     * on a value prefix cannot tell them apart — but never omits one that does: callers re-test
+     * every candidate.
+     */
+    default List<byte[]> boxIdsByRegister(int index, byte[] value, byte[] afterId, int limit) {
+        return null;
+    }
+
     /**
      * Visits every live box — the state-snapshot export path. Optional: stores that never
      * serve snapshots may leave the unsupported default.
@@ -106,6 +118,76 @@ public interface BoxStore {
         throw new UnsupportedOperationException("this box store does not support enumeration");
     }
 
+    /**
+     * Opens a read-only view of this store frozen at the moment it is opened, or {@code null}
+     * if the store cannot provide one cheaply (the default) — see {@code Ledger.openSnapshot}.
+     */
+    default Snapshot openSnapshot() {
+        return null;
+    }
+
+    /**
+     * A read-only {@link BoxStore} frozen at the moment it was opened: point reads and
+     * {@link #forEachBox} enumeration. Mutators throw, and so do the paginated index scans —
+     * the view exists for the snapshot export, which never pages.
+     */
+    interface Snapshot extends BoxStore, AutoCloseable {
+
+        @Override
+        default void applyBlock(long height, List<BoxMutation> mutations) {
+            throw new UnsupportedOperationException("box store snapshot is read-only");
+        }
+
+        @Override
+        default void applyBlock(long height, List<BoxMutation> mutations, byte[] encodedReceipts) {
+            throw new UnsupportedOperationException("box store snapshot is read-only");
+        }
+
+        @Override
+        default void revertBlock(long height) {
+            throw new UnsupportedOperationException("box store snapshot is read-only");
+        }
+
+        @Override
+        default void pruneJournals(long minHeight) {
+            throw new UnsupportedOperationException("box store snapshot is read-only");
+        }
+
+        @Override
+        default void putReceipts(long height, byte[] encodedReceipts) {
+            throw new UnsupportedOperationException("box store snapshot is read-only");
+        }
+
+        @Override
+        default void deleteReceipts(long height) {
+            throw new UnsupportedOperationException("box store snapshot is read-only");
+        }
+
+        @Override
+        default List<byte[]> collectableBoxIds(long height, long storagePeriodBlocks, int limit) {
+            throw new UnsupportedOperationException("box store snapshot serves point reads and enumeration only");
+        }
+
+        @Override
+        default List<byte[]> boxIdsByOwner(byte[] owner, byte[] afterId, int limit) {
+            throw new UnsupportedOperationException("box store snapshot serves point reads and enumeration only");
+        }
+
+        @Override
+        default List<byte[]> boxIdsFrom(byte[] afterId, int limit) {
+            throw new UnsupportedOperationException("box store snapshot serves point reads and enumeration only");
+        }
+
+        @Override
+        default List<byte[]> boxIdsByRegister(int index, byte[] value, byte[] afterId, int limit) {
+            throw new UnsupportedOperationException("box store snapshot serves point reads and enumeration only");
+        }
+
+        /** Releases the pinned view; idempotent. */
+        @Override
+        void close();
+    }
+
     /** One box change in a block: write {@code box}, or delete {@code id} when {@code box} is null. */
     record BoxMutation(byte[] id, Box box) {
         public static BoxMutation write(Box box) {
@@ -364,12 +364,47 @@ public final class DefaultBoxProcessor implements BoxProcessor {
         return store.boxIdsByOwner(owner, afterId, limit);
     }
 
+    /**
+     * Indexed leaves probed per scan page. Each probe reads up to one window of index keys, so a
+     * wide {@code and} of indexable leaves is bounded here rather than by the predicate's width.
+     */
+    static final int MAX_PLANNER_PROBES = 8;
+
+    /**
+     * Runs one scan page off the most selective index the predicate allows. Every necessary
+     * indexed leaf — an {@code owner} or {@code registerEquals} that is the predicate itself or a
+     * part of an {@code and} (nested {@code and}s included) — is probed for its page of
+     * candidates after {@code afterId}, and the shortest page drives the scan; with no usable
+     * leaf the page walks the whole box table as before. The cursor stays a plain box id: every
+     * candidate source is in id order, and a box matching the predicate satisfies every necessary
+     * leaf, so whichever index the next page picks, nothing at or below the cursor is unexamined.
+     */
     @Override
     public ScanPage scan(ScanPredicate predicate, byte[] afterId, int limit, int window) {
-        byte[] owner = predicate.ownerAnchor();
-        List<byte[]> candidates = owner != null
-            ? store.boxIdsByOwner(owner, afterId, window)
-            : store.boxIdsFrom(afterId, window);
+        List<byte[]> candidates = null;
+        int probes = 0;
+        for (ScanPredicate leaf : indexedLeaves(predicate, new ArrayList<>())) {
+            if (probes == MAX_PLANNER_PROBES) {
+                break;
+            }
+            List<byte[]> page = leaf instanceof ScanPredicate.OwnerEquals o
+                ? store.boxIdsByOwner(o.owner(), afterId, window)
+                : store.boxIdsByRegister(((ScanPredicate.RegisterEquals) leaf).index(),
+                    ((ScanPredicate.RegisterEquals) leaf).value(), afterId, window);
+            if (page == null) {
+                continue; // the store keeps no index for this leaf
+            }
+            probes++;
+            if (candidates == null || page.size() < candidates.size()) {
+                candidates = page;
+            }
+            if (candidates.isEmpty()) {
+                break; // a necessary leaf matches nothing past the cursor: neither can the predicate
+            }
+        }
+        if (candidates == null) {
+            candidates = store.boxIdsFrom(afterId, window);
+        }
 
         List<Box> matches = new ArrayList<>();
         byte[] lastExamined = null;
@@ -391,6 +426,17 @@ public final class DefaultBoxProcessor implements BoxProcessor {
         return new ScanPage(matches, cursor);
     }
 
+    /** The leaves an index can enumerate that every match must satisfy, collected into {@code out}. */
+    private static List<ScanPredicate> indexedLeaves(ScanPredicate predicate, List<ScanPredicate> out) {
+        if (predicate instanceof ScanPredicate.OwnerEquals || predicate instanceof ScanPredicate.RegisterEquals) {
+            out.add(predicate);
+        } else if (predicate instanceof ScanPredicate.And and) {
+            and.parts().forEach(p -> indexedLeaves(p, out));
+        }
+        // registerContains and or: not enumerable from a prefix index
+        return out;
+    }
+
     /**
      * Cadence of the amortized durable interval prune ({@code pruneJournals} range tombstones).
      * Per-height receipt deletes still run every commit; the interval deleteRange is only the
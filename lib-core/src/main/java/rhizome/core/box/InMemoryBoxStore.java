@@ -115,12 +115,10 @@ public final class InMemoryBoxStore implements BoxStore {
         }
         ids.sort((a, b) -> Arrays.compareUnsigned(a, b));
         List<byte[]> out = new ArrayList<>();
-        boolean started = afterId == null;
         for (byte[] id : ids) {
-            if (!started) {
-                if (Arrays.equals(id, afterId)) {
-                    started = true;
-                }
+            // Strictly past the cursor, like the RocksDB seek: the cursor need not be one of this
+            // owner's boxes (the scan planner may have paged the previous window off another index).
+            if (afterId != null && Arrays.compareUnsigned(id, afterId) <= 0) {
                 continue;
             }
             if (out.size() >= limit) {
@@ -151,6 +149,21 @@ public final class InMemoryBoxStore implements BoxStore {
         return out;
     }
 
+    @Override
+    public List<byte[]> boxIdsByRegister(int index, byte[] value, byte[] afterId, int limit) {
+        // No index to maintain here: an exact filter, in the same id order as the RocksDB index.
+        List<byte[]> ids = new ArrayList<>();
+        for (Box box : boxes.values()) {
+            if (index >= 0 && index < box.registers().size()
+                    && Arrays.equals(box.registers().get(index).payload(), value)
+                    && (afterId == null || Arrays.compareUnsigned(box.id(), afterId) > 0)) {
+                ids.add(box.id());
+            }
+        }
+        ids.sort((a, b) -> Arrays.compareUnsigned(a, b));
+        return ids.size() > limit ? new ArrayList<>(ids.subList(0, limit)) : ids;
+    }
+
     @Override
     public void forEachBox(java.util.function.Consumer<Box> consumer) {
         boxes.values().forEach(consumer);
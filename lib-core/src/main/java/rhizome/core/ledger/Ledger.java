@@ -39,4 +39,47 @@ public interface Ledger {
     default void forEachBalance(java.util.function.ObjLongConsumer<PublicAddress> consumer) {
         throw new UnsupportedOperationException("this ledger does not support enumeration");
     }
+
+    /**
+     * Opens a read-only view of this ledger frozen at the moment it is opened, or {@code null}
+     * if the store cannot provide one cheaply (the default). The state-snapshot producer pins
+     * one under the engine lock and enumerates it off that lock; the caller must
+     * {@link Snapshot#close close} it — a durable store pins a RocksDB snapshot until then.
+     */
+    default Snapshot openSnapshot() {
+        return null;
+    }
+
+    /** A read-only {@link Ledger} frozen at the moment it was opened. Every mutator throws. */
+    interface Snapshot extends Ledger, AutoCloseable {
+
+        @Override
+        default void createWallet(PublicAddress wallet) {
+            throw new UnsupportedOperationException("ledger snapshot is read-only");
+        }
+
+        @Override
+        default void withdraw(PublicAddress wallet, TransactionAmount amt) {
+            throw new UnsupportedOperationException("ledger snapshot is read-only");
+        }
+
+        @Override
+        default void revertSend(PublicAddress wallet, TransactionAmount amt) {
+            throw new UnsupportedOperationException("ledger snapshot is read-only");
+        }
+
+        @Override
+        default void deposit(PublicAddress wallet, TransactionAmount amt) {
+            throw new UnsupportedOperationException("ledger snapshot is read-only");
+        }
+
+        @Override
+        default void revertDeposit(PublicAddress wallet, TransactionAmount amt) {
+            throw new UnsupportedOperationException("ledger snapshot is read-only");
+        }
+
+        /** Releases the pinned view; idempotent. */
+        @Override
+        void close();
+    }
 }
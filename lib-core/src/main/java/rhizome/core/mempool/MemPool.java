@@ -621,4 +621,22 @@ public final class MemPool {
             lock.unlock();
         }
     }
+
+    /**
+     * Point-in-time copy of every pooled transaction, parked ones included — the candidate set a
+     * compact block is rebuilt from ({@code CompactBlock.reconstruct}). O(size) under the lock,
+     * paid once per compact block received.
+     */
+    public List<Transaction> transactions() {
+        lock.lock();
+        try {
+            List<Transaction> all = new ArrayList<>(size);
+            for (NavigableMap<Long, Transaction> pending : bySender.values()) {
+                all.addAll(pending.values());
+            }
+            return all;
+        } finally {
+            lock.unlock();
+        }
+    }
 }
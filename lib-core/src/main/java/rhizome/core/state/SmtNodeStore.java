@@ -36,4 +36,28 @@ public interface SmtNodeStore {
     default void discardBatch() {
         // no-op; see beginBatch
     }
+
+    /**
+     * Opens a read-only view of the nodes frozen at the moment it is opened, or {@code null} if
+     * the store cannot provide one cheaply (the default). A store that garbage-collects nodes
+     * must provide one: it is what keeps a root resolvable for an off-lock reader (the snapshot
+     * producer proving chunks) after that root has been pruned and its nodes swept. The caller
+     * must {@link Snapshot#close close} it.
+     */
+    default Snapshot openSnapshot() {
+        return null;
+    }
+
+    /** A read-only {@link SmtNodeStore} frozen at the moment it was opened. {@link #put} throws. */
+    interface Snapshot extends SmtNodeStore, AutoCloseable {
+
+        @Override
+        default void put(byte[] hash, byte[] node) {
+            throw new UnsupportedOperationException("node store snapshot is read-only");
+        }
+
+        /** Releases the pinned view; idempotent. */
+        @Override
+        void close();
+    }
 }
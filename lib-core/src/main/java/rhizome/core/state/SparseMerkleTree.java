@@ -122,24 +122,7 @@ public final class SparseMerkleTree {
      */
     public StateProof prove(byte[] root, byte[] key) {
         require32(key, "key");
-        List<byte[]> siblings = new ArrayList<>();
-        byte[] nodeHash = root;
-        int depth = 0;
-        while (!isEmpty(nodeHash)) {
-            Node node = load(nodeHash);
-            if (node.leaf) {
-                return Arrays.equals(node.key, key) ? new StateProof(node.value, siblings) : null;
-            }
-            if (bit(key, depth) == 0) {
-                siblings.add(node.right);
-                nodeHash = node.left;
-            } else {
-                siblings.add(node.left);
-                nodeHash = node.right;
-            }
-            depth++;
-        }
-        return null;
+        return prove(root, key, 0);
     }
 
     /**
@@ -175,6 +158,170 @@ public final class SparseMerkleTree {
         return Arrays.equals(h, root);
     }
 
+    // ---- multiproofs ----
+
+    /**
+     * One proof for a whole set of keys — a snapshot chunk's — against {@code root}: the hashes a
+     * verifier needs to recompute the root from those keys' leaves alone, each shared sibling
+     * sent once. Per-key {@link #prove} proofs for a chunk would repeat the top of the tree for
+     * every key.
+     *
+     * <p>The layout is implied by the sorted key set, so it carries no tags. Recursing from the
+     * root with the keys under the current node:
+     * <ul>
+     *   <li>no key: the node's hash (32 bytes);</li>
+     *   <li>one key: the number of levels down to its leaf ({@code u16}), then that many sibling
+     *       hashes, top-down — the tail of an ordinary membership proof;</li>
+     *   <li>two or more: the left part of the set, then the right part.</li>
+     * </ul>
+     *
+     * @throws IllegalArgumentException when a key is absent from {@code root} or repeated
+     */
+    public byte[] proveAll(byte[] root, List<byte[]> keys) {
+        byte[][] sorted = keys.toArray(new byte[0][]);
+        for (byte[] key : sorted) {
+            require32(key, "key");
+        }
+        Arrays.sort(sorted, Arrays::compareUnsigned);
+        requireStrictlyIncreasing(sorted);
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        proveAll(root, sorted, 0, sorted.length, 0, out);
+        return out.toByteArray();
+    }
+
+    private void proveAll(byte[] nodeHash, byte[][] keys, int from, int to, int depth,
+                          java.io.ByteArrayOutputStream out) {
+        if (from == to) {
+            out.writeBytes(nodeHash);
+            return;
+        }
+        if (to - from == 1) {
+            StateProof path = prove(nodeHash, keys[from], depth);
+            if (path == null) {
+                throw new IllegalArgumentException("key absent from the tree");
+            }
+            int levels = path.siblings().size();
+            out.write(levels >>> 8);
+            out.write(levels);
+            path.siblings().forEach(out::writeBytes);
+            return;
+        }
+        if (isEmpty(nodeHash)) {
+            throw new IllegalArgumentException("key absent from the tree");
+        }
+        Node node = load(nodeHash);
+        if (node.leaf) {
+            throw new IllegalArgumentException("key absent from the tree"); // two keys, one leaf
+        }
+        int split = splitPoint(keys, from, to, depth);
+        proveAll(node.left, keys, from, split, depth + 1, out);
+        proveAll(node.right, keys, split, to, depth + 1, out);
+    }
+
+    /** The siblings from the node at {@code depth} down to {@code key}'s leaf, or null if absent. */
+    private StateProof prove(byte[] nodeHash, byte[] key, int depth) {
+        List<byte[]> siblings = new ArrayList<>();
+        while (!isEmpty(nodeHash)) {
+            Node node = load(nodeHash);
+            if (node.leaf) {
+                return Arrays.equals(node.key, key) ? new StateProof(node.value, siblings) : null;
+            }
+            if (bit(key, depth) == 0) {
+                siblings.add(node.right);
+                nodeHash = node.left;
+            } else {
+                siblings.add(node.left);
+                nodeHash = node.right;
+            }
+            depth++;
+        }
+        return null;
+    }
+
+    /**
+     * Stateless check of a {@link #proveAll} proof: true iff every {@code keys[i] → valueHashes[i]}
+     * binding is in the tree committed by {@code root}. A malformed or truncated proof, a
+     * repeated key, or bytes left over yield {@code false}, never an exception — the proof
+     * comes from an untrusted peer.
+     */
+    public static boolean verifyAll(byte[] root, List<byte[]> keys, List<byte[]> valueHashes, byte[] proof) {
+        if (keys.size() != valueHashes.size() || keys.isEmpty()) {
+            return false;
+        }
+        byte[][][] pairs = new byte[keys.size()][][];
+        for (int i = 0; i < pairs.length; i++) {
+            if (!is32(keys.get(i)) || !is32(valueHashes.get(i))) {
+                return false;
+            }
+            pairs[i] = new byte[][] {keys.get(i), valueHashes.get(i)};
+        }
+        Arrays.sort(pairs, (a, b) -> Arrays.compareUnsigned(a[0], b[0]));
+        byte[][] sorted = new byte[pairs.length][];
+        for (int i = 0; i < pairs.length; i++) {
+            sorted[i] = pairs[i][0];
+            if (i > 0 && Arrays.equals(sorted[i - 1], sorted[i])) {
+                return false;
+            }
+        }
+        java.nio.ByteBuffer in = java.nio.ByteBuffer.wrap(proof);
+        try {
+            byte[] computed = recompute(pairs, sorted, 0, pairs.length, 0, in);
+            return !in.hasRemaining() && Arrays.equals(computed, root);
+        } catch (java.nio.BufferUnderflowException | IllegalStateException malformed) {
+            return false;
+        }
+    }
+
+    private static byte[] recompute(byte[][][] pairs, byte[][] keys, int from, int to, int depth,
+                                    java.nio.ByteBuffer in) {
+        if (from == to) {
+            return take(in);
+        }
+        if (to - from == 1) {
+            int levels = Short.toUnsignedInt(in.getShort());
+            if (depth + levels > KEY_BITS) {
+                throw new IllegalStateException("proof path exceeds key length");
+            }
+            byte[][] siblings = new byte[levels][];
+            for (int i = 0; i < levels; i++) {
+                siblings[i] = take(in);
+            }
+            byte[] key = pairs[from][0];
+            byte[] h = leafHash(key, pairs[from][1]);
+            for (int i = levels - 1; i >= 0; i--) {
+                h = bit(key, depth + i) == 0 ? innerHash(h, siblings[i]) : innerHash(siblings[i], h);
+            }
+            return h;
+        }
+        int split = splitPoint(keys, from, to, depth);
+        byte[] left = recompute(pairs, keys, from, split, depth + 1, in);
+        byte[] right = recompute(pairs, keys, split, to, depth + 1, in);
+        return innerHash(left, right);
+    }
+
+    private static byte[] take(java.nio.ByteBuffer in) {
+        byte[] hash = new byte[32];
+        in.get(hash);
+        return hash;
+    }
+
+    /** First index in sorted {@code keys[from, to)} whose bit {@code depth} is 1. */
+    private static int splitPoint(byte[][] keys, int from, int to, int depth) {
+        int i = from;
+        while (i < to && bit(keys[i], depth) == 0) {
+            i++;
+        }
+        return i;
+    }
+
+    private static void requireStrictlyIncreasing(byte[][] sorted) {
+        for (int i = 1; i < sorted.length; i++) {
+            if (Arrays.equals(sorted[i - 1], sorted[i])) {
+                throw new IllegalArgumentException("repeated key");
+            }
+        }
+    }
+
     private static boolean is32(byte[] b) {
         return b != null && b.length == 32;
     }
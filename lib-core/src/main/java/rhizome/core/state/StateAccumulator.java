@@ -74,6 +74,8 @@ public final class StateAccumulator {
 
     /** Applies {@code changes} at {@code height}, persists the new root, and advances the current root. */
     public byte[] applyBlock(long height, List<StateChange> changes) {
+        StateRootEvent event = new StateRootEvent();
+        event.begin();
         // Stage this block's new SMT nodes and flush them in one batch (audit P8). The nodes are made
         // durable BEFORE putRoot, so the committed root always references nodes that are already on
         // disk — a crash between them leaves only harmless orphan nodes (re-created on re-apply), never
@@ -96,6 +98,11 @@ public final class StateAccumulator {
             roots.pruneBelow(cutoff); // keep genesis (height 1) and the reorg window
             lastPruneCutoff = cutoff;
         }
+        if (event.shouldCommit()) {
+            event.height = height;
+            event.changes = changes.size();
+            event.commit();
+        }
         return root;
     }
 
@@ -124,4 +131,49 @@ public final class StateAccumulator {
     public StateProof prove(byte domain, byte[] rawKey) {
         return tree.prove(currentRoot, StateKeys.key(domain, rawKey));
     }
+
+    /** One multiproof ({@link SparseMerkleTree#proveAll}) for tree {@code keys} at the current root. */
+    public byte[] proveAll(List<byte[]> keys) {
+        return tree.proveAll(currentRoot, keys);
+    }
+
+    /**
+     * Pins the current root for an off-lock prover: the root plus a frozen view of the node
+     * store ({@link SmtNodeStore#openSnapshot}), so proofs against it stay answerable however
+     * far the chain moves on. A store without views (in-memory: nodes are never deleted) is
+     * read live, which is sound because nodes are content-addressed and immutable. Take it
+     * under the engine lock, so the root and the view agree.
+     */
+    public Pinned pin() {
+        return new Pinned(currentRoot, nodes.openSnapshot());
+    }
+
+    /** One pinned root and the node view that resolves it. Close it to release the view. */
+    public final class Pinned implements AutoCloseable {
+        private final byte[] root;
+        private final SmtNodeStore.Snapshot view;
+        private final SparseMerkleTree pinnedTree;
+
+        private Pinned(byte[] root, SmtNodeStore.Snapshot view) {
+            this.root = root;
+            this.view = view;
+            this.pinnedTree = view != null ? new SparseMerkleTree(view) : tree;
+        }
+
+        public byte[] root() {
+            return root.clone();
+        }
+
+        /** One multiproof for tree {@code keys} at the pinned root. */
+        public byte[] proveAll(List<byte[]> keys) {
+            return pinnedTree.proveAll(root, keys);
+        }
+
+        @Override
+        public void close() {
+            if (view != null) {
+                view.close();
+            }
+        }
+    }
 }
@@ -0,0 +1,24 @@
+package rhizome.core.state;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for one {@link StateAccumulator#applyBlock}: folding a block's state changes into the
+ * sparse Merkle tree, flushing the new nodes and recording the root. Disabled unless a recording
+ * enables {@code rhizome.StateRoot}.
+ */
+@Name("rhizome.StateRoot")
+@Label("State Root")
+@Category({"Rhizome", "State"})
+@Description("One block's state changes folded into the authenticated state tree")
+final class StateRootEvent extends jdk.jfr.Event {
+
+    @Label("Height")
+    long height;
+
+    @Label("Changes")
+    int changes;
+}
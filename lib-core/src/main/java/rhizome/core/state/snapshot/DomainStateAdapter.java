@@ -79,6 +79,68 @@ public final class DomainStateAdapter implements StateSource, StateSink {
         }
     }
 
+    /**
+     * Pins every store ({@code openSnapshot}) and returns an export-only adapter over the views,
+     * or {@code null} if any store (or the contract source) cannot pin — a half-pinned export
+     * would mix two points in time. Views opened before a refusal are released.
+     */
+    @Override
+    public Pinned pin() {
+        List<AutoCloseable> opened = new ArrayList<>();
+        try {
+            Ledger.Snapshot ledgerView = track(opened, ledger.openSnapshot());
+            NonceStore.Snapshot nonceView = track(opened, nonces.openSnapshot());
+            BoxStore.Snapshot boxView = track(opened, boxes.openSnapshot());
+            TokenStore.Snapshot tokenView = track(opened, tokens.openSnapshot());
+            Pinned contractView = contractSource == null ? null : track(opened, contractSource.pin());
+            if (ledgerView == null || nonceView == null || boxView == null || tokenView == null
+                    || (contractSource != null && contractView == null)) {
+                closeAll(opened);
+                return null;
+            }
+            DomainStateAdapter view = new DomainStateAdapter(ledgerView, nonceView, boxView, tokenView,
+                contractView, null);
+            return new Pinned() {
+                @Override
+                public void forEach(byte domain, EntryConsumer out) {
+                    view.forEach(domain, out);
+                }
+
+                @Override
+                public void close() {
+                    closeAll(opened);
+                }
+            };
+        } catch (RuntimeException e) {
+            closeAll(opened);
+            throw e;
+        }
+    }
+
+    private static <T extends AutoCloseable> T track(List<AutoCloseable> opened, T view) {
+        if (view != null) {
+            opened.add(view);
+        }
+        return view;
+    }
+
+    /** Closes every view, newest first; one failing close does not leak the others. */
+    private static void closeAll(List<AutoCloseable> opened) {
+        IllegalStateException failure = null;
+        for (int i = opened.size() - 1; i >= 0; i--) {
+            try {
+                opened.get(i).close();
+            } catch (Exception e) {
+                if (failure == null) {
+                    failure = new IllegalStateException("state view close failed", e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
     // ---- import ----
 
     @Override
@@ -25,6 +25,15 @@ public record SnapshotChunk(byte domain, List<Entry> entries) {
     /** Minimum on-wire size of one entry: keyLen(2) + valLen(4), with zero-length key and value. */
     private static final int MIN_ENTRY_BYTES = 6;
 
+    /** The tree keys of this chunk's bindings ({@link rhizome.core.state.StateKeys#key}), in entry order. */
+    public List<byte[]> stateKeys() {
+        List<byte[]> keys = new ArrayList<>(entries.size());
+        for (Entry e : entries) {
+            keys.add(rhizome.core.state.StateKeys.key(domain, e.key()));
+        }
+        return keys;
+    }
+
     public byte[] encode() {
         int size = 1 + 4;
         for (Entry e : entries) {
@@ -0,0 +1,85 @@
+package rhizome.core.state.snapshot;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import rhizome.crypto.Crypto;
+
+/**
+ * The table of contents of one materialised snapshot: its pivot, the state root it rebuilds to,
+ * and the SHA-256 of every encoded chunk, in index order. {@link #hash()} commits all of it, and
+ * is what a server advertises on {@code /state/snapshot/info}.
+ *
+ * <p>Wire form (all integers big-endian):
+ * <pre>pivotHeight(8) ‖ stateRoot(32) ‖ count(4) ‖ chunkHash(32)*count</pre>
+ *
+ * <p>The manifest is a promise, not a proof: it comes from a peer and is only as honest as that
+ * peer. What it buys is attribution. Every peer serving chunks under the same manifest hash has
+ * promised the exact bytes of each chunk, so a chunk whose hash misses its entry convicts the
+ * peer that served it, on arrival and without waiting for the rest. What a chunk <em>means</em>
+ * is established separately, by its multiproof against the PoW-validated pivot root
+ * ({@link StateSnapshotImporter#verifyChunk}).
+ */
+public record SnapshotManifest(long pivotHeight, byte[] stateRoot, List<byte[]> chunkHashes) {
+
+    private static final int HEADER_BYTES = 8 + 32 + 4;
+
+    /** The entry for chunk {@code encoded}: SHA-256 of its wire bytes. */
+    public static byte[] chunkHash(byte[] encoded) {
+        return Crypto.SHA256(encoded).toBytes();
+    }
+
+    public int chunkCount() {
+        return chunkHashes.size();
+    }
+
+    /** True when {@code encoded} is exactly the chunk this manifest lists at {@code index}. */
+    public boolean matches(int index, byte[] encoded) {
+        return index >= 0 && index < chunkHashes.size() && Arrays.equals(chunkHashes.get(index), chunkHash(encoded));
+    }
+
+    /** The manifest hash: SHA-256 of {@link #encode()}. */
+    public byte[] hash() {
+        return Crypto.SHA256(encode()).toBytes();
+    }
+
+    public byte[] encode() {
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + 32 * chunkHashes.size());
+        buf.putLong(pivotHeight);
+        buf.put(stateRoot);
+        buf.putInt(chunkHashes.size());
+        for (byte[] h : chunkHashes) {
+            buf.put(h);
+        }
+        return buf.array();
+    }
+
+    /**
+     * Decodes a manifest of at most {@code maxChunks} entries. The length is checked against
+     * the declared count before anything is allocated.
+     *
+     * @throws IllegalArgumentException on any malformed input
+     */
+    public static SnapshotManifest decode(byte[] bytes, int maxChunks) {
+        if (bytes.length < HEADER_BYTES) {
+            throw new IllegalArgumentException("corrupt snapshot manifest: " + bytes.length + " bytes");
+        }
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        long pivotHeight = buf.getLong();
+        byte[] stateRoot = new byte[32];
+        buf.get(stateRoot);
+        int count = buf.getInt();
+        if (count < 0 || count > maxChunks || bytes.length != HEADER_BYTES + 32L * count) {
+            throw new IllegalArgumentException("corrupt snapshot manifest: count " + count);
+        }
+        List<byte[]> hashes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] h = new byte[32];
+            buf.get(h);
+            hashes.add(h);
+        }
+        return new SnapshotManifest(pivotHeight, stateRoot, hashes);
+    }
+}
@@ -77,4 +77,52 @@ public final class StateSnapshotExporter {
             bufferedBytes[0] = 0;
         }
     }
+
+    /**
+     * As the streaming {@link #export(StateSource, int, int, java.util.function.Consumer)}, but
+     * with <em>key-aligned</em> chunk boundaries: past a floor of an eighth of
+     * {@code maxEntriesPerChunk}, a chunk also ends after any entry whose key hashes onto a
+     * boundary (one key in a quarter of {@code maxEntriesPerChunk}), with the entry and byte
+     * bounds still as hard caps. Where a chunk ends is then a function of the keys around it,
+     * not of how many entries precede it — so a change confined to one key range re-exports
+     * every other range of the domain as a byte-identical chunk, where count-cut chunks would
+     * all shift after the first inserted or deleted key. This is what lets the snapshot producer
+     * reuse the chunks an interval left untouched.
+     */
+    public static void exportAligned(StateSource source, int maxEntriesPerChunk, int maxBytesPerChunk,
+                                     java.util.function.Consumer<SnapshotChunk> sink) {
+        if (maxEntriesPerChunk <= 0 || maxBytesPerChunk <= 0) {
+            throw new IllegalArgumentException("chunk bounds must be positive");
+        }
+        int floor = Math.max(1, maxEntriesPerChunk / 8);
+        long mask = Math.max(1, Integer.highestOneBit(Math.max(1, maxEntriesPerChunk / 4))) - 1L;
+        long[] bufferedBytes = {0};
+        for (byte domain : DOMAINS) {
+            List<SnapshotChunk.Entry> buffer = new ArrayList<>();
+            source.forEach(domain, (key, value) -> {
+                buffer.add(new SnapshotChunk.Entry(key, value));
+                bufferedBytes[0] += key.length + value.length;
+                if (buffer.size() >= maxEntriesPerChunk || bufferedBytes[0] >= maxBytesPerChunk
+                        || (buffer.size() >= floor && (boundaryHash(key) & mask) == 0)) {
+                    sink.accept(new SnapshotChunk(domain, new ArrayList<>(buffer)));
+                    buffer.clear();
+                    bufferedBytes[0] = 0;
+                }
+            });
+            if (!buffer.isEmpty()) {
+                sink.accept(new SnapshotChunk(domain, buffer));
+            }
+            bufferedBytes[0] = 0;
+        }
+    }
+
+    /** FNV-1a over the key: cheap, stable across runs, and well spread on hashed or random ids. */
+    private static long boundaryHash(byte[] key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        return h ^ (h >>> 32);
+    }
 }
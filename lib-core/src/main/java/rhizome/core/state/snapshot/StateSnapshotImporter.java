@@ -32,22 +32,11 @@ public final class StateSnapshotImporter {
      * touched; on mismatch the only residue is unreferenced content-addressed tree nodes.
      */
     public static byte[] verify(List<SnapshotChunk> chunks, SmtNodeStore nodes, byte[] expectedRoot) {
-        SparseMerkleTree tree = new SparseMerkleTree(nodes);
-        byte[] root = SparseMerkleTree.EMPTY_ROOT;
-        long entries = 0;
+        Incremental tree = new Incremental(nodes);
         for (SnapshotChunk chunk : chunks) {
-            for (SnapshotChunk.Entry e : chunk.entries()) {
-                root = tree.update(root, StateKeys.key(chunk.domain(), e.key()), StateKeys.valueHash(e.value()));
-                entries++;
-            }
-        }
-        if (!Arrays.equals(root, expectedRoot)) {
-            throw new SnapshotVerificationException(
-                "snapshot root mismatch after " + entries + " entries: rebuilt "
-                    + rhizome.core.common.Utils.bytesToHex(root) + ", header commits "
-                    + rhizome.core.common.Utils.bytesToHex(expectedRoot));
+            tree.add(chunk);
         }
-        return root;
+        return tree.verify(expectedRoot);
     }
 
     /**
@@ -58,11 +47,92 @@ public final class StateSnapshotImporter {
     public static byte[] importVerified(List<SnapshotChunk> chunks, SmtNodeStore nodes,
                                         byte[] expectedRoot, StateSink sink) {
         byte[] root = verify(chunks, nodes, expectedRoot);
+        replay(chunks, sink);
+        return root;
+    }
+
+    /**
+     * Replays every binding of {@code chunks} into {@code sink}. Only for chunks whose root has
+     * already been verified (by {@link #verify} or an {@link Incremental} that passed).
+     */
+    public static void replay(List<SnapshotChunk> chunks, StateSink sink) {
         for (SnapshotChunk chunk : chunks) {
             for (SnapshotChunk.Entry e : chunk.entries()) {
                 sink.put(chunk.domain(), e.key(), e.value());
             }
         }
-        return root;
+    }
+
+    /**
+     * Verifies one chunk on its own, before the rest of the snapshot exists: {@code proof} (a
+     * {@link SparseMerkleTree#proveAll} multiproof for the chunk's keys) must show every binding
+     * the chunk carries to be in the tree committed by {@code root}. A chunk that passes cannot
+     * carry a tampered or invented binding. It can still be incomplete, and only the final root
+     * comparison catches an omission.
+     */
+    public static boolean verifyChunk(SnapshotChunk chunk, byte[] proof, byte[] root) {
+        if (chunk.entries().isEmpty()) {
+            return false; // the exporter never emits an empty chunk
+        }
+        List<byte[]> keys = new java.util.ArrayList<>(chunk.entries().size());
+        List<byte[]> valueHashes = new java.util.ArrayList<>(chunk.entries().size());
+        for (SnapshotChunk.Entry e : chunk.entries()) {
+            keys.add(StateKeys.key(chunk.domain(), e.key()));
+            valueHashes.add(StateKeys.valueHash(e.value()));
+        }
+        return SparseMerkleTree.verifyAll(root, keys, valueHashes, proof);
+    }
+
+    /**
+     * The verification half as a fold: chunks are {@link #add added} one at a time, in any order,
+     * as they become available — while the rest are still downloading — and the rebuilt root is
+     * compared once the set is complete. Holds only the running root; the tree itself lives in
+     * the node store, so memory stays at one decoded chunk however large the snapshot.
+     *
+     * <p>Not thread-safe: one thread folds (the tree's read-modify-write of the root is serial).
+     */
+    public static final class Incremental {
+        private final SparseMerkleTree tree;
+        private byte[] root = SparseMerkleTree.EMPTY_ROOT;
+        private long entries;
+        private int chunks;
+
+        public Incremental(SmtNodeStore nodes) {
+            this.tree = new SparseMerkleTree(nodes);
+        }
+
+        /** Folds every binding of {@code chunk} into the running root. */
+        public void add(SnapshotChunk chunk) {
+            for (SnapshotChunk.Entry e : chunk.entries()) {
+                root = tree.update(root, StateKeys.key(chunk.domain(), e.key()), StateKeys.valueHash(e.value()));
+                entries++;
+            }
+            chunks++;
+        }
+
+        /** Chunks folded so far. */
+        public int chunks() {
+            return chunks;
+        }
+
+        /** Bindings folded so far. */
+        public long entries() {
+            return entries;
+        }
+
+        /**
+         * Requires the root rebuilt so far to equal {@code expectedRoot} and returns it.
+         *
+         * @throws SnapshotVerificationException on mismatch (a chunk missing, extra or tampered)
+         */
+        public byte[] verify(byte[] expectedRoot) {
+            if (!Arrays.equals(root, expectedRoot)) {
+                throw new SnapshotVerificationException(
+                    "snapshot root mismatch after " + entries + " entries: rebuilt "
+                        + rhizome.core.common.Utils.bytesToHex(root) + ", header commits "
+                        + rhizome.core.common.Utils.bytesToHex(expectedRoot));
+            }
+            return root.clone();
+        }
     }
 }
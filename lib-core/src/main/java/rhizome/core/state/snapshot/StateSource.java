@@ -16,4 +16,24 @@ public interface StateSource {
 
     /** Streams every binding of {@code domain} (a {@link rhizome.core.state.StateKeys} constant). */
     void forEach(byte domain, EntryConsumer out);
+
+    /**
+     * Opens a point-in-time view of every domain — cheap to take (each backing store pins a
+     * snapshot, nothing is copied) — or {@code null} when the stores cannot pin one, in which
+     * case the caller enumerates this live source under the engine lock. Blocks committed after
+     * the pin are invisible to the view, which is what lets the snapshot producer export off
+     * that lock. Pin under the engine lock, so every store is frozen at the same block; the
+     * caller must {@link Pinned#close close} the view.
+     */
+    default Pinned pin() {
+        return null;
+    }
+
+    /** A {@link StateSource} frozen at the moment it was pinned. */
+    interface Pinned extends StateSource, AutoCloseable {
+
+        /** Releases the pinned store views; idempotent. */
+        @Override
+        void close();
+    }
 }
@@ -43,6 +43,50 @@ public interface TokenStore {
         throw new UnsupportedOperationException("this token store does not support enumeration");
     }
 
+    /**
+     * Opens a read-only view of this store frozen at the moment it is opened, or {@code null}
+     * if the store cannot provide one cheaply (the default) — see {@code Ledger.openSnapshot}.
+     */
+    default Snapshot openSnapshot() {
+        return null;
+    }
+
+    /**
+     * A read-only {@link TokenStore} frozen at the moment it was opened: point reads and
+     * enumeration. Mutators throw, and so do the paginated index scans.
+     */
+    interface Snapshot extends TokenStore, AutoCloseable {
+
+        @Override
+        default void applyBlock(long height, List<TokenOp> ops) {
+            throw new UnsupportedOperationException("token store snapshot is read-only");
+        }
+
+        @Override
+        default void revertBlock(long height) {
+            throw new UnsupportedOperationException("token store snapshot is read-only");
+        }
+
+        @Override
+        default void pruneJournals(long minHeight) {
+            throw new UnsupportedOperationException("token store snapshot is read-only");
+        }
+
+        @Override
+        default List<byte[]> tokenIdsByMinter(byte[] minter, byte[] afterId, int limit) {
+            throw new UnsupportedOperationException("token store snapshot serves point reads and enumeration only");
+        }
+
+        @Override
+        default List<byte[]> tokenIdsByHolder(byte[] address, byte[] afterId, int limit) {
+            throw new UnsupportedOperationException("token store snapshot serves point reads and enumeration only");
+        }
+
+        /** Releases the pinned view; idempotent. */
+        @Override
+        void close();
+    }
+
     @FunctionalInterface
     interface BalanceConsumer {
         void accept(byte[] tokenId, byte[] address, long amount);
@@ -106,4 +106,116 @@ class BoxScanTest {
         assertEquals(1, p3.matches().size());
         assertNull(p3.nextCursor());
     }
+
+    @Test
+    void plannerDrivesTheScanFromTheMostSelectiveIndexedLeaf() {
+        byte[] tag = {7, 7, 7};
+        InMemoryBoxStore inner = new InMemoryBoxStore();
+        List<BoxStore.BoxMutation> muts = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            muts.add(BoxStore.BoxMutation.write(
+                box(alice, i, BoxRegister.bytes(i % 50 == 0 ? tag : new byte[] {(byte) i}))));
+        }
+        muts.add(BoxStore.BoxMutation.write(box(bob, 0, BoxRegister.bytes(tag))));
+        inner.applyBlock(1, muts);
+        CountingStore store = new CountingStore(inner);
+        DefaultBoxProcessor proc = new DefaultBoxProcessor(store, params);
+
+        // Owner alone would examine all 200 of Alice's boxes; the register leaf has 5 candidates.
+        var page = proc.scan(new ScanPredicate.And(List.of(
+            new ScanPredicate.OwnerEquals(alice.toBytes()),
+            new ScanPredicate.RegisterEquals(0, tag))), null, 50, 512);
+        assertEquals(4, page.matches().size());
+        assertNull(page.nextCursor());
+        assertEquals(5, store.gets, "one point read per candidate of the chosen leaf");
+
+        // A register scan without an owner no longer walks the box table.
+        store.gets = 0;
+        page = proc.scan(new ScanPredicate.RegisterEquals(0, tag), null, 50, 512);
+        assertEquals(5, page.matches().size());
+        assertEquals(5, store.gets);
+        assertEquals(0, store.fullWalks);
+
+        // Not indexable on its own: falls back to the full walk.
+        proc.scan(new ScanPredicate.RegisterContains(0, tag), null, 50, 512);
+        assertEquals(1, store.fullWalks);
+    }
+
+    @Test
+    void cursorStaysValidWhenTheChosenLeafChangesBetweenPages() {
+        byte[] tag = {1};
+        List<Box> boxes = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            boxes.add(box(i % 2 == 0 ? alice : bob, i, BoxRegister.bytes(i % 3 == 0 ? tag : new byte[] {2})));
+        }
+        DefaultBoxProcessor proc = seeded(boxes.toArray(Box[]::new));
+        ScanPredicate p = new ScanPredicate.And(List.of(
+            new ScanPredicate.OwnerEquals(alice.toBytes()),
+            new ScanPredicate.RegisterEquals(0, tag)));
+        long expected = boxes.stream().filter(p::test).count();
+
+        // Page through with a window of 3: each page re-plans from the cursor.
+        List<String> seen = new ArrayList<>();
+        byte[] cursor = null;
+        do {
+            BoxProcessor.ScanPage page = proc.scan(p, cursor, 2, 3);
+            page.matches().forEach(b -> seen.add(rhizome.core.common.Utils.bytesToHex(b.id())));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        assertEquals(expected, seen.size());
+        assertEquals(expected, seen.stream().distinct().count());
+    }
+
+    /** Delegating store that counts point reads and full-table walks. */
+    private static final class CountingStore implements BoxStore {
+        private final BoxStore inner;
+        int gets;
+        int fullWalks;
+
+        CountingStore(BoxStore inner) {
+            this.inner = inner;
+        }
+
+        @Override
+        public Box get(byte[] id) {
+            gets++;
+            return inner.get(id);
+        }
+
+        @Override
+        public void applyBlock(long height, List<BoxMutation> mutations) {
+            inner.applyBlock(height, mutations);
+        }
+
+        @Override
+        public void revertBlock(long height) {
+            inner.revertBlock(height);
+        }
+
+        @Override
+        public void pruneJournals(long minHeight) {
+            inner.pruneJournals(minHeight);
+        }
+
+        @Override
+        public List<byte[]> collectableBoxIds(long height, long storagePeriodBlocks, int limit) {
+            return inner.collectableBoxIds(height, storagePeriodBlocks, limit);
+        }
+
+        @Override
+        public List<byte[]> boxIdsByOwner(byte[] owner, byte[] afterId, int limit) {
+            return inner.boxIdsByOwner(owner, afterId, limit);
+        }
+
+        @Override
+        public List<byte[]> boxIdsFrom(byte[] afterId, int limit) {
+            fullWalks++;
+            return inner.boxIdsFrom(afterId, limit);
+        }
+
+        @Override
+        public List<byte[]> boxIdsByRegister(int index, byte[] value, byte[] afterId, int limit) {
+            return inner.boxIdsByRegister(index, value, afterId, limit);
+        }
+    }
 }
@@ -0,0 +1,112 @@
+package rhizome;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import rhizome.core.block.Block;
+import rhizome.core.block.BlockCodec;
+import rhizome.core.block.BlockImpl;
+import rhizome.core.block.CompactBlock;
+import rhizome.core.merkletree.MerkleTree;
+import rhizome.core.transaction.Transaction;
+import rhizome.core.user.User;
+import rhizome.crypto.SHA256Hash;
+
+/**
+ * Compact block relay: the compact form round-trips, rebuilds the identical block from a pool
+ * holding its transactions, names exactly the slots a pool lacks, and falls back to refetching
+ * every non-prefilled slot when the rebuilt body contradicts the header's Merkle root.
+ */
+class CompactBlockTest {
+
+    private static final User MINER = User.create();
+    private static final User RECEIVER = User.create();
+
+    private static BlockImpl block(int transfers, boolean validRoot) {
+        var b = (BlockImpl) BlockImpl.builder().id(7).timestamp(1_000L).difficulty(4)
+            .lastBlockHash(SHA256Hash.random()).build();
+        b.addTransaction(MINER.mine());
+        for (int i = 0; i < transfers; i++) {
+            b.addTransaction(MINER.send(RECEIVER, 50 + i));
+        }
+        MerkleTree tree = new MerkleTree();
+        tree.setItems(b.transactions());
+        b.merkleRoot(validRoot ? tree.getRootHash() : SHA256Hash.random());
+        b.nonce(SHA256Hash.empty());
+        return b;
+    }
+
+    /** The block's transfers (everything but the fee transaction), plus unrelated pool noise. */
+    private static List<Transaction> poolFor(Block block) {
+        List<Transaction> pool = new ArrayList<>(block.transactions().subList(1, block.transactions().size()));
+        for (int i = 0; i < 5; i++) {
+            pool.add(RECEIVER.send(MINER, 1 + i));
+        }
+        return pool;
+    }
+
+    @Test
+    void rebuildsTheIdenticalBlockFromThePool() {
+        BlockImpl block = block(40, true);
+        byte[] wire = CompactBlock.of(block, 42L).encode();
+        assertTrue(wire.length < BlockCodec.encode(block).length, "compact form must be smaller");
+
+        CompactBlock received = CompactBlock.decode(wire);
+        assertEquals(block.hash(), received.blockHash());
+        CompactBlock.Reconstruction rebuild = received.reconstruct(poolFor(block));
+        assertTrue(rebuild.isComplete());
+        assertArrayEquals(BlockCodec.encode(block), BlockCodec.encode(rebuild.block()));
+    }
+
+    @Test
+    void namesExactlyTheSlotsThePoolLacksAndCompletesFromThem() {
+        BlockImpl block = block(10, true);
+        List<Transaction> pool = poolFor(block);
+        pool.remove(block.transactions().get(3));
+        pool.remove(block.transactions().get(8));
+
+        CompactBlock.Reconstruction rebuild = CompactBlock.decode(CompactBlock.of(block, 7L).encode())
+            .reconstruct(pool);
+        assertFalse(rebuild.isComplete());
+        assertArrayEquals(new int[] {3, 8}, rebuild.missing());
+        assertThrows(IllegalStateException.class, rebuild::block);
+
+        // The round-trip leg: the sender's reply carries exactly those slots.
+        byte[] reply = CompactBlock.encodeFill(rebuild.blockHash(), List.of(
+            new CompactBlock.IndexedTransaction(3, block.transactions().get(3)),
+            new CompactBlock.IndexedTransaction(8, block.transactions().get(8))));
+        CompactBlock.Fill fill = CompactBlock.decodeFill(reply);
+        assertEquals(block.hash(), fill.blockHash());
+        assertArrayEquals(BlockCodec.encode(block), BlockCodec.encode(rebuild.complete(fill.transactions())));
+
+        // A reply naming other slots is refused, and does not consume the rebuild.
+        assertThrows(IllegalArgumentException.class, () -> rebuild.complete(List.of(
+            new CompactBlock.IndexedTransaction(4, block.transactions().get(4)),
+            new CompactBlock.IndexedTransaction(8, block.transactions().get(8)))));
+        assertArrayEquals(new int[] {3, 8}, rebuild.missing());
+    }
+
+    @Test
+    void merkleMismatchRefetchesEveryNonPrefilledSlot() {
+        // A body that does not hash to the header's root means some pick was wrong, and which one is
+        // unknowable: every short-id slot is requested, the prefilled fee transaction is not.
+        BlockImpl block = block(4, false);
+        CompactBlock.Reconstruction rebuild = CompactBlock.of(block, 1L).reconstruct(poolFor(block));
+        assertArrayEquals(new int[] {1, 2, 3, 4}, rebuild.missing());
+    }
+
+    @Test
+    void decodeRejectsTrailingBytes() {
+        byte[] wire = CompactBlock.of(block(3, true), 9L).encode();
+        byte[] longer = java.util.Arrays.copyOf(wire, wire.length + 1);
+        assertThrows(IllegalArgumentException.class, () -> CompactBlock.decode(longer));
+    }
+}
@@ -241,4 +241,73 @@ class HeaderSynchronizerTest {
         assertTrue(local.tipHash().equals(peer.tipHash()));
         assertTrue(legacy.blockFetches > 0, "fallback path downloads full blocks");
     }
+
+    /** A peer that sizes its windows and answers each one only after {@code delayMs}. */
+    static class SlowPeer extends EnginePeer {
+        final long delayMs;
+        final int perFetch;
+        final long hedgeAfter;
+        SlowPeer(ChainEngine e, long delayMs, int perFetch, long hedgeAfter) {
+            super(e);
+            this.delayMs = delayMs;
+            this.perFetch = perFetch;
+            this.hedgeAfter = hedgeAfter;
+        }
+        @Override public int blocksPerFetch() { return perFetch; }
+        @Override public long hedgeAfterMillis() { return hedgeAfter; }
+        @Override public List<Block> blocks(long start, long end) {
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("cancelled");
+            }
+            return super.blocks(start, end);
+        }
+    }
+
+    @Test
+    void windowsFollowThePeersPreferredSize() {
+        ChainEngine peer = newEngine();
+        mine(peer, PublicAddress.random(), new AtomicLong(0), 30);
+
+        ChainEngine local = newEngine();
+        SlowPeer source = new SlowPeer(peer, 0, 10, -1);
+        assertEquals(ChainSynchronizer.Result.EXTENDED, new HeaderSynchronizer(local).syncFrom(source));
+        assertEquals(31, local.height());
+        assertEquals(3, source.blockFetches, "30 bodies in windows of 10");
+    }
+
+    @Test
+    void slowWindowsAreHedgedToASecondPeer() {
+        ChainEngine peer = newEngine();
+        mine(peer, PublicAddress.random(), new AtomicLong(0), 30);
+
+        ChainEngine local = newEngine();
+        HeaderSynchronizer sync = new HeaderSynchronizer(local);
+        EnginePeer fast = new EnginePeer(peer);
+        ChainSynchronizer.Result r = sync.syncFrom(new SlowPeer(peer, 10_000, 10, 50), fast);
+
+        assertEquals(ChainSynchronizer.Result.EXTENDED, r);
+        assertTrue(local.tipHash().equals(peer.tipHash()));
+        assertEquals(3, sync.hedgedWindows());
+        assertEquals(3, sync.hedgeWins(), "every window came from the fast second peer");
+    }
+
+    @Test
+    void hedgeCopyFromAnotherBranchIsDiscarded() {
+        ChainEngine peer = newEngine();
+        mine(peer, PublicAddress.random(), new AtomicLong(0), 12);
+        ChainEngine other = newEngine();
+        mine(other, PublicAddress.random(), new AtomicLong(0), 12); // same heights, different blocks
+
+        ChainEngine local = newEngine();
+        HeaderSynchronizer sync = new HeaderSynchronizer(local);
+        ChainSynchronizer.Result r = sync.syncFrom(new SlowPeer(peer, 200, 12, 20), new EnginePeer(other));
+
+        assertEquals(ChainSynchronizer.Result.EXTENDED, r, "the primary's copy is awaited and applied");
+        assertTrue(local.tipHash().equals(peer.tipHash()));
+        assertEquals(1, sync.hedgedWindows());
+        assertEquals(0, sync.hedgeWins());
+    }
 }
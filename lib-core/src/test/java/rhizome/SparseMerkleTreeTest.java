@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.security.MessageDigest;
@@ -173,4 +174,44 @@ class SparseMerkleTreeTest {
         byte[] otherRoot = t.update(root, h("k5"), h("changed"));
         assertFalse(SparseMerkleTree.verify(otherRoot, h("k5"), h("v5"), real));
     }
+
+    @Test
+    void multiproofCoversAKeySetAndRejectsAnyTampering() {
+        SparseMerkleTree t = tree();
+        byte[] root = SparseMerkleTree.EMPTY_ROOT;
+        for (int i = 0; i < 200; i++) {
+            root = t.update(root, h("k" + i), h("v" + i));
+        }
+        List<byte[]> keys = new ArrayList<>();
+        List<byte[]> values = new ArrayList<>();
+        for (int i = 10; i < 60; i += 3) {
+            keys.add(h("k" + i));
+            values.add(h("v" + i));
+        }
+        byte[] proof = t.proveAll(root, keys);
+        assertTrue(SparseMerkleTree.verifyAll(root, keys, values, proof));
+
+        // Order of the key set is irrelevant; one key is just an ordinary path.
+        List<byte[]> reversedKeys = new ArrayList<>(keys);
+        List<byte[]> reversedValues = new ArrayList<>(values);
+        Collections.reverse(reversedKeys);
+        Collections.reverse(reversedValues);
+        assertTrue(SparseMerkleTree.verifyAll(root, reversedKeys, reversedValues, proof));
+        assertTrue(SparseMerkleTree.verifyAll(root, List.of(h("k3")), List.of(h("v3")),
+            t.proveAll(root, List.of(h("k3")))));
+
+        // A changed value, a dropped key, trailing or missing proof bytes, or a repeated key: false.
+        List<byte[]> forged = new ArrayList<>(values);
+        forged.set(4, h("forged"));
+        assertFalse(SparseMerkleTree.verifyAll(root, keys, forged, proof));
+        assertFalse(SparseMerkleTree.verifyAll(root, keys.subList(1, keys.size()), values.subList(1, values.size()), proof));
+        assertFalse(SparseMerkleTree.verifyAll(root, keys, values, java.util.Arrays.copyOf(proof, proof.length + 1)));
+        assertFalse(SparseMerkleTree.verifyAll(root, keys, values, java.util.Arrays.copyOf(proof, proof.length - 1)));
+        assertFalse(SparseMerkleTree.verifyAll(root, List.of(h("k3"), h("k3")), List.of(h("v3"), h("v3")),
+            t.proveAll(root, List.of(h("k3")))));
+
+        // An absent key has no multiproof.
+        byte[] committed = root;
+        assertThrows(IllegalArgumentException.class, () -> t.proveAll(committed, List.of(h("k1"), h("absent"))));
+    }
 }
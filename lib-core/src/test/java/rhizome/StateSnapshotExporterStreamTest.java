@@ -19,7 +19,8 @@ import rhizome.core.state.snapshot.StateSource;
 /**
  * The streaming snapshot export (audit: whole-list RAM materialisation): the callback form must
  * emit exactly the same chunk sequence as the list form — which now delegates to it — while never
- * holding more than one chunk at a time.
+ * holding more than one chunk at a time. The key-aligned form must confine an edit to the chunks
+ * around it, so the snapshot producer can carry every other chunk over.
  */
 class StateSnapshotExporterStreamTest {
 
@@ -72,4 +73,58 @@ class StateSnapshotExporterStreamTest {
         assertThrows(IllegalArgumentException.class,
             () -> StateSnapshotExporter.export(source, 3, 0, c -> { }));
     }
+
+    @Test
+    void alignedChunksAreStableOutsideTheEditedKeyRange() {
+        List<byte[][]> ledger = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            ledger.add(new byte[][] {String.format("acct-%06d", i * 2).getBytes(), ("v" + i).getBytes()});
+        }
+        java.util.Set<String> before = alignedHashes(Map.of(StateKeys.LEDGER, ledger));
+        assertTrue(before.size() > 100, "the fixture must force many chunks");
+
+        // One value changed: exactly that chunk differs.
+        List<byte[][]> edited = new ArrayList<>(ledger);
+        edited.set(10_000, new byte[][] {ledger.get(10_000)[0], "changed".getBytes()});
+        java.util.Set<String> afterEdit = alignedHashes(Map.of(StateKeys.LEDGER, edited));
+        assertEquals(1, fresh(before, afterEdit));
+        assertEquals(before.size(), afterEdit.size());
+
+        // One key inserted and one deleted: the boundaries around them move, no others do.
+        List<byte[][]> reshaped = new ArrayList<>(ledger);
+        reshaped.add(5_000, new byte[][] {String.format("acct-%06d", 9_999).getBytes(), "new".getBytes()});
+        reshaped.remove(15_000);
+        java.util.Set<String> afterReshape = alignedHashes(Map.of(StateKeys.LEDGER, reshaped));
+        assertTrue(fresh(before, afterReshape) <= 4, "only the chunks around the two edits change");
+
+        // Count-cut chunks, by contrast, all shift after the inserted key.
+        java.util.Set<String> counted = new java.util.HashSet<>();
+        java.util.Set<String> countedAfter = new java.util.HashSet<>();
+        StateSnapshotExporter.export(sourceOf(Map.of(StateKeys.LEDGER, ledger)), 128, 1 << 20,
+            c -> counted.add(hex(c)));
+        StateSnapshotExporter.export(sourceOf(Map.of(StateKeys.LEDGER, reshaped)), 128, 1 << 20,
+            c -> countedAfter.add(hex(c)));
+        assertTrue(fresh(counted, countedAfter) > counted.size() / 4);
+    }
+
+    private static java.util.Set<String> alignedHashes(Map<Byte, List<byte[][]>> domains) {
+        java.util.Set<String> hashes = new java.util.HashSet<>();
+        StateSnapshotExporter.exportAligned(sourceOf(domains), 256, 1 << 20, c -> hashes.add(hex(c)));
+        return hashes;
+    }
+
+    private static String hex(SnapshotChunk chunk) {
+        return rhizome.core.common.Utils.bytesToHex(
+            rhizome.core.state.snapshot.SnapshotManifest.chunkHash(chunk.encode()));
+    }
+
+    private static int fresh(java.util.Set<String> before, java.util.Set<String> after) {
+        int n = 0;
+        for (String h : after) {
+            if (!before.contains(h)) {
+                n++;
+            }
+        }
+        return n;
+    }
 }
@@ -0,0 +1,64 @@
+package rhizome.crypto;
+
+/**
+ * SipHash-2-4 (Aumasson &amp; Bernstein): a fast keyed 64-bit PRF over short inputs. Used where an
+ * identifier must be short AND unpredictable to anyone not holding the key — compact-block short
+ * transaction ids are keyed per block, so a peer cannot precompute colliding transactions.
+ *
+ * <p>Not a collision-resistant hash: 64 bits of output, chosen for speed. Never use it where
+ * SHA-256 is required (consensus hashing, signatures, Merkle trees).
+ */
+public final class SipHash {
+
+    private SipHash() {}
+
+    /** SipHash-2-4 of {@code data} under the 128-bit key {@code (k0, k1)} (little-endian halves). */
+    public static long hash24(long k0, long k1, byte[] data) {
+        long v0 = 0x736f6d6570736575L ^ k0;
+        long v1 = 0x646f72616e646f6dL ^ k1;
+        long v2 = 0x6c7967656e657261L ^ k0;
+        long v3 = 0x7465646279746573L ^ k1;
+
+        int len = data.length;
+        int end = len - (len % 8);
+        for (int i = 0; i < end; i += 8) {
+            long m = littleEndian(data, i, 8);
+            v3 ^= m;
+            for (int r = 0; r < 2; r++) {
+                v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+                v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+                v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+                v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+            }
+            v0 ^= m;
+        }
+
+        long b = ((long) len) << 56 | littleEndian(data, end, len - end);
+        v3 ^= b;
+        for (int r = 0; r < 2; r++) {
+            v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+            v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+            v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+            v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+        }
+        v0 ^= b;
+
+        v2 ^= 0xff;
+        for (int r = 0; r < 4; r++) {
+            v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+            v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+            v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+            v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+        }
+        return v0 ^ v1 ^ v2 ^ v3;
+    }
+
+    /** The first {@code n} (≤ 8) bytes at {@code off}, as a little-endian long. */
+    static long littleEndian(byte[] data, int off, int n) {
+        long v = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            v = (v << 8) | (data[off + i] & 0xFFL);
+        }
+        return v;
+    }
+}
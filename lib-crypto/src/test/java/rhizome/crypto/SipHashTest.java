@@ -0,0 +1,33 @@
+package rhizome.crypto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.Test;
+
+/** {@link SipHash} against the reference SipHash-2-4 vectors (key 00..0f, message 00..n-1). */
+class SipHashTest {
+
+    private static final long K0 = 0x0706050403020100L;
+    private static final long K1 = 0x0f0e0d0c0b0a0908L;
+
+    private static byte[] counting(int n) {
+        byte[] m = new byte[n];
+        for (int i = 0; i < n; i++) {
+            m[i] = (byte) i;
+        }
+        return m;
+    }
+
+    @Test
+    void matchesReferenceVectors() {
+        assertEquals(0x726fdb47dd0e0e31L, SipHash.hash24(K0, K1, counting(0)));
+        assertEquals(0x93f5f5799a932462L, SipHash.hash24(K0, K1, counting(8)));  // exactly one block
+        assertEquals(0xa129ca6149be45e5L, SipHash.hash24(K0, K1, counting(15))); // block + 7-byte tail
+    }
+
+    @Test
+    void keyChangesOutput() {
+        assertNotEquals(SipHash.hash24(K0, K1, counting(32)), SipHash.hash24(K0 + 1, K1, counting(32)));
+    }
+}
@@ -13,6 +13,7 @@ import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.InflaterInputStream;
 
 import rhizome.core.common.Constants;
 
@@ -70,6 +71,12 @@ public final class HttpPeerSource implements PeerSource {
      * /submit body cap allows. Bounds a hostile peer's reply before the codec parses it.
      */
     private static final long ORPHAN_CAP = Constants.MAX_BLOCK_SIZE_BYTES + 1024L;
+    /**
+     * The one content coding offered on every exchange. The node deflates {@code /sync},
+     * {@code /headers} and snapshot chunks for a peer that asks; the caps above all bound the
+     * inflated bytes.
+     */
+    private static final String DEFLATE = "deflate";
 
     private final String baseUrl;
     /** The ORIGINAL (pre-DNS-pin) base URL, used for the {@link PeerTokenPolicy} trust check:
@@ -81,6 +88,9 @@ public final class HttpPeerSource implements PeerSource {
     /** Decides whether the RHIZOME_PEER_TOKEN secret may be presented to this peer (configured
      *  + https only); never logged (audit: peer token exfiltration via gossip). */
     private final PeerTokenPolicy tokenPolicy;
+    /** Where this source's exchange timings go (keyed by {@link #originalUrl}); {@code null} for a
+     *  standalone source that is not part of the node's channel set. */
+    private final PeerQuality quality;
 
     public HttpPeerSource(String baseUrl) {
         this(baseUrl, false);
@@ -112,6 +122,21 @@ public final class HttpPeerSource implements PeerSource {
         this(baseUrl, blockPrivateHosts, client, REQUEST_DEADLINE, tokenPolicy);
     }
 
+    /**
+     * Over the node's shared {@link PeerChannels}: the peer's channel pin and the transport gossip
+     * and PEX already hold open to it, so a sync round neither re-resolves the peer nor opens a
+     * connection of its own.
+     */
+    public HttpPeerSource(String baseUrl, PeerChannels channels, PeerTokenPolicy tokenPolicy) {
+        String trimmed = trim(baseUrl);
+        this.originalUrl = trimmed;
+        this.baseUrl = channels.pinned(trimmed);
+        this.client = channels.http();
+        this.requestDeadline = REQUEST_DEADLINE;
+        this.tokenPolicy = tokenPolicy;
+        this.quality = channels.quality();
+    }
+
     /** As above, with an explicit whole-exchange deadline (package-private for tests). */
     HttpPeerSource(String baseUrl, boolean blockPrivateHosts, HttpClient client, Duration requestDeadline) {
         this(baseUrl, blockPrivateHosts, client, requestDeadline, PeerTokenPolicy.none());
@@ -120,12 +145,17 @@ public final class HttpPeerSource implements PeerSource {
     /** As above, with an explicit whole-exchange deadline and a token policy. */
     HttpPeerSource(String baseUrl, boolean blockPrivateHosts, HttpClient client, Duration requestDeadline,
                    PeerTokenPolicy tokenPolicy) {
-        String trimmed = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        String trimmed = trim(baseUrl);
         this.originalUrl = trimmed;
         this.baseUrl = PeerHosts.pin(trimmed, blockPrivateHosts);
         this.client = client;
         this.requestDeadline = requestDeadline;
         this.tokenPolicy = tokenPolicy;
+        this.quality = null;
+    }
+
+    private static String trim(String baseUrl) {
+        return baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
     }
 
     /** A default JDK client with the standard connect timeout; callers that share one build it once. */
@@ -133,6 +163,12 @@ public final class HttpPeerSource implements PeerSource {
         return HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
     }
 
+    /** The peer as configured (not the pinned literal), for logs. */
+    @Override
+    public String toString() {
+        return originalUrl;
+    }
+
     @Override
     public long height() {
         String body = getString("/block_count", SCALAR_CAP);
@@ -174,6 +210,7 @@ public final class HttpPeerSource implements PeerSource {
         String path = "/sync?start=" + start + "&end=" + end;
         HttpRequest request = PeerAuth.withToken(HttpRequest.newBuilder(URI.create(baseUrl + path)),
                 tokenPolicy.tokenFor(originalUrl))
+            .header("Accept-Encoding", DEFLATE)
             .timeout(requestDeadline).GET().build();
         try {
             // The request timeout only covers up to the response headers; bound the exchange
@@ -182,16 +219,27 @@ public final class HttpPeerSource implements PeerSource {
             // link. Every chunk read stamps forward progress; only a stalled drip dies.
             AtomicReference<AutoCloseable> openBody = new AtomicReference<>();
             AtomicLong lastActivity = new AtomicLong(System.nanoTime());
+            long sent = System.nanoTime();
             return BodyReadDeadline.callIdle(requestDeadline, openBody, lastActivity, () -> {
                 HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                long headers = System.nanoTime();
                 if (response.statusCode() != 200) {
                     response.body().close();
                     throw new IOException("peer " + path + " returned " + response.statusCode());
                 }
-                InputStream in = new ProgressInputStream(response.body(), lastActivity);
+                ProgressInputStream in = new ProgressInputStream(response.body(), lastActivity);
                 openBody.set(in); // publish so a deadline expiry can cancel the JDK exchange
-                try (in) {
-                    return BlockCodec.decodeStreamed(in, Constants.BLOCKS_PER_FETCH, Constants.MAX_BLOCK_SIZE_BYTES);
+                // The codec's caps bound the INFLATED stream, so a deflate bomb dies where an
+                // oversized plain body would; in.bytes stays the wire count the link is measured by.
+                try (in; InputStream body = decoded(response, in, path)) {
+                    List<Block> decoded =
+                        BlockCodec.decodeStreamed(body, Constants.BLOCKS_PER_FETCH, Constants.MAX_BLOCK_SIZE_BYTES);
+                    long done = System.nanoTime();
+                    if (quality != null) {
+                        quality.success(originalUrl, headers - sent, in.bytes, done - headers);
+                        quality.window(originalUrl, decoded.size(), in.bytes, done - sent);
+                    }
+                    return decoded;
                 }
             });
         } catch (BodyReadSaturatedException e) {
@@ -200,6 +248,9 @@ public final class HttpPeerSource implements PeerSource {
             // and penalise an honest peer for our own load.
             throw new LocalSaturationException("local body-read pool saturated: " + path, e);
         } catch (IOException e) {
+            if (quality != null) {
+                quality.failure(originalUrl);
+            }
             throw new PeerUnavailableException("peer request failed: " + path, e);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
@@ -207,6 +258,19 @@ public final class HttpPeerSource implements PeerSource {
         }
     }
 
+    /** The window the tracker sizes for this peer's measured link ({@code BLOCKS_PER_FETCH} unmeasured). */
+    @Override
+    public int blocksPerFetch() {
+        return quality == null ? Constants.BLOCKS_PER_FETCH
+            : quality.blocksPerFetch(originalUrl, Constants.BLOCKS_PER_FETCH);
+    }
+
+    /** This peer's p90 window latency, past which a window is also asked of a second peer. */
+    @Override
+    public long hedgeAfterMillis() {
+        return quality == null ? -1 : quality.hedgeAfterMillis(originalUrl);
+    }
+
     @Override
     public long prunedBelow() {
         String body = getString("/info", SCALAR_CAP);
@@ -236,7 +300,14 @@ public final class HttpPeerSource implements PeerSource {
                 throw new PeerProtocolException(
                     "peer advertised out-of-range snapshot chunk count: " + chunks);
             }
-            return new SnapshotInfo(pivotHeight, stateRoot, chunks);
+            // A peer predating chunk manifests omits the field; the bootstrap then falls back to
+            // the end-of-download root check alone.
+            String manifest = info.optString("manifest", null);
+            byte[] manifestHash = manifest == null ? null : rhizome.core.common.Utils.hexStringToByteArray(manifest);
+            if (manifestHash != null && manifestHash.length != 32) {
+                throw new PeerProtocolException("peer advertised a malformed snapshot manifest hash");
+            }
+            return new SnapshotInfo(pivotHeight, stateRoot, chunks, manifestHash);
         } catch (PeerProtocolException e) {
             throw e;
         } catch (RuntimeException e) {
@@ -251,6 +322,26 @@ public final class HttpPeerSource implements PeerSource {
         return getBytes("/state/snapshot/chunk?index=" + index, 16L * 1024 * 1024);
     }
 
+    @Override
+    public rhizome.core.state.snapshot.SnapshotManifest snapshotManifest() {
+        byte[] body = getBytesOrNullOn404("/state/snapshot/manifest", 44L + 32L * MAX_SNAPSHOT_CHUNKS);
+        if (body == null) {
+            return null;
+        }
+        try {
+            return rhizome.core.state.snapshot.SnapshotManifest.decode(body, MAX_SNAPSHOT_CHUNKS);
+        } catch (RuntimeException e) {
+            throw new PeerProtocolException("peer /state/snapshot/manifest is malformed", e);
+        }
+    }
+
+    @Override
+    public byte[] snapshotProof(int index) {
+        // A multiproof is ~log2(state) siblings per key beyond the ones its chunk shares; the chunk
+        // cap bounds it as well (proofs are the same order of size as their chunk).
+        return getBytesOrNullOn404("/state/snapshot/proof?index=" + index, 16L * 1024 * 1024);
+    }
+
     @Override
     public List<BlockHeader> headers(long start, long end) {
         // A peer predating the /headers endpoint answers 404; surface it as "unsupported"
@@ -301,6 +392,7 @@ public final class HttpPeerSource implements PeerSource {
     private byte[] fetch(String path, long maxBytes, NotFound notFound) {
         HttpRequest request = PeerAuth.withToken(HttpRequest.newBuilder(URI.create(baseUrl + path)),
                 tokenPolicy.tokenFor(originalUrl))
+            .header("Accept-Encoding", DEFLATE)
             .timeout(requestDeadline)
             .GET()
             .build();
@@ -308,8 +400,13 @@ public final class HttpPeerSource implements PeerSource {
             // Same whole-exchange deadline as blocks(): the request timeout alone would let a
             // slow-drip peer hang the sync thread mid-body (audit F1).
             AtomicReference<AutoCloseable> openBody = new AtomicReference<>();
+            long sent = System.nanoTime();
             return BodyReadDeadline.call(requestDeadline, openBody, () -> {
                 HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                long headers = System.nanoTime();
+                if (response.statusCode() == 404 && notFound != NotFound.ERROR && quality != null) {
+                    quality.success(originalUrl, headers - sent, 0, 0); // an answer, if not the one we asked
+                }
                 if (response.statusCode() != 200) {
                     response.body().close();
                     if (response.statusCode() == 404 && notFound == NotFound.UNSUPPORTED) {
@@ -320,16 +417,24 @@ public final class HttpPeerSource implements PeerSource {
                     }
                     throw new IOException("peer " + path + " returned " + response.statusCode());
                 }
-                InputStream in = response.body();
+                ProgressInputStream in = new ProgressInputStream(response.body(), new AtomicLong());
                 openBody.set(in); // publish so a deadline expiry can cancel the JDK exchange
-                try (in) {
-                    return readBounded(in, maxBytes, path);
+                try (in; InputStream decoded = decoded(response, in, path)) {
+                    // maxBytes caps the inflated body (decompression-bomb bound).
+                    byte[] body = readBounded(decoded, maxBytes, path);
+                    if (quality != null) {
+                        quality.success(originalUrl, headers - sent, in.bytes, System.nanoTime() - headers);
+                    }
+                    return body;
                 }
             });
         } catch (BodyReadSaturatedException e) {
             // LOCAL backpressure (see blocks()): never a peer fault.
             throw new LocalSaturationException("local body-read pool saturated: " + path, e);
         } catch (IOException e) {
+            if (quality != null) {
+                quality.failure(originalUrl);
+            }
             throw new PeerUnavailableException("peer request failed: " + path, e);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
@@ -337,6 +442,22 @@ public final class HttpPeerSource implements PeerSource {
         }
     }
 
+    /**
+     * The response body as the codec should read it: inflated when the peer answered our
+     * {@code Accept-Encoding: deflate} with {@code Content-Encoding: deflate}, as-is when it sent
+     * identity (a peer predating compressed sync). Anything else was never offered.
+     */
+    private static InputStream decoded(HttpResponse<?> response, InputStream wire, String path) throws IOException {
+        String encoding = response.headers().firstValue("Content-Encoding").orElse("identity").trim();
+        if (DEFLATE.equalsIgnoreCase(encoding)) {
+            return new InflaterInputStream(wire);
+        }
+        if ("identity".equalsIgnoreCase(encoding)) {
+            return wire;
+        }
+        throw new IOException("peer " + path + " sent unrequested Content-Encoding " + encoding);
+    }
+
     /** Reads the stream, aborting if it would exceed {@code maxBytes} (never buffers past the cap). */
     private static byte[] readBounded(InputStream in, long maxBytes, String path) throws IOException {
         // One byte over the cap is fetched to distinguish "exactly at cap" from "over".
@@ -354,6 +475,8 @@ public final class HttpPeerSource implements PeerSource {
      */
     private static final class ProgressInputStream extends FilterInputStream {
         private final AtomicLong lastActivityNanos;
+        /** Body bytes read so far (throughput accounting; read on the reading thread only). */
+        long bytes;
 
         ProgressInputStream(InputStream in, AtomicLong lastActivityNanos) {
             super(in);
@@ -364,6 +487,7 @@ public final class HttpPeerSource implements PeerSource {
         public int read() throws IOException {
             int r = super.read();
             if (r >= 0) {
+                bytes++;
                 lastActivityNanos.set(System.nanoTime());
             }
             return r;
@@ -373,6 +497,7 @@ public final class HttpPeerSource implements PeerSource {
         public int read(byte[] b, int off, int len) throws IOException {
             int n = super.read(b, off, len);
             if (n > 0) {
+                bytes += n;
                 lastActivityNanos.set(System.nanoTime());
             }
             return n;
@@ -3,17 +3,16 @@ package rhizome.net;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -26,6 +25,7 @@ import org.slf4j.LoggerFactory;
 
 import rhizome.core.block.Block;
 import rhizome.core.block.BlockCodec;
+import rhizome.core.block.CompactBlock;
 import rhizome.core.transaction.Transaction;
 
 /**
@@ -36,6 +36,14 @@ import rhizome.core.transaction.Transaction;
  * failure is isolated. Re-broadcast loops terminate naturally because a peer
  * that already has an item rejects it (non-SUCCESS) and therefore does not
  * gossip it onward.
+ *
+ * <p>Blocks travel as a {@link CompactBlock} whenever that is smaller than the full encoding:
+ * peers rebuild the body from their mempools and round-trip only for what they lack, so a block
+ * whose transactions were already gossiped costs each peer a header plus 6 bytes per transaction
+ * instead of the whole body (see {@link #postCompact}).
+ *
+ * <p>Transactions do not use the block send pool at all: they are announced by hash in per-peer
+ * trickled batches and delivered only to peers that ask ({@link TransactionRelay}).
  */
 public final class PeerBroadcaster implements AutoCloseable {
 
@@ -58,12 +66,19 @@ public final class PeerBroadcaster implements AutoCloseable {
     private static final Duration SEND_DEADLINE = Duration.ofSeconds(10);
     /** Cap on the reply body: /submit and /add_transaction answer a tiny JSON status, so
      *  anything larger is a hostile drip, not a peer response worth reading. */
-    private static final long MAX_REPLY_BYTES = 64 * 1024;
+    static final long MAX_REPLY_BYTES = 64 * 1024;
+    /** Cap on a {@code /compact_block} reply: its missing-slot list is at most one index per
+     *  transaction of a block ({@code MAX_TRANSACTIONS_PER_BLOCK} × a few bytes of JSON). */
+    private static final long MAX_COMPACT_REPLY_BYTES = 512 * 1024;
 
     private final Supplier<Collection<String>> peers;
-    private final boolean blockPrivateHosts;
-    private final HttpClient http;
-    private final ExecutorService pool;
+    /** Per-block compact-id salts: unpredictable, so no peer can pre-grind short-id collisions. */
+    private final java.security.SecureRandom salts = new java.security.SecureRandom();
+    /** The node's shared per-peer links: one transport, one SSRF pin per channel. */
+    private final PeerChannels channels;
+    private final ThreadPoolExecutor pool;
+    /** Transaction gossip: per-peer inventory queues, off the block pool entirely. */
+    private final TransactionRelay txRelay;
     private final long maxQueuedBytes;
     /** Bytes currently retained by queued/running sends; a send is charged at submit and
      *  released exactly once (when it runs, or when a full queue rejects it). */
@@ -89,17 +104,27 @@ public final class PeerBroadcaster implements AutoCloseable {
     /** As above, presenting the token only to peers {@code tokenPolicy} trusts. */
     public PeerBroadcaster(Supplier<Collection<String>> peers, boolean blockPrivateHosts,
                            PeerTokenPolicy tokenPolicy) {
-        this(peers, blockPrivateHosts, tokenPolicy, MAX_QUEUED_BYTES);
+        this(peers, new PeerChannels(blockPrivateHosts), tokenPolicy, MAX_QUEUED_BYTES);
+    }
+
+    /** As above, over the node's shared {@link PeerChannels} (the same links sync and PEX use). */
+    public PeerBroadcaster(Supplier<Collection<String>> peers, PeerChannels channels,
+                           PeerTokenPolicy tokenPolicy) {
+        this(peers, channels, tokenPolicy, MAX_QUEUED_BYTES);
     }
 
     /** As above, with an explicit queued-bytes budget (package-private for tests). */
     PeerBroadcaster(Supplier<Collection<String>> peers, boolean blockPrivateHosts,
                     PeerTokenPolicy tokenPolicy, long maxQueuedBytes) {
+        this(peers, new PeerChannels(blockPrivateHosts), tokenPolicy, maxQueuedBytes);
+    }
+
+    private PeerBroadcaster(Supplier<Collection<String>> peers, PeerChannels channels,
+                            PeerTokenPolicy tokenPolicy, long maxQueuedBytes) {
         this.peers = peers;
-        this.blockPrivateHosts = blockPrivateHosts;
+        this.channels = channels;
         this.tokenPolicy = tokenPolicy;
         this.maxQueuedBytes = maxQueuedBytes;
-        this.http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(3)).build();
         // Bounded queue: newest blocks/txs win, memory stays capped even if several peers are
         // slow/unresponsive. The byte budget (enforced in post()) is the primary bound; on a
         // count-full queue the NEW send is dropped — never the oldest — so a discarded task's
@@ -117,6 +142,7 @@ public final class PeerBroadcaster implements AutoCloseable {
                 }
                 droppedSends.incrementAndGet();
             });
+        this.txRelay = new TransactionRelay(peers, this::exchange, true);
     }
 
     public void broadcastBlock(Block block) {
@@ -131,16 +157,48 @@ public final class PeerBroadcaster implements AutoCloseable {
         //    one pooled task, dropping it would lose the block's propagation to EVERY peer,
         //    and with the dedup id already recorded above it would never be re-gossiped within
         //    the window. With the encode done here, a drop only ever costs ONE peer send.
-        post("/submit", BlockCodec.encode(block));
+        byte[] full = BlockCodec.encode(block);
+        byte[] compact = CompactBlock.of(block, salts.nextLong()).encode();
+        if (compact.length >= full.length) {
+            // Nothing to save (an empty or near-empty block): the full push is one round trip.
+            post("/submit", full);
+            return;
+        }
+        postCompact(full, compact);
     }
 
     public void broadcastTransaction(Transaction transaction) {
         if (!firstSeen("t:" + transaction.hashContents().toHexString())) {
             return;
         }
-        // Same reasoning as broadcastBlock: encode on the caller so a discarded task only ever
-        // costs one peer send, never the whole fan-out.
-        post("/add_transaction", transaction.serialize().toBuffer());
+        // Announced by hash, batched per peer (TransactionRelay); the body goes only to peers that
+        // ask for it. The old one-POST-per-peer-per-transaction fan-out through the shared pool
+        // sent every peer a copy it usually already had, and its 256-task backlog dropped sends
+        // under load.
+        txRelay.announce(transaction);
+    }
+
+    /**
+     * Records that the peer at {@code from} announced these transactions to us, so they are not
+     * announced back to it (see {@link TransactionRelay#noteAnnouncedBy}).
+     */
+    public void noteAnnouncedBy(java.net.InetAddress from, Collection<rhizome.crypto.SHA256Hash> hashes) {
+        txRelay.noteAnnouncedBy(from, hashes);
+    }
+
+    /** Transaction gossip counters, totals and per peer. */
+    public TransactionRelay.Stats transactionStats() {
+        return txRelay.stats();
+    }
+
+    /**
+     * Block push backlog: bytes queued or in flight, sends waiting in the pool's queue (of
+     * {@code MAX_QUEUED_SENDS}), and sends dropped by the budget or queue.
+     */
+    public record BlockStats(long queuedBytes, int queuedSends, long droppedSends) { }
+
+    public BlockStats blockStats() {
+        return new BlockStats(queuedBytes.get(), pool.getQueue().size(), droppedSends.get());
     }
 
     /** True the first time an item id is seen within the dedup window (adds it as a side effect). */
@@ -163,6 +221,69 @@ public final class PeerBroadcaster implements AutoCloseable {
         }
     }
 
+    /**
+     * Compact fan-out: each peer gets the compact encoding and, only if its mempool lacks some of
+     * the block, a second request carrying just those transactions. The full encoding is retained
+     * ONCE for all peers (a {@link Relay}) to answer those requests and for the {@code /submit}
+     * fallback to a peer that predates compact relay; it is charged against the byte budget once,
+     * for as long as any of the block's sends is queued or running. If that charge does not fit,
+     * the compact sends still go out, without follow-ups — a peer missing transactions then gets
+     * the block from pull sync, exactly as it would from a dropped send.
+     */
+    private void postCompact(byte[] full, byte[] compact) {
+        Collection<String> targets = peers.get();
+        if (targets.isEmpty()) {
+            return;
+        }
+        Relay relay = new Relay(full, targets.size());
+        if (queuedBytes.addAndGet(full.length) > maxQueuedBytes) {
+            queuedBytes.addAndGet(-full.length);
+            relay = null;
+        }
+        for (String peer : targets) {
+            long size = compact.length;
+            if (queuedBytes.addAndGet(size) > maxQueuedBytes) {
+                queuedBytes.addAndGet(-size);
+                droppedSends.incrementAndGet();
+                if (relay != null) {
+                    relay.release();
+                }
+                log.debug("broadcast to {} dropped: gossip backlog over {} bytes", peer, maxQueuedBytes);
+                continue;
+            }
+            pool.execute(new QueuedSend(peer, "/compact_block", compact, size, relay));
+        }
+    }
+
+    /**
+     * The full encoding of a compact-relayed block, shared by its per-peer sends and charged to the
+     * byte budget once. Each send releases one reference exactly once (run or rejected); the last
+     * release returns the charge. The decoded body is built lazily, on the first missing-slot request.
+     */
+    private final class Relay {
+        private final byte[] full;
+        private final java.util.concurrent.atomic.AtomicInteger refs;
+        private List<Transaction> transactions;
+
+        Relay(byte[] full, int refs) {
+            this.full = full;
+            this.refs = new java.util.concurrent.atomic.AtomicInteger(refs);
+        }
+
+        synchronized List<Transaction> transactions() {
+            if (transactions == null) {
+                transactions = BlockCodec.decode(full).transactions();
+            }
+            return transactions;
+        }
+
+        void release() {
+            if (refs.decrementAndGet() == 0) {
+                queuedBytes.addAndGet(-full.length);
+            }
+        }
+    }
+
     /**
      * One queued peer send, charged against {@link #queuedBytes} for as long as it is queued
      * or running. The charge is released exactly once: in the task's {@code finally} when it
@@ -173,19 +294,29 @@ public final class PeerBroadcaster implements AutoCloseable {
         private final String path;
         private final byte[] body;
         private final long size;
+        private final Relay relay;
         private final AtomicBoolean released = new AtomicBoolean();
 
         QueuedSend(String peer, String path, byte[] body, long size) {
+            this(peer, path, body, size, null);
+        }
+
+        QueuedSend(String peer, String path, byte[] body, long size, Relay relay) {
             this.peer = peer;
             this.path = path;
             this.body = body;
             this.size = size;
+            this.relay = relay;
         }
 
         @Override
         public void run() {
             try {
-                sendQuietly(peer, path, body);
+                if ("/compact_block".equals(path)) {
+                    sendCompact(peer, body, relay);
+                } else {
+                    sendQuietly(peer, path, body);
+                }
             } finally {
                 release();
             }
@@ -194,6 +325,9 @@ public final class PeerBroadcaster implements AutoCloseable {
         void release() {
             if (released.compareAndSet(false, true)) {
                 queuedBytes.addAndGet(-size);
+                if (relay != null) {
+                    relay.release();
+                }
             }
         }
     }
@@ -209,17 +343,74 @@ public final class PeerBroadcaster implements AutoCloseable {
     }
 
     private void sendQuietly(String peer, String path, byte[] body) {
-        // Pin the peer to a freshly-resolved, validated IP before every send, exactly as the
-        // sync/PEX paths do (PeerHosts.pin). Without this, gossip re-resolved the hostname at
-        // send time, so a peer admitted with a public IP could flip DNS to 127.0.0.1 /
-        // 169.254.169.254 / an RFC1918 host and receive our POSTs — a blind SSRF (audit M1).
-        String url;
+        exchange(peer, path, body, MAX_REPLY_BYTES);
+    }
+
+    /**
+     * The compact leg of a block push. The peer answers with the submit status when it rebuilt the
+     * block, or names the body slots it lacks; those are posted to {@code /compact_block/txs}. A 404
+     * on either leg — a peer without compact relay, or one whose partial rebuild expired — falls
+     * back to the full {@code /submit}. Without a {@link Relay} (budget) there is no follow-up.
+     */
+    private void sendCompact(String peer, byte[] compact, Relay relay) {
+        Reply reply = exchange(peer, "/compact_block", compact, MAX_COMPACT_REPLY_BYTES);
+        if (reply == null || relay == null) {
+            return;
+        }
+        if (reply.status() == 404) {
+            sendQuietly(peer, "/submit", relay.full);
+            return;
+        }
+        if (reply.status() != 200) {
+            return;
+        }
+        byte[] fill;
+        try {
+            org.json.JSONObject json = new org.json.JSONObject(new String(reply.body(), java.nio.charset.StandardCharsets.UTF_8));
+            if (!"MISSING_TRANSACTIONS".equals(json.optString("status"))) {
+                return; // rebuilt and submitted
+            }
+            org.json.JSONArray missing = json.getJSONArray("missing");
+            List<Transaction> txs = relay.transactions();
+            List<CompactBlock.IndexedTransaction> wanted = new java.util.ArrayList<>(missing.length());
+            for (int i = 0; i < missing.length(); i++) {
+                int index = missing.getInt(i);
+                wanted.add(new CompactBlock.IndexedTransaction(index, txs.get(index)));
+            }
+            fill = CompactBlock.encodeFill(rhizome.crypto.SHA256Hash.of(json.getString("hash")), wanted);
+        } catch (RuntimeException e) {
+            log.debug("compact relay to {}: unusable reply: {}", peer, e.toString());
+            return;
+        }
+        Reply completed = exchange(peer, "/compact_block/txs", fill, MAX_REPLY_BYTES);
+        if (completed != null && completed.status() == 404) {
+            sendQuietly(peer, "/submit", relay.full);
+        }
+    }
+
+    /** A peer's reply: HTTP status and the (bounded) body. */
+    record Reply(int status, byte[] body) { }
+
+    /** POSTs {@code body} to {@code peer + path}; the reply, or null if the exchange failed. */
+    private Reply exchange(String peer, String path, byte[] body, long maxReplyBytes) {
+        // Send to the peer's channel pin: a validated IP literal, resolved when the channel
+        // opened, exactly as the sync/PEX paths use. Without a pin, gossip re-resolved the
+        // hostname at send time, so a peer admitted with a public IP could flip DNS to
+        // 127.0.0.1 / 169.254.169.254 / an RFC1918 host and receive our POSTs — a blind SSRF
+        // (audit M1). The pin is re-validated when the channel ages out or fails (PeerChannels).
+        PeerChannels.Channel channel;
         try {
-            url = PeerHosts.pin(peer, blockPrivateHosts) + path;
+            channel = channels.channel(peer);
         } catch (SecurityException e) {
             log.debug("broadcast to {} refused (non-routable / rebind): {}", peer, e.toString());
-            return;
+            return null;
+        }
+        if (!channel.tryOpen()) {
+            log.debug("broadcast to {} dropped: {} exchanges already in flight", peer,
+                PeerChannels.MAX_STREAMS_PER_PEER);
+            return null;
         }
+        String url = channel.base() + path;
         HttpRequest request = PeerAuth.withToken(HttpRequest.newBuilder(URI.create(url)),
                 tokenPolicy.tokenFor(peer))
             .timeout(SEND_DEADLINE)
@@ -231,33 +422,45 @@ public final class PeerBroadcaster implements AutoCloseable {
             // reply body is still read AFTER the request timeout stops applying, so a slow-drip
             // peer could hold a broadcast pool thread indefinitely.
             AtomicReference<AutoCloseable> openBody = new AtomicReference<>();
-            BodyReadDeadline.call(SEND_DEADLINE, openBody, () -> {
-                HttpResponse<InputStream> response = http.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            return BodyReadDeadline.call(SEND_DEADLINE, openBody, () -> {
+                HttpResponse<InputStream> response = channels.http().send(request, HttpResponse.BodyHandlers.ofInputStream());
                 InputStream in = response.body();
                 openBody.set(in); // publish so a deadline expiry can cancel the JDK exchange
                 try (in) {
-                    readBounded(in, MAX_REPLY_BYTES);
+                    return new Reply(response.statusCode(), readBounded(in, maxReplyBytes));
                 }
-                return null;
             });
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
+        } catch (BodyReadSaturatedException e) {
+            log.debug("broadcast to {} skipped: local body-read pool saturated", peer); // not the peer's fault
         } catch (Exception e) {
+            channels.invalidate(peer); // re-pin (and reconnect) on the next send
             log.debug("broadcast to {} failed: {}", url, e.toString());
+        } finally {
+            channel.close();
         }
+        return null;
     }
 
     /** Reads the stream, aborting if it would exceed {@code maxBytes} (never buffers past the cap). */
-    private static void readBounded(InputStream in, long maxBytes) throws IOException {
+    private static byte[] readBounded(InputStream in, long maxBytes) throws IOException {
         // One byte over the cap is fetched to distinguish "exactly at cap" from "over".
         byte[] data = in.readNBytes(Math.toIntExact(Math.min(maxBytes + 1, Integer.MAX_VALUE)));
         if (data.length > maxBytes) {
             throw new IOException("broadcast reply exceeds " + maxBytes + " bytes");
         }
+        return data;
+    }
+
+    /** The shared per-peer links' counters (open channels, pins, per-peer streams). */
+    public PeerChannels.Stats channelStats() {
+        return channels.stats();
     }
 
     @Override
     public void close() {
+        txRelay.close();
         pool.shutdownNow();
     }
 }
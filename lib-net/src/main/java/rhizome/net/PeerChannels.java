@@ -0,0 +1,182 @@
+package rhizome.net;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * The node's long-lived outbound links: ONE transport shared by gossip, sync and PEX, and one
+ * {@link Channel} per peer holding its SSRF pin and its in-flight stream budget.
+ *
+ * <p>Each of {@link PeerBroadcaster}, {@link PeerDiscovery} and the sync loop's
+ * {@link HttpPeerSource}s used to own a JDK {@code HttpClient} — three selector threads and three
+ * connection pools, so a peer that was gossiped to, synced from and PEX'd held up to three idle
+ * sockets and every subsystem paid its own connect. They now share this one client, so all
+ * traffic to a peer rides the same keep-alive connections (HTTP/1.1 reuse against the node's
+ * ActiveJ API; HTTP/2 streams, negotiated by ALPN, where an {@code https} peer sits behind an
+ * HTTP/2 front).
+ *
+ * <p><b>Pinning once per channel.</b> Every send used to re-run {@link PeerHosts#pin} (parse,
+ * cached resolve, all-addresses routability check, URL rewrite). A channel pins when it opens and
+ * keeps the validated IP-literal URL for {@link #MAX_CHANNEL_AGE_MS}; a transport failure
+ * ({@link #invalidate}) retires it early, so the next send re-resolves. The anti-rebinding property
+ * is unchanged — every connection still dials a validated literal — and a DNS change is picked
+ * up within one channel lifetime, never mid-exchange.
+ *
+ * <p><b>Flow control.</b> A channel admits at most {@link #MAX_STREAMS_PER_PEER} concurrent
+ * best-effort exchanges ({@link Channel#tryOpen}); past that the caller drops its send rather than
+ * queueing another socket behind a slow peer. Sync, which is serial per peer, does not draw on it.
+ */
+public final class PeerChannels {
+
+    /** How long a pin is trusted before the channel re-resolves and re-validates its peer. */
+    static final long MAX_CHANNEL_AGE_MS = 60_000;
+    /** Concurrent best-effort exchanges one peer may hold (gossip blocks + tx relay + PEX). */
+    static final int MAX_STREAMS_PER_PEER = 6;
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(3);
+
+    /** Counters for one peer's channel (observability; {@code /gossip}). */
+    public record ChannelStats(String peer, int inFlight, long exchanges, long refused) { }
+
+    /** Totals plus per-channel rows. {@code pins} counts (re-)pins since start. */
+    public record Stats(int open, long pins, long invalidations, List<ChannelStats> channels) { }
+
+    private final boolean blockPrivateHosts;
+    private final HttpClient http;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, Channel> channels = new ConcurrentHashMap<>();
+    private final LongAdder pins = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    /** Link quality per peer, measured by the sync exchanges over these channels. */
+    private final PeerQuality quality = new PeerQuality();
+
+    public PeerChannels(boolean blockPrivateHosts) {
+        this(blockPrivateHosts, HttpClient.newBuilder().connectTimeout(CONNECT_TIMEOUT).build(),
+            System::currentTimeMillis);
+    }
+
+    /** As above, with an explicit transport and clock (package-private for tests). */
+    PeerChannels(boolean blockPrivateHosts, HttpClient http, LongSupplier clock) {
+        this.blockPrivateHosts = blockPrivateHosts;
+        this.http = http;
+        this.clock = clock;
+    }
+
+    /** The shared transport every peer exchange goes through. */
+    public HttpClient http() {
+        return http;
+    }
+
+    /**
+     * The open channel to {@code peer}, pinning a new one if none is open or the current pin has
+     * aged out.
+     *
+     * @throws SecurityException when the peer's host is non-routable (or unresolvable) under
+     *         {@code blockPrivateHosts}, exactly as {@link PeerHosts#pin} refuses it
+     */
+    public Channel channel(String peer) {
+        long now = clock.getAsLong();
+        Channel current = channels.get(peer);
+        if (current != null && !current.stale.get() && now - current.pinnedAt < MAX_CHANNEL_AGE_MS) {
+            return current;
+        }
+        // Pinned outside compute(): resolution may block, and must not hold the map's bin lock.
+        Channel fresh = new Channel(peer, PeerHosts.pin(peer, blockPrivateHosts), now, current);
+        pins.increment();
+        Channel won = channels.compute(peer, (k, existing) ->
+            existing == null || existing == current ? fresh : existing);
+        return won;
+    }
+
+    /** The per-peer link-quality tracker the sync layer ranks, sizes and hedges by. */
+    public PeerQuality quality() {
+        return quality;
+    }
+
+    /** Shorthand for {@code channel(peer).base()}: the peer's pinned base URL. */
+    public String pinned(String peer) {
+        return channel(peer).base();
+    }
+
+    /**
+     * A transport-level failure on {@code peer}: retire its pin so the next send re-pins. The
+     * channel stays mapped until then, so the re-pinned one inherits its stream budget — dropping
+     * it would hand a failing peer a fresh {@link #MAX_STREAMS_PER_PEER} on every failure.
+     */
+    public void invalidate(String peer) {
+        Channel current = channels.get(peer);
+        if (current != null && current.stale.compareAndSet(false, true)) {
+            invalidations.increment();
+        }
+    }
+
+    /** Drops channels (and quality figures) of peers no longer in {@code live} (once per PEX round). */
+    public void retainAll(Collection<String> live) {
+        channels.keySet().retainAll(new HashSet<>(live));
+        quality.retainAll(live);
+    }
+
+    public Stats stats() {
+        List<ChannelStats> rows = new ArrayList<>(channels.size());
+        int open = 0;
+        for (Channel c : channels.values()) {
+            rows.add(new ChannelStats(c.peer, MAX_STREAMS_PER_PEER - c.streams.availablePermits(),
+                c.exchanges.sum(), c.refused.sum()));
+            open += c.stale.get() ? 0 : 1;
+        }
+        return new Stats(open, pins.sum(), invalidations.sum(), rows);
+    }
+
+    /**
+     * One peer's link: the pinned base URL plus its stream budget and counters. A re-pinned
+     * channel inherits its predecessor's budget, so exchanges in flight across a re-pin — aged
+     * out or invalidated — are still counted against the peer.
+     */
+    public static final class Channel {
+        final String peer;
+        private final String base;
+        final long pinnedAt;
+        final Semaphore streams;
+        final LongAdder exchanges;
+        final LongAdder refused;
+        /** Set by {@link PeerChannels#invalidate}: the pin is no longer trusted. */
+        final AtomicBoolean stale = new AtomicBoolean();
+
+        private Channel(String peer, String base, long pinnedAt, Channel previous) {
+            this.peer = peer;
+            this.base = base;
+            this.pinnedAt = pinnedAt;
+            this.streams = previous != null ? previous.streams : new Semaphore(MAX_STREAMS_PER_PEER);
+            this.exchanges = previous != null ? previous.exchanges : new LongAdder();
+            this.refused = previous != null ? previous.refused : new LongAdder();
+        }
+
+        /** The validated base URL (IP literal for {@code http}, original host for {@code https}). */
+        public String base() {
+            return base;
+        }
+
+        /** Claims one stream; false when the peer already has {@link #MAX_STREAMS_PER_PEER} open. */
+        public boolean tryOpen() {
+            if (streams.tryAcquire()) {
+                exchanges.increment();
+                return true;
+            }
+            refused.increment();
+            return false;
+        }
+
+        /** Returns a stream claimed by {@link #tryOpen}. */
+        public void close() {
+            streams.release();
+        }
+    }
+}
@@ -3,7 +3,6 @@ package rhizome.net;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
@@ -59,8 +58,8 @@ public final class PeerDiscovery {
 
     private final PeerRegistry registry;
     private final String selfUrl;
-    private final boolean blockPrivateHosts;
-    private final HttpClient http;
+    /** The node's shared per-peer links (transport + SSRF pin), the same ones gossip and sync use. */
+    private final PeerChannels channels;
     private final Duration fetchDeadline;
     /** Decides whether the RHIZOME_PEER_TOKEN secret may be presented to a given peer
      *  (configured + https only); never logged (audit: peer token exfiltration via gossip). */
@@ -86,6 +85,12 @@ public final class PeerDiscovery {
         this(registry, selfUrl, blockPrivateHosts, FETCH_DEADLINE, tokenPolicy);
     }
 
+    /** As above, over the node's shared {@link PeerChannels}. */
+    public PeerDiscovery(PeerRegistry registry, String selfUrl, PeerChannels channels,
+                         PeerTokenPolicy tokenPolicy) {
+        this(registry, selfUrl, channels, FETCH_DEADLINE, tokenPolicy);
+    }
+
     /** As above, with an explicit per-exchange deadline (package-private for tests). */
     PeerDiscovery(PeerRegistry registry, String selfUrl, boolean blockPrivateHosts, Duration fetchDeadline) {
         this(registry, selfUrl, blockPrivateHosts, fetchDeadline, PeerTokenPolicy.none());
@@ -94,12 +99,16 @@ public final class PeerDiscovery {
     /** As above, with an explicit per-exchange deadline and a token policy. */
     PeerDiscovery(PeerRegistry registry, String selfUrl, boolean blockPrivateHosts, Duration fetchDeadline,
                   PeerTokenPolicy tokenPolicy) {
+        this(registry, selfUrl, new PeerChannels(blockPrivateHosts), fetchDeadline, tokenPolicy);
+    }
+
+    private PeerDiscovery(PeerRegistry registry, String selfUrl, PeerChannels channels, Duration fetchDeadline,
+                          PeerTokenPolicy tokenPolicy) {
         this.registry = registry;
         this.selfUrl = selfUrl;
-        this.blockPrivateHosts = blockPrivateHosts;
+        this.channels = channels;
         this.fetchDeadline = fetchDeadline;
         this.tokenPolicy = tokenPolicy;
-        this.http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(3)).build();
         // Bounded queue + discard-oldest (the PeerBroadcaster pattern): a fixed pool's default
         // unbounded LinkedBlockingQueue would let one round's tasks accumulate without limit if
         // the workers stall (audit F2). Dropped tasks' futures never complete, so invokeAll
@@ -124,6 +133,7 @@ public final class PeerDiscovery {
         // Drop failure bookkeeping for peers no longer in the registry, so the map cannot leak
         // stale entries across rounds (audit F8).
         failures.keySet().retainAll(new HashSet<>(peers));
+        channels.retainAll(peers); // likewise the shared links: a departed peer's pin is dropped
         int n = peers.size();
         if (n == 0) {
             return;
@@ -147,9 +157,9 @@ public final class PeerDiscovery {
     /** PEX fetch + self-announce against one peer, with failure bookkeeping. */
     private void contactPeer(String peer) {
         try {
-            // Pin once and reuse for both the /peers fetch and the /add_peer announce, instead of
-            // resolving the host twice per peer per round.
-            String pinned = PeerHosts.pin(peer, blockPrivateHosts);
+            // The channel's pin serves both the /peers fetch and the /add_peer announce (and the
+            // gossip and sync traffic to this peer), instead of resolving the host per exchange.
+            String pinned = channels.pinned(peer);
             registry.addAll(fetchPeersPinned(pinned, peer));
             announceToPinned(pinned, peer);
             failures.remove(peer);
@@ -163,6 +173,7 @@ public final class PeerDiscovery {
             // backpressure: the peer is retried on a later round.
             log.debug("PEX with {} skipped: local body-read pool saturated", peer);
         } catch (Exception e) {
+            channels.invalidate(peer);
             int f = failures.merge(peer, 1, Integer::sum);
             if (f >= MAX_FAILURES) {
                 failures.remove(peer);
@@ -189,7 +200,7 @@ public final class PeerDiscovery {
     List<String> fetchPeers(String peer) throws Exception {
         // Pin the peer to its resolved IP (and refuse non-routable hosts on mainnet) so a DNS
         // rebind cannot point this fetch at an internal service (SSRF).
-        return fetchPeersPinned(PeerHosts.pin(peer, blockPrivateHosts), peer);
+        return fetchPeersPinned(channels.pinned(peer), peer);
     }
 
     private List<String> fetchPeersPinned(String pinned, String originalPeer) throws Exception {
@@ -201,7 +212,7 @@ public final class PeerDiscovery {
         // could otherwise park a pool thread in InputStream.read until the round budget cut it.
         AtomicReference<AutoCloseable> openBody = new AtomicReference<>();
         String body = BodyReadDeadline.call(fetchDeadline, openBody, () -> {
-            HttpResponse<InputStream> resp = http.send(
+            HttpResponse<InputStream> resp = channels.http().send(
                 PeerAuth.withToken(HttpRequest.newBuilder(URI.create(pinned + "/peers")),
                         tokenPolicy.tokenFor(originalPeer))
                     .timeout(fetchDeadline).GET().build(),
@@ -246,7 +257,7 @@ public final class PeerDiscovery {
         // reply is a tiny JSON status, so anything large is a hostile drip, not a peer to keep.
         AtomicReference<AutoCloseable> openBody = new AtomicReference<>();
         BodyReadDeadline.call(fetchDeadline, openBody, () -> {
-            HttpResponse<InputStream> resp = http.send(
+            HttpResponse<InputStream> resp = channels.http().send(
                 PeerAuth.withToken(HttpRequest.newBuilder(URI.create(pinned + "/add_peer")),
                         tokenPolicy.tokenFor(originalPeer))
                     .timeout(fetchDeadline)
@@ -0,0 +1,216 @@
+package rhizome.net;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import rhizome.core.common.Constants;
+
+/**
+ * Per-peer link quality, measured from the sync exchanges themselves ({@link HttpPeerSource}):
+ * EWMA round-trip time (request sent → response headers), EWMA throughput over body reads large
+ * enough to measure, EWMA error rate, and the recent {@code /sync} window latencies.
+ *
+ * <p>Three decisions read it:
+ * <ul>
+ *   <li><b>peer choice</b> — {@link #best} picks the peer expected to deliver a reference window
+ *       soonest; a peer never measured ranks first, so a new peer gets one chance to show what it
+ *       can do;</li>
+ *   <li><b>window size</b> — {@link #blocksPerFetch} shrinks the {@code /sync} window for a slow
+ *       link so one window takes about {@link #WINDOW_TARGET_MS}; the server cap
+ *       ({@code BLOCKS_PER_FETCH}) is the ceiling;</li>
+ *   <li><b>hedging</b> — {@link #hedgeAfterMillis} is the peer's p90 window latency: a window
+ *       still outstanding past it is also requested from a second peer.</li>
+ * </ul>
+ *
+ * <p>Advisory only: nothing here feeds ban score or eviction, which stay on protocol evidence
+ * ({@code PeerRegistry.penalize}). A lying peer can make itself look fast, not trusted — bodies
+ * are still checked against PoW-validated headers whoever serves them.
+ */
+public final class PeerQuality {
+
+    /** Weight of the newest sample in every EWMA. */
+    static final double ALPHA = 0.2;
+    /** Body reads smaller than this say more about RTT than bandwidth; they do not move throughput. */
+    static final long MIN_THROUGHPUT_BYTES = 16 * 1024;
+    /** What a well-sized {@code /sync} window should take on this peer's measured link. */
+    static final long WINDOW_TARGET_MS = 5_000;
+    /** Recent window latencies kept per peer for the hedge percentile. */
+    static final int LATENCY_SAMPLES = 64;
+    /** Windows measured before a hedge delay is trusted. */
+    static final int MIN_HEDGE_SAMPLES = 8;
+    /** No hedge fires sooner than this, however fast the peer usually is. */
+    static final long MIN_HEDGE_MS = 250;
+    /** Reference window size (bytes) the ranking score prices a peer at. */
+    private static final double REFERENCE_BYTES = 4.0 * 1024 * 1024;
+    /** Throughput assumed for a peer that has answered but never sent a measurable body. */
+    private static final double ASSUMED_THROUGHPUT = 1024 * 1024;
+    /** Bound on tracked peers: the registry holds 128, configured seeds come on top. */
+    private static final int MAX_TRACKED = 1024;
+
+    /** A peer's current figures ({@code /peers?quality=1}). {@code -1} means "not yet measured". */
+    public record Snapshot(String peer, double rttMs, double throughputBytesPerSec, double errorRate,
+                           long exchanges, long failures, int blocksPerFetch, long hedgeAfterMs) { }
+
+    private final Map<String, Link> links = new ConcurrentHashMap<>();
+
+    /** One exchange answered: {@code rttNanos} to the response headers, {@code bytes} of body in
+     *  {@code bodyNanos}. */
+    public void success(String peer, long rttNanos, long bytes, long bodyNanos) {
+        Link link = link(peer);
+        if (link != null) {
+            link.success(rttNanos, bytes, bodyNanos);
+        }
+    }
+
+    /** One {@code /sync} window delivered: feeds the hedge percentile and the bytes-per-block mean. */
+    public void window(String peer, int blocks, long bytes, long totalNanos) {
+        Link link = link(peer);
+        if (link != null && blocks > 0) {
+            link.window(blocks, bytes, totalNanos);
+        }
+    }
+
+    /** One exchange failed at the transport (timeout, reset, non-200). */
+    public void failure(String peer) {
+        Link link = link(peer);
+        if (link != null) {
+            link.failure();
+        }
+    }
+
+    /** The {@code /sync} window size for {@code peer}: {@code max} until its link is measured. */
+    public int blocksPerFetch(String peer, int max) {
+        Link link = links.get(peer);
+        return link == null ? max : link.blocksPerFetch(max);
+    }
+
+    /** The peer's p90 window latency (floored at {@link #MIN_HEDGE_MS}), or {@code -1} until
+     *  {@link #MIN_HEDGE_SAMPLES} windows are measured. */
+    public long hedgeAfterMillis(String peer) {
+        Link link = links.get(peer);
+        return link == null ? -1 : link.hedgeAfterMillis();
+    }
+
+    /** The peer expected to deliver a reference window soonest; {@code null} if {@code peers} is empty.
+     *  Unmeasured peers win ties-to-zero, so each is tried once. */
+    public String best(Collection<String> peers) {
+        String best = null;
+        double bestScore = Double.MAX_VALUE;
+        for (String peer : peers) {
+            Link link = links.get(peer);
+            double score = link == null ? 0 : link.score();
+            if (best == null || score < bestScore) {
+                best = peer;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    public Snapshot snapshot(String peer) {
+        Link link = links.get(peer);
+        if (link == null) {
+            return new Snapshot(peer, -1, -1, -1, 0, 0, Constants.BLOCKS_PER_FETCH, -1);
+        }
+        return link.snapshot(peer);
+    }
+
+    /** Snapshots for {@code peers}, in order (unmeasured peers included, as {@code -1}s). */
+    public List<Snapshot> snapshots(Collection<String> peers) {
+        List<Snapshot> out = new ArrayList<>(peers.size());
+        for (String peer : peers) {
+            out.add(snapshot(peer));
+        }
+        return out;
+    }
+
+    /** Forgets peers no longer in {@code live}. */
+    public void retainAll(Collection<String> live) {
+        links.keySet().retainAll(new HashSet<>(live));
+    }
+
+    private Link link(String peer) {
+        Link link = links.get(peer);
+        if (link != null || links.size() >= MAX_TRACKED) {
+            return link; // at the bound an untracked peer simply stays unmeasured (ranked neutral)
+        }
+        return links.computeIfAbsent(peer, k -> new Link());
+    }
+
+    /** One peer's figures. Guarded by its own monitor: the sync thread and its fetch helpers write. */
+    private static final class Link {
+        private double rttMs = -1;
+        private double throughput = -1;
+        private double errorRate;
+        private double bytesPerBlock = -1;
+        private long exchanges;
+        private long failures;
+        private final long[] latencies = new long[LATENCY_SAMPLES];
+        private int latencyCount;
+        private int latencyNext;
+
+        synchronized void success(long rttNanos, long bytes, long bodyNanos) {
+            exchanges++;
+            rttMs = ewma(rttMs, rttNanos / 1e6);
+            if (bytes >= MIN_THROUGHPUT_BYTES && bodyNanos > 0) {
+                throughput = ewma(throughput, bytes / (bodyNanos / 1e9));
+            }
+            errorRate = (1 - ALPHA) * errorRate;
+        }
+
+        synchronized void failure() {
+            exchanges++;
+            failures++;
+            errorRate = (1 - ALPHA) * errorRate + ALPHA;
+        }
+
+        synchronized void window(int blocks, long bytes, long totalNanos) {
+            bytesPerBlock = ewma(bytesPerBlock, (double) bytes / blocks);
+            latencies[latencyNext] = totalNanos / 1_000_000;
+            latencyNext = (latencyNext + 1) % LATENCY_SAMPLES;
+            latencyCount = Math.min(latencyCount + 1, LATENCY_SAMPLES);
+        }
+
+        synchronized int blocksPerFetch(int max) {
+            if (throughput <= 0 || bytesPerBlock <= 0) {
+                return max;
+            }
+            double fits = throughput * (WINDOW_TARGET_MS / 1000.0) / bytesPerBlock;
+            return (int) Math.max(Math.max(1, max / 8), Math.min(max, fits));
+        }
+
+        synchronized long hedgeAfterMillis() {
+            if (latencyCount < MIN_HEDGE_SAMPLES) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(sorted);
+            long p90 = sorted[Math.min(latencyCount - 1, (int) Math.ceil(latencyCount * 0.9) - 1)];
+            return Math.max(MIN_HEDGE_MS, p90);
+        }
+
+        /** Expected seconds to fetch a reference window, inflated by the chance it fails. A peer
+         *  that has only ever failed ranks last. */
+        synchronized double score() {
+            if (rttMs < 0) {
+                return exchanges == 0 ? 0 : Double.MAX_VALUE;
+            }
+            double transfer = REFERENCE_BYTES / (throughput > 0 ? throughput : ASSUMED_THROUGHPUT);
+            return (rttMs / 1000.0 + transfer) / Math.max(0.05, 1 - errorRate);
+        }
+
+        synchronized Snapshot snapshot(String peer) {
+            return new Snapshot(peer, rttMs, throughput, errorRate, exchanges, failures,
+                blocksPerFetch(Constants.BLOCKS_PER_FETCH), hedgeAfterMillis());
+        }
+
+        private static double ewma(double current, double sample) {
+            return current < 0 ? sample : (1 - ALPHA) * current + ALPHA * sample;
+        }
+    }
+}
@@ -80,6 +80,8 @@ public final class PeerRegistry {
             }
         });
     private final Object lock = new Object();
+    /** Bumped (under {@link #lock}) on every change to the peer table; see {@link #version}. */
+    private volatile long version;
 
     public PeerRegistry(String selfUrl, int maxPeers) {
         this(selfUrl, maxPeers, null, false);
@@ -129,6 +131,7 @@ public final class PeerRegistry {
             synchronized (lock) {
                 if (peers.putIfAbsent(u, SEED_ENTRY) == null) {
                     seeds.add(u);
+                    version++;
                 }
             }
         }
@@ -185,6 +188,7 @@ public final class PeerRegistry {
             }
             if (peers.putIfAbsent(u, new Entry(bucket, routable)) == null) {
                 subnetCounts.merge(bucket, 1, Integer::sum);
+                version++;
                 return true;
             }
             return false;
@@ -252,6 +256,7 @@ public final class PeerRegistry {
             if (entry == null) {
                 return;
             }
+            version++;
             if (!seeds.remove(u)) {
                 // Decrement the bucket recorded at ADMISSION — never re-resolve DNS at removal,
                 // so a DNS flip between add and remove cannot corrupt the accounting (audit F5).
@@ -299,6 +304,15 @@ public final class PeerRegistry {
         return peers.size();
     }
 
+    /**
+     * A counter that moves whenever a peer is added or removed, so a caller can keep what it
+     * derives from {@link #snapshot} or {@link #publicSnapshot} (a serialised {@code /peers}
+     * body) until the table actually changes.
+     */
+    public long version() {
+        return version;
+    }
+
     public String self() {
         return self;
     }
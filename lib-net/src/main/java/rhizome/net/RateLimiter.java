@@ -1,64 +1,96 @@
 package rhizome.net;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.LongSupplier;
 
 /**
- * Per-client SLIDING-window rate limiter with a hard cap on the number of tracked
- * clients — so it cannot leak memory under a spray of distinct source IPs
- * (Pandanite issue #52, where the limiter accumulated IPs without eviction).
+ * Per-client, cost-weighted rate limiter (GCRA — the generic cell rate algorithm, i.e. a token
+ * bucket kept as one timestamp) over a fixed-size table, so it cannot leak memory under a spray of
+ * distinct source IPs (Pandanite issue #52, where the limiter accumulated IPs without eviction).
  *
- * <p>The window glides rather than resetting: each client keeps the current and the
- * previous window's counters, and the admitted rate is the weighted sum
- * {@code prev * (1 - elapsed/window) + curr}. A fixed window lets a client fire a full
- * budget at the end of one window and another full budget at the start of the next — a
- * 2× burst the limit was meant to preclude (audit: fixed-window boundary burst); the
- * weighted sum keeps the long-run rate at the configured budget from any phase.
+ * <p><b>Algorithm.</b> A client's whole state is its theoretical arrival time {@code tat}: the
+ * instant its bucket would be full again. One unit of budget costs the emission interval
+ * {@code T = window / maxRequestsPerWindow}; a request of cost {@code c} is admitted iff
+ * {@code max(tat, now) + c·T − now ≤ window}, and then stores that sum. A client therefore gets a
+ * burst of at most {@code maxRequestsPerWindow} at once and the configured long-run rate after
+ * it — from any phase, with no window boundary to straddle (the 2× boundary burst of a fixed
+ * window, audit). A denied request stores nothing, so a refused client is not pushed further
+ * into debt and an honest borderline client recovers at the configured rate.
  *
- * <p>When at capacity, entries whose windows have fully expired are swept; if none
- * can be reclaimed, a new client is metered against a shared overflow bucket
- * (fail-closed on tracking, never unbounded growth).
+ * <p><b>Table.</b> Open addressing over one {@link AtomicLongArray} of {@code (key, tat)} pairs,
+ * {@link #capacity} slots (twice {@code maxClients}, rounded up to a power of two), probed
+ * linearly for {@link #MAX_PROBE} slots. The key is a 64-bit hash of the client string under a
+ * per-process random seed, so a peer cannot aim its source address at another client's slot.
+ * Every update is a CAS on the slot's {@code tat}; there is no lock, no per-client object and no
+ * sweep. A slot whose {@code tat} has passed holds a full bucket — exactly the state of a client
+ * never seen — so a newcomer may take it over by CAS-ing the key: expiry is reclaimed lazily, on
+ * the probe path, instead of by a periodic O(clients) pass. Two races are tolerated because both
+ * are bounded to one request or one burst: a takeover racing the old owner's own update can charge
+ * that request to the wrong side, and two first requests of one client racing can claim two slots
+ * (the later lookups settle on the first; the other simply expires).
+ *
+ * <p>When every probed slot belongs to a live client, the newcomer is metered against one shared
+ * overflow bucket (fail-closed on tracking, never unbounded growth, and never fail-open under an
+ * IP spray — audit M1). {@code allow} allocates nothing: the hash walks the string's chars in
+ * place.
  */
 public final class RateLimiter {
 
+    /** Slots probed per lookup before falling back to the overflow bucket. */
+    static final int MAX_PROBE = 8;
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
     private final int maxRequestsPerWindow;
-    private final long windowMs;
-    private final int maxClients;
-    private final LongSupplier nowMillis;
-    private final Map<String, Window> clients = new ConcurrentHashMap<>();
-    /**
-     * Shared fallback bucket used when the per-client table is full and nothing can be
-     * reclaimed. Instead of failing open (letting an IP-spray disable rate limiting for
-     * everyone — audit M1), all otherwise-untracked clients are metered together against a
-     * single conservative bucket, so total overflow traffic stays bounded.
-     */
-    private final Window overflow = new Window(0);
+    private final long emissionNanos;
+    private final long toleranceNanos;
+    private final int mask;
+    private final LongSupplier clock;
+    private final long nanosPerTick;
+    private final long seed = java.util.concurrent.ThreadLocalRandom.current().nextLong() | 1;
+    /** {@code [key0, tat0, key1, tat1, …, overflowTat]}; key 0 marks a never-used slot. */
+    private final AtomicLongArray table;
     /**
-     * Amortized-sweep watermark (epoch millis of the last full sweep). Volatile: the due
-     * check runs OUTSIDE the monitor, so the common path never enters {@code synchronized}
-     * just to sweep — under an IP-spray every request is a table miss, and running the
-     * O(maxClients) sweep inside the check-and-insert monitor made every sprayed request
-     * pay it on the event loop (audit: sweep under the global monitor).
+     * The shared fallback bucket for clients that find no slot, kept as the table's last element.
+     * Instead of failing open (letting an IP-spray disable rate limiting for everyone — audit M1),
+     * all otherwise-untracked clients are metered together against one conservative bucket, so
+     * total overflow traffic stays bounded.
      */
-    private volatile long lastSweepAt = Long.MIN_VALUE;
-
-    private static final class Window {
-        volatile long start;
-        int prev; // previous window's total (sliding-weighted into the current estimate)
-        int curr; // current window's total
-        Window(long start) { this.start = start; }
-    }
+    private final int overflowIndex;
 
     public RateLimiter(int maxRequestsPerWindow, long windowMs, int maxClients) {
-        this(maxRequestsPerWindow, windowMs, maxClients, System::currentTimeMillis);
+        this(maxRequestsPerWindow, windowMs, maxClients, monotonicNanos(), 1);
     }
 
+    /** Test seam: {@code nowMillis} is a non-negative millisecond clock. */
     RateLimiter(int maxRequestsPerWindow, long windowMs, int maxClients, LongSupplier nowMillis) {
+        this(maxRequestsPerWindow, windowMs, maxClients, nowMillis, NANOS_PER_MILLI);
+    }
+
+    private RateLimiter(int maxRequestsPerWindow, long windowMs, int maxClients, LongSupplier clock,
+                        long nanosPerTick) {
+        if (maxRequestsPerWindow <= 0 || windowMs <= 0 || maxClients <= 0) {
+            throw new IllegalArgumentException("rate limits must be positive");
+        }
         this.maxRequestsPerWindow = maxRequestsPerWindow;
-        this.windowMs = windowMs;
-        this.maxClients = maxClients;
-        this.nowMillis = nowMillis;
+        this.toleranceNanos = Math.multiplyExact(windowMs, NANOS_PER_MILLI);
+        this.emissionNanos = Math.max(1, toleranceNanos / maxRequestsPerWindow);
+        int slots = Integer.highestOneBit(Math.max(MAX_PROBE, Math.min(1 << 29, 2 * maxClients)) - 1) << 1;
+        this.mask = slots - 1;
+        this.table = new AtomicLongArray(2 * slots + 1);
+        this.overflowIndex = 2 * slots;
+        this.clock = clock;
+        this.nanosPerTick = nanosPerTick;
+    }
+
+    /** A nanosecond clock that starts above zero, so a zero {@code tat} always reads as "full". */
+    private static LongSupplier monotonicNanos() {
+        long origin = System.nanoTime() - 1;
+        return () -> System.nanoTime() - origin;
+    }
+
+    private long now() {
+        return clock.getAsLong() * nanosPerTick;
     }
 
     /** Records a request from {@code client}; returns false if it is over the limit. */
@@ -68,88 +100,117 @@ public final class RateLimiter {
 
     /**
      * Records a request from {@code client} that costs {@code cost} units of budget, returning
-     * false if it takes the client over the window limit. Weighting expensive endpoints (deep
-     * chain scans, VM dry-runs) by their true cost stops one client from driving orders of
-     * magnitude more work than a flat per-request budget would imply (audit M2).
+     * false if it takes the client over its rate. Weighting expensive endpoints (deep chain scans,
+     * VM dry-runs) by their true cost stops one client from driving orders of magnitude more work
+     * than a flat per-request budget would imply (audit M2). A cost above the whole window budget
+     * is never admitted.
      */
     public boolean allow(String client, int cost) {
-        long now = nowMillis.getAsLong();
-        maybeSweep(now);
-        Window window = clients.get(client);
-        if (window == null) {
-            // Check-and-insert under one monitor: a lock-free size() >= maxClients check racing
-            // computeIfAbsent let concurrent admissions push the table past its bound (audit).
-            // The monitor now covers ONLY the check+insert; expiry is reclaimed by the
-            // amortized sweep above, never inside this critical section.
-            synchronized (clients) {
-                window = clients.get(client);
-                if (window == null) {
-                    if (clients.size() >= maxClients) {
-                        // Fail closed: meter every untracked client against one shared bucket rather
-                        // than allowing them all unlimited (which an IP-spray could exploit to disable
-                        // rate limiting globally). Conservative but bounded; the next amortized
-                        // sweep reclaims any expired entries and tracking resumes.
-                        return count(overflow, now, cost);
-                    }
-                    window = clients.computeIfAbsent(client, k -> new Window(now));
-                }
+        if (cost > maxRequestsPerWindow) {
+            return false; // over a full bucket: never admissible (and c·T could overflow)
+        }
+        long now = now();
+        long charge = Math.max(1, cost) * emissionNanos;
+        long key = hash(client);
+        int home = (int) key & mask;
+        // Find the client's own slot first: claiming an expired slot earlier in the chain while
+        // a live one of ours sits further on would hand the client a fresh bucket.
+        for (int probe = 0; probe < MAX_PROBE; probe++) {
+            int slot = ((home + probe) & mask) << 1;
+            long k = table.get(slot);
+            if (k == key) {
+                return charge(slot + 1, now, charge);
+            }
+            if (k == 0) {
+                break; // keys are never cleared: the chain ends at the first never-used slot
+            }
+        }
+        for (int probe = 0; probe < MAX_PROBE; probe++) {
+            int slot = ((home + probe) & mask) << 1;
+            long k = table.get(slot);
+            // Never used, or its owner's bucket is full again (indistinguishable from a client never
+            // seen): claim it. A lost CAS means another client just took it — probe on, unless it
+            // was a concurrent request of this same client.
+            if ((k == 0 || table.get(slot + 1) <= now) && table.compareAndSet(slot, k, key)
+                    || table.get(slot) == key) {
+                return charge(slot + 1, now, charge);
             }
         }
-        return count(window, now, cost);
+        return charge(overflowIndex, now, charge);
     }
 
-    private boolean count(Window window, long now, int cost) {
-        synchronized (window) {
-            long elapsed = now - window.start;
-            if (elapsed >= windowMs) {
-                // Slide one window forward, ANCHORED to the boundary (not to now) so the decay
-                // phase stays stable across requests: the just-closed window becomes the
-                // decaying previous one; two or more elapsed windows means nothing counts.
-                if (elapsed >= 2 * windowMs) {
-                    window.prev = 0;
-                    window.start = now;
-                } else {
-                    window.prev = window.curr;
-                    window.start += windowMs;
-                }
-                window.curr = 0;
-                elapsed = now - window.start;
-            }
-            // Weighted sliding rate: the previous window's contribution decays linearly as
-            // the current window advances. Checked BEFORE charging: a denied request must not
-            // consume budget, or its charge would cascade into the next window's decaying
-            // previous count and lock an honest borderline client out permanently.
-            double estimate = window.prev * (1.0 - (double) elapsed / windowMs) + window.curr;
-            int c = Math.max(1, cost);
-            if (estimate + c > maxRequestsPerWindow) {
+    private boolean charge(int index, long now, long charge) {
+        while (true) {
+            long tat = table.get(index);
+            long next = Math.max(tat, now) + charge;
+            if (next - now > toleranceNanos) {
                 return false;
             }
-            window.curr += c;
-            return true;
+            if (table.compareAndSet(index, tat, next)) {
+                return true;
+            }
         }
     }
 
     /**
-     * Amortized expiry sweep: at most one full pass per window. The due check reads the
-     * volatile watermark outside the monitor; only a due sweep takes the lock (re-checked
-     * inside, so concurrent callers cannot stampede). Sweeping only REMOVES entries, so it
-     * can never race the check-and-insert bound — the monitor-protected size check in
-     * {@link #allow} is what keeps the table at {@code maxClients}.
+     * Returns {@code cost} units to {@code client}'s bucket, for an endpoint charged its ceiling
+     * at the gate that learns its true cost only once it has run. Never lifts the bucket past
+     * full. A client metered on the shared overflow bucket, or whose slot has since been taken
+     * over, gets nothing back: a refund must not credit someone else's budget.
      */
-    private void maybeSweep(long now) {
-        if (now < lastSweepAt + windowMs) {
+    public void refund(String client, int cost) {
+        if (cost <= 0) {
             return;
         }
-        synchronized (clients) {
-            if (now < lastSweepAt + windowMs) {
+        long credit = Math.min(cost, maxRequestsPerWindow) * emissionNanos;
+        long key = hash(client);
+        int home = (int) key & mask;
+        for (int probe = 0; probe < MAX_PROBE; probe++) {
+            int slot = ((home + probe) & mask) << 1;
+            long k = table.get(slot);
+            if (k == key) {
+                long now = now();
+                while (true) {
+                    long tat = table.get(slot + 1);
+                    if (tat <= now || table.compareAndSet(slot + 1, tat, Math.max(now, tat - credit))) {
+                        return;
+                    }
+                }
+            }
+            if (k == 0) {
                 return;
             }
-            lastSweepAt = now;
-            clients.values().removeIf(w -> now - w.start >= 2 * windowMs);
         }
     }
 
+    /** Seeded 64-bit hash of {@code client}'s chars (FNV-1a steps, murmur3 finaliser); never 0. */
+    private long hash(String client) {
+        long h = seed;
+        for (int i = 0; i < client.length(); i++) {
+            h = (h ^ client.charAt(i)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+
+    /** Slots in the client table (its memory is fixed at 16 bytes per slot). */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /** Clients currently holding budget debt — an O(capacity) scan, for tests and telemetry. */
     public int trackedClients() {
-        return clients.size();
+        long now = now();
+        int live = 0;
+        for (int slot = 0; slot <= mask; slot++) {
+            if (table.get(slot << 1) != 0 && table.get((slot << 1) + 1) > now) {
+                live++;
+            }
+        }
+        return live;
     }
 }
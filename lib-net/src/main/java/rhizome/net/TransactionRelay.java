@@ -0,0 +1,493 @@
+package rhizome.net;
+
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import rhizome.core.transaction.Transaction;
+import rhizome.crypto.SHA256Hash;
+
+/**
+ * Inventory-based transaction gossip: instead of one POST of the full transaction to every peer
+ * per transaction, accepted transactions are queued per peer as content hashes and trickled out
+ * in batches every {@link #FLUSH_INTERVAL_MS}. Each flush is two requests at most:
+ * <ol>
+ *   <li>{@code POST /tx_inv} — {@code int count || hash(32)*}; the peer answers with the subset it
+ *       wants (same layout): hashes it neither holds nor has already requested from another
+ *       announcer;</li>
+ *   <li>{@code POST /tx_batch} — {@code int count || tx*}, only the wanted transactions, chunked
+ *       at {@link #MAX_BATCH_TRANSACTIONS} / {@link #MAX_BATCH_BYTES}.</li>
+ * </ol>
+ * The announcing side delivers, rather than the receiver fetching back: the receiver may have no
+ * route to the announcer (NAT, an unadvertised port), while the announcer demonstrably reaches it.
+ *
+ * <p>Per-peer state replaces the shared send pool for transactions. Each peer has a bounded hash
+ * queue ({@link #MAX_PENDING_PER_PEER}; overflow drops the newest, counted) and a bounded "known"
+ * set of hashes it already has — ones we announced to it, ones it declined, and ones it announced
+ * to us ({@link #noteAnnouncedBy}) — which are never announced to it again, with one exception: a
+ * hash the peer declined is announced once more after {@link #REANNOUNCE_AFTER_MS}. It may have
+ * declined only because another announcer had promised it; if that announcer never delivered, the
+ * peer's request has timed out by then and it asks us instead. At most one flush per peer is in
+ * flight, so a slow peer only delays its own queue, never another peer's.
+ *
+ * <p>Transaction bodies are encoded once, at announce time, and retained in one shared LRU bounded
+ * at {@link #MAX_RETAINED_BYTES} until a peer asks for them; a body evicted before it is asked for
+ * is simply not delivered (gossip is best-effort — the transaction still reaches blocks via the
+ * miner's own mempool or a compact-block fill). A peer that answers {@code /tx_inv} with 404
+ * predates inventory gossip and gets the old one-POST-per-transaction {@code /add_transaction}.
+ */
+public final class TransactionRelay implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionRelay.class);
+
+    /** Trickle period: one inventory batch per peer per interval, at most. */
+    static final long FLUSH_INTERVAL_MS = 100;
+    /** Hashes queued per peer awaiting announcement; past this, new announcements are dropped. */
+    static final int MAX_PENDING_PER_PEER = 4096;
+    /** Hashes per {@code /tx_inv} request — also the receiver's cap. */
+    public static final int MAX_INV_PER_BATCH = 1024;
+    /** Transactions per {@code /tx_batch} request — also the receiver's cap. */
+    public static final int MAX_BATCH_TRANSACTIONS = 256;
+    /** Soft byte cap per {@code /tx_batch} (one transaction larger than this still goes alone). */
+    public static final int MAX_BATCH_BYTES = 1024 * 1024;
+    /**
+     * Delay before a declined hash is announced to the peer a second (and last) time. Longer than
+     * the receiver's request timeout, so a peer still waiting on a stalled announcer asks us.
+     */
+    public static final long REANNOUNCE_AFTER_MS = 1_500;
+    /** Hashes remembered per peer as already held by it. */
+    static final int KNOWN_PER_PEER = 8192;
+    /** Encoded transaction bodies retained for delivery, across all peers. */
+    static final long MAX_RETAINED_BYTES = 32L * 1024 * 1024;
+    /** Concurrent peer flushes. */
+    private static final int FLUSH_THREADS = 4;
+    /** Cap on a {@code /tx_inv} reply: at most one hash per announced hash. */
+    private static final long MAX_INV_REPLY_BYTES = Integer.BYTES + (long) MAX_INV_PER_BATCH * SHA256Hash.SIZE;
+
+    /** One outbound POST, as {@link PeerBroadcaster} performs it (pinned, token-scoped, deadline-bound). */
+    @FunctionalInterface
+    interface Transport {
+        /** The peer's reply, or null if the exchange failed. */
+        PeerBroadcaster.Reply post(String peer, String path, byte[] body, long maxReplyBytes);
+    }
+
+    /** Gossip counters of one peer (a point-in-time read). */
+    public record PeerStats(String peer, int queued, long announced, long requested, long sent,
+                            long dropped, long failures, boolean legacy) { }
+
+    /** Totals across every peer ever served, plus the live per-peer rows. */
+    public record Stats(long announced, long requested, long sent, long dropped, long failures,
+                        int retainedTransactions, long retainedBytes, List<PeerStats> peers) { }
+
+    private final Supplier<Collection<String>> peers;
+    private final Transport transport;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, PeerQueue> queues = new ConcurrentHashMap<>();
+    private final LinkedHashMap<SHA256Hash, byte[]> retained = new LinkedHashMap<>();
+    private long retainedBytes; // guarded by `retained`
+    private final java.util.concurrent.ScheduledExecutorService ticker;
+    private final java.util.concurrent.ExecutorService flushers;
+
+    private final LongAdder announced = new LongAdder();
+    private final LongAdder requested = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /** A relay flushing every {@link #FLUSH_INTERVAL_MS}; {@code scheduled=false} leaves flushing
+     *  to {@link #flushAll} (tests). */
+    TransactionRelay(Supplier<Collection<String>> peers, Transport transport, boolean scheduled) {
+        this(peers, transport, scheduled, System::currentTimeMillis);
+    }
+
+    /** As above, with an explicit clock for the re-announcement delay (package-private for tests). */
+    TransactionRelay(Supplier<Collection<String>> peers, Transport transport, boolean scheduled,
+                     LongSupplier clock) {
+        this.peers = peers;
+        this.transport = transport;
+        this.clock = clock;
+        this.flushers = java.util.concurrent.Executors.newFixedThreadPool(FLUSH_THREADS, r -> {
+            Thread t = new Thread(r, "tx-gossip");
+            t.setDaemon(true);
+            return t;
+        });
+        if (scheduled) {
+            this.ticker = java.util.concurrent.Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "tx-gossip-tick");
+                t.setDaemon(true);
+                return t;
+            });
+            ticker.scheduleWithFixedDelay(this::tick, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS,
+                java.util.concurrent.TimeUnit.MILLISECONDS);
+        } else {
+            this.ticker = null;
+        }
+    }
+
+    /** Queues {@code transaction} for announcement to every current peer that does not know it. */
+    void announce(Transaction transaction) {
+        SHA256Hash hash = transaction.hashContents();
+        // Encoded here, on the caller, for the reason PeerBroadcaster encodes blocks on the caller:
+        // the bytes relayed must be those of the accepted transaction.
+        retain(hash, transaction.serialize().toBuffer());
+        for (String peer : peers.get()) {
+            queues.computeIfAbsent(peer, PeerQueue::new).offer(hash);
+        }
+    }
+
+    /**
+     * Records that the peer at {@code from} announced {@code hashes} to us: it holds them, so they
+     * are never announced back to it. Matched by resolved address against each peer's last
+     * pinned address — the socket address cannot be spoofed the way a self-declared URL could.
+     */
+    public void noteAnnouncedBy(InetAddress from, Collection<SHA256Hash> hashes) {
+        if (from == null || hashes.isEmpty()) {
+            return;
+        }
+        for (PeerQueue q : queues.values()) {
+            if (from.equals(q.address)) {
+                q.know(hashes);
+            }
+        }
+    }
+
+    /** One trickle round: starts a flush for every peer with pending hashes and none in flight. */
+    void tick() {
+        try {
+            Set<String> live = new HashSet<>(peers.get());
+            queues.keySet().retainAll(live);
+            long now = clock.getAsLong();
+            for (PeerQueue q : queues.values()) {
+                if (q.hasPending(now) && q.flushing.compareAndSet(false, true)) {
+                    flushers.execute(() -> {
+                        try {
+                            flush(q);
+                        } finally {
+                            q.flushing.set(false);
+                        }
+                    });
+                }
+            }
+        } catch (RuntimeException e) {
+            log.debug("tx gossip tick failed: {}", e.toString()); // never kill the schedule
+        }
+    }
+
+    /** Flushes every peer synchronously on the caller (tests). */
+    void flushAll() {
+        for (PeerQueue q : queues.values()) {
+            while (q.hasPending(clock.getAsLong())) {
+                flush(q);
+            }
+        }
+    }
+
+    private void flush(PeerQueue q) {
+        long now = clock.getAsLong();
+        List<SHA256Hash> batch = q.drain(MAX_INV_PER_BATCH);
+        int fresh = batch.size(); // first announcements; the rest are second ones
+        batch.addAll(q.drainDue(MAX_INV_PER_BATCH - fresh, now));
+        if (batch.isEmpty()) {
+            return;
+        }
+        q.address = PeerHosts.resolve(q.peer); // cached DNS; keys noteAnnouncedBy
+        if (q.legacy) {
+            sendLegacy(q, batch);
+            return;
+        }
+        ByteBuffer inv = ByteBuffer.allocate(Integer.BYTES + batch.size() * SHA256Hash.SIZE);
+        inv.putInt(batch.size());
+        for (SHA256Hash h : batch) {
+            inv.put(h.raw());
+        }
+        q.announced.add(batch.size());
+        announced.add(batch.size());
+        PeerBroadcaster.Reply reply = transport.post(q.peer, "/tx_inv", inv.array(), MAX_INV_REPLY_BYTES);
+        if (reply == null || (reply.status() != 200 && reply.status() != 404)) {
+            q.fail();
+            return;
+        }
+        if (reply.status() == 404) {
+            q.legacy = true;
+            sendLegacy(q, batch);
+            return;
+        }
+        List<SHA256Hash> wanted;
+        try {
+            wanted = decodeHashes(reply.body(), MAX_INV_PER_BATCH);
+        } catch (RuntimeException e) {
+            q.fail();
+            return;
+        }
+        // Whatever it did not ask for, it has (or is getting from someone else): known either way,
+        // but a first refusal is re-announced once in case that someone else never delivers.
+        q.know(batch);
+        Set<SHA256Hash> offered = new HashSet<>(batch);
+        Set<SHA256Hash> asked = new HashSet<>(wanted);
+        List<SHA256Hash> declined = new ArrayList<>();
+        for (SHA256Hash h : batch.subList(0, fresh)) {
+            if (!asked.contains(h) && retainedBody(h) != null) {
+                declined.add(h);
+            }
+        }
+        q.recheck(declined, now + REANNOUNCE_AFTER_MS);
+        List<byte[]> bodies = new ArrayList<>(wanted.size());
+        for (SHA256Hash h : wanted) {
+            if (offered.contains(h)) { // never deliver something we did not announce
+                byte[] body = retainedBody(h);
+                if (body != null) {
+                    bodies.add(body);
+                }
+            }
+        }
+        q.requested.add(bodies.size());
+        requested.add(bodies.size());
+        sendBatches(q, bodies);
+    }
+
+    private void sendBatches(PeerQueue q, List<byte[]> bodies) {
+        int from = 0;
+        while (from < bodies.size()) {
+            int to = from;
+            int bytes = Integer.BYTES;
+            while (to < bodies.size() && to - from < MAX_BATCH_TRANSACTIONS
+                    && (to == from || bytes + bodies.get(to).length <= MAX_BATCH_BYTES)) {
+                bytes += bodies.get(to).length;
+                to++;
+            }
+            ByteBuffer batch = ByteBuffer.allocate(bytes);
+            batch.putInt(to - from);
+            for (int i = from; i < to; i++) {
+                batch.put(bodies.get(i));
+            }
+            PeerBroadcaster.Reply reply = transport.post(q.peer, "/tx_batch", batch.array(),
+                PeerBroadcaster.MAX_REPLY_BYTES);
+            if (reply == null || reply.status() != 200) {
+                q.fail();
+                return; // the peer is struggling; the rest of this batch is best-effort lost
+            }
+            q.sent.add(to - from);
+            sent.add(to - from);
+            from = to;
+        }
+    }
+
+    /** Pre-inventory peer: one {@code /add_transaction} per transaction, as before. */
+    private void sendLegacy(PeerQueue q, List<SHA256Hash> batch) {
+        for (SHA256Hash h : batch) {
+            byte[] body = retainedBody(h);
+            if (body == null) {
+                continue;
+            }
+            PeerBroadcaster.Reply reply = transport.post(q.peer, "/add_transaction", body,
+                PeerBroadcaster.MAX_REPLY_BYTES);
+            if (reply == null) {
+                q.fail();
+                return;
+            }
+            q.sent.increment();
+            sent.increment();
+        }
+        q.know(batch);
+    }
+
+    /** Decodes {@code int count || hash*}, bounding the count and rejecting a length mismatch. */
+    public static List<SHA256Hash> decodeHashes(byte[] bytes, int maxCount) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int count = buffer.getInt();
+        if (count < 0 || count > maxCount || buffer.remaining() != (long) count * SHA256Hash.SIZE) {
+            throw new IllegalArgumentException("bad hash list: count " + count + ", " + buffer.remaining() + " bytes");
+        }
+        List<SHA256Hash> out = new ArrayList<>(count);
+        byte[] h = new byte[SHA256Hash.SIZE];
+        for (int i = 0; i < count; i++) {
+            buffer.get(h);
+            out.add(SHA256Hash.of(h));
+        }
+        return out;
+    }
+
+    /** Encodes {@code int count || hash*} (the {@code /tx_inv} request and reply layout). */
+    public static byte[] encodeHashes(List<SHA256Hash> hashes) {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + hashes.size() * SHA256Hash.SIZE);
+        buffer.putInt(hashes.size());
+        for (SHA256Hash h : hashes) {
+            buffer.put(h.raw());
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Decodes a {@code /tx_batch} body ({@code int count || tx*}), bounding the count at
+     * {@link #MAX_BATCH_TRANSACTIONS} and rejecting trailing bytes.
+     */
+    public static List<Transaction> decodeBatch(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int count = buffer.getInt();
+        if (count < 0 || count > MAX_BATCH_TRANSACTIONS) {
+            throw new IllegalArgumentException("batch count out of range: " + count);
+        }
+        List<Transaction> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            out.add(Transaction.of(rhizome.core.transaction.dto.TransactionDto.readFrom(buffer)));
+        }
+        if (buffer.hasRemaining()) {
+            throw new IllegalArgumentException("trailing bytes after batch: " + buffer.remaining());
+        }
+        return out;
+    }
+
+    private void retain(SHA256Hash hash, byte[] body) {
+        synchronized (retained) {
+            byte[] previous = retained.put(hash, body);
+            if (previous != null) {
+                retainedBytes -= previous.length;
+            }
+            retainedBytes += body.length;
+            var eldest = retained.entrySet().iterator();
+            while (retainedBytes > MAX_RETAINED_BYTES && eldest.hasNext()) {
+                retainedBytes -= eldest.next().getValue().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    private byte[] retainedBody(SHA256Hash hash) {
+        synchronized (retained) {
+            return retained.get(hash);
+        }
+    }
+
+    /** Totals and per-peer rows, for {@code GET /gossip}. */
+    public Stats stats() {
+        List<PeerStats> rows = new ArrayList<>(queues.size());
+        for (PeerQueue q : queues.values()) {
+            rows.add(new PeerStats(q.peer, q.size(), q.announced.sum(), q.requested.sum(), q.sent.sum(),
+                q.dropped.sum(), q.failures.sum(), q.legacy));
+        }
+        rows.sort(java.util.Comparator.comparing(PeerStats::peer));
+        int count;
+        long bytes;
+        synchronized (retained) {
+            count = retained.size();
+            bytes = retainedBytes;
+        }
+        return new Stats(announced.sum(), requested.sum(), sent.sum(), dropped.sum(), failures.sum(),
+            count, bytes, rows);
+    }
+
+    @Override
+    public void close() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        flushers.shutdownNow();
+    }
+
+    /** A declined hash due for its second announcement at {@code due}. */
+    private record Recheck(SHA256Hash hash, long due) { }
+
+    /** One peer's pending announcements, known-set and counters. */
+    private final class PeerQueue {
+        final String peer;
+        private final ArrayDeque<SHA256Hash> pending = new ArrayDeque<>();
+        /** In due order: every entry is scheduled the same delay after its refusal. */
+        private final ArrayDeque<Recheck> rechecks = new ArrayDeque<>();
+        private final Set<SHA256Hash> known = java.util.Collections.newSetFromMap(
+            new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<SHA256Hash, Boolean> eldest) {
+                    return size() > KNOWN_PER_PEER;
+                }
+            });
+        final AtomicBoolean flushing = new AtomicBoolean();
+        volatile InetAddress address;
+        volatile boolean legacy;
+        final LongAdder announced = new LongAdder();
+        final LongAdder requested = new LongAdder();
+        final LongAdder sent = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+        final LongAdder failures = new LongAdder();
+
+        PeerQueue(String peer) {
+            this.peer = peer;
+        }
+
+        synchronized void offer(SHA256Hash hash) {
+            if (known.contains(hash)) {
+                return;
+            }
+            if (pending.size() >= MAX_PENDING_PER_PEER) {
+                dropped.increment();
+                TransactionRelay.this.dropped.increment();
+                return;
+            }
+            pending.add(hash);
+            known.add(hash); // queued = will be announced; never queue it twice
+        }
+
+        synchronized boolean hasPending(long now) {
+            return !pending.isEmpty() || (!rechecks.isEmpty() && rechecks.peek().due() <= now);
+        }
+
+        synchronized int size() {
+            return pending.size();
+        }
+
+        synchronized List<SHA256Hash> drain(int max) {
+            List<SHA256Hash> out = new ArrayList<>(Math.min(max, pending.size()));
+            while (out.size() < max && !pending.isEmpty()) {
+                out.add(pending.poll());
+            }
+            return out;
+        }
+
+        /** Declined hashes due for their second announcement by {@code now}, at most {@code max}. */
+        synchronized List<SHA256Hash> drainDue(int max, long now) {
+            List<SHA256Hash> out = new ArrayList<>();
+            while (out.size() < max && !rechecks.isEmpty() && rechecks.peek().due() <= now) {
+                out.add(rechecks.poll().hash());
+            }
+            return out;
+        }
+
+        /** Schedules the second announcement of {@code declined}; past the bound, it is skipped. */
+        synchronized void recheck(List<SHA256Hash> declined, long due) {
+            for (SHA256Hash h : declined) {
+                if (rechecks.size() >= MAX_PENDING_PER_PEER) {
+                    return;
+                }
+                rechecks.add(new Recheck(h, due));
+            }
+        }
+
+        synchronized void know(Collection<SHA256Hash> hashes) {
+            known.addAll(hashes);
+            if (!pending.isEmpty() || !rechecks.isEmpty()) {
+                Set<SHA256Hash> set = hashes instanceof Set<SHA256Hash> s ? s : new HashSet<>(hashes);
+                pending.removeIf(set::contains);
+                rechecks.removeIf(r -> set.contains(r.hash()));
+            }
+        }
+
+        void fail() {
+            failures.increment();
+            TransactionRelay.this.failures.increment();
+        }
+    }
+}
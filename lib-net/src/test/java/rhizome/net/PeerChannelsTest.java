@@ -0,0 +1,94 @@
+package rhizome.net;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Shared peer channels: a peer is pinned once per channel lifetime rather than per send, a
+ * channel re-pins when it ages out or after a transport failure, private hosts are still refused
+ * under {@code blockPrivateHosts}, and a peer's concurrent best-effort exchanges are bounded.
+ */
+class PeerChannelsTest {
+
+    private static final String PEER = "http://127.0.0.1:9";
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final PeerChannels channels = new PeerChannels(false, HttpClient.newHttpClient(), now::get);
+
+    @Test
+    void pinsOncePerChannelLifetime() {
+        PeerChannels.Channel first = channels.channel(PEER);
+        for (int i = 0; i < 50; i++) {
+            assertSame(first, channels.channel(PEER));
+        }
+        assertEquals(1, channels.stats().pins());
+
+        now.addAndGet(PeerChannels.MAX_CHANNEL_AGE_MS);
+        PeerChannels.Channel repinned = channels.channel(PEER);
+        assertTrue(repinned != first, "an aged-out pin is re-validated");
+        assertEquals(2, channels.stats().pins());
+
+        channels.invalidate(PEER);
+        channels.channel(PEER);
+        assertEquals(3, channels.stats().pins());
+        assertEquals(1, channels.stats().invalidations());
+    }
+
+    @Test
+    void privateHostsAreRefusedWhenBlocking() {
+        PeerChannels strict = new PeerChannels(true, HttpClient.newHttpClient(), now::get);
+        assertThrows(SecurityException.class, () -> strict.channel(PEER));
+        assertEquals(0, strict.stats().open());
+    }
+
+    @Test
+    void boundsConcurrentExchangesPerPeer() {
+        PeerChannels.Channel channel = channels.channel(PEER);
+        for (int i = 0; i < PeerChannels.MAX_STREAMS_PER_PEER; i++) {
+            assertTrue(channel.tryOpen());
+        }
+        assertFalse(channel.tryOpen(), "one exchange over the budget is refused, not queued");
+
+        // The budget survives a re-pin: exchanges in flight still count against the peer.
+        now.addAndGet(PeerChannels.MAX_CHANNEL_AGE_MS);
+        assertFalse(channels.channel(PEER).tryOpen());
+        channel.close();
+        assertTrue(channels.channel(PEER).tryOpen());
+        assertEquals(2, channels.stats().channels().get(0).refused());
+    }
+
+    @Test
+    void anInvalidationRepinsButKeepsThePeersBudget() {
+        PeerChannels.Channel channel = channels.channel(PEER);
+        for (int i = 0; i < PeerChannels.MAX_STREAMS_PER_PEER; i++) {
+            assertTrue(channel.tryOpen());
+        }
+        channels.invalidate(PEER);
+        assertEquals(0, channels.stats().open());
+
+        PeerChannels.Channel repinned = channels.channel(PEER);
+        assertTrue(repinned != channel, "an invalidated pin is re-validated");
+        assertFalse(repinned.tryOpen(), "a transport failure does not refill the stream budget");
+        assertEquals(PeerChannels.MAX_STREAMS_PER_PEER, channels.stats().channels().get(0).inFlight());
+        channel.close();
+        assertTrue(repinned.tryOpen());
+    }
+
+    @Test
+    void departedPeersLoseTheirChannels() {
+        channels.channel(PEER);
+        channels.channel("http://127.0.0.2:9");
+        channels.retainAll(List.of(PEER));
+        assertEquals(1, channels.stats().open());
+        assertEquals(PEER, channels.stats().channels().get(0).peer());
+    }
+}
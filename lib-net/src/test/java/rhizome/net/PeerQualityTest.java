@@ -0,0 +1,83 @@
+package rhizome.net;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import rhizome.core.common.Constants;
+
+/**
+ * Peer-quality tracking: the ranking prefers the faster, more reliable link and tries an
+ * unmeasured peer once; a slow link gets smaller {@code /sync} windows (never below an eighth of
+ * the protocol maximum); and the hedge delay is the p90 window latency, only once enough windows
+ * have been seen.
+ */
+class PeerQualityTest {
+
+    private static final long MS = 1_000_000L;
+    private static final long MIB = 1024 * 1024;
+
+    @Test
+    void ranksByExpectedWindowTimeAndTriesUnmeasuredPeersFirst() {
+        PeerQuality q = new PeerQuality();
+        for (int i = 0; i < 5; i++) {
+            q.success("fast", 20 * MS, 8 * MIB, 1_000 * MS);   // 8 MiB/s
+            q.success("slow", 200 * MS, 1 * MIB, 1_000 * MS);  // 1 MiB/s
+        }
+        assertEquals("fast", q.best(List.of("slow", "fast")));
+        assertEquals("new", q.best(List.of("slow", "fast", "new")), "an unmeasured peer gets its turn");
+
+        // Failures push a peer down; a peer that has only ever failed ranks last.
+        for (int i = 0; i < 10; i++) {
+            q.failure("fast");
+        }
+        assertEquals("slow", q.best(List.of("fast", "slow")));
+        q.failure("dead");
+        assertEquals("slow", q.best(List.of("dead", "slow")));
+    }
+
+    @Test
+    void slowLinksGetSmallerWindows() {
+        PeerQuality q = new PeerQuality();
+        int max = Constants.BLOCKS_PER_FETCH;
+        assertEquals(max, q.blocksPerFetch("peer", max), "unmeasured: the protocol maximum");
+
+        // 100 KiB/s with 10 KiB blocks: a 5 s window holds ~50 blocks.
+        for (int i = 0; i < 20; i++) {
+            q.success("peer", 10 * MS, 100 * 1024, 1_000 * MS);
+            q.window("peer", 10, 100 * 1024, 1_000 * MS);
+        }
+        int window = q.blocksPerFetch("peer", max);
+        assertTrue(window >= 45 && window <= 55, "window " + window);
+
+        // A crawling link bottoms out at max/8, never a one-block trickle.
+        PeerQuality crawl = new PeerQuality();
+        crawl.success("c", 10 * MS, 20 * 1024, 10_000 * MS);
+        crawl.window("c", 1, 1024 * 1024, 10_000 * MS);
+        assertEquals(max / 8, crawl.blocksPerFetch("c", max));
+    }
+
+    @Test
+    void hedgeDelayIsTheP90WindowLatency() {
+        PeerQuality q = new PeerQuality();
+        for (int i = 1; i < PeerQuality.MIN_HEDGE_SAMPLES; i++) {
+            q.window("peer", 10, 1024, 1_000 * MS);
+        }
+        assertEquals(-1, q.hedgeAfterMillis("peer"), "too few windows to trust a percentile");
+
+        for (int i = 1; i <= 20; i++) {
+            q.window("peer", 10, 1024, i * 100 * MS);
+        }
+        // 27 samples: seven at 1000 ms plus 100..2000 ms; the 25th-smallest is 1800 ms.
+        assertEquals(1800, q.hedgeAfterMillis("peer"));
+
+        PeerQuality fast = new PeerQuality();
+        for (int i = 0; i < PeerQuality.MIN_HEDGE_SAMPLES; i++) {
+            fast.window("f", 10, 1024, 5 * MS);
+        }
+        assertEquals(PeerQuality.MIN_HEDGE_MS, fast.hedgeAfterMillis("f"));
+    }
+}
@@ -0,0 +1,79 @@
+package rhizome.net;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Not a correctness test — a throughput and allocation probe for {@link RateLimiter#allow}.
+ * Sprays {@link #CLIENTS} distinct, pre-built client strings (so the harness itself allocates
+ * nothing) through a limiter sized like the node's per-IP one, single-threaded and then from
+ * every core, and reports ns/op and heap bytes allocated per call on the measuring thread.
+ * Enable manually: {@code ./gradlew :lib-net:test --tests RateLimiterBenchmark -Dbench=on}.
+ *
+ * <p>{@code -Dbench.clients=} and {@code -Dbench.rounds=} resize the run; the report also goes to
+ * {@code bench.out} (default {@code bench.txt}). The allocation figure should read 0: a table hit,
+ * a claimed slot and the overflow bucket are all plain CAS on primitive longs.
+ */
+class RateLimiterBenchmark {
+
+    private static final int CLIENTS = Integer.getInteger("bench.clients", 100_000);
+    private static final int ROUNDS = Integer.getInteger("bench.rounds", 20);
+
+    @Test
+    void probe() throws Exception {
+        if (!"on".equals(System.getProperty("bench"))) {
+            return;
+        }
+        String[] clients = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i] = "10." + (i >>> 16 & 0xff) + "." + (i >>> 8 & 0xff) + "." + (i & 0xff);
+        }
+        var mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        RateLimiter limiter = new RateLimiter(1000, 1000, 65_536);
+
+        StringBuilder report = new StringBuilder(String.format(
+            "=== RateLimiter probe (%d clients, %d rounds, %d table slots, %d cores) ===%n",
+            CLIENTS, ROUNDS, limiter.capacity(), Runtime.getRuntime().availableProcessors()));
+        spray(limiter, clients, 5); // warm-up: JIT and a fully claimed table
+        long tid = Thread.currentThread().threadId();
+        long bytes = mx.getThreadAllocatedBytes(tid);
+        long t0 = System.nanoTime();
+        long admitted = spray(limiter, clients, ROUNDS);
+        long elapsed = System.nanoTime() - t0;
+        bytes = mx.getThreadAllocatedBytes(tid) - bytes;
+        long ops = (long) CLIENTS * ROUNDS;
+        report.append(String.format("1 thread   %7.1f ns/op  %6.3f B/op  admitted %d/%d%n",
+            (double) elapsed / ops, (double) bytes / ops, admitted, ops));
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        Thread[] workers = new Thread[threads];
+        long t1 = System.nanoTime();
+        for (int w = 0; w < threads; w++) {
+            workers[w] = new Thread(() -> spray(limiter, clients, ROUNDS), "bench-" + w);
+            workers[w].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        elapsed = System.nanoTime() - t1;
+        report.append(String.format("%d threads %7.1f ns/op (aggregate)%n", threads,
+            (double) elapsed / (ops * threads)));
+        System.out.print(report);
+        java.nio.file.Files.writeString(java.nio.file.Path.of(System.getProperty("bench.out", "bench.txt")),
+            report.toString());
+        assertEquals(0, bytes, "allow(client, cost) must not allocate");
+    }
+
+    private static long spray(RateLimiter limiter, String[] clients, int rounds) {
+        long admitted = 0;
+        for (int r = 0; r < rounds; r++) {
+            for (int i = 0; i < clients.length; i++) {
+                admitted += limiter.allow(clients[i], 1 + (i & 3)) ? 1 : 0;
+            }
+        }
+        return admitted;
+    }
+}
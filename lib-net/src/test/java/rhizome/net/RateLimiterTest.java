@@ -1,5 +1,6 @@
 package rhizome.net;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -19,16 +20,15 @@ class RateLimiterTest {
     }
 
     @Test
-    void windowResetsAllowsAgain() {
+    void budgetRefillsAtTheConfiguredRate() {
         AtomicLong clock = new AtomicLong(0);
         var limiter = new RateLimiter(1, 1000, 100, clock::get);
         assertTrue(limiter.allow("a"));
         assertFalse(limiter.allow("a"));
-        // Sliding window: one window later the previous count still weighs (decaying), so the
-        // budget is NOT fully back yet — two full windows must elapse (audit: boundary burst).
+        // GCRA: one unit per emission interval (window / budget), earned back continuously.
+        clock.set(999);
+        assertFalse(limiter.allow("a"), "the unit is not earned back before its interval");
         clock.set(1000);
-        assertFalse(limiter.allow("a"), "previous window still decays into the estimate");
-        clock.set(2000);
         assertTrue(limiter.allow("a"));
     }
 
@@ -36,20 +36,47 @@ class RateLimiterTest {
     void noDoubleBudgetBurstAtWindowBoundary() {
         // The fixed-window flaw this replaces: a full budget fired at the end of one window and
         // another full budget at the start of the next (2x the limit inside a few milliseconds).
-        // With the weighted sliding estimate, the just-closed window still counts (decaying)
-        // against the next (audit).
+        // There is no boundary any more: the budget refills at rate, from whatever phase (audit).
         AtomicLong clock = new AtomicLong(0);
         var limiter = new RateLimiter(10, 1000, 100, clock::get);
-        assertTrue(limiter.allow("a")); // anchors the window at t=0
-        clock.set(999); // rest of the budget fired at the tail of window [0, 1000)
-        for (int i = 0; i < 9; i++) {
-            assertTrue(limiter.allow("a"), "budget fills the first window");
+        clock.set(999);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.allow("a"), "a full budget at once");
         }
-        clock.set(1001); // just past the boundary: a fixed window would grant 10 fresh tokens
-        assertFalse(limiter.allow("a"), "the previous window still weighs ~fully: no 2x burst");
-        clock.set(1100); // prev has decayed to 0.9 weight: one unit of headroom
-        assertTrue(limiter.allow("a"), "one request fits the decayed headroom");
-        assertFalse(limiter.allow("a"), "but a second full budget right away is refused");
+        clock.set(1001); // a fixed window would grant 10 fresh tokens here
+        assertFalse(limiter.allow("a"), "no second budget right after");
+        clock.set(1100); // one emission interval (100 ms) later: exactly one unit earned
+        assertTrue(limiter.allow("a"), "one request fits the refilled unit");
+        assertFalse(limiter.allow("a"), "but not a second one");
+    }
+
+    @Test
+    void costIsChargedInUnitsAndDeniedRequestsChargeNothing() {
+        AtomicLong clock = new AtomicLong(0);
+        var limiter = new RateLimiter(10, 1000, 100, clock::get);
+        assertFalse(limiter.allow("a", 11), "above a whole budget is never admitted");
+        assertTrue(limiter.allow("a", 7));
+        assertFalse(limiter.allow("a", 4), "7 + 4 > 10");
+        assertTrue(limiter.allow("a", 3), "the refused 4 consumed nothing");
+        clock.set(400);
+        assertTrue(limiter.allow("a", 4));
+        assertFalse(limiter.allow("a", 1));
+    }
+
+    @Test
+    void aRefundReturnsUnusedBudgetButNeverPastFull() {
+        AtomicLong clock = new AtomicLong(0);
+        var limiter = new RateLimiter(10, 1000, 100, clock::get);
+        assertTrue(limiter.allow("a", 10));
+        assertFalse(limiter.allow("a", 1));
+        limiter.refund("a", 6);
+        assertTrue(limiter.allow("a", 6), "the refunded units are spendable again");
+        assertFalse(limiter.allow("a", 1));
+        limiter.refund("b", 10); // never seen: nothing to credit
+        assertTrue(limiter.allow("b", 10));
+        limiter.refund("a", 1_000);
+        assertTrue(limiter.allow("a", 10));
+        assertFalse(limiter.allow("a", 1), "a refund larger than the debt only fills the bucket");
     }
 
     @Test
@@ -61,30 +88,36 @@ class RateLimiterTest {
     }
 
     @Test
-    void clientTableIsBoundedAndSweepsExpired() {
+    void clientTableIsBoundedAndReclaimsExpiredSlots() {
         AtomicLong clock = new AtomicLong(0);
         var limiter = new RateLimiter(10, 1000, 5, clock::get);
-        for (int i = 0; i < 5; i++) {
+        assertEquals(16, limiter.capacity()); // 2 × maxClients, rounded up to a power of two
+        for (int i = 0; i < 1000; i++) {
             limiter.allow("client-" + i);
         }
-        // Table is full at capacity.
-        assertTrue(limiter.trackedClients() <= 5);
+        assertTrue(limiter.trackedClients() <= limiter.capacity(), "tracked clients must stay bounded");
 
-        // Advance past the window so the old entries are sweepable, then a burst of
-        // new clients must not grow the table without bound.
-        clock.set(2000);
+        // The untracked remainder shares the overflow bucket: it runs dry instead of failing open.
+        int admitted = 0;
         for (int i = 0; i < 1000; i++) {
-            limiter.allow("spray-" + i);
+            admitted += limiter.allow("late-" + i) ? 1 : 0;
+        }
+        assertTrue(admitted <= limiter.capacity() + 10, "fail closed: " + admitted);
+
+        // Once the buckets are full again, every slot is free for new clients.
+        clock.set(2000);
+        assertEquals(0, limiter.trackedClients());
+        for (int i = 0; i < 8; i++) {
+            assertTrue(limiter.allow("fresh-" + i));
         }
-        assertTrue(limiter.trackedClients() <= 5, "tracked clients must stay bounded");
     }
 
     @Test
     void concurrentSprayKeepsTableBounded() throws Exception {
         // IP-spray from many threads at once: every request is a table miss under capacity
-        // pressure — exactly the case where the sweep used to run inside the check-and-insert
-        // monitor. The table bound must hold under the race, no admission may throw, and the
-        // fail-closed overflow bucket keeps metering untracked clients.
+        // pressure, racing CAS claims on the same slots. The table bound must hold under the
+        // race, no admission may throw, and the fail-closed overflow bucket keeps metering
+        // untracked clients.
         var limiter = new RateLimiter(10, 60_000, 64);
         int threads = 8, perThread = 500;
         var pool = java.util.concurrent.Executors.newFixedThreadPool(threads);
@@ -105,7 +138,7 @@ class RateLimiterTest {
             f.get(30, java.util.concurrent.TimeUnit.SECONDS);
         }
         pool.shutdownNow();
-        assertTrue(limiter.trackedClients() <= 64,
+        assertTrue(limiter.trackedClients() <= limiter.capacity(),
             "the client table must stay bounded under a concurrent spray");
     }
 }
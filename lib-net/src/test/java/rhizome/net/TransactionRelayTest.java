@@ -0,0 +1,182 @@
+package rhizome.net;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import rhizome.core.transaction.Transaction;
+import rhizome.core.user.User;
+import rhizome.crypto.SHA256Hash;
+
+/**
+ * Inventory gossip: a flush announces every pending hash in ONE {@code /tx_inv}, delivers only
+ * the transactions the peer asked for in one {@code /tx_batch}, never re-announces a hash the
+ * peer already knows (announced, declined, or announced to us by it) except to re-offer a refusal
+ * once, and falls back to per-tx {@code /add_transaction} for a peer without the inventory routes.
+ *
+ * <p>The transport is an in-memory fake and flushing is driven by {@code flushAll()}, so every
+ * assertion is on exactly what would have crossed the wire.
+ */
+class TransactionRelayTest {
+
+    private static final String PEER = "http://127.0.0.1:1";
+    private static final User ALICE = User.create();
+    private static final User BOB = User.create();
+
+    /** Records every post; answers {@code /tx_inv} with the hashes it does not hold yet. */
+    private static final class FakePeer implements TransactionRelay.Transport {
+        final List<String> paths = new ArrayList<>();
+        final List<byte[]> bodies = new ArrayList<>();
+        final Set<SHA256Hash> held = new HashSet<>();
+        /** Not held, but promised by another announcer: declined while listed here. */
+        final Set<SHA256Hash> promised = new HashSet<>();
+        boolean legacy;
+
+        @Override
+        public PeerBroadcaster.Reply post(String peer, String path, byte[] body, long maxReplyBytes) {
+            paths.add(path);
+            bodies.add(body);
+            if (legacy && !"/add_transaction".equals(path)) {
+                return new PeerBroadcaster.Reply(404, new byte[0]);
+            }
+            if ("/tx_inv".equals(path)) {
+                List<SHA256Hash> wanted = new ArrayList<>();
+                for (SHA256Hash h : TransactionRelay.decodeHashes(body, TransactionRelay.MAX_INV_PER_BATCH)) {
+                    if (!held.contains(h) && !promised.contains(h)) {
+                        wanted.add(h);
+                    }
+                }
+                return new PeerBroadcaster.Reply(200, TransactionRelay.encodeHashes(wanted));
+            }
+            if ("/tx_batch".equals(path)) {
+                for (Transaction t : TransactionRelay.decodeBatch(body)) {
+                    held.add(t.hashContents());
+                }
+            }
+            return new PeerBroadcaster.Reply(200, "{}".getBytes());
+        }
+
+        long count(String path) {
+            return paths.stream().filter(path::equals).count();
+        }
+    }
+
+    private static List<Transaction> transactions(int n) {
+        List<Transaction> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            out.add(ALICE.send(BOB, 1 + i));
+        }
+        return out;
+    }
+
+    @Test
+    void announcesOnceAndDeliversOnlyWhatThePeerWants() {
+        FakePeer fake = new FakePeer();
+        List<Transaction> txs = transactions(20);
+        for (int i = 0; i < 5; i++) {
+            fake.held.add(txs.get(i).hashContents()); // the peer already has these
+        }
+        try (TransactionRelay relay = new TransactionRelay(() -> List.of(PEER), fake, false)) {
+            txs.forEach(relay::announce);
+            relay.flushAll();
+
+            assertEquals(List.of("/tx_inv", "/tx_batch"), fake.paths);
+            assertEquals(20, ByteBuffer.wrap(fake.bodies.get(0)).getInt());
+            List<Transaction> delivered = TransactionRelay.decodeBatch(fake.bodies.get(1));
+            assertEquals(15, delivered.size());
+            for (int i = 0; i < 15; i++) {
+                assertEquals(txs.get(5 + i).hashContents(), delivered.get(i).hashContents());
+            }
+            TransactionRelay.Stats stats = relay.stats();
+            assertEquals(20, stats.announced());
+            assertEquals(15, stats.sent());
+
+            // Everything announced is now known to the peer: re-announcing sends nothing.
+            txs.forEach(relay::announce);
+            relay.flushAll();
+            assertEquals(2, fake.paths.size());
+        }
+    }
+
+    @Test
+    void hashesAnnouncedByThePeerAreNotAnnouncedBack() throws Exception {
+        FakePeer fake = new FakePeer();
+        List<Transaction> txs = transactions(4);
+        try (TransactionRelay relay = new TransactionRelay(() -> List.of(PEER), fake, false)) {
+            // A first flush pins the peer's resolved address, which keys noteAnnouncedBy.
+            relay.announce(txs.get(0));
+            relay.flushAll();
+            fake.paths.clear();
+            fake.bodies.clear();
+
+            relay.noteAnnouncedBy(InetAddress.getByName("127.0.0.1"),
+                List.of(txs.get(1).hashContents(), txs.get(2).hashContents()));
+            txs.forEach(relay::announce);
+            relay.flushAll();
+
+            assertEquals(1, fake.count("/tx_inv"));
+            assertEquals(1, ByteBuffer.wrap(fake.bodies.get(0)).getInt()); // only txs[3] is new to it
+        }
+    }
+
+    @Test
+    void peerWithoutInventoryRoutesGetsPerTransactionPosts() {
+        FakePeer fake = new FakePeer();
+        fake.legacy = true;
+        try (TransactionRelay relay = new TransactionRelay(() -> List.of(PEER), fake, false)) {
+            transactions(3).forEach(relay::announce);
+            relay.flushAll();
+            assertEquals(1, fake.count("/tx_inv"));
+            assertEquals(3, fake.count("/add_transaction"));
+
+            // The fallback sticks: later rounds skip the inventory probe.
+            transactions(2).forEach(relay::announce);
+            relay.flushAll();
+            assertEquals(1, fake.count("/tx_inv"));
+            assertEquals(5, fake.count("/add_transaction"));
+            assertTrue(relay.stats().peers().get(0).legacy());
+        }
+    }
+
+    @Test
+    void aRefusalIsReannouncedOnceSoAStalledAnnouncerIsRoutedAround() {
+        FakePeer fake = new FakePeer();
+        AtomicLong now = new AtomicLong(1_000);
+        List<Transaction> txs = transactions(2);
+        fake.promised.add(txs.get(0).hashContents()); // another announcer claimed it first
+        fake.held.add(txs.get(1).hashContents());
+        try (TransactionRelay relay = new TransactionRelay(() -> List.of(PEER), fake, false, now::get)) {
+            txs.forEach(relay::announce);
+            relay.flushAll();
+            assertEquals(List.of("/tx_inv"), fake.paths);
+
+            // Not yet due: nothing more goes out.
+            now.addAndGet(TransactionRelay.REANNOUNCE_AFTER_MS - 1);
+            relay.flushAll();
+            assertEquals(1, fake.paths.size());
+
+            // The other announcer never delivered, so the peer now wants it from us.
+            fake.promised.clear();
+            now.incrementAndGet();
+            relay.flushAll();
+            assertEquals(List.of("/tx_inv", "/tx_inv", "/tx_batch"), fake.paths);
+            assertEquals(2, ByteBuffer.wrap(fake.bodies.get(1)).getInt()); // both refusals, once each
+            assertEquals(txs.get(0).hashContents(),
+                TransactionRelay.decodeBatch(fake.bodies.get(2)).get(0).hashContents());
+
+            // Second refusals are final.
+            now.addAndGet(10 * TransactionRelay.REANNOUNCE_AFTER_MS);
+            relay.flushAll();
+            assertEquals(3, fake.paths.size());
+        }
+    }
+}
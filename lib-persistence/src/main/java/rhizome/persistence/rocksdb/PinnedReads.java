@@ -0,0 +1,63 @@
+package rhizome.persistence.rocksdb;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.ReadOptions;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
+import org.rocksdb.Snapshot;
+
+/**
+ * One pinned RocksDB snapshot and the {@link ReadOptions} that read through it: the shared core
+ * of the stores' read-only {@code openSnapshot()} views. Opening is O(1) — RocksDB pins the
+ * current sequence number, nothing is copied — and every read sees the store exactly as it was
+ * then, whatever is written or deleted afterwards. Reads are thread-safe (RocksDB gets are);
+ * {@link #close} releases the snapshot, which otherwise holds back compaction of every version it
+ * can still see, and must run before the owning store closes.
+ */
+final class PinnedReads implements AutoCloseable {
+
+    private final RocksDB db;
+    private final String store;
+    private final Snapshot snapshot;
+    private final ReadOptions readOptions;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    PinnedReads(RocksDB db, String store) {
+        this.db = db;
+        this.store = store;
+        this.snapshot = db.getSnapshot();
+        this.readOptions = new ReadOptions().setSnapshot(snapshot);
+    }
+
+    byte[] get(ColumnFamilyHandle cf, byte[] key) {
+        checkOpen();
+        try {
+            return db.get(cf, readOptions, key);
+        } catch (RocksDBException e) {
+            throw new IllegalStateException(store + " snapshot read failed", e);
+        }
+    }
+
+    /** An iterator over {@code cf} as of the pin; the caller closes it before {@link #close}. */
+    RocksIterator iterator(ColumnFamilyHandle cf) {
+        checkOpen();
+        return db.newIterator(cf, readOptions);
+    }
+
+    private void checkOpen() {
+        if (closed.get()) {
+            throw new IllegalStateException(store + " snapshot is closed");
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            db.releaseSnapshot(snapshot);
+            readOptions.close();
+        }
+    }
+}
@@ -21,8 +21,8 @@ import rhizome.core.box.BoxStore;
 import static rhizome.core.common.Utils.longToBytes;
 
 /**
- * RocksDB-backed {@link BoxStore}: boxes plus the owner and rent-expiry secondary
- * indexes, and a persisted per-block undo journal. The journal lives on disk (unlike
+ * RocksDB-backed {@link BoxStore}: boxes plus the owner, rent-expiry and (optional) register
+ * secondary indexes, and a persisted per-block undo journal. The journal lives on disk (unlike
  * the contract store's in-memory journals), so a reorg that follows a restart can
  * still restore box state exactly.
  *
@@ -33,6 +33,9 @@ import static rhizome.core.common.Utils.longToBytes;
  *   <li>{@code box_expiry}: {@code rentPaidHeight(8, BE) || boxId(32)} -> empty
  *       (lowest rent-clock first; a box is collectable once
  *       {@code rentPaidHeight <= height - storagePeriod})</li>
+ *   <li>{@code box_register}: {@code registerIndex(1) || valuePrefix(32, zero-padded) || boxId(32)}
+ *       -> empty (candidates for a {@code registerEquals} scan; present only while the index is
+ *       enabled, see {@link #RocksDbBoxStore(String, boolean)})</li>
  *   <li>{@code box_journal}: {@code height(8, BE)} -> serialized undo journal</li>
  *   <li>{@code box_receipts}: {@code height(8, BE)} -> serialized box receipts
  *       (what {@code Executor.rollbackBlock} needs to reverse soft-reverts after a restart)</li>
@@ -49,27 +52,49 @@ public final class RocksDbBoxStore implements BoxStore, AutoCloseable {
     private static final byte[] CF_EXPIRY = "box_expiry".getBytes();
     private static final byte[] CF_JOURNAL = "box_journal".getBytes();
     private static final byte[] CF_RECEIPTS = "box_receipts".getBytes();
+    private static final byte[] CF_REGISTER = "box_register".getBytes();
+    /** Default-CF marker: present exactly while {@code box_register} is complete and maintained. */
+    private static final byte[] REGISTER_INDEX_MARKER = "register_index_v1".getBytes();
+    /** Register bytes a {@code box_register} key carries; longer values share a key (re-tested). */
+    static final int REGISTER_PREFIX_BYTES = 32;
+    /** Boxes indexed per synced batch while (re)building the register index at open. */
+    private static final int REGISTER_BACKFILL_BATCH = 10_000;
     private static final byte[] EMPTY = new byte[0];
 
     private final RocksDB db;
     private final DBOptions dbOptions;
+    private final StoreStats stats;
     private final ColumnFamilyHandle defaultCf;
     private final ColumnFamilyHandle boxesCf;
     private final ColumnFamilyHandle ownerCf;
     private final ColumnFamilyHandle expiryCf;
     private final ColumnFamilyHandle journalCf;
     private final ColumnFamilyHandle receiptsCf;
+    private final ColumnFamilyHandle registerCf;
+    private final boolean registerIndex;
     // Synced: apply/revert batches move box state across a height boundary (audit F3).
     private final WriteOptions writeOptions = new WriteOptions().setSync(true);
 
     public RocksDbBoxStore(String path) throws IOException {
+        this(path, true);
+    }
+
+    /**
+     * @param registerIndex keep the {@code box_register} index ({@link #boxIdsByRegister}), so a
+     *        {@code registerEquals} scan reads its matches instead of the whole box table. It is
+     *        written in the same batch as the box and its journal. Enabling it on a store that
+     *        lacked it (an older data dir, or one run with it off) rebuilds it from the boxes at
+     *        open; disabling it drops it, so a later re-enable never trusts entries it missed.
+     */
+    public RocksDbBoxStore(String path, boolean registerIndex) throws IOException {
         List<ColumnFamilyDescriptor> descriptors = List.of(
             new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY),
             new ColumnFamilyDescriptor(CF_BOXES),
             new ColumnFamilyDescriptor(CF_OWNER),
             new ColumnFamilyDescriptor(CF_EXPIRY),
             new ColumnFamilyDescriptor(CF_JOURNAL),
-            new ColumnFamilyDescriptor(CF_RECEIPTS));
+            new ColumnFamilyDescriptor(CF_RECEIPTS),
+            new ColumnFamilyDescriptor(CF_REGISTER));
         List<ColumnFamilyHandle> handles = new ArrayList<>();
         // DBOptions is kept and closed in close() AFTER db.close(): never while the DB is live
         // (rocksdbjni keeps referencing it — closing it live corrupts the native heap), and not
@@ -77,19 +102,73 @@ public final class RocksDbBoxStore implements BoxStore, AutoCloseable {
         DBOptions options = new DBOptions()
             .setCreateIfMissing(true)
             .setCreateMissingColumnFamilies(true);
+        StoreStats stats = StoreStats.attach(options);
         try {
             this.db = RocksDB.open(options, path, descriptors, handles);
         } catch (RocksDBException e) {
             options.close();
+            stats.close();
             throw new IOException("Failed to open box store at " + path, e);
         }
         this.dbOptions = options;
+        this.stats = stats;
         this.defaultCf = handles.get(0);
         this.boxesCf = handles.get(1);
         this.ownerCf = handles.get(2);
         this.expiryCf = handles.get(3);
         this.journalCf = handles.get(4);
         this.receiptsCf = handles.get(5);
+        this.registerCf = handles.get(6);
+        this.registerIndex = registerIndex;
+        try {
+            reconcileRegisterIndex();
+        } catch (RocksDBException | RuntimeException e) {
+            close();
+            throw new IOException("Failed to prepare the box register index at " + path, e);
+        }
+    }
+
+    /**
+     * Brings {@code box_register} in line with the {@code registerIndex} flag. The marker is
+     * written only after a complete rebuild and deleted before any teardown, so a crash at any
+     * point leaves either a complete index with its marker or no marker (rebuilt next open).
+     */
+    private void reconcileRegisterIndex() throws RocksDBException {
+        boolean marked = db.get(defaultCf, REGISTER_INDEX_MARKER) != null;
+        if (registerIndex == marked) {
+            return;
+        }
+        db.delete(defaultCf, writeOptions, REGISTER_INDEX_MARKER);
+        clearRegisterIndex();
+        if (!registerIndex) {
+            return;
+        }
+        try (RocksIterator it = db.newIterator(boxesCf)) {
+            WriteBatch batch = new WriteBatch();
+            try {
+                int pending = 0;
+                for (it.seekToFirst(); it.isValid(); it.next()) {
+                    putRegisterKeys(batch, Box.deserialize(it.value()));
+                    if (++pending == REGISTER_BACKFILL_BATCH) {
+                        db.write(writeOptions, batch);
+                        batch.close();
+                        batch = new WriteBatch();
+                        pending = 0;
+                    }
+                }
+                batch.put(defaultCf, REGISTER_INDEX_MARKER, EMPTY);
+                db.write(writeOptions, batch);
+            } finally {
+                batch.close();
+            }
+        }
+    }
+
+    private void clearRegisterIndex() throws RocksDBException {
+        // One range tombstone: every key is 65 bytes, so 66 x 0xFF sorts after all of them.
+        byte[] end = new byte[1 + REGISTER_PREFIX_BYTES + 32 + 1];
+        Arrays.fill(end, (byte) 0xFF);
+        db.deleteRange(registerCf, writeOptions, EMPTY, end);
     }
 
     @Override
@@ -279,17 +358,76 @@ public final class RocksDbBoxStore implements BoxStore, AutoCloseable {
         return out;
     }
 
+    /**
+     * Seeks the one {@code box_register} group a {@code registerEquals(index, value)} match can
+     * live in: keys under {@code index ‖ prefix(value)}, each a box id, already in id order.
+     */
+    @Override
+    public List<byte[]> boxIdsByRegister(int index, byte[] value, byte[] afterId, int limit) {
+        if (!registerIndex) {
+            return null;
+        }
+        List<byte[]> out = new ArrayList<>();
+        if (index < 0 || index > 0xFF) {
+            return out; // no box has such a register
+        }
+        byte[] group = registerGroup(index, value);
+        try (RocksIterator it = db.newIterator(registerCf)) {
+            if (afterId == null) {
+                it.seek(group);
+            } else {
+                byte[] cursor = concat(group, afterId);
+                it.seek(cursor);
+                if (it.isValid() && Arrays.equals(it.key(), cursor)) {
+                    it.next(); // exclusive of the cursor
+                }
+            }
+            for (; it.isValid() && out.size() < limit; it.next()) {
+                byte[] key = it.key();
+                if (key.length != group.length + 32 || !startsWith(key, group)) {
+                    break; // past the group (all keys here are fixed-width)
+                }
+                out.add(Arrays.copyOfRange(key, group.length, key.length));
+            }
+        }
+        return out;
+    }
+
     // ---- index maintenance ----
 
     private void writeBox(WriteBatch batch, Box box) throws RocksDBException {
         batch.put(boxesCf, box.id(), box.serialize());
         batch.put(ownerCf, ownerKey(box), EMPTY);
         batch.put(expiryCf, expiryKey(box), EMPTY);
+        if (registerIndex) {
+            putRegisterKeys(batch, box);
+        }
     }
 
     private void dropIndexes(WriteBatch batch, Box box) throws RocksDBException {
         batch.delete(ownerCf, ownerKey(box));
         batch.delete(expiryCf, expiryKey(box));
+        if (registerIndex) {
+            List<rhizome.core.box.BoxRegister> registers = box.registers();
+            for (int i = 0; i < registers.size(); i++) {
+                batch.delete(registerCf, concat(registerGroup(i, registers.get(i).payload()), box.id()));
+            }
+        }
+    }
+
+    private void putRegisterKeys(WriteBatch batch, Box box) throws RocksDBException {
+        List<rhizome.core.box.BoxRegister> registers = box.registers();
+        for (int i = 0; i < registers.size(); i++) {
+            batch.put(registerCf, concat(registerGroup(i, registers.get(i).payload()), box.id()), EMPTY);
+        }
+    }
+
+    /** {@code index(1) ‖ value[0..32) zero-padded}: the fixed-width group key of one register value. */
+    private static byte[] registerGroup(int index, byte[] value) {
+        byte[] group = new byte[1 + REGISTER_PREFIX_BYTES];
+        group[0] = (byte) index;
+        System.arraycopy(value, 0, group, 1, Math.min(value.length, REGISTER_PREFIX_BYTES));
+        return group;
     }
 
     private static byte[] ownerKey(Box box) {
@@ -399,10 +537,53 @@ public final class RocksDbBoxStore implements BoxStore, AutoCloseable {
     @Override
     public void forEachBox(java.util.function.Consumer<Box> consumer) {
         try (RocksIterator it = db.newIterator(boxesCf)) {
-            for (it.seekToFirst(); it.isValid(); it.next()) {
-                consumer.accept(Box.deserialize(it.value()));
+            scanBoxes(it, consumer);
+        }
+    }
+
+    private static void scanBoxes(RocksIterator it, java.util.function.Consumer<Box> consumer) {
+        for (it.seekToFirst(); it.isValid(); it.next()) {
+            consumer.accept(Box.deserialize(it.value()));
+        }
+    }
+
+    @Override
+    public BoxStore.Snapshot openSnapshot() {
+        return new BoxSnapshot();
+    }
+
+    /** The boxes as of one pinned RocksDB snapshot: point reads and enumeration. */
+    private final class BoxSnapshot implements BoxStore.Snapshot {
+
+        private final PinnedReads reads = new PinnedReads(db, "box store");
+
+        @Override
+        public Box get(byte[] id) {
+            byte[] bytes = reads.get(boxesCf, id);
+            return bytes == null ? null : Box.deserialize(bytes);
+        }
+
+        @Override
+        public byte[] getReceipts(long height) {
+            return reads.get(receiptsCf, longToBytes(height));
+        }
+
+        @Override
+        public void forEachBox(java.util.function.Consumer<Box> consumer) {
+            try (RocksIterator it = reads.iterator(boxesCf)) {
+                scanBoxes(it, consumer);
             }
         }
+
+        @Override
+        public void close() {
+            reads.close();
+        }
+    }
+
+    /** RocksDB get/write/seek latencies of this store, for the node's metrics. */
+    public StoreStats stats() {
+        return stats;
     }
 
     @Override
@@ -413,8 +594,10 @@ public final class RocksDbBoxStore implements BoxStore, AutoCloseable {
         expiryCf.close();
         journalCf.close();
         receiptsCf.close();
+        registerCf.close();
         writeOptions.close();
         db.close();
         dbOptions.close(); // after the DB: rocksdbjni references the options while the DB is live
+        stats.close();
     }
 }
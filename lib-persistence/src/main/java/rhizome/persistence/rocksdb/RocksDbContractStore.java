@@ -2,6 +2,7 @@ package rhizome.persistence.rocksdb;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.rocksdb.ColumnFamilyDescriptor;
@@ -16,6 +17,7 @@ import org.slf4j.LoggerFactory;
 
 import rhizome.core.ledger.PublicAddress;
 import rhizome.vm.ContractStore;
+import rhizome.vm.LogBloom;
 import rhizome.vm.StorageChange;
 
 /**
@@ -43,14 +45,22 @@ public final class RocksDbContractStore implements ContractStore, AutoCloseable
     // Persisted per-block contract receipts (height BE(8) -> encoded receipts), so the executor's
     // rollback can reverse a block's contract-tx ledger effects even after a restart (audit F3).
     private static final byte[] CF_RECEIPTS = "contract_receipts".getBytes();
+    // Persisted per-block contract logs (height BE(8) -> encoded logs), kept past the reorg window
+    // as the history historical log queries read; and their LogBlooms (level(1) || start BE(8) ->
+    // bloom bits), one per block plus the 1k-range unions a query descends.
+    private static final byte[] CF_LOGS = "contract_logs".getBytes();
+    private static final byte[] CF_LOG_BLOOMS = "contract_log_blooms".getBytes();
 
     private final RocksDB db;
     private final DBOptions dbOptions;
+    private final StoreStats stats;
     private final ColumnFamilyHandle defaultCf;
     private final ColumnFamilyHandle codeCf;
     private final ColumnFamilyHandle storageCf;
     private final ColumnFamilyHandle journalCf;
     private final ColumnFamilyHandle receiptsCf;
+    private final ColumnFamilyHandle logsCf;
+    private final ColumnFamilyHandle logBloomsCf;
     // Synced: the block commit must be durable before the node reports the height applied (audit F3).
     private final WriteOptions writeOptions = new WriteOptions().setSync(true);
     // Unsynced: snapshot import seeds every contract code/storage slot through the straight-through
@@ -76,7 +86,9 @@ public final class RocksDbContractStore implements ContractStore, AutoCloseable
             new ColumnFamilyDescriptor(CF_CODE),
             new ColumnFamilyDescriptor(CF_STORAGE),
             new ColumnFamilyDescriptor(CF_JOURNAL),
-            new ColumnFamilyDescriptor(CF_RECEIPTS));
+            new ColumnFamilyDescriptor(CF_RECEIPTS),
+            new ColumnFamilyDescriptor(CF_LOGS),
+            new ColumnFamilyDescriptor(CF_LOG_BLOOMS));
         List<ColumnFamilyHandle> handles = new ArrayList<>();
         // DBOptions is kept and closed in close() AFTER db.close(): never while the DB is live
         // (rocksdbjni keeps referencing it — closing it live corrupts the native heap), and not
@@ -84,18 +96,23 @@ public final class RocksDbContractStore implements ContractStore, AutoCloseable
         DBOptions options = new DBOptions()
             .setCreateIfMissing(true)
             .setCreateMissingColumnFamilies(true);
+        StoreStats stats = StoreStats.attach(options);
         try {
             this.db = RocksDB.open(options, path, descriptors, handles);
         } catch (RocksDBException e) {
             options.close();
+            stats.close();
             throw new IOException("Failed to open contract store at " + path, e);
         }
         this.dbOptions = options;
+        this.stats = stats;
         this.defaultCf = handles.get(0);
         this.codeCf = handles.get(1);
         this.storageCf = handles.get(2);
         this.journalCf = handles.get(3);
         this.receiptsCf = handles.get(4);
+        this.logsCf = handles.get(5);
+        this.logBloomsCf = handles.get(6);
     }
 
     private static byte[] heightKey(long height) {
@@ -132,12 +149,50 @@ public final class RocksDbContractStore implements ContractStore, AutoCloseable
         delete(receiptsCf, heightKey(height));
     }
 
+    @Override
+    public boolean indexesLogs() {
+        return true;
+    }
+
+    @Override
+    public byte[] getLogs(long height) {
+        return get(logsCf, heightKey(height));
+    }
+
+    @Override
+    public byte[] getLogBloom(int level, long start) {
+        return get(logBloomsCf, bloomKey(level, start));
+    }
+
+    /**
+     * One iterator over {@code [bloomKey(level, first), bloomKey(level, to + 1))}: a query
+     * descending a matching range reads the block blooms under it in one pass, not one point
+     * lookup per height, and heights without logs cost nothing.
+     */
+    @Override
+    public void scanLogBlooms(int level, long from, long to, LogBloomVisitor visitor) {
+        byte[] end = bloomKey(level, to + 1);
+        try (org.rocksdb.RocksIterator it = db.newIterator(logBloomsCf)) {
+            for (it.seek(bloomKey(level, LogBloom.rangeStart(level, from)));
+                 it.isValid() && Arrays.compareUnsigned(it.key(), end) < 0; it.next()) {
+                if (!visitor.visit(java.nio.ByteBuffer.wrap(it.key(), 1, Long.BYTES).getLong(), it.value())) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static byte[] bloomKey(int level, long start) {
+        return java.nio.ByteBuffer.allocate(1 + Long.BYTES).put((byte) level).putLong(start).array();
+    }
+
     @Override
     public void pruneThrough(long maxHeight) {
         // Interval prune (deleteRange's end key is EXCLUSIVE, hence maxHeight + 1): rows left
         // by heights the processor no longer has in its RAM maps — everything committed before
         // a restart — would otherwise accumulate on disk forever. Synced, consistent with every
-        // other delete in this store (audit: prune durability).
+        // other delete in this store (audit: prune durability). Logs and their blooms are left
+        // alone: they are the history log queries read, not reorg undo.
         try {
             byte[] end = heightKey(maxHeight + 1);
             db.deleteRange(journalCf, writeOptions, heightKey(0), end);
@@ -219,9 +274,16 @@ public final class RocksDbContractStore implements ContractStore, AutoCloseable
 
     @Override
     public void applyBlock(long height, List<StorageChange> changes, byte[] journal, byte[] encodedReceipts) {
-        // All slot mutations AND the undo journal AND the receipts land in ONE synced WriteBatch:
-        // a crash mid-flush can no longer leave storage half-applied with no journal to rewind it
-        // (audit F1), and the receipts no longer cost a second fsync per block (audit perf).
+        applyBlock(height, changes, journal, encodedReceipts, null, null);
+    }
+
+    @Override
+    public void applyBlock(long height, List<StorageChange> changes, byte[] journal, byte[] encodedReceipts,
+                           byte[] encodedLogs, LogBloom bloom) {
+        // All slot mutations AND the undo journal AND the receipts AND the logs with their blooms
+        // land in ONE synced WriteBatch: a crash mid-flush can no longer leave storage
+        // half-applied with no journal to rewind it (audit F1), the receipts no longer cost a
+        // second fsync per block (audit perf), and a bloom never claims logs the store lacks.
         if (get(journalCf, heightKey(height)) != null) {
             // A double-apply would capture the already-mutated state as the journal's "prior" (audit F10).
             throw new IllegalStateException("contract store already has a journal at height " + height);
@@ -236,6 +298,12 @@ public final class RocksDbContractStore implements ContractStore, AutoCloseable
             if (encodedReceipts != null) {
                 batch.put(receiptsCf, heightKey(height), encodedReceipts);
             }
+            if (encodedLogs != null) {
+                batch.put(logsCf, heightKey(height), encodedLogs);
+            }
+            if (bloom != null) {
+                stageBlooms(batch, height, bloom);
+            }
             db.write(writeOptions, batch);
         } catch (RocksDBException e) {
             throw new IllegalStateException("contract store applyBlock failed", e);
@@ -254,12 +322,36 @@ public final class RocksDbContractStore implements ContractStore, AutoCloseable
             }
             batch.delete(journalCf, heightKey(height));
             batch.delete(receiptsCf, heightKey(height));
+            batch.delete(logsCf, heightKey(height));
+            // Only the block's own bloom: the range blooms keep its bits, a superset that costs a
+            // query a wasted look, never a missed log. The replacement block ORs in its own.
+            batch.delete(logBloomsCf, bloomKey(0, height));
             db.write(writeOptions, batch);
         } catch (RocksDBException e) {
             throw new IllegalStateException("contract store revertBlock failed", e);
         }
     }
 
+    /**
+     * Stages the block's bloom and ORs it into its enclosing range blooms. Read-modify-write is
+     * safe here: blocks commit one at a time under the consensus lock, so no other applyBlock
+     * can interleave between the read and the batch write.
+     */
+    private void stageBlooms(WriteBatch batch, long height, LogBloom bloom) throws RocksDBException {
+        batch.put(logBloomsCf, bloomKey(0, height), bloom.bits(0));
+        for (int level = 1; level < LogBloom.SPANS.length; level++) {
+            byte[] key = bloomKey(level, LogBloom.rangeStart(level, height));
+            byte[] bits = bloom.bits(level);
+            byte[] existing = db.get(logBloomsCf, key);
+            if (existing != null && existing.length != bits.length) {
+                Arrays.fill(bits, (byte) 0xFF); // sized under an older layout: "maybe" for every probe
+            } else if (existing != null) {
+                LogBloom.union(bits, existing);
+            }
+            batch.put(logBloomsCf, key, bits);
+        }
+    }
+
     /** Adds one mutation (set, or delete when the value is null) to {@code batch}. */
     private void stage(WriteBatch batch, StorageChange change) throws RocksDBException {
         if (change.isCode()) {
@@ -323,26 +415,113 @@ public final class RocksDbContractStore implements ContractStore, AutoCloseable
     @Override
     public void forEachCode(java.util.function.BiConsumer<PublicAddress, byte[]> consumer) {
         try (org.rocksdb.RocksIterator it = db.newIterator(codeCf)) {
-            for (it.seekToFirst(); it.isValid(); it.next()) {
-                consumer.accept(PublicAddress.of(it.key()), it.value());
-            }
+            scanCode(it, consumer);
         }
     }
 
     @Override
     public void forEachStorage(StorageConsumer consumer) {
+        try (org.rocksdb.RocksIterator it = db.newIterator(storageCf)) {
+            scanStorage(it, consumer);
+        }
+    }
+
+    private static void scanCode(org.rocksdb.RocksIterator it,
+                                 java.util.function.BiConsumer<PublicAddress, byte[]> consumer) {
+        for (it.seekToFirst(); it.isValid(); it.next()) {
+            consumer.accept(PublicAddress.of(it.key()), it.value());
+        }
+    }
+
+    private static void scanStorage(org.rocksdb.RocksIterator it, StorageConsumer consumer) {
         // Storage keys are contract address(25) ‖ key. This export feeds the state root peers
         // download, so a truncated key must fail LOUD here — zero-padding it would fabricate a
         // state entry that never existed (audit: storage-key decode).
-        try (org.rocksdb.RocksIterator it = db.newIterator(storageCf)) {
-            for (it.seekToFirst(); it.isValid(); it.next()) {
-                byte[] slot = it.key();
-                if (slot.length < PublicAddress.SIZE) {
-                    throw new IllegalStateException("corrupt contract storage key: " + slot.length
-                        + " bytes, expected at least " + PublicAddress.SIZE);
-                }
-                consumer.accept(PublicAddress.of(java.util.Arrays.copyOfRange(slot, 0, PublicAddress.SIZE)),
-                    java.util.Arrays.copyOfRange(slot, PublicAddress.SIZE, slot.length), it.value());
+        for (it.seekToFirst(); it.isValid(); it.next()) {
+            byte[] slot = it.key();
+            if (slot.length < PublicAddress.SIZE) {
+                throw new IllegalStateException("corrupt contract storage key: " + slot.length
+                    + " bytes, expected at least " + PublicAddress.SIZE);
+            }
+            consumer.accept(PublicAddress.of(java.util.Arrays.copyOfRange(slot, 0, PublicAddress.SIZE)),
+                java.util.Arrays.copyOfRange(slot, PublicAddress.SIZE, slot.length), it.value());
+        }
+    }
+
+    @Override
+    public ContractStore.Snapshot openSnapshot() {
+        // O(1): RocksDB pins the current sequence number, nothing is copied. applyBlock/revertBlock
+        // are single WriteBatches, so the view sees every slot of a block or none of it.
+        org.rocksdb.Snapshot snapshot = db.getSnapshot();
+        org.rocksdb.ReadOptions readOptions = new org.rocksdb.ReadOptions().setSnapshot(snapshot);
+        return new SnapshotView(snapshot, readOptions);
+    }
+
+    /**
+     * Read-only view over one pinned RocksDB snapshot. Reads are thread-safe (RocksDB gets are);
+     * {@link #close} releases the snapshot, which otherwise holds back compaction of every
+     * version it can still see — so it is meant for the lifetime of one read-only call, or of
+     * one state-snapshot export (which also enumerates through it).
+     */
+    private final class SnapshotView implements ContractStore.Snapshot {
+
+        private final org.rocksdb.Snapshot snapshot;
+        private final org.rocksdb.ReadOptions readOptions;
+        private final java.util.concurrent.atomic.AtomicBoolean closed =
+            new java.util.concurrent.atomic.AtomicBoolean();
+
+        SnapshotView(org.rocksdb.Snapshot snapshot, org.rocksdb.ReadOptions readOptions) {
+            this.snapshot = snapshot;
+            this.readOptions = readOptions;
+        }
+
+        @Override
+        public byte[] getCode(PublicAddress contract) {
+            return read(codeCf, contract.toBytes());
+        }
+
+        @Override
+        public byte[] getStorage(PublicAddress contract, byte[] key) {
+            return read(storageCf, slot(contract, key));
+        }
+
+        @Override
+        public void forEachCode(java.util.function.BiConsumer<PublicAddress, byte[]> consumer) {
+            try (org.rocksdb.RocksIterator it = iterator(codeCf)) {
+                scanCode(it, consumer);
+            }
+        }
+
+        @Override
+        public void forEachStorage(StorageConsumer consumer) {
+            try (org.rocksdb.RocksIterator it = iterator(storageCf)) {
+                scanStorage(it, consumer);
+            }
+        }
+
+        private org.rocksdb.RocksIterator iterator(ColumnFamilyHandle cf) {
+            if (closed.get()) {
+                throw new IllegalStateException("contract store snapshot is closed");
+            }
+            return db.newIterator(cf, readOptions);
+        }
+
+        private byte[] read(ColumnFamilyHandle cf, byte[] key) {
+            if (closed.get()) {
+                throw new IllegalStateException("contract store snapshot is closed");
+            }
+            try {
+                return db.get(cf, readOptions, key);
+            } catch (RocksDBException e) {
+                throw new IllegalStateException("contract store snapshot read failed", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                db.releaseSnapshot(snapshot);
+                readOptions.close();
             }
         }
     }
@@ -358,6 +537,11 @@ public final class RocksDbContractStore implements ContractStore, AutoCloseable
         bulkWritesSinceSync = 0;
     }
 
+    /** RocksDB get/write/seek latencies of this store, for the node's metrics. */
+    public StoreStats stats() {
+        return stats;
+    }
+
     @Override
     public void close() {
         // Best-effort fsync of any bulk-seeded writes not yet covered by a synced batch. A
@@ -373,9 +557,12 @@ public final class RocksDbContractStore implements ContractStore, AutoCloseable
         storageCf.close();
         journalCf.close();
         receiptsCf.close();
+        logsCf.close();
+        logBloomsCf.close();
         writeOptions.close();
         bulkWriteOptions.close();
         db.close();
         dbOptions.close(); // after the DB: rocksdbjni references the options while the DB is live
+        stats.close();
     }
 }
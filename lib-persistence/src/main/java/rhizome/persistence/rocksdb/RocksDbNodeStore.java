@@ -85,6 +85,7 @@ public final class RocksDbNodeStore implements AutoCloseable {
 
     private final RocksDB db;
     private final DBOptions dbOptions;
+    private final StoreStats stats;
     private final ColumnFamilyHandle defaultCf;
     private final ColumnFamilyHandle blocksCf;
     private final ColumnFamilyHandle headersCf;
@@ -171,13 +172,16 @@ public final class RocksDbNodeStore implements AutoCloseable {
         DBOptions options = new DBOptions()
             .setCreateIfMissing(true)
             .setCreateMissingColumnFamilies(true);
+        StoreStats stats = StoreStats.attach(options);
         try {
             this.db = RocksDB.open(options, path, descriptors, handles);
         } catch (RocksDBException e) {
             options.close();
+            stats.close();
             throw new IOException("Failed to open RocksDB at " + path, e);
         }
         this.dbOptions = options;
+        this.stats = stats;
         this.defaultCf = handles.get(0);
         this.blocksCf = handles.get(1);
         this.headersCf = handles.get(2);
@@ -331,6 +335,21 @@ public final class RocksDbNodeStore implements AutoCloseable {
         return new RocksLedger();
     }
 
+    /**
+     * {@code wallet}'s balance as of the last COMMITTED block (0 if it has none), read straight from
+     * the column family and never from the staging overlay: the ledger's own reads see the open
+     * block's not-yet-flushed writes (read-your-writes for the executing block), which a reader
+     * running off the engine lock — a read-only contract call — must never observe. Thread-safe.
+     */
+    public long committedBalance(PublicAddress wallet) {
+        try {
+            byte[] value = db.get(ledgerCf, wallet.toBytes());
+            return value == null ? 0L : checkedLong(value);
+        } catch (RocksDBException e) {
+            throw new LedgerException("Failed to read wallet", e);
+        }
+    }
+
     /** Adds the block commit's staged ledger writes (if any) to {@code batch}, for an atomic flush. */
     private void stagePendingLedgerInto(WriteBatch batch) throws RocksDBException {
         var pending = pendingLedger;
@@ -397,6 +416,11 @@ public final class RocksDbNodeStore implements AutoCloseable {
         }
     }
 
+    /** RocksDB get/write/seek latencies of this store, for the node's metrics. */
+    public StoreStats stats() {
+        return stats;
+    }
+
     @Override
     public void close() {
         // Best-effort fsync of any bulk-seeded writes not yet covered by a synced batch.
@@ -417,6 +441,7 @@ public final class RocksDbNodeStore implements AutoCloseable {
         bulkWriteOptions.close();
         db.close();
         dbOptions.close(); // after the DB: rocksdbjni references the options while the DB is live
+        stats.close();
     }
 
     private static byte[] heightKey(long height) {
@@ -753,11 +778,55 @@ public final class RocksDbNodeStore implements AutoCloseable {
         @Override
         public void forEachBalance(java.util.function.ObjLongConsumer<PublicAddress> consumer) {
             try (RocksIterator it = db.newIterator(ledgerCf)) {
-                for (it.seekToFirst(); it.isValid(); it.next()) {
-                    consumer.accept(PublicAddress.of(it.key()), checkedLong(it.value()));
-                }
+                scanLongs(it, consumer);
             }
         }
+
+        @Override
+        public Ledger.Snapshot openSnapshot() {
+            return new RocksLedgerSnapshot();
+        }
+    }
+
+    /**
+     * The ledger as of one pinned RocksDB snapshot: committed balances only — a block commit's
+     * staging overlay is invisible to it, as is everything flushed after the pin.
+     */
+    private final class RocksLedgerSnapshot implements Ledger.Snapshot {
+
+        private final PinnedReads reads = new PinnedReads(db, "ledger");
+
+        @Override
+        public boolean hasWallet(PublicAddress wallet) {
+            return reads.get(ledgerCf, wallet.toBytes()) != null;
+        }
+
+        @Override
+        public TransactionAmount getWalletValue(PublicAddress wallet) {
+            byte[] value = reads.get(ledgerCf, wallet.toBytes());
+            if (value == null) {
+                throw new LedgerException("Tried fetching wallet value for non-existent wallet");
+            }
+            return new TransactionAmount(checkedLong(value));
+        }
+
+        @Override
+        public long balanceOrZero(PublicAddress wallet) {
+            byte[] value = reads.get(ledgerCf, wallet.toBytes());
+            return value == null ? 0L : checkedLong(value);
+        }
+
+        @Override
+        public void forEachBalance(java.util.function.ObjLongConsumer<PublicAddress> consumer) {
+            try (RocksIterator it = reads.iterator(ledgerCf)) {
+                scanLongs(it, consumer);
+            }
+        }
+
+        @Override
+        public void close() {
+            reads.close();
+        }
     }
 
     // ---- NonceStore view (next expected account nonce per sender) ----
@@ -834,11 +903,51 @@ public final class RocksDbNodeStore implements AutoCloseable {
         @Override
         public void forEach(java.util.function.ObjLongConsumer<PublicAddress> consumer) {
             try (RocksIterator it = db.newIterator(noncesCf)) {
-                for (it.seekToFirst(); it.isValid(); it.next()) {
-                    consumer.accept(PublicAddress.of(it.key()), checkedLong(it.value()));
-                }
+                scanLongs(it, consumer);
             }
         }
+
+        @Override
+        public rhizome.core.blockchain.NonceStore.Snapshot openSnapshot() {
+            return new RocksNonceSnapshot();
+        }
+    }
+
+    /** The nonces as of one pinned RocksDB snapshot (committed values only, like the ledger's). */
+    private final class RocksNonceSnapshot implements rhizome.core.blockchain.NonceStore.Snapshot {
+
+        private final PinnedReads reads = new PinnedReads(db, "nonce store");
+
+        @Override
+        public long next(PublicAddress sender) {
+            byte[] value = reads.get(noncesCf, sender.toBytes());
+            return value == null ? 0L : checkedLong(value);
+        }
+
+        @Override
+        public long syncedThroughHeight() {
+            byte[] value = reads.get(metaCf, NONCE_HEIGHT_KEY);
+            return value == null ? 0 : checkedLong(value);
+        }
+
+        @Override
+        public void forEach(java.util.function.ObjLongConsumer<PublicAddress> consumer) {
+            try (RocksIterator it = reads.iterator(noncesCf)) {
+                scanLongs(it, consumer);
+            }
+        }
+
+        @Override
+        public void close() {
+            reads.close();
+        }
+    }
+
+    /** Visits every {@code (address, 8-byte value)} row under {@code it}, from the first. */
+    private static void scanLongs(RocksIterator it, java.util.function.ObjLongConsumer<PublicAddress> consumer) {
+        for (it.seekToFirst(); it.isValid(); it.next()) {
+            consumer.accept(PublicAddress.of(it.key()), checkedLong(it.value()));
+        }
     }
 
     /**
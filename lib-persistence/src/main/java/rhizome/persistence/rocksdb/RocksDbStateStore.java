@@ -15,7 +15,6 @@ import org.rocksdb.ReadOptions;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
-import org.rocksdb.Snapshot;
 import org.rocksdb.WriteOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,6 +44,7 @@ public final class RocksDbStateStore implements SmtNodeStore, RootStore, AutoClo
 
     private final RocksDB db;
     private final DBOptions dbOptions;
+    private final StoreStats stats;
     private final ColumnFamilyHandle defaultCf;
     private final ColumnFamilyHandle nodesCf;
     private final ColumnFamilyHandle rootsCf;
@@ -103,13 +103,16 @@ public final class RocksDbStateStore implements SmtNodeStore, RootStore, AutoClo
         // (rocksdbjni keeps referencing it — closing it live corrupts the native heap), and not
         // at all was a native-handle leak (audit F12).
         DBOptions options = new DBOptions().setCreateIfMissing(true).setCreateMissingColumnFamilies(true);
+        StoreStats stats = StoreStats.attach(options);
         try {
             this.db = RocksDB.open(options, path, descriptors, handles);
         } catch (RocksDBException e) {
             options.close();
+            stats.close();
             throw new IOException("Failed to open state store at " + path, e);
         }
         this.dbOptions = options;
+        this.stats = stats;
         this.defaultCf = handles.get(0);
         this.nodesCf = handles.get(1);
         this.rootsCf = handles.get(2);
@@ -133,6 +136,27 @@ public final class RocksDbStateStore implements SmtNodeStore, RootStore, AutoClo
         return raw(nodesCf, hash);
     }
 
+    /**
+     * A frozen view of the committed nodes (never the open batch's staged ones). Pinned, every
+     * node reachable from the current root stays readable through the view even after a later
+     * sweep deletes it — the sweep's deletes land at newer sequence numbers than the pin.
+     */
+    @Override
+    public SmtNodeStore.Snapshot openSnapshot() {
+        PinnedReads reads = new PinnedReads(db, "state store");
+        return new SmtNodeStore.Snapshot() {
+            @Override
+            public byte[] get(byte[] hash) {
+                return reads.get(nodesCf, hash);
+            }
+
+            @Override
+            public void close() {
+                reads.close();
+            }
+        };
+    }
+
     @Override
     public void put(byte[] hash, byte[] node) {
         var pending = pendingNodes;
@@ -262,7 +286,7 @@ public final class RocksDbStateStore implements SmtNodeStore, RootStore, AutoClo
      * externally observable (audit follow-up). Safety without the lock rests on TWO mechanisms:
      *
      * <ol>
-     *   <li>A RocksDB {@link Snapshot} taken AT TRIGGER TIME, inside {@code sweepNodesIfDue} —
+     *   <li>A RocksDB {@link org.rocksdb.Snapshot} taken AT TRIGGER TIME, inside {@code sweepNodesIfDue} —
      *   still under the consensus lock, after the block's {@code flushBatch} and {@code putRoot}
      *   (see StateAccumulator.applyBlock). Every node written before the snapshot is either
      *   reachable from a root the snapshot marks, or genuine garbage. Taking the snapshot later,
@@ -324,7 +348,7 @@ public final class RocksDbStateStore implements SmtNodeStore, RootStore, AutoClo
      * (its finally never executes in that case). getAndSet(null) on both sides makes a double
      * release impossible.
      */
-    private final java.util.concurrent.atomic.AtomicReference<Snapshot> gcSnapshotRef =
+    private final java.util.concurrent.atomic.AtomicReference<org.rocksdb.Snapshot> gcSnapshotRef =
         new java.util.concurrent.atomic.AtomicReference<>();
 
     long gcSweptThrough() { // package-private, for tests
@@ -343,7 +367,7 @@ public final class RocksDbStateStore implements SmtNodeStore, RootStore, AutoClo
         // consensus lock, after this block's flushBatch and putRoot) — see the GC javadoc for
         // why a GC-thread snapshot and unprotected re-puts both delete live nodes.
         gcProtected = java.util.concurrent.ConcurrentHashMap.newKeySet();
-        final Snapshot snapshot;
+        final org.rocksdb.Snapshot snapshot;
         try {
             snapshot = db.getSnapshot();
             gcSnapshotRef.set(snapshot);
@@ -363,7 +387,7 @@ public final class RocksDbStateStore implements SmtNodeStore, RootStore, AutoClo
                     log.error("state node sweep failed; will retry after the next interval", t);
                 } finally {
                     gcProtected = null; // stop recording; late adds land in the dropped set, harmless
-                    Snapshot s = gcSnapshotRef.getAndSet(null);
+                    org.rocksdb.Snapshot s = gcSnapshotRef.getAndSet(null);
                     if (s != null) {
                         db.releaseSnapshot(s);
                     }
@@ -373,7 +397,7 @@ public final class RocksDbStateStore implements SmtNodeStore, RootStore, AutoClo
         } catch (java.util.concurrent.RejectedExecutionException e) {
             // close() raced the trigger: the store is going away, there is nothing to sweep.
             gcProtected = null;
-            Snapshot s = gcSnapshotRef.getAndSet(null);
+            org.rocksdb.Snapshot s = gcSnapshotRef.getAndSet(null);
             if (s != null) {
                 db.releaseSnapshot(s);
             }
@@ -381,7 +405,21 @@ public final class RocksDbStateStore implements SmtNodeStore, RootStore, AutoClo
         }
     }
 
-    private void sweepNodes(long floor, Snapshot snapshot) {
+    private void sweepNodes(long floor, org.rocksdb.Snapshot snapshot) {
+        StateGcSweepEvent event = new StateGcSweepEvent();
+        event.begin();
+        try {
+            event.completed = sweepNodes(floor, snapshot, event);
+        } finally {
+            if (event.shouldCommit()) {
+                event.floor = floor;
+                event.commit();
+            }
+        }
+    }
+
+    /** The sweep itself; false when {@code close()} aborted it. Fills the event's counts. */
+    private boolean sweepNodes(long floor, org.rocksdb.Snapshot snapshot, StateGcSweepEvent event) {
         try (ReadOptions readOptions = new ReadOptions().setSnapshot(snapshot)) {
             // Mark: the union of nodes reachable from ALL retained roots is the live set — anything
             // else on disk is unreachable garbage (orphaned by replaced/pruned roots).
@@ -391,8 +429,9 @@ public final class RocksDbStateStore implements SmtNodeStore, RootStore, AutoClo
                     collectReachable(it.value(), live, readOptions);
                 }
             }
+            event.liveNodes = live.size();
             if (closing) {
-                return; // close() is tearing the store down: abort quietly, the watermark stays put
+                return false; // close() is tearing the store down: abort quietly, the watermark stays put
             }
             Runnable hook = gcAfterMarkHook; // test seam, null in production
             if (hook != null) {
@@ -403,7 +442,7 @@ public final class RocksDbStateStore implements SmtNodeStore, RootStore, AutoClo
                 // over-delete. The watermark still advances — otherwise every later pruneBelow
                 // would re-trigger this whole scan for nothing.
                 persistGcWatermark(floor);
-                return;
+                return true;
             }
             List<byte[]> chunk = new ArrayList<>(GC_DELETE_CHUNK);
             try (RocksIterator it = db.newIterator(nodesCf, readOptions)) {
@@ -412,6 +451,7 @@ public final class RocksDbStateStore implements SmtNodeStore, RootStore, AutoClo
                         continue;
                     }
                     chunk.add(it.key());
+                    event.garbageCandidates++;
                     if (chunk.size() >= GC_DELETE_CHUNK) {
                         deleteChunk(chunk, readOptions);
                         chunk.clear();
@@ -419,12 +459,13 @@ public final class RocksDbStateStore implements SmtNodeStore, RootStore, AutoClo
                 }
             }
             if (closing) {
-                return;
+                return false;
             }
             deleteChunk(chunk, readOptions);
             // Persist the watermark only after the sweep landed, so a crash mid-sweep re-sweeps
             // (the sweep is idempotent: it deletes only currently-unreachable nodes).
             persistGcWatermark(floor);
+            return true;
         } catch (RocksDBException e) {
             throw new IllegalStateException("state node sweep failed", e);
         }
@@ -553,6 +594,11 @@ public final class RocksDbStateStore implements SmtNodeStore, RootStore, AutoClo
         }
     }
 
+    /** RocksDB get/write/seek latencies of this store, for the node's metrics. */
+    public StoreStats stats() {
+        return stats;
+    }
+
     @Override
     public void close() {
         // Stop an in-flight GC sweep BEFORE touching the handles: rocksdbjni's isOwningHandle
@@ -581,7 +627,7 @@ public final class RocksDbStateStore implements SmtNodeStore, RootStore, AutoClo
             // shutdownNow() discarded a submitted-but-never-started sweep: its finally never
             // ran, so the trigger-time snapshot it captured was never released — release it
             // before closing the DB under it.
-            Snapshot s = gcSnapshotRef.getAndSet(null);
+            org.rocksdb.Snapshot s = gcSnapshotRef.getAndSet(null);
             if (s != null) {
                 db.releaseSnapshot(s);
             }
@@ -601,5 +647,6 @@ public final class RocksDbStateStore implements SmtNodeStore, RootStore, AutoClo
         bulkWriteOptions.close();
         db.close();
         dbOptions.close(); // after the DB: rocksdbjni references the options while the DB is live
+        stats.close();
     }
 }
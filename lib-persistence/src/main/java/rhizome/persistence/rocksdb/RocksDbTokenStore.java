@@ -46,6 +46,7 @@ public final class RocksDbTokenStore implements TokenStore, AutoCloseable {
 
     private final RocksDB db;
     private final DBOptions dbOptions;
+    private final StoreStats stats;
     private final ColumnFamilyHandle defaultCf;
     private final ColumnFamilyHandle metaCf;
     private final ColumnFamilyHandle balanceCf;
@@ -68,13 +69,16 @@ public final class RocksDbTokenStore implements TokenStore, AutoCloseable {
         // (rocksdbjni keeps referencing it — closing it live corrupts the native heap), and not
         // at all was a native-handle leak (audit F12).
         DBOptions options = new DBOptions().setCreateIfMissing(true).setCreateMissingColumnFamilies(true);
+        StoreStats stats = StoreStats.attach(options);
         try {
             this.db = RocksDB.open(options, path, descriptors, handles);
         } catch (RocksDBException e) {
             options.close();
+            stats.close();
             throw new IOException("Failed to open token store at " + path, e);
         }
         this.dbOptions = options;
+        this.stats = stats;
         this.defaultCf = handles.get(0);
         this.metaCf = handles.get(1);
         this.balanceCf = handles.get(2);
@@ -359,22 +363,77 @@ public final class RocksDbTokenStore implements TokenStore, AutoCloseable {
     @Override
     public void forEachMeta(java.util.function.Consumer<TokenMeta> consumer) {
         try (RocksIterator it = db.newIterator(metaCf)) {
-            for (it.seekToFirst(); it.isValid(); it.next()) {
-                consumer.accept(TokenMeta.deserialize(it.value()));
-            }
+            scanMetas(it, consumer);
         }
     }
 
     @Override
     public void forEachBalance(BalanceConsumer consumer) {
-        // Balance keys are tokenId(32) ‖ address(25).
         try (RocksIterator it = db.newIterator(balanceCf)) {
-            for (it.seekToFirst(); it.isValid(); it.next()) {
-                byte[] key = it.key();
-                consumer.accept(Arrays.copyOfRange(key, 0, 32), Arrays.copyOfRange(key, 32, key.length),
-                    bytesToLong(it.value(), 0));
+            scanBalances(it, consumer);
+        }
+    }
+
+    private static void scanMetas(RocksIterator it, java.util.function.Consumer<TokenMeta> consumer) {
+        for (it.seekToFirst(); it.isValid(); it.next()) {
+            consumer.accept(TokenMeta.deserialize(it.value()));
+        }
+    }
+
+    private static void scanBalances(RocksIterator it, BalanceConsumer consumer) {
+        // Balance keys are tokenId(32) ‖ address(25).
+        for (it.seekToFirst(); it.isValid(); it.next()) {
+            byte[] key = it.key();
+            consumer.accept(Arrays.copyOfRange(key, 0, 32), Arrays.copyOfRange(key, 32, key.length),
+                bytesToLong(it.value(), 0));
+        }
+    }
+
+    @Override
+    public TokenStore.Snapshot openSnapshot() {
+        return new TokenSnapshot();
+    }
+
+    /** Token metadata and balances as of one pinned RocksDB snapshot. */
+    private final class TokenSnapshot implements TokenStore.Snapshot {
+
+        private final PinnedReads reads = new PinnedReads(db, "token store");
+
+        @Override
+        public TokenMeta getMeta(byte[] tokenId) {
+            byte[] bytes = reads.get(metaCf, tokenId);
+            return bytes == null ? null : TokenMeta.deserialize(bytes);
+        }
+
+        @Override
+        public long getBalance(byte[] tokenId, byte[] address) {
+            byte[] bytes = reads.get(balanceCf, concat(tokenId, address));
+            return bytes == null ? 0L : bytesToLong(bytes, 0);
+        }
+
+        @Override
+        public void forEachMeta(java.util.function.Consumer<TokenMeta> consumer) {
+            try (RocksIterator it = reads.iterator(metaCf)) {
+                scanMetas(it, consumer);
             }
         }
+
+        @Override
+        public void forEachBalance(BalanceConsumer consumer) {
+            try (RocksIterator it = reads.iterator(balanceCf)) {
+                scanBalances(it, consumer);
+            }
+        }
+
+        @Override
+        public void close() {
+            reads.close();
+        }
+    }
+
+    /** RocksDB get/write/seek latencies of this store, for the node's metrics. */
+    public StoreStats stats() {
+        return stats;
     }
 
     @Override
@@ -388,5 +447,6 @@ public final class RocksDbTokenStore implements TokenStore, AutoCloseable {
         writeOptions.close();
         db.close();
         dbOptions.close(); // after the DB: rocksdbjni references the options while the DB is live
+        stats.close();
     }
 }
@@ -0,0 +1,34 @@
+package rhizome.persistence.rocksdb;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for one state-node GC sweep of {@link RocksDbStateStore}: mark over every retained
+ * root, then a scan of the node column family deleting what was not reached. Its duration is the
+ * whole background sweep. Disabled unless a recording enables {@code rhizome.StateGcSweep}; the
+ * sweep runs at most once per prune interval, so the event costs nothing on the write path.
+ */
+@Name("rhizome.StateGcSweep")
+@Label("State GC Sweep")
+@Category({"Rhizome", "Storage"})
+@Description("One mark-and-sweep pass over the state trie nodes")
+final class StateGcSweepEvent extends jdk.jfr.Event {
+
+    @Label("Floor")
+    @Description("Lowest retained root height the sweep ran for")
+    long floor;
+
+    @Label("Live Nodes")
+    int liveNodes;
+
+    @Label("Garbage Candidates")
+    @Description("Unreached nodes queued for deletion (re-put keys are filtered before the write)")
+    long garbageCandidates;
+
+    @Label("Completed")
+    @Description("False when the store closed mid-sweep and the watermark was left in place")
+    boolean completed;
+}
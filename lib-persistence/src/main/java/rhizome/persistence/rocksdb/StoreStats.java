@@ -0,0 +1,70 @@
+package rhizome.persistence.rocksdb;
+
+import org.rocksdb.DBOptions;
+import org.rocksdb.HistogramData;
+import org.rocksdb.HistogramType;
+import org.rocksdb.Statistics;
+import org.rocksdb.StatsLevel;
+
+/**
+ * One store's RocksDB operation latencies, for node telemetry. Wraps the native
+ * {@link Statistics} object attached to the store's {@link DBOptions} at open: RocksDB records
+ * every get, write and seek into its own per-core histograms, so reading them costs the hot path
+ * nothing beyond what the engine already does at {@link StatsLevel#EXCEPT_DETAILED_TIMERS} (no
+ * per-mutex or per-compaction-step timers). A read copies the histogram out of native memory;
+ * it is meant for a scrape, not a per-request call.
+ *
+ * <p>Owned by the store: closed in the store's {@code close()} after the options. A read after
+ * close returns {@link Latency#EMPTY} rather than touching the freed native handle.
+ */
+public final class StoreStats implements AutoCloseable {
+
+    /** The operations sampled per store. */
+    public enum Op {
+        GET(HistogramType.DB_GET),
+        WRITE(HistogramType.DB_WRITE),
+        SEEK(HistogramType.DB_SEEK);
+
+        private final HistogramType histogram;
+
+        Op(HistogramType histogram) {
+            this.histogram = histogram;
+        }
+    }
+
+    /** Operations since open, their summed latency, and two quantiles — all in microseconds. */
+    public record Latency(long count, long sumMicros, double p50Micros, double p99Micros) {
+        public static final Latency EMPTY = new Latency(0, 0, 0, 0);
+    }
+
+    private final Statistics statistics;
+    private boolean closed;
+
+    private StoreStats(Statistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /** Creates the statistics and attaches them to {@code options}, before the DB is opened. */
+    static StoreStats attach(DBOptions options) {
+        Statistics statistics = new Statistics();
+        statistics.setStatsLevel(StatsLevel.EXCEPT_DETAILED_TIMERS);
+        options.setStatistics(statistics);
+        return new StoreStats(statistics);
+    }
+
+    public synchronized Latency latency(Op op) {
+        if (closed) {
+            return Latency.EMPTY;
+        }
+        HistogramData h = statistics.getHistogramData(op.histogram);
+        return new Latency(h.getCount(), h.getSum(), h.getMedian(), h.getPercentile99());
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            statistics.close();
+        }
+    }
+}
@@ -141,4 +141,45 @@ class RocksDbBoxStoreTest {
             assertEquals(a, store.get(a.id())); // the first commit is untouched
         }
     }
+
+    @Test
+    void registerIndexFollowsWritesRevertsAndReopens(@TempDir Path dir) throws Exception {
+        PublicAddress owner = PublicAddress.random();
+        byte[] longValue = new byte[40]; // past the 32-byte key prefix
+        longValue[39] = 1;
+        byte[] sharesPrefix = longValue.clone();
+        sharesPrefix[39] = 2;
+        Box tagged = new Box(Box.deriveId(owner, 0), owner, 1000, 1, 5,
+            List.of(BoxRegister.string("x"), BoxRegister.bytes(longValue)));
+        Box other = new Box(Box.deriveId(owner, 1), owner, 1000, 1, 5,
+            List.of(BoxRegister.string("y"), BoxRegister.bytes(sharesPrefix)));
+        byte[] x = "x".getBytes();
+        try (var store = new RocksDbBoxStore(dir.toString())) {
+            store.applyBlock(2, List.of(BoxStore.BoxMutation.write(tagged), BoxStore.BoxMutation.write(other)));
+            assertEquals(1, store.boxIdsByRegister(0, x, null, 10).size());
+            assertTrue(store.boxIdsByRegister(1, x, null, 10).isEmpty(), "index is per register slot");
+            // A value past the prefix lands in a shared group: both are candidates, re-tested by the scan.
+            assertEquals(2, store.boxIdsByRegister(1, longValue, null, 10).size());
+
+            // An update moves the box between groups; the revert moves it back.
+            store.applyBlock(3, List.of(BoxStore.BoxMutation.write(
+                tagged.updated(1000, List.of(BoxRegister.string("z")), 3))));
+            assertTrue(store.boxIdsByRegister(0, x, null, 10).isEmpty());
+            assertEquals(1, store.boxIdsByRegister(0, "z".getBytes(), null, 10).size());
+            store.revertBlock(3);
+            assertEquals(1, store.boxIdsByRegister(0, x, null, 10).size());
+            assertTrue(store.boxIdsByRegister(0, "z".getBytes(), null, 10).isEmpty());
+        }
+
+        // Run without the index: it is dropped and nothing is maintained.
+        try (var store = new RocksDbBoxStore(dir.toString(), false)) {
+            assertNull(store.boxIdsByRegister(0, x, null, 10));
+            store.applyBlock(4, List.of(BoxStore.BoxMutation.delete(tagged.id())));
+        }
+        // Re-enabled: rebuilt from the boxes, so the delete made while it was off is reflected.
+        try (var store = new RocksDbBoxStore(dir.toString())) {
+            assertTrue(store.boxIdsByRegister(0, x, null, 10).isEmpty());
+            assertEquals(1, store.boxIdsByRegister(0, "y".getBytes(), null, 10).size());
+        }
+    }
 }
@@ -2,21 +2,40 @@ package rhizome;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import rhizome.core.blockchain.ContractProcessor.ContractLog;
 import rhizome.core.ledger.PublicAddress;
 import rhizome.persistence.rocksdb.RocksDbContractStore;
+import rhizome.vm.LogBloom;
 import rhizome.vm.StorageChange;
+import rhizome.vm.WasmContractProcessor;
+import rhizome.vm.WasmVm;
 
 class RocksDbContractStoreTest {
 
+    private static final byte[] TRANSFER = "transfer".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MINT = "mint".getBytes(StandardCharsets.UTF_8);
+
+    private static ContractLog log(PublicAddress contract, byte[] topic) {
+        return new ContractLog(contract, topic, new byte[] {7});
+    }
+
+    /** Commits a block that touched no storage but emitted {@code logs}, as the processor does. */
+    private static void applyLogs(RocksDbContractStore store, long height, List<ContractLog> logs) {
+        store.applyBlock(height, List.of(), null, null, WasmContractProcessor.encodeLogs(logs), LogBloom.of(logs));
+    }
+
     @Test
     void persistsCodeAndStorageAcrossReopen(@TempDir Path dir) throws Exception {
         PublicAddress contract = PublicAddress.random();
@@ -192,4 +211,133 @@ class RocksDbContractStoreTest {
             assertNull(store.getJournal(11));
         }
     }
+
+    @Test
+    void logsAndBloomsCommitWithTheBlockAndAreDescendedAfterReopen(@TempDir Path dir) throws Exception {
+        PublicAddress a = PublicAddress.random();
+        PublicAddress b = PublicAddress.random();
+        try (var store = new RocksDbContractStore(dir.toString())) {
+            assertTrue(store.indexesLogs());
+            applyLogs(store, 5, List.of(log(a, TRANSFER)));
+            applyLogs(store, 1_500, List.of(log(b, TRANSFER)));
+            applyLogs(store, 70_000, List.of(log(a, MINT), log(b, TRANSFER)));
+            assertNull(store.getLogs(6));
+            assertNull(store.getLogBloom(0, 6));
+        }
+        // The index is on disk: a fresh processor over the reopened store descends it.
+        try (var store = new RocksDbContractStore(dir.toString())) {
+            WasmContractProcessor processor = new WasmContractProcessor(new WasmVm(), store);
+            var found = processor.logCandidates(1, 100_000, a, null, 1_000);
+            assertArrayEquals(new long[] {5, 70_000}, found.heights());
+            assertEquals(100_000, found.scannedTo());
+            // Three range rows and the block rows under the two that may hold a: the 1 024 range
+            // holding only b is ruled out by its one row, and its blocks are never read.
+            assertEquals(5, found.indexRows());
+            assertArrayEquals(new long[] {5, 1_500, 70_000},
+                processor.logCandidates(1, 100_000, null, TRANSFER, 1_000).heights());
+            assertArrayEquals(new long[] {70_000}, processor.logCandidates(6, 100_000, a, null, 1_000).heights());
+            assertArrayEquals(new long[] {1_500}, processor.logCandidates(1_500, 1_500, null, TRANSFER, 1_000).heights());
+            // The row budget (rows read plus candidates) cuts the search short at a whole height,
+            // in height order, and says where to resume.
+            var cut = processor.logCandidates(1, 100_000, null, TRANSFER, 5);
+            assertArrayEquals(new long[] {5}, cut.heights());
+            assertEquals(1_023, cut.scannedTo(), "block 1 500's row and candidate would make 6");
+            assertEquals(3, cut.indexRows());
+            cut = processor.logCandidates(1, 100_000, null, TRANSFER, 6);
+            assertArrayEquals(new long[] {5, 1_500}, cut.heights());
+            assertEquals(2_047, cut.scannedTo());
+            // Items are ORed per block, not per log: a and TRANSFER both appear at 70 000, so the
+            // bloom cannot rule it out — the caller's exact filter drops it.
+            assertArrayEquals(new long[] {5, 70_000}, processor.logCandidates(1, 100_000, a, TRANSFER, 1_000).heights());
+            assertArrayEquals(new long[0],
+                processor.logCandidates(1, 100_000, PublicAddress.random(), null, 1_000).heights());
+
+            List<ContractLog> logs = processor.logs(70_000);
+            assertEquals(2, logs.size());
+            assertEquals(a, logs.get(0).contract());
+            assertArrayEquals(MINT, logs.get(0).topic());
+            assertEquals(b, logs.get(1).contract());
+        }
+    }
+
+    @Test
+    void rangeBloomsAreTheUnionOfTheBlocksUnderThem(@TempDir Path dir) throws Exception {
+        PublicAddress a = PublicAddress.random();
+        PublicAddress b = PublicAddress.random();
+        List<ContractLog> first = List.of(log(a, TRANSFER));
+        List<ContractLog> second = List.of(log(b, MINT));
+        try (var store = new RocksDbContractStore(dir.toString())) {
+            applyLogs(store, 1_030, first);
+            applyLogs(store, 2_000, second); // same 1 024-block range (1 024..2 047)
+            for (int level = 1; level < LogBloom.SPANS.length; level++) {
+                byte[] expected = LogBloom.of(first).bits(level);
+                LogBloom.union(expected, LogBloom.of(second).bits(level));
+                assertArrayEquals(expected, store.getLogBloom(level, LogBloom.rangeStart(level, 1_030)),
+                    "level " + level);
+            }
+            // A block's own bloom holds only its own items.
+            assertTrue(LogBloom.probe(a, null).mayMatch(store.getLogBloom(0, 1_030), 0));
+            assertFalse(LogBloom.probe(b, null).mayMatch(store.getLogBloom(0, 1_030), 0));
+            assertNull(store.getLogBloom(1, 0), "no block under the first range emitted logs");
+        }
+    }
+
+    @Test
+    void aFullRangeWithoutTheQueriedItemsCostsOneRow(@TempDir Path dir) throws Exception {
+        PublicAddress a = numbered(-1);
+        try (var store = new RocksDbContractStore(dir.toString())) {
+            applyLogs(store, 5, List.of(log(a, TRANSFER)));
+            // Every block of the next range emits two logs of other contracts and topics.
+            for (int h = 1_024; h < 2_048; h++) {
+                applyLogs(store, h, List.of(log(numbered(2 * h), topic(2 * h)),
+                    log(numbered(2 * h + 1), topic(2 * h + 1))));
+            }
+            WasmContractProcessor processor = new WasmContractProcessor(new WasmVm(), store);
+            var found = processor.logCandidates(1, 2_047, a, TRANSFER, 1_000);
+            assertArrayEquals(new long[] {5}, found.heights());
+            assertEquals(2_047, found.scannedTo());
+            assertEquals(3, found.indexRows(), "the first range and block 5, then one row for the full range");
+            // A probe the full range does hold descends it and reads its block rows in one pass.
+            found = processor.logCandidates(1, 2_047, numbered(3_000), topic(3_000), 1_100);
+            assertArrayEquals(new long[] {1_500}, found.heights());
+            assertEquals(2 + 1_024, found.indexRows());
+        }
+    }
+
+    private static PublicAddress numbered(int n) {
+        byte[] bytes = new byte[PublicAddress.SIZE];
+        java.nio.ByteBuffer.wrap(bytes).putInt(n);
+        return PublicAddress.of(bytes);
+    }
+
+    private static byte[] topic(int n) {
+        return ("topic-" + n).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void revertDropsTheBlocksLogsAndBloomButItsRangesKeepTheBits(@TempDir Path dir) throws Exception {
+        PublicAddress a = PublicAddress.random();
+        PublicAddress b = PublicAddress.random();
+        try (var store = new RocksDbContractStore(dir.toString())) {
+            applyLogs(store, 5, List.of(log(a, TRANSFER)));
+            store.revertBlock(5, List.of());
+            assertNull(store.getLogs(5));
+            assertNull(store.getLogBloom(0, 5));
+            // The range filters cannot be un-ORed: they still say "maybe" for a, which costs a
+            // look at the (now empty) block level, never a wrong answer.
+            assertTrue(LogBloom.probe(a, null).mayMatch(store.getLogBloom(1, 0), 1));
+            WasmContractProcessor processor = new WasmContractProcessor(new WasmVm(), store);
+            assertArrayEquals(new long[0], processor.logCandidates(1, 100, a, null, 1_000).heights());
+            assertEquals(List.of(), processor.logs(5));
+
+            // The replacement block ORs its own items in.
+            applyLogs(store, 5, List.of(log(b, MINT)));
+        }
+        try (var store = new RocksDbContractStore(dir.toString())) {
+            WasmContractProcessor processor = new WasmContractProcessor(new WasmVm(), store);
+            assertArrayEquals(new long[] {5}, processor.logCandidates(1, 100, b, MINT, 1_000).heights());
+            assertArrayEquals(new long[0], processor.logCandidates(1, 100, a, null, 1_000).heights());
+            assertEquals(b, processor.logs(5).get(0).contract());
+        }
+    }
 }
@@ -83,6 +83,37 @@ class RocksDbNodeStoreTest {
         }
     }
 
+    @Test
+    void ledgerAndNonceSnapshotsAreFrozenAtOpen() throws IOException {
+        // The state-snapshot producer pins these under the engine lock and enumerates them off
+        // it: writes landing after the pin must be invisible to the view, and it is read-only.
+        try (RocksDbNodeStore store = new RocksDbNodeStore(tempDir.resolve("db").toString())) {
+            Ledger ledger = store.ledger();
+            PublicAddress w = PublicAddress.random();
+            ledger.createWallet(w);
+            ledger.deposit(w, new TransactionAmount(100));
+            store.nonceStore().set(w, 3);
+
+            try (Ledger.Snapshot frozen = ledger.openSnapshot();
+                 var frozenNonces = store.nonceStore().openSnapshot()) {
+                PublicAddress late = PublicAddress.random();
+                ledger.deposit(w, new TransactionAmount(50));
+                ledger.createWallet(late);
+                store.nonceStore().set(w, 4);
+
+                assertEquals(100, frozen.getWalletValue(w).amount());
+                assertFalse(frozen.hasWallet(late));
+                assertEquals(3, frozenNonces.next(w));
+                int[] rows = {0};
+                frozen.forEachBalance((addr, balance) -> rows[0]++);
+                assertEquals(1, rows[0]);
+                assertThrows(UnsupportedOperationException.class,
+                    () -> frozen.deposit(w, new TransactionAmount(1)));
+            }
+            assertEquals(150, ledger.getWalletValue(w).amount());
+        }
+    }
+
     @Test
     void chainStoreAppendPopIsAtomicAndIndexed() throws IOException {
         NetworkParameters params = fastParams();
@@ -48,6 +48,24 @@ class RocksDbStateStoreTest {
         }
     }
 
+    @Test
+    void nodeSnapshotProvesItsRootAndIgnoresLaterWrites(@TempDir Path dir) throws Exception {
+        try (var store = new RocksDbStateStore(dir.toString())) {
+            SparseMerkleTree tree = new SparseMerkleTree(store);
+            byte[] root = SparseMerkleTree.EMPTY_ROOT;
+            for (int i = 1; i <= 20; i++) {
+                root = tree.update(root, key32(i), key32(i));
+            }
+            try (var view = store.openSnapshot()) {
+                byte[] later = tree.update(root, key32(99), key32(99));
+                assertNull(view.get(later), "a node written after the pin is invisible");
+                StateProof proof = new SparseMerkleTree(view).prove(root, key32(7));
+                assertTrue(SparseMerkleTree.verify(root, key32(7), key32(7), proof));
+                assertThrows(UnsupportedOperationException.class, () -> view.put(key32(1), new byte[] {1}));
+            }
+        }
+    }
+
     @Test
     void batchedNodeWritesAreReadYourWritesFlushDurablyAndDropOnDiscard(@TempDir Path dir) throws Exception {
         byte[] hash = new byte[32];
@@ -0,0 +1,41 @@
+package rhizome.vm;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for one profiled consensus contract call frame (see {@link ContractProfiler}). Its
+ * duration is the frame's inclusive wall time; {@code gasUsed} is the frame's self gas, nested
+ * {@code call_contract} frames being separate events one {@code depth} deeper. Disabled unless a
+ * recording enables {@code rhizome.ContractCall}, in which case it costs one allocation per frame.
+ */
+@Name("rhizome.ContractCall")
+@Label("Contract Call")
+@Category({"Rhizome", "VM"})
+@Description("One consensus contract call frame")
+final class ContractCallEvent extends jdk.jfr.Event {
+
+    @Label("Contract")
+    String contract;
+
+    @Label("Depth")
+    @Description("Nesting depth of the frame (0 = the transaction's own call)")
+    int depth;
+
+    @Label("Self Gas Used")
+    long gasUsed;
+
+    @Label("Success")
+    boolean success;
+
+    @Label("Storage Reads")
+    int storageReads;
+
+    @Label("Storage Writes")
+    int storageWrites;
+
+    @Label("Module Cache Hit")
+    boolean moduleCacheHit;
+}
@@ -0,0 +1,276 @@
+package rhizome.vm;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import rhizome.core.ledger.PublicAddress;
+
+/**
+ * Per-contract execution profile of consensus contract calls: which contracts dominate block
+ * execution, and why. For every executed call frame {@link WasmContractProcessor} records the
+ * frame's SELF cost (nested {@code call_contract} frames are charged to their own contract, not the
+ * caller): wall time, gas, storage reads/writes, and whether the module came from the VM's module
+ * cache. Served by {@code GET /contracts/profile}; each frame is also a {@link ContractCallEvent}
+ * for JFR.
+ *
+ * <p>Purely node-local observability: it reads the clock and the meter, never writes either, so
+ * recording can never change an execution result. Dry-runs are not recorded — the profile answers
+ * what block execution costs, and untrusted read-only traffic would drown it.
+ *
+ * <p>Lock-free on the record path: counters are {@link LongAdder}s, the wall-time and gas
+ * distributions are fixed log2 histograms of {@link AtomicLongArray} buckets, and the per-contract
+ * table is a {@link ConcurrentHashMap} capped at {@link #MAX_CONTRACTS} entries — past the cap, new
+ * contracts fold into one {@link #OTHER} row, so a deploy spam cannot grow it without bound.
+ *
+ * <p>Optional sampled per-function profiling: with {@code sampleEvery = N > 0}, one call frame in
+ * N runs with a {@link FunctionTimer} the interpreter feeds on every WASM function entry and exit
+ * (see {@link DepthLimitedInterpreterMachine}), giving self/total time per function index of that
+ * contract. Unsampled frames pay one thread-local read per function call.
+ */
+public final class ContractProfiler {
+
+    /** Most contracts tracked individually; the rest aggregate under {@link #OTHER}. */
+    static final int MAX_CONTRACTS = 4096;
+
+    /** Most function indexes tracked per contract (a module may declare far more; few are hot). */
+    static final int MAX_FUNCTIONS_PER_CONTRACT = 1024;
+
+    /** Row key for every contract past {@link #MAX_CONTRACTS}. */
+    public static final PublicAddress OTHER = PublicAddress.empty();
+
+    /**
+     * The sampled frame's timer on this execution thread, or null. A call tree runs on one
+     * {@code rhizome-wasm} thread and {@link WasmContractProcessor} swaps this per call frame, so a
+     * nested contract never feeds its caller's timer.
+     */
+    static final ThreadLocal<FunctionTimer> ACTIVE_TIMER = new ThreadLocal<>();
+
+    private final ConcurrentHashMap<PublicAddress, ContractStats> contracts = new ConcurrentHashMap<>();
+    private final int sampleEvery;
+    private final AtomicLong frames = new AtomicLong();
+    private final LongAdder totalCalls = new LongAdder();
+    private final LongAdder totalGas = new LongAdder();
+    private final LongAdder totalWallNanos = new LongAdder();
+
+    /** A profiler sampling one frame in {@code sampleEvery} per function (0 = no function sampling). */
+    public ContractProfiler(int sampleEvery) {
+        if (sampleEvery < 0) {
+            throw new IllegalArgumentException("sampleEvery must be >= 0: " + sampleEvery);
+        }
+        this.sampleEvery = sampleEvery;
+    }
+
+    /** One frame in this many is function-sampled; 0 = never. */
+    public int sampleEvery() {
+        return sampleEvery;
+    }
+
+    /** A fresh timer if the next frame is sampled, else null. */
+    FunctionTimer maybeSample() {
+        if (sampleEvery == 0 || frames.incrementAndGet() % sampleEvery != 0) {
+            return null;
+        }
+        return new FunctionTimer();
+    }
+
+    /** Records one call frame's self cost (and its function samples, if it was sampled). */
+    void record(PublicAddress contract, boolean success, long selfNanos, long selfGas,
+                int storageReads, int storageWrites, boolean moduleCacheHit, FunctionTimer timer) {
+        totalCalls.increment();
+        totalGas.add(selfGas);
+        totalWallNanos.add(selfNanos);
+        ContractStats stats = statsFor(contract);
+        stats.calls.increment();
+        if (!success) {
+            stats.failures.increment();
+        }
+        stats.wallNanos.add(selfNanos);
+        stats.gas.add(selfGas);
+        stats.storageReads.add(storageReads);
+        stats.storageWrites.add(storageWrites);
+        (moduleCacheHit ? stats.cacheHits : stats.cacheMisses).increment();
+        stats.wallHistogram.record(selfNanos);
+        stats.gasHistogram.record(selfGas);
+        if (timer != null) {
+            timer.drainInto(stats);
+        }
+    }
+
+    private ContractStats statsFor(PublicAddress contract) {
+        ContractStats stats = contracts.get(contract);
+        if (stats != null) {
+            return stats;
+        }
+        // Racy by at most a few entries past the cap (concurrent first sightings) — a bound, not
+        // an exact limit, which is all a memory cap needs.
+        PublicAddress key = contracts.size() >= MAX_CONTRACTS ? OTHER : contract;
+        return contracts.computeIfAbsent(key, k -> new ContractStats());
+    }
+
+    /** Drops every recorded profile (operator reset, tests). */
+    public void reset() {
+        contracts.clear();
+    }
+
+    /** Every recorded frame summed, contract-independent; monotonic (a {@link #reset} keeps them). */
+    public record Totals(long calls, long gas, long wallNanos) { }
+
+    /** Totals since start, for rate metrics (gas per second is a delta of {@code gas} over time). */
+    public Totals totals() {
+        return new Totals(totalCalls.sum(), totalGas.sum(), totalWallNanos.sum());
+    }
+
+    /** One contract's aggregated profile. Times in nanoseconds; percentiles are bucket upper bounds. */
+    public record Profile(PublicAddress contract, long calls, long failures, long wallNanos, long gas,
+                          long storageReads, long storageWrites, long cacheHits, long cacheMisses,
+                          long wallP50Nanos, long wallP99Nanos, long gasP50, long gasP99,
+                          List<FunctionProfile> functions) { }
+
+    /** One sampled WASM function: calls seen in sampled frames, and their self/total time. */
+    public record FunctionProfile(int index, long calls, long selfNanos, long totalNanos) { }
+
+    /** Sort orders for {@link #snapshot}. */
+    public enum Order { WALL, GAS, CALLS }
+
+    /**
+     * The {@code limit} heaviest contracts by {@code order}, each with at most {@code topFunctions}
+     * of its sampled functions (heaviest self time first). A point-in-time read of live counters —
+     * rows may be mid-update relative to each other, never torn within a counter.
+     */
+    public List<Profile> snapshot(Order order, int limit, int topFunctions) {
+        List<Profile> out = new ArrayList<>(contracts.size());
+        contracts.forEach((contract, s) -> out.add(s.toProfile(contract, topFunctions)));
+        Comparator<Profile> by = switch (order) {
+            case WALL -> Comparator.comparingLong(Profile::wallNanos);
+            case GAS -> Comparator.comparingLong(Profile::gas);
+            case CALLS -> Comparator.comparingLong(Profile::calls);
+        };
+        out.sort(by.reversed());
+        return out.size() > limit ? List.copyOf(out.subList(0, limit)) : out;
+    }
+
+    /** Live counters of one contract. */
+    static final class ContractStats {
+        final LongAdder calls = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder wallNanos = new LongAdder();
+        final LongAdder gas = new LongAdder();
+        final LongAdder storageReads = new LongAdder();
+        final LongAdder storageWrites = new LongAdder();
+        final LongAdder cacheHits = new LongAdder();
+        final LongAdder cacheMisses = new LongAdder();
+        final Log2Histogram wallHistogram = new Log2Histogram();
+        final Log2Histogram gasHistogram = new Log2Histogram();
+        final ConcurrentHashMap<Integer, FunctionStats> functions = new ConcurrentHashMap<>();
+
+        FunctionStats function(int index) {
+            FunctionStats f = functions.get(index);
+            if (f != null || functions.size() >= MAX_FUNCTIONS_PER_CONTRACT) {
+                return f;
+            }
+            return functions.computeIfAbsent(index, i -> new FunctionStats());
+        }
+
+        Profile toProfile(PublicAddress contract, int topFunctions) {
+            List<FunctionProfile> fns = new ArrayList<>(functions.size());
+            functions.forEach((i, f) -> fns.add(
+                new FunctionProfile(i, f.calls.sum(), f.selfNanos.sum(), f.totalNanos.sum())));
+            fns.sort(Comparator.comparingLong(FunctionProfile::selfNanos).reversed());
+            return new Profile(contract, calls.sum(), failures.sum(), wallNanos.sum(), gas.sum(),
+                storageReads.sum(), storageWrites.sum(), cacheHits.sum(), cacheMisses.sum(),
+                wallHistogram.percentile(0.50), wallHistogram.percentile(0.99),
+                gasHistogram.percentile(0.50), gasHistogram.percentile(0.99),
+                fns.size() > topFunctions ? List.copyOf(fns.subList(0, topFunctions)) : fns);
+        }
+    }
+
+    static final class FunctionStats {
+        final LongAdder calls = new LongAdder();
+        final LongAdder selfNanos = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+    }
+
+    /**
+     * Lock-free histogram over non-negative longs with power-of-two buckets: bucket {@code b} counts
+     * values in {@code [2^(b-1), 2^b)} (bucket 0 holds 0). Fixed 65 buckets, ~2x resolution — plenty
+     * to tell a 50 µs contract from a 5 ms one, at one atomic add per record.
+     */
+    static final class Log2Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(Long.SIZE + 1);
+
+        void record(long value) {
+            buckets.incrementAndGet(value <= 0 ? 0 : Long.SIZE - Long.numberOfLeadingZeros(value));
+        }
+
+        /** Upper bound of the bucket holding quantile {@code q} (0 if empty). */
+        long percentile(double q) {
+            long total = 0;
+            for (int b = 0; b < buckets.length(); b++) {
+                total += buckets.get(b);
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(q * total);
+            long seen = 0;
+            for (int b = 0; b < buckets.length(); b++) {
+                seen += buckets.get(b);
+                if (seen >= rank) {
+                    return b == 0 ? 0 : (b >= Long.SIZE ? Long.MAX_VALUE : (1L << b) - 1);
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Per-function timings of ONE sampled call frame, fed by the interpreter on its execution thread
+     * (thread-confined: no synchronization) and drained into the contract's stats when the frame
+     * ends. Self time excludes callees; a nested {@code call_contract} runs with its own timer (or
+     * none), so it shows up in the caller only as the host-import call's total time.
+     */
+    static final class FunctionTimer {
+        /** Running callee time per open activation, indexed by nesting depth. */
+        private final long[] childNanos = new long[DepthLimitedInterpreterMachine.MAX_WASM_CALL_DEPTH + 1];
+        private int depth;
+        private final java.util.HashMap<Integer, long[]> byFunction = new java.util.HashMap<>();
+
+        void enter() {
+            childNanos[depth++] = 0;
+        }
+
+        void exit(int funcId, long elapsedNanos) {
+            long self = elapsedNanos - childNanos[--depth];
+            if (depth > 0) {
+                childNanos[depth - 1] += elapsedNanos;
+            }
+            long[] acc = byFunction.get(funcId);
+            if (acc == null) {
+                if (byFunction.size() >= MAX_FUNCTIONS_PER_CONTRACT) {
+                    return;
+                }
+                acc = new long[3];
+                byFunction.put(funcId, acc);
+            }
+            acc[0]++;
+            acc[1] += self;
+            acc[2] += elapsedNanos;
+        }
+
+        void drainInto(ContractStats stats) {
+            byFunction.forEach((funcId, acc) -> {
+                FunctionStats f = stats.function(funcId);
+                if (f != null) {
+                    f.calls.add(acc[0]);
+                    f.selfNanos.add(acc[1]);
+                    f.totalNanos.add(acc[2]);
+                }
+            });
+        }
+    }
+}
@@ -32,6 +32,27 @@ public final class ContractStateAdapter implements StateSource, StateSink {
         }
     }
 
+    /** Pins the store ({@link ContractStore#openSnapshot}); {@code null} if it cannot pin. */
+    @Override
+    public Pinned pin() {
+        ContractStore.Snapshot view = store.openSnapshot();
+        if (view == null) {
+            return null;
+        }
+        ContractStateAdapter pinned = new ContractStateAdapter(view);
+        return new Pinned() {
+            @Override
+            public void forEach(byte domain, EntryConsumer out) {
+                pinned.forEach(domain, out);
+            }
+
+            @Override
+            public void close() {
+                view.close();
+            }
+        };
+    }
+
     @Override
     public void put(byte domain, byte[] key, byte[] value) {
         switch (domain) {
@@ -170,11 +170,65 @@ public interface ContractStore {
         }
     }
 
+    // ---- Optional persistent per-block logs and log blooms (historical log queries) ----
+    // The processor keeps contract logs in RAM for the reorg window only, so a log query past it
+    // found nothing, and one inside it walked every height. A durable store persists each block's
+    // logs with its receipts, plus the block's LogBloom and the 1k-range bloom it ORs into,
+    // so a filtered query descends the ranges and reads only the heights that may match. Logs
+    // are not pruned with journals and receipts: they are the query history, not reorg undo.
+    // Defaults: no index — the processor then scans its RAM window as before.
+
+    /** True if this store persists logs and blooms ({@link #getLogs}, {@link #getLogBloom}). */
+    default boolean indexesLogs() {
+        return false;
+    }
+
+    /** The persisted encoded logs for {@code height}, or {@code null} if none (or not indexed). */
+    default byte[] getLogs(long height) {
+        return null;
+    }
+
+    /**
+     * The persisted {@link LogBloom} at {@code level} for the span starting at {@code start}
+     * ({@link LogBloom#rangeStart}), or {@code null} if no block under it emitted logs.
+     */
+    default byte[] getLogBloom(int level, long start) {
+        return null;
+    }
+
+    /**
+     * The persisted {@link LogBloom}s at {@code level} whose spans start in
+     * {@code [rangeStart(level, from), to]}, in ascending order, each handed to {@code visitor}
+     * until it returns false. Spans without a bloom are skipped. The default probes each span
+     * with {@link #getLogBloom}; a store with ordered keys reads the run in one pass.
+     */
+    default void scanLogBlooms(int level, long from, long to, LogBloomVisitor visitor) {
+        for (long start = LogBloom.rangeStart(level, from); start <= to; start += LogBloom.SPANS[level]) {
+            byte[] bits = getLogBloom(level, start);
+            if (bits != null && !visitor.visit(start, bits)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * As {@link #applyBlock(long, java.util.List, byte[], byte[])}, additionally committing the
+     * block's encoded logs, its block bloom and the range blooms {@code bloom} is ORed into, in
+     * the SAME atomic unit where the store supports it. {@code encodedLogs} and {@code bloom}
+     * are both null for a block without logs. The default drops them: a store that does not
+     * {@link #indexesLogs index logs} keeps none.
+     */
+    default void applyBlock(long height, java.util.List<StorageChange> changes, byte[] journal,
+                            byte[] encodedReceipts, byte[] encodedLogs, LogBloom bloom) {
+        applyBlock(height, changes, journal, encodedReceipts);
+    }
+
     /**
      * Reverts one block: applies {@code restores} (the block's undo journal turned back into
      * mutations — each entry's <em>prior</em> value, or a delete where the key did not exist
      * before the block), drops the persisted journal at {@code height}, AND drops the block's
-     * persisted receipts, as a single atomic unit where the store supports it.
+     * persisted receipts (and, on a log-indexing store, its logs and block bloom), as a single
+     * atomic unit where the store supports it.
      *
      * <p>{@code restores} must already be in final application order (the caller applies its
      * journal in reverse, so that repeated writes to the same key restore the earliest prior).
@@ -197,8 +251,71 @@ public interface ContractStore {
         deleteReceipts(height);
     }
 
+    // ---- Optional point-in-time read view (read-only contract calls) ----
+
+    /**
+     * Opens an immutable, point-in-time read view of this store's code and storage, or returns
+     * {@code null} if the store cannot provide one cheaply (the default — callers then fall back
+     * to reading the live store under the consensus lock). The view is what lets a read-only
+     * {@code /call_readonly} run off that lock: a block committed while it runs is invisible to
+     * it, because {@link #applyBlock} lands in one atomic unit the view either fully predates or
+     * fully follows. The caller must {@link Snapshot#close close} it — a durable store pins
+     * resources (a RocksDB snapshot) until then.
+     */
+    default Snapshot openSnapshot() {
+        return null;
+    }
+
+    /**
+     * A read-only {@link ContractStore} frozen at the moment it was opened. Every mutator throws
+     * {@link UnsupportedOperationException}: a read-only call buffers its writes in a
+     * {@link SessionContractStore} overlay that is never flushed, so nothing ever reaches it.
+     */
+    interface Snapshot extends ContractStore, AutoCloseable {
+
+        @Override
+        default void putCode(PublicAddress contract, byte[] code) {
+            throw new UnsupportedOperationException("contract store snapshot is read-only");
+        }
+
+        @Override
+        default void deleteCode(PublicAddress contract) {
+            throw new UnsupportedOperationException("contract store snapshot is read-only");
+        }
+
+        @Override
+        default void putStorage(PublicAddress contract, byte[] key, byte[] value) {
+            throw new UnsupportedOperationException("contract store snapshot is read-only");
+        }
+
+        @Override
+        default void deleteStorage(PublicAddress contract, byte[] key) {
+            throw new UnsupportedOperationException("contract store snapshot is read-only");
+        }
+
+        @Override
+        default void applyBlock(long height, java.util.List<StorageChange> changes, byte[] journal) {
+            throw new UnsupportedOperationException("contract store snapshot is read-only");
+        }
+
+        @Override
+        default void revertBlock(long height, java.util.List<StorageChange> restores) {
+            throw new UnsupportedOperationException("contract store snapshot is read-only");
+        }
+
+        /** Releases the pinned view; idempotent. */
+        @Override
+        void close();
+    }
+
     @FunctionalInterface
     interface StorageConsumer {
         void accept(PublicAddress contract, byte[] key, byte[] value);
     }
+
+    @FunctionalInterface
+    interface LogBloomVisitor {
+        /** Receives the bloom of the span starting at {@code start}; false stops the scan. */
+        boolean visit(long start, byte[] bits);
+    }
 }
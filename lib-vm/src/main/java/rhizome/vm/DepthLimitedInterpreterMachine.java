@@ -27,8 +27,8 @@ import com.dylibso.chicory.wasm.types.ValType;
  * overflow before this limit is hit, so the outcome is fully deterministic.
  *
  * <p><b>The cap is tree-wide, not per instance.</b> Chicory's {@code callStack} lives on the
- * {@code Instance}, and a fresh {@code Instance}/machine is built for every {@code vm.execute} —
- * including every nested {@code call_contract}. Counting only this instance's {@code callStack}
+ * {@code Instance}, and every {@code vm.execute} frame — including every nested {@code call_contract}
+ * — runs on its own (fresh or pooled) {@code Instance}/machine. Counting only this instance's {@code callStack}
  * would let a chain of {@code MAX_CALL_DEPTH} contracts stack {@code MAX_CALL_DEPTH × MAX_WASM_CALL_DEPTH}
  * real JVM frames on the one execution thread, reopening the stack-overflow fork the class exists
  * to close (audit). Instead every frame across the whole call tree is counted through a
@@ -89,9 +89,20 @@ final class DepthLimitedInterpreterMachine extends InterpreterMachine {
         }
         depth[0]++;
         locals[0] += frameSlots;
+        // Sampled per-function profiling (ContractProfiler): null on every unsampled frame, so the
+        // common path pays one thread-local read. Timing never influences execution.
+        ContractProfiler.FunctionTimer timer = ContractProfiler.ACTIVE_TIMER.get();
+        long start = 0;
+        if (timer != null) {
+            timer.enter();
+            start = System.nanoTime();
+        }
         try {
             return super.call(stack, instance, callStack, funcId, args, type, popArgs);
         } finally {
+            if (timer != null) {
+                timer.exit(funcId, System.nanoTime() - start);
+            }
             depth[0]--;
             locals[0] -= frameSlots;
         }
@@ -70,4 +70,12 @@ public interface HostState {
     default rhizome.core.box.Box boxRead(byte[] id) {
         return null;
     }
+
+    /**
+     * Told, once per execution, whether the contract's parsed module came from the VM's module cache.
+     * Observability only ({@link ContractProfiler}): the cache never changes a result, so a host must
+     * not let this change one either. Default no-op.
+     */
+    default void moduleResolved(boolean cacheHit) {
+    }
 }
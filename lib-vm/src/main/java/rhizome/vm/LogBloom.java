@@ -0,0 +1,137 @@
+package rhizome.vm;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+import rhizome.core.blockchain.ContractProcessor.ContractLog;
+import rhizome.core.ledger.PublicAddress;
+
+/**
+ * Bloom filters over the {@code (contract, topic)} pairs of contract logs, so a historical log
+ * query ({@code /logs?contract=&topic=}) can skip heights — and whole ranges of heights — that
+ * cannot hold a match without reading their logs.
+ *
+ * <p>Two levels, each keyed by the first height it covers ({@link #SPANS}): one filter per block
+ * that emitted logs, and one per 1 024 blocks holding the union of the blocks under it. Every
+ * level sets its bits from the same per-item hashes, so a query probes each level with one set of
+ * hashes. A block's contract address and its topic are added as two separate items
+ * (domain-separated), as Ethereum does: a probe for both is the intersection of the two, and a
+ * probe for either alone works too. Topics are matched whole, not by prefix.
+ *
+ * <p>Each level is sized for the items it is expected to hold ({@link #BITS}). A block filter
+ * holds a handful, so 2 048 bits stay nearly empty. A range filter is sized for about four items
+ * per block across its whole span — two logs from distinct contracts and topics in every block —
+ * which is 8 bits per item: about one third of the bits set, so a one-item probe of an unrelated
+ * contract passes about 3% of ranges and a contract-and-topic probe about 0.1%. There is no
+ * wider level. A 65 536-block range at the same fill would need 256 KiB per filter, rewritten
+ * on every block that ORs into it; at any size a block can afford to rewrite, it is saturated
+ * and answers "maybe" for every probe. A query spans at most 64 1 024-block ranges,
+ * and reads only those that hold logs, so the extra level would save nothing.
+ *
+ * <p>A filter answers "maybe" or "no", never a false "no": a reverted block's bits stay in its
+ * range filters (a union cannot be un-ORed), which only costs a wasted look at that range.
+ */
+public final class LogBloom {
+
+    /** Heights covered by one filter, per level: block, 1 024-block range. */
+    public static final long[] SPANS = {1, 1_024};
+    /** Filter size in bits, per level (powers of two): 8 bits per item at 4 items per block. */
+    public static final int[] BITS = {2_048, 32_768};
+    /** Bits set per item. */
+    static final int HASHES = 3;
+
+    private static final byte ITEM_CONTRACT = 0;
+    private static final byte ITEM_TOPIC = 1;
+
+    /** {@link #HASHES} 32-bit hash values per item, items concatenated. */
+    private final int[] hashes;
+
+    private LogBloom(int[] hashes) {
+        this.hashes = hashes;
+    }
+
+    /** The filter of one block's logs (its contracts and topics). */
+    public static LogBloom of(List<ContractLog> logs) {
+        int[] hashes = new int[logs.size() * 2 * HASHES];
+        int i = 0;
+        for (ContractLog log : logs) {
+            i = hash(ITEM_CONTRACT, log.contract().address(), hashes, i);
+            i = hash(ITEM_TOPIC, log.topic(), hashes, i);
+        }
+        return new LogBloom(hashes);
+    }
+
+    /**
+     * The probe for a query: logs of {@code contract} (null: any) with topic {@code topic}
+     * (null: any). At least one must be given.
+     */
+    public static LogBloom probe(PublicAddress contract, byte[] topic) {
+        if (contract == null && topic == null) {
+            throw new IllegalArgumentException("a log probe needs a contract or a topic");
+        }
+        int[] hashes = new int[((contract == null ? 0 : 1) + (topic == null ? 0 : 1)) * HASHES];
+        int i = 0;
+        if (contract != null) {
+            i = hash(ITEM_CONTRACT, contract.address(), hashes, i);
+        }
+        if (topic != null) {
+            hash(ITEM_TOPIC, topic, hashes, i);
+        }
+        return new LogBloom(hashes);
+    }
+
+    /** This filter rendered at {@code level}'s size. */
+    public byte[] bits(int level) {
+        byte[] bloom = new byte[BITS[level] / 8];
+        int mask = BITS[level] - 1;
+        for (int h : hashes) {
+            int bit = h & mask;
+            bloom[bit >>> 3] |= (byte) (1 << (bit & 7));
+        }
+        return bloom;
+    }
+
+    /** True if {@code bloom} (a filter at {@code level}) may hold every item of this probe. */
+    public boolean mayMatch(byte[] bloom, int level) {
+        int mask = BITS[level] - 1;
+        for (int h : hashes) {
+            int bit = h & mask;
+            if ((bloom[bit >>> 3] & (1 << (bit & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** ORs {@code from} into {@code into} (same level), for range filters. */
+    public static void union(byte[] into, byte[] from) {
+        if (into.length != from.length) {
+            throw new IllegalArgumentException("bloom size mismatch: " + into.length + " vs " + from.length);
+        }
+        for (int i = 0; i < into.length; i++) {
+            into[i] |= from[i];
+        }
+    }
+
+    /** The first height of the {@code level} filter covering {@code height}. */
+    public static long rangeStart(int level, long height) {
+        return height - Math.floorMod(height, SPANS[level]);
+    }
+
+    private static int hash(byte kind, byte[] item, int[] out, int at) {
+        MessageDigest sha;
+        try {
+            sha = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e); // mandated by the JDK spec
+        }
+        sha.update(kind);
+        byte[] d = sha.digest(item);
+        for (int k = 0; k < HASHES; k++) {
+            out[at++] = (d[4 * k] & 0xFF) << 24 | (d[4 * k + 1] & 0xFF) << 16
+                | (d[4 * k + 2] & 0xFF) << 8 | (d[4 * k + 3] & 0xFF);
+        }
+        return at;
+    }
+}
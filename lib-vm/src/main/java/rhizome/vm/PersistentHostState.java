@@ -37,6 +37,10 @@ public final class PersistentHostState implements HostState {
     private final java.util.List<LogEntry> logs = new java.util.ArrayList<>();
     private byte[] output = new byte[0];
     private java.util.function.BiConsumer<byte[], byte[]> logSink;
+    // Profiling counters (ContractProfiler): observability only, never read by execution.
+    private int storageReads;
+    private int storageWrites;
+    private boolean moduleCacheHit;
 
     /** Immutable storage-key wrapper with value-based equals/hashCode, for use as a map key. */
     private record ByteKey(byte[] bytes) {
@@ -73,6 +77,7 @@ public final class PersistentHostState implements HostState {
     /** Read path: zero-copy by design — see the class-level array-ownership invariant. */
     @Override
     public byte[] storageRead(byte[] key) {
+        storageReads++;
         ByteKey k = new ByteKey(key); // borrowed for this lookup only, never retained
         if (pending.containsKey(k)) {
             return pending.get(k);
@@ -90,9 +95,30 @@ public final class PersistentHostState implements HostState {
         // Defensive copies on entry (class-level ownership invariant): the key array becomes part
         // of a ByteKey map key and the value becomes pending state — neither may alias an array
         // the caller can still mutate.
+        storageWrites++;
         pending.put(new ByteKey(key.clone()), value.clone());
     }
 
+    @Override
+    public void moduleResolved(boolean cacheHit) {
+        moduleCacheHit = cacheHit;
+    }
+
+    /** {@code storage_read} calls made by the contract so far (buffered hits included). */
+    int storageReads() {
+        return storageReads;
+    }
+
+    /** {@code storage_write} calls made by the contract so far. */
+    int storageWrites() {
+        return storageWrites;
+    }
+
+    /** Whether this execution's module came from the VM's module cache. */
+    boolean moduleCacheHit() {
+        return moduleCacheHit;
+    }
+
     /** Flushes buffered writes to the backing store. Call only when the execution succeeded. */
     public void commit() {
         pending.forEach((k, v) -> store.putStorage(contract, k.bytes(), v));
@@ -0,0 +1,149 @@
+package rhizome.vm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import rhizome.core.blockchain.ContractProcessor;
+import rhizome.core.blockchain.ContractProcessor.ContractResult;
+import rhizome.core.ledger.PublicAddress;
+
+/**
+ * Executes read-only contract calls ({@code /call_readonly}) entirely off the consensus path: no
+ * engine lock, no {@code rhizome-wasm-*} consensus worker, no single shared dry-run thread.
+ *
+ * <p>Each call opens a {@link View} — an immutable contract-store snapshot plus committed-only box
+ * and balance readers — runs the call tree against it on this engine's own fixed-stack pool, and
+ * closes it. The previous path held the engine lock for the whole VM run (up to 25M gas), so every
+ * dry-run stalled block application, and every dry-run queued behind every other on one thread.
+ * Here a block landing mid-call is simply invisible to it, and up to {@link #threads} calls run in
+ * parallel. The VM (and with it the module cache and instance pools) is the consensus processor's,
+ * so a contract warmed by a block is warm for queries too.
+ *
+ * <p>Consistency: contract code and storage come from one snapshot, which a block commit either
+ * fully predates or fully follows (the RocksDB store commits a block as one batch). Boxes and
+ * balances are separate stores, read committed-only at the moment the contract asks. The one way a
+ * read can see never-committed state is a producer's state-root stamp, which commits a candidate
+ * block and rolls it back: the view's {@link View#consistent} check (the engine's stamp seqlock)
+ * detects an overlap and the call is re-run on a fresh view, at most {@link #MAX_ATTEMPTS} times,
+ * after which it is shed like a full queue. A retry re-runs the VM without charging the readonly
+ * gas budget again — bounded by the attempt cap, and stamps happen once per produced block.
+ *
+ * <p>Admission is the caller's: the node bounds concurrent dry-runs with a semaphore before they
+ * get here, so this pool's queue never holds more than that bound.
+ */
+public final class ReadonlyCallEngine implements AutoCloseable {
+
+    /** Fresh views tried per call before it is shed (see the class javadoc). */
+    static final int MAX_ATTEMPTS = 3;
+
+    /**
+     * How long a call waits, in total, for a view to become openable (a stamp is in flight while
+     * none is). A stamp lasts one candidate-block execution; past this the call is shed.
+     */
+    static final long MAX_OPEN_WAIT_NANOS = 2_000_000_000L;
+
+    /** Back-off between view-open attempts while a stamp is in flight. */
+    private static final long OPEN_BACKOFF_NANOS = 1_000_000L;
+
+    /**
+     * One read-only call's view of chain state. {@code consistent} answers whether everything read
+     * through the view since it was opened was committed state (false once a stamp overlapped it).
+     */
+    public record View(ContractStore.Snapshot contracts, BoxReader boxes,
+                       ContractProcessor.NativeBalance balances,
+                       java.util.function.BooleanSupplier consistent) implements AutoCloseable {
+        @Override
+        public void close() {
+            contracts.close();
+        }
+    }
+
+    /** Opens a {@link View}, or returns {@code null} if none can be opened right now. */
+    @FunctionalInterface
+    public interface ViewSource {
+        View open();
+    }
+
+    private final WasmContractProcessor processor;
+    private final ViewSource views;
+    private final int threads;
+    private final java.util.concurrent.ExecutorService workers;
+
+    public ReadonlyCallEngine(WasmContractProcessor processor, ViewSource views, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be >= 1: " + threads);
+        }
+        this.processor = processor;
+        this.views = views;
+        this.threads = threads;
+        this.workers = WasmVm.newBoundedStackPool("rhizome-wasm-readonly", threads);
+    }
+
+    /** Worker threads, i.e. read-only calls that can execute in parallel. */
+    public int threads() {
+        return threads;
+    }
+
+    /**
+     * Runs a read-only CALL against a point-in-time view, discarding its writes. Empty if no
+     * consistent view could be obtained within {@link #MAX_ATTEMPTS} (the API maps that to 503).
+     */
+    public Optional<ContractResult> call(PublicAddress from, PublicAddress to, byte[] input,
+                                         long value, long gasLimit) {
+        return callBatch(List.of(new ContractProcessor.DryRunCall(from, to, input, value, gasLimit)))
+            .map(results -> results.get(0));
+    }
+
+    /**
+     * Runs every call of {@code calls}, in order, against ONE view: all results describe the same
+     * committed state, and the batch pays one view acquisition and one worker hand-off instead of
+     * one per call. Calls are independent — each gets a fresh scratch session, so a write by one is
+     * not visible to the next. Empty if no consistent view could be obtained (as {@link #call}).
+     */
+    public Optional<List<ContractResult>> callBatch(List<ContractProcessor.DryRunCall> calls) {
+        // The whole open-run-close cycle runs on the worker, so the snapshot is never released
+        // under a VM still reading it (an interrupted caller abandons the future, not the view).
+        return WasmVm.onBoundedStack(workers, () -> {
+            long deadline = System.nanoTime() + MAX_OPEN_WAIT_NANOS;
+            int attempts = 0;
+            while (attempts < MAX_ATTEMPTS) {
+                View view = views.open();
+                if (view == null) {
+                    if (System.nanoTime() - deadline >= 0) {
+                        break;
+                    }
+                    java.util.concurrent.locks.LockSupport.parkNanos(OPEN_BACKOFF_NANOS);
+                    continue;
+                }
+                attempts++;
+                try (view) {
+                    List<ContractResult> results = new ArrayList<>(calls.size());
+                    for (ContractProcessor.DryRunCall c : calls) {
+                        results.add(processor.dryRunOnView(view.contracts(), view.boxes(), view.balances(),
+                            c.from(), c.to(), c.input(), c.value(), c.gasLimit()));
+                    }
+                    if (view.consistent().getAsBoolean()) {
+                        return Optional.of(results);
+                    }
+                }
+            }
+            return Optional.<List<ContractResult>>empty();
+        });
+    }
+
+    /** Stops the workers; an in-flight call finishes (its gas budget bounds it). */
+    @Override
+    public void close() {
+        workers.shutdown();
+    }
+
+    /**
+     * After {@link #close}, waits for in-flight calls to finish — they read the contract store
+     * natively, so the store must not close under them. True if every worker has exited.
+     */
+    public boolean awaitTermination(long timeout, java.util.concurrent.TimeUnit unit)
+            throws InterruptedException {
+        return workers.awaitTermination(timeout, unit);
+    }
+}
@@ -2,9 +2,7 @@ package rhizome.vm;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 
 import rhizome.core.ledger.PublicAddress;
 
@@ -18,79 +16,270 @@ import rhizome.core.ledger.PublicAddress;
  * <p>Flushing also captures an undo journal (the base's prior value for every
  * written key), so a reorg can restore the exact pre-block state.
  *
- * <p>Keys are typed ({@link PublicAddress} and {@link Slot}, both value-equality) rather than hex
- * Strings: storage read/write is on the block's hottest path, so per-op {@code StringBuilder} hex
- * encoding and per-byte {@code Integer.parseInt} decoding on flush were pure allocation/CPU churn.
+ * <p><b>One flat table, one write journal.</b> Every written code or storage key of the block lives
+ * in ONE open-addressing table keyed by (contract, key), and every write appends its predecessor
+ * state to ONE journal. Nested contract calls no longer stack an overlay per frame: a frame takes a
+ * {@link #savepoint()}, a failed frame {@link #rollback rolls back} to it (truncating the journal and
+ * restoring what its writes replaced), and a successful one {@link #release releases} it — a no-op
+ * for the data, where the per-frame overlays had to copy every entry into the parent. A read is a
+ * single probe instead of a walk up one map per live frame, and the journal's surviving writes, in
+ * order, are exactly what {@link #forwardChanges}, {@link #pendingChanges} and {@link
+ * #captureJournal} enumerate. A key is journalled at most once per open savepoint (its first write
+ * there is what a rollback must restore), so a hot key rewritten in a loop costs one journal slot
+ * per frame, not one per write.
+ *
+ * <p>Keys are typed ({@link PublicAddress} plus key bytes, value-equality) rather than hex Strings:
+ * storage read/write is on the block's hottest path, so per-op {@code StringBuilder} hex encoding
+ * and per-byte {@code Integer.parseInt} decoding on flush were pure allocation/CPU churn.
  *
  * <p><b>Array ownership.</b> WRITES defensively copy every entering array (key and value —
  * {@link #putCode}, {@link #putStorage}, {@link #deleteStorage}), so an array the caller still
  * holds can never alias session state: mutating it after the call changes nothing here. The copy
  * is write-only and cheap; the invariant it replaces ("no caller ever mutates an array it handed
  * over") was untestable, and for a storage key it failed worse than a stale value — the key array
- * lives INSIDE a {@link Slot} map key, so post-hoc mutation made the whole entry unreachable
- * (hash lookup) and silently lost the write. READS ({@link #getCode}/{@link #getStorage}) return
- * the session's own array WITHOUT copying: every downstream consumer treats it as read-only (the
- * VM copies it into contract memory via {@code Memory.write}, the state-root path only hashes it,
- * the flush/journal captures pass it on unmutated, the durable base store copies at its own
- * boundary). The load-bearing read-side invariant: nothing mutates a store-returned array in
- * place.
+ * lives INSIDE a table entry, so post-hoc mutation made the entry unreachable (hash lookup) and
+ * silently lost the write. READS ({@link #getCode}/{@link #getStorage}) return the session's own
+ * array WITHOUT copying: every downstream consumer treats it as read-only (the VM copies it into
+ * contract memory via {@code Memory.write}, the state-root path only hashes it, the flush/journal
+ * captures pass it on unmutated, the durable base store copies at its own boundary). The
+ * load-bearing read-side invariant: nothing mutates a store-returned array in place.
+ *
+ * <p>Single-threaded, like the call tree that drives it.
  */
 final class SessionContractStore implements ContractStore {
 
+    /** Initial table slots (a power of two); the table doubles past half full. */
+    private static final int INITIAL_CAPACITY = 64;
+
     private final ContractStore base;
-    // LinkedHashMap, not HashMap: forwardChanges/pendingChanges/captureJournal iterate these maps
-    // into CONSENSUS-VISIBLE lists (state-root change order, undo-journal order). HashMap order is
-    // a function of hashes and growth history; insertion order is explicit and stable across JVMs.
-    private final Map<PublicAddress, byte[]> codeWrites = new LinkedHashMap<>();
-    // A null value is a TOMBSTONE: the key was deleted in this session. LinkedHashMap keeps null values,
-    // so containsKey distinguishes "deleted here" from "not touched here" (audit F9).
-    private final Map<Slot, byte[]> storageWrites = new LinkedHashMap<>();
 
-    /** A (contract, storage-key) pair with value-based equality, for use as a map key. */
-    private record Slot(PublicAddress contract, byte[] key) {
-        @Override public boolean equals(Object o) {
-            return o instanceof Slot s && contract.equals(s.contract) && Arrays.equals(key, s.key);
-        }
-        @Override public int hashCode() {
-            return 31 * contract.hashCode() + Arrays.hashCode(key);
+    /**
+     * One written (or once-written) key. {@code key == null} is the contract's code. {@code written}
+     * false means the session holds nothing for it (never written, or every write rolled back, or
+     * {@code deleteCode}); reads then fall through to the base. {@code written} with a null
+     * {@code value} is a storage TOMBSTONE: the key was deleted in this session and reads as absent,
+     * never as the base's old value (audit F9). Entries are never removed from the table during a
+     * session — an unwritten entry is simply skipped — so probing needs no deletion markers.
+     */
+    private static final class Entry {
+        final PublicAddress contract;
+        final byte[] key;
+        final int hash;
+        boolean written;
+        byte[] value;
+        /** Index of this entry's latest journal record, or -1: dedups records within a savepoint. */
+        int lastRecord = -1;
+        /** Enumeration stamp, so each entry is listed once per journal walk. */
+        int seen;
+
+        Entry(PublicAddress contract, byte[] key, int hash) {
+            this.contract = contract;
+            this.key = key;
+            this.hash = hash;
         }
     }
 
+    private Entry[] table = new Entry[INITIAL_CAPACITY];
+    private int entries;
+
+    // The write journal, as parallel arrays: record i holds its entry's state BEFORE the write that
+    // appended it. Rolling back pops records and restores that state; the surviving records, in
+    // order, are the session's writes.
+    private Entry[] recordEntry = new Entry[16];
+    private boolean[] recordWritten = new boolean[16];
+    private byte[][] recordValue = new byte[16][];
+    private int[] recordLast = new int[16];
+    private int records;
+
+    /** Journal length at each open savepoint, innermost last. */
+    private int[] savepoints = new int[8];
+    private int openSavepoints;
+    private int walkStamp;
+
     SessionContractStore(ContractStore base) {
         this.base = base;
     }
 
+    // ---- savepoints (nested call frames) ----
+
+    /**
+     * Opens a savepoint: everything written from here on can be undone by {@link #rollback}. Returns
+     * the token to pass to exactly one {@code rollback} or {@link #release}. Savepoints nest; closing
+     * one also closes any savepoint opened inside it and left open (a frame abandoned by an
+     * exception its caller's VM turned into a revert), so the stack can never drift.
+     */
+    int savepoint() {
+        if (openSavepoints == savepoints.length) {
+            savepoints = Arrays.copyOf(savepoints, openSavepoints * 2);
+        }
+        savepoints[openSavepoints] = records;
+        return openSavepoints++;
+    }
+
+    /** Undoes every write since {@code savepoint} and closes it (a failed call frame). */
+    void rollback(int savepoint) {
+        int mark = close(savepoint);
+        for (int i = records - 1; i >= mark; i--) {
+            Entry e = recordEntry[i];
+            e.written = recordWritten[i];
+            e.value = recordValue[i];
+            e.lastRecord = recordLast[i];
+            recordEntry[i] = null;
+            recordValue[i] = null;
+        }
+        records = mark;
+    }
+
+    /** Closes {@code savepoint}, keeping its writes (a successful call frame). */
+    void release(int savepoint) {
+        close(savepoint);
+    }
+
+    /** Closes {@code savepoint} (and anything opened inside it); returns its journal mark. */
+    private int close(int savepoint) {
+        if (savepoint < 0 || savepoint >= openSavepoints) {
+            throw new IllegalStateException("savepoint " + savepoint + " is not open");
+        }
+        openSavepoints = savepoint;
+        return savepoints[savepoint];
+    }
+
+    // ---- the table ----
+
+    private static int hash(PublicAddress contract, byte[] key) {
+        int h = 31 * contract.hashCode() + (key == null ? 0 : Arrays.hashCode(key) + 1);
+        return h ^ (h >>> 16);
+    }
+
+    /** The entry for (contract, key), or null. The key array is borrowed, never retained. */
+    private Entry find(PublicAddress contract, byte[] key) {
+        int h = hash(contract, key);
+        int mask = table.length - 1;
+        for (int i = h & mask; ; i = (i + 1) & mask) {
+            Entry e = table[i];
+            if (e == null) {
+                return null;
+            }
+            if (e.hash == h && Arrays.equals(e.key, key) && e.contract.equals(contract)) {
+                return e;
+            }
+        }
+    }
+
+    /** The entry for (contract, key), created if absent; {@code ownedKey} must already be a copy. */
+    private Entry entry(PublicAddress contract, byte[] ownedKey) {
+        Entry e = find(contract, ownedKey);
+        if (e != null) {
+            return e;
+        }
+        if ((entries + 1) * 2 > table.length) {
+            grow();
+        }
+        e = new Entry(contract, ownedKey, hash(contract, ownedKey));
+        insert(table, e);
+        entries++;
+        return e;
+    }
+
+    private static void insert(Entry[] into, Entry e) {
+        int mask = into.length - 1;
+        int i = e.hash & mask;
+        while (into[i] != null) {
+            i = (i + 1) & mask;
+        }
+        into[i] = e;
+    }
+
+    private void grow() {
+        Entry[] bigger = new Entry[table.length * 2];
+        for (Entry e : table) {
+            if (e != null) {
+                insert(bigger, e);
+            }
+        }
+        table = bigger;
+    }
+
+    /** Sets {@code e}'s state, journalling its predecessor unless this savepoint already did. */
+    private void write(Entry e, boolean written, byte[] value) {
+        int fence = openSavepoints == 0 ? 0 : savepoints[openSavepoints - 1];
+        if (e.lastRecord < fence) {
+            if (records == recordEntry.length) {
+                int n = records * 2;
+                recordEntry = Arrays.copyOf(recordEntry, n);
+                recordWritten = Arrays.copyOf(recordWritten, n);
+                recordValue = Arrays.copyOf(recordValue, n);
+                recordLast = Arrays.copyOf(recordLast, n);
+            }
+            recordEntry[records] = e;
+            recordWritten[records] = e.written;
+            recordValue[records] = e.value;
+            recordLast[records] = e.lastRecord;
+            e.lastRecord = records++;
+        }
+        e.written = written;
+        e.value = value;
+    }
+
+    /**
+     * The session's written entries in first-surviving-write order: each entry's earliest journal
+     * record that survived every rollback fixes its position. Stable across JVMs — these lists are
+     * CONSENSUS-VISIBLE (state-root change order, undo-journal order).
+     */
+    private List<Entry> written() {
+        int stamp = ++walkStamp;
+        List<Entry> out = new ArrayList<>(records);
+        for (int i = 0; i < records; i++) {
+            Entry e = recordEntry[i];
+            if (e.seen != stamp) {
+                e.seen = stamp;
+                if (e.written) {
+                    out.add(e);
+                }
+            }
+        }
+        return out;
+    }
+
+    // ---- ContractStore ----
+
     /** Read path: zero-copy by design — see the class-level array-ownership invariant. */
     @Override
     public byte[] getCode(PublicAddress contract) {
-        return codeWrites.containsKey(contract) ? codeWrites.get(contract) : base.getCode(contract);
+        Entry e = find(contract, null);
+        return e != null && e.written ? e.value : base.getCode(contract);
     }
 
     @Override
     public void putCode(PublicAddress contract, byte[] code) {
-        codeWrites.put(contract, code.clone()); // defensive copy: class-level ownership invariant
+        write(entry(contract, null), true, code.clone()); // defensive copy: class-level ownership invariant
     }
 
     @Override
     public void deleteCode(PublicAddress contract) {
-        codeWrites.remove(contract);
+        Entry e = find(contract, null);
+        if (e != null && e.written) {
+            write(e, false, null); // drops the pending code: reads fall through to the base again
+        }
     }
 
     @Override
     public byte[] getStorage(PublicAddress contract, byte[] key) {
         // The lookup key is borrowed for this call only and never retained — no copy.
-        Slot k = new Slot(contract, key);
-        if (storageWrites.containsKey(k)) {
-            return storageWrites.get(k); // tombstone reads as absent, never the base's old value
+        Entry e = find(contract, key);
+        if (e != null && e.written) {
+            return e.value; // tombstone reads as absent, never the base's old value
         }
         return base.getStorage(contract, key);
     }
 
     @Override
     public void putStorage(PublicAddress contract, byte[] key, byte[] value) {
-        // Both arrays are copied: the key lives inside the Slot map key (post-hoc caller mutation
-        // would make the entry unreachable), the value IS session state.
-        storageWrites.put(new Slot(contract, key.clone()), value.clone());
+        // Both arrays are copied: the key lives inside the table entry (post-hoc caller mutation
+        // would make it unreachable), the value IS session state. An existing entry keeps its own
+        // key copy, so the clone is only needed on first insertion.
+        Entry e = find(contract, key);
+        write(e != null ? e : entry(contract, key.clone()), true, value.clone());
     }
 
     @Override
@@ -98,8 +287,8 @@ final class SessionContractStore implements ContractStore {
         // Tombstone, not removal: removing the pending write let a later read fall through to the
         // base and return the OLD value — the delete silently vanished from this session's view
         // (audit F9). The null marker makes reads return null and makes the flush emit a delete.
-        // The key is copied for the same map-key aliasing reason as putStorage.
-        storageWrites.put(new Slot(contract, key.clone()), null);
+        Entry e = find(contract, key);
+        write(e != null ? e : entry(contract, key.clone()), true, null);
     }
 
     /**
@@ -111,17 +300,16 @@ final class SessionContractStore implements ContractStore {
      * so one here fails loud rather than silently dropping a deletion from the state root.
      */
     List<rhizome.core.blockchain.ContractProcessor.ContractChange> forwardChanges() {
-        List<rhizome.core.blockchain.ContractProcessor.ContractChange> out = new ArrayList<>();
-        codeWrites.forEach((contract, v) ->
-            out.add(new rhizome.core.blockchain.ContractProcessor.ContractChange(true, contract, null, v)));
-        storageWrites.forEach((slot, v) -> {
-            if (v == null) {
+        List<Entry> written = written();
+        List<rhizome.core.blockchain.ContractProcessor.ContractChange> out = new ArrayList<>(written.size());
+        for (Entry e : written) {
+            if (e.key != null && e.value == null) {
                 throw new IllegalStateException(
                     "storage deletions cannot be expressed as forward state-root changes");
             }
             out.add(new rhizome.core.blockchain.ContractProcessor.ContractChange(
-                false, slot.contract(), slot.key(), v));
-        });
+                e.key == null, e.contract, e.key, e.value));
+        }
         return out;
     }
 
@@ -131,11 +319,13 @@ final class SessionContractStore implements ContractStore {
      * a {@link StorageChange#deleteStorage} for each tombstone. Does not touch the base store.
      */
     List<StorageChange> pendingChanges() {
-        List<StorageChange> out = new ArrayList<>(codeWrites.size() + storageWrites.size());
-        codeWrites.forEach((contract, v) -> out.add(StorageChange.putCode(contract, v)));
-        storageWrites.forEach((slot, v) -> out.add(v == null
-            ? StorageChange.deleteStorage(slot.contract(), slot.key())
-            : StorageChange.putStorage(slot.contract(), slot.key(), v)));
+        List<Entry> written = written();
+        List<StorageChange> out = new ArrayList<>(written.size());
+        for (Entry e : written) {
+            out.add(e.key == null ? StorageChange.putCode(e.contract, e.value)
+                : e.value == null ? StorageChange.deleteStorage(e.contract, e.key)
+                : StorageChange.putStorage(e.contract, e.key, e.value));
+        }
         return out;
     }
 
@@ -147,52 +337,50 @@ final class SessionContractStore implements ContractStore {
      *
      * <p>The storage priors come from ONE batched read ({@link ContractStore#getStorageMulti}):
      * a point read per written key made a K-write block cost K store round-trips at every commit
-     * (audit: journal-capture N+1). Journal order is the session's insertion order.
+     * (audit: journal-capture N+1). Journal order is the session's write order.
      */
     List<ContractUndo> captureJournal() {
-        List<ContractUndo> journal = new ArrayList<>(codeWrites.size() + storageWrites.size());
-        codeWrites.forEach((contract, v) ->
-            journal.add(new ContractUndo(true, contract, null, base.getCode(contract))));
-        if (!storageWrites.isEmpty()) {
-            List<Slot> slots = new ArrayList<>(storageWrites.keySet());
-            List<PublicAddress> contracts = new ArrayList<>(slots.size());
-            List<byte[]> keys = new ArrayList<>(slots.size());
-            for (Slot slot : slots) {
-                contracts.add(slot.contract());
-                keys.add(slot.key());
-            }
-            List<byte[]> priors = base.getStorageMulti(contracts, keys);
-            for (int i = 0; i < slots.size(); i++) {
-                Slot slot = slots.get(i);
-                journal.add(new ContractUndo(false, slot.contract(), slot.key(), priors.get(i)));
+        List<Entry> written = written();
+        List<PublicAddress> contracts = new ArrayList<>(written.size());
+        List<byte[]> keys = new ArrayList<>(written.size());
+        for (Entry e : written) {
+            if (e.key != null) {
+                contracts.add(e.contract);
+                keys.add(e.key);
             }
         }
+        List<byte[]> priors = keys.isEmpty() ? List.of() : base.getStorageMulti(contracts, keys);
+        List<ContractUndo> journal = new ArrayList<>(written.size());
+        int next = 0;
+        for (Entry e : written) {
+            journal.add(e.key == null
+                ? new ContractUndo(true, e.contract, null, base.getCode(e.contract))
+                : new ContractUndo(false, e.contract, e.key, priors.get(next++)));
+        }
         return journal;
     }
 
     /**
      * Writes every buffered change into the base store and returns the undo journal
      * (each written key's prior base value, {@code null} if it did not exist), so the
-     * block can be reverted exactly. Used to fold a call frame into its parent session;
-     * the top-level block commit instead uses {@link #captureJournal()} + {@link
-     * #pendingChanges()} with the store's atomic applyBlock.
+     * writes can be reverted exactly. The top-level block commit instead uses {@link
+     * #captureJournal()} + {@link #pendingChanges()} with the store's atomic applyBlock.
      */
     List<ContractUndo> flushWithJournal() {
         List<ContractUndo> journal = new ArrayList<>();
-        codeWrites.forEach((contract, v) -> {
-            journal.add(new ContractUndo(true, contract, null, base.getCode(contract)));
-            base.putCode(contract, v);
-        });
-        storageWrites.forEach((slot, v) -> {
-            PublicAddress contract = slot.contract();
-            byte[] key = slot.key();
-            journal.add(new ContractUndo(false, contract, key, base.getStorage(contract, key)));
-            if (v == null) {
-                base.deleteStorage(contract, key); // tombstone flushes as a delete (audit F9)
+        for (Entry e : written()) {
+            if (e.key == null) {
+                journal.add(new ContractUndo(true, e.contract, null, base.getCode(e.contract)));
+                base.putCode(e.contract, e.value);
             } else {
-                base.putStorage(contract, key, v);
+                journal.add(new ContractUndo(false, e.contract, e.key, base.getStorage(e.contract, e.key)));
+                if (e.value == null) {
+                    base.deleteStorage(e.contract, e.key); // tombstone flushes as a delete (audit F9)
+                } else {
+                    base.putStorage(e.contract, e.key, e.value);
+                }
             }
-        });
+        }
         return journal;
     }
 }
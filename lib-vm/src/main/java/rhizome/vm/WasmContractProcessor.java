@@ -18,7 +18,8 @@ import rhizome.core.transaction.TransactionKind;
  * never depends on the WASM runtime.
  *
  * <p>State is staged twice: each call buffers its own writes ({@link PersistentHostState})
- * and, if it succeeds, flushes them into the block {@link SessionContractStore}; the
+ * and, if it succeeds, commits them into the block {@link SessionContractStore} under the
+ * frame's savepoint (a failed frame rolls its subtree back); the
  * executor then flushes the whole session to the base store on {@link #commit()} or
  * drops it on {@link #discard()}. A reverted/out-of-gas call contributes no writes.
  */
@@ -29,6 +30,7 @@ public final class WasmContractProcessor implements ContractProcessor {
     private final int retainDepth;
     private volatile BoxReader boxReader;
     private volatile ContractProcessor.NativeBalance nativeBalance;
+    private volatile ContractProfiler profiler;
     private SessionContractStore session;
     private List<ContractReceipt> currentReceipts = new java.util.ArrayList<>();
     private List<ContractLog> currentLogs = new java.util.ArrayList<>();
@@ -126,6 +128,15 @@ public final class WasmContractProcessor implements ContractProcessor {
         this.boxReader = boxReader;
     }
 
+    /**
+     * Wires the execution profiler ({@code /contracts/profile}); null disables profiling. Only
+     * consensus execution is recorded — dry-runs and read-only calls are not (see
+     * {@link ContractProfiler}).
+     */
+    public void setProfiler(ContractProfiler profiler) {
+        this.profiler = profiler;
+    }
+
     @Override
     public void useNativeBalance(ContractProcessor.NativeBalance source) {
         this.nativeBalance = source;
@@ -224,8 +235,9 @@ public final class WasmContractProcessor implements ContractProcessor {
         java.util.Map<PublicAddress, Long> reservedByContract = new java.util.HashMap<>();
         // The whole call tree runs on a fixed-stack thread so recursion depth is bounded by a
         // network constant, not the host JVM's -Xss (see WasmVm.onBoundedStack).
+        CallEnv env = new CallEnv(boxReader, nativeBalance, profiler);
         CallOutcome outcome = WasmVm.onBoundedStack(() -> runCall(caller.toBytes(), contract, input,
-            value, meter, session, new java.util.ArrayDeque<>(), transfers, reservedByContract));
+            value, meter, session, new java.util.ArrayDeque<>(), transfers, reservedByContract, env));
         if (outcome.success()) {
             return ContractResult.ok(meter.used(), outcome.output(), null, outcome.logs(), transfers);
         }
@@ -235,8 +247,26 @@ public final class WasmContractProcessor implements ContractProcessor {
     @Override
     public ContractResult dryRun(PublicAddress from, PublicAddress to, byte[] input,
                                  long value, long gasLimit) {
-        // Run against a throwaway session over the committed base store. runCall flushes
-        // its frame into this local session on success; we never flush the local session
+        return dryRun(baseStore, new CallEnv(boxReader, nativeBalance, null), false, from, to, input, value, gasLimit);
+    }
+
+    /**
+     * As {@link #dryRun(PublicAddress, PublicAddress, byte[], long, long)}, but against an explicit
+     * read view — {@code contracts}, {@code boxes} and {@code balances} instead of the live store and
+     * the consensus readers — and executed inline on the calling thread, which MUST be a fixed-stack
+     * worker from {@link WasmVm#newBoundedStackPool}. The entry point of {@link ReadonlyCallEngine}:
+     * with a point-in-time view the call needs neither the consensus lock nor the single dry-run
+     * thread. Shares this processor's VM, so its module cache and instance pools.
+     */
+    ContractResult dryRunOnView(ContractStore contracts, BoxReader boxes, ContractProcessor.NativeBalance balances,
+                                PublicAddress from, PublicAddress to, byte[] input, long value, long gasLimit) {
+        return dryRun(contracts, new CallEnv(boxes, balances, null), true, from, to, input, value, gasLimit);
+    }
+
+    private ContractResult dryRun(ContractStore base, CallEnv env, boolean inline,
+                                  PublicAddress from, PublicAddress to, byte[] input, long value, long gasLimit) {
+        // Run against a throwaway session over the committed base store. runCall writes
+        // into this local session under its savepoints; we never flush the local session
         // to the base store, so nothing persists and the block session is untouched.
         GasMeter meter = new GasMeter(gasLimit);
         // Same intrinsic charge as call() so a dry-run's gasUsed reflects the real cost of the
@@ -246,18 +276,28 @@ public final class WasmContractProcessor implements ContractProcessor {
         } catch (OutOfGasException e) {
             return ContractResult.reverted(meter.used(), "out of gas for call");
         }
-        SessionContractStore scratch = new SessionContractStore(baseStore);
+        SessionContractStore scratch = new SessionContractStore(base);
         // dryRun is read-only: transfers are collected for bounds-checking but never applied.
         List<ContractProcessor.NativeTransfer> transfers = new java.util.ArrayList<>();
         java.util.Map<PublicAddress, Long> reservedByContract = new java.util.HashMap<>();
-        CallOutcome outcome = WasmVm.onBoundedStackDryRun(() -> runCall(from.toBytes(), to, input, value,
-            meter, scratch, new java.util.ArrayDeque<>(), transfers, reservedByContract));
+        java.util.function.Supplier<CallOutcome> task = () -> runCall(from.toBytes(), to, input, value,
+            meter, scratch, new java.util.ArrayDeque<>(), transfers, reservedByContract, env);
+        CallOutcome outcome = inline ? task.get() : WasmVm.onBoundedStackDryRun(task);
         if (outcome.success()) {
             return ContractResult.ok(meter.used(), outcome.output(), null, outcome.logs());
         }
         return ContractResult.reverted(meter.used(), outcome.error());
     }
 
+    /**
+     * What a call tree runs with besides its contract store: the non-contract state it reads — data
+     * boxes ({@code box_read}) and native balances ({@code transfer_value}'s bound) — and the profiler
+     * its frames report to (null: not profiled). Captured once per top-level call and handed down
+     * every frame, so a read-only call can substitute point-in-time readers without touching the
+     * consensus ones, and stays out of the consensus profile.
+     */
+    private record CallEnv(BoxReader boxes, ContractProcessor.NativeBalance balances, ContractProfiler profiler) { }
+
     /** Result of one call frame: callee output and the logs that survived (both empty on failure). */
     private record CallOutcome(boolean success, byte[] output, List<ContractLog> logs, String error) {
         static CallOutcome fail(String error) {
@@ -266,20 +306,22 @@ public final class WasmContractProcessor implements ContractProcessor {
     }
 
     /**
-     * Runs one call frame. Each frame executes against its own overlay
-     * ({@link SessionContractStore}) over the parent's store, flushed into the parent
-     * only on success — so a failed sub-call leaves no trace, and a caller that fails
-     * after a successful sub-call discards the sub-call's writes with its own (the
-     * savepoint semantics that make nested calls atomic with the top-level call).
+     * Runs one call frame. Every frame of the tree writes into the one {@code store} session under
+     * its own savepoint ({@link SessionContractStore#savepoint}), rolled back on failure and released
+     * on success — so a failed sub-call leaves no trace, and a caller that fails after a successful
+     * sub-call discards the sub-call's writes with its own (the savepoint semantics that make nested
+     * calls atomic with the top-level call). No per-frame overlay: reads are one table probe and a
+     * successful frame copies nothing into its parent.
      * The gas meter is shared across frames (forwarded gas). {@code stack} holds the
      * contracts currently executing: a callee already on it is reentrancy and is
      * refused, as is a chain deeper than {@link #MAX_CALL_DEPTH}.
      */
     private CallOutcome runCall(byte[] callerBytes, PublicAddress contract, byte[] input,
-                                long value, GasMeter meter, ContractStore parent,
+                                long value, GasMeter meter, SessionContractStore store,
                                 java.util.Deque<PublicAddress> stack,
                                 List<ContractProcessor.NativeTransfer> transfers,
-                                java.util.Map<PublicAddress, Long> reservedByContract) {
+                                java.util.Map<PublicAddress, Long> reservedByContract,
+                                CallEnv env) {
         if (stack.size() >= MAX_CALL_DEPTH) {
             return CallOutcome.fail("call depth limit");
         }
@@ -288,7 +330,7 @@ public final class WasmContractProcessor implements ContractProcessor {
         }
         byte[] code;
         try {
-            code = parent.getCode(contract);
+            code = store.getCode(contract);
         } catch (Throwable t) {
             // Node-local store failure — a fatal HostFault, never a contract verdict: for a
             // nested call this throws inside the parent's vm.execute, whose catch-all would
@@ -299,13 +341,13 @@ public final class WasmContractProcessor implements ContractProcessor {
             return CallOutcome.fail("no contract at address");
         }
 
-        SessionContractStore frame = new SessionContractStore(parent);
+        int savepoint = store.savepoint();
         // transfer_value handler: the contract may pay out native coin up to its committed balance
         // minus what earlier (still-live) transfers in this tree already reserved for it. The intent
         // is recorded here; the executor moves the value on success. Truncated below on a revert so
         // a failed frame's payouts vanish along with its writes (audit T4).
         NativeTransferHandler xfer = (toBytes, amount) -> {
-            ContractProcessor.NativeBalance nb = nativeBalance;
+            ContractProcessor.NativeBalance nb = env.balances();
             if (nb == null || amount <= 0 || toBytes.length != PublicAddress.SIZE) {
                 return -1;
             }
@@ -331,7 +373,7 @@ public final class WasmContractProcessor implements ContractProcessor {
             return 0;
         };
         PersistentHostState host =
-            new PersistentHostState(frame, contract, callerBytes, input, value, boxReader, xfer);
+            new PersistentHostState(store, contract, callerBytes, input, value, env.boxes(), xfer);
         List<ContractLog> collected = new java.util.ArrayList<>();
         // Logs are collected in EMISSION order: this frame's own logs flow through the live
         // sink as the contract emits them, and a nested call's logs are spliced in at the exact
@@ -341,17 +383,43 @@ public final class WasmContractProcessor implements ContractProcessor {
         host.setLogSink((topic, data) -> collected.add(new ContractLog(contract, topic, data)));
         int transferMark = transfers.size();
 
+        // Profiling (observability only): this frame's SELF wall time and gas — nested frames are
+        // subtracted here and recorded against their own contract.
+        ContractProfiler prof = env.profiler();
+        ContractProfiler.FunctionTimer timer = prof == null ? null : prof.maybeSample();
+        ContractProfiler.FunctionTimer outerTimer = prof == null ? null : ContractProfiler.ACTIVE_TIMER.get();
+        long startNanos = prof == null ? 0 : System.nanoTime();
+        long startGas = meter.used();
+        long[] nested = new long[2]; // nanos, gas spent in nested call_contract frames
+        ContractCallEvent event = prof == null ? null : new ContractCallEvent();
+        if (event != null) {
+            event.begin();
+        }
+
         stack.push(contract);
+        if (prof != null) {
+            ContractProfiler.ACTIVE_TIMER.set(timer);
+        }
         ExecResult result;
         try {
-            // Nested calls: the running contract is the caller, its frame is the parent
-            // store, value transfer is not forwarded (no ledger access from the VM).
+            // Nested calls: the running contract is the caller, they write under their own
+            // savepoint of the same session, value transfer is not forwarded (no ledger access from the VM).
             result = vm.execute(code, host, meter, (calleeAddr, calleeInput) -> {
                 if (calleeAddr.length != PublicAddress.SIZE) {
                     return null;
                 }
-                CallOutcome sub = runCall(contract.toBytes(), PublicAddress.of(calleeAddr),
-                    calleeInput, 0, meter, frame, stack, transfers, reservedByContract);
+                long subNanos = prof == null ? 0 : System.nanoTime();
+                long subGas = meter.used();
+                CallOutcome sub;
+                try {
+                    sub = runCall(contract.toBytes(), PublicAddress.of(calleeAddr),
+                        calleeInput, 0, meter, store, stack, transfers, reservedByContract, env);
+                } finally {
+                    if (prof != null) {
+                        nested[0] += System.nanoTime() - subNanos;
+                        nested[1] += meter.used() - subGas;
+                    }
+                }
                 if (!sub.success()) {
                     return null;
                 }
@@ -360,6 +428,25 @@ public final class WasmContractProcessor implements ContractProcessor {
             });
         } finally {
             stack.pop();
+            if (prof != null) {
+                ContractProfiler.ACTIVE_TIMER.set(outerTimer);
+            }
+        }
+        if (prof != null) {
+            long selfNanos = System.nanoTime() - startNanos - nested[0];
+            long selfGas = meter.used() - startGas - nested[1];
+            prof.record(contract, result.succeeded(), selfNanos, selfGas,
+                host.storageReads(), host.storageWrites(), host.moduleCacheHit(), timer);
+            if (event.shouldCommit()) {
+                event.contract = contract.toHexString();
+                event.depth = stack.size();
+                event.gasUsed = selfGas;
+                event.success = result.succeeded();
+                event.storageReads = host.storageReads();
+                event.storageWrites = host.storageWrites();
+                event.moduleCacheHit = host.moduleCacheHit();
+                event.commit();
+            }
         }
 
         if (!result.succeeded()) {
@@ -379,10 +466,11 @@ public final class WasmContractProcessor implements ContractProcessor {
                 }
             }
             discarded.clear();
+            store.rollback(savepoint); // the subtree's writes (committed sub-calls included) vanish
             return CallOutcome.fail(result.message()); // frame discarded: no writes, no logs
         }
-        host.commit();                 // this call's own writes into its frame...
-        frame.flushWithJournal();      // ...and the frame (incl. sub-calls) into the parent
+        host.commit();                 // this call's own writes into the session...
+        store.release(savepoint);      // ...kept, folded into the enclosing frame's savepoint
         // No end-of-call log splice: this frame's logs already reached `collected` via the live
         // sink, in emission order (audit: inter-contract log ordering).
         return new CallOutcome(true, result.output(), collected, null);
@@ -403,6 +491,18 @@ public final class WasmContractProcessor implements ContractProcessor {
         // block a receipts write in the synced batch (audit review; receipts() maps a missing
         // blob back to List.of()).
         byte[] encodedReceipts = currentReceipts.isEmpty() ? null : encodeReceipts(currentReceipts);
+        // The block's logs (truncated as retainLogs keeps them) and their bloom ride the same
+        // batch on a log-indexing store, so historical queries outlive the RAM window. Logs only
+        // come from run(), which opens the session, so they always commit through it below.
+        byte[] encodedLogs = null;
+        LogBloom bloom = null;
+        if (!currentLogs.isEmpty() && baseStore.indexesLogs()) {
+            List<ContractLog> kept = currentLogs.size() > MAX_LOGS_PER_HEIGHT
+                ? currentLogs.subList(0, MAX_LOGS_PER_HEIGHT)
+                : currentLogs;
+            encodedLogs = encodeLogs(kept);
+            bloom = LogBloom.of(kept);
+        }
         if (session != null) {
             List<ContractChange> changes = session.forwardChanges();
             List<ContractUndo> journal = session.captureJournal();
@@ -417,13 +517,14 @@ public final class WasmContractProcessor implements ContractProcessor {
             if (encodedJournal != null) {
                 retainJournal(blockHeight, journal);
             }
-            if (!changes.isEmpty() || encodedJournal != null || encodedReceipts != null) {
+            if (!changes.isEmpty() || encodedJournal != null || encodedReceipts != null || encodedLogs != null) {
                 // Commit the block's mutations AND its serialized undo journal AND its receipts
                 // as ONE atomic unit where the store supports it (RocksDB: a single synced
                 // WriteBatch), so a crash mid-flush cannot leave storage half-applied with no
                 // journal to rewind it (audit store F1) and the receipts cost no second fsync
                 // (audit perf). The journal doubles as the durable reorg-undo after a restart (M9).
-                baseStore.applyBlock(blockHeight, session.pendingChanges(), encodedJournal, encodedReceipts);
+                baseStore.applyBlock(blockHeight, session.pendingChanges(), encodedJournal, encodedReceipts,
+                    encodedLogs, bloom);
                 encodedReceipts = null;
             }
             if (!changes.isEmpty()) {
@@ -475,7 +576,94 @@ public final class WasmContractProcessor implements ContractProcessor {
 
     @Override
     public List<ContractLog> logs(long blockHeight) {
-        return logsByHeight.getOrDefault(blockHeight, List.of());
+        List<ContractLog> cached = logsByHeight.get(blockHeight);
+        if (cached != null) {
+            return cached;
+        }
+        // Past the RAM window (or after a restart): the durable copy, when the store keeps one.
+        // Not re-retained — a historical scan would otherwise evict the recent heights the
+        // live subscribers and pollers read.
+        byte[] persisted = baseStore.getLogs(blockHeight);
+        return persisted == null ? List.of() : decodeLogs(persisted);
+    }
+
+    /**
+     * The heights in {@code [fromHeight, toHeight]} whose logs may hold a log of {@code contract}
+     * (null: any) with topic {@code topic} (null: any), ascending — or {@code null} when the store
+     * keeps no log index. Scans the 1k range blooms that exist in the span, and the block blooms
+     * under each range that may match, both with {@link ContractStore#scanLogBlooms}: a range no
+     * block under it matches costs one row, heights without logs cost nothing, and a false
+     * positive costs a wasted {@link #logs} read, never a missed log. A bloom of the wrong size
+     * (written under an older layout) counts as "maybe". Stops before the rows read plus the
+     * candidates found would pass {@code maxRows}, at a whole height.
+     */
+    @Override
+    public LogCandidates logCandidates(long fromHeight, long toHeight, PublicAddress contract, byte[] topic,
+                                       int maxRows) {
+        if (!baseStore.indexesLogs()) {
+            return null;
+        }
+        CandidateScan scan = new CandidateScan(LogBloom.probe(contract, topic), fromHeight, maxRows);
+        baseStore.scanLogBlooms(1, fromHeight, toHeight, (start, bits) -> {
+            if (!scan.afford(1)) {
+                return scan.stop();
+            }
+            scan.rows++;
+            if (scan.mayMatch(bits, 1)) {
+                long end = Math.min(toHeight, start + LogBloom.SPANS[1] - 1);
+                baseStore.scanLogBlooms(0, Math.max(start, fromHeight), end, (height, blockBits) -> {
+                    if (!scan.afford(2)) { // its row, and the candidate it may add
+                        return scan.stop();
+                    }
+                    scan.rows++;
+                    if (scan.mayMatch(blockBits, 0)) {
+                        scan.heights.add(height);
+                    }
+                    scan.covered = height;
+                    return true;
+                });
+                if (scan.stopped) {
+                    return false;
+                }
+            }
+            scan.covered = Math.min(toHeight, start + LogBloom.SPANS[1] - 1);
+            return true;
+        });
+        return new LogCandidates(scan.heights.stream().mapToLong(Long::longValue).toArray(),
+            scan.stopped ? scan.covered : toHeight, scan.rows);
+    }
+
+    /** The running state of one {@link #logCandidates} search. */
+    private static final class CandidateScan {
+        final LogBloom probe;
+        final long fromHeight;
+        final int maxRows;
+        final List<Long> heights = new java.util.ArrayList<>();
+        int rows;
+        /** Every height up to here has been searched. */
+        long covered;
+        boolean stopped;
+
+        CandidateScan(LogBloom probe, long fromHeight, int maxRows) {
+            this.probe = probe;
+            this.fromHeight = fromHeight;
+            this.maxRows = maxRows;
+            this.covered = fromHeight - 1;
+        }
+
+        boolean mayMatch(byte[] bits, int level) {
+            return bits.length != LogBloom.BITS[level] / 8 || probe.mayMatch(bits, level);
+        }
+
+        /** True if {@code rows} more fit the budget; the first height is always searched. */
+        boolean afford(int rows) {
+            return covered < fromHeight || this.rows + heights.size() + rows <= maxRows;
+        }
+
+        boolean stop() {
+            stopped = true;
+            return false;
+        }
     }
 
     /**
@@ -814,6 +1002,57 @@ public final class WasmContractProcessor implements ContractProcessor {
         return receipts;
     }
 
+    // ---- persistent log codec (historical log queries) ----
+    // count(4) then per log: contract(25) | topicLen(4) | topic | dataLen(4) | data.
+
+    private static final int MIN_LOG_RECORD_BYTES = PublicAddress.SIZE + 2 * Integer.BYTES;
+
+    /** The encoding of one height's logs that {@link ContractStore#getLogs} returns. */
+    public static byte[] encodeLogs(List<ContractLog> logs) {
+        int size = Integer.BYTES;
+        for (ContractLog log : logs) {
+            size += MIN_LOG_RECORD_BYTES + log.topic().length + log.data().length;
+        }
+        java.nio.ByteBuffer b = java.nio.ByteBuffer.allocate(size);
+        b.putInt(logs.size());
+        for (ContractLog log : logs) {
+            b.put(log.contract().address());
+            b.putInt(log.topic().length).put(log.topic());
+            b.putInt(log.data().length).put(log.data());
+        }
+        return b.array();
+    }
+
+    static List<ContractLog> decodeLogs(byte[] bytes) {
+        java.nio.ByteBuffer b = java.nio.ByteBuffer.wrap(bytes);
+        int count = b.getInt();
+        // Same store-read bound as decodeReceipts (audit: unbounded decode allocations).
+        if (count < 0 || count > b.remaining() / MIN_LOG_RECORD_BYTES) {
+            throw new IllegalArgumentException("corrupt logs: count " + count
+                + " exceeds buffer (" + b.remaining() + " bytes)");
+        }
+        List<ContractLog> logs = new java.util.ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] contract = new byte[PublicAddress.SIZE];
+            b.get(contract);
+            byte[] topic = getSized(b);
+            byte[] data = getSized(b);
+            logs.add(new ContractLog(PublicAddress.of(contract), topic, data));
+        }
+        return logs;
+    }
+
+    private static byte[] getSized(java.nio.ByteBuffer b) {
+        int len = b.getInt();
+        if (len < 0 || len > b.remaining()) {
+            throw new IllegalArgumentException("corrupt logs: length " + len
+                + " exceeds buffer (" + b.remaining() + " bytes)");
+        }
+        byte[] out = new byte[len];
+        b.get(out);
+        return out;
+    }
+
     /**
      * Drops journals buried deeper than the retention depth (unreachable by any reorg). Keeps
      * EXACTLY {@code retainDepth} heights — {@code (lastCommittedHeight - retainDepth, lastCommittedHeight]}
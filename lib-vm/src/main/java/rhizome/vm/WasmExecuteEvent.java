@@ -0,0 +1,33 @@
+package rhizome.vm;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for one {@link WasmVm#execute} — module resolution, instantiation and the
+ * {@code call} export, consensus and read-only calls alike. Nested {@code call_contract} frames
+ * are separate, overlapping events. Where {@code rhizome.ContractCall} attributes consensus gas
+ * per contract, this one shows where interpreter wall time goes. Disabled unless a recording
+ * enables {@code rhizome.WasmExecute}; when disabled the VM skips it after one flag check.
+ */
+@Name("rhizome.WasmExecute")
+@Label("Wasm Execute")
+@Category({"Rhizome", "VM"})
+@Description("One contract execution in the Wasm interpreter")
+final class WasmExecuteEvent extends jdk.jfr.Event {
+
+    @Label("Code Size")
+    @Description("Module size in bytes")
+    int codeBytes;
+
+    @Label("Gas Used")
+    long gasUsed;
+
+    @Label("Gas Limit")
+    long gasLimit;
+
+    @Label("Status")
+    String status;
+}
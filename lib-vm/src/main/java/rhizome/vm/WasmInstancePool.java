@@ -0,0 +1,226 @@
+package rhizome.vm;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dylibso.chicory.runtime.Instance;
+import com.dylibso.chicory.runtime.Memory;
+import com.dylibso.chicory.wasm.WasmModule;
+import com.dylibso.chicory.wasm.types.ExternalType;
+import com.dylibso.chicory.wasm.types.OpCode;
+
+/**
+ * Idle, reusable instances of one contract module, reset to the module's post-instantiation image
+ * between calls. Repeated calls to the same contract — the common case within a block — then skip
+ * building a fresh {@link Instance}, its import table, host-function closures, linear memory and
+ * interpreter machine.
+ *
+ * <p>Purely a node-local performance cache, in the style of {@link WasmVm}'s module cache: it must
+ * never change an execution result. Three rules keep it that way:
+ *
+ * <ul>
+ *   <li>The image is captured from a freshly built instance <em>before</em> its first call, and
+ *       instantiation is deterministic, so it is exactly the state every fresh instance starts in.
+ *       A reset restores every byte of linear memory and every global the module defines from it
+ *       (imported globals belong to the host, not to the instance).
+ *   <li>Only modules whose runtime code cannot mutate anything else are pooled ({@link #poolable}):
+ *       no table writes or growth and no passive-segment ({@code memory.init}/{@code data.drop},
+ *       {@code table.init}/{@code elem.drop}) instructions. Tables are then immutable after
+ *       instantiation and need no reset, and no dropped-segment state can leak between calls.
+ *   <li>An instance is recycled only after its entry call returned normally and its memory did not
+ *       grow (a memory cannot shrink back to its initial size). A trap, revert or grow drops it; the
+ *       next call builds a fresh one.
+ * </ul>
+ *
+ * <p>The gas and tree-page budget a fresh instance's memory factory charges are replayed by the
+ * caller for a pooled instance, which is only handed out when that replay is certain to succeed
+ * (see {@link #acquire}), so pooled and fresh calls report identical {@code gasUsed}.
+ *
+ * <p>Idle instances and images are bounded by a process-wide page budget ({@link
+ * #MAX_POOLED_PAGES}) so the pool cannot itself become a memory-growth vector across the 256
+ * cached modules. Thread-safe: the contract workers and the dry-run worker share it.
+ */
+final class WasmInstancePool {
+
+    /** Bytes in one WASM linear-memory page. */
+    private static final int PAGE_BYTES = 64 * 1024;
+
+    /**
+     * Modules declaring more initial memory than this (pages) are never pooled: their reset copies
+     * as much as a fresh allocation would, and each idle instance would pin that much heap. The
+     * bundled templates declare 16–17 pages.
+     */
+    static final int MAX_POOLED_MODULE_PAGES = 32;
+
+    /**
+     * Idle instances kept per module. Covers the two contract workers, the dry-run worker and a
+     * level of same-contract nesting; more concurrent users of one module simply build fresh.
+     */
+    static final int MAX_IDLE_PER_MODULE = 4;
+
+    /** Process-wide cap on pages held by images and idle instances (1024 pages = 64 MiB). */
+    static final long MAX_POOLED_PAGES = 1024;
+
+    private static final AtomicLong POOLED_PAGES = new AtomicLong();
+
+    /** A pooled instance together with the call frame its host bindings route to. */
+    record Slot(Instance instance, WasmVm.CallFrame frame) { }
+
+    private final int memoryPages;
+    /** Imported globals, which come first in the instance's global index space. */
+    private final int importedGlobals;
+    private final int globalCount;
+    private final ArrayDeque<Slot> idle = new ArrayDeque<>();
+    private byte[] memoryImage;
+    private long[] globalImage;
+    private boolean captured;
+    private boolean closed;
+    private long reused;
+
+    WasmInstancePool(WasmModule module) {
+        var memories = module.memorySection();
+        this.memoryPages = memories.isPresent() && memories.get().memoryCount() > 0
+            ? memories.get().getMemory(0).limits().initialPages()
+            : 0;
+        var imports = module.importSection();
+        this.importedGlobals = imports == null ? 0 : imports.count(ExternalType.GLOBAL);
+        var globals = module.globalSection();
+        this.globalCount = globals == null ? 0 : globals.globalCount();
+    }
+
+    /**
+     * True if instances of {@code module} can be safely reset and reused: a small initial memory and
+     * no instruction that mutates tables or passive segments (see the class javadoc).
+     */
+    static boolean poolable(WasmModule module) {
+        var memories = module.memorySection();
+        if (memories.isPresent() && memories.get().memoryCount() > 0
+                && memories.get().getMemory(0).limits().initialPages() > MAX_POOLED_MODULE_PAGES) {
+            return false;
+        }
+        var code = module.codeSection();
+        if (code != null) {
+            for (int i = 0; i < code.functionBodyCount(); i++) {
+                for (var instruction : code.getFunctionBody(i).instructions()) {
+                    if (mutatesBeyondImage(instruction.opcode())) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean mutatesBeyondImage(OpCode opcode) {
+        return switch (opcode) {
+            case TABLE_SET, TABLE_GROW, TABLE_FILL, TABLE_COPY, TABLE_INIT, ELEM_DROP,
+                 MEMORY_INIT, DATA_DROP -> true;
+            default -> false;
+        };
+    }
+
+    /** Initial linear-memory pages of every instance in this pool (0 if the module has none). */
+    int memoryPages() {
+        return memoryPages;
+    }
+
+    /**
+     * Takes an idle instance, or null if none is available or the caller could not afford the
+     * replayed memory charge: {@code treePagesLeft} (the call tree's remaining page budget) and the
+     * meter's remaining gas must both cover it, otherwise the caller builds a fresh instance and the
+     * budget failure surfaces exactly as it always did.
+     */
+    synchronized Slot acquire(GasMeter gas, long treePagesLeft) {
+        if (closed || idle.isEmpty()) {
+            return null;
+        }
+        if (memoryPages > treePagesLeft
+                || (long) memoryPages * GasSchedule.MEMORY_PER_PAGE > gas.remaining()) {
+            return null;
+        }
+        POOLED_PAGES.addAndGet(-memoryPages);
+        reused++;
+        return idle.pop();
+    }
+
+    /**
+     * Records the post-instantiation image from a freshly built {@code instance}, before its first
+     * call. Only the first capture is kept; a capture that does not fit the process-wide budget is
+     * skipped and retried on a later fresh instance.
+     */
+    synchronized void captureImage(Instance instance, Memory memory) {
+        if (captured || closed || !reserve(memoryPages)) {
+            return;
+        }
+        memoryImage = memory == null ? null : memory.readBytes(0, memoryPages * PAGE_BYTES);
+        long[] globals = new long[globalCount];
+        for (int i = 0; i < globalCount; i++) {
+            globals[i] = instance.global(importedGlobals + i).getValue();
+        }
+        globalImage = globals;
+        captured = true;
+    }
+
+    /**
+     * Resets {@code instance} to the image and returns it to the pool, or drops it if the image is
+     * missing, the memory grew, the pool is full or the budget is exhausted. Called only after the
+     * instance's entry call returned normally, with {@code frame} already unbound.
+     */
+    void release(Instance instance, WasmVm.CallFrame frame) {
+        byte[] image;
+        long[] globals;
+        synchronized (this) {
+            if (!captured || closed || idle.size() >= MAX_IDLE_PER_MODULE) {
+                return;
+            }
+            image = memoryImage;
+            globals = globalImage;
+        }
+        Memory memory = frame.memory;
+        if (memoryPages > 0 && (memory == null || memory.pages() != memoryPages)) {
+            return;
+        }
+        if (image != null) {
+            memory.write(0, image);
+        }
+        for (int i = 0; i < globals.length; i++) {
+            instance.global(importedGlobals + i).setValue(globals[i]);
+        }
+        synchronized (this) {
+            if (closed || idle.size() >= MAX_IDLE_PER_MODULE || !reserve(memoryPages)) {
+                return;
+            }
+            idle.push(new Slot(instance, frame));
+        }
+    }
+
+    /** Calls served by a pooled instance rather than a fresh one. */
+    synchronized long reused() {
+        return reused;
+    }
+
+    /** Drops the image and every idle instance, returning their pages to the budget. */
+    synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        long held = (long) idle.size() * memoryPages + (captured ? memoryPages : 0);
+        POOLED_PAGES.addAndGet(-held);
+        idle.clear();
+        memoryImage = null;
+        globalImage = null;
+    }
+
+    private static boolean reserve(long pages) {
+        while (true) {
+            long current = POOLED_PAGES.get();
+            if (current + pages > MAX_POOLED_PAGES) {
+                return false;
+            }
+            if (POOLED_PAGES.compareAndSet(current, current + pages)) {
+                return true;
+            }
+        }
+    }
+}
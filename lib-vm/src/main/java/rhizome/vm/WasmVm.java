@@ -200,16 +200,29 @@ public final class WasmVm {
      * Parsed, validated modules keyed by SHA-256 of their code. Parsing and the float/SIMD scan are
      * O(code size); caching amortises them across repeated calls to the same contract. Node-local
      * and purely a performance cache — it never changes execution results — with a bounded size so
-     * it cannot itself be a memory-growth vector.
+     * it cannot itself be a memory-growth vector. Each entry also carries the module's instance pool
+     * (see {@link WasmInstancePool}); evicting the module releases its pooled instances.
      */
-    private static final java.util.LinkedHashMap<CodeKey, WasmModule> MODULE_CACHE =
+    private static final java.util.LinkedHashMap<CodeKey, CachedModule> MODULE_CACHE =
         new java.util.LinkedHashMap<>(64, 0.75f, true) {
             @Override
-            protected boolean removeEldestEntry(java.util.Map.Entry<CodeKey, WasmModule> eldest) {
-                return size() > 256;
+            protected boolean removeEldestEntry(java.util.Map.Entry<CodeKey, CachedModule> eldest) {
+                if (size() > 256) {
+                    if (eldest.getValue().pool() != null) {
+                        eldest.getValue().pool().close();
+                    }
+                    return true;
+                }
+                return false;
             }
         };
 
+    /**
+     * A {@link #MODULE_CACHE} entry: the parsed, validated module and its instance pool, or a null
+     * pool when the module is not eligible for reuse (see {@link WasmInstancePool#poolable}).
+     */
+    private record CachedModule(WasmModule module, WasmInstancePool pool) { }
+
     /**
      * Value-equality wrapper over contract code bytes, used as the {@link #MODULE_CACHE} key. Replaces
      * a per-call SHA-256 + hex-String of the whole module (up to MAX_CODE_SIZE) — O(code) crypto on
@@ -249,13 +262,31 @@ public final class WasmVm {
 
     /** As above, with {@code calls} dispatching {@code call_contract} (null = calls always fail). */
     public ExecResult execute(byte[] wasmCode, HostState host, GasMeter gas, ContractCallHandler calls) {
-        WasmModule module;
+        WasmExecuteEvent event = new WasmExecuteEvent();
+        if (!event.isEnabled()) {
+            return run(wasmCode, host, gas, calls);
+        }
+        event.begin();
+        ExecResult result = run(wasmCode, host, gas, calls);
+        if (event.shouldCommit()) {
+            event.codeBytes = wasmCode.length;
+            event.gasUsed = result.gasUsed();
+            event.gasLimit = gas.limit();
+            event.status = result.status().name();
+            event.commit();
+        }
+        return result;
+    }
+
+    private ExecResult run(byte[] wasmCode, HostState host, GasMeter gas, ContractCallHandler calls) {
+        CachedModule cached;
+        boolean[] cacheHit = new boolean[1];
         try {
             // Parse + non-determinism validation are cached by code identity: without this,
             // every CALL re-parsed the whole module and re-scanned every instruction (O(code)
             // work) unpriced, so a large module could be spammed to amplify node CPU. Deploy
             // also caps code size, so a cache miss is bounded work.
-            module = moduleFor(wasmCode, gas);
+            cached = moduleFor(wasmCode, gas, cacheHit);
         } catch (Throwable e) {
             // The deterministic module-parse charge is levied here (cache hit and miss alike), so a
             // budget too small to cover it must surface as OUT_OF_GAS — a full-limit, node-independent
@@ -276,39 +307,40 @@ public final class WasmVm {
             // reaches instantiation — deterministic revert.
             return ExecResult.reverted(gas.used(), "invalid module: " + e.getMessage());
         }
-        ImportValues imports = ImportValues.builder()
-            .addFunction(hostFunctions(host, gas, calls))
-            .build();
-
-        // Pages this frame reserves from the tree-wide budget (initial memory + every memory.grow);
-        // released in the finally so the budget tracks concurrent nesting and unwinds on return.
-        long[] frameAdded = new long[1];
-        // The linear memory this instance builds, captured so the memory.grow meter can read its
-        // current/maximum pages and reserve only what a grow will actually commit (see meter).
-        Memory[] memHolder = new Memory[1];
+        host.moduleResolved(cacheHit[0]);
+
+        // A pooled instance is only taken when its replayed memory charge and tree-page reservation
+        // are certain to succeed; otherwise the call builds a fresh instance, so every budget
+        // failure surfaces from exactly the code path (and with exactly the gasUsed) it always did.
+        WasmInstancePool pool = cached.pool();
+        WasmInstancePool.Slot slot = pool == null ? null : pool.acquire(gas, TREE_MAX_PAGES - TREE_PAGES.get()[0]);
+        CallFrame frame = slot != null ? slot.frame() : new CallFrame();
+        frame.bind(host, gas, calls);
+        Instance instance = slot != null ? slot.instance() : null;
+        boolean returnedNormally = false;
         try {
-            Instance instance = Instance.builder(module)
-                .withImportValues(imports)
-                .withStart(false)
-                // Cap and meter linear memory so a contract cannot allocate gigabytes — per-instance
-                // AND tree-wide (see TREE_MAX_PAGES) so nested calls cannot sum past the budget.
-                .withMemoryFactory(limits -> {
-                    Memory m = boundedMemory(limits, gas, frameAdded);
-                    memHolder[0] = m;
-                    return m;
-                })
-                // Deterministic WASM call-depth cap: traps unbounded recursion at a fixed depth
-                // on every node, replacing the JVM-stack-dependent StackOverflowError that would
-                // otherwise fork consensus (see DepthLimitedInterpreterMachine).
-                .withMachineFactory(DepthLimitedInterpreterMachine::new)
-                // Meter every instruction; bulk-memory / memory.grow are charged by their
-                // runtime operand, not a flat 1, so O(N) work cannot cost O(1) gas.
-                .withUnsafeExecutionListener((instruction, stack) -> meter(instruction, stack, gas, frameAdded, memHolder))
-                .build();
+            if (instance != null) {
+                // Replays boundedMemory's reservation and charge for the (reset) initial memory, in
+                // the same order, so a pooled call is indistinguishable from a fresh one in gasUsed.
+                int pages = pool.memoryPages();
+                if (pages > 0) {
+                    reserveTreePages(pages, frame.frameAdded);
+                    gas.charge((long) pages * GasSchedule.MEMORY_PER_PAGE);
+                }
+            } else {
+                instance = instantiate(cached.module(), frame);
+                if (pool != null) {
+                    // Instantiation is deterministic, so the first fresh instance's state before the
+                    // call is THE post-instantiation image every pooled instance is reset to.
+                    pool.captureImage(instance, frame.memory);
+                }
+            }
 
             ExportFunction call = instance.export(ENTRY);
             call.apply();
-            return ExecResult.ok(host.output(), host.logs(), gas.used());
+            ExecResult result = ExecResult.ok(host.output(), host.logs(), gas.used());
+            returnedNormally = true;
+            return result;
         } catch (OutOfMemoryError e) {
             // Fatal, never normalized to out-of-gas. After the host-buffer cap (HOST_BUFFER_CAP)
             // and the tree-wide memory/locals/table budgets, every contract-driven allocation is
@@ -357,7 +389,75 @@ public final class WasmVm {
         } finally {
             // Release this frame's share of the tree-wide page budget, whether it returned, reverted
             // or trapped — so sequential (non-nested) calls on the same thread don't leak pages.
-            TREE_PAGES.get()[0] -= frameAdded[0];
+            TREE_PAGES.get()[0] -= frame.frameAdded[0];
+            frame.unbind();
+            // Only an instance whose entry call returned normally goes back to the pool: a trap can
+            // leave frames on the interpreter's call stack, so a trapped instance is simply dropped.
+            if (pool != null && instance != null && returnedNormally) {
+                pool.release(instance, frame);
+            }
+        }
+    }
+
+    /**
+     * Builds a fresh instance of {@code module} whose host functions, memory factory and metering
+     * listener all read the call they serve from {@code frame}. The bindings are created once per
+     * instance, so a pooled instance re-binds its frame per call instead of allocating a new import
+     * table and a dozen host-function closures.
+     */
+    private static Instance instantiate(WasmModule module, CallFrame frame) {
+        ImportValues imports = ImportValues.builder()
+            .addFunction(hostFunctions(frame))
+            .build();
+        return Instance.builder(module)
+            .withImportValues(imports)
+            .withStart(false)
+            // Cap and meter linear memory so a contract cannot allocate gigabytes — per-instance
+            // AND tree-wide (see TREE_MAX_PAGES) so nested calls cannot sum past the budget.
+            .withMemoryFactory(limits -> {
+                Memory m = boundedMemory(limits, frame.gas, frame.frameAdded);
+                frame.memory = m;
+                return m;
+            })
+            // Deterministic WASM call-depth cap: traps unbounded recursion at a fixed depth
+            // on every node, replacing the JVM-stack-dependent StackOverflowError that would
+            // otherwise fork consensus (see DepthLimitedInterpreterMachine).
+            .withMachineFactory(DepthLimitedInterpreterMachine::new)
+            // Meter every instruction; bulk-memory / memory.grow are charged by their
+            // runtime operand, not a flat 1, so O(N) work cannot cost O(1) gas.
+            .withUnsafeExecutionListener((instruction, stack) -> meter(instruction, stack, frame))
+            .build();
+    }
+
+    /**
+     * The per-call context an instance's host bindings route to. An instance owns exactly one frame
+     * for its lifetime; {@link #bind} points it at the call being served and {@link #unbind} drops
+     * those references again, so an idle pooled instance pins neither the host state nor the meter
+     * of the call it last served. Confined to the one execution thread running the call.
+     */
+    static final class CallFrame {
+        HostState host;
+        GasMeter gas;
+        ContractCallHandler calls;
+        /** Pages this call reserved from the tree-wide budget (initial memory + every memory.grow). */
+        final long[] frameAdded = new long[1];
+        /**
+         * The instance's linear memory, captured by the memory factory so the memory.grow meter can
+         * read its current/maximum pages and reserve only what a grow will actually commit.
+         */
+        Memory memory;
+
+        void bind(HostState host, GasMeter gas, ContractCallHandler calls) {
+            this.host = host;
+            this.gas = gas;
+            this.calls = calls;
+            this.frameAdded[0] = 0;
+        }
+
+        void unbind() {
+            this.host = null;
+            this.gas = null;
+            this.calls = null;
         }
     }
 
@@ -441,6 +541,31 @@ public final class WasmVm {
         return onWorker(DRY_RUN_WORKER, task);
     }
 
+    /**
+     * A new fixed pool of {@code threads} daemon workers with the same fixed {@link
+     * #EXEC_STACK_BYTES} stack as {@link #BOUNDED_STACK_WORKER}, for an executor that must not share
+     * the consensus workers (the read-only call engine). Run tasks on it through {@link
+     * #onBoundedStack(java.util.concurrent.ExecutorService, java.util.function.Supplier)}; the
+     * owner shuts it down.
+     */
+    static java.util.concurrent.ExecutorService newBoundedStackPool(String name, int threads) {
+        return java.util.concurrent.Executors.newFixedThreadPool(threads, new java.util.concurrent.ThreadFactory() {
+            private final java.util.concurrent.atomic.AtomicInteger seq = new java.util.concurrent.atomic.AtomicInteger();
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(null, r, name + "-" + seq.incrementAndGet(), EXEC_STACK_BYTES);
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    /** As {@link #onBoundedStack}, on a pool built by {@link #newBoundedStackPool}. */
+    static <T> T onBoundedStack(java.util.concurrent.ExecutorService worker,
+                                java.util.function.Supplier<T> task) {
+        return onWorker(worker, task);
+    }
+
     private static <T> T onWorker(java.util.concurrent.ExecutorService worker,
                                   java.util.function.Supplier<T> task) {
         java.util.concurrent.Future<T> future = worker.submit(task::get);
@@ -517,7 +642,7 @@ public final class WasmVm {
             throw new IllegalArgumentException(
                 "contract code too large: " + wasmCode.length + " > " + MAX_CODE_SIZE);
         }
-        moduleFor(wasmCode, null);
+        moduleFor(wasmCode, null, null);
     }
 
     /**
@@ -535,8 +660,11 @@ public final class WasmVm {
      * state, so a validator with a cold cache would reject an honest block a warm producer built
      * ({@code INVALID_STATE_ROOT}) and fork off. The cache therefore stays a pure CPU optimization; the
      * fixed, length-derived parse cost is deterministic on every node (audit 5th-pass, VM Finding 1).
+     *
+     * <p>{@code cacheHit}, when non-null, has its first element set on a cache hit — reported to the
+     * host for profiling only ({@link HostState#moduleResolved}); it never feeds back into execution.
      */
-    private static WasmModule moduleFor(byte[] wasmCode, GasMeter gas) {
+    private static CachedModule moduleFor(byte[] wasmCode, GasMeter gas, boolean[] cacheHit) {
         // Defence in depth (audit: code-size at execution): validateCode enforces this cap at
         // deploy, so stored code is always within it — but the runtime path re-checks rather
         // than trusting the store, at zero cost relative to the parse charge below. The check
@@ -552,8 +680,11 @@ public final class WasmVm {
         }
         CodeKey key = new CodeKey(wasmCode);
         synchronized (MODULE_CACHE) {
-            WasmModule cached = MODULE_CACHE.get(key);
+            CachedModule cached = MODULE_CACHE.get(key);
             if (cached != null) {
+                if (cacheHit != null) {
+                    cacheHit[0] = true;
+                }
                 return cached;
             }
         }
@@ -568,14 +699,18 @@ public final class WasmVm {
         rejectNonDeterministic(module);
         rejectOversizedAllocations(module);
         rejectNonWhitelistedAbi(module);
+        CachedModule entry = new CachedModule(module,
+            WasmInstancePool.poolable(module) ? new WasmInstancePool(module) : null);
         synchronized (MODULE_CACHE) {
             // Defensive clone at the cache boundary (CodeKey does not clone): without it the
             // retained key would alias the caller's array, and a caller mutating its own copy
             // after a miss would silently corrupt the key's equals/hashCode. The lookup path
             // deliberately does not clone — one copy per miss, not per call.
-            MODULE_CACHE.put(new CodeKey(wasmCode.clone()), module);
+            CachedModule raced = MODULE_CACHE.putIfAbsent(new CodeKey(wasmCode.clone()), entry);
+            // Two workers missing on the same code concurrently: keep the first entry so both
+            // calls (and every later one) share a single instance pool.
+            return raced != null ? raced : entry;
         }
-        return module;
     }
 
     /**
@@ -584,10 +719,23 @@ public final class WasmVm {
      */
     static void clearModuleCacheForTest() {
         synchronized (MODULE_CACHE) {
+            for (CachedModule cached : MODULE_CACHE.values()) {
+                if (cached.pool() != null) {
+                    cached.pool().close();
+                }
+            }
             MODULE_CACHE.clear();
         }
     }
 
+    /** Test-only hook: calls of {@code wasmCode} served by a pooled instance, or -1 if it has no pool. */
+    static long pooledReusesForTest(byte[] wasmCode) {
+        synchronized (MODULE_CACHE) {
+            CachedModule cached = MODULE_CACHE.get(new CodeKey(wasmCode));
+            return cached == null || cached.pool() == null ? -1 : cached.pool().reused();
+        }
+    }
+
     /**
      * Builds a linear memory bounded by {@link #MAX_CONTRACT_PAGES} and charges gas for the
      * eagerly-allocated initial pages, so a module that declares a huge memory (or grows into
@@ -630,8 +778,8 @@ public final class WasmVm {
      * (the count on top of the value stack when this fires, before execution), so they are
      * charged by that operand — otherwise a single instruction could memset megabytes for 1 gas.
      */
-    private static void meter(Instruction instruction, MStack stack, GasMeter gas, long[] frameAdded,
-                              Memory[] memHolder) {
+    private static void meter(Instruction instruction, MStack stack, CallFrame frame) {
+        GasMeter gas = frame.gas;
         gas.charge(GasSchedule.PER_INSTRUCTION);
         switch (instruction.opcode()) {
             case MEMORY_FILL, MEMORY_COPY, MEMORY_INIT, TABLE_FILL, TABLE_COPY, TABLE_INIT -> {
@@ -655,13 +803,13 @@ public final class WasmVm {
                     // against TREE_MAX_PAGES for a grow that never allocated — deterministic, but it could
                     // make a later legitimate grow in the same call tree spuriously trip the budget
                     // (audit VM #4). Reserve 0 when the grow cannot fit the instance cap.
-                    Memory mem = memHolder[0];
+                    Memory mem = frame.memory;
                     long committable = requested;
                     if (mem != null && requested > (long) mem.maximumPages() - mem.pages()) {
                         committable = 0;
                     }
                     if (committable > 0) {
-                        reserveTreePages(committable, frameAdded);
+                        reserveTreePages(committable, frame.frameAdded);
                     }
                 }
             }
@@ -1768,28 +1916,33 @@ public final class WasmVm {
         }
     }
 
-    private HostFunction[] hostFunctions(HostState host, GasMeter gas, ContractCallHandler calls) {
+    /**
+     * The host ABI bound to {@code frame}. Every function reads the host state, meter and call
+     * dispatcher from the frame when it is invoked rather than capturing them, so one set of
+     * bindings serves every call a (pooled) instance runs.
+     */
+    private static HostFunction[] hostFunctions(CallFrame frame) {
         HostFunction storageRead = new HostFunction(ENV, "storage_read",
             List.of(ValType.I32, ValType.I32, ValType.I32, ValType.I32), List.of(ValType.I32),
             (Instance inst, long... args) -> {
                 Memory mem = inst.memory();
                 int keyLen = asLen(args[1]);
                 // Charge before touching memory so the work is metered even on a failing path.
-                gas.charge(GasSchedule.STORAGE_READ_BASE + (long) keyLen * GasSchedule.PER_BYTE);
-                capHostBuffer(keyLen, gas);
+                frame.gas.charge(GasSchedule.STORAGE_READ_BASE + (long) keyLen * GasSchedule.PER_BYTE);
+                capHostBuffer(keyLen, frame.gas);
                 byte[] key = mem.readBytes(asOffset(args[0]), keyLen);
-                byte[] value = host.storageRead(key);
+                byte[] value = frame.host.storageRead(key);
                 if (value == null) {
                     return new long[] {-1L};
                 }
-                // Charge for the FULL value length, not just the copied bytes: host.storageRead
+                // Charge for the FULL value length, not just the copied bytes: frame.host.storageRead
                 // already materialised and cloned the whole value (O(valueLen) work), so metering
                 // only `copied` let a caller pass out_cap = 0 and force repeated full loads of a
                 // large value for the flat base cost — the same undercharge box_read was fixed for.
-                gas.charge((long) value.length * GasSchedule.PER_BYTE);
+                frame.gas.charge((long) value.length * GasSchedule.PER_BYTE);
                 // Values written after the cap can never exceed it (storage_write enforces it), so
                 // this is defence in depth for pre-existing state; deterministic either way.
-                capHostBuffer(value.length, gas);
+                capHostBuffer(value.length, frame.gas);
                 int outPtr = asOffset(args[2]);
                 int outCap = asLen(args[3]);
                 int copied = Math.min(value.length, outCap);
@@ -1809,10 +1962,10 @@ public final class WasmVm {
                 // can overflow int before the cast and undercharge a huge write (audit F4). The
                 // written bytes become permanent on-chain state, so they pay STORAGE_WRITE_PER_BYTE,
                 // not the transient PER_BYTE rate (audit F5).
-                gas.charge(GasSchedule.STORAGE_WRITE_BASE
+                frame.gas.charge(GasSchedule.STORAGE_WRITE_BASE
                     + ((long) keyLen + valLen) * GasSchedule.STORAGE_WRITE_PER_BYTE);
-                capHostBuffer(keyLen, gas);
-                capHostBuffer(valLen, gas);
+                capHostBuffer(keyLen, frame.gas);
+                capHostBuffer(valLen, frame.gas);
                 if (keyLen == 0) {
                     // The empty storage key is reserved for the host-written deployer record that
                     // get_deployer reads (set once at deploy). Forbidding contracts from writing it
@@ -1822,7 +1975,7 @@ public final class WasmVm {
                 }
                 byte[] key = mem.readBytes(asOffset(args[0]), keyLen);
                 byte[] value = mem.readBytes(asOffset(args[2]), valLen);
-                host.storageWrite(key, value);
+                frame.host.storageWrite(key, value);
                 return null;
             });
 
@@ -1830,10 +1983,10 @@ public final class WasmVm {
             List.of(ValType.I32, ValType.I32), List.of(),
             (Instance inst, long... args) -> {
                 int len = asLen(args[1]);
-                gas.charge(GasSchedule.OUTPUT_BASE + (long) len * GasSchedule.PER_BYTE);
-                capHostBuffer(len, gas);
+                frame.gas.charge(GasSchedule.OUTPUT_BASE + (long) len * GasSchedule.PER_BYTE);
+                capHostBuffer(len, frame.gas);
                 byte[] out = inst.memory().readBytes(asOffset(args[0]), len);
-                host.setOutput(out);
+                frame.host.setOutput(out);
                 return null;
             });
 
@@ -1845,12 +1998,12 @@ public final class WasmVm {
                 int dataLen = asLen(args[3]);
                 // Long-cast BEFORE the add so the contract-controlled length sum cannot overflow
                 // int before the cast and undercharge a huge log (audit F4).
-                gas.charge(GasSchedule.LOG_BASE + ((long) topicLen + dataLen) * GasSchedule.PER_BYTE);
-                capHostBuffer(topicLen, gas);
-                capHostBuffer(dataLen, gas);
+                frame.gas.charge(GasSchedule.LOG_BASE + ((long) topicLen + dataLen) * GasSchedule.PER_BYTE);
+                capHostBuffer(topicLen, frame.gas);
+                capHostBuffer(dataLen, frame.gas);
                 byte[] topic = mem.readBytes(asOffset(args[0]), topicLen);
                 byte[] data = mem.readBytes(asOffset(args[2]), dataLen);
-                host.emitLog(topic, data);
+                frame.host.emitLog(topic, data);
                 return null;
             });
 
@@ -1858,24 +2011,24 @@ public final class WasmVm {
         // length (so a contract can size its buffer), copying at most out_cap bytes.
         HostFunction getCaller = new HostFunction(ENV, "get_caller",
             List.of(ValType.I32, ValType.I32), List.of(ValType.I32),
-            (Instance inst, long... args) -> new long[] {copyOut(inst, host.caller(), args[0], args[1], gas)});
+            (Instance inst, long... args) -> new long[] {copyOut(inst, frame.host.caller(), args[0], args[1], frame.gas)});
 
         HostFunction getInput = new HostFunction(ENV, "get_input",
             List.of(ValType.I32, ValType.I32), List.of(ValType.I32),
-            (Instance inst, long... args) -> new long[] {copyOut(inst, host.input(), args[0], args[1], gas)});
+            (Instance inst, long... args) -> new long[] {copyOut(inst, frame.host.input(), args[0], args[1], frame.gas)});
 
-        // Deliberately the one uncharged host fn: host.value() is an O(1) field read with no
+        // Deliberately the one uncharged host fn: frame.host.value() is an O(1) field read with no
         // allocation, so a loop of get_value calls costs the caller 1 gas per iteration (the
         // `call` instruction itself) — as unprofitable as an empty loop. Adding a charge now
         // would change gasUsed on already-executed calls — a consensus change requiring an
         // activation height, not a fix (audit: get_value metering).
         HostFunction getValue = new HostFunction(ENV, "get_value",
             List.of(), List.of(ValType.I64),
-            (Instance inst, long... args) -> new long[] {host.value()});
+            (Instance inst, long... args) -> new long[] {frame.host.value()});
 
         HostFunction getSelf = new HostFunction(ENV, "get_self",
             List.of(ValType.I32, ValType.I32), List.of(ValType.I32),
-            (Instance inst, long... args) -> new long[] {copyOut(inst, host.selfAddress(), args[0], args[1], gas)});
+            (Instance inst, long... args) -> new long[] {copyOut(inst, frame.host.selfAddress(), args[0], args[1], frame.gas)});
 
         // get_deployer(out_ptr, out_cap) -> i32: the address that deployed this contract (recorded
         // at deploy, immutable). Copies up to out_cap bytes, returns the true length (0 if unknown).
@@ -1886,9 +2039,9 @@ public final class WasmVm {
             (Instance inst, long... args) -> {
                 // Charge the storage-read base like storage_read: deployer() performs a real backing-store
                 // lookup, so without this a contract could loop get_deployer to read the store cheaper than
-                // storage_read (copyOut alone charges only PER_BYTE). host.deployer() memoizes the value.
-                gas.charge(GasSchedule.STORAGE_READ_BASE);
-                return new long[] {copyOut(inst, host.deployer(), args[0], args[1], gas)};
+                // storage_read (copyOut alone charges only PER_BYTE). frame.host.deployer() memoizes the value.
+                frame.gas.charge(GasSchedule.STORAGE_READ_BASE);
+                return new long[] {copyOut(inst, frame.host.deployer(), args[0], args[1], frame.gas)};
             });
 
         // transfer_value(to_ptr, to_len, amount) -> i32: pays `amount` native coin from THIS
@@ -1904,10 +2057,10 @@ public final class WasmVm {
                 // let a hostile contract loop transfer_value(ptr, ~64 MiB, 0): each call allocated and
                 // copied up to the memory cap for 500 gas, then returned -1 — ~10^5x underpriced, a
                 // deterministic block-filling CPU/GC DoS that defeated gas-as-a-DoS-bound (audit S5).
-                gas.charge(GasSchedule.CALL_BASE + (long) toLen * GasSchedule.PER_BYTE);
-                capHostBuffer(toLen, gas);
+                frame.gas.charge(GasSchedule.CALL_BASE + (long) toLen * GasSchedule.PER_BYTE);
+                capHostBuffer(toLen, frame.gas);
                 byte[] to = inst.memory().readBytes(asOffset(args[0]), toLen);
-                return new long[] {host.transferValue(to, args[2])};
+                return new long[] {frame.host.transferValue(to, args[2])};
             });
 
         // box_read(id_ptr, out_ptr, out_cap) -> i32: reads the 32-byte box id at id_ptr,
@@ -1919,9 +2072,9 @@ public final class WasmVm {
                 Memory mem = inst.memory();
                 // Charge before touching guest memory, matching every other host fn (the id is a fixed
                 // 32 bytes so this is not an undercharge, only an ordering consistency fix).
-                gas.charge(GasSchedule.BOX_READ_BASE);
+                frame.gas.charge(GasSchedule.BOX_READ_BASE);
                 byte[] id = mem.readBytes(asOffset(args[0]), 32);
-                rhizome.core.box.Box box = host.boxRead(id);
+                rhizome.core.box.Box box = frame.host.boxRead(id);
                 if (box == null) {
                     return new long[] {-1L};
                 }
@@ -1932,8 +2085,8 @@ public final class WasmVm {
                 // gas-insufficient caller paid for the serialization anyway). The cap check also
                 // precedes the allocation, as everywhere else.
                 long size = box.serializedSize();
-                gas.charge(size * GasSchedule.PER_BYTE);
-                capHostBuffer(size, gas);
+                frame.gas.charge(size * GasSchedule.PER_BYTE);
+                capHostBuffer(size, frame.gas);
                 byte[] serialized = box.serialize();
                 return new long[] {copyOutCharged(inst, serialized, args[1], args[2])};
             });
@@ -1956,16 +2109,16 @@ public final class WasmVm {
                 // for free. Long-cast BEFORE the add so the length sum cannot overflow int (F4).
                 // A wrong-length callee address simply resolves to nothing: the dispatcher returns
                 // null and the call reports -1, so metering (not rejection) is the fix here.
-                gas.charge(GasSchedule.CALL_BASE + ((long) calleeLen + inputLen) * GasSchedule.PER_BYTE);
-                capHostBuffer(calleeLen, gas);
-                capHostBuffer(inputLen, gas);
+                frame.gas.charge(GasSchedule.CALL_BASE + ((long) calleeLen + inputLen) * GasSchedule.PER_BYTE);
+                capHostBuffer(calleeLen, frame.gas);
+                capHostBuffer(inputLen, frame.gas);
                 byte[] callee = mem.readBytes(asOffset(args[0]), calleeLen);
                 byte[] input = mem.readBytes(asOffset(args[2]), inputLen);
-                byte[] output = calls == null ? null : calls.call(callee, input);
+                byte[] output = frame.calls == null ? null : frame.calls.call(callee, input);
                 if (output == null) {
                     return new long[] {-1L};
                 }
-                return new long[] {copyOut(inst, output, args[4], args[5], gas)};
+                return new long[] {copyOut(inst, output, args[4], args[5], frame.gas)};
             });
 
         return new HostFunction[] {
@@ -0,0 +1,84 @@
+package rhizome.vm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import rhizome.core.blockchain.ContractProcessor.ContractResult;
+import rhizome.core.blockchain.Contracts;
+import rhizome.core.ledger.PublicAddress;
+import rhizome.core.transaction.TransactionKind;
+
+/**
+ * {@link ContractProfiler}: consensus calls are recorded per contract with their self gas, storage
+ * traffic and module-cache outcome; dry-runs are not; profiling never changes {@code gasUsed}.
+ */
+class ContractProfilerTest {
+
+    private static final byte[] COUNTER = load("/counter.wasm");
+    private static final long GAS = 10_000_000L;
+
+    private static byte[] load(String r) {
+        try (var in = ContractProfilerTest.class.getResourceAsStream(r)) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Test
+    void consensusCallsAreProfiledPerContract() {
+        WasmContractProcessor proc = new WasmContractProcessor(new WasmVm(), new InMemoryContractStore());
+        ContractProfiler profiler = new ContractProfiler(1); // sample every frame
+        proc.setProfiler(profiler);
+        PublicAddress deployer = PublicAddress.random();
+        proc.begin();
+        proc.run(deployer, TransactionKind.DEPLOY, PublicAddress.empty(), COUNTER, 0, GAS, 0);
+        PublicAddress contract = Contracts.deriveAddress(deployer, 0);
+        ContractResult first = proc.run(deployer, TransactionKind.CALL, contract, new byte[0], 0, GAS, 1);
+        ContractResult second = proc.run(deployer, TransactionKind.CALL, contract, new byte[0], 0, GAS, 2);
+        proc.commit(1);
+        assertTrue(first.success() && second.success());
+
+        // Not recorded: a dry-run is query traffic, not block execution.
+        proc.dryRun(PublicAddress.random(), contract, new byte[0], 0, GAS);
+
+        List<ContractProfiler.Profile> rows = profiler.snapshot(ContractProfiler.Order.CALLS, 10, 10);
+        assertEquals(1, rows.size());
+        ContractProfiler.Profile p = rows.get(0);
+        assertEquals(contract, p.contract());
+        assertEquals(2, p.calls());
+        assertEquals(0, p.failures());
+        assertTrue(p.gas() > 0 && p.gas() < first.gasUsed() + second.gasUsed(),
+            "self gas excludes the intrinsic CALL charge levied outside the frame");
+        assertEquals(2, p.storageReads());
+        assertEquals(2, p.storageWrites());
+        assertEquals(2, p.cacheHits(), "deploy validation warmed the module cache");
+        assertFalse(p.functions().isEmpty(), "every frame sampled: the exported call function was timed");
+
+        // Same gas with and without the profiler wired.
+        WasmContractProcessor plain = new WasmContractProcessor(new WasmVm(), new InMemoryContractStore());
+        plain.begin();
+        plain.run(deployer, TransactionKind.DEPLOY, PublicAddress.empty(), COUNTER, 0, GAS, 0);
+        assertEquals(first.gasUsed(), plain.run(deployer, TransactionKind.CALL, contract, new byte[0], 0, GAS, 1).gasUsed());
+    }
+
+    @Test
+    void histogramPercentilesAreBucketUpperBounds() {
+        ContractProfiler.Log2Histogram h = new ContractProfiler.Log2Histogram();
+        assertEquals(0, h.percentile(0.5));
+        for (int i = 0; i < 99; i++) {
+            h.record(100);     // bucket [64, 128)
+        }
+        h.record(10_000);      // bucket [8192, 16384)
+        assertEquals(127, h.percentile(0.50));
+        assertEquals(127, h.percentile(0.99));
+        assertEquals(16_383, h.percentile(1.0));
+    }
+}
@@ -0,0 +1,199 @@
+package rhizome.vm;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import rhizome.core.blockchain.ContractProcessor.ContractLog;
+import rhizome.core.ledger.PublicAddress;
+import rhizome.core.transaction.TransactionKind;
+
+/**
+ * Tests for the historical log index on the VM side: {@link LogBloom} itself, the processor's
+ * commit handing a block's logs and bloom to a log-indexing store, and
+ * {@link WasmContractProcessor#logs} falling back to the persisted copy. The range-bloom descent
+ * runs against the real RocksDB store in {@code RocksDbContractStoreTest}.
+ */
+class LogBloomTest {
+
+    private static final PublicAddress A = PublicAddress.of(new byte[PublicAddress.SIZE]);
+    private static final PublicAddress B = address(1);
+    private static final byte[] TRANSFER = "transfer".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MINT = "mint".getBytes(StandardCharsets.UTF_8);
+
+    private static PublicAddress address(int first) {
+        byte[] bytes = new byte[PublicAddress.SIZE];
+        bytes[0] = (byte) first;
+        return PublicAddress.of(bytes);
+    }
+
+    private static ContractLog log(PublicAddress contract, byte[] topic) {
+        return new ContractLog(contract, topic, new byte[] {7});
+    }
+
+    /** A contract store that says it indexes logs and records what the processor hands it. The
+     *  bloom staging itself is the RocksDB store's, tested there (RocksDbContractStoreTest). */
+    private static final class RecordingStore implements ContractStore {
+        private final InMemoryContractStore delegate = new InMemoryContractStore();
+        final Map<Long, byte[]> logs = new HashMap<>();
+        final Map<Long, LogBloom> blooms = new HashMap<>();
+
+        @Override public byte[] getCode(PublicAddress contract) {
+            return delegate.getCode(contract);
+        }
+
+        @Override public void putCode(PublicAddress contract, byte[] code) {
+            delegate.putCode(contract, code);
+        }
+
+        @Override public void deleteCode(PublicAddress contract) {
+            delegate.deleteCode(contract);
+        }
+
+        @Override public byte[] getStorage(PublicAddress contract, byte[] key) {
+            return delegate.getStorage(contract, key);
+        }
+
+        @Override public void putStorage(PublicAddress contract, byte[] key, byte[] value) {
+            delegate.putStorage(contract, key, value);
+        }
+
+        @Override public void deleteStorage(PublicAddress contract, byte[] key) {
+            delegate.deleteStorage(contract, key);
+        }
+
+        @Override public boolean indexesLogs() {
+            return true;
+        }
+
+        @Override public byte[] getLogs(long height) {
+            return logs.get(height);
+        }
+
+        @Override public void applyBlock(long height, List<StorageChange> changes, byte[] journal,
+                                         byte[] encodedReceipts, byte[] encodedLogs, LogBloom bloom) {
+            applyBlock(height, changes, journal, encodedReceipts);
+            if (encodedLogs != null) {
+                logs.put(height, encodedLogs);
+                blooms.put(height, bloom);
+            }
+        }
+    }
+
+    @Test
+    void aBlockBloomMatchesItsContractsAndTopicsAndRejectsOthers() {
+        LogBloom block = LogBloom.of(List.of(log(A, TRANSFER)));
+        for (int level = 0; level < LogBloom.SPANS.length; level++) {
+            byte[] bits = block.bits(level);
+            assertEquals(LogBloom.BITS[level] / 8, bits.length);
+            assertTrue(LogBloom.probe(A, null).mayMatch(bits, level));
+            assertTrue(LogBloom.probe(null, TRANSFER).mayMatch(bits, level));
+            assertTrue(LogBloom.probe(A, TRANSFER).mayMatch(bits, level));
+            assertFalse(LogBloom.probe(B, null).mayMatch(bits, level));
+            assertFalse(LogBloom.probe(A, MINT).mayMatch(bits, level));
+        }
+        assertThrows(IllegalArgumentException.class, () -> LogBloom.probe(null, null));
+    }
+
+    @Test
+    void aRangeFilterAtRealisticFillStillRulesOutUnrelatedProbes() {
+        // A full 1 024-block range, every block emitting two logs from distinct contracts with
+        // distinct topics: the four items per block the range level is sized for.
+        byte[] range = new byte[LogBloom.BITS[1] / 8];
+        for (int block = 0; block < LogBloom.SPANS[1]; block++) {
+            LogBloom.union(range, LogBloom.of(List.of(
+                log(numbered(2 * block), topic(2 * block)),
+                log(numbered(2 * block + 1), topic(2 * block + 1)))).bits(1));
+        }
+        int set = 0;
+        for (byte b : range) {
+            set += Integer.bitCount(b & 0xFF);
+        }
+        double fill = (double) set / LogBloom.BITS[1];
+        assertTrue(fill > 0.25 && fill < 0.4, "about a third of the bits set, was " + fill);
+
+        int contractPasses = 0;
+        int bothPasses = 0;
+        for (int i = 0; i < 200; i++) {
+            int absent = 1_000_000 + i;
+            contractPasses += LogBloom.probe(numbered(absent), null).mayMatch(range, 1) ? 1 : 0;
+            bothPasses += LogBloom.probe(numbered(absent), topic(absent)).mayMatch(range, 1) ? 1 : 0;
+        }
+        assertTrue(contractPasses <= 20, "a contract probe skips most ranges, passed " + contractPasses);
+        assertTrue(bothPasses <= 2, "a contract-and-topic probe skips nearly all, passed " + bothPasses);
+        assertTrue(LogBloom.probe(numbered(7), topic(7)).mayMatch(range, 1), "never a false no");
+    }
+
+    private static PublicAddress numbered(int n) {
+        byte[] bytes = new byte[PublicAddress.SIZE];
+        java.nio.ByteBuffer.wrap(bytes).putInt(n);
+        return PublicAddress.of(bytes);
+    }
+
+    private static byte[] topic(int n) {
+        return ("topic-" + n).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void commitHandsTheBlocksLogsAndBloomToTheStoreInItsBatch() throws Exception {
+        byte[] emitterCode;
+        try (var in = LogBloomTest.class.getResourceAsStream("/emitter.wasm")) {
+            emitterCode = in.readAllBytes();
+        }
+        RecordingStore store = new RecordingStore();
+        WasmContractProcessor processor = new WasmContractProcessor(new WasmVm(), store);
+        processor.begin();
+        PublicAddress emitter = processor.run(A, TransactionKind.DEPLOY, PublicAddress.empty(), emitterCode, 0, 5_000_000, 0)
+            .contractAddress();
+        processor.commit(1);
+        assertNull(store.getLogs(1), "a block without logs persists none");
+
+        processor.begin();
+        assertTrue(processor.run(A, TransactionKind.CALL, emitter, new byte[0], 0, 5_000_000, 1).success());
+        processor.commit(2);
+        List<ContractLog> persisted = WasmContractProcessor.decodeLogs(store.getLogs(2));
+        assertEquals(1, persisted.size());
+        assertEquals(emitter, persisted.get(0).contract());
+        assertArrayEquals("count".getBytes(StandardCharsets.UTF_8), persisted.get(0).topic());
+        byte[] bits = store.blooms.get(2L).bits(0);
+        assertTrue(LogBloom.probe(emitter, "count".getBytes(StandardCharsets.UTF_8)).mayMatch(bits, 0));
+        assertFalse(LogBloom.probe(B, null).mayMatch(bits, 0));
+    }
+
+    @Test
+    void logsPastTheRamWindowAreReadFromTheStore() {
+        RecordingStore store = new RecordingStore();
+        WasmContractProcessor processor = new WasmContractProcessor(new WasmVm(), store);
+        store.logs.put(42L, WasmContractProcessor.encodeLogs(List.of(log(A, TRANSFER), log(B, MINT))));
+
+        List<ContractLog> logs = processor.logs(42);
+        assertEquals(2, logs.size());
+        assertEquals(A, logs.get(0).contract());
+        assertArrayEquals(TRANSFER, logs.get(0).topic());
+        assertEquals(B, logs.get(1).contract());
+        assertArrayEquals(new byte[] {7}, logs.get(1).data());
+        assertEquals(List.of(), processor.logs(43));
+    }
+
+    @Test
+    void withoutAnIndexThereAreNoCandidates() {
+        WasmContractProcessor processor = new WasmContractProcessor(new WasmVm(), new InMemoryContractStore());
+        assertNull(processor.logCandidates(1, 100, A, null, 1_000));
+    }
+
+    @Test
+    void aCorruptLogCountFailsCleanlyWithoutAGiantAllocation() {
+        byte[] corrupt = java.nio.ByteBuffer.allocate(4).putInt(Integer.MAX_VALUE).array();
+        assertThrows(IllegalArgumentException.class, () -> WasmContractProcessor.decodeLogs(corrupt));
+    }
+}
@@ -0,0 +1,125 @@
+package rhizome.vm;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import rhizome.core.blockchain.ContractProcessor.ContractResult;
+import rhizome.core.blockchain.Contracts;
+import rhizome.core.ledger.PublicAddress;
+import rhizome.core.transaction.TransactionKind;
+
+/**
+ * {@link ReadonlyCallEngine}: read-only calls run against the view they opened, on the engine's
+ * own workers, persist nothing, and are re-run on a fresh view when the old one turned
+ * inconsistent (a state-root stamp overlapped it).
+ */
+class ReadonlyCallEngineTest {
+
+    private static final byte[] COUNTER = load("/counter.wasm");
+    private static final long GAS = 10_000_000L;
+
+    private static byte[] load(String r) {
+        try (var in = ReadonlyCallEngineTest.class.getResourceAsStream(r)) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] le64(long v) {
+        byte[] b = new byte[8];
+        for (int i = 0; i < 8; i++) {
+            b[i] = (byte) (v >>> (8 * i));
+        }
+        return b;
+    }
+
+    /** A read-only view over {@code store} that counts its closes. */
+    private static ContractStore.Snapshot snapshotOf(ContractStore store, AtomicInteger closes) {
+        return new ContractStore.Snapshot() {
+            @Override
+            public byte[] getCode(PublicAddress contract) {
+                return store.getCode(contract);
+            }
+
+            @Override
+            public byte[] getStorage(PublicAddress contract, byte[] key) {
+                return store.getStorage(contract, key);
+            }
+
+            @Override
+            public void close() {
+                closes.incrementAndGet();
+            }
+        };
+    }
+
+    @Test
+    void readonlyCallRunsOnItsViewAndPersistsNothing() {
+        InMemoryContractStore contracts = new InMemoryContractStore();
+        WasmContractProcessor proc = new WasmContractProcessor(new WasmVm(), contracts);
+        PublicAddress deployer = PublicAddress.random();
+        proc.begin();
+        proc.run(deployer, TransactionKind.DEPLOY, PublicAddress.empty(), COUNTER, 0, GAS, 0);
+        proc.commit(1);
+        PublicAddress contract = Contracts.deriveAddress(deployer, 0);
+
+        AtomicInteger closes = new AtomicInteger();
+        try (ReadonlyCallEngine engine = new ReadonlyCallEngine(proc, () -> new ReadonlyCallEngine.View(
+                snapshotOf(contracts, closes), id -> null, a -> 0L, () -> true), 2)) {
+            Optional<ContractResult> r = engine.call(PublicAddress.random(), contract, new byte[0], 0, GAS);
+            assertTrue(r.isPresent() && r.get().success());
+            assertArrayEquals(le64(1), r.get().output());
+            assertNull(contracts.getStorage(contract, new byte[] {0}), "a read-only call must not write");
+            assertEquals(1, closes.get(), "the view is closed after the call");
+
+            // Same gas as the consensus-path dry-run: the view changes where state is read, not cost.
+            ContractResult locked = proc.dryRun(PublicAddress.random(), contract, new byte[0], 0, GAS);
+            assertEquals(locked.gasUsed(), r.get().gasUsed());
+        }
+    }
+
+    @Test
+    void inconsistentViewIsRetriedThenShed() {
+        InMemoryContractStore contracts = new InMemoryContractStore();
+        WasmContractProcessor proc = new WasmContractProcessor(new WasmVm(), contracts);
+        PublicAddress deployer = PublicAddress.random();
+        proc.begin();
+        proc.run(deployer, TransactionKind.DEPLOY, PublicAddress.empty(), COUNTER, 0, GAS, 0);
+        proc.commit(1);
+        PublicAddress contract = Contracts.deriveAddress(deployer, 0);
+
+        // The first view is overlapped by a "stamp"; the retry on a fresh view succeeds.
+        AtomicInteger opened = new AtomicInteger();
+        AtomicInteger closes = new AtomicInteger();
+        try (ReadonlyCallEngine engine = new ReadonlyCallEngine(proc, () -> {
+                int n = opened.incrementAndGet();
+                return new ReadonlyCallEngine.View(snapshotOf(contracts, closes), id -> null, a -> 0L,
+                    () -> n > 1);
+            }, 1)) {
+            assertTrue(engine.call(PublicAddress.random(), contract, new byte[0], 0, GAS).isPresent());
+            assertEquals(2, opened.get());
+            assertEquals(2, closes.get());
+        }
+
+        // A view that never stays consistent is shed after MAX_ATTEMPTS runs.
+        AtomicInteger attempts = new AtomicInteger();
+        try (ReadonlyCallEngine engine = new ReadonlyCallEngine(proc, () -> {
+                attempts.incrementAndGet();
+                return new ReadonlyCallEngine.View(snapshotOf(contracts, new AtomicInteger()), id -> null,
+                    a -> 0L, () -> false);
+            }, 1)) {
+            assertTrue(engine.call(PublicAddress.random(), contract, new byte[0], 0, GAS).isEmpty());
+            assertEquals(ReadonlyCallEngine.MAX_ATTEMPTS, attempts.get());
+        }
+    }
+}
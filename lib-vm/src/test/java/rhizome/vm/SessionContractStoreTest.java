@@ -18,7 +18,8 @@ import rhizome.core.ledger.PublicAddress;
  * dropping it let a later read fall through to the base store and return the OLD value, so the
  * delete silently vanished from the session's own view. The tombstone must read as absent, flush
  * as a real delete (journalling the prior value), and map to a {@link StorageChange} delete for
- * the atomic applyBlock path.
+ * the atomic applyBlock path. Also covers the savepoints nested call frames write under: a rollback
+ * restores exactly the pre-savepoint view, including a released inner frame's writes.
  */
 class SessionContractStoreTest {
 
@@ -165,4 +166,71 @@ class SessionContractStoreTest {
         parentValue[0] = 77;
         assertArrayEquals(new byte[] {5}, child.getStorage(CONTRACT, new byte[] {2}));
     }
+
+    // ---- savepoints (nested call frames on the one flat session) ----
+
+    @Test
+    void rollbackRestoresEveryWriteSinceTheSavepoint() {
+        base.putStorage(CONTRACT, KEY, OLD);
+        session.putStorage(CONTRACT, new byte[] {2}, new byte[] {2});
+        int sp = session.savepoint();
+        session.putStorage(CONTRACT, KEY, NEW);
+        session.putStorage(CONTRACT, KEY, new byte[] {8}); // rewritten: still one record to undo
+        session.deleteStorage(CONTRACT, new byte[] {2});
+        session.putCode(CONTRACT, new byte[] {1, 2, 3});
+        session.rollback(sp);
+
+        assertArrayEquals(OLD, session.getStorage(CONTRACT, KEY), "an untouched-before key falls through again");
+        assertArrayEquals(new byte[] {2}, session.getStorage(CONTRACT, new byte[] {2}),
+            "a key written before the savepoint gets its pre-savepoint value back");
+        assertNull(session.getCode(CONTRACT));
+        assertEquals(1, session.pendingChanges().size(), "only the pre-savepoint write survives");
+    }
+
+    @Test
+    void releasedInnerWritesRollBackWithTheirEnclosingSavepoint() {
+        int outer = session.savepoint();
+        session.putStorage(CONTRACT, KEY, NEW);
+        int inner = session.savepoint();
+        session.putStorage(CONTRACT, KEY, new byte[] {8});
+        session.putStorage(CONTRACT, new byte[] {3}, new byte[] {3});
+        session.release(inner); // the sub-call succeeded...
+        assertArrayEquals(new byte[] {8}, session.getStorage(CONTRACT, KEY));
+        session.rollback(outer); // ...but its caller reverted: both go
+        assertNull(session.getStorage(CONTRACT, KEY));
+        assertNull(session.getStorage(CONTRACT, new byte[] {3}));
+        assertEquals(0, session.pendingChanges().size());
+    }
+
+    @Test
+    void changesAndJournalFollowFirstSurvivingWriteOrder() {
+        base.putStorage(CONTRACT, new byte[] {2}, OLD);
+        session.putStorage(CONTRACT, new byte[] {1}, NEW);
+        int sp = session.savepoint();
+        session.putStorage(CONTRACT, new byte[] {9}, NEW); // rolled back: never listed
+        session.rollback(sp);
+        session.putStorage(CONTRACT, new byte[] {2}, NEW);
+        session.putStorage(CONTRACT, new byte[] {1}, new byte[] {5}); // keeps its first position
+
+        List<StorageChange> changes = session.pendingChanges();
+        assertEquals(2, changes.size());
+        assertArrayEquals(new byte[] {1}, changes.get(0).key());
+        assertArrayEquals(new byte[] {5}, changes.get(0).value(), "the final value is listed");
+        assertArrayEquals(new byte[] {2}, changes.get(1).key());
+        List<ContractUndo> journal = session.captureJournal();
+        assertNull(journal.get(0).prior());
+        assertArrayEquals(OLD, journal.get(1).prior());
+    }
+
+    @Test
+    void closingAnOuterSavepointAlsoClosesAnAbandonedInnerOne() {
+        int outer = session.savepoint();
+        session.putStorage(CONTRACT, KEY, NEW);
+        session.savepoint(); // a nested frame that threw and never closed its savepoint
+        session.putStorage(CONTRACT, new byte[] {3}, NEW);
+        session.rollback(outer);
+        assertNull(session.getStorage(CONTRACT, KEY));
+        assertNull(session.getStorage(CONTRACT, new byte[] {3}));
+        assertThrows(IllegalStateException.class, () -> session.release(outer), "already closed");
+    }
 }
@@ -139,6 +139,116 @@ class WasmVmTest {
             "gasUsed must not depend on module-cache warmth (consensus determinism)");
     }
 
+    /** A section: id, LEB128 size (every section here is under 128 bytes), body. */
+    private static byte[] section(int id, int... body) {
+        byte[] out = new byte[body.length + 2];
+        out[0] = (byte) id;
+        out[1] = (byte) body.length;
+        for (int i = 0; i < body.length; i++) {
+            out[i + 2] = (byte) body[i];
+        }
+        return out;
+    }
+
+    private static byte[] module(byte[]... sections) {
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        out.writeBytes(new byte[] {0x00, 0x61, 0x73, 0x6D, 0x01, 0x00, 0x00, 0x00});
+        for (byte[] section : sections) {
+            out.writeBytes(section);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A contract whose every call bumps a mutable global and memory byte 0, then outputs
+     * {@code [memory[0], global]}: {@code [1, 1]} from the post-instantiation image, more from an
+     * instance that kept the previous call's writes.
+     */
+    private static final byte[] STATEFUL = module(
+        section(1, 0x02, 0x60, 0x02, 0x7F, 0x7F, 0x00, 0x60, 0x00, 0x00),           // (i32,i32)->(), ()->()
+        section(2, 0x01, 0x03, 'e', 'n', 'v', 0x0A, 's', 'e', 't', '_', 'o', 'u', 't', 'p', 'u', 't',
+            0x00, 0x00),                                                             // env.set_output
+        section(3, 0x01, 0x01),                                                      // call: type 1
+        section(5, 0x01, 0x00, 0x01),                                                // memory, 1 page
+        section(6, 0x01, 0x7F, 0x01, 0x41, 0x00, 0x0B),                              // mut i32 = 0
+        section(7, 0x01, 0x04, 'c', 'a', 'l', 'l', 0x00, 0x01),                      // export call
+        section(10, 0x01, 0x23, 0x00,
+            0x23, 0x00, 0x41, 0x01, 0x6A, 0x24, 0x00,                                // g += 1
+            0x41, 0x00, 0x41, 0x00, 0x2D, 0x00, 0x00, 0x41, 0x01, 0x6A, 0x3A, 0x00, 0x00, // m[0] += 1
+            0x41, 0x01, 0x23, 0x00, 0x3A, 0x00, 0x00,                                // m[1] = g
+            0x41, 0x00, 0x41, 0x02, 0x10, 0x00,                                      // set_output(0, 2)
+            0x0B));
+
+    @Test
+    void pooledInstancesStartFromThePostInstantiationImage() {
+        // Repeated calls reuse a pooled instance reset to the image captured before its first call.
+        // A reset that leaked linear memory or globals (the Rust stack pointer, the heap) from the
+        // previous call would change the output or gasUsed of an otherwise identical call — a
+        // consensus fork — so every repeat, including one after a trapped call (which is dropped,
+        // not recycled), must match the cold run exactly, and must really have been pooled.
+        WasmVm.clearModuleCacheForTest();
+        ExecResult cold = vm.execute(STATEFUL, new MapHostState(new byte[0], new byte[0], 0), new GasMeter(1_000_000));
+        assertEquals(ExecResult.Status.OK, cold.status(), cold.message());
+        assertArrayEquals(new byte[] {1, 1}, cold.output());
+        assertEquals(0, WasmVm.pooledReusesForTest(STATEFUL));
+
+        for (int i = 0; i < 5; i++) {
+            ExecResult warm = vm.execute(STATEFUL, new MapHostState(new byte[0], new byte[0], 0), new GasMeter(1_000_000));
+            assertEquals(ExecResult.Status.OK, warm.status());
+            assertArrayEquals(new byte[] {1, 1}, warm.output(), "pooled call " + i + " saw the previous call's writes");
+            assertEquals(cold.gasUsed(), warm.gasUsed(), "pooled call " + i + " charged different gas");
+            assertEquals(i + 1, WasmVm.pooledReusesForTest(STATEFUL), "call " + i + " did not reuse the instance");
+        }
+
+        // A real contract, whose stack pointer and heap move on every call, across a trap.
+        ExecResult counterCold = vm.execute(COUNTER, new MapHostState(new byte[0], new byte[0], 0), new GasMeter(10_000_000));
+        assertEquals(ExecResult.Status.OK, counterCold.status());
+        for (int i = 0; i < 5; i++) {
+            if (i == 2) {
+                ExecResult trapped = vm.execute(COUNTER, new MapHostState(new byte[0], new byte[0], 0), new GasMeter(50));
+                assertEquals(ExecResult.Status.OUT_OF_GAS, trapped.status());
+            }
+            ExecResult warm = vm.execute(COUNTER, new MapHostState(new byte[0], new byte[0], 0), new GasMeter(10_000_000));
+            assertEquals(ExecResult.Status.OK, warm.status());
+            assertArrayEquals(counterCold.output(), warm.output(), "pooled call " + i + " saw leaked state");
+            assertEquals(counterCold.gasUsed(), warm.gasUsed(), "pooled call " + i + " charged different gas");
+        }
+        assertTrue(WasmVm.pooledReusesForTest(COUNTER) >= 4, "counter calls were not pooled");
+    }
+
+    @Test
+    void aPoolResetsTheModulesOwnGlobalsNotTheImportedOnes() {
+        // Imported globals come first in the instance's global index space: global 0 is env.g, the
+        // module's own mutable global is 1. A reset indexing from 0 would rewrite the host's global
+        // and leave the instance's own dirty.
+        byte[] code = module(
+            section(1, 0x01, 0x60, 0x00, 0x00),
+            section(2, 0x01, 0x03, 'e', 'n', 'v', 0x01, 'g', 0x03, 0x7F, 0x00),     // env.g: const i32
+            section(3, 0x01, 0x00),
+            section(6, 0x01, 0x7F, 0x01, 0x41, 0x05, 0x0B),                          // mut i32 = 5
+            section(7, 0x01, 0x04, 'c', 'a', 'l', 'l', 0x00, 0x00),
+            section(10, 0x01, 0x06, 0x00, 0x41, 0x09, 0x24, 0x01, 0x0B));             // global 1 = 9
+        var module = com.dylibso.chicory.wasm.Parser.parse(code);
+        var pool = new WasmInstancePool(module);
+        var instance = com.dylibso.chicory.runtime.Instance.builder(module)
+            .withImportValues(com.dylibso.chicory.runtime.ImportValues.builder()
+                .addGlobal(new com.dylibso.chicory.runtime.ImportGlobal("env", "g",
+                    new com.dylibso.chicory.runtime.GlobalInstance(com.dylibso.chicory.wasm.types.Value.i32(42))))
+                .build())
+            .withStart(false)
+            .build();
+        pool.captureImage(instance, null);
+        instance.export("call").apply();
+        assertEquals(9, instance.global(1).getValue());
+
+        pool.release(instance, new WasmVm.CallFrame());
+        WasmInstancePool.Slot slot = pool.acquire(new GasMeter(1_000), 0);
+        assertTrue(slot != null && slot.instance() == instance, "the instance was not pooled");
+        assertEquals(5, instance.global(1).getValue(), "the module's own global was not reset");
+        assertEquals(42, instance.global(0).getValue(), "the imported global was touched");
+        pool.close();
+    }
+
     @Test
     void interruptingTheCallerAlsoInterruptsTheWorker() throws InterruptedException {
         // If the thread joining the fixed-stack execution thread is interrupted, the worker must be